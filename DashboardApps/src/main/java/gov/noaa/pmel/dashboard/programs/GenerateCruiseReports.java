@@ -1,5 +1,6 @@
 package gov.noaa.pmel.dashboard.programs;
 
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
@@ -301,7 +302,14 @@ public class GenerateCruiseReports {
                 }
                 warnMsgs.add(msg);
             }
-            dsgFile.readData(knownDataFileTypes);
+            // Only the WOCE flags and region IDs are needed to decide whether to report this dataset
+            ArrayList<DashDataType<?>> checkTypes = new ArrayList<DashDataType<?>>(2);
+            checkTypes.add(SocatTypes.WOCE_CO2_WATER);
+            if ( regionID != null )
+                checkTypes.add(DashboardServerUtils.REGION_ID);
+            unknownVars = dsgFile.readDataColumns(checkTypes, 0, -1);
+            if ( unknownVars.size() > 0 )
+                throw new IOException(unknownVars.get(0) + " is not defined in the DSG file for " + upperExpo);
             StdDataArray dataVals = dsgFile.getStdDataArray();
             Integer woceColIdx = dataVals.getIndexOfType(SocatTypes.WOCE_CO2_WATER);
             if ( woceColIdx == null )
@@ -316,8 +324,8 @@ public class GenerateCruiseReports {
                 for (int j = 0; j < dataVals.getNumSamples(); j++) {
                     // Ignore WOCE-3 and WOCE-4 as they are not reported
                     // and may be indicating invalid locations for this cruise
-                    if ( regionID.equals(dataVals.getStdVal(j, regionColIdx)) &&
-                            DashboardServerUtils.WOCE_ACCEPTABLE.equals(dataVals.getStdVal(j, woceColIdx)) ) {
+                    if ( regionID.equals(dataVals.getStringVal(j, regionColIdx)) &&
+                            DashboardServerUtils.WOCE_ACCEPTABLE.equals(dataVals.getStringVal(j, woceColIdx)) ) {
                         inRegion = true;
                         break;
                     }
@@ -326,7 +334,7 @@ public class GenerateCruiseReports {
             else {
                 // Check that there is some valid data point
                 for (int j = 0; j < dataVals.getNumSamples(); j++) {
-                    if ( DashboardServerUtils.WOCE_ACCEPTABLE.equals(dataVals.getStdVal(j, woceColIdx)) ) {
+                    if ( DashboardServerUtils.WOCE_ACCEPTABLE.equals(dataVals.getStringVal(j, woceColIdx)) ) {
                         inRegion = true;
                         break;
                     }
@@ -1137,19 +1145,19 @@ public class GenerateCruiseReports {
         for (int j = 0; j < dataVals.getNumSamples(); j++) {
             if ( multicruise ) {
                 // First check if this data sample should even be considered
-                if ( (regionID != null) && !regionID.equals(dataVals.getStdVal(j, regionIdx)) )
+                if ( (regionID != null) && !regionID.equals(dataVals.getStringVal(j, regionIdx)) )
                     continue;
-                Double fco2Rec = (Double) dataVals.getStdVal(j, fco2RecIdx);
-                if ( fco2Rec == null )
+                if ( dataVals.isMissing(j, fco2RecIdx) )
                     continue;
-                String woceValue = (String) dataVals.getStdVal(j, woceWaterIdx);
+                String woceValue = dataVals.getStringVal(j, woceWaterIdx);
                 if ( !((woceValue == null) || woceValue.trim().isEmpty() ||
                         DashboardServerUtils.WOCE_ACCEPTABLE.equals(woceValue)) )
                     continue;
                 // Valid for multicruise report; now check that it is not a duplicate
                 DataPoint datpt = new DataPoint(expocode, (Double) dataVals.getStdVal(j, sectimeIdx),
                         (Double) dataVals.getStdVal(j, latitudeIdx), (Double) dataVals.getStdVal(j, longitudeIdx),
-                        (Double) dataVals.getStdVal(j, sstIdx), (Double) dataVals.getStdVal(j, salIdx), fco2Rec);
+                        (Double) dataVals.getStdVal(j, sstIdx), (Double) dataVals.getStdVal(j, salIdx),
+                        dataVals.getDoubleVal(j, fco2RecIdx));
                 if ( !prevDatPts.add(datpt) ) {
                     System.err.println("Ignored duplicate datapoint for " + expocode + ": " + datpt.toString());
                     continue;
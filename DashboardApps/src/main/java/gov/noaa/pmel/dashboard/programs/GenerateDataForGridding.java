@@ -1,6 +1,6 @@
 package gov.noaa.pmel.dashboard.programs;
 
-import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
 import gov.noaa.pmel.dashboard.dsg.StdDataArray;
@@ -14,6 +14,8 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.TreeSet;
 
 /**
@@ -23,12 +25,22 @@ import java.util.TreeSet;
  */
 public class GenerateDataForGridding {
 
+    /**
+     * The only data variables read from the DSG files
+     */
+    private static final List<DashDataType<?>> GRIDDING_DATA_TYPES = Arrays.<DashDataType<?>>asList(
+            DashboardServerUtils.LONGITUDE,
+            DashboardServerUtils.LATITUDE,
+            DashboardServerUtils.TIME,
+            SocatTypes.FCO2_REC,
+            SocatTypes.SALINITY,
+            SocatTypes.SST,
+            SocatTypes.WOCE_CO2_WATER);
+
     private DsgNcFileHandler dsgFileHandler;
-    private KnownDataTypes knownDataFileTypes;
 
     public GenerateDataForGridding(DashboardConfigStore configStore) {
         dsgFileHandler = configStore.getDsgNcFileHandler();
-        knownDataFileTypes = configStore.getKnownDataFileTypes();
     }
 
     /**
@@ -72,7 +84,7 @@ public class GenerateDataForGridding {
                 // Read the data for this cruise
                 String upperExpo = DashboardServerUtils.checkDatasetID(expo);
                 DsgNcFile dsgFile = dsgFileHandler.getDsgNcFile(upperExpo);
-                ArrayList<String> unknownVars = dsgFile.readData(knownDataFileTypes);
+                ArrayList<String> unknownVars = dsgFile.readDataColumns(GRIDDING_DATA_TYPES, 0, -1);
                 if ( unknownVars.size() > 0 ) {
                     String msg = upperExpo + " unassigned data variables: ";
                     for (String var : unknownVars) {
@@ -121,16 +133,17 @@ public class GenerateDataForGridding {
                 // Any duplicates are eliminated in this process
                 TreeSet<DataPoint> datSet = new TreeSet<DataPoint>();
                 for (int j = 0; j < dataVals.getNumSamples(); j++) {
-                    Double fco2rec = (Double) dataVals.getStdVal(j, fco2RecIdx);
-                    if ( fco2rec == null )
+                    // Use the typed accessors to reject data points without creating objects
+                    if ( dataVals.isMissing(j, fco2RecIdx) )
                         continue;
-                    String woceFlag = (String) dataVals.getStdVal(j, woceWaterIdx);
+                    String woceFlag = dataVals.getStringVal(j, woceWaterIdx);
                     if ( !((woceFlag == null) || woceFlag.isEmpty() ||
                             DashboardServerUtils.WOCE_ACCEPTABLE.equals(woceFlag)) )
                         continue;
                     DataPoint datpt = new DataPoint(upperExpo, (Double) dataVals.getStdVal(j, sectimeIdx),
                             (Double) dataVals.getStdVal(j, latitudeIdx), (Double) dataVals.getStdVal(j, longitudeIdx),
-                            (Double) dataVals.getStdVal(j, sstIdx), (Double) dataVals.getStdVal(j, salIdx), fco2rec);
+                            (Double) dataVals.getStdVal(j, sstIdx), (Double) dataVals.getStdVal(j, salIdx),
+                            dataVals.getDoubleVal(j, fco2RecIdx));
                     if ( !datSet.add(datpt) )
                         System.err
                                 .println("Ignored duplicate datapoint for " + upperExpo + ": " + datpt.toString());
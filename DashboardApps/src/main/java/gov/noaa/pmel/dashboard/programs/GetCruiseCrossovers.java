@@ -22,20 +22,40 @@ public class GetCruiseCrossovers {
 
     /**
      * @param args
-     *         ExpocodesFile - a file containing expocodes of the set of datasets
-     *         to examine for high-quality crossovers
+     *         ExpocodesFile [ NumThreads [ CacheSize ] ] - a file containing expocodes of the set of datasets
+     *         to examine for high-quality crossovers, the number of threads to use for examining dataset pairs,
+     *         and the maximum number of datasets whose data is kept in memory
      */
     public static void main(String[] args) {
-        if ( args.length != 1 ) {
-            System.err.println("Arguments:  ExpocodesFile");
+        if ( (args.length < 1) || (args.length > 3) ) {
+            System.err.println("Arguments:  ExpocodesFile  [ NumThreads  [ CacheSize ] ]");
             System.err.println();
             System.err.println("ExpocodesFile");
             System.err.println("    is a file containing expocodes, one per line, of the set of datasets ");
             System.err.println("    to examine for high-quality crossovers. ");
+            System.err.println("NumThreads");
+            System.err.println("    is the number of threads to use for examining pairs of datasets; ");
+            System.err.println("    if not given, one thread is used. ");
+            System.err.println("CacheSize");
+            System.err.println("    is the maximum number of datasets whose data is kept in memory for reuse; ");
+            System.err.println("    if not given, " + CrossoverChecker.DEFAULT_INDEX_CACHE_SIZE + " is used. ");
             System.err.println();
             System.exit(1);
         }
         String exposFilename = args[0];
+        int numThreads = 1;
+        int cacheSize = CrossoverChecker.DEFAULT_INDEX_CACHE_SIZE;
+        try {
+            if ( args.length > 1 )
+                numThreads = Integer.parseInt(args[1]);
+            if ( args.length > 2 )
+                cacheSize = Integer.parseInt(args[2]);
+            if ( (numThreads < 1) || (cacheSize < 1) )
+                throw new NumberFormatException("values must be positive");
+        } catch ( NumberFormatException ex ) {
+            System.err.println("Invalid NumThreads or CacheSize value: " + ex.getMessage());
+            System.exit(1);
+        }
 
         TreeSet<String> givenExpocodes = new TreeSet<String>();
         try {
@@ -100,7 +120,8 @@ public class GetCruiseCrossovers {
             try {
                 Set<String> expoSet = datasetFlagsMap.keySet();
                 CrossoverChecker crossChecker = new CrossoverChecker(configStore.getDsgNcFileHandler());
-                crossoversMap = crossChecker.findCrossovers(expoSet, expoSet, System.err, startTime);
+                crossoversMap = crossChecker.findCrossovers(expoSet, expoSet, numThreads, cacheSize,
+                        System.err, startTime);
             } catch ( Exception ex ) {
                 System.err.println("Problems checking for crossovers: " + ex.getMessage());
                 ex.printStackTrace();
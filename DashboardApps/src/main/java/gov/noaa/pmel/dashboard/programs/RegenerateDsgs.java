@@ -4,8 +4,6 @@ import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
 import gov.noaa.pmel.dashboard.dsg.StdDataArray;
-import gov.noaa.pmel.dashboard.ferret.FerretConfig;
-import gov.noaa.pmel.dashboard.ferret.SocatTool;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.handlers.MetadataFileHandler;
 import gov.noaa.pmel.dashboard.metadata.DashboardOmeMetadata;
@@ -15,6 +13,9 @@ import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
@@ -31,7 +32,6 @@ public class RegenerateDsgs {
     private MetadataFileHandler metaHandler;
     private KnownDataTypes knownMetadataTypes;
     private KnownDataTypes knownDataFileTypes;
-    private FerretConfig ferretConfig;
 
     /**
      * Regenerate DSG files using the given configuration data.
@@ -44,7 +44,6 @@ public class RegenerateDsgs {
         metaHandler = configStore.getMetadataFileHandler();
         knownMetadataTypes = configStore.getKnownMetadataTypes();
         knownDataFileTypes = configStore.getKnownDataFileTypes();
-        ferretConfig = configStore.getFerretConfig();
     }
 
     /**
@@ -62,6 +61,28 @@ public class RegenerateDsgs {
      *         if there was a problem regenerating the DSG files
      */
     public boolean regenerateDsgFiles(String datasetId, boolean forceIt) throws IllegalArgumentException {
+        return regenerateDsgFiles(datasetId, forceIt, true);
+    }
+
+    /**
+     * Regenerate the full-data DSG file, and optionally the decimated-data DSG file, for the given dataset.
+     *
+     * @param datasetId
+     *         regenerate the DSG files the the dataset with this ID
+     * @param forceIt
+     *         if true, always regenerate the DSG files;
+     *         if false, regenerate the DSG files only if the metadata has changed
+     * @param decimate
+     *         if true, also regenerate the decimated-data DSG file;
+     *         if false, the decimated-data DSG file needs to be regenerated by the caller
+     *
+     * @return if the DSG files were regenerated
+     *
+     * @throws IllegalArgumentException
+     *         if there was a problem regenerating the DSG files
+     */
+    public boolean regenerateDsgFiles(String datasetId, boolean forceIt, boolean decimate)
+            throws IllegalArgumentException {
         boolean updateIt = forceIt;
         String stdId = DashboardServerUtils.checkDatasetID(datasetId);
         DsgNcFile fullDataDsg;
@@ -98,18 +119,8 @@ public class RegenerateDsgs {
 
         if ( updateIt ) {
             try {
-                // Regenerate the DSG file with the updated metadata
-                fullDataDsg.createFromFileData(updatedMeta, dataVals, knownDataFileTypes);
-                // Call Ferret to add data variables
-                SocatTool tool = new SocatTool(ferretConfig);
-                ArrayList<String> scriptArgs = new ArrayList<String>(1);
-                scriptArgs.add(fullDataDsg.getPath());
-                tool.init(scriptArgs, stdId, FerretConfig.Action.COMPUTE);
-                tool.run();
-                if ( tool.hasError() )
-                    throw new IllegalArgumentException("Failure in adding computed variables for " +
-                            stdId + ": " + tool.getErrorMessage());
-
+                // Regenerate the DSG file with the updated metadata and add the computed data variables
+                dsgHandler.createDsgWithComputedData(fullDataDsg, updatedMeta, dataVals);
             } catch ( Exception ex ) {
                 throw new IllegalArgumentException("Problems regenerating the full-data DSG files for " +
                         stdId + ": " + ex.getMessage());
@@ -123,6 +134,9 @@ public class RegenerateDsgs {
                 ; // Ignore
             }
 
+            if ( !decimate )
+                return updateIt;
+
             try {
                 // Regenerate the decimated-data DSG file
                 dsgHandler.decimateDatasetDsg(stdId);
@@ -134,11 +148,34 @@ public class RegenerateDsgs {
         return updateIt;
     }
 
+    /**
+     * Regenerate the decimated-data DSG files for the given datasets, a number of datasets at a time,
+     * printing the time taken for each dataset to System.err.
+     *
+     * @param datasetIds
+     *         regenerate the decimated-data DSG files for the datasets with these IDs
+     * @param numThreads
+     *         number of datasets to decimate at the same time
+     *
+     * @return map of dataset IDs to error messages for the datasets that failed
+     */
+    public TreeMap<String,String> decimateDsgFiles(Collection<String> datasetIds, int numThreads) {
+        return dsgHandler.decimateDatasetDsgs(datasetIds, numThreads, System.err);
+    }
+
+    /**
+     * Defer notifying ERDDAP of changes to the DSG files until {@link #flagErddap()} is called
+     */
+    private void deferErddapFlags() {
+        dsgHandler.getErddapNotifier().deferFlags();
+    }
+
     /**
      * Flag ERDDAP that the full-data and decimated-data DSG files have changed
      */
     private void flagErddap() {
         dsgHandler.flagErddap(true, true);
+        dsgHandler.getErddapNotifier().resumeFlags();
     }
 
     /**
@@ -146,8 +183,8 @@ public class RegenerateDsgs {
      *         IDsFile - update DSG files of the datasets with these IDs
      */
     public static void main(String[] args) {
-        if ( args.length != 2 ) {
-            System.err.println("Arguments:  IDsFile  Always");
+        if ( (args.length < 2) || (args.length > 3) ) {
+            System.err.println("Arguments:  IDsFile  Always  [ NumThreads ]");
             System.err.println();
             System.err.println("Regenerates the full-data DSG files with the current data values ");
             System.err.println("in the DSG files but with the current metadata values in the OME ");
@@ -155,6 +192,9 @@ public class RegenerateDsgs {
             System.err.println("full-data DSG file.  The default dashboard configuration is used ");
             System.err.println("for this process.  If Always is T or True, this regeneration always ");
             System.err.println("occurs; otherwise if only occurs if the metadata has changed. ");
+            System.err.println("The decimated DSG files are regenerated NumThreads at a time ");
+            System.err.println("(default: the number of processors) after all the full-data DSG ");
+            System.err.println("files have been regenerated. ");
             System.err.println();
             System.exit(1);
         }
@@ -165,6 +205,15 @@ public class RegenerateDsgs {
             always = true;
         else
             always = false;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        if ( args.length > 2 ) {
+            try {
+                numThreads = Integer.parseInt(args[2]);
+            } catch ( NumberFormatException ex ) {
+                System.err.println("Invalid number of threads: " + args[2]);
+                System.exit(1);
+            }
+        }
 
         // Get the IDs of the datasets to update
         TreeSet<String> idsSet = new TreeSet<String>();
@@ -197,15 +246,18 @@ public class RegenerateDsgs {
             System.exit(1);
         }
         RegenerateDsgs regenerator = new RegenerateDsgs(configStore);
+        regenerator.deferErddapFlags();
 
         boolean changed = false;
         boolean success = true;
         try {
-            // update each of the datasets
+            // update the full-data DSG files of each of the datasets
+            ArrayList<String> regeneratedIds = new ArrayList<String>(idsSet.size());
             for (String datasetId : idsSet) {
                 try {
-                    if ( regenerator.regenerateDsgFiles(datasetId, always) ) {
-                        System.err.println("Regenerated the DSG files for " + datasetId);
+                    if ( regenerator.regenerateDsgFiles(datasetId, always, false) ) {
+                        System.err.println("Regenerated the full-data DSG file for " + datasetId);
+                        regeneratedIds.add(datasetId);
                         changed = true;
                     }
                 } catch ( Exception ex ) {
@@ -213,6 +265,19 @@ public class RegenerateDsgs {
                     success = false;
                 }
             }
+            // regenerate the decimated-data DSG files of the updated datasets
+            if ( !regeneratedIds.isEmpty() ) {
+                long startMillis = System.currentTimeMillis();
+                TreeMap<String,String> failures = regenerator.decimateDsgFiles(regeneratedIds, numThreads);
+                for (Map.Entry<String,String> entry : failures.entrySet()) {
+                    System.err.println("Problems regenerating the decimated-data DSG files for " +
+                            entry.getKey() + ": " + entry.getValue());
+                    success = false;
+                }
+                System.err.format("Decimated %d datasets in %.2f minutes\n", regeneratedIds.size() - failures.size(),
+                        (System.currentTimeMillis() - startMillis) / (60.0 * 1000.0));
+            }
+            // Notify ERDDAP once after all the DSG files have been regenerated
             if ( changed ) {
                 regenerator.flagErddap();
             }
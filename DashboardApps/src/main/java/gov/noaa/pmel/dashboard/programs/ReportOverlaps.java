@@ -1,11 +1,10 @@
 package gov.noaa.pmel.dashboard.programs;
 
 import gov.noaa.pmel.dashboard.actions.OverlapChecker;
+import gov.noaa.pmel.dashboard.dsg.DsgExtent;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.server.DashboardConfigStore;
-import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
-import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
 import gov.noaa.pmel.dashboard.shared.Overlap;
 
@@ -106,59 +105,36 @@ public class ReportOverlaps {
                 }
             }
 
-            // Get the time and latitude limits for all the cruises in the list
-            // in order to narrow down the cruises to examine for overlaps
-            TreeMap<String,double[]> timeMinMaxMap = new TreeMap<String,double[]>();
-            TreeMap<String,double[]> latMinMaxMap = new TreeMap<String,double[]>();
-            for (String expo : expoSet) {
-                timeDiff = (System.currentTimeMillis() - startTime) / (60.0 * 1000.0);
-                System.err.format("%.2fm - getting data limits for %s\n", timeDiff, expo);
-                double[][] dataVals = null;
-                try {
-                    dataVals = oerlapChecker.getMaskedLonLatTimeSstFco2Vals(expo);
-                } catch ( Exception ex ) {
-                    System.err.println("Unexpected error rereading " + expo + ": " + ex.getMessage());
-                    System.exit(1);
-                }
-                double[] timeMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[2]);
-                if ( (timeMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
-                        (timeMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) ) {
-                    System.err.println("No valid times for " + expo);
-                    System.exit(1);
-                }
-                timeMinMaxMap.put(expo, timeMinMaxVals);
-                double[] latMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[1]);
-                if ( (latMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
-                        (latMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) ) {
-                    System.err.println("No valid latitudes for " + expo);
+            // Get the time and latitude limits for all the cruises in the list from the catalog
+            // of DSG extents in order to narrow down the cruises to examine for overlaps
+            timeDiff = (System.currentTimeMillis() - startTime) / (60.0 * 1000.0);
+            System.err.format("%.2fm - getting data limits for %d datasets\n", timeDiff, expoSet.size());
+            TreeMap<String,DsgExtent> extentsMap = null;
+            try {
+                extentsMap = dsgHandler.getDsgExtents(expoSet);
+            } catch ( Exception ex ) {
+                System.err.println("Unexpected error getting the data limits: " + ex.getMessage());
+                System.exit(1);
+            }
+            for (DsgExtent extent : extentsMap.values()) {
+                if ( !extent.hasValidTimesAndLats() ) {
+                    System.err.println("No valid times or latitudes for " + extent.getDatasetId());
                     System.exit(1);
                 }
-                latMinMaxMap.put(expo, latMinMaxVals);
             }
 
             for (String firstExpo : expoSet) {
-                double[] firstTimeMinMax = timeMinMaxMap.get(firstExpo);
-                double[] firstLatMinMax = latMinMaxMap.get(firstExpo);
-                // Get the list of possibly-crossing datasets to check
+                double[] firstTimeMinMax = extentsMap.get(firstExpo).getTimeMinMax();
+                double[] firstLatMinMax = extentsMap.get(firstExpo).getLatMinMax();
+                // Get the list of possibly-overlapping datasets to check; always check for overlaps within
+                // a dataset, and only those datasets preceding this one so not doing two checks on a pair
                 TreeSet<String> checkExpos = new TreeSet<String>();
-                for (String secondExpo : expoSet) {
-                    // Only those datasets preceding this one so not doing two checks on a pair
-                    if ( secondExpo.equals(firstExpo) ) {
-                        // Always check for overlaps within a dataset
+                for (DsgExtent secondExtent : dsgHandler.findDsgExtents(
+                        firstTimeMinMax[0] - DsgNcFile.MIN_TIME_DIFF, firstTimeMinMax[1] + DsgNcFile.MIN_TIME_DIFF,
+                        firstLatMinMax[0] - DsgNcFile.MIN_LAT_DIFF, firstLatMinMax[1] + DsgNcFile.MIN_LAT_DIFF)) {
+                    String secondExpo = secondExtent.getDatasetId();
+                    if ( expoSet.contains(secondExpo) && (secondExpo.compareTo(firstExpo) <= 0) )
                         checkExpos.add(secondExpo);
-                        break;
-                    }
-                    // Check that there is some overlap in time
-                    double[] secondTimeMinMax = timeMinMaxMap.get(secondExpo);
-                    if ( (firstTimeMinMax[1] + DsgNcFile.MIN_TIME_DIFF < secondTimeMinMax[0]) ||
-                            (secondTimeMinMax[1] + DsgNcFile.MIN_TIME_DIFF < firstTimeMinMax[0]) )
-                        continue;
-                    // Check that there is some overlap in latitude
-                    double[] secondLatMinMax = latMinMaxMap.get(secondExpo);
-                    if ( (firstLatMinMax[1] + DsgNcFile.MIN_LAT_DIFF < secondLatMinMax[0]) ||
-                            (secondLatMinMax[1] + DsgNcFile.MIN_LON_DIFF < firstLatMinMax[0]) )
-                        continue;
-                    checkExpos.add(secondExpo);
                 }
 
                 // Find any overlaps with this data set with the selected set of data sets
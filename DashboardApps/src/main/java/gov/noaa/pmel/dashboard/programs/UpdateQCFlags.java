@@ -72,6 +72,8 @@ public class UpdateQCFlags {
 
             DatabaseRequestHandler dbHandler = configStore.getDatabaseRequestHandler();
             DsgNcFileHandler dsgHandler = configStore.getDsgNcFileHandler();
+            // Notify ERDDAP once after all the updates instead of after each update
+            dsgHandler.getErddapNotifier().deferFlags();
 
             // update each of these cruises
             for (String expocode : allExpocodes) {
@@ -115,9 +117,8 @@ public class UpdateQCFlags {
                     success = false;
                 }
             }
-            if ( updated ) {
-                dsgHandler.flagErddap(true, true);
-            }
+            // Notify ERDDAP of all the updates
+            dsgHandler.getErddapNotifier().resumeFlags();
         } finally {
             DashboardConfigStore.shutdown();
         }
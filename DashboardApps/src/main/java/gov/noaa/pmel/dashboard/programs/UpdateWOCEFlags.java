@@ -74,6 +74,8 @@ public class UpdateWOCEFlags {
         try {
             DatabaseRequestHandler dbHandler = configStore.getDatabaseRequestHandler();
             DsgNcFileHandler dsgHandler = configStore.getDsgNcFileHandler();
+            // Notify ERDDAP once after all the updates
+            dsgHandler.getErddapNotifier().deferFlags();
 
             // update each of these cruises
             for (String expocode : allExpocodes) {
@@ -115,19 +117,25 @@ public class UpdateWOCEFlags {
                     continue;
                 }
                 try {
+                    ArrayList<DataQCEvent> applicableList = new ArrayList<DataQCEvent>(woceList.size());
                     for (DataQCEvent woce : woceList) {
                         // Check if this is an applicable (not old) WOCE flag
                         String flag = woce.getFlagValue();
                         if ( flag.equals(DashboardServerUtils.WOCE_ACCEPTABLE) ||
                                 flag.equals(DashboardServerUtils.WOCE_QUESTIONABLE) ||
                                 flag.equals(DashboardServerUtils.WOCE_BAD) ) {
-                            ArrayList<DataLocation> unidentified = dsgFile.updateDataQCFlags(woce, false);
-                            if ( unidentified.size() > 0 ) {
-                                for (DataLocation loc : unidentified) {
-                                    System.err.println("unknown data location: " + loc.toString());
-                                }
-                                throw new IllegalArgumentException("Mismatch of WOCE location data");
+                            applicableList.add(woce);
+                        }
+                    }
+                    // Apply all the applicable WOCE flags with one update of the DSG file
+                    ArrayList<ArrayList<DataLocation>> unidentifiedList =
+                            dsgFile.updateDataQCFlags(applicableList, false);
+                    for (ArrayList<DataLocation> unidentified : unidentifiedList) {
+                        if ( unidentified.size() > 0 ) {
+                            for (DataLocation loc : unidentified) {
+                                System.err.println("unknown data location: " + loc.toString());
                             }
+                            throw new IllegalArgumentException("Mismatch of WOCE location data");
                         }
                     }
                 } catch ( Exception ex ) {
@@ -152,6 +160,7 @@ public class UpdateWOCEFlags {
 
             // Notify ERDDAP that DSG files have changed
             dsgHandler.flagErddap(true, true);
+            dsgHandler.getErddapNotifier().resumeFlags();
 
         } finally {
             DashboardConfigStore.shutdown();
@@ -0,0 +1,62 @@
+package gov.noaa.pmel.dashboard.test.actions;
+
+import gov.noaa.pmel.dashboard.actions.CrossoverChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the indexed and pairwise crossover searches on pairs of large crossing cruises.
+ * The results are compared by {@link CrossoverCheckerTest#testIndexedCrossoverMatchesPairwise()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CrossoverCheckerBenchmark {
+
+    private static final int NUM_PAIRS = 8;
+    private static final int NUM_ROWS = 6000;
+
+    private double[][][][] cruisePairs;
+
+    @Setup
+    public void createCruises() {
+        Random rand = new Random(20120105L);
+        cruisePairs = new double[NUM_PAIRS][][][];
+        for (int k = 0; k < NUM_PAIRS; k++) {
+            cruisePairs[k] = CrossoverCheckerTest.makeCrossingCruises(rand, NUM_ROWS);
+        }
+    }
+
+    @Benchmark
+    public void checkForCrossover(Blackhole blackhole) {
+        for (double[][][] data : cruisePairs) {
+            blackhole.consume(CrossoverChecker.checkForCrossover(data[0], data[1], data[2], data[3], data[4]));
+        }
+    }
+
+    @Benchmark
+    public void checkForCrossoverPairwise(Blackhole blackhole) {
+        for (double[][][] data : cruisePairs) {
+            blackhole.consume(CrossoverChecker.checkForCrossoverPairwise(data[0], data[1], data[2], data[3],
+                    data[4]));
+        }
+    }
+
+}
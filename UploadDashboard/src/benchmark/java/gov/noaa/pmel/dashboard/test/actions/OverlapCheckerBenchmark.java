@@ -0,0 +1,94 @@
+package gov.noaa.pmel.dashboard.test.actions;
+
+import gov.noaa.pmel.dashboard.actions.OverlapChecker;
+import gov.noaa.pmel.dashboard.shared.Overlap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of finding the internal overlaps of a dataset sampled every few seconds using
+ * {@link OverlapChecker#checkForOverlaps(String[], double[][], double[][], double[][], boolean[][])} and using
+ * {@link OverlapChecker#checkForOverlapsWindowed(String[], double[][], double[][], double[][], boolean[][])}.
+ * The windowed search compares every pair of data points within a week of each other, so is only run on the
+ * smaller datasets; the larger dataset is only searched using the time-cell index.  The results are compared by
+ * {@link OverlapCheckerTest}.
+ *
+ * @author Karl Smith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class OverlapCheckerBenchmark {
+
+    /**
+     * A dataset sampled every five seconds, with some data points duplicated within a few rows.
+     */
+    public abstract static class OverlapData {
+        String[] expos;
+        double[][] lons;
+        double[][] lats;
+        double[][] times;
+        boolean[][] ignores;
+
+        void createData(int numRows) {
+            Random rand = new Random(1000000L);
+            boolean[] ignore = new boolean[numRows];
+            double[][] data = OverlapCheckerTest.createData(rand, numRows, 1325376000.0, 5.0, ignore);
+            OverlapCheckerTest.addDuplicates(rand, data, data, numRows / 500, 50);
+            expos = new String[] { OverlapCheckerTest.FIRST_EXPO, OverlapCheckerTest.FIRST_EXPO };
+            lons = new double[][] { data[0], data[0] };
+            lats = new double[][] { data[1], data[1] };
+            times = new double[][] { data[2], data[2] };
+            ignores = new boolean[][] { ignore, ignore };
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SmallData extends OverlapData {
+        @Param({ "5000", "20000" })
+        public int numRows;
+
+        @Setup
+        public void setup() {
+            createData(numRows);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LargeData extends OverlapData {
+        @Setup
+        public void setup() {
+            createData(1000000);
+        }
+    }
+
+    @Benchmark
+    public Overlap checkForOverlaps(SmallData data) {
+        return OverlapChecker.checkForOverlaps(data.expos, data.lons, data.lats, data.times, data.ignores);
+    }
+
+    @Benchmark
+    public Overlap checkForOverlapsWindowed(SmallData data) {
+        return OverlapChecker.checkForOverlapsWindowed(data.expos, data.lons, data.lats, data.times, data.ignores);
+    }
+
+    @Benchmark
+    public Overlap checkForOverlapsMillionRows(LargeData data) {
+        return OverlapChecker.checkForOverlaps(data.expos, data.lons, data.lats, data.times, data.ignores);
+    }
+
+}
@@ -0,0 +1,66 @@
+package gov.noaa.pmel.dashboard.test.datatype;
+
+import gov.noaa.pmel.dashboard.datatype.LinearConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of converting a column of values one at a time using {@link LinearConverter#convertValueOf(String)}
+ * and converting the column using {@link LinearConverter#convertValues(String[], int, double[], BitSet, String[])}.
+ * The results are compared by {@link LinearConverterTest#testConvertValuesMatchesConvertValueOf()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinearConverterBenchmark {
+
+    private static final int NUM_VALUES = 100000;
+
+    private LinearConverter converter;
+    private String[] strVals;
+    private double[] values;
+    private BitSet missing;
+    private String[] errors;
+
+    @Setup
+    public void createValues() {
+        converter = new LinearConverter("K", "degC", null);
+        strVals = LinearConverterTest.createValues(NUM_VALUES, new Random(20170415L));
+        values = new double[NUM_VALUES];
+        missing = new BitSet(NUM_VALUES);
+        errors = new String[NUM_VALUES];
+    }
+
+    @Benchmark
+    public void convertValueOf(Blackhole blackhole) {
+        for (String strVal : strVals) {
+            blackhole.consume(converter.convertValueOf(strVal));
+        }
+    }
+
+    @Benchmark
+    public double[] convertValues() {
+        missing.clear();
+        converter.convertValues(strVals, NUM_VALUES, values, missing, errors);
+        return values;
+    }
+
+}
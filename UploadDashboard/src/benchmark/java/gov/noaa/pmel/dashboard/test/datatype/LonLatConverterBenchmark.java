@@ -0,0 +1,71 @@
+package gov.noaa.pmel.dashboard.test.datatype;
+
+import gov.noaa.pmel.dashboard.datatype.LonLatConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of converting a column of longitudes one at a time using {@link LonLatConverter#convertValueOf(String)}
+ * and converting the column using {@link LonLatConverter#convertValues(String[], int, double[], BitSet, String[])},
+ * for decimal degree and degree minute longitudes.  The results are compared by
+ * {@link LonLatConverterTest#testConvertValuesMatchesConvertValueOf()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LonLatConverterBenchmark {
+
+    private static final int NUM_VALUES = 100000;
+
+    @Param({ "deg E", "deg min W" })
+    public String fromUnit;
+
+    private LonLatConverter converter;
+    private String[] strVals;
+    private double[] values;
+    private BitSet missing;
+    private String[] errors;
+
+    @Setup
+    public void createValues() {
+        converter = new LonLatConverter(fromUnit, "deg E", null);
+        strVals = LonLatConverterTest.createLongitudes(fromUnit, NUM_VALUES, new Random(20170415L));
+        values = new double[NUM_VALUES];
+        missing = new BitSet(NUM_VALUES);
+        errors = new String[NUM_VALUES];
+    }
+
+    @Benchmark
+    public void convertValueOf(Blackhole blackhole) {
+        for (String strVal : strVals) {
+            blackhole.consume(converter.convertValueOf(strVal));
+        }
+    }
+
+    @Benchmark
+    public double[] convertValues() {
+        missing.clear();
+        converter.convertValues(strVals, NUM_VALUES, values, missing, errors);
+        return values;
+    }
+
+}
@@ -0,0 +1,75 @@
+package gov.noaa.pmel.dashboard.test.datatype;
+
+import gov.noaa.pmel.dashboard.datatype.TimestampConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of converting timestamps using {@link TimestampConverter#convertValueOf(String)} and using
+ * {@link TimestampConverter#convertValueWithPatterns(String)}.  The results are compared by
+ * {@link TimestampConverterTest#testConvertValueOfDifferential()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampConverterBenchmark {
+
+    private static final int NUM_VALUES = 100000;
+
+    @Param({ "yyyy-mm-dd hh:mm:ss", "dd-mon-yyyy hh:mm:ss" })
+    public String fromUnit;
+
+    private TimestampConverter converter;
+    private String[] values;
+
+    @Setup
+    public void createValues() {
+        converter = new TimestampConverter(fromUnit, "yyyy-mm-dd hh:mm:ss", null);
+        Random random = new Random(20170415L);
+        values = new String[NUM_VALUES];
+        for (int k = 0; k < NUM_VALUES; k++) {
+            int month = 1 + random.nextInt(12);
+            String date;
+            if ( fromUnit.startsWith("yyyy") )
+                date = String.format("%04d-%02d-%02d", 1960 + random.nextInt(50), month, 1 + random.nextInt(28));
+            else
+                date = String.format("%02d-%s-%04d", 1 + random.nextInt(28),
+                        TimestampConverterTest.MONTH_NAMES[month - 1][0], 1960 + random.nextInt(50));
+            values[k] = date + String.format(" %02d:%02d:%02d", random.nextInt(24), random.nextInt(60),
+                    random.nextInt(60));
+        }
+    }
+
+    @Benchmark
+    public void convertValueOf(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(converter.convertValueOf(value));
+        }
+    }
+
+    @Benchmark
+    public void convertValueWithPatterns(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(converter.convertValueWithPatterns(value));
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
+import gov.noaa.pmel.dashboard.dsg.DsgNcChunking;
+import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.test.datatype.KnownDataTypesTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of writing, and of reading a data column from, NetCDF-3 and NetCDF-4 (using {@link DsgNcChunking})
+ * DSG files with {@value #NUM_SAMPLES} samples.  The NetCDF-4 benchmarks require the NetCDF C library.  The file
+ * sizes and data values are compared by {@link DsgNcChunkingTest#testNetcdf4File()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DsgNcFileBenchmark {
+
+    private static final int NUM_SAMPLES = 100000;
+
+    @Param({ "netcdf3", "netcdf4" })
+    public String format;
+
+    private KnownDataTypes dataFileTypes;
+    private StdDataArray filedata;
+    private DsgMetadata metadata;
+    private DsgNcFile writeFile;
+    private DsgNcFile readFile;
+
+    @Setup
+    public void createFiles() throws Exception {
+        boolean netcdf4 = "netcdf4".equals(format);
+        if ( netcdf4 && !DsgNcChunkingTest.haveNetcdfClibrary() )
+            throw new IllegalStateException("the NetCDF C library is required for writing NetCDF-4 files");
+        dataFileTypes = new KnownDataTypes().addTypes(KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+        filedata = DsgNcChunkingTest.createFileData(NUM_SAMPLES);
+        metadata = new DsgMetadata(KnownDataTypesTest.TEST_KNOWN_METADATA_FILE_TYPES);
+        metadata.setDatasetId(DsgNcChunkingTest.EXPOCODE);
+        metadata.setDatasetName(DsgNcChunkingTest.EXPOCODE);
+
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        writeFile = new DsgNcFile(parentDir, DsgNcChunkingTest.EXPOCODE + "_" + format + "_write.nc");
+        readFile = new DsgNcFile(parentDir, DsgNcChunkingTest.EXPOCODE + "_" + format + "_read.nc");
+        if ( netcdf4 ) {
+            writeFile.setNetcdf4Chunking(new DsgNcChunking());
+            readFile.setNetcdf4Chunking(new DsgNcChunking());
+        }
+        readFile.createFromFileData(metadata, filedata, dataFileTypes);
+    }
+
+    @TearDown
+    public void deleteFiles() {
+        writeFile.delete();
+        readFile.delete();
+    }
+
+    @Benchmark
+    public long writeDsgFile() throws Exception {
+        writeFile.createFromFileData(metadata, filedata, dataFileTypes);
+        return writeFile.length();
+    }
+
+    @Benchmark
+    public double[] readDataColumn() throws Exception {
+        return readFile.readDoubleVarDataValues(SocatTypes.XCO2_WATER_SST_DRY.getVarName());
+    }
+
+}
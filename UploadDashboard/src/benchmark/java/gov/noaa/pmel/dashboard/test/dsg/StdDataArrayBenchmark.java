@@ -0,0 +1,79 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the standardized values of a large dataset kept in {@link StdDataArray} compared to a 2-D array
+ * of objects.  The scan benchmarks time summing the valid fCO2_rec values using {@link StdDataArray#getStdVal(int,
+ * int)} and using {@link StdDataArray#getDoubleColumn(int)}.  The create benchmarks, when run with the JMH "gc"
+ * profiler (-prof gc), give the memory allocated for each representation (gc.alloc.rate.norm).  The values are
+ * compared by {@link StdDataArrayTest#testColumnarValues()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class StdDataArrayBenchmark {
+
+    private static final int NUM_ROWS = 200000;
+    private static final int FCO2_REC_IDX = StdDataArrayTest.COLUMNAR_TEST_TYPES.length - 2;
+
+    private StdDataArray stdData;
+
+    @Setup
+    public void createData() {
+        stdData = new StdDataArray(StdDataArrayTest.COLUMNAR_TEST_TYPES,
+                StdDataArrayTest.createObjects(StdDataArrayTest.COLUMNAR_TEST_TYPES, NUM_ROWS, new Random(NUM_ROWS)));
+    }
+
+    @Benchmark
+    public double scanStdVal() {
+        double sum = 0.0;
+        for (int j = 0; j < NUM_ROWS; j++) {
+            Double value = (Double) stdData.getStdVal(j, FCO2_REC_IDX);
+            if ( value != null )
+                sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double scanDoubleColumn() {
+        double sum = 0.0;
+        double[] values = stdData.getDoubleColumn(FCO2_REC_IDX);
+        BitSet missing = stdData.getMissingBitmap(FCO2_REC_IDX);
+        for (int j = missing.nextClearBit(0); j < NUM_ROWS; j = missing.nextClearBit(j + 1)) {
+            sum += values[j];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Object[][] createObjects() {
+        return StdDataArrayTest.createObjects(StdDataArrayTest.COLUMNAR_TEST_TYPES, NUM_ROWS, new Random(NUM_ROWS));
+    }
+
+    @Benchmark
+    public StdDataArray createColumns() {
+        return new StdDataArray(StdDataArrayTest.COLUMNAR_TEST_TYPES, StdDataArrayTest.createColumns(stdData));
+    }
+
+}
@@ -0,0 +1,154 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of standardizing and checking (missing longitude, latitude, and time; bounds; and metadata values)
+ * a synthetic dataset of {@value #NUM_ROWS} rows and 40 data columns in the calling thread and using a worker pool
+ * with a thread for each processor (but at least two threads).  The results are compared on a small dataset by
+ * {@link StdDataArrayTest#testStdUserDataArrayInParallel()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class StdUserDataArrayBenchmark {
+
+    private static final int NUM_ROWS = 1000000;
+
+    private KnownDataTypes knownTypes;
+    private ArrayList<ArrayList<String>> rows;
+    private DashboardDataset info;
+    private ForkJoinPool workerPool;
+
+    @Setup
+    public void createData() {
+        final int numSynthetic = 25;
+        knownTypes = new KnownDataTypes();
+        knownTypes.addStandardTypesForUsers();
+        Properties typeProps = new Properties();
+        ArrayList<DataColumnType> colTypes = new ArrayList<DataColumnType>(Arrays.asList(
+                DashboardServerUtils.YEAR.duplicate(),
+                DashboardServerUtils.MONTH_OF_YEAR.duplicate(),
+                DashboardServerUtils.DAY_OF_MONTH.duplicate(),
+                DashboardServerUtils.HOUR_OF_DAY.duplicate(),
+                DashboardServerUtils.MINUTE_OF_HOUR.duplicate(),
+                DashboardServerUtils.SECOND_OF_MINUTE.duplicate(),
+                DashboardServerUtils.LONGITUDE.duplicate(),
+                DashboardServerUtils.LATITUDE.duplicate(),
+                DashboardServerUtils.SAMPLE_DEPTH.duplicate(),
+                DashboardServerUtils.DATASET_NAME.duplicate(),
+                SocatTypes.SST.duplicate(),
+                SocatTypes.SALINITY.duplicate(),
+                SocatTypes.XCO2_WATER_SST_DRY.duplicate(),
+                SocatTypes.PCO2_WATER_TEQU_WET.duplicate(),
+                SocatTypes.PATM.duplicate()
+        ));
+        for (int k = 0; k < numSynthetic; k++) {
+            DoubleDashDataType dtype = new DoubleDashDataType("synthetic_" + k, 900.0 + k, "synthetic " + k,
+                    "synthetic data " + k, false, DashboardUtils.NO_UNITS, null, DashboardServerUtils.PLATFORM_CATEGORY,
+                    null, "0.0", null, "50.0", "200.0", DashboardServerUtils.USER_FILE_DATA_ROLES);
+            typeProps.setProperty(dtype.getVarName(), dtype.toPropertyValue());
+            colTypes.add(dtype.duplicate());
+        }
+        knownTypes.addTypesFromProperties(typeProps, DashDataType.Role.USER_DATA, null);
+        int numColumns = colTypes.size();
+        ArrayList<String> colNames = new ArrayList<String>(numColumns);
+        for (DataColumnType colType : colTypes) {
+            colNames.add(colType.getDisplayName());
+        }
+
+        // Distinct data rows, repeated to give the rows of the dataset; a few invalid or unreasonable values
+        Random rand = new Random(NUM_ROWS);
+        rows = new ArrayList<ArrayList<String>>(1000);
+        for (int r = 0; r < 1000; r++) {
+            ArrayList<String> row = new ArrayList<String>(numColumns);
+            row.add("2016");
+            row.add(Integer.toString(1 + (r % 12)));
+            row.add(Integer.toString(1 + (r % 28)));
+            row.add(Integer.toString(r % 24));
+            row.add(Integer.toString(r % 60));
+            row.add(String.format("%.3f", 60.0 * rand.nextDouble()));
+            row.add(String.format("%.4f", 360.0 * rand.nextDouble() - 180.0));
+            row.add(String.format("%.4f", 160.0 * rand.nextDouble() - 80.0));
+            row.add("5");
+            row.add("BENCHMARK");
+            row.add(String.format("%.2f", 30.0 * rand.nextDouble()));
+            row.add(String.format("%.2f", 30.0 + 8.0 * rand.nextDouble()));
+            row.add(String.format("%.1f", 300.0 + 200.0 * rand.nextDouble()));
+            row.add(String.format("%.1f", 300.0 + 200.0 * rand.nextDouble()));
+            row.add(String.format("%.1f", 950.0 + 100.0 * rand.nextDouble()));
+            for (int k = 0; k < numSynthetic; k++) {
+                if ( (r % 100 == 7) && (r % numSynthetic == k) )
+                    row.add("garbage");
+                else if ( (r % 100 == 13) && (r % numSynthetic == k) )
+                    row.add("250.0");
+                else
+                    row.add(String.format("%.3f", 50.0 * rand.nextDouble()));
+            }
+            rows.add(row);
+        }
+        info = new DashboardDataset();
+        info.setDatasetId(StdDataArrayTest.EXPOCODE);
+        info.setUserColNames(colNames);
+        info.setDataColTypes(colTypes);
+        info.setNumDataRows(NUM_ROWS);
+        workerPool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        workerPool.shutdown();
+    }
+
+    @Benchmark
+    public StdUserDataArray standardizeAndCheck() {
+        StdUserDataArray stdData = new StdUserDataArray(info,
+                new StdDataArrayTest.CyclicDataRows(rows, NUM_ROWS), knownTypes);
+        stdData.checkMissingLonLatTime();
+        stdData.checkBounds();
+        stdData.checkMetadataTypeValues();
+        return stdData;
+    }
+
+    @Benchmark
+    public StdUserDataArray standardizeAndCheckInParallel() {
+        StdUserDataArray stdData = new StdUserDataArray(info,
+                new StdDataArrayTest.CyclicDataRows(rows, NUM_ROWS), knownTypes, workerPool);
+        stdData.checkMissingLonLatTime();
+        stdData.checkBounds();
+        stdData.checkMetadataTypeValues();
+        return stdData;
+    }
+
+}
@@ -0,0 +1,68 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.CheckerMessageStore;
+import gov.noaa.pmel.dashboard.shared.ADCMessageListRange;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of opening a {@link CheckerMessageStore} of {@value #NUM_MESSAGES} messages and reading a page of
+ * messages from it, without and with filter text, as done for each request for a page of messages.  The sizes and
+ * messages are checked by {@link CheckerMessageStoreTest}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckerMessageStoreBenchmark {
+
+    private static final int NUM_MESSAGES = 200000;
+
+    private File storeFile;
+
+    @Setup
+    public void writeStore() throws IOException {
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        storeFile = new File(parentDir, "BENCHMARK20160101.msgstore");
+        CheckerMessageStore.writeStore(storeFile, new ArrayList<String>(),
+                CheckerMessageStoreTest.createMessages(NUM_MESSAGES));
+    }
+
+    @TearDown
+    public void deleteStore() {
+        storeFile.delete();
+    }
+
+    @Benchmark
+    public ADCMessageListRange getRange() throws IOException {
+        return new CheckerMessageStore(storeFile).getRange(NUM_MESSAGES / 2,
+                DashboardUtils.MAX_ROWS_PER_GRID_PAGE, null);
+    }
+
+    @Benchmark
+    public ADCMessageListRange getFilteredRange() throws IOException {
+        return new CheckerMessageStore(storeFile).getRange(0, DashboardUtils.MAX_ROWS_PER_GRID_PAGE, "row 1234");
+    }
+
+}
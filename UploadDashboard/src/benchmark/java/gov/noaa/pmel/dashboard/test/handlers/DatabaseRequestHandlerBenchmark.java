@@ -0,0 +1,103 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatabaseRequestHandler;
+import gov.noaa.pmel.dashboard.qc.DataQCEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link DatabaseRequestHandler#addDataQCEvent(java.util.Collection)} adding four data QC events
+ * with a total of {@value #NUM_LOCATIONS} locations, inserting the locations one at a time and in batches, using an
+ * embedded in-memory (H2) database in MySQL compatibility mode.  The locations added are compared by
+ * {@link DatabaseRequestHandlerTest#testLocationBatchSizes()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DatabaseRequestHandlerBenchmark {
+
+    private static final int NUM_LOCATIONS = 20000;
+
+    @Param({ "1", "" + DatabaseRequestHandler.DEFAULT_LOCATION_BATCH_SIZE })
+    public int batchSize;
+
+    private Connection keepAlive;
+    private DatabaseRequestHandler handler;
+    private ArrayList<DataQCEvent> woceEvents;
+
+    @Setup
+    public void createDatabase() throws Exception {
+        Class.forName(DatabaseRequestHandlerTest.SQL_DRIVER);
+        keepAlive = DriverManager.getConnection(DatabaseRequestHandlerTest.DATABASE_URL,
+                DatabaseRequestHandlerTest.DATABASE_USER, DatabaseRequestHandlerTest.DATABASE_PASS);
+        executeSql(DatabaseRequestHandlerTest.CREATE_TABLES_SQL);
+        handler = new DatabaseRequestHandler(DatabaseRequestHandlerTest.SQL_DRIVER,
+                DatabaseRequestHandlerTest.DATABASE_URL, DatabaseRequestHandlerTest.DATABASE_USER,
+                DatabaseRequestHandlerTest.DATABASE_PASS, DatabaseRequestHandlerTest.DATABASE_USER,
+                DatabaseRequestHandlerTest.DATABASE_PASS, 1);
+        handler.setLocationBatchSize(batchSize);
+    }
+
+    @TearDown
+    public void dropDatabase() throws Exception {
+        handler.close();
+        executeSql(new String[] { "DROP ALL OBJECTS;" });
+        keepAlive.close();
+    }
+
+    /**
+     * Removes the data QC events added in the previous iteration so the tables do not keep growing
+     */
+    @Setup(Level.Iteration)
+    public void clearEvents() throws Exception {
+        executeSql(new String[] { "DELETE FROM `WOCELocations`;", "DELETE FROM `WOCEEvents`;" });
+    }
+
+    /**
+     * New data QC events for each call to addDataQCEvent, since this assigns the IDs of the events
+     */
+    @Setup(Level.Invocation)
+    public void createEvents() {
+        woceEvents = DatabaseRequestHandlerTest.createDataQCEvents(4, NUM_LOCATIONS / 4);
+    }
+
+    @Benchmark
+    public ArrayList<DataQCEvent> addDataQCEvent() throws Exception {
+        handler.addDataQCEvent(woceEvents);
+        return woceEvents;
+    }
+
+    private void executeSql(String[] sqlStatements) throws Exception {
+        Statement stmt = keepAlive.createStatement();
+        try {
+            for (String sql : sqlStatements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+
+}
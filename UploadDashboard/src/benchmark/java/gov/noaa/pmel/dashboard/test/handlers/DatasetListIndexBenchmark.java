@@ -0,0 +1,65 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatasetListIndex;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetListRange;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of getting a page of datasets, sorted by upload timestamp, from a {@link DatasetListIndex} of
+ * {@value #NUM_DATASETS} datasets compared to sorting the full list of datasets.  The pages are compared to the
+ * sorted list by {@link DatasetListIndexTest#testRangesMatchSortedList()}.
+ *
+ * @author Karl Smith
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatasetListIndexBenchmark {
+
+    private static final int NUM_DATASETS = 20000;
+
+    private DashboardDatasetList datasetList;
+    private DatasetListIndex index;
+
+    @Setup
+    public void createIndex() {
+        datasetList = DatasetListIndexTest.createDatasetList(NUM_DATASETS);
+        index = new DatasetListIndex(datasetList);
+        // sort the index by upload timestamp before measuring
+        index.getRange(0, DashboardUtils.MAX_ROWS_PER_GRID_PAGE, DashboardDatasetListRange.SORT_BY_TIMESTAMP,
+                false, null);
+    }
+
+    @Benchmark
+    public DashboardDatasetListRange getRange() {
+        return index.getRange(NUM_DATASETS / 2, DashboardUtils.MAX_ROWS_PER_GRID_PAGE,
+                DashboardDatasetListRange.SORT_BY_TIMESTAMP, false, null);
+    }
+
+    @Benchmark
+    public ArrayList<DashboardDataset> sortFullList() {
+        ArrayList<DashboardDataset> sorted = new ArrayList<DashboardDataset>(datasetList.values());
+        Collections.sort(sorted, DashboardUtils.dataTimestampComparator);
+        return sorted;
+    }
+
+}
@@ -3,6 +3,7 @@
  */
 package gov.noaa.pmel.dashboard.actions;
 
+import gov.noaa.pmel.dashboard.dsg.DsgExtent;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.Crossover;
@@ -13,8 +14,16 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Checks for high-quality crossovers between datasets.  High-quality crossovers are desirable coincidental
@@ -25,6 +34,11 @@ import java.util.TreeSet;
  */
 public class CrossoverChecker {
 
+    /**
+     * Default maximum number of datasets whose indexed data is cached when searching for crossovers
+     */
+    public static final int DEFAULT_INDEX_CACHE_SIZE = 64;
+
     private DsgNcFileHandler dsgHandler;
 
     /**
@@ -160,11 +174,6 @@ public class CrossoverChecker {
         ArrayList<Crossover> crossList = new ArrayList<Crossover>();
 
         String[] upperExpos = new String[2];
-        double[][] lons = new double[2][];
-        double[][] lats = new double[2][];
-        double[][] times = new double[2][];
-        double[][] ssts = new double[2][];
-        double[][] fco2s = new double[2][];
 
         // Get the data for the primary cruise
         upperExpos[0] = DashboardServerUtils.checkDatasetID(expocode);
@@ -174,11 +183,9 @@ public class CrossoverChecker {
             progressPrinter.flush();
         }
         double[][] dataVals = dsgHandler.readLonLatTimeSstFco2DataValues(upperExpos[0]);
-        lons[0] = dataVals[0];
-        lats[0] = dataVals[1];
-        times[0] = dataVals[2];
-        ssts[0] = dataVals[3];
-        fco2s[0] = dataVals[4];
+        // Index the data for the primary cruise only once
+        CrossoverIndex primaryIndex = new CrossoverIndex(dataVals[0], dataVals[1], dataVals[2],
+                dataVals[3], dataVals[4]);
 
         for (String otherExpo : checkExpos) {
             upperExpos[1] = DashboardServerUtils.checkDatasetID(otherExpo);
@@ -193,11 +200,8 @@ public class CrossoverChecker {
             }
 
             dataVals = dsgHandler.readLonLatTimeSstFco2DataValues(upperExpos[1]);
-            lons[1] = dataVals[0];
-            lats[1] = dataVals[1];
-            times[1] = dataVals[2];
-            ssts[1] = dataVals[3];
-            fco2s[1] = dataVals[4];
+            CrossoverIndex otherIndex = new CrossoverIndex(dataVals[0], dataVals[1], dataVals[2],
+                    dataVals[3], dataVals[4]);
 
             long checkStartMilliTime = System.currentTimeMillis();
             if ( progressPrinter != null ) {
@@ -207,7 +211,7 @@ public class CrossoverChecker {
             }
 
             // Check for a crossover
-            Crossover crossover = checkForCrossover(lons, lats, times, ssts, fco2s);
+            Crossover crossover = primaryIndex.findClosestCrossover(otherIndex);
             if ( crossover != null ) {
                 // crossover found; add the datasetIds (only the values in the array are used)
                 crossover.setDatasetIds(upperExpos);
@@ -228,11 +232,47 @@ public class CrossoverChecker {
         return crossList;
     }
 
+    /**
+     * Checks for high-quality crossovers in a set of dataset with another set of datasets.  Uses a single thread
+     * and the default size of the cache of indexed dataset data.  See
+     * {@link #findCrossovers(Collection, Collection, int, int, PrintStream, long)}
+     *
+     * @param reportExpos
+     *         report any crossovers of datasets with these IDs
+     * @param checkExpos
+     *         search for crossovers in datasets with these IDs
+     * @param progressPrinter
+     *         if not null, print progress messages here
+     * @param startTimeMillis
+     *         start time of the program for reporting times to progressWriter;
+     *         only used if progressPrinter is not null
+     *
+     * @return the map of crossovers found; never null but may empty.
+     *
+     * @throws IllegalArgumentException
+     *         if any dataset ID is invalid
+     * @throws FileNotFoundException
+     *         if the the full-data DSG file for any dataset is not found
+     * @throws IOException
+     *         if problems reading from any full-data DSG file
+     */
+    public TreeMap<String,TreeSet<Crossover>> findCrossovers(Collection<String> reportExpos,
+            Collection<String> checkExpos, PrintStream progressPrinter, long startTimeMillis)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        return findCrossovers(reportExpos, checkExpos, 1, DEFAULT_INDEX_CACHE_SIZE, progressPrinter, startTimeMillis);
+    }
+
     /**
      * Checks for high-quality crossovers in a set of dataset with another set of datasets.
-     * Computes the min and max times and latitudes for all datasets beforehand to efficiently check
-     * if a crossover is a possibility before actually reading data from each dataset to search
-     * for crossovers.  The crossovers returned are all fully assigned.
+     * Obtains the min and max times and latitudes for all datasets beforehand from the catalog of DSG extents
+     * (see {@link DsgNcFileHandler#getDsgExtents(Collection)}) to efficiently find the datasets possibly crossing
+     * a dataset before actually reading data from each dataset to search for crossovers.  The crossovers
+     * returned are all fully assigned.
+     * <p>
+     * The search for crossovers of each dataset with its possibly-crossing datasets is run as a separate task
+     * using a pool of the given number of threads.  The data read from the full-data DSG files, and indexed for
+     * crossover searches, are shared between these tasks using a cache holding the indexed data for the most
+     * recently used datasets.  The results do not depend on the number of threads used.
      * <p>
      * The keys of the returned map are the dataset IDs from reportExpos, if there was a crossover
      * found for that dataset.  The map values are the crossovers of that dataset with datasets having
@@ -242,6 +282,11 @@ public class CrossoverChecker {
      *         report any crossovers of datasets with these IDs
      * @param checkExpos
      *         search for crossovers in datasets with these IDs
+     * @param numThreads
+     *         number of threads to use for searching for crossovers; if less than one, one thread is used
+     * @param cacheSize
+     *         maximum number of datasets whose indexed data is kept in the cache; if less than the number
+     *         of threads, the number of threads is used
      * @param progressPrinter
      *         if not null, print progress messages here
      * @param startTimeMillis
@@ -258,42 +303,51 @@ public class CrossoverChecker {
      *         if problems reading from any full-data DSG file
      */
     public TreeMap<String,TreeSet<Crossover>> findCrossovers(Collection<String> reportExpos,
-            Collection<String> checkExpos, PrintStream progressPrinter, long startTimeMillis)
-            throws IllegalArgumentException, FileNotFoundException, IOException {
+            Collection<String> checkExpos, int numThreads, int cacheSize, PrintStream progressPrinter,
+            long startTimeMillis) throws IllegalArgumentException, FileNotFoundException, IOException {
         // Get all the unique expocodes to analyze data only once
         TreeSet<String> allExpos = new TreeSet<String>(reportExpos);
         allExpos.addAll(checkExpos);
 
-        TreeMap<String,double[]> timeMinMaxMap = new TreeMap<String,double[]>();
-        TreeMap<String,double[]> latMinMaxMap = new TreeMap<String,double[]>();
-        for (String expo : allExpos) {
-            if ( progressPrinter != null ) {
-                double timeDiff = (System.currentTimeMillis() - startTimeMillis) / (60.0 * 1000.0);
-                progressPrinter.format("%.2fm - getting data limits for %s\n", timeDiff, expo);
-            }
-            double[][] dataVals = dsgHandler.readLonLatTimeDataValues(expo);
-            double[] timeMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[2]);
+        // Get the time and latitude limits of the datasets from the catalog of DSG extents
+        if ( progressPrinter != null ) {
+            double timeDiff = (System.currentTimeMillis() - startTimeMillis) / (60.0 * 1000.0);
+            progressPrinter.format("%.2fm - getting data limits for %d datasets\n", timeDiff, allExpos.size());
+        }
+        final TreeMap<String,DsgExtent> extentsMap = dsgHandler.getDsgExtents(allExpos);
+        for (Map.Entry<String,DsgExtent> entry : extentsMap.entrySet()) {
+            DsgExtent extent = entry.getValue();
+            double[] timeMinMaxVals = extent.getTimeMinMax();
             if ( (timeMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
                     (timeMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) )
-                throw new IllegalArgumentException("No valid times for " + expo);
-            timeMinMaxMap.put(expo, timeMinMaxVals);
-            double[] latMinMaxVals = DashboardServerUtils.getMinMaxValidData(dataVals[1]);
+                throw new IllegalArgumentException("No valid times for " + entry.getKey());
+            double[] latMinMaxVals = extent.getLatMinMax();
             if ( (latMinMaxVals[0] == DashboardUtils.FP_MISSING_VALUE) ||
                     (latMinMaxVals[1] == DashboardUtils.FP_MISSING_VALUE) )
-                throw new IllegalArgumentException("No valid latitudes for " + expo);
-            latMinMaxMap.put(expo, latMinMaxVals);
+                throw new IllegalArgumentException("No valid latitudes for " + entry.getKey());
         }
 
-        TreeMap<String,TreeSet<Crossover>> crossoversMap = new TreeMap<String,TreeSet<Crossover>>();
+        // Get the possibly-crossing datasets to check for each dataset
+        TreeMap<String,TreeSet<String>> possibleExposMap = new TreeMap<String,TreeSet<String>>();
+        long numPairs = 0;
         for (String firstExpo : allExpos) {
-            double[] firstTimeMinMax = timeMinMaxMap.get(firstExpo);
-            double[] firstLatMinMax = latMinMaxMap.get(firstExpo);
-            // Get the list of possibly-crossing cruises to check
+            DsgExtent firstExtent = extentsMap.get(DashboardServerUtils.checkDatasetID(firstExpo));
+            double[] firstTimeMinMax = firstExtent.getTimeMinMax();
+            double[] firstLatMinMax = firstExtent.getLatMinMax();
             TreeSet<String> possibleExpos = new TreeSet<String>();
-            for (String secondExpo : allExpos) {
+            // Datasets with some overlap in time and latitude
+            for (DsgExtent secondExtent : dsgHandler.findDsgExtents(
+                    firstTimeMinMax[0] - DashboardServerUtils.MAX_TIME_DIFF,
+                    firstTimeMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF,
+                    firstLatMinMax[0] - DashboardServerUtils.MAX_LAT_DIFF,
+                    firstLatMinMax[1] + DashboardServerUtils.MAX_LAT_DIFF)) {
+                String secondExpo = secondExtent.getDatasetId();
+                // Only datasets being examined
+                if ( !allExpos.contains(secondExpo) )
+                    continue;
                 // Only check datasets preceding the first one so not doing two checks on a report pair
-                if ( firstExpo.equals(secondExpo) )
-                    break;
+                if ( firstExpo.compareTo(secondExpo) <= 0 )
+                    continue;
                 // Must be difference intstruments == different NODC codes at this time
                 if ( firstExpo.substring(0, 4).equals(secondExpo.substring(0, 4)) )
                     continue;
@@ -301,52 +355,148 @@ public class CrossoverChecker {
                 if ( ! ( (reportExpos.contains(firstExpo) && checkExpos.contains(secondExpo)) ||
                          (reportExpos.contains(secondExpo) && checkExpos.contains(firstExpo)) ) )
                     continue;
-
-                // Check that there is some overlap in time
-                double[] secondTimeMinMax = timeMinMaxMap.get(secondExpo);
-                if ( (firstTimeMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < secondTimeMinMax[0]) ||
-                        (secondTimeMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < firstTimeMinMax[0]) )
-                    continue;
-                // Check that there is some overlap in latitude
-                double[] secondLatMinMax = latMinMaxMap.get(secondExpo);
-                if ( (firstLatMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < secondLatMinMax[0]) ||
-                        (secondLatMinMax[1] + DashboardServerUtils.MAX_TIME_DIFF < firstLatMinMax[0]) )
-                    continue;
                 possibleExpos.add(secondExpo);
             }
-            // Find any crossovers of this dataset with any of the selected set of datasets
             if ( possibleExpos.size() > 0 ) {
-                ArrayList<Crossover> crossList =
-                        getCrossovers(firstExpo, possibleExpos, progressPrinter, startTimeMillis);
+                possibleExposMap.put(firstExpo, possibleExpos);
+                numPairs += possibleExpos.size();
+            }
+        }
+
+        // Search for crossovers of each dataset with its possibly-crossing datasets
+        if ( numThreads < 1 )
+            numThreads = 1;
+        final IndexCache indexCache = new IndexCache(Math.max(cacheSize, numThreads));
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        ArrayList<Future<ArrayList<Crossover>>> futures =
+                new ArrayList<Future<ArrayList<Crossover>>>(possibleExposMap.size());
+        for (Map.Entry<String,TreeSet<String>> entry : possibleExposMap.entrySet()) {
+            final String firstExpo = entry.getKey();
+            final TreeSet<String> possibleExpos = entry.getValue();
+            futures.add(executor.submit(new Callable<ArrayList<Crossover>>() {
+                @Override
+                public ArrayList<Crossover> call() throws Exception {
+                    return getCrossovers(firstExpo, possibleExpos, indexCache);
+                }
+            }));
+        }
+        executor.shutdown();
+
+        long searchStartMillis = System.currentTimeMillis();
+        long pairsDone = 0;
+        TreeMap<String,TreeSet<Crossover>> crossoversMap = new TreeMap<String,TreeSet<Crossover>>();
+        try {
+            int q = 0;
+            for (String firstExpo : possibleExposMap.keySet()) {
+                ArrayList<Crossover> crossList;
+                try {
+                    crossList = futures.get(q).get();
+                } catch ( ExecutionException ex ) {
+                    Throwable cause = ex.getCause();
+                    if ( cause instanceof IOException )
+                        throw (IOException) cause;
+                    if ( cause instanceof IllegalArgumentException )
+                        throw (IllegalArgumentException) cause;
+                    throw new IOException("Unexpected error searching for crossovers with " + firstExpo +
+                            ": " + cause.getMessage(), cause);
+                } catch ( InterruptedException ex ) {
+                    throw new IOException("Interrupted while searching for crossovers with " + firstExpo, ex);
+                }
+                q++;
+                pairsDone += possibleExposMap.get(firstExpo).size();
+                if ( progressPrinter != null ) {
+                    long currentMillis = System.currentTimeMillis();
+                    double timeDiff = (currentMillis - startTimeMillis) / (60.0 * 1000.0);
+                    double pairsRate = pairsDone * 1000.0 / Math.max(currentMillis - searchStartMillis, 1L);
+                    progressPrinter.format("%.2fm - %d crossovers with %s; %d of %d pairs examined (%.1f pairs/s)\n",
+                            timeDiff, crossList.size(), firstExpo, pairsDone, numPairs, pairsRate);
+                    progressPrinter.flush();
+                }
                 for (Crossover cross : crossList) {
                     String[] expos = cross.getDatasetIds();
                     Long[] minTimes = new Long[2];
                     Long[] maxTimes = new Long[2];
-                    for (int q = 0; q < 2; q++) {
-                        double[] timeMinMax = timeMinMaxMap.get(expos[q]);
-                        minTimes[q] = Math.round(timeMinMax[0]);
-                        maxTimes[q] = Math.round(timeMinMax[1]);
+                    for (int k = 0; k < 2; k++) {
+                        double[] timeMinMax = extentsMap.get(expos[k]).getTimeMinMax();
+                        minTimes[k] = Math.round(timeMinMax[0]);
+                        maxTimes[k] = Math.round(timeMinMax[1]);
                     }
                     cross.setDatasetMinTimes(minTimes);
                     cross.setDatasetMaxTimes(maxTimes);
-                    for (int q = 0; q < 2; q++) {
-                        if ( reportExpos.contains(expos[q]) ) {
-                            TreeSet<Crossover> crossovers = crossoversMap.get(expos[q]);
+                    for (int k = 0; k < 2; k++) {
+                        if ( reportExpos.contains(expos[k]) ) {
+                            TreeSet<Crossover> crossovers = crossoversMap.get(expos[k]);
                             if ( crossovers == null ) {
                                 crossovers = new TreeSet<Crossover>();
-                                crossoversMap.put(expos[q], crossovers);
+                                crossoversMap.put(expos[k], crossovers);
                             }
                             crossovers.add(cross);
                         }
                     }
                 }
             }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if ( progressPrinter != null ) {
+            long currentMillis = System.currentTimeMillis();
+            double timeDiff = (currentMillis - startTimeMillis) / (60.0 * 1000.0);
+            double searchSecs = Math.max(currentMillis - searchStartMillis, 1L) / 1000.0;
+            progressPrinter.format("%.2fm - %d pairs examined in %.2fs using %d threads (%.1f pairs/s); " +
+                            "%d datasets read, %d reads avoided by the cache\n", timeDiff, pairsDone, searchSecs,
+                    numThreads, pairsDone / searchSecs, indexCache.getNumMisses(), indexCache.getNumHits());
+            progressPrinter.flush();
         }
         return crossoversMap;
     }
 
     /**
-     * Checks for high-quality crossovers in the data of a pair of datasets.
+     * Checks for high-quality crossovers between a dataset and a set of other datasets, obtaining the indexed
+     * data for all datasets from the given cache.  The crossovers returned will not have the cruiseMinTimes
+     * and cruiseMaxTimes assigned.
+     *
+     * @param expocode
+     *         the ID of the primary dataset to examine
+     * @param checkExpos
+     *         IDs of datasets to check for crossovers with the primary dataset
+     * @param indexCache
+     *         cache of indexed data for datasets
+     *
+     * @return the list of crossovers found; never null but may empty.
+     *
+     * @throws IllegalArgumentException
+     *         if any expocode is invalid
+     * @throws FileNotFoundException
+     *         if the the full-data DSG file for any dataset is not found
+     * @throws IOException
+     *         if problems reading from any full-data DSG file
+     */
+    private ArrayList<Crossover> getCrossovers(String expocode, Iterable<String> checkExpos, IndexCache indexCache)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        ArrayList<Crossover> crossList = new ArrayList<Crossover>();
+        String[] upperExpos = new String[2];
+        upperExpos[0] = DashboardServerUtils.checkDatasetID(expocode);
+        CrossoverIndex primaryIndex = indexCache.get(upperExpos[0]);
+        for (String otherExpo : checkExpos) {
+            upperExpos[1] = DashboardServerUtils.checkDatasetID(otherExpo);
+            // Check that the NODC codes are different - crossovers must be between different instruments
+            if ( (upperExpos[0]).substring(0, 4).equals((upperExpos[1]).substring(0, 4)) )
+                continue;
+            Crossover crossover = primaryIndex.findClosestCrossover(indexCache.get(upperExpos[1]));
+            if ( crossover != null ) {
+                // crossover found; add the datasetIds (only the values in the array are used)
+                crossover.setDatasetIds(upperExpos);
+                crossList.add(crossover);
+            }
+        }
+        return crossList;
+    }
+
+    /**
+     * Checks for high-quality crossovers in the data of a pair of datasets.  Creates a {@link CrossoverIndex}
+     * for each dataset and uses {@link CrossoverIndex#findClosestCrossover(CrossoverIndex)} to search for the
+     * closest high-quality crossover.
      *
      * @param longitudes
      *         the longitudes for the two datasets
@@ -370,26 +520,42 @@ public class CrossoverChecker {
      */
     public static Crossover checkForCrossover(double[][] longitudes, double[][] latitudes, double[][] times,
             double[][] ssts, double[][] fco2s) throws IllegalArgumentException {
-        if ( (longitudes == null) || (longitudes.length != 2) || (longitudes[0] == null) || (longitudes[1] == null) )
-            throw new IllegalArgumentException("Invalid longitudes given to checkForCrossover");
-        if ( (latitudes == null) || (latitudes.length != 2) || (latitudes[0] == null) || (latitudes[1] == null) )
-            throw new IllegalArgumentException("Invalid latitudes given to checkForCrossover");
-        if ( (times == null) || (times.length != 2) || (times[0] == null) || (times[1] == null) )
-            throw new IllegalArgumentException("Invalid times given to checkForCrossover");
-        if ( (ssts == null) || (ssts.length != 2) || (ssts[0] == null) || (ssts[1] == null) )
-            throw new IllegalArgumentException("Invalid ssts given to checkForCrossover");
-        if ( (fco2s == null) || (fco2s.length != 2) || (fco2s[0] == null) || (fco2s[1] == null) )
-            throw new IllegalArgumentException("Invalid fco2s given to checkForCrossover");
+        checkCrossoverArgs(longitudes, latitudes, times, ssts, fco2s);
+        CrossoverIndex firstIndex = new CrossoverIndex(longitudes[0], latitudes[0], times[0], ssts[0], fco2s[0]);
+        CrossoverIndex secondIndex = new CrossoverIndex(longitudes[1], latitudes[1], times[1], ssts[1], fco2s[1]);
+        return firstIndex.findClosestCrossover(secondIndex);
+    }
 
+    /**
+     * Checks for high-quality crossovers in the data of a pair of datasets by examining every pair of data points.
+     * The data of the second dataset is assumed to be in time order.  This is much slower than
+     * {@link #checkForCrossover(double[][], double[][], double[][], double[][], double[][])} for large datasets
+     * and is retained as the reference for verifying the results of the indexed search.
+     *
+     * @param longitudes
+     *         the longitudes for the two datasets
+     * @param latitudes
+     *         the latitudes for the two datasets
+     * @param times
+     *         the times, in seconds since Jan 1, 1970 00:00:00, of the two datasets
+     * @param ssts
+     *         the SSTs values for the two datasets
+     * @param fco2s
+     *         the fCO2_recommended values of the two datasets
+     *
+     * @return the closest high-quality crossover between the two datasets, or
+     *         null if no high-quality crossovers were found.  The dataset IDs, cruiseMinTimes,
+     *         and cruiseMaxTimes will not have been assigned in the returned crossover.
+     *
+     * @throws IllegalArgumentException
+     *         if any of the arguments do not have length 2,
+     *         if any of the arguments or argument array values are null, or
+     *         if the number of longitude, latitude, time, SST, or fCO2_recommended data values for a dataset differ
+     */
+    public static Crossover checkForCrossoverPairwise(double[][] longitudes, double[][] latitudes,
+            double[][] times, double[][] ssts, double[][] fco2s) throws IllegalArgumentException {
+        checkCrossoverArgs(longitudes, latitudes, times, ssts, fco2s);
         int[] numRows = new int[] { longitudes[0].length, longitudes[1].length };
-        if ( (latitudes[0].length != numRows[0]) || (latitudes[1].length != numRows[1]) )
-            throw new IllegalArgumentException("Sizes of longitudes and latitudes arrays do not match");
-        if ( (times[0].length != numRows[0]) || (times[1].length != numRows[1]) )
-            throw new IllegalArgumentException("Sizes of longitudes and times arrays do not match");
-        if ( (ssts[0].length != numRows[0]) || (ssts[1].length != numRows[1]) )
-            throw new IllegalArgumentException("Sizes of longitudes and ssts arrays do not match");
-        if ( (fco2s[0].length != numRows[0]) || (fco2s[1].length != numRows[1]) )
-            throw new IllegalArgumentException("Sizes of longitudes and fco2s arrays do not match");
 
         double minDistance = DashboardServerUtils.MAX_CROSSOVER_DIST;
         Crossover crossover = null;
@@ -474,4 +640,141 @@ public class CrossoverChecker {
         return crossover;
     }
 
+    /**
+     * Checks the arguments given to a search for high-quality crossovers in the data of a pair of datasets.
+     *
+     * @throws IllegalArgumentException
+     *         if any of the arguments do not have length 2,
+     *         if any of the arguments or argument array values are null, or
+     *         if the number of longitude, latitude, time, SST, or fCO2_recommended data values for a dataset differ
+     */
+    private static void checkCrossoverArgs(double[][] longitudes, double[][] latitudes, double[][] times,
+            double[][] ssts, double[][] fco2s) throws IllegalArgumentException {
+        if ( (longitudes == null) || (longitudes.length != 2) || (longitudes[0] == null) || (longitudes[1] == null) )
+            throw new IllegalArgumentException("Invalid longitudes given to checkForCrossover");
+        if ( (latitudes == null) || (latitudes.length != 2) || (latitudes[0] == null) || (latitudes[1] == null) )
+            throw new IllegalArgumentException("Invalid latitudes given to checkForCrossover");
+        if ( (times == null) || (times.length != 2) || (times[0] == null) || (times[1] == null) )
+            throw new IllegalArgumentException("Invalid times given to checkForCrossover");
+        if ( (ssts == null) || (ssts.length != 2) || (ssts[0] == null) || (ssts[1] == null) )
+            throw new IllegalArgumentException("Invalid ssts given to checkForCrossover");
+        if ( (fco2s == null) || (fco2s.length != 2) || (fco2s[0] == null) || (fco2s[1] == null) )
+            throw new IllegalArgumentException("Invalid fco2s given to checkForCrossover");
+
+        int[] numRows = new int[] { longitudes[0].length, longitudes[1].length };
+        if ( (latitudes[0].length != numRows[0]) || (latitudes[1].length != numRows[1]) )
+            throw new IllegalArgumentException("Sizes of longitudes and latitudes arrays do not match");
+        if ( (times[0].length != numRows[0]) || (times[1].length != numRows[1]) )
+            throw new IllegalArgumentException("Sizes of longitudes and times arrays do not match");
+        if ( (ssts[0].length != numRows[0]) || (ssts[1].length != numRows[1]) )
+            throw new IllegalArgumentException("Sizes of longitudes and ssts arrays do not match");
+        if ( (fco2s[0].length != numRows[0]) || (fco2s[1].length != numRows[1]) )
+            throw new IllegalArgumentException("Sizes of longitudes and fco2s arrays do not match");
+    }
+
+    /**
+     * Cache of the indexed data of the most recently used datasets.  Safe to use from multiple threads;
+     * if more than one thread requests the data for a dataset not in the cache, the data is read only once.
+     */
+    private class IndexCache {
+
+        private final LinkedHashMap<String,Future<CrossoverIndex>> indexMap;
+        private long numHits;
+        private long numMisses;
+
+        /**
+         * @param maxSize
+         *         maximum number of datasets to keep in this cache
+         */
+        IndexCache(final int maxSize) {
+            indexMap = new LinkedHashMap<String,Future<CrossoverIndex>>(2 * maxSize, 0.75F, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String,Future<CrossoverIndex>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+            numHits = 0;
+            numMisses = 0;
+        }
+
+        /**
+         * Returns the indexed data for a dataset, reading the data from the full-data DSG file
+         * if the indexed data is not in this cache.
+         *
+         * @param upperExpo
+         *         standardized ID of the dataset
+         *
+         * @return indexed data of the dataset
+         *
+         * @throws FileNotFoundException
+         *         if the the full-data DSG file for the dataset is not found
+         * @throws IOException
+         *         if problems reading from the full-data DSG file
+         */
+        CrossoverIndex get(final String upperExpo) throws FileNotFoundException, IOException {
+            Future<CrossoverIndex> future;
+            FutureTask<CrossoverIndex> task = null;
+            synchronized(indexMap) {
+                future = indexMap.get(upperExpo);
+                if ( future == null ) {
+                    task = new FutureTask<CrossoverIndex>(new Callable<CrossoverIndex>() {
+                        @Override
+                        public CrossoverIndex call() throws Exception {
+                            double[][] dataVals = dsgHandler.readLonLatTimeSstFco2DataValues(upperExpo);
+                            return new CrossoverIndex(dataVals[0], dataVals[1], dataVals[2],
+                                    dataVals[3], dataVals[4]);
+                        }
+                    });
+                    indexMap.put(upperExpo, task);
+                    future = task;
+                    numMisses++;
+                }
+                else {
+                    numHits++;
+                }
+            }
+            // Read the data in this thread, outside the synchronized block, if not yet in the cache
+            if ( task != null )
+                task.run();
+            try {
+                return future.get();
+            } catch ( ExecutionException ex ) {
+                synchronized(indexMap) {
+                    if ( indexMap.get(upperExpo) == future )
+                        indexMap.remove(upperExpo);
+                }
+                Throwable cause = ex.getCause();
+                if ( cause instanceof IOException )
+                    throw (IOException) cause;
+                if ( cause instanceof IllegalArgumentException )
+                    throw (IllegalArgumentException) cause;
+                throw new IOException("Unexpected error reading data for " + upperExpo + ": " +
+                        cause.getMessage(), cause);
+            } catch ( InterruptedException ex ) {
+                throw new IOException("Interrupted while reading data for " + upperExpo, ex);
+            }
+        }
+
+        /**
+         * @return the number of requests for indexed data found in this cache
+         */
+        long getNumHits() {
+            synchronized(indexMap) {
+                return numHits;
+            }
+        }
+
+        /**
+         * @return the number of requests for indexed data that required reading the data
+         */
+        long getNumMisses() {
+            synchronized(indexMap) {
+                return numMisses;
+            }
+        }
+
+    }
+
 }
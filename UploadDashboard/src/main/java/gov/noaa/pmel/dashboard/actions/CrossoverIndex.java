@@ -0,0 +1,304 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.actions;
+
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.Crossover;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Index of the data points of a dataset used in searching for high-quality crossovers.  Only data points without
+ * any missing longitude, latitude, time, SST, or fCO2_recommended values are retained.  These valid data points are
+ * placed in latitude bands {@link DashboardServerUtils#MAX_LAT_DIFF} degrees wide, and the points in each band are
+ * sorted by time.  A search for crossovers with a data point of another dataset then only needs to examine the data
+ * points in the neighboring latitude bands that are within {@link DashboardServerUtils#MAX_TIME_DIFF} of the time
+ * of that data point.  An index is created once for a dataset and can then be used for searches with any number of
+ * other datasets.
+ *
+ * @author Karl Smith
+ */
+public class CrossoverIndex {
+
+    private static final double BAND_WIDTH = DashboardServerUtils.MAX_LAT_DIFF;
+    // Limits on the latitude band numbers so erroneous latitudes do not create an excessive number of bands
+    private static final int LOWEST_BAND = (int) Math.floor(-180.0 / BAND_WIDTH);
+    private static final int HIGHEST_BAND = (int) Math.floor(180.0 / BAND_WIDTH);
+
+    // Time difference, in seconds, giving a location-time "distance" of one kilometer
+    private static final double SECONDS_PER_KM = 24.0 * 60.0 * 60.0 / DashboardServerUtils.SEAWATER_SPEED;
+    // Latitude difference, in degrees, giving a surface distance of one kilometer
+    private static final double DEGREES_PER_KM = (180.0 / Math.PI) / DashboardServerUtils.EARTH_AUTHALIC_RADIUS;
+    // Relative margin applied when narrowing the search limits to guard against round-off
+    private static final double LIMIT_MARGIN = 1.0 + 1.0E-6;
+
+    // Values of the valid data points in the order given in the data
+    private final int[] rowNums;
+    private final double[] lons;
+    private final double[] lats;
+    private final double[] times;
+    private final double[] ssts;
+    private final double[] fco2s;
+
+    // Latitude band number of the first latitude band
+    private final int minBand;
+    // Indices into the above arrays for the points in each latitude band, sorted by time
+    private final int[][] bandIndices;
+    // Times of the points in each latitude band, in sorted order
+    private final double[][] bandTimes;
+
+    /**
+     * Creates an index of the valid data points of a dataset.  A data point is valid if none of its longitude,
+     * latitude, time, SST, or fCO2_recommended values are missing (close to {@link DashboardUtils#FP_MISSING_VALUE})
+     * or not finite.  (Data points with non-finite values can never be part of a crossover.)
+     *
+     * @param longitudes
+     *         longitudes of the data points of the dataset
+     * @param latitudes
+     *         latitudes of the data points of the dataset
+     * @param times
+     *         times, in seconds since Jan 1, 1970 00:00:00, of the data points of the dataset
+     * @param ssts
+     *         SST values of the data points of the dataset
+     * @param fco2s
+     *         fCO2_recommended values of the data points of the dataset
+     *
+     * @throws IllegalArgumentException
+     *         if any of the arguments are null, or
+     *         if the number of longitude, latitude, time, SST, or fCO2_recommended data values differ
+     */
+    public CrossoverIndex(double[] longitudes, double[] latitudes, double[] times, double[] ssts, double[] fco2s)
+            throws IllegalArgumentException {
+        if ( longitudes == null )
+            throw new IllegalArgumentException("Invalid longitudes given to CrossoverIndex");
+        if ( latitudes == null )
+            throw new IllegalArgumentException("Invalid latitudes given to CrossoverIndex");
+        if ( times == null )
+            throw new IllegalArgumentException("Invalid times given to CrossoverIndex");
+        if ( ssts == null )
+            throw new IllegalArgumentException("Invalid ssts given to CrossoverIndex");
+        if ( fco2s == null )
+            throw new IllegalArgumentException("Invalid fco2s given to CrossoverIndex");
+        int numRows = longitudes.length;
+        if ( latitudes.length != numRows )
+            throw new IllegalArgumentException("Sizes of longitudes and latitudes arrays do not match");
+        if ( times.length != numRows )
+            throw new IllegalArgumentException("Sizes of longitudes and times arrays do not match");
+        if ( ssts.length != numRows )
+            throw new IllegalArgumentException("Sizes of longitudes and ssts arrays do not match");
+        if ( fco2s.length != numRows )
+            throw new IllegalArgumentException("Sizes of longitudes and fco2s arrays do not match");
+
+        // Find the valid data points
+        int[] validRows = new int[numRows];
+        int numValid = 0;
+        for (int j = 0; j < numRows; j++) {
+            if ( isValid(longitudes[j]) && isValid(latitudes[j]) && isValid(times[j]) &&
+                    isValid(ssts[j]) && isValid(fco2s[j]) ) {
+                validRows[numValid] = j;
+                numValid++;
+            }
+        }
+
+        this.rowNums = new int[numValid];
+        this.lons = new double[numValid];
+        this.lats = new double[numValid];
+        this.times = new double[numValid];
+        this.ssts = new double[numValid];
+        this.fco2s = new double[numValid];
+        int lowBand = Integer.MAX_VALUE;
+        int highBand = Integer.MIN_VALUE;
+        for (int q = 0; q < numValid; q++) {
+            int j = validRows[q];
+            this.rowNums[q] = j + 1;
+            this.lons[q] = longitudes[j];
+            this.lats[q] = latitudes[j];
+            this.times[q] = times[j];
+            this.ssts[q] = ssts[j];
+            this.fco2s[q] = fco2s[j];
+            int band = latitudeBand(latitudes[j]);
+            if ( lowBand > band )
+                lowBand = band;
+            if ( highBand < band )
+                highBand = band;
+        }
+        if ( numValid == 0 ) {
+            this.minBand = 0;
+            this.bandIndices = new int[0][];
+            this.bandTimes = new double[0][];
+            return;
+        }
+        this.minBand = lowBand;
+
+        // Count the points in each latitude band, then assign the indices of the points in each band
+        int numBands = highBand - lowBand + 1;
+        int[] bandCounts = new int[numBands];
+        for (int q = 0; q < numValid; q++) {
+            bandCounts[latitudeBand(this.lats[q]) - lowBand]++;
+        }
+        Integer[][] indices = new Integer[numBands][];
+        for (int b = 0; b < numBands; b++) {
+            indices[b] = new Integer[bandCounts[b]];
+            bandCounts[b] = 0;
+        }
+        for (int q = 0; q < numValid; q++) {
+            int b = latitudeBand(this.lats[q]) - lowBand;
+            indices[b][bandCounts[b]] = q;
+            bandCounts[b]++;
+        }
+
+        // Sort the indices in each band by time (stable sort, so ties remain in data order)
+        final double[] sortTimes = this.times;
+        Comparator<Integer> timeComparator = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return Double.compare(sortTimes[first], sortTimes[second]);
+            }
+        };
+        this.bandIndices = new int[numBands][];
+        this.bandTimes = new double[numBands][];
+        for (int b = 0; b < numBands; b++) {
+            Arrays.sort(indices[b], timeComparator);
+            int[] bandIdx = new int[indices[b].length];
+            double[] bandTms = new double[indices[b].length];
+            for (int k = 0; k < bandIdx.length; k++) {
+                bandIdx[k] = indices[b][k];
+                bandTms[k] = sortTimes[bandIdx[k]];
+            }
+            this.bandIndices[b] = bandIdx;
+            this.bandTimes[b] = bandTms;
+        }
+    }
+
+    /**
+     * @return the number of valid data points in this index
+     */
+    public int getNumValidPoints() {
+        return rowNums.length;
+    }
+
+    /**
+     * Finds the closest high-quality crossover between the data points of this index (the first dataset) and the
+     * data points of another index (the second dataset).  The same criteria as
+     * {@link CrossoverChecker#checkForCrossoverPairwise(double[][], double[][], double[][], double[][], double[][])}
+     * are used; if more than one pair of points has the minimum distance, the pair with the smallest row number in
+     * the first dataset, then the smallest row number in the second dataset, is reported.  Unlike the pairwise
+     * examination, the data of the second dataset does not need to be in time order.
+     * <p>
+     * Once a crossover is found, the time and latitude limits of the search are narrowed to those differences
+     * which could still give a location-time "distance" no larger than the distance of that crossover.
+     *
+     * @param other
+     *         index of the data points of the second dataset
+     *
+     * @return the closest high-quality crossover between the two datasets, or
+     *         null if no high-quality crossovers were found.  The dataset IDs, cruiseMinTimes,
+     *         and cruiseMaxTimes will not have been assigned in the returned crossover.
+     */
+    public Crossover findClosestCrossover(CrossoverIndex other) {
+        double minDistance = DashboardServerUtils.MAX_CROSSOVER_DIST;
+        double timeLimit = DashboardServerUtils.MAX_TIME_DIFF;
+        double latLimit = DashboardServerUtils.MAX_LAT_DIFF;
+        int minJ = -1;
+        int minK = -1;
+        for (int j = 0; j < rowNums.length; j++) {
+            double lon = lons[j];
+            double lat = lats[j];
+            double time = times[j];
+            double sst = ssts[j];
+            double fco2 = fco2s[j];
+            double earliest = time - timeLimit;
+            double latest = time + timeLimit;
+            // Include an extra band on each side to protect against round-off in the band computations
+            int firstBand = Math.max(latitudeBand(lat - BAND_WIDTH) - 1 - other.minBand, 0);
+            int lastBand = Math.min(latitudeBand(lat + BAND_WIDTH) + 1 - other.minBand,
+                    other.bandIndices.length - 1);
+            for (int b = firstBand; b <= lastBand; b++) {
+                double[] bandTms = other.bandTimes[b];
+                int[] bandIdx = other.bandIndices[b];
+                for (int n = firstAtOrAfter(bandTms, earliest); n < bandTms.length; n++) {
+                    if ( bandTms[n] > latest ) {
+                        // The rest of the points in this band occurred far later than this point
+                        break;
+                    }
+                    int k = bandIdx[n];
+                    if ( Math.abs(other.ssts[k] - sst) > DashboardServerUtils.MAX_TEMP_DIFF )
+                        continue;
+                    if ( Math.abs(other.fco2s[k] - fco2) > DashboardServerUtils.MAX_FCO2_DIFF )
+                        continue;
+                    if ( Math.abs(other.lats[k] - lat) > latLimit )
+                        continue;
+                    double locTimeDist = DashboardServerUtils.distanceBetween(lon, lat, time,
+                            other.lons[k], other.lats[k], other.times[k]);
+                    if ( locTimeDist < minDistance ) {
+                        minDistance = locTimeDist;
+                        minJ = j;
+                        minK = k;
+                        // Narrow the search to points that could be as close as this crossover
+                        timeLimit = Math.min(DashboardServerUtils.MAX_TIME_DIFF,
+                                minDistance * SECONDS_PER_KM * LIMIT_MARGIN);
+                        latLimit = Math.min(DashboardServerUtils.MAX_LAT_DIFF,
+                                minDistance * DEGREES_PER_KM * LIMIT_MARGIN);
+                        latest = time + timeLimit;
+                    }
+                    else if ( (locTimeDist == minDistance) && (minJ == j) && (k < minK) ) {
+                        // Same distance with an earlier point of the second dataset; report the earlier point
+                        minK = k;
+                    }
+                }
+            }
+        }
+        if ( minJ < 0 )
+            return null;
+
+        Crossover crossover = new Crossover();
+        crossover.setMinDistance(minDistance);
+        crossover.setRowNumsAtMin(new Integer[] { rowNums[minJ], other.rowNums[minK] });
+        crossover.setLonsAtMin(new Double[] { lons[minJ], other.lons[minK] });
+        crossover.setLatsAtMin(new Double[] { lats[minJ], other.lats[minK] });
+        crossover.setTimesAtMin(new Long[] { Math.round(times[minJ]), Math.round(other.times[minK]) });
+        return crossover;
+    }
+
+    /**
+     * @return if the value is finite and not missing (close to {@link DashboardUtils#FP_MISSING_VALUE})
+     */
+    private static boolean isValid(double value) {
+        if ( Double.isNaN(value) || Double.isInfinite(value) )
+            return false;
+        return !DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, value, 0.0, DashboardUtils.MAX_ABSOLUTE_ERROR);
+    }
+
+    /**
+     * @return the latitude band number for the given latitude
+     */
+    private static int latitudeBand(double latitude) {
+        int band = (int) Math.floor(latitude / BAND_WIDTH);
+        if ( band < LOWEST_BAND )
+            return LOWEST_BAND;
+        if ( band > HIGHEST_BAND )
+            return HIGHEST_BAND;
+        return band;
+    }
+
+    /**
+     * @return the index of the first value in the sorted array that is not less than the given value;
+     *         the length of the array if all values are less than the given value
+     */
+    private static int firstAtOrAfter(double[] sortedVals, double value) {
+        int low = 0;
+        int high = sortedVals.length;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( sortedVals[mid] < value )
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+}
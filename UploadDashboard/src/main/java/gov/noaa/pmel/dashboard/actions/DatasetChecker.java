@@ -3,14 +3,17 @@ package gov.noaa.pmel.dashboard.actions;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.dsg.UserDataRowSource;
 import gov.noaa.pmel.dashboard.handlers.CheckerMessageHandler;
 import gov.noaa.pmel.dashboard.qc.RowColumn;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
 
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class for interpreting, standardizing, and checking user-provided data.
@@ -21,6 +24,8 @@ public class DatasetChecker {
 
     private CheckerMessageHandler msgHandler;
     private KnownDataTypes knownUserDataTypes;
+    // Pool shared by all datasets for standardizing and checking data columns in parallel; synchronized on this
+    private ForkJoinPool workerPool;
 
     /**
      * @param userDataTypes
@@ -39,6 +44,47 @@ public class DatasetChecker {
             throw new IllegalArgumentException("no message handler given to the dataset checker");
         knownUserDataTypes = userDataTypes;
         msgHandler = checkerMessageHandler;
+        workerPool = null;
+    }
+
+    /**
+     * Assigns the maximum number of threads used to standardize and check the data columns of datasets.
+     * This limit applies to all datasets being checked at the same time, as they share one pool of threads.
+     *
+     * @param numThreads
+     *         maximum number of threads to use; if one, the data columns are standardized and checked
+     *         one after another in the thread checking the dataset
+     *
+     * @throws IllegalArgumentException
+     *         if numThreads is less than one
+     */
+    public synchronized void setNumThreads(int numThreads) throws IllegalArgumentException {
+        if ( numThreads < 1 )
+            throw new IllegalArgumentException("invalid number of threads: " + numThreads);
+        if ( workerPool != null )
+            workerPool.shutdown();
+        if ( numThreads > 1 )
+            workerPool = new ForkJoinPool(numThreads);
+        else
+            workerPool = null;
+    }
+
+    /**
+     * Shuts down the pool of threads, if any, used for standardizing and checking data columns.
+     * Datasets checked after this call have their data columns standardized and checked in the calling thread.
+     */
+    public synchronized void shutdown() {
+        if ( workerPool != null ) {
+            workerPool.shutdown();
+            workerPool = null;
+        }
+    }
+
+    /**
+     * @return the pool of threads for standardizing and checking data columns; null if not used
+     */
+    private synchronized ForkJoinPool getWorkerPool() {
+        return workerPool;
     }
 
     /**
@@ -71,8 +117,49 @@ public class DatasetChecker {
     public StdUserDataArray standardizeDataset(DashboardDatasetData dataset, DsgMetadata metadata)
             throws IllegalArgumentException {
         // Generate array of standardized data objects
-        StdUserDataArray stdUserData = new StdUserDataArray(dataset, knownUserDataTypes);
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, knownUserDataTypes, getWorkerPool());
+        checkStandardizedData(dataset, stdUserData, metadata);
+        return stdUserData;
+    }
 
+    /**
+     * Interprets the data string representations read from the given source and standardizes, if required,
+     * these data values for given dataset.  The data rows are read and standardized in chunks, so the strings
+     * of all the data are never held in memory at one time.  Otherwise this is the same as
+     * {@link #standardizeDataset(DashboardDatasetData, DsgMetadata)}.
+     *
+     * @param dataset
+     *         dataset to check; the number of data rows must be assigned; various fields will be updated by this method
+     * @param dataRows
+     *         source of the user's data strings for this dataset
+     * @param metadata
+     *         metadata to update; can be null
+     *
+     * @return standardized user data array of checked values
+     *
+     * @throws IllegalArgumentException
+     *         if there are no data values,
+     *         if there are problems reading the data values,
+     *         if a data column description is not a known user data type,
+     *         if a required unit conversion is not supported,
+     *         if a standardizer for a given data type is not known,
+     *         if ....
+     */
+    public StdUserDataArray standardizeDataset(DashboardDataset dataset, UserDataRowSource dataRows,
+            DsgMetadata metadata) throws IllegalArgumentException {
+        // Generate array of standardized data objects
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, dataRows, knownUserDataTypes, getWorkerPool());
+        checkStandardizedData(dataset, stdUserData, metadata);
+        return stdUserData;
+    }
+
+    /**
+     * Performs the automated data checks on the standardized data values, saves the messages generated,
+     * and updates the dataset and metadata as described in {@link #standardizeDataset(DashboardDatasetData,
+     * DsgMetadata)}.
+     */
+    private void checkStandardizedData(DashboardDataset dataset, StdUserDataArray stdUserData,
+            DsgMetadata metadata) throws IllegalArgumentException {
         // Check for missing lon/lat/time
         Double[] sampleTimes = stdUserData.checkMissingLonLatTime();
 
@@ -168,8 +255,6 @@ public class DatasetChecker {
             Double[] sampleLatitudes = stdUserData.getSampleLatitudes();
             metadata.assignLonLatTimeLimits(sampleLongitudes, sampleLatitudes, sampleTimes, errRows);
         }
-
-        return stdUserData;
     }
 
 }
@@ -36,6 +36,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Submits a dataset.  At this time this just means creating the DSG and decimated DSG files for the dataset.
@@ -47,6 +54,26 @@ public class DatasetSubmitter {
     public static final String PI_PROVIDED_WOCE_COMMENT_START = "PI provided WOCE ";
     public static final String PI_PROVIDED_BOTTLEQC_COMMENT_START = "PI provided data QC ";
 
+    /**
+     * Default maximum number of datasets read, standardized, and checked at the same time.  This is also the
+     * maximum number of datasets in the submit pipeline at any one time, so limits the memory used for the data.
+     */
+    public static final int DEFAULT_MAX_NUM_STANDARDIZE_THREADS = 4;
+    /**
+     * Default number of datasets having their DSG files generated at the same time
+     * when Ferret is not run with a pool of Ferret sessions
+     */
+    public static final int DEFAULT_NUM_FERRET_THREADS = 4;
+    /**
+     * Default number of datasets having their QC flags added to the database at the same time
+     */
+    public static final int DEFAULT_NUM_DATABASE_THREADS = 2;
+
+    // Stages of submitting a dataset; indices into the executors of a SubmitPipeline
+    private static final int STANDARDIZE_STAGE = 0;
+    private static final int FERRET_STAGE = 1;
+    private static final int DATABASE_STAGE = 2;
+
     DataFileHandler dataHandler;
     MetadataFileHandler metadataHandler;
     DatasetChecker datasetChecker;
@@ -59,11 +86,54 @@ public class DatasetSubmitter {
     String version;
     Logger itsLogger;
 
+    // Thread pools for each stage of submitting datasets, shared by all submissions
+    private final ExecutorService[] stageExecutors;
+    // Limits the number of datasets, over all submissions, in the stages of submitting datasets
+    private final Semaphore datasetPermits;
+    // Progress of the submissions in progress, keyed by the submission ID; synchronized on itself
+    private final HashMap<String,SubmitProgress> submitProgress;
+
     /**
+     * Create using one standardization thread for each available processor (but no more than {@link
+     * #DEFAULT_MAX_NUM_STANDARDIZE_THREADS}), a DSG thread for each session in the Ferret worker pool (or {@link
+     * #DEFAULT_NUM_FERRET_THREADS} if there is no pool), and {@link #DEFAULT_NUM_DATABASE_THREADS} database threads.
+     *
      * @param configStore
      *         create with the file handlers and data checker in this data store.
      */
     public DatasetSubmitter(DashboardConfigStore configStore) {
+        this(configStore,
+                Math.min(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_NUM_STANDARDIZE_THREADS),
+                (configStore.getFerretConfig().getWorkerPoolSize() > 0) ?
+                        configStore.getFerretConfig().getWorkerPoolSize() : DEFAULT_NUM_FERRET_THREADS,
+                DEFAULT_NUM_DATABASE_THREADS);
+    }
+
+    /**
+     * The number of standardize threads is also the maximum number of datasets, over all submissions, in the stages
+     * of submitting datasets at any one time.  Each of these datasets holds its data and its standardized data in
+     * memory from when it is read until its QC flags are added to the database, so no more than this number of
+     * datasets are held in memory by this submitter.  The DSG and decimated DSG files are written by the {@link
+     * DsgNcFileHandler} one file at a time; the DSG stage threads only overlap the computing of the derived variables
+     * (by Ferret, if used) and the decimating of the data.
+     *
+     * @param configStore
+     *         create with the file handlers and data checker in this data store.
+     * @param numStandardizeThreads
+     *         number of datasets read, standardized, and checked at the same time,
+     *         and the maximum number of datasets being submitted at the same time
+     * @param numFerretThreads
+     *         number of datasets having their DSG and decimated DSG files generated at the same time
+     * @param numDatabaseThreads
+     *         number of datasets having their QC flags added to the database at the same time
+     *
+     * @throws IllegalArgumentException
+     *         if any of the numbers of threads is not positive
+     */
+    public DatasetSubmitter(DashboardConfigStore configStore, int numStandardizeThreads, int numFerretThreads,
+            int numDatabaseThreads) throws IllegalArgumentException {
+        if ( (numStandardizeThreads < 1) || (numFerretThreads < 1) || (numDatabaseThreads < 1) )
+            throw new IllegalArgumentException("invalid number of dataset submit threads");
         dataHandler = configStore.getDataFileHandler();
         metadataHandler = configStore.getMetadataFileHandler();
         datasetChecker = configStore.getDashboardDatasetChecker();
@@ -75,12 +145,48 @@ public class DatasetSubmitter {
         fileDataTypes = configStore.getKnownDataFileTypes();
         version = configStore.getUploadVersion();
         itsLogger = configStore.getLogger();
+        stageExecutors = new ExecutorService[3];
+        stageExecutors[STANDARDIZE_STAGE] = Executors.newFixedThreadPool(numStandardizeThreads,
+                new StageThreadFactory("DatasetSubmitter-standardize"));
+        stageExecutors[FERRET_STAGE] = Executors.newFixedThreadPool(numFerretThreads,
+                new StageThreadFactory("DatasetSubmitter-dsg"));
+        stageExecutors[DATABASE_STAGE] = Executors.newFixedThreadPool(numDatabaseThreads,
+                new StageThreadFactory("DatasetSubmitter-database"));
+        datasetPermits = new Semaphore(numStandardizeThreads, true);
+        submitProgress = new HashMap<String,SubmitProgress>();
+    }
+
+    /**
+     * Stops the threads submitting datasets.  Any submissions in progress are interrupted, and the datasets of
+     * those submissions not yet finished are reported as not submitted.
+     */
+    public void shutdown() {
+        for (ExecutorService executor : stageExecutors) {
+            for (Runnable job : executor.shutdownNow()) {
+                if ( job instanceof StageJob )
+                    ((StageJob) job).abandon();
+            }
+        }
+    }
+
+    /**
+     * @return a new ID for a submission of datasets; used to report the progress of that submission
+     */
+    public String createSubmitId() {
+        return UUID.randomUUID().toString();
     }
 
     /**
      * Submit a dataset.  This standardized the data using the automated data checker and generates DSG and decimated
      * DSG files for datasets which are editable. For all datasets, the archive status is updated to the given value.
      * <p>
+     * The datasets are submitted in stages, each stage run by its own pool of threads: reading, standardizing, and
+     * checking the data; generating the DSG and decimated DSG files (using Ferret); and adding the QC flags to the
+     * database.  A problem with one dataset does not stop the submission of the other datasets; the problems are
+     * reported after all the datasets have been processed.  ERDDAP is notified once after all the datasets have been
+     * processed.  The progress of the submission can be obtained using {@link #getSubmitProgress(String, String)}
+     * with the given submission ID.
+     * <p>
      * If the archive status begins with {@link DashboardUtils#ARCHIVE_STATUS_SENT_TO_START}, the archive request
      * is sent for dataset which have not already been sent, or for all datasets if repeatSend is true.
      *
@@ -94,171 +200,86 @@ public class DatasetSubmitter {
      *         re-send request to archive for datasets which already had a request sent?
      * @param submitter
      *         user performing this submit
+     * @param submitId
+     *         ID for this submission, from {@link #createSubmitId()}; if null, the progress is not reported
      *
      * @throws IllegalArgumentException
-     *         if the dataset ID is invalid, if the data or metadata is missing, if the DSG files cannot be created, or
-     *         if there was a problem saving the updated dataset information (including archive status)
+     *         if the dataset ID is invalid, if the data or metadata is missing, if the DSG files cannot be created,
+     *         if there was a problem saving the updated dataset information (including archive status), or
+     *         if the submission ID is already in use
      */
     public void submitDatasets(Collection<String> idsSet, String archiveStatus, String timestamp,
-            boolean repeatSend, String submitter) throws IllegalArgumentException {
-
-        HashSet<String> ingestIds = new HashSet<String>();
-        HashSet<String> archiveIds = new HashSet<String>();
-        ArrayList<String> errorMsgs = new ArrayList<String>();
-        for (String datasetId : idsSet) {
-            // Get the dataset with data since almost always submitting for QC
-            DashboardDatasetData dataset = dataHandler.getDatasetDataFromFiles(datasetId, 0, -1);
-            if ( dataset == null )
-                throw new IllegalArgumentException("Unknown dataset " + datasetId);
-
-            boolean changed = false;
-            String commitMsg = "Dataset " + datasetId;
-
-            if ( Boolean.TRUE.equals(dataset.isEditable()) ) {
-                try {
-                    // Get the OME metadata for this dataset
-                    DashboardMetadata omeInfo = metadataHandler
-                            .getMetadataInfo(datasetId, DashboardServerUtils.OME_FILENAME);
-                    if ( !version.equals(omeInfo.getVersion()) ) {
-                        omeInfo.setVersion(version);
-                        metadataHandler.saveMetadataInfo(omeInfo, "Update metadata version number to " +
-                                version + " with submission of " + datasetId, false);
-                    }
-                    DashboardOmeMetadata omeMData = metadataHandler.getOmeFromFile(omeInfo);
-                    // get the DOIs from data file properties; CDIAC OME does not save the DOI as such (may be part of citation)
-                    omeMData.setDatasetDOI(dataset.getSourceDOI());
-                    DsgMetadata dsgMData = omeMData.createDsgMetadata(fileMetadataTypes);
-
-                    // For SOCAT, the version string in the DsgMetadata is the submit version number plus an 'N' or 'U'
-                    // depending on whether this dataset is new to this version of SOCAT or an update from a previous
-                    // version of SOCAT.  An update within the same version of SOCAT does not change 'N' to 'U'.
-                    String versionStatus = databaseHandler.getVersionStatus(datasetId);
-                    String datasetQCFlag;
-                    if ( versionStatus.isEmpty() ) {
-                        versionStatus = version + "N";
-                        datasetQCFlag = "N";
-                    }
-                    else if ( "U".equals(versionStatus.substring(versionStatus.length() - 1)) ) {
-                        versionStatus = version + "U";
-                        datasetQCFlag = "U";
-                    }
-                    else {
-                        long newVersion;
-                        try {
-                            newVersion = Math.round(Double.parseDouble(version) * 10.0);
-                        } catch ( NumberFormatException ex ) {
-                            throw new RuntimeException("Unexpected non-numeric new version number '" + version + "'");
-                        }
-                        String oldNum = versionStatus.substring(0, versionStatus.length() - 1);
-                        long oldVersion;
-                        try {
-                            oldVersion = Math.round(Double.parseDouble(oldNum) * 10.0);
-                        } catch ( NumberFormatException ex ) {
-                            throw new RuntimeException("Unexpected non-numeric old version number '" + oldNum + "'");
-                        }
-                        if ( newVersion > oldVersion ) {
-                            versionStatus = version + "U";
-                            datasetQCFlag = "U";
-                        }
-                        else {
-                            versionStatus = version + "N";
-                            datasetQCFlag = "N";
-                        }
-                    }
-                    dsgMData.setVersion(versionStatus);
-                    dsgMData.setDatasetQCFlag(datasetQCFlag);
-
-                    // Standardize the data and perform the automated data checks.
-                    // Saves the messages from the standardization and automated data checks.
-                    // Assigns dataCheckStatus, numErrorRows, numWarnRows, checkerFlags, and userFlags in dataset
-                    // Also updates dsgMdata with the lon/lat/time limits of data not WOCE-4
-                    StdUserDataArray userStdData = datasetChecker.standardizeDataset(dataset, dsgMData);
-                    if ( DashboardUtils.CHECK_STATUS_UNACCEPTABLE.equals(dataset.getDataCheckStatus()) ) {
-                        errorMsgs.add(datasetId + ": unacceptable; check data check error messages " +
-                                "(missing lon/lat/time or uninterpretable values)");
-                        continue;
-                    }
-                    // Copy the lon/lat/time limits to OME.xml and save
-                    omeMData.setWestmostLongitude(dsgMData.getWestmostLongitude());
-                    omeMData.setEastmostLongitude(dsgMData.getEastmostLongitude());
-                    omeMData.setSouthmostLatitude(dsgMData.getSouthmostLatitude());
-                    omeMData.setNorthmostLatitude(dsgMData.getNorthmostLatitude());
-                    omeMData.setDataBeginTime(dsgMData.getBeginTime());
-                    omeMData.setDataEndTime(dsgMData.getEndTime());
-                    metadataHandler.saveOmeToFile(omeMData, "Update lon/lat/time limits");
-
-                    // Add the automated data checker data QC flags to the appropriate data QC columns
-                    userStdData.addAutomatedDataQC();
-
-                    // Generate the NetCDF DSG file, enhanced by Ferret
-                    if ( itsLogger != null )
-                        itsLogger.debug("Generating the full-data DSG file for " + datasetId);
-                    dsgHandler.saveDatasetDsg(dsgMData, userStdData);
-
-                    // Generate the decimated-data DSG file from the full-data DSG file
-                    if ( itsLogger != null )
-                        itsLogger.debug("Generating the decimated-data DSG file for " + datasetId);
-                    dsgHandler.decimateDatasetDsg(datasetId);
-
-                    // Update the all_region_ids metadata variable from the Ferret-generated
-                    // region_id data variable in the full-data DSG file.
-                    String allRegionIds = dsgHandler.updateAllRegionIds(datasetId);
-
-                    // Generate the set of data QC events for the data QC flags from standardization
-                    // and automated data checking as well as for user-provided data QC flags
-                    ArrayList<DataQCEvent> dataQCEvents = generateDataQCEvents(dataset, userStdData);
-
-                    // Update the data QC flags to those for this data
-                    databaseHandler.resetDataQCEvents(datasetId);
-                    databaseHandler.addDataQCEvent(dataQCEvents);
-
-                    // (re)generate the WOCE flags messages file
-                    metadataHandler.generateWoceFlagMsgsFile(datasetId, databaseHandler);
-
-                    // Add new or update (regardless of version) dataset QC flags to the database.
-                    // Uses the submit status from dataset to determine if new or updated,
-                    // then updates the submit status appropriately.
-                    ArrayList<QCEvent> datasetQCEvents = generateDatasetQCEvents(dataset, allRegionIds);
-                    databaseHandler.addDatasetQCEvents(datasetQCEvents);
-
-                } catch ( Exception ex ) {
-                    errorMsgs.add(datasetId + ": unacceptable; " + ex.getMessage());
-                    continue;
+            boolean repeatSend, String submitter, String submitId) throws IllegalArgumentException {
+        SubmitProgress progress = new SubmitProgress(idsSet.size(), submitter);
+        if ( submitId != null ) {
+            synchronized(submitProgress) {
+                if ( submitProgress.containsKey(submitId) )
+                    throw new IllegalArgumentException("Submission ID " + submitId + " is already in use");
+                submitProgress.put(submitId, progress);
+            }
+        }
+        try {
+            submitDatasets(idsSet, archiveStatus, timestamp, repeatSend, submitter, progress);
+        } finally {
+            if ( submitId != null ) {
+                synchronized(submitProgress) {
+                    submitProgress.remove(submitId);
                 }
-
-                // Set up to save changes to version control
-                changed = true;
-                commitMsg += " submitted";
-                ingestIds.add(datasetId);
             }
+        }
+    }
 
-            if ( archiveStatus.startsWith(DashboardUtils.ARCHIVE_STATUS_SENT_TO_START) &&
-                    (repeatSend || dataset.getArchiveTimestamps().isEmpty()) ) {
-                // Queue the request to send (or re-send) the data and metadata for archival.
-                // In the future there might be more than one place to send for archival.
-                archiveIds.add(datasetId);
-            }
-            else if ( !archiveStatus.equals(dataset.getArchiveStatus()) ) {
-                // Update the archive status now
-                dataset.setArchiveStatus(archiveStatus);
-                changed = true;
-                commitMsg += " archive status '" + archiveStatus + "'";
-            }
+    /**
+     * Returns a description of the progress of a submission.
+     *
+     * @param submitId
+     *         ID of the submission, as given to {@link #submitDatasets(Collection, String, String, boolean, String,
+     *         String)}
+     * @param submitter
+     *         user performing the submit
+     *
+     * @return description of the progress of the submission; empty if there is no submission in progress
+     *         with this ID made by this user
+     */
+    public String getSubmitProgress(String submitId, String submitter) {
+        SubmitProgress progress;
+        synchronized(submitProgress) {
+            progress = submitProgress.get(submitId);
+        }
+        if ( (progress == null) || !progress.submitter.equals(submitter) )
+            return "";
+        return progress.toString();
+    }
 
-            if ( changed ) {
-                // Commit this update of the dataset properties
-                commitMsg += " by user '" + submitter + "'";
-                dataHandler.saveDatasetInfoToFile(dataset, commitMsg);
+    private void submitDatasets(Collection<String> idsSet, String archiveStatus, String timestamp,
+            boolean repeatSend, String submitter, SubmitProgress progress) throws IllegalArgumentException {
+        // Submit each dataset through the stages of the submit pipeline
+        ArrayList<DatasetSubmission> submissions = new ArrayList<DatasetSubmission>(idsSet.size());
+        SubmitPipeline pipeline = new SubmitPipeline(idsSet.size(), progress);
+        try {
+            for (String datasetId : idsSet) {
+                DatasetSubmission submission = new DatasetSubmission(datasetId, archiveStatus, repeatSend, submitter);
+                submissions.add(submission);
+                pipeline.submit(submission);
             }
-            try {
-                // Wait just a moment to let other things (mysql? svn?) catch up
-                // or clear;  submits of lots of datasets can sometimes cause
-                // messed-up DSG files not seen when submitted in small numbers.
-                Thread.sleep(100);
-            } catch ( InterruptedException ex ) {
-                // Ignore
-                ;
+            pipeline.awaitFinish();
+        } catch ( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Interrupted while submitting datasets");
+        }
+
+        HashSet<String> ingestIds = new HashSet<String>();
+        HashSet<String> archiveIds = new HashSet<String>();
+        ArrayList<String> errorMsgs = new ArrayList<String>();
+        for (DatasetSubmission submission : submissions) {
+            if ( submission.errorMsg != null ) {
+                errorMsgs.add(submission.errorMsg);
+                continue;
             }
+            if ( submission.ingested )
+                ingestIds.add(submission.datasetId);
+            if ( submission.archive )
+                archiveIds.add(submission.datasetId);
         }
 
         // notify ERDDAP of new/updated dataset
@@ -314,6 +335,388 @@ public class DatasetSubmitter {
         }
     }
 
+    /**
+     * Names the threads of a stage of submitting datasets.  The threads are daemon threads.
+     */
+    private static class StageThreadFactory implements ThreadFactory {
+        private final String name;
+        private int numThreads;
+
+        StageThreadFactory(String name) {
+            this.name = name;
+            numThreads = 0;
+        }
+
+        @Override
+        public synchronized Thread newThread(Runnable job) {
+            numThreads++;
+            Thread thread = new Thread(job, name + "-" + numThreads);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Counts of the datasets in each stage of a submission.  All methods are synchronized.
+     */
+    private static class SubmitProgress {
+        private final int numDatasets;
+        private final String submitter;
+        private final int[] numInStage;
+        private int numFinished;
+        private int numFailed;
+
+        SubmitProgress(int numDatasets, String submitter) {
+            this.numDatasets = numDatasets;
+            this.submitter = submitter;
+            numInStage = new int[3];
+            numFinished = 0;
+            numFailed = 0;
+        }
+
+        synchronized void startStage(int stage) {
+            numInStage[stage]++;
+        }
+
+        synchronized void endStage(int stage) {
+            numInStage[stage]--;
+        }
+
+        synchronized void finished(boolean failed) {
+            numFinished++;
+            if ( failed )
+                numFailed++;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return numFinished + " of " + numDatasets + " datasets processed (" + numFailed + " with problems); " +
+                    numInStage[STANDARDIZE_STAGE] + " being checked, " +
+                    numInStage[FERRET_STAGE] + " generating DSG files, " +
+                    numInStage[DATABASE_STAGE] + " adding QC flags";
+        }
+    }
+
+    /**
+     * Runs the datasets of one submission through the shared thread pools for each stage.  A permit from the shared
+     * datasetPermits is held by each dataset from when it is read until it is finished, so the data of no more than
+     * that number of datasets, over all submissions, is held in memory at any one time.
+     */
+    private class SubmitPipeline {
+        private final CountDownLatch unfinished;
+        private final SubmitProgress progress;
+
+        SubmitPipeline(int numDatasets, SubmitProgress progress) {
+            unfinished = new CountDownLatch(numDatasets);
+            this.progress = progress;
+        }
+
+        /**
+         * Starts the submission of a dataset, waiting if the number of datasets being submitted is at the limit.
+         */
+        void submit(DatasetSubmission submission) throws InterruptedException {
+            datasetPermits.acquire();
+            runStage(submission, STANDARDIZE_STAGE);
+        }
+
+        /**
+         * Queues a stage of the submission of a dataset.  If the stage cannot be queued because the submitter has
+         * been shut down, the submission of this dataset is finished with an error.
+         */
+        private void runStage(DatasetSubmission submission, int stage) {
+            try {
+                stageExecutors[stage].execute(new StageJob(this, submission, stage));
+            } catch ( RejectedExecutionException ex ) {
+                abandon(submission);
+            }
+        }
+
+        /**
+         * Finishes the submission of a dataset that could not be run through all its stages.
+         */
+        void abandon(DatasetSubmission submission) {
+            if ( submission.errorMsg == null )
+                submission.errorMsg = submission.datasetId + ": not submitted; dataset submission was stopped";
+            finish(submission);
+        }
+
+        /**
+         * Finishes the submission of a dataset, releasing its permit.
+         */
+        void finish(DatasetSubmission submission) {
+            progress.finished(submission.errorMsg != null);
+            datasetPermits.release();
+            unfinished.countDown();
+        }
+
+        void awaitFinish() throws InterruptedException {
+            unfinished.await();
+        }
+    }
+
+    /**
+     * Runs one stage of the submission of a dataset.  If successful and the dataset needs further stages,
+     * the next stage is queued; otherwise the submission of this dataset is finished.
+     */
+    private static class StageJob implements Runnable {
+        private final SubmitPipeline pipeline;
+        private final DatasetSubmission submission;
+        private final int stage;
+
+        StageJob(SubmitPipeline pipeline, DatasetSubmission submission, int stage) {
+            this.pipeline = pipeline;
+            this.submission = submission;
+            this.stage = stage;
+        }
+
+        @Override
+        public void run() {
+            boolean another;
+            pipeline.progress.startStage(stage);
+            try {
+                another = submission.runStage(stage);
+            } catch ( Throwable ex ) {
+                submission.errorMsg = submission.datasetId + ": unacceptable; " + ex.getMessage();
+                another = false;
+            } finally {
+                pipeline.progress.endStage(stage);
+            }
+            if ( another )
+                pipeline.runStage(submission, stage + 1);
+            else
+                pipeline.finish(submission);
+        }
+
+        /**
+         * Finishes the submission of the dataset without running this stage.
+         */
+        void abandon() {
+            pipeline.abandon(submission);
+        }
+    }
+
+    /**
+     * The submission of a single dataset, carried from one stage of the submit pipeline to the next.
+     * Fields are only accessed by the thread running the current stage, or after the submission has finished.
+     */
+    private class DatasetSubmission {
+        final String datasetId;
+        final String archiveStatus;
+        final boolean repeatSend;
+        final String submitter;
+        DashboardDatasetData dataset;
+        DsgMetadata dsgMData;
+        StdUserDataArray userStdData;
+        String allRegionIds;
+        // Was the dataset submitted for QC (and so ERDDAP needs to be notified)?
+        boolean ingested;
+        // Does an immediate archival request need to be sent for this dataset?
+        boolean archive;
+        // Problem reported for this dataset; null if no problems
+        volatile String errorMsg;
+
+        DatasetSubmission(String datasetId, String archiveStatus, boolean repeatSend, String submitter) {
+            this.datasetId = datasetId;
+            this.archiveStatus = archiveStatus;
+            this.repeatSend = repeatSend;
+            this.submitter = submitter;
+            ingested = false;
+            archive = false;
+            errorMsg = null;
+        }
+
+        /**
+         * @return true if the next stage needs to be run for this dataset
+         */
+        boolean runStage(int stage) throws Exception {
+            switch ( stage ) {
+                case STANDARDIZE_STAGE:
+                    return standardize();
+                case FERRET_STAGE:
+                    generateDsgFiles();
+                    return true;
+                case DATABASE_STAGE:
+                    addQCEvents();
+                    return false;
+                default:
+                    throw new IllegalArgumentException("unexpected submit stage " + stage);
+            }
+        }
+
+        /**
+         * Reads the dataset and, if editable, standardizes and checks the data.
+         *
+         * @return true if the DSG files need to be generated for this dataset
+         */
+        private boolean standardize() throws Exception {
+            // Get the dataset with data since almost always submitting for QC
+            dataset = dataHandler.getDatasetDataFromFiles(datasetId, 0, -1);
+            if ( dataset == null ) {
+                errorMsg = "Unknown dataset " + datasetId;
+                return false;
+            }
+
+            if ( !Boolean.TRUE.equals(dataset.isEditable()) ) {
+                updateArchiveStatus();
+                return false;
+            }
+
+            // Get the OME metadata for this dataset
+            DashboardMetadata omeInfo = metadataHandler
+                    .getMetadataInfo(datasetId, DashboardServerUtils.OME_FILENAME);
+            if ( !version.equals(omeInfo.getVersion()) ) {
+                omeInfo.setVersion(version);
+                metadataHandler.saveMetadataInfo(omeInfo, "Update metadata version number to " +
+                        version + " with submission of " + datasetId, false);
+            }
+            DashboardOmeMetadata omeMData = metadataHandler.getOmeFromFile(omeInfo);
+            // get the DOIs from data file properties; CDIAC OME does not save the DOI as such (may be part of citation)
+            omeMData.setDatasetDOI(dataset.getSourceDOI());
+            dsgMData = omeMData.createDsgMetadata(fileMetadataTypes);
+
+            // For SOCAT, the version string in the DsgMetadata is the submit version number plus an 'N' or 'U'
+            // depending on whether this dataset is new to this version of SOCAT or an update from a previous
+            // version of SOCAT.  An update within the same version of SOCAT does not change 'N' to 'U'.
+            String versionStatus = databaseHandler.getVersionStatus(datasetId);
+            String datasetQCFlag;
+            if ( versionStatus.isEmpty() ) {
+                versionStatus = version + "N";
+                datasetQCFlag = "N";
+            }
+            else if ( "U".equals(versionStatus.substring(versionStatus.length() - 1)) ) {
+                versionStatus = version + "U";
+                datasetQCFlag = "U";
+            }
+            else {
+                long newVersion;
+                try {
+                    newVersion = Math.round(Double.parseDouble(version) * 10.0);
+                } catch ( NumberFormatException ex ) {
+                    throw new RuntimeException("Unexpected non-numeric new version number '" + version + "'");
+                }
+                String oldNum = versionStatus.substring(0, versionStatus.length() - 1);
+                long oldVersion;
+                try {
+                    oldVersion = Math.round(Double.parseDouble(oldNum) * 10.0);
+                } catch ( NumberFormatException ex ) {
+                    throw new RuntimeException("Unexpected non-numeric old version number '" + oldNum + "'");
+                }
+                if ( newVersion > oldVersion ) {
+                    versionStatus = version + "U";
+                    datasetQCFlag = "U";
+                }
+                else {
+                    versionStatus = version + "N";
+                    datasetQCFlag = "N";
+                }
+            }
+            dsgMData.setVersion(versionStatus);
+            dsgMData.setDatasetQCFlag(datasetQCFlag);
+
+            // Standardize the data and perform the automated data checks.
+            // Saves the messages from the standardization and automated data checks.
+            // Assigns dataCheckStatus, numErrorRows, numWarnRows, checkerFlags, and userFlags in dataset
+            // Also updates dsgMdata with the lon/lat/time limits of data not WOCE-4
+            userStdData = datasetChecker.standardizeDataset(dataset, dsgMData);
+            if ( DashboardUtils.CHECK_STATUS_UNACCEPTABLE.equals(dataset.getDataCheckStatus()) ) {
+                errorMsg = datasetId + ": unacceptable; check data check error messages " +
+                        "(missing lon/lat/time or uninterpretable values)";
+                return false;
+            }
+            // Copy the lon/lat/time limits to OME.xml and save
+            omeMData.setWestmostLongitude(dsgMData.getWestmostLongitude());
+            omeMData.setEastmostLongitude(dsgMData.getEastmostLongitude());
+            omeMData.setSouthmostLatitude(dsgMData.getSouthmostLatitude());
+            omeMData.setNorthmostLatitude(dsgMData.getNorthmostLatitude());
+            omeMData.setDataBeginTime(dsgMData.getBeginTime());
+            omeMData.setDataEndTime(dsgMData.getEndTime());
+            metadataHandler.saveOmeToFile(omeMData, "Update lon/lat/time limits");
+
+            // Add the automated data checker data QC flags to the appropriate data QC columns
+            userStdData.addAutomatedDataQC();
+            return true;
+        }
+
+        /**
+         * Generates the full-data and decimated-data DSG files for the dataset.
+         */
+        private void generateDsgFiles() throws Exception {
+            // Generate the NetCDF DSG file, enhanced by Ferret
+            if ( itsLogger != null )
+                itsLogger.debug("Generating the full-data DSG file for " + datasetId);
+            dsgHandler.saveDatasetDsg(dsgMData, userStdData);
+
+            // Generate the decimated-data DSG file from the full-data DSG file
+            if ( itsLogger != null )
+                itsLogger.debug("Generating the decimated-data DSG file for " + datasetId);
+            dsgHandler.decimateDatasetDsg(datasetId);
+
+            // Update the all_region_ids metadata variable from the Ferret-generated
+            // region_id data variable in the full-data DSG file.
+            allRegionIds = dsgHandler.updateAllRegionIds(datasetId);
+        }
+
+        /**
+         * Adds the data and dataset QC flags for the dataset to the database, and saves the dataset properties.
+         */
+        private void addQCEvents() throws Exception {
+            // Generate the set of data QC events for the data QC flags from standardization
+            // and automated data checking as well as for user-provided data QC flags
+            ArrayList<DataQCEvent> dataQCEvents = generateDataQCEvents(dataset, userStdData);
+            // The standardized data is no longer needed
+            userStdData = null;
+
+            // Update the data QC flags to those for this data
+            databaseHandler.resetDataQCEvents(datasetId);
+            databaseHandler.addDataQCEvent(dataQCEvents);
+
+            // (re)generate the WOCE flags messages file
+            metadataHandler.generateWoceFlagMsgsFile(datasetId, databaseHandler);
+
+            // Add new or update (regardless of version) dataset QC flags to the database.
+            // Uses the submit status from dataset to determine if new or updated,
+            // then updates the submit status appropriately.
+            ArrayList<QCEvent> datasetQCEvents = generateDatasetQCEvents(dataset, allRegionIds);
+            databaseHandler.addDatasetQCEvents(datasetQCEvents);
+
+            ingested = true;
+            updateArchiveStatus();
+        }
+
+        /**
+         * Updates the archive status of the dataset, or marks the dataset for sending an immediate archival request,
+         * then saves the dataset properties if changed.
+         */
+        private void updateArchiveStatus() {
+            boolean changed = ingested;
+            String commitMsg = "Dataset " + datasetId;
+            if ( ingested )
+                commitMsg += " submitted";
+
+            if ( archiveStatus.startsWith(DashboardUtils.ARCHIVE_STATUS_SENT_TO_START) &&
+                    (repeatSend || dataset.getArchiveTimestamps().isEmpty()) ) {
+                // Queue the request to send (or re-send) the data and metadata for archival.
+                // In the future there might be more than one place to send for archival.
+                archive = true;
+            }
+            else if ( !archiveStatus.equals(dataset.getArchiveStatus()) ) {
+                // Update the archive status now
+                dataset.setArchiveStatus(archiveStatus);
+                changed = true;
+                commitMsg += " archive status '" + archiveStatus + "'";
+            }
+
+            if ( changed ) {
+                // Commit this update of the dataset properties
+                commitMsg += " by user '" + submitter + "'";
+                dataHandler.saveDatasetInfoToFile(dataset, commitMsg);
+            }
+            // The data is no longer needed
+            dataset = null;
+            dsgMData = null;
+        }
+    }
+
     /**
      * Generate a list of dataset QC events associated with submitting this dataset for QC.
      * Uses the submitStatus of dataset to determine if this is a new or updated dataset,
@@ -73,6 +73,7 @@ public class OverlapChecker {
         double[][] lats = new double[2][];
         double[][] times = new double[2][];
         boolean[][] ignores = new boolean[2][];
+        OverlapIndex[] indices = new OverlapIndex[2];
 
         // Get the data for the primary cruise
         upperExpos[0] = DashboardServerUtils.checkDatasetID(expocode);
@@ -91,6 +92,8 @@ public class OverlapChecker {
             ignores[0][k] = DashboardUtils.closeTo(dataVals[4][k], DashboardUtils.FP_MISSING_VALUE,
                     DashboardUtils.MAX_RELATIVE_ERROR, DashboardUtils.MAX_ABSOLUTE_ERROR);
         }
+        // Index the data for the primary cruise once for all the checks
+        indices[0] = new OverlapIndex(lons[0], lats[0], times[0], ignores[0]);
 
         for (String otherExpo : checkExpos) {
             upperExpos[1] = DashboardServerUtils.checkDatasetID(otherExpo);
@@ -99,6 +102,7 @@ public class OverlapChecker {
                 lats[1] = lats[0];
                 times[1] = times[0];
                 ignores[1] = ignores[0];
+                indices[1] = indices[0];
             }
             else {
                 if ( progressPrinter != null ) {
@@ -116,6 +120,7 @@ public class OverlapChecker {
                     ignores[1][k] = DashboardUtils.closeTo(dataVals[4][k], DashboardUtils.FP_MISSING_VALUE,
                             DashboardUtils.MAX_RELATIVE_ERROR, DashboardUtils.MAX_ABSOLUTE_ERROR);
                 }
+                indices[1] = new OverlapIndex(lons[1], lats[1], times[1], ignores[1]);
             }
 
             long checkStartMilliTime = System.currentTimeMillis();
@@ -126,7 +131,7 @@ public class OverlapChecker {
             }
 
             // Check for an overlap
-            Overlap oerlap = checkForOverlaps(upperExpos, lons, lats, times, ignores);
+            Overlap oerlap = createOverlap(upperExpos, indices, lons, lats, times);
             if ( !oerlap.isEmpty() ) {
                 overlapList.add(oerlap);
                 if ( progressPrinter != null ) {
@@ -181,7 +186,11 @@ public class OverlapChecker {
 
     /**
      * Checks for overlaps between two datasets. If the two datasetIds are the same, this detects overlaps within a
-     * dataset (excludes matching a data point with itself). Assumes the data points are ordered in increasing time.
+     * dataset (excludes matching a data point with itself).  The data points do not need to be in any particular
+     * order; the data points of each dataset are indexed by quantized time and latitude (see {@link OverlapIndex})
+     * and matching data points are found from these indices.  The overlap returned lists the matching data points
+     * ordered by the row number in the first dataset given, then by the row number in the second dataset given,
+     * so the same result is returned for any ordering of the data.
      *
      * @param expocodes
      *         datasetIds of the two datasets
@@ -201,31 +210,91 @@ public class OverlapChecker {
      *         if any of the arguments is not an array of two objects, or
      *         if there is not the same number of longitudes, latitudes, and times for a dataset
      */
-    private Overlap checkForOverlaps(String[] expocodes, double[][] longitudes,
+    public static Overlap checkForOverlaps(String[] expocodes, double[][] longitudes,
             double[][] latitudes, double[][] times, boolean[][] ignore) throws IllegalArgumentException {
-        if ( (expocodes == null) || (expocodes.length != 2) ||
-                (expocodes[0] == null) || (expocodes[1] == null) )
-            throw new IllegalArgumentException("Invalid datasetIds given to checkForOverlaps");
-        if ( (longitudes == null) || (longitudes.length != 2) ||
-                (longitudes[0] == null) || (longitudes[1] == null) )
-            throw new IllegalArgumentException("Invalid longitudes given to checkForOverlaps");
-        if ( (latitudes == null) || (latitudes.length != 2) ||
-                (latitudes[0] == null) || (latitudes[1] == null) )
-            throw new IllegalArgumentException("Invalid latitudes given to checkForOverlaps");
-        if ( (times == null) || (times.length != 2) ||
-                (times[0] == null) || (times[1] == null) )
-            throw new IllegalArgumentException("Invalid times given to checkForOverlaps");
-        if ( (ignore == null) || (ignore.length != 2) ||
-                (ignore[0] == null) || (ignore[1] == null) )
-            throw new IllegalArgumentException("Invalid ignore given to checkForOverlaps");
+        checkOverlapArgs(expocodes, longitudes, latitudes, times, ignore);
+        OverlapIndex[] indices = new OverlapIndex[2];
+        indices[0] = new OverlapIndex(longitudes[0], latitudes[0], times[0], ignore[0]);
+        if ( expocodes[0].equals(expocodes[1]) )
+            indices[1] = indices[0];
+        else
+            indices[1] = new OverlapIndex(longitudes[1], latitudes[1], times[1], ignore[1]);
+        return createOverlap(expocodes, indices, longitudes, latitudes, times);
+    }
+
+    /**
+     * Creates the overlap between two datasets from the indices of the data of these datasets.
+     *
+     * @param expocodes
+     *         datasetIds of the two datasets
+     * @param indices
+     *         indices of the data of the two datasets; the same index if the datasetIds are the same
+     * @param longitudes
+     *         longitudes of the the data for the two datasets
+     * @param latitudes
+     *         latitudes of the the data for the two datasets
+     * @param times
+     *         times, in seconds since Jan 1, 1970 00:00:00, of the data for the two datasets
+     *
+     * @return the overlap found between the two datasets; never null but may be empty.
+     */
+    private static Overlap createOverlap(String[] expocodes, OverlapIndex[] indices, double[][] longitudes,
+            double[][] latitudes, double[][] times) {
+        // Matching data points ordered by row number in the first dataset given, then the second dataset given
+        int[][] rowIdxs = indices[0].findOverlaps(indices[1], expocodes[0].equals(expocodes[1]));
+        // Always make the first expocode the earlier one for reporting
+        Overlap oerlap;
+        if ( expocodes[0].compareTo(expocodes[1]) > 0 ) {
+            oerlap = new Overlap(expocodes[1], expocodes[0]);
+            for (int q = 0; q < rowIdxs[0].length; q++) {
+                int j = rowIdxs[0][q];
+                int k = rowIdxs[1][q];
+                // swap row number to match datasetIds above
+                oerlap.addDuplicatePoint(k + 1, j + 1, longitudes[1][k], longitudes[0][j],
+                        latitudes[1][k], latitudes[0][j], times[1][k], times[0][j]);
+            }
+        }
+        else {
+            oerlap = new Overlap(expocodes[0], expocodes[1]);
+            for (int q = 0; q < rowIdxs[0].length; q++) {
+                int j = rowIdxs[0][q];
+                int k = rowIdxs[1][q];
+                oerlap.addDuplicatePoint(j + 1, k + 1, longitudes[0][j], longitudes[1][k],
+                        latitudes[0][j], latitudes[1][k], times[0][j], times[1][k]);
+            }
+        }
+        return oerlap;
+    }
 
+    /**
+     * Checks for overlaps between two datasets. If the two datasetIds are the same, this detects overlaps within a
+     * dataset (excludes matching a data point with itself). Assumes the data points are ordered in increasing time,
+     * allowing for disorder up to {@link #TIME_WINDOW}.  This is the original pairwise examination of data points
+     * and is retained for verifying {@link #checkForOverlaps(String[], double[][], double[][], double[][],
+     * boolean[][])}.
+     *
+     * @param expocodes
+     *         datasetIds of the two datasets
+     * @param longitudes
+     *         longitudes of the the data for the two datasets
+     * @param latitudes
+     *         latitudes of the the data for the two datasets
+     * @param times
+     *         times, in seconds since Jan 1, 1970 00:00:00, of the data for the two datasets
+     * @param ignore
+     *         if true for a data point, any overlaps with that data point is ignored
+     *
+     * @return the overlap found between the two datasets; never null but may be empty.
+     *
+     * @throws IllegalArgumentException
+     *         if any of the arguments or argument array values is null,
+     *         if any of the arguments is not an array of two objects, or
+     *         if there is not the same number of longitudes, latitudes, and times for a dataset
+     */
+    public static Overlap checkForOverlapsWindowed(String[] expocodes, double[][] longitudes,
+            double[][] latitudes, double[][] times, boolean[][] ignore) throws IllegalArgumentException {
+        checkOverlapArgs(expocodes, longitudes, latitudes, times, ignore);
         int[] numRows = new int[] { longitudes[0].length, longitudes[1].length };
-        if ( (latitudes[0].length != numRows[0]) || (latitudes[1].length != numRows[1]) )
-            throw new IllegalArgumentException("Sizes of longitudes and latitudes arrays do not match");
-        if ( (times[0].length != numRows[0]) || (times[1].length != numRows[1]) )
-            throw new IllegalArgumentException("Sizes of longitudes and times arrays do not match");
-        if ( (ignore[0].length != numRows[0]) || (ignore[1].length != numRows[1]) )
-            throw new IllegalArgumentException("Sizes of longitudes and ignore arrays do not match");
 
         // Always make the first expocode the earlier one for reporting
         Overlap oerlap;
@@ -311,4 +380,39 @@ public class OverlapChecker {
         return oerlap;
     }
 
+    /**
+     * Verifies the arguments given to the check for overlaps methods.
+     *
+     * @throws IllegalArgumentException
+     *         if any of the arguments or argument array values is null,
+     *         if any of the arguments is not an array of two objects, or
+     *         if there is not the same number of longitudes, latitudes, and times for a dataset
+     */
+    private static void checkOverlapArgs(String[] expocodes, double[][] longitudes,
+            double[][] latitudes, double[][] times, boolean[][] ignore) throws IllegalArgumentException {
+        if ( (expocodes == null) || (expocodes.length != 2) ||
+                (expocodes[0] == null) || (expocodes[1] == null) )
+            throw new IllegalArgumentException("Invalid datasetIds given to checkForOverlaps");
+        if ( (longitudes == null) || (longitudes.length != 2) ||
+                (longitudes[0] == null) || (longitudes[1] == null) )
+            throw new IllegalArgumentException("Invalid longitudes given to checkForOverlaps");
+        if ( (latitudes == null) || (latitudes.length != 2) ||
+                (latitudes[0] == null) || (latitudes[1] == null) )
+            throw new IllegalArgumentException("Invalid latitudes given to checkForOverlaps");
+        if ( (times == null) || (times.length != 2) ||
+                (times[0] == null) || (times[1] == null) )
+            throw new IllegalArgumentException("Invalid times given to checkForOverlaps");
+        if ( (ignore == null) || (ignore.length != 2) ||
+                (ignore[0] == null) || (ignore[1] == null) )
+            throw new IllegalArgumentException("Invalid ignore given to checkForOverlaps");
+
+        int[] numRows = new int[] { longitudes[0].length, longitudes[1].length };
+        if ( (latitudes[0].length != numRows[0]) || (latitudes[1].length != numRows[1]) )
+            throw new IllegalArgumentException("Sizes of longitudes and latitudes arrays do not match");
+        if ( (times[0].length != numRows[0]) || (times[1].length != numRows[1]) )
+            throw new IllegalArgumentException("Sizes of longitudes and times arrays do not match");
+        if ( (ignore[0].length != numRows[0]) || (ignore[1].length != numRows[1]) )
+            throw new IllegalArgumentException("Sizes of longitudes and ignore arrays do not match");
+    }
+
 }
@@ -0,0 +1,244 @@
+/**
+ *
+ */
+package gov.noaa.pmel.dashboard.actions;
+
+import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Index of the data points of a dataset used in searching for overlaps (duplicated location and time values).
+ * Only data points that are not to be ignored and which do not have a missing longitude, latitude, or time are
+ * retained.  The times of these data points are quantized into cells {@link DsgNcFile#MIN_TIME_DIFF} seconds wide,
+ * and the points are sorted by time cell and then by latitude.  A search for the points duplicating a data point
+ * then only needs to examine the points in the neighboring time cells with latitudes within
+ * {@link DsgNcFile#MIN_LAT_DIFF} of that data point, regardless of the order of the data in the dataset.
+ * An index is created once for a dataset and can then be used for searches with any number of other datasets.
+ *
+ * @author Karl Smith
+ */
+public class OverlapIndex {
+
+    private static final double CELL_WIDTH = DsgNcFile.MIN_TIME_DIFF;
+    // Number of neighboring time cells on each side to examine; more than one to guard against round-off
+    private static final int CELL_MARGIN = 2;
+    // Latitude margin, beyond MIN_LAT_DIFF, to guard against round-off in the latitude range search
+    private static final double LAT_MARGIN = DsgNcFile.MIN_LAT_DIFF;
+
+    // Values of the retained data points sorted by time cell, then latitude, then row index
+    private final int[] rowIdxs;
+    private final long[] cells;
+    private final double[] lons;
+    private final double[] lats;
+    private final double[] times;
+
+    /**
+     * Creates an index of the data points of a dataset.  Data points to be ignored, as well as data points with
+     * a longitude, latitude, or time that is missing (close to {@link DashboardUtils#FP_MISSING_VALUE}) or not
+     * finite, are not included in the index.
+     *
+     * @param longitudes
+     *         longitudes of the data points of the dataset
+     * @param latitudes
+     *         latitudes of the data points of the dataset
+     * @param times
+     *         times, in seconds since Jan 1, 1970 00:00:00, of the data points of the dataset
+     * @param ignore
+     *         if true for a data point, that data point is not included in the index
+     *
+     * @throws IllegalArgumentException
+     *         if any of the arguments are null, or
+     *         if the number of longitude, latitude, time, and ignore values differ
+     */
+    public OverlapIndex(double[] longitudes, double[] latitudes, double[] times, boolean[] ignore)
+            throws IllegalArgumentException {
+        if ( longitudes == null )
+            throw new IllegalArgumentException("Invalid longitudes given to OverlapIndex");
+        if ( latitudes == null )
+            throw new IllegalArgumentException("Invalid latitudes given to OverlapIndex");
+        if ( times == null )
+            throw new IllegalArgumentException("Invalid times given to OverlapIndex");
+        if ( ignore == null )
+            throw new IllegalArgumentException("Invalid ignore given to OverlapIndex");
+        int numRows = longitudes.length;
+        if ( latitudes.length != numRows )
+            throw new IllegalArgumentException("Sizes of longitudes and latitudes arrays do not match");
+        if ( times.length != numRows )
+            throw new IllegalArgumentException("Sizes of longitudes and times arrays do not match");
+        if ( ignore.length != numRows )
+            throw new IllegalArgumentException("Sizes of longitudes and ignore arrays do not match");
+
+        // Find the data points to retain
+        int numValid = 0;
+        for (int j = 0; j < numRows; j++) {
+            if ( !ignore[j] && isValid(longitudes[j]) && isValid(latitudes[j]) && isValid(times[j]) )
+                numValid++;
+        }
+        Integer[] order = new Integer[numValid];
+        final long[] rowCells = new long[numRows];
+        numValid = 0;
+        for (int j = 0; j < numRows; j++) {
+            if ( !ignore[j] && isValid(longitudes[j]) && isValid(latitudes[j]) && isValid(times[j]) ) {
+                order[numValid] = j;
+                rowCells[j] = timeCell(times[j]);
+                numValid++;
+            }
+        }
+
+        // Sort by time cell, then latitude, then row index so the index does not depend on the data order
+        final double[] sortLats = latitudes;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                int result = Long.compare(rowCells[first], rowCells[second]);
+                if ( result != 0 )
+                    return result;
+                result = Double.compare(sortLats[first], sortLats[second]);
+                if ( result != 0 )
+                    return result;
+                return first.compareTo(second);
+            }
+        });
+
+        this.rowIdxs = new int[numValid];
+        this.cells = new long[numValid];
+        this.lons = new double[numValid];
+        this.lats = new double[numValid];
+        this.times = new double[numValid];
+        for (int q = 0; q < numValid; q++) {
+            int j = order[q];
+            this.rowIdxs[q] = j;
+            this.cells[q] = rowCells[j];
+            this.lons[q] = longitudes[j];
+            this.lats[q] = latitudes[j];
+            this.times[q] = times[j];
+        }
+    }
+
+    /**
+     * @return the number of data points in this index
+     */
+    public int getNumValidPoints() {
+        return rowIdxs.length;
+    }
+
+    /**
+     * Finds the overlaps between the data points of this index (the first dataset) and the data points of another
+     * index (the second dataset).  Two data points overlap if their times are within {@link DsgNcFile#MIN_TIME_DIFF},
+     * their latitudes are within {@link DsgNcFile#MIN_LAT_DIFF}, and their longitudes (modulo 360) are within
+     * {@link DsgNcFile#MIN_LON_DIFF}.  If the two indices are for the same dataset, each pair of distinct
+     * overlapping data points is reported once, with the smaller row index first.
+     *
+     * @param other
+     *         index of the data points of the second dataset
+     * @param sameDataset
+     *         if true, the two indices are for the same dataset
+     *
+     * @return the array { firstRowIdxs, secondRowIdxs } of the (zero-based) row indices of the overlapping
+     *         data points in the first and second dataset, ordered by the row index in the first dataset,
+     *         then by the row index in the second dataset; never null but the arrays may be empty
+     */
+    public int[][] findOverlaps(OverlapIndex other, boolean sameDataset) {
+        // Pairs of row indices, packed as firstRowIdx * 2^32 + secondRowIdx so they sort in the desired order
+        long[] pairs = new long[16];
+        int numPairs = 0;
+        int cellStart = 0;
+        for (int j = 0; j < rowIdxs.length; j++) {
+            long cell = cells[j];
+            double lon = lons[j];
+            double lat = lats[j];
+            double time = times[j];
+            long lowCell = (cell > Long.MIN_VALUE + CELL_MARGIN) ? cell - CELL_MARGIN : Long.MIN_VALUE;
+            long highCell = (cell < Long.MAX_VALUE - CELL_MARGIN) ? cell + CELL_MARGIN : Long.MAX_VALUE;
+            // Points of this index are in cell order, so the start of the cell range only moves forward
+            while ( (cellStart < other.cells.length) && (other.cells[cellStart] < lowCell) ) {
+                cellStart++;
+            }
+            int n = cellStart;
+            while ( (n < other.cells.length) && (other.cells[n] <= highCell) ) {
+                // Find the range of points in this time cell with latitudes close to this point
+                int cellEnd = other.endOfCell(n);
+                int m = other.firstAtOrAfter(n, cellEnd, lat - DsgNcFile.MIN_LAT_DIFF - LAT_MARGIN);
+                for (; m < cellEnd; m++) {
+                    if ( other.lats[m] > lat + DsgNcFile.MIN_LAT_DIFF + LAT_MARGIN )
+                        break;
+                    int k = other.rowIdxs[m];
+                    if ( sameDataset && (k <= rowIdxs[j]) )
+                        continue;
+                    if ( DashboardUtils.closeTo(time, other.times[m], 0.0, DsgNcFile.MIN_TIME_DIFF) &&
+                            DashboardUtils.closeTo(lat, other.lats[m], 0.0, DsgNcFile.MIN_LAT_DIFF) &&
+                            DashboardUtils.longitudeCloseTo(lon, other.lons[m], 0.0, DsgNcFile.MIN_LON_DIFF) ) {
+                        if ( numPairs == pairs.length )
+                            pairs = Arrays.copyOf(pairs, 2 * numPairs);
+                        pairs[numPairs] = (((long) rowIdxs[j]) << 32) | k;
+                        numPairs++;
+                    }
+                }
+                n = cellEnd;
+            }
+        }
+
+        Arrays.sort(pairs, 0, numPairs);
+        int[][] rowIdxPairs = new int[][] { new int[numPairs], new int[numPairs] };
+        for (int q = 0; q < numPairs; q++) {
+            rowIdxPairs[0][q] = (int) (pairs[q] >>> 32);
+            rowIdxPairs[1][q] = (int) (pairs[q] & 0xFFFFFFFFL);
+        }
+        return rowIdxPairs;
+    }
+
+    /**
+     * @return the index just past the last point in the same time cell as the point at the given index
+     */
+    private int endOfCell(int start) {
+        long cell = cells[start];
+        int low = start + 1;
+        int high = cells.length;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( cells[mid] <= cell )
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the first point in [start, end) with a latitude not less than the given latitude;
+     *         end if all latitudes in this range are less than the given latitude
+     */
+    private int firstAtOrAfter(int start, int end, double latitude) {
+        int low = start;
+        int high = end;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( lats[mid] < latitude )
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * @return if the value is finite and not missing (close to {@link DashboardUtils#FP_MISSING_VALUE})
+     */
+    private static boolean isValid(double value) {
+        if ( Double.isNaN(value) || Double.isInfinite(value) )
+            return false;
+        return !DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, value,
+                DashboardUtils.MAX_RELATIVE_ERROR, DashboardUtils.MAX_ABSOLUTE_ERROR);
+    }
+
+    /**
+     * @return the time cell number for the given time
+     */
+    private static long timeCell(double time) {
+        return (long) Math.floor(time / CELL_WIDTH);
+    }
+
+}
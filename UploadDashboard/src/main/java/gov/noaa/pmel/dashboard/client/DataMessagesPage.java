@@ -3,13 +3,12 @@ package gov.noaa.pmel.dashboard.client;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.i18n.client.NumberFormat;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
-import com.google.gwt.user.cellview.client.ColumnSortEvent;
-import com.google.gwt.user.cellview.client.ColumnSortEvent.ListHandler;
 import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.SimplePager;
 import com.google.gwt.user.cellview.client.TextColumn;
@@ -19,18 +18,19 @@ import com.google.gwt.user.client.ui.Button;
 import com.google.gwt.user.client.ui.HTML;
 import com.google.gwt.user.client.ui.InlineLabel;
 import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
-import com.google.gwt.view.client.ListDataProvider;
+import com.google.gwt.view.client.AsyncDataProvider;
+import com.google.gwt.view.client.HasData;
+import com.google.gwt.view.client.Range;
 import gov.noaa.pmel.dashboard.client.UploadDashboard.PagesEnum;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
-import gov.noaa.pmel.dashboard.shared.ADCMessageList;
+import gov.noaa.pmel.dashboard.shared.ADCMessageListRange;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterface;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterfaceAsync;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
 
-import java.util.List;
-
 /**
  * @author Karl Smith
  */
@@ -45,6 +45,10 @@ public class DataMessagesPage extends CompositeWithUsername {
 
     private static final String DISMISS_BUTTON_TEXT = "Back";
 
+    private static final String FILTER_TEXT = "Show only messages containing: ";
+    private static final String FILTER_HOVER_HELP =
+            "only show the messages with this text (ignoring case) in the type, column name, or explanation";
+
     private static final String SEVERITY_COLUMN_NAME = "Type";
     private static final String COLUMN_NUMBER_COLUMN_NAME = "Col.";
     private static final String COLUMN_NAME_COLUMN_NAME = "Column Name";
@@ -56,6 +60,7 @@ public class DataMessagesPage extends CompositeWithUsername {
     private static final String UNKNOWN_SEVERITY_TEXT = "Unknown";
 
     private static final String EMPTY_TABLE_TEXT = "No problems detected!";
+    private static final String GET_MESSAGES_ERROR_MSG = "Unexpected failure obtaining the list of data problems";
 
     interface DataMessagesPageUiBinder extends UiBinder<Widget,DataMessagesPage> {
     }
@@ -75,9 +80,17 @@ public class DataMessagesPage extends CompositeWithUsername {
     @UiField
     Button dismissButton;
     @UiField
+    InlineLabel filterLabel;
+    @UiField
+    TextBox filterBox;
+    @UiField
     SimplePager messagesPager;
 
-    private ListDataProvider<ADCMessage> listProvider;
+    private AsyncDataProvider<ADCMessage> rangeProvider;
+    private String datasetId;
+    private String filterText;
+    // Show this page when the next range of messages is received?
+    private boolean showOnUpdate;
 
     // The singleton instance of this page
     private static DataMessagesPage singleton;
@@ -91,7 +104,12 @@ public class DataMessagesPage extends CompositeWithUsername {
         singleton = this;
 
         singleton.setUsername(null);
+        datasetId = "";
+        filterText = "";
+        showOnUpdate = false;
         titleLabel.setText(TITLE_TEXT);
+        filterLabel.setText(FILTER_TEXT);
+        filterBox.setTitle(FILTER_HOVER_HELP);
         buildMessageListTable();
         dismissButton.setText(DISMISS_BUTTON_TEXT);
 
@@ -109,31 +127,13 @@ public class DataMessagesPage extends CompositeWithUsername {
      *         ID of the dataset to use
      */
     public static void showPage(String username, String datasetId) {
-        UploadDashboard.showWaitCursor();
-        service.getDataMessages(username, datasetId, new AsyncCallback<ADCMessageList>() {
-            @Override
-            public void onSuccess(ADCMessageList msgList) {
-                if ( msgList == null ) {
-                    UploadDashboard.showMessage("Unexpected list of data problems returned");
-                    UploadDashboard.showAutoCursor();
-                    return;
-                }
-                if ( singleton == null )
-                    singleton = new DataMessagesPage();
-                UploadDashboard.updateCurrentPage(singleton);
-                singleton.updateMessages(msgList);
-                History.newItem(PagesEnum.SHOW_DATA_MESSAGES.name(), false);
-                UploadDashboard.showAutoCursor();
-            }
-
-            @Override
-            public void onFailure(Throwable ex) {
-                UploadDashboard.showFailureMessage(
-                        "Unexpected failure obtaining the list of data problems", ex);
-                UploadDashboard.showAutoCursor();
-            }
-        });
-
+        if ( singleton == null )
+            singleton = new DataMessagesPage();
+        singleton.setUsername(username);
+        singleton.datasetId = datasetId;
+        singleton.filterText = "";
+        singleton.filterBox.setValue("");
+        singleton.reloadMessages(true);
     }
 
     /**
@@ -154,28 +154,78 @@ public class DataMessagesPage extends CompositeWithUsername {
         DataColumnSpecsPage.redisplayPage(getUsername());
     }
 
+    @UiHandler("filterBox")
+    void filterOnValueChange(ValueChangeEvent<String> event) {
+        String text = filterBox.getValue().trim();
+        if ( text.equals(filterText) )
+            return;
+        filterText = text;
+        reloadMessages(false);
+    }
+
     /**
-     * Update the automated data checker messages with that given in the provided ADCMessageList.
+     * Requests the first range of messages, with the current filter, from the server to update this page.
      *
-     * @param msgs
-     *         cruise dataset and set of messages to show
+     * @param show
+     *         show this page, and add it to the page history, when the messages are received?
      */
-    private void updateMessages(ADCMessageList msgs) {
+    private void reloadMessages(boolean show) {
+        if ( show )
+            showOnUpdate = true;
+        messagesGrid.setVisibleRangeAndClearData(new Range(0, DashboardUtils.MAX_ROWS_PER_GRID_PAGE), true);
+    }
+
+    /**
+     * Requests the given range of messages, with the current filter, from the server to update this page.
+     *
+     * @param range
+     *         range of messages to request
+     */
+    private void requestMessages(Range range) {
+        UploadDashboard.showWaitCursor();
+        service.getDataMessages(getUsername(), datasetId, range.getStart(), range.getLength(), filterText,
+                new AsyncCallback<ADCMessageListRange>() {
+                    @Override
+                    public void onSuccess(ADCMessageListRange msgRange) {
+                        if ( msgRange == null ) {
+                            showOnUpdate = false;
+                            UploadDashboard.showMessage("Unexpected list of data problems returned");
+                            UploadDashboard.showAutoCursor();
+                            return;
+                        }
+                        updateMessages(msgRange);
+                        if ( showOnUpdate ) {
+                            showOnUpdate = false;
+                            UploadDashboard.updateCurrentPage(DataMessagesPage.this);
+                            History.newItem(PagesEnum.SHOW_DATA_MESSAGES.name(), false);
+                        }
+                        UploadDashboard.showAutoCursor();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable ex) {
+                        showOnUpdate = false;
+                        UploadDashboard.showFailureMessage(GET_MESSAGES_ERROR_MSG, ex);
+                        UploadDashboard.showAutoCursor();
+                    }
+                });
+    }
+
+    /**
+     * Update the automated data checker messages with those given in the provided ADCMessageListRange.
+     *
+     * @param msgRange
+     *         dataset and range of messages to show
+     */
+    private void updateMessages(ADCMessageListRange msgRange) {
         // Assign the username and introduction message
-        setUsername(msgs.getUsername());
+        setUsername(msgRange.getUsername());
         introHtml.setHTML(INTRO_HTML_PROLOGUE +
-                SafeHtmlUtils.htmlEscape(msgs.getDatasetId()) +
+                SafeHtmlUtils.htmlEscape(msgRange.getDatasetId()) +
                 INTRO_HTML_EPILOGUE);
-        // Update the table by resetting the data in the data provider
-        List<ADCMessage> msgList = listProvider.getList();
-        msgList.clear();
-        msgList.addAll(msgs);
-        messagesGrid.setRowCount(msgList.size(), true);
-        // Make sure the table is sorted according to the last specification
-        ColumnSortEvent.fire(messagesGrid, messagesGrid.getColumnSortList());
-        // Set the number of data rows to display in the grid.
-        // This will refresh the view.
-        messagesGrid.setPageSize(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
+        // Update the messages shown in the current range of the table
+        rangeProvider.updateRowCount(msgRange.getTotalCount(), true);
+        rangeProvider.updateRowData(msgRange.getOffset(), msgRange.getMessages());
     }
 
     /**
@@ -215,31 +265,19 @@ public class DataMessagesPage extends CompositeWithUsername {
         // Set the minimum width of the full table
         messagesGrid.setMinimumTableWidth(tableWidth, Style.Unit.EM);
 
-        // Create the data provider for this table
-        listProvider = new ListDataProvider<ADCMessage>();
-        listProvider.addDataDisplay(messagesGrid);
-
-        // Make the columns sortable
-        severityColumn.setSortable(true);
-        colNumColumn.setSortable(true);
-        colNameColumn.setSortable(true);
-        rowNumColumn.setSortable(true);
-        explanationColumn.setSortable(true);
-
-        // Add a column sorting handler for these columns
-        ListHandler<ADCMessage> columnSortHandler = new ListHandler<ADCMessage>(listProvider.getList());
-        columnSortHandler.setComparator(severityColumn, DashboardUtils.severityComparator);
-        columnSortHandler.setComparator(colNumColumn, DashboardUtils.colNumComparator);
-        columnSortHandler.setComparator(colNameColumn, DashboardUtils.colNameComparator);
-        columnSortHandler.setComparator(rowNumColumn, DashboardUtils.rowNumComparator);
-        columnSortHandler.setComparator(explanationColumn, DashboardUtils.explanationComparator);
-
-        // Add the sort handler to the table, setting the default sorting
-        // first by severity, then column number, and finally row number
-        messagesGrid.addColumnSortHandler(columnSortHandler);
-        messagesGrid.getColumnSortList().push(rowNumColumn);
-        messagesGrid.getColumnSortList().push(colNumColumn);
-        messagesGrid.getColumnSortList().push(severityColumn);
+        // Create the asynchronous data provider for this table; the messages are filtered by the server
+        // and are ordered by severity, column number, column name, and row number
+        rangeProvider = new AsyncDataProvider<ADCMessage>() {
+            @Override
+            protected void onRangeChanged(HasData<ADCMessage> display) {
+                // Ignore the call until this page is shown
+                if ( datasetId.isEmpty() )
+                    return;
+                requestMessages(display.getVisibleRange());
+            }
+        };
+        rangeProvider.addDataDisplay(messagesGrid);
+        messagesGrid.setPageSize(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
 
         // Set the contents if there are no rows
         messagesGrid.setEmptyTableWidget(new Label(EMPTY_TABLE_TEXT));
@@ -9,6 +9,7 @@ import com.google.gwt.cell.client.ValueUpdater;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.uibinder.client.UiBinder;
@@ -16,11 +17,11 @@ import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
-import com.google.gwt.user.cellview.client.ColumnSortEvent.ListHandler;
 import com.google.gwt.user.cellview.client.ColumnSortList;
 import com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo;
 import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.Header;
+import com.google.gwt.user.cellview.client.SimplePager;
 import com.google.gwt.user.cellview.client.TextColumn;
 import com.google.gwt.user.client.History;
 import com.google.gwt.user.client.Window;
@@ -29,11 +30,15 @@ import com.google.gwt.user.client.ui.Button;
 import com.google.gwt.user.client.ui.Image;
 import com.google.gwt.user.client.ui.InlineLabel;
 import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
-import com.google.gwt.view.client.ListDataProvider;
+import com.google.gwt.view.client.AsyncDataProvider;
+import com.google.gwt.view.client.HasData;
+import com.google.gwt.view.client.Range;
 import gov.noaa.pmel.dashboard.client.UploadDashboard.PagesEnum;
 import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetListRange;
 import gov.noaa.pmel.dashboard.shared.DashboardMetadata;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterface;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterfaceAsync;
@@ -41,7 +46,8 @@ import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeSet;
 
 /**
@@ -106,9 +112,17 @@ public class DatasetListPage extends CompositeWithUsername {
     private static final String DELETE_HOVER_HELP =
             "delete the selected datasets from the system";
 
+    private static final String FILTER_TEXT = "Show only datasets containing: ";
+    private static final String FILTER_HOVER_HELP =
+            "show only datasets with this text in the dataset ID, filename, or owner; " +
+                    "press Enter to apply";
+
     // Error message when the request for the latest cruise list fails
     private static final String GET_DATASET_LIST_ERROR_MSG =
             "Problems obtaining the latest dataset listing";
+    // Error message when the request for the datasets to select fails
+    private static final String GET_SELECTED_DATASETS_ERROR_MSG =
+            "Problems obtaining the datasets to select";
 
     // Starts of error messages for improper cruise selections
     private static final String SUBMITTED_DATASETS_SELECTED_ERR_START =
@@ -298,8 +312,24 @@ public class DatasetListPage extends CompositeWithUsername {
     Button deleteButton;
     @UiField
     DataGrid<DashboardDataset> datasetsGrid;
-
-    private ListDataProvider<DashboardDataset> listProvider;
+    @UiField
+    InlineLabel filterLabel;
+    @UiField
+    TextBox filterBox;
+    @UiField
+    SimplePager datasetsPager;
+
+    private AsyncDataProvider<DashboardDataset> rangeProvider;
+    private HashMap<Column<DashboardDataset,?>,String> columnSortKeys;
+    // IDs of the selected datasets, including those not in the displayed range of datasets
+    private TreeSet<String> selectIdsSet;
+    // The selected datasets that have been received from the server
+    private DashboardDatasetList selectedSet;
+    // Received selected datasets are cleared on reload; the remainder are then requested
+    private boolean selectedSetReloading;
+    private String filterText;
+    // Show this page when the next range of datasets is received?
+    private boolean showOnUpdate;
     private DashboardAskPopup askSuspendPopup;
     private DashboardAskPopup askDeletePopup;
     private DashboardAskPopup askRemovePopup;
@@ -324,13 +354,18 @@ public class DatasetListPage extends CompositeWithUsername {
         initWidget(uiBinder.createAndBindUi(this));
         singleton = this;
 
-        buildDatasetListTable();
-
-        setUsername(null);
-
         datasetsSet = new DashboardDatasetList();
         checkSet = new DashboardDatasetList();
         datasetIdsSet = new TreeSet<String>();
+        selectIdsSet = new TreeSet<String>();
+        selectedSet = new DashboardDatasetList();
+        selectedSetReloading = false;
+        filterText = "";
+        showOnUpdate = false;
+
+        buildDatasetListTable();
+
+        setUsername(null);
 
         titleLabel.setText(TITLE_TEXT);
         titleImage.setResource(UploadDashboard.resources.getSocatCatPng());
@@ -369,6 +404,9 @@ public class DatasetListPage extends CompositeWithUsername {
         deleteButton.setText(DELETE_TEXT);
         deleteButton.setTitle(DELETE_HOVER_HELP);
 
+        filterLabel.setText(FILTER_TEXT);
+        filterBox.setTitle(FILTER_HOVER_HELP);
+
         // managerButtonsShown = true;
         askDeletePopup = null;
         askRemovePopup = null;
@@ -381,25 +419,9 @@ public class DatasetListPage extends CompositeWithUsername {
      * to the page history.
      */
     public static void showPage() {
-        UploadDashboard.showWaitCursor();
-        // Request the latest cruise list
-        service.getDatasetList(new AsyncCallback<DashboardDatasetList>() {
-            @Override
-            public void onSuccess(DashboardDatasetList cruises) {
-                if ( singleton == null )
-                    singleton = new DatasetListPage();
-                UploadDashboard.updateCurrentPage(singleton);
-                singleton.updateDatasets(cruises);
-                History.newItem(PagesEnum.SHOW_DATASETS.name(), false);
-                UploadDashboard.showAutoCursor();
-            }
-
-            @Override
-            public void onFailure(Throwable ex) {
-                UploadDashboard.showFailureMessage(GET_DATASET_LIST_ERROR_MSG, ex);
-                UploadDashboard.showAutoCursor();
-            }
-        });
+        if ( singleton == null )
+            singleton = new DatasetListPage();
+        singleton.reloadDatasets(true);
     }
 
     /**
@@ -423,7 +445,7 @@ public class DatasetListPage extends CompositeWithUsername {
     public static void addSelectedDataset(String datasetId) {
         if ( singleton == null )
             singleton = new DatasetListPage();
-        singleton.datasetIdsSet.add(datasetId);
+        singleton.selectIdsSet.add(datasetId);
     }
 
     /**
@@ -439,33 +461,146 @@ public class DatasetListPage extends CompositeWithUsername {
     }
 
     /**
-     * Updates the dataset list page with the current username and with the datasets given in the argument.
+     * Requests the first range of datasets, with the current sort order and filter, from the server to update this
+     * page.  Selected datasets remain selected; their latest information is obtained from the server.
+     *
+     * @param show
+     *         show this page, and add it to the page history, when the datasets are received?
+     */
+    private void reloadDatasets(boolean show) {
+        if ( show )
+            showOnUpdate = true;
+        selectedSetReloading = true;
+        datasetsGrid.setVisibleRangeAndClearData(new Range(0, DashboardUtils.MAX_ROWS_PER_GRID_PAGE), true);
+    }
+
+    /**
+     * Requests the given range of datasets, with the current sort order and filter, from the server to update this
+     * page.
      *
-     * @param newList
-     *         datasets to display
+     * @param range
+     *         range of datasets to request
      */
-    private void updateDatasets(DashboardDatasetList newList) {
+    private void requestDatasets(Range range) {
+        // Get the sort order from the primary sort column; by default the latest uploads first
+        String sortKey = DashboardDatasetListRange.SORT_BY_TIMESTAMP;
+        boolean ascending = false;
+        ColumnSortList sortList = datasetsGrid.getColumnSortList();
+        if ( sortList.size() > 0 ) {
+            ColumnSortInfo sortInfo = sortList.get(0);
+            String key = columnSortKeys.get(sortInfo.getColumn());
+            if ( key != null ) {
+                sortKey = key;
+                ascending = sortInfo.isAscending();
+            }
+        }
+        // When showing this page, get the datasets for the current user instead of the page user
+        String pageUsername = showOnUpdate ? null : getUsername();
+        UploadDashboard.showWaitCursor();
+        service.getDatasetListRange(pageUsername, range.getStart(), range.getLength(), sortKey, ascending,
+                filterText, new AsyncCallback<DashboardDatasetListRange>() {
+                    @Override
+                    public void onSuccess(DashboardDatasetListRange datasetRange) {
+                        updateDatasets(datasetRange);
+                        if ( showOnUpdate ) {
+                            showOnUpdate = false;
+                            UploadDashboard.updateCurrentPage(DatasetListPage.this);
+                            History.newItem(PagesEnum.SHOW_DATASETS.name(), false);
+                        }
+                        UploadDashboard.showAutoCursor();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable ex) {
+                        showOnUpdate = false;
+                        UploadDashboard.showFailureMessage(GET_DATASET_LIST_ERROR_MSG, ex);
+                        UploadDashboard.showAutoCursor();
+                    }
+                });
+    }
+
+    /**
+     * Updates the dataset list page with the current username and with the range of datasets given in the argument.
+     *
+     * @param datasetRange
+     *         range of datasets to display
+     */
+    private void updateDatasets(DashboardDatasetListRange datasetRange) {
         // Update the username
-        setUsername(newList.getUsername());
+        setUsername(datasetRange.getUsername());
         userInfoLabel.setText(WELCOME_INTRO + getUsername());
-        // Update the cruises shown by resetting the data in the data provider
-        List<DashboardDataset> providerList = listProvider.getList();
-        providerList.clear();
-        if ( newList != null ) {
-            providerList.addAll(newList.values());
-            isManager = newList.isManager();
-            imageExtension = newList.getImageExtension();
+        isManager = datasetRange.isManager();
+        imageExtension = datasetRange.getImageExtension();
+        if ( selectedSetReloading ) {
+            selectedSet.clear();
+            selectedSet.setUsername(getUsername());
+            selectedSet.setManager(isManager);
+            selectedSet.setImageExtension(imageExtension);
         }
-        for (DashboardDataset dataset : providerList) {
-            if ( datasetIdsSet.contains(dataset.getDatasetId()) )
+        ArrayList<DashboardDataset> datasets = datasetRange.getDatasets();
+        for (DashboardDataset dataset : datasets) {
+            String datasetId = dataset.getDatasetId();
+            if ( selectIdsSet.contains(datasetId) ) {
                 dataset.setSelected(true);
+                selectedSet.put(datasetId, dataset);
+            }
             else
                 dataset.setSelected(false);
         }
-        datasetsGrid.setRowCount(providerList.size());
-        datasetsGrid.setVisibleRange(0, providerList.size());
-        // Make sure the table is sorted according to the last specification
-        ColumnSortEvent.fire(datasetsGrid, datasetsGrid.getColumnSortList());
+        // Update the cruises shown in the current range of the table
+        rangeProvider.updateRowCount(datasetRange.getTotalCount(), true);
+        rangeProvider.updateRowData(datasetRange.getOffset(), datasets);
+        if ( selectedSetReloading ) {
+            selectedSetReloading = false;
+            requestSelectedDatasets();
+        }
+    }
+
+    /**
+     * Requests the latest information for the selected datasets not in the displayed range of datasets.
+     * Selected datasets which no longer exist are no longer selected.
+     */
+    private void requestSelectedDatasets() {
+        TreeSet<String> missingIds = new TreeSet<String>();
+        for (String datasetId : selectIdsSet) {
+            if ( !selectedSet.containsKey(datasetId) )
+                missingIds.add(datasetId);
+        }
+        if ( missingIds.isEmpty() )
+            return;
+        UploadDashboard.showWaitCursor();
+        service.getUpdatedDatasets(getUsername(), missingIds, new AsyncCallback<DashboardDatasetList>() {
+            @Override
+            public void onSuccess(DashboardDatasetList datasetList) {
+                for (Map.Entry<String,DashboardDataset> entry : datasetList.entrySet()) {
+                    DashboardDataset dataset = entry.getValue();
+                    if ( dataset == null ) {
+                        selectIdsSet.remove(entry.getKey());
+                    }
+                    else if ( selectIdsSet.contains(entry.getKey()) ) {
+                        dataset.setSelected(true);
+                        selectedSet.put(entry.getKey(), dataset);
+                    }
+                }
+                UploadDashboard.showAutoCursor();
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                UploadDashboard.showFailureMessage(GET_SELECTED_DATASETS_ERROR_MSG, ex);
+                UploadDashboard.showAutoCursor();
+            }
+        });
+    }
+
+    /**
+     * Updates the selected property of the datasets in the displayed range of datasets, and redraws the table.
+     */
+    private void refreshSelection() {
+        for (DashboardDataset dataset : datasetsGrid.getVisibleItems()) {
+            dataset.setSelected(selectIdsSet.contains(dataset.getDatasetId()));
+        }
+        datasetsGrid.redraw();
     }
 
     /**
@@ -482,49 +617,58 @@ public class DatasetListPage extends CompositeWithUsername {
         // Do nothing is SELECTION_OPTION_LABEL is given
         if ( SELECTION_OPTION_LABEL.equals(option) )
             return;
-        // Modify the dataset selection
-        List<DashboardDataset> providerList = listProvider.getList();
+        if ( CLEAR_SELECTION_OPTION.equals(option) ) {
+            selectIdsSet.clear();
+            selectedSet.clear();
+            refreshSelection();
+            return;
+        }
+        // Get the datasets to select, from all datasets matching the filter, from the server
+        String statusOption;
+        final boolean replaceSelection;
         if ( ALL_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                dataset.setSelected(true);
-            }
+            statusOption = DashboardDatasetListRange.ALL_STATUS;
+            replaceSelection = false;
         }
         else if ( EDITABLE_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                if ( Boolean.TRUE.equals(dataset.isEditable()) )
-                    dataset.setSelected(true);
-                else
-                    dataset.setSelected(false);
-            }
+            statusOption = DashboardDatasetListRange.EDITABLE_STATUS;
+            replaceSelection = true;
         }
         else if ( SUBMITTED_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                if ( Boolean.FALSE.equals(dataset.isEditable()) )
-                    dataset.setSelected(true);
-                else
-                    dataset.setSelected(false);
-            }
+            statusOption = DashboardDatasetListRange.SUBMITTED_STATUS;
+            replaceSelection = true;
         }
         else if ( PUBLISHED_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                if ( null == dataset.isEditable() )
-                    dataset.setSelected(true);
-                else
-                    dataset.setSelected(false);
-            }
-        }
-        else if ( CLEAR_SELECTION_OPTION.equals(option) ) {
-            for (DashboardDataset dataset : providerList) {
-                dataset.setSelected(false);
-            }
+            statusOption = DashboardDatasetListRange.PUBLISHED_STATUS;
+            replaceSelection = true;
         }
         else {
             throw new RuntimeException("Unexpected option given the setDatasetSelection: " + option);
         }
-        datasetsGrid.setRowCount(providerList.size());
-        datasetsGrid.setVisibleRange(0, providerList.size());
-        // Make sure the table is sorted according to the last specification
-        ColumnSortEvent.fire(datasetsGrid, datasetsGrid.getColumnSortList());
+        UploadDashboard.showWaitCursor();
+        service.getMatchingDatasets(getUsername(), filterText, statusOption,
+                new AsyncCallback<DashboardDatasetList>() {
+                    @Override
+                    public void onSuccess(DashboardDatasetList datasetList) {
+                        if ( replaceSelection ) {
+                            selectIdsSet.clear();
+                            selectedSet.clear();
+                        }
+                        for (DashboardDataset dataset : datasetList.values()) {
+                            dataset.setSelected(true);
+                            selectIdsSet.add(dataset.getDatasetId());
+                            selectedSet.put(dataset.getDatasetId(), dataset);
+                        }
+                        refreshSelection();
+                        UploadDashboard.showAutoCursor();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable ex) {
+                        UploadDashboard.showFailureMessage(GET_SELECTED_DATASETS_ERROR_MSG, ex);
+                        UploadDashboard.showAutoCursor();
+                    }
+                });
     }
 
     /**
@@ -542,25 +686,32 @@ public class DatasetListPage extends CompositeWithUsername {
         datasetsSet.setUsername(getUsername());
         datasetsSet.setManager(isManager);
         datasetsSet.setImageExtension(imageExtension);
-        for (DashboardDataset dataset : listProvider.getList()) {
-            if ( dataset.isSelected() ) {
-                if ( onlyEditable != null ) {
-                    Boolean editable = dataset.isEditable();
-                    // check if from a previous version
-                    if ( editable == null )
-                        return false;
-                    // check if editable, if requested
-                    if ( onlyEditable && !editable )
-                        return false;
-                }
-                String expocode = dataset.getDatasetId();
-                datasetIdsSet.add(expocode);
-                datasetsSet.put(expocode, dataset);
+        for (DashboardDataset dataset : selectedSet.values()) {
+            if ( onlyEditable != null ) {
+                Boolean editable = dataset.isEditable();
+                // check if from a previous version
+                if ( editable == null )
+                    return false;
+                // check if editable, if requested
+                if ( onlyEditable && !editable )
+                    return false;
             }
+            String expocode = dataset.getDatasetId();
+            datasetIdsSet.add(expocode);
+            datasetsSet.put(expocode, dataset);
         }
         return true;
     }
 
+    @UiHandler("filterBox")
+    void filterOnValueChange(ValueChangeEvent<String> event) {
+        String text = filterBox.getValue().trim();
+        if ( text.equals(filterText) )
+            return;
+        filterText = text;
+        reloadDatasets(false);
+    }
+
     @UiHandler("logoutButton")
     void logoutOnClick(ClickEvent event) {
         DashboardLogoutPage.showPage();
@@ -776,7 +927,8 @@ public class DatasetListPage extends CompositeWithUsername {
                     @Override
                     public void onSuccess(DashboardDatasetList datasetList) {
                         if ( getUsername().equals(datasetList.getUsername()) ) {
-                            DatasetListPage.this.updateDatasets(datasetList);
+                            selectIdsSet.removeAll(datasetIdsSet);
+                            DatasetListPage.this.reloadDatasets(false);
                         }
                         else {
                             UploadDashboard.showMessage(DELETE_DATASET_FAIL_MSG +
@@ -805,7 +957,7 @@ public class DatasetListPage extends CompositeWithUsername {
                         @Override
                         public void onSuccess(DashboardDatasetList cruises) {
                             if ( getUsername().equals(cruises.getUsername()) ) {
-                                DatasetListPage.this.updateDatasets(cruises);
+                                DatasetListPage.this.reloadDatasets(false);
                             }
                             else {
                                 UploadDashboard.showMessage(SHOW_DATASET_FAIL_MSG +
@@ -867,7 +1019,8 @@ public class DatasetListPage extends CompositeWithUsername {
                     @Override
                     public void onSuccess(DashboardDatasetList cruises) {
                         if ( getUsername().equals(cruises.getUsername()) ) {
-                            DatasetListPage.this.updateDatasets(cruises);
+                            selectIdsSet.removeAll(datasetIdsSet);
+                            DatasetListPage.this.reloadDatasets(false);
                         }
                         else {
                             UploadDashboard.showMessage(HIDE_DATASET_FAIL_MSG +
@@ -929,7 +1082,7 @@ public class DatasetListPage extends CompositeWithUsername {
                     @Override
                     public void onSuccess(DashboardDatasetList cruises) {
                         if ( getUsername().equals(cruises.getUsername()) ) {
-                            DatasetListPage.this.updateDatasets(cruises);
+                            DatasetListPage.this.reloadDatasets(false);
                         }
                         else {
                             UploadDashboard.showMessage(CHANGE_OWNER_FAIL_MSG +
@@ -948,7 +1101,7 @@ public class DatasetListPage extends CompositeWithUsername {
 
     /**
      * Creates the cruise data table columns.  The table will still need to be populated using {@link
-     * #updateDatasets(DashboardDatasetList)}.
+     * #reloadDatasets(boolean)}.
      */
     private void buildDatasetListTable() {
         Header<String> selectHeader = buildSelectionHeader();
@@ -1033,9 +1186,20 @@ public class DatasetListPage extends CompositeWithUsername {
         // Set the minimum width of the full table
         datasetsGrid.setMinimumTableWidth(minTableWidth, Style.Unit.EM);
 
-        // Create the data provider for this table
-        listProvider = new ListDataProvider<DashboardDataset>();
-        listProvider.addDataDisplay(datasetsGrid);
+        // Create the asynchronous data provider for this table; the datasets are sorted and filtered by the server
+        rangeProvider = new AsyncDataProvider<DashboardDataset>() {
+            @Override
+            protected void onRangeChanged(HasData<DashboardDataset> display) {
+                // Ignore the call until this page is shown
+                if ( !showOnUpdate && getUsername().isEmpty() )
+                    return;
+                requestDatasets(display.getVisibleRange());
+            }
+        };
+        rangeProvider.addDataDisplay(datasetsGrid);
+        // Assign the pager controlling which rows of the table are shown
+        datasetsPager.setDisplay(datasetsGrid);
+        datasetsGrid.setPageSize(DashboardUtils.MAX_ROWS_PER_GRID_PAGE);
 
         // Make the columns sortable
         expocodeColumn.setSortable(true);
@@ -1049,21 +1213,21 @@ public class DatasetListPage extends CompositeWithUsername {
         filenameColumn.setSortable(true);
         ownerColumn.setSortable(true);
 
-        // Add a column sorting handler for these columns
-        ListHandler<DashboardDataset> columnSortHandler = new ListHandler<DashboardDataset>(listProvider.getList());
-        columnSortHandler.setComparator(expocodeColumn, DashboardUtils.dataDatasetIdComparator);
-        columnSortHandler.setComparator(timestampColumn, DashboardUtils.dataTimestampComparator);
-        columnSortHandler.setComparator(dataCheckColumn, DashboardUtils.dataCheckComparator);
-        columnSortHandler.setComparator(omeMetadataColumn, DashboardUtils.omeTimestampComparator);
-        columnSortHandler.setComparator(addlDocsColumn, DashboardUtils.addlDocsComparator);
-        columnSortHandler.setComparator(versionColumn, DashboardUtils.versionComparator);
-        columnSortHandler.setComparator(qcStatusColumn, DashboardUtils.submitStatusComparator);
-        columnSortHandler.setComparator(archiveStatusColumn, DashboardUtils.archiveStatusComparator);
-        columnSortHandler.setComparator(filenameColumn, DashboardUtils.dataFilenameComparator);
-        columnSortHandler.setComparator(ownerColumn, DashboardUtils.dataOwnerComparator);
-
-        // Add the sort handler to the table, and set the default sort order
-        datasetsGrid.addColumnSortHandler(columnSortHandler);
+        // The server sort key for each of these columns
+        columnSortKeys = new HashMap<Column<DashboardDataset,?>,String>();
+        columnSortKeys.put(expocodeColumn, DashboardDatasetListRange.SORT_BY_DATASET_ID);
+        columnSortKeys.put(timestampColumn, DashboardDatasetListRange.SORT_BY_TIMESTAMP);
+        columnSortKeys.put(dataCheckColumn, DashboardDatasetListRange.SORT_BY_DATA_CHECK);
+        columnSortKeys.put(omeMetadataColumn, DashboardDatasetListRange.SORT_BY_OME_TIMESTAMP);
+        columnSortKeys.put(addlDocsColumn, DashboardDatasetListRange.SORT_BY_ADDL_DOCS);
+        columnSortKeys.put(versionColumn, DashboardDatasetListRange.SORT_BY_VERSION);
+        columnSortKeys.put(qcStatusColumn, DashboardDatasetListRange.SORT_BY_SUBMIT_STATUS);
+        columnSortKeys.put(archiveStatusColumn, DashboardDatasetListRange.SORT_BY_ARCHIVE_STATUS);
+        columnSortKeys.put(filenameColumn, DashboardDatasetListRange.SORT_BY_FILENAME);
+        columnSortKeys.put(ownerColumn, DashboardDatasetListRange.SORT_BY_OWNER);
+
+        // Request the sorted datasets from the server when the sort order changes, and set the default sort order
+        datasetsGrid.addColumnSortHandler(new ColumnSortEvent.AsyncHandler(datasetsGrid));
         resortTable();
 
         // Set the contents if there are no rows
@@ -1082,22 +1246,14 @@ public class DatasetListPage extends CompositeWithUsername {
         TextColumn<DashboardDataset> rowNumColumn = new TextColumn<DashboardDataset>() {
             @Override
             public String getValue(DashboardDataset cruise) {
-                String expocode = cruise.getDatasetId();
-                List<DashboardDataset> cruiseList = listProvider.getList();
-                int k = 0;
-                while ( k < cruiseList.size() ) {
-                    // Only check datasetIds since they should be unique
-                    if ( expocode.equals(cruiseList.get(k).getDatasetId()) )
-                        break;
-                    k++;
-                }
-                return Integer.toString(k + 1);
+                // The row number is given by the context in render
+                return "";
             }
 
             @Override
             public void render(Cell.Context ctx, DashboardDataset cruise,
                     SafeHtmlBuilder sb) {
-                String msg = getValue(cruise);
+                String msg = Integer.toString(ctx.getIndex() + 1);
                 sb.appendHtmlConstant("<div style=\"color: " +
                         UploadDashboard.ROW_NUMBER_COLOR + ";\">");
                 for (int k = msg.length(); k < 4; k++) {
@@ -1152,11 +1308,16 @@ public class DatasetListPage extends CompositeWithUsername {
         selectedColumn.setFieldUpdater(new FieldUpdater<DashboardDataset,Boolean>() {
             @Override
             public void update(int index, DashboardDataset cruise, Boolean value) {
+                String datasetId = cruise.getDatasetId();
                 if ( !value ) {
                     cruise.setSelected(false);
+                    selectIdsSet.remove(datasetId);
+                    selectedSet.remove(datasetId);
                 }
                 else {
                     cruise.setSelected(true);
+                    selectIdsSet.add(datasetId);
+                    selectedSet.put(datasetId, cruise);
                 }
             }
         });
@@ -185,6 +185,7 @@ public class DatasetPreviewPage extends CompositeWithUsername {
     String expocode;
     String timetag;
     String imageExtension;
+    boolean plotsPending;
     AsyncCallback<Boolean> checkStatusCallback;
 
     // The singleton instance of this page
@@ -198,10 +199,13 @@ public class DatasetPreviewPage extends CompositeWithUsername {
         expocode = "";
         timetag = "";
         imageExtension = "";
+        plotsPending = false;
         // Callback when generating plots
         checkStatusCallback = new AsyncCallback<Boolean>() {
             @Override
             public void onSuccess(Boolean isDone) {
+                if ( isDone )
+                    singleton.plotsPending = false;
                 if ( UploadDashboard.isCurrentPage(singleton) ) {
                     if ( isDone ) {
                         UploadDashboard.showAutoCursor();
@@ -218,6 +222,7 @@ public class DatasetPreviewPage extends CompositeWithUsername {
 
             @Override
             public void onFailure(Throwable ex) {
+                singleton.plotsPending = false;
                 if ( UploadDashboard.isCurrentPage(singleton) ) {
                     UploadDashboard.showAutoCursor();
                     singleton.resetImageUrls();
@@ -352,6 +357,7 @@ public class DatasetPreviewPage extends CompositeWithUsername {
             UploadDashboard.showWaitCursor();
             DateTimeFormat formatter = DateTimeFormat.getFormat("MMddHHmmss");
             this.timetag = formatter.format(new Date(), TimeZone.createTimeZone(0));
+            plotsPending = true;
             service.buildPreviewImages(getUsername(), this.expocode,
                     this.timetag, true, checkStatusCallback);
         }
@@ -391,13 +397,38 @@ public class DatasetPreviewPage extends CompositeWithUsername {
 
     @UiHandler("logoutButton")
     void logoutOnClick(ClickEvent event) {
+        cancelPendingPlots();
         DashboardLogoutPage.showPage();
     }
 
     @UiHandler("dismissButton")
     void cancelOnClick(ClickEvent event) {
+        cancelPendingPlots();
         // Change to the latest cruise listing page.
         DatasetListPage.showPage();
     }
 
+    /**
+     * Tells the server to stop generating the preview plots if they are not yet done.
+     */
+    private void cancelPendingPlots() {
+        if ( !plotsPending )
+            return;
+        plotsPending = false;
+        UploadDashboard.showAutoCursor();
+        service.cancelPreviewImages(getUsername(), expocode, timetag, new AsyncCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                // Nothing to do
+                ;
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                // Not important enough to bother the user
+                ;
+            }
+        });
+    }
+
 }
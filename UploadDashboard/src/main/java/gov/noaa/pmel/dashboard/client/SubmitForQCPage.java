@@ -8,6 +8,7 @@ import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.uibinder.client.UiHandler;
 import com.google.gwt.user.client.History;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.Anchor;
 import com.google.gwt.user.client.ui.Button;
@@ -129,6 +130,10 @@ public class SubmitForQCPage extends CompositeWithUsername {
     private static final String SUBMIT_FAILURE_MSG =
             "Unexpected failure with submitting datasets for QC: ";
 
+    private static final String SUBMIT_PROGRESS_PROLOGUE = "Submitting: ";
+    // Milliseconds between requests for the progress of a submission
+    private static final int SUBMIT_PROGRESS_INTERVAL = 5000;
+
     private static final String SUBMIT_TEXT = "OK";
     private static final String CANCEL_TEXT = "Cancel";
 
@@ -176,6 +181,8 @@ public class SubmitForQCPage extends CompositeWithUsername {
     @UiField
     Button submitButton;
     @UiField
+    HTML submitProgressHtml;
+    @UiField
     Button cancelButton;
 
     private TreeSet<String> expocodes;
@@ -185,6 +192,8 @@ public class SubmitForQCPage extends CompositeWithUsername {
     private DashboardInfoPopup ownerArchivePopup;
     private DashboardInfoPopup agreeSharePopup;
     private DashboardAskPopup resubmitAskPopup;
+    private Timer submitProgressTimer;
+    private String submitId;
 
     // The singleton instance of this page
     private static SubmitForQCPage singleton;
@@ -227,6 +236,26 @@ public class SubmitForQCPage extends CompositeWithUsername {
 
         resubmitAskPopup = null;
         submitButton.setText(SUBMIT_TEXT);
+        submitProgressHtml.setHTML("");
+        submitProgressTimer = new Timer() {
+            @Override
+            public void run() {
+                service.getSubmitProgress(getUsername(), submitId, new AsyncCallback<String>() {
+                    @Override
+                    public void onSuccess(String progress) {
+                        if ( (progress != null) && !progress.isEmpty() )
+                            submitProgressHtml.setHTML(SUBMIT_PROGRESS_PROLOGUE +
+                                    SafeHtmlUtils.htmlEscape(progress));
+                    }
+
+                    @Override
+                    public void onFailure(Throwable ex) {
+                        // Progress is informational only; the submit callback reports any problems
+                        ;
+                    }
+                });
+            }
+        };
         cancelButton.setText(CANCEL_TEXT);
     }
 
@@ -459,7 +488,7 @@ public class SubmitForQCPage extends CompositeWithUsername {
      * Submits cruises and updated archival selection
      */
     void continueSubmit() {
-        String localTimestamp = DateTimeFormat.getFormat("yyyy-MM-dd HH:mm Z").format(new Date());
+        final String localTimestamp = DateTimeFormat.getFormat("yyyy-MM-dd HH:mm Z").format(new Date());
         String archiveStatus;
         if ( laterRadio.getValue() ) {
             // Archive with the next release
@@ -479,13 +508,38 @@ public class SubmitForQCPage extends CompositeWithUsername {
             return;
         }
 
-        boolean repeatSend = true;
-        // Submit the dataset
+        final String submitArchiveStatus = archiveStatus;
+        // Get the ID for this submission, used to report the progress of the submission
         UploadDashboard.showWaitCursor();
-        service.submitDatasetsForQC(getUsername(), expocodes, archiveStatus,
+        submitButton.setEnabled(false);
+        submitProgressHtml.setHTML("");
+        service.getSubmitId(getUsername(), new AsyncCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                submitId = result;
+                submitWithProgress(submitArchiveStatus, localTimestamp);
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                submitButton.setEnabled(true);
+                UploadDashboard.showFailureMessage(SUBMIT_FAILURE_MSG, ex);
+                UploadDashboard.showAutoCursor();
+            }
+        });
+    }
+
+    /**
+     * Submits cruises using the current submission ID, reporting the progress while waiting
+     */
+    private void submitWithProgress(String archiveStatus, String localTimestamp) {
+        boolean repeatSend = true;
+        submitProgressTimer.scheduleRepeating(SUBMIT_PROGRESS_INTERVAL);
+        service.submitDatasetsForQC(getUsername(), submitId, expocodes, archiveStatus,
                 localTimestamp, repeatSend, new AsyncCallback<Void>() {
                     @Override
                     public void onSuccess(Void result) {
+                        stopSubmitProgress();
                         // Success - go back to the cruise list page
                         DatasetListPage.showPage();
                         UploadDashboard.showAutoCursor();
@@ -493,6 +547,7 @@ public class SubmitForQCPage extends CompositeWithUsername {
 
                     @Override
                     public void onFailure(Throwable ex) {
+                        stopSubmitProgress();
                         // Failure, so show fail message
                         // But still go back to the cruise list page since some may have succeeded
                         UploadDashboard.showFailureMessage(SUBMIT_FAILURE_MSG, ex);
@@ -502,4 +557,13 @@ public class SubmitForQCPage extends CompositeWithUsername {
                 });
     }
 
+    /**
+     * Stops the requests for the progress of a submission and re-enables the submit button
+     */
+    private void stopSubmitProgress() {
+        submitProgressTimer.cancel();
+        submitProgressHtml.setHTML("");
+        submitButton.setEnabled(true);
+    }
+
 }
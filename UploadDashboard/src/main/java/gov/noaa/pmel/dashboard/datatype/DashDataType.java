@@ -302,6 +302,15 @@ public abstract class DashDataType<T extends Comparable<T>> implements Comparabl
         return null;
     }
 
+    /**
+     * @return if any of the questionable or acceptable limits are defined for this data type; if false,
+     *         {@link #boundsCheckStandardValue(Object)} always returns null
+     */
+    public boolean hasBounds() {
+        return (minQuestionVal != null) || (minAcceptVal != null) ||
+                (maxAcceptVal != null) || (maxQuestionVal != null);
+    }
+
     /**
      * @return the variable name for this data type; never null or blank
      */
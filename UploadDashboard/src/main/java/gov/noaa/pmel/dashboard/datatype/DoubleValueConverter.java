@@ -0,0 +1,98 @@
+package gov.noaa.pmel.dashboard.datatype;
+
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.BitSet;
+
+/**
+ * A {@link ValueConverter} for floating-point values.  In addition to converting one string at a time, the strings of
+ * a whole data column can be converted to primitive double values using {@link #convertValues(String[], int, double[],
+ * BitSet, String[])}, which does not create an object for each value.
+ *
+ * @author Karl Smith
+ */
+public abstract class DoubleValueConverter extends ValueConverter<Double> {
+
+    /**
+     * See {@link ValueConverter#ValueConverter(String, String, String)}
+     */
+    protected DoubleValueConverter(String inputUnit, String outputUnit, String missingValue)
+            throws IllegalArgumentException, IllegalStateException {
+        super(inputUnit, outputUnit, missingValue);
+    }
+
+    /**
+     * @param valueString
+     *         the string representation of the data value in the input unit/format;
+     *         never null and never a missing value
+     *
+     * @return the data value converted to the output unit/format
+     *
+     * @throws IllegalArgumentException
+     *         if the given string cannot be interpreted
+     * @throws IllegalStateException
+     *         if unit/format conversion of the data value cannot be performed
+     */
+    protected abstract double convertDoubleOf(String valueString)
+            throws IllegalArgumentException, IllegalStateException;
+
+    @Override
+    public Double convertValueOf(String valueString) throws IllegalArgumentException, IllegalStateException {
+        if ( isMissingValue(valueString, true) )
+            return null;
+        return convertDoubleOf(valueString);
+    }
+
+    /**
+     * Converts the string representations of the values of a data column.  The values assigned are the same as those
+     * that would be returned by {@link #convertValueOf(String)} for each string, except missing values, and strings
+     * that cannot be interpreted, are assigned {@link DashboardUtils#FP_MISSING_VALUE} and marked as missing.
+     *
+     * @param valueStrings
+     *         the string representations of the data values in the input unit/format; a null string
+     *         is reported as an error
+     * @param numValues
+     *         convert the strings at indices zero through numValues - 1
+     * @param values
+     *         assigned the converted data values
+     * @param missing
+     *         bit j is set if the j-th value is missing or could not be interpreted; otherwise bit j is cleared
+     * @param errors
+     *         assigned the reason the j-th string could not be interpreted; otherwise null is assigned
+     *
+     * @return the number of strings that could not be interpreted
+     *
+     * @throws IllegalArgumentException
+     *         if numValues is negative or larger than any of the arrays given
+     * @throws IllegalStateException
+     *         if unit/format conversion of the data values cannot be performed
+     */
+    public int convertValues(String[] valueStrings, int numValues, double[] values, BitSet missing, String[] errors)
+            throws IllegalArgumentException, IllegalStateException {
+        if ( (numValues < 0) || (numValues > valueStrings.length) ||
+                (numValues > values.length) || (numValues > errors.length) )
+            throw new IllegalArgumentException("invalid number of values: " + numValues);
+        final double missingValue = DashboardUtils.FP_MISSING_VALUE;
+        missing.clear(0, numValues);
+        int numErrors = 0;
+        for (int j = 0; j < numValues; j++) {
+            errors[j] = null;
+            try {
+                if ( isMissingValue(valueStrings[j], true) ) {
+                    values[j] = missingValue;
+                    missing.set(j);
+                }
+                else {
+                    values[j] = convertDoubleOf(valueStrings[j]);
+                }
+            } catch ( IllegalArgumentException ex ) {
+                values[j] = missingValue;
+                missing.set(j);
+                errors[j] = ex.getMessage();
+                numErrors++;
+            }
+        }
+        return numErrors;
+    }
+
+}
@@ -207,6 +207,61 @@ public class KnownDataTypes {
         return this;
     }
 
+    /**
+     * Adds the data column types computed from the standard data for the NetCDF DSG files,
+     * but which are not otherwise part of the standardized data:
+     * <p>
+     * DAY_OF_YEAR, LON360, TMONTH, and the fCO2 values in {@link SocatTypes#FCO2_REC_CANDIDATES}
+     * <p>
+     * This should be called after {@link #addStandardTypesForDataFiles()} and before adding any custom types.
+     *
+     * @return this instance (as a convenience for chaining)
+     */
+    public KnownDataTypes addComputedTypesForDataFiles() {
+        addDataType(DashboardServerUtils.DAY_OF_YEAR);
+        addDataType(SocatTypes.LON360);
+        addDataType(SocatTypes.TMONTH);
+        for (DashDataType<?> dtype : SocatTypes.FCO2_REC_CANDIDATES) {
+            addDataType(dtype);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the metadata column types computed for the NetCDF DSG files:
+     * <p>
+     * NOBS_FULL, NOBS_DECI
+     * <p>
+     * This should be called after {@link #addStandardTypesForMetadataFiles()} and before adding any custom types.
+     *
+     * @return this instance (as a convenience for chaining)
+     */
+    public KnownDataTypes addComputedTypesForMetadataFiles() {
+        addDataType(SocatTypes.NOBS_FULL);
+        addDataType(SocatTypes.NOBS_DECI);
+        return this;
+    }
+
+    /**
+     * Adds all the data types in another collection of known data types to this collection.
+     * Data types in this collection with the same variable name as a data type in the other
+     * collection are replaced.
+     *
+     * @param other
+     *         the known data types to add
+     *
+     * @return this instance (as a convenience for chaining)
+     *
+     * @throws IllegalArgumentException
+     *         if the display name of a type to be added matches the display name of a different type in this set
+     */
+    public KnownDataTypes addTypes(KnownDataTypes other) throws IllegalArgumentException {
+        for (DashDataType<?> dtype : other.getKnownTypesSet()) {
+            addDataType(dtype);
+        }
+        return this;
+    }
+
     /**
      * Create additional known data types from values in a Properties object.
      *
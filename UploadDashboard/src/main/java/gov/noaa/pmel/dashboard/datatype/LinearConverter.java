@@ -10,7 +10,7 @@ import java.util.TreeMap;
  *
  * @author Karl Smith
  */
-public class LinearConverter extends ValueConverter<Double> {
+public class LinearConverter extends DoubleValueConverter {
 
     // TreeMap so can do case-insensitive comparisons
     private static final TreeMap<String,Double> SLOPES_MAP;
@@ -131,20 +131,18 @@ public class LinearConverter extends ValueConverter<Double> {
     }
 
     @Override
-    public Double convertValueOf(String valueString)
+    protected double convertDoubleOf(String valueString)
             throws IllegalArgumentException, IllegalStateException {
         if ( (slope == null) || (intercept == null) )
             throw new IllegalArgumentException("conversion from \"" +
                     fromUnit + "\" to \"" + toUnit + "\" is not supported");
-        if ( isMissingValue(valueString, true) )
-            return null;
-        Double dataVal;
+        double dataVal;
         try {
-            dataVal = Double.valueOf(valueString);
+            dataVal = Double.parseDouble(valueString);
         } catch ( NumberFormatException ex ) {
             dataVal = Double.NaN;
         }
-        if ( dataVal.isNaN() || dataVal.isInfinite() )
+        if ( Double.isNaN(dataVal) || Double.isInfinite(dataVal) )
             throw new IllegalArgumentException("not a valid floating-point value");
         dataVal *= slope;
         dataVal += intercept;
@@ -188,6 +188,133 @@ public class SocatTypes {
             DashboardUtils.NO_UNITS, null, DashboardServerUtils.IDENTIFIER_CATEGORY, null,
             null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
 
+    // Additional computed values added to the data files, along with DAY_OF_YEAR, but not read from the data files
+    public static final DoubleDashDataType LON360 = new DoubleDashDataType("lon360",
+            712.0, "lon360", "longitude in [0,360)", false,
+            DashboardUtils.LONGITUDE_UNITS, "longitude", DashboardServerUtils.LOCATION_CATEGORY, "degrees_east",
+            null, "0.0", "360.0", null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final StringDashDataType TMONTH = new StringDashDataType("tmonth",
+            713.0, "tmonth", "month of year", false,
+            DashboardUtils.NO_UNITS, null, DashboardServerUtils.TIME_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    // The fCO2 values from each of the algorithms considered for fCO2_recommended
+    public static final DoubleDashDataType FCO2_FROM_XCO2_TEQU = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm",
+            720.0, "fCO2 from xCO2 Tequ", "fCO2 from xCO2_water_equi_temp_dry_ppm, Temperature_equi, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_XCO2_SST = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm",
+            721.0, "fCO2 from xCO2 SST", "fCO2 from xCO2_water_sst_dry_ppm, Temperature_equi, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_PCO2_TEQU = new DoubleDashDataType(
+            "fCO2_from_pCO2_water_water_equi_temp",
+            722.0, "fCO2 from pCO2 Tequ", "fCO2 from pCO2_water_equi_temp, Pressure_equi, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_PCO2_SST = new DoubleDashDataType(
+            "fCO2_from_pCO2_water_sst_100humidity_uatm",
+            723.0, "fCO2 from pCO2 SST", "fCO2 from pCO2_water_sst_100humidity_uatm, Pressure_equi, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_FCO2_TEQU = new DoubleDashDataType(
+            "fCO2_insitu_from_fCO2_water_equi_uatm",
+            724.0, "fCO2 from fCO2 Tequ", "fCO2 from fCO2_water_equi_tem, Pressure_equi, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_FCO2_SST = new DoubleDashDataType(
+            "fCO2_insitu_from_fCO2_water_sst_100humidty_uatm",
+            725.0, "fCO2 from fCO2 SST", "fCO2 from fCO2_water_sst_100humidity_uatm, Pressure_equi, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_PCO2_TEQU_NCEP = new DoubleDashDataType(
+            "fCO2_from_pCO2_water_water_equi_temp_ncep",
+            726.0, "fCO2 from pCO2 Tequ NCEP", "fCO2 from pCO2_water_equi_temp, ncepSlp, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_PCO2_SST_NCEP = new DoubleDashDataType(
+            "fCO2_from_pCO2_water_sst_100humidity_uatm_ncep",
+            727.0, "fCO2 from pCO2 SST NCEP", "fCO2 from pCO2_water_sst_100humidity_uatm, ncepSlp, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_XCO2_TEQU_WOA = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_woa",
+            728.0, "fCO2 from xCO2 Tequ WOA", "fCO2 from xCO2_water_equi_temp_dry_ppm, Pressure_equi, woa_sss", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_XCO2_SST_WOA = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_woa",
+            729.0, "fCO2 from xCO2 SST WOA", "fCO2 from xCO2_water_sst_dry_ppm, Pressure_equi, woa_sss", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_XCO2_TEQU_NCEP = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_ncep",
+            730.0, "fCO2 from xCO2 Tequ NCEP", "fCO2 from xCO2_water_equi_temp_dry_ppm, ncepSlp, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_XCO2_SST_NCEP = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_ncep",
+            731.0, "fCO2 from xCO2 SST NCEP", "fCO2 from xCO2_water_sst_dry_ppm, ncepSlp, sal", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_XCO2_TEQU_NCEP_WOA = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_equi_temp_dry_ppm_ncep_woa",
+            732.0, "fCO2 from xCO2 Tequ NCEP WOA", "fCO2 from xCO2_water_equi_temp_dry_ppm, ncepSlp, woa_sss", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    public static final DoubleDashDataType FCO2_FROM_XCO2_SST_NCEP_WOA = new DoubleDashDataType(
+            "fCO2_insitu_from_xCO2_water_sst_dry_ppm_ncep_woa",
+            733.0, "fCO2 from xCO2 SST NCEP WOA", "fCO2 from xCO2_water_sst_dry_ppm, ncepSlp, woa_sss", false,
+            FCO2_UNITS, null, CO2_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_DATA_ONLY_ROLES);
+
+    /**
+     * The fCO2 values considered for fCO2_recommended in order of preference;
+     * the value of fCO2_source is the (one-based) index in this list of the fCO2 value used.
+     */
+    public static final List<DoubleDashDataType> FCO2_REC_CANDIDATES = Collections.unmodifiableList(Arrays.asList(
+            FCO2_FROM_XCO2_TEQU,
+            FCO2_FROM_XCO2_SST,
+            FCO2_FROM_PCO2_TEQU,
+            FCO2_FROM_PCO2_SST,
+            FCO2_FROM_FCO2_TEQU,
+            FCO2_FROM_FCO2_SST,
+            FCO2_FROM_PCO2_TEQU_NCEP,
+            FCO2_FROM_PCO2_SST_NCEP,
+            FCO2_FROM_XCO2_TEQU_WOA,
+            FCO2_FROM_XCO2_SST_WOA,
+            FCO2_FROM_XCO2_TEQU_NCEP,
+            FCO2_FROM_XCO2_SST_NCEP,
+            FCO2_FROM_XCO2_TEQU_NCEP_WOA,
+            FCO2_FROM_XCO2_SST_NCEP_WOA));
+
+    // Trajectory counts added to the data files
+    public static final IntDashDataType NOBS_FULL = new IntDashDataType("nobs_full",
+            750.0, "nobs full", "Count in original trajectory", false,
+            DashboardUtils.NO_UNITS, null, DashboardServerUtils.IDENTIFIER_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_METADATA_ONLY_ROLES);
+
+    public static final IntDashDataType NOBS_DECI = new IntDashDataType("nobs_deci",
+            751.0, "nobs deci", "Count in decimated trajectory", false,
+            DashboardUtils.NO_UNITS, null, DashboardServerUtils.IDENTIFIER_CATEGORY, null,
+            null, null, null, null, DashboardServerUtils.FILE_METADATA_ONLY_ROLES);
+
     /**
      * Case-insensitive map of user-provided column type names used in older versions to those in the latest version.
      * NOTE: TIME is mapped to TIME_OF_DAY because this is for user-provided data column types.
@@ -21,6 +21,9 @@ public class TimestampConverter extends ValueConverter<String> {
     // TreeSet and TreeMap so can do case insensitive comparisons
     private static final TreeSet<String> SUPPORTED_FROM_UNITS;
     private static final TreeMap<String,Integer> MONTH_NAMES_MAP;
+    // Month names and numbers from MONTH_NAMES_MAP for the character-level parser
+    private static final String[] MONTH_NAMES;
+    private static final int[] MONTH_NUMBERS;
 
     static {
         SUPPORTED_FROM_UNITS = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
@@ -73,7 +76,24 @@ public class TimestampConverter extends ValueConverter<String> {
         MONTH_NAMES_MAP.put("NOVEMBER", 11);
         MONTH_NAMES_MAP.put("DEC", 12);
         MONTH_NAMES_MAP.put("DECEMBER", 12);
+
+        MONTH_NAMES = MONTH_NAMES_MAP.keySet().toArray(new String[MONTH_NAMES_MAP.size()]);
+        MONTH_NUMBERS = new int[MONTH_NAMES.length];
+        for (int k = 0; k < MONTH_NAMES.length; k++) {
+            MONTH_NUMBERS[k] = MONTH_NAMES_MAP.get(MONTH_NAMES[k]);
+        }
     }
+    private static final int[] DAYS_IN_MONTH = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    // Order of the year, month, and day in the date of fromUnit
+    private static final int YEAR_MONTH_DAY = 0;
+    private static final int MONTH_DAY_YEAR = 1;
+    private static final int DAY_MONTH_YEAR = 2;
+
+    // Format given by toUnit
+    private static final int TO_TIMESTAMP = 0;
+    private static final int TO_DATE = 1;
+    private static final int TO_TIME = 2;
 
     private static final Pattern TIMESTAMP_SPLIT_PATTERN = Pattern.compile("[T ]");
     private static final Pattern DATE_SPLIT_PATTERN = Pattern.compile("[/, -]+");
@@ -82,6 +102,19 @@ public class TimestampConverter extends ValueConverter<String> {
     private GregorianCalendar utcCalendar;
     private long millisNow;
     private int currYear;
+    private int currMonth;
+    private int currDay;
+
+    // fromUnit and toUnit as used by the character-level parser
+    private final int dateOrder;
+    private final boolean monthNames;
+    private final boolean twoDigitYear;
+    private final int toFormat;
+    // Work space for the character-level parser
+    private final int[] tokenStarts;
+    private final int[] tokenEnds;
+    private final int[] dateFields;
+    private final char[] stdChars;
 
     public TimestampConverter(String inputUnit, String outputUnit, String missingValue)
             throws IllegalArgumentException, IllegalStateException {
@@ -94,6 +127,30 @@ public class TimestampConverter extends ValueConverter<String> {
         millisNow = System.currentTimeMillis();
         utcCalendar.setTimeInMillis(millisNow);
         currYear = utcCalendar.get(GregorianCalendar.YEAR);
+        currMonth = utcCalendar.get(GregorianCalendar.MONTH) - GregorianCalendar.JANUARY + 1;
+        currDay = utcCalendar.get(GregorianCalendar.DAY_OF_MONTH);
+
+        String dateUnit = fromUnit.toLowerCase();
+        if ( dateUnit.endsWith(" hh:mm:ss") )
+            dateUnit = dateUnit.substring(0, dateUnit.length() - 9);
+        if ( dateUnit.startsWith("yyyy-") )
+            dateOrder = YEAR_MONTH_DAY;
+        else if ( dateUnit.startsWith("dd-") )
+            dateOrder = DAY_MONTH_YEAR;
+        else
+            dateOrder = MONTH_DAY_YEAR;
+        monthNames = dateUnit.contains("mon");
+        twoDigitYear = dateUnit.endsWith("-yy");
+        if ( "yyyy-mm-dd hh:mm:ss".equalsIgnoreCase(toUnit) )
+            toFormat = TO_TIMESTAMP;
+        else if ( "yyyy-mm-dd".equalsIgnoreCase(toUnit) )
+            toFormat = TO_DATE;
+        else
+            toFormat = TO_TIME;
+        tokenStarts = new int[3];
+        tokenEnds = new int[3];
+        dateFields = new int[3];
+        stdChars = new char[23];
     }
 
     @Override
@@ -101,6 +158,44 @@ public class TimestampConverter extends ValueConverter<String> {
         // Deal with missing values
         if ( isMissingValue(valueString, true) )
             return null;
+        // Almost all values are handled by the character-level parser
+        String stdVal = parseValue(valueString);
+        if ( stdVal == null )
+            stdVal = standardizeValue(valueString);
+        return stdVal;
+    }
+
+    /**
+     * Converts a value using only the general, pattern-based interpretation of values.  The results are the same
+     * as {@link #convertValueOf(String)}, which only uses this interpretation for values not handled by its
+     * character-level parser; provided for verification of that parser.
+     *
+     * @param valueString
+     *         the string representation of the data value in the input unit/format
+     *
+     * @return null if the string representation matches a missing value; otherwise, the standardized value
+     *
+     * @throws IllegalArgumentException
+     *         if the given value is null, or if the given string cannot be interpreted
+     */
+    public String convertValueWithPatterns(String valueString) throws IllegalArgumentException {
+        if ( isMissingValue(valueString, true) )
+            return null;
+        return standardizeValue(valueString);
+    }
+
+    /**
+     * Standardize a value using the general, pattern-based interpretation of values.
+     *
+     * @param valueString
+     *         string representation of the (non-missing) value in the fromUnit format
+     *
+     * @return standardized value
+     *
+     * @throws IllegalArgumentException
+     *         if the fromUnit or toUnit format is not recognized, or if the value is not valid
+     */
+    private String standardizeValue(String valueString) throws IllegalArgumentException {
         String stdVal;
         if ( "yyyy-mm-dd hh:mm:ss".equalsIgnoreCase(toUnit) ) {
             String[] dateTime = splitTimestamp(valueString);
@@ -551,4 +646,297 @@ public class TimestampConverter extends ValueConverter<String> {
         return stdVal;
     }
 
+
+    /**
+     * Standardize a value using a character-level parser that only handles the common forms of values.  Values
+     * not handled, including all invalid values, are left for {@link #standardizeValue(String)}, which gives the same
+     * result as this method for values handled by this method.
+     *
+     * @param valueString
+     *         string representation of the (non-missing) value in the fromUnit format
+     *
+     * @return standardized value, or null if the value was not handled
+     */
+    private String parseValue(String valueString) {
+        int length = valueString.length();
+        if ( toFormat == TO_TIMESTAMP ) {
+            // The time is after the last space or 'T'
+            int sepIdx = length - 1;
+            while ( (sepIdx >= 0) && (valueString.charAt(sepIdx) != ' ') && (valueString.charAt(sepIdx) != 'T') ) {
+                sepIdx--;
+            }
+            if ( (sepIdx <= 0) || (sepIdx == length - 1) )
+                return null;
+            if ( !parseDate(valueString, 0, sepIdx, true) )
+                return null;
+            stdChars[10] = ' ';
+            int timeLength = parseTime(valueString, sepIdx + 1, length, 11);
+            if ( timeLength < 0 )
+                return null;
+            return new String(stdChars, 0, 11 + timeLength);
+        }
+        if ( toFormat == TO_DATE ) {
+            if ( !parseDate(valueString, 0, length, false) )
+                return null;
+            return new String(stdChars, 0, 10);
+        }
+        int timeLength = parseTime(valueString, 0, length, 0);
+        if ( timeLength < 0 )
+            return null;
+        return new String(stdChars, 0, timeLength);
+    }
+
+    /**
+     * Parses a valid date, in the fromUnit format, given by the characters in [start,end) of valueString, and writes
+     * the standard yyyy-MM-dd representation to the start of stdChars.
+     *
+     * @return if a valid date was parsed
+     */
+    private boolean parseDate(String valueString, int start, int end, boolean inTimestamp) {
+        // Split into tokens separated by runs of '/', ',', ' ', and '-'
+        int numTokens = 0;
+        int k = start;
+        while ( k < end ) {
+            if ( numTokens == 3 )
+                return false;
+            int tokenStart = k;
+            while ( (k < end) && !isDateSeparator(valueString.charAt(k)) ) {
+                k++;
+            }
+            if ( k == tokenStart )
+                return false;
+            tokenStarts[numTokens] = tokenStart;
+            tokenEnds[numTokens] = k;
+            numTokens++;
+            if ( k < end ) {
+                while ( (k < end) && isDateSeparator(valueString.charAt(k)) ) {
+                    k++;
+                }
+                if ( k == end )
+                    return false;
+            }
+        }
+
+        int year;
+        int month;
+        int day;
+        if ( numTokens == 3 ) {
+            for (int j = 0; j < 3; j++) {
+                // the month is the middle token for DAY_MONTH_YEAR and the first token for MONTH_DAY_YEAR
+                boolean isMonth = monthNames && (((dateOrder == DAY_MONTH_YEAR) && (j == 1)) ||
+                        ((dateOrder == MONTH_DAY_YEAR) && (j == 0)));
+                if ( isMonth )
+                    dateFields[j] = parseMonthName(valueString, tokenStarts[j], tokenEnds[j], inTimestamp);
+                else
+                    dateFields[j] = parseDigits(valueString, tokenStarts[j], tokenEnds[j]);
+                if ( dateFields[j] < 0 )
+                    return false;
+            }
+        }
+        else if ( (numTokens == 1) && !monthNames ) {
+            // Date without separators
+            int tokenStart = tokenStarts[0];
+            int tokenLength = tokenEnds[0] - tokenStart;
+            if ( tokenLength != (twoDigitYear ? 6 : 8) )
+                return false;
+            int firstLength = (dateOrder == YEAR_MONTH_DAY) ? 4 : 2;
+            dateFields[0] = parseDigits(valueString, tokenStart, tokenStart + firstLength);
+            dateFields[1] = parseDigits(valueString, tokenStart + firstLength, tokenStart + firstLength + 2);
+            dateFields[2] = parseDigits(valueString, tokenStart + firstLength + 2, tokenEnds[0]);
+            if ( (dateFields[0] < 0) || (dateFields[1] < 0) || (dateFields[2] < 0) )
+                return false;
+        }
+        else {
+            return false;
+        }
+        if ( dateOrder == YEAR_MONTH_DAY ) {
+            year = dateFields[0];
+            month = dateFields[1];
+            day = dateFields[2];
+        }
+        else if ( dateOrder == MONTH_DAY_YEAR ) {
+            month = dateFields[0];
+            day = dateFields[1];
+            year = dateFields[2];
+        }
+        else {
+            day = dateFields[0];
+            month = dateFields[1];
+            year = dateFields[2];
+        }
+        if ( twoDigitYear ) {
+            year += (currYear / 100) * 100;
+            if ( year > currYear )
+                year -= 100;
+        }
+
+        if ( (year < 1900) || (year > currYear) || (month < 1) || (month > 12) || (day < 1) )
+            return false;
+        int daysInMonth = DAYS_IN_MONTH[month - 1];
+        if ( (month == 2) && ((year % 4) == 0) && (((year % 100) != 0) || ((year % 400) == 0)) )
+            daysInMonth++;
+        if ( day > daysInMonth )
+            return false;
+        // Dates after today are not valid
+        if ( (year == currYear) && ((month > currMonth) || ((month == currMonth) && (day > currDay))) )
+            return false;
+
+        writeDigits(year, 4, 0);
+        stdChars[4] = '-';
+        writeDigits(month, 2, 5);
+        stdChars[7] = '-';
+        writeDigits(day, 2, 8);
+        return true;
+    }
+
+    /**
+     * Parses a valid time, in the hh:mm:ss format, given by the characters in [start,end) of valueString, and writes
+     * the standard HH:mm:ss.SSS representation to stdChars starting at pos.  As with {@link #standardizeTime(String)},
+     * seconds less than ten are written with a single digit before the decimal point.  Only handles seconds with up
+     * to three decimal places, so no rounding is needed.
+     *
+     * @return the number of characters written, or -1 if a valid time was not parsed
+     */
+    private int parseTime(String valueString, int start, int end, int pos) {
+        int firstColon = -1;
+        int secondColon = -1;
+        for (int k = start; k < end; k++) {
+            if ( valueString.charAt(k) == ':' ) {
+                if ( firstColon < 0 )
+                    firstColon = k;
+                else if ( secondColon < 0 )
+                    secondColon = k;
+                else
+                    return -1;
+            }
+        }
+        int hour;
+        int minute;
+        int secStart;
+        int secEnd;
+        if ( firstColon >= 0 ) {
+            hour = parseDigits(valueString, start, firstColon);
+            if ( secondColon >= 0 ) {
+                minute = parseDigits(valueString, firstColon + 1, secondColon);
+                secStart = secondColon + 1;
+                secEnd = end;
+                if ( secStart == secEnd )
+                    return -1;
+            }
+            else {
+                minute = parseDigits(valueString, firstColon + 1, end);
+                secStart = end;
+                secEnd = end;
+            }
+        }
+        else {
+            // Time without separators
+            int length = end - start;
+            if ( (length == 4) || (length == 6) || ((length > 6) && (valueString.charAt(start + 6) == '.')) ) {
+                hour = parseDigits(valueString, start, start + 2);
+                minute = parseDigits(valueString, start + 2, start + 4);
+                secStart = start + 4;
+                secEnd = end;
+            }
+            else {
+                return -1;
+            }
+        }
+        if ( (hour < 0) || (hour >= 24) || (minute < 0) || (minute >= 60) )
+            return -1;
+
+        // Seconds are digits, optionally followed by a decimal point and one to three digits
+        int second = 0;
+        int fracStart = secEnd;
+        int fracEnd = secEnd;
+        if ( secStart < secEnd ) {
+            int pointIdx = valueString.indexOf('.', secStart);
+            if ( (pointIdx < 0) || (pointIdx >= secEnd) )
+                pointIdx = secEnd;
+            else {
+                fracStart = pointIdx + 1;
+                if ( (fracStart == secEnd) || (secEnd - fracStart > 3) )
+                    return -1;
+                for (int k = fracStart; k < secEnd; k++) {
+                    char ch = valueString.charAt(k);
+                    if ( (ch < '0') || (ch > '9') )
+                        return -1;
+                }
+            }
+            second = parseDigits(valueString, secStart, pointIdx);
+            if ( (second < 0) || (second >= 60) )
+                return -1;
+        }
+
+        writeDigits(hour, 2, pos);
+        stdChars[pos + 2] = ':';
+        writeDigits(minute, 2, pos + 3);
+        stdChars[pos + 5] = ':';
+        int secDigits = (second < 10) ? 1 : 2;
+        writeDigits(second, secDigits, pos + 6);
+        int fracPos = pos + 6 + secDigits;
+        stdChars[fracPos] = '.';
+        for (int k = 0; k < 3; k++) {
+            if ( fracStart + k < fracEnd )
+                stdChars[fracPos + 1 + k] = valueString.charAt(fracStart + k);
+            else
+                stdChars[fracPos + 1 + k] = '0';
+        }
+        return fracPos + 4 - pos;
+    }
+
+    /**
+     * @return the non-negative integer given by the one to nine decimal digits in [start,end) of valueString,
+     *         or -1 if not such an integer
+     */
+    private static int parseDigits(String valueString, int start, int end) {
+        if ( (end <= start) || (end - start > 9) )
+            return -1;
+        int value = 0;
+        for (int k = start; k < end; k++) {
+            char ch = valueString.charAt(k);
+            if ( (ch < '0') || (ch > '9') )
+                return -1;
+            value = 10 * value + (ch - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return the month number for the month name, compared case-insensitive, in [start,end) of valueString,
+     *         or -1 if not a recognized month name of ASCII letters.  Within a timestamp, an uppercase 'T' in the name
+     *         is only allowed in "SEPT" and "OCT", as otherwise the pattern-based interpretation splits the name.
+     */
+    private static int parseMonthName(String valueString, int start, int end, boolean inTimestamp) {
+        for (int k = start; k < end; k++) {
+            char ch = valueString.charAt(k);
+            if ( !(((ch >= 'A') && (ch <= 'Z')) || ((ch >= 'a') && (ch <= 'z'))) )
+                return -1;
+            if ( inTimestamp && (ch == 'T') && !valueString.regionMatches(k - 3, "SEPT", 0, 4) &&
+                    !valueString.regionMatches(k - 2, "OCT", 0, 3) )
+                return -1;
+        }
+        int length = end - start;
+        for (int k = 0; k < MONTH_NAMES.length; k++) {
+            if ( (MONTH_NAMES[k].length() == length) &&
+                    valueString.regionMatches(true, start, MONTH_NAMES[k], 0, length) )
+                return MONTH_NUMBERS[k];
+        }
+        return -1;
+    }
+
+    private static boolean isDateSeparator(char ch) {
+        return (ch == '/') || (ch == ',') || (ch == ' ') || (ch == '-');
+    }
+
+    /**
+     * Writes the non-negative value as numDigits decimal digits, with leading zeros, to stdChars starting at pos
+     */
+    private void writeDigits(int value, int numDigits, int pos) {
+        for (int k = pos + numDigits - 1; k >= pos; k--) {
+            stdChars[k] = (char) ('0' + (value % 10));
+            value /= 10;
+        }
+    }
+
 }
@@ -23,6 +23,10 @@ public abstract class ValueConverter<T> {
     private static final HashSet<String> DEFAULT_MISSING_VALUES_SET =
             new HashSet<String>(Arrays.asList("", "NA", "N/A", "NAN",
                     "NULL", "-", "--", "---", "----", "-----"));
+    /**
+     * Length of the longest string in {@link #DEFAULT_MISSING_VALUES_SET}
+     */
+    private static final int MAX_DEFAULT_MISSING_VALUE_LENGTH = 5;
     /**
      * Default missing value numbers of the -999, -9999, and -99999 variety.
      */
@@ -82,9 +86,12 @@ public abstract class ValueConverter<T> {
             throw new IllegalArgumentException("no value given");
         if ( missVal == null ) {
             String trimVal = valueString.trim();
-            if ( DEFAULT_MISSING_VALUES_SET.contains(trimVal.toUpperCase()) )
+            if ( (trimVal.length() <= MAX_DEFAULT_MISSING_VALUE_LENGTH) &&
+                    DEFAULT_MISSING_VALUES_SET.contains(trimVal.toUpperCase()) )
                 return true;
-            if ( checkNumbers ) {
+            // All the default missing numbers are negative; avoid parsing (and the exception thrown
+            // for) values such as timestamps that cannot be one of these numbers
+            if ( checkNumbers && trimVal.startsWith("-") ) {
                 try {
                     Double value = Double.valueOf(trimVal);
                     for (Double mvdbl : DEFAULT_MISSING_NUMBERS_ARRAY) {
@@ -0,0 +1,98 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import java.io.IOException;
+
+/**
+ * Provider of the values sampled from external gridded data (climatologies, reanalyses, bathymetry)
+ * at the locations and times of data samples.  Each method returns null if the gridded data is not
+ * available, in which case any existing values for that variable are left unchanged.  Sample points
+ * without a value (for example, outside the time range of the gridded data) are given as NaN.
+ *
+ * @author Karl Smith
+ */
+public interface AncillaryDataSampler {
+
+    /**
+     * @param longitudes
+     *         longitudes of the samples, in degrees east
+     * @param latitudes
+     *         latitudes of the samples, in degrees north
+     * @param times
+     *         times of the samples, in seconds since 1970-01-01 00:00:00 UTC
+     *
+     * @return the NCEP sea level pressures, in hPa, at the samples; or null if not available
+     *
+     * @throws IOException
+     *         if reading the gridded data throws one
+     */
+    double[] sampleSeaLevelPressures(double[] longitudes, double[] latitudes, double[] times) throws IOException;
+
+    /**
+     * @param longitudes
+     *         longitudes of the samples, in degrees east
+     * @param latitudes
+     *         latitudes of the samples, in degrees north
+     * @param months
+     *         months (1-12) of the samples
+     *
+     * @return the World Ocean Atlas monthly sea surface salinities at the samples; or null if not available
+     *
+     * @throws IOException
+     *         if reading the gridded data throws one
+     */
+    double[] sampleWoaSalinities(double[] longitudes, double[] latitudes, int[] months) throws IOException;
+
+    /**
+     * @param longitudes
+     *         longitudes of the samples, in degrees east
+     * @param latitudes
+     *         latitudes of the samples, in degrees north
+     *
+     * @return the ETOPO2 sea floor depths, in meters (positive down), at the samples; or null if not available
+     *
+     * @throws IOException
+     *         if reading the gridded data throws one
+     */
+    double[] sampleSeaFloorDepths(double[] longitudes, double[] latitudes) throws IOException;
+
+    /**
+     * @param longitudes
+     *         longitudes of the samples, in degrees east
+     * @param latitudes
+     *         latitudes of the samples, in degrees north
+     *
+     * @return the distances, in kilometers, to major land masses from the samples; or null if not available
+     *
+     * @throws IOException
+     *         if reading the gridded data throws one
+     */
+    double[] sampleDistancesToLand(double[] longitudes, double[] latitudes) throws IOException;
+
+    /**
+     * @param latitudes
+     *         latitudes of the samples, in degrees north
+     * @param times
+     *         times of the samples, in seconds since 1970-01-01 00:00:00 UTC
+     *
+     * @return the GlobalView atmospheric xCO2 values, in micromol per mol, at the samples; or null if not available
+     *
+     * @throws IOException
+     *         if reading the gridded data throws one
+     */
+    double[] sampleGlobalViewCO2s(double[] latitudes, double[] times) throws IOException;
+
+    /**
+     * @param longitudes
+     *         longitudes of the samples, in degrees east
+     * @param latitudes
+     *         latitudes of the samples, in degrees north
+     *
+     * @return the SOCAT region IDs of the samples, null for samples without a region ID;
+     *         or null if not available
+     *
+     * @throws IOException
+     *         if reading the gridded data throws one
+     */
+    String[] sampleRegionIds(double[] longitudes, double[] latitudes) throws IOException;
+
+}
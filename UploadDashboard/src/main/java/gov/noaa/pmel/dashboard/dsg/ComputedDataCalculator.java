@@ -0,0 +1,436 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Computes the variables added to full-data DSG files from the standardized data, as done by the
+ * Ferret script calcSOCAT.jnl, without running Ferret.  The values looked up from external gridded data
+ * (NCEP sea level pressure, WOA salinity, ETOPO2 depth, distance to land, GlobalView CO2, and region ID)
+ * are obtained from an {@link AncillaryDataSampler}.
+ *
+ * @author Karl Smith
+ */
+public class ComputedDataCalculator {
+
+    /**
+     * Names of the months, as assigned to {@link SocatTypes#TMONTH}
+     */
+    private static final String[] MONTH_NAMES = {
+            "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    /**
+     * Value added to a pressure (hPa) when used as the equilibrator pressure
+     */
+    private static final double EQUI_PRESSURE_OFFSET = 3.0;
+
+    private final AncillaryDataSampler sampler;
+
+    /**
+     * @param sampler
+     *         provides the values from external gridded data; if null, the values for these variables
+     *         in the standardized data (if any) are used
+     */
+    public ComputedDataCalculator(AncillaryDataSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * Creates standardized data with the computed variables from the given standardized data.  The data columns
+     * for the types given by {@link KnownDataTypes#addComputedTypesForDataFiles()}, as well as the computed
+     * variables of {@link KnownDataTypes#addStandardTypesForDataFiles()}, are added to, or replace those in,
+     * the given standardized data.  Other data columns are shared (not copied) with the given standardized data.
+     *
+     * @param filedata
+     *         standardized data for data files; must contain longitudes, latitudes, times, and the
+     *         year, month, day, hour, minute, and second of each sample
+     *
+     * @return standardized data with the computed variables
+     *
+     * @throws IllegalArgumentException
+     *         if the longitudes, latitudes, or times are not given
+     * @throws IOException
+     *         if sampling the external gridded data throws one
+     */
+    public StdDataArray addComputedData(StdDataArray filedata) throws IllegalArgumentException, IOException {
+        int numSamples = filedata.getNumSamples();
+        if ( !(filedata.hasLongitude() && filedata.hasLatitude()) )
+            throw new IllegalArgumentException("longitudes and latitudes are not given");
+        if ( filedata.getIndexOfType(DashboardServerUtils.TIME) == null )
+            throw new IllegalArgumentException("times are not given");
+
+        double[] lons = getDoubles(filedata, DashboardServerUtils.LONGITUDE);
+        double[] lats = getDoubles(filedata, DashboardServerUtils.LATITUDE);
+        double[] times = getDoubles(filedata, DashboardServerUtils.TIME);
+        int[] years = getInts(filedata, DashboardServerUtils.YEAR);
+        int[] months = getInts(filedata, DashboardServerUtils.MONTH_OF_YEAR);
+        int[] days = getInts(filedata, DashboardServerUtils.DAY_OF_MONTH);
+        int[] hours = getInts(filedata, DashboardServerUtils.HOUR_OF_DAY);
+        int[] minutes = getInts(filedata, DashboardServerUtils.MINUTE_OF_HOUR);
+        double[] seconds = getDoubles(filedata, DashboardServerUtils.SECOND_OF_MINUTE);
+
+        ArrayList<DashDataType<?>> types = new ArrayList<DashDataType<?>>(filedata.getDataTypes());
+        ArrayList<StdDataColumn> columns = new ArrayList<StdDataColumn>(types.size() + 32);
+        for (int k = 0; k < types.size(); k++) {
+            columns.add(filedata.stdColumns[k]);
+        }
+
+        // Values from external gridded data
+        double[] ncepSlps = null;
+        double[] woaSals = null;
+        double[] depths = null;
+        double[] distances = null;
+        double[] gvco2s = null;
+        String[] regionIds = null;
+        if ( sampler != null ) {
+            ncepSlps = sampler.sampleSeaLevelPressures(lons, lats, times);
+            woaSals = sampler.sampleWoaSalinities(lons, lats, months);
+            depths = sampler.sampleSeaFloorDepths(lons, lats);
+            distances = sampler.sampleDistancesToLand(lons, lats);
+            gvco2s = sampler.sampleGlobalViewCO2s(lats, times);
+            regionIds = sampler.sampleRegionIds(lons, lats);
+        }
+        if ( ncepSlps != null )
+            putColumn(types, columns, SocatTypes.NCEP_SLP, doubleColumn(ncepSlps));
+        else
+            ncepSlps = getDoubles(filedata, SocatTypes.NCEP_SLP);
+        if ( woaSals != null )
+            putColumn(types, columns, SocatTypes.WOA_SALINITY, doubleColumn(woaSals));
+        else
+            woaSals = getDoubles(filedata, SocatTypes.WOA_SALINITY);
+        if ( depths != null )
+            putColumn(types, columns, SocatTypes.ETOPO2_DEPTH, doubleColumn(depths));
+        if ( distances != null )
+            putColumn(types, columns, SocatTypes.DIST_TO_LAND, doubleColumn(distances));
+        if ( gvco2s != null )
+            putColumn(types, columns, SocatTypes.GVCO2, doubleColumn(gvco2s));
+        if ( regionIds != null )
+            putColumn(types, columns, DashboardServerUtils.REGION_ID, stringColumn(regionIds));
+
+        // fCO2 values
+        double[] sals = getDoubles(filedata, SocatTypes.SALINITY);
+        double[] tequs = getDoubles(filedata, SocatTypes.TEQU);
+        double[] ssts = getDoubles(filedata, SocatTypes.SST);
+        double[] pequs = getDoubles(filedata, SocatTypes.PEQU);
+        double[] patms = getDoubles(filedata, SocatTypes.PATM);
+        double[][] fco2s = calcFco2Candidates(sals, tequs, ssts, pequs, patms, ncepSlps, woaSals,
+                getDoubles(filedata, SocatTypes.XCO2_WATER_TEQU_DRY),
+                getDoubles(filedata, SocatTypes.XCO2_WATER_SST_DRY),
+                getDoubles(filedata, SocatTypes.PCO2_WATER_TEQU_WET),
+                getDoubles(filedata, SocatTypes.PCO2_WATER_SST_WET),
+                getDoubles(filedata, SocatTypes.FCO2_WATER_TEQU_WET),
+                getDoubles(filedata, SocatTypes.FCO2_WATER_SST_WET));
+        for (int k = 0; k < fco2s.length; k++) {
+            putColumn(types, columns, SocatTypes.FCO2_REC_CANDIDATES.get(k), doubleColumn(fco2s[k]));
+        }
+        DoubleStdDataColumn fco2RecColumn = new DoubleStdDataColumn(numSamples);
+        IntStdDataColumn fco2SourceColumn = new IntStdDataColumn(numSamples);
+        for (int j = 0; j < numSamples; j++) {
+            int k = 0;
+            while ( (k < fco2s.length) && !isUsable(fco2s[k][j]) ) {
+                k++;
+            }
+            if ( k < fco2s.length ) {
+                fco2RecColumn.setDouble(j, fco2s[k][j]);
+                fco2SourceColumn.setInt(j, k + 1);
+            }
+            else {
+                // No usable value, so use the last one whatever it is
+                double value = fco2s[fco2s.length - 1][j];
+                if ( isFinite(value) )
+                    fco2RecColumn.setDouble(j, value);
+            }
+        }
+        putColumn(types, columns, SocatTypes.FCO2_REC, fco2RecColumn);
+        putColumn(types, columns, SocatTypes.FCO2_SOURCE, fco2SourceColumn);
+
+        // Other computed values
+        double[] deltaTemps = new double[numSamples];
+        double[] lon360s = new double[numSamples];
+        String[] monthNames = new String[numSamples];
+        double[] datenums = new double[numSamples];
+        double[] daysOfYear = new double[numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            deltaTemps[j] = tequs[j] - ssts[j];
+            lon360s[j] = (lons[j] < 0.0) ? lons[j] + 360.0 : lons[j];
+            if ( (months[j] >= 1) && (months[j] <= 12) )
+                monthNames[j] = MONTH_NAMES[months[j] - 1];
+            if ( (years[j] == DashboardUtils.INT_MISSING_VALUE) || (months[j] == DashboardUtils.INT_MISSING_VALUE) ||
+                    (days[j] == DashboardUtils.INT_MISSING_VALUE) || (hours[j] == DashboardUtils.INT_MISSING_VALUE) ||
+                    (minutes[j] == DashboardUtils.INT_MISSING_VALUE) ) {
+                datenums[j] = Double.NaN;
+                daysOfYear[j] = Double.NaN;
+                continue;
+            }
+            double second = Double.isNaN(seconds[j]) ? 0.0 : seconds[j];
+            long dayNum = daysFromCivil(years[j], months[j], days[j]);
+            // Seconds are not used in the computation of the ship speed
+            datenums[j] = dayNum + hours[j] / 24.0 + minutes[j] / 1440.0;
+            daysOfYear[j] = (dayNum - daysFromCivil(years[j], 1, 1) + 1) +
+                    (hours[j] * 3600.0 + minutes[j] * 60.0 + second) / 86400.0;
+        }
+        putColumn(types, columns, SocatTypes.DELTA_TEMP, doubleColumn(deltaTemps));
+        putColumn(types, columns, SocatTypes.CALC_SPEED, doubleColumn(calcSpeeds(lons, lats, datenums)));
+        putColumn(types, columns, SocatTypes.LON360, doubleColumn(lon360s));
+        putColumn(types, columns, SocatTypes.TMONTH, stringColumn(monthNames));
+        putColumn(types, columns, DashboardServerUtils.DAY_OF_YEAR, doubleColumn(daysOfYear));
+
+        return new StdDataArray(types.toArray(new DashDataType<?>[types.size()]),
+                columns.toArray(new StdDataColumn[columns.size()]));
+    }
+
+    /**
+     * Creates metadata with the computed metadata variables {@link SocatTypes#NOBS_FULL}
+     * and {@link SocatTypes#NOBS_DECI} added to the given metadata.
+     *
+     * @param metadata
+     *         metadata for the dataset
+     * @param numSamples
+     *         number of samples in the (full) data of the dataset
+     *
+     * @return new metadata with the computed metadata variables
+     */
+    public static DsgMetadata addComputedMetadata(DsgMetadata metadata, int numSamples) {
+        DsgMetadata computed = new DsgMetadata(new KnownDataTypes().addComputedTypesForMetadataFiles());
+        computed.valuesMap.putAll(metadata.valuesMap);
+        computed.setValue(SocatTypes.NOBS_FULL, Integer.valueOf(numSamples));
+        computed.setValue(SocatTypes.NOBS_DECI, Integer.valueOf(numSamples));
+        return computed;
+    }
+
+    /**
+     * Computes the fCO2 values from each of the algorithms in {@link SocatTypes#FCO2_REC_CANDIDATES}.
+     * Missing input values are NaN, and the computed values are NaN where the inputs are not available.
+     *
+     * @return the fCO2 values for each algorithm, in the order of {@link SocatTypes#FCO2_REC_CANDIDATES}
+     */
+    static double[][] calcFco2Candidates(double[] sals, double[] tequs, double[] ssts, double[] pequs,
+            double[] patms, double[] ncepSlps, double[] woaSals, double[] xco2Tequs, double[] xco2Ssts,
+            double[] pco2Tequs, double[] pco2Ssts, double[] fco2Tequs, double[] fco2Ssts) {
+        int numSamples = ssts.length;
+        double[][] fco2s = new double[SocatTypes.FCO2_REC_CANDIDATES.size()][numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            double sstK = ssts[j] + 273.15;
+            double tequK = tequs[j] + 273.15;
+            // Use the equilibrator pressure if given, otherwise the atmospheric pressure plus three
+            double press = isUsable(pequs[j]) ? pequs[j] : patms[j] + EQUI_PRESSURE_OFFSET;
+            double ncepPress = ncepSlps[j] + EQUI_PRESSURE_OFFSET;
+            // Correction from equilibrator temperature to SST
+            double tempCorr = Math.exp(0.0423 * (ssts[j] - tequs[j]));
+
+            double pH2O = calcPH2O(sstK, sals[j]);
+            double pH2OWoa = calcPH2O(sstK, woaSals[j]);
+            double pH2OEq = calcPH2O(tequK, sals[j]);
+            double pH2OEqWoa = calcPH2O(tequK, woaSals[j]);
+
+            fco2s[0][j] = xco2ToFco2(xco2Tequs[j], press, pH2OEq, tequK) * tempCorr;
+            fco2s[1][j] = xco2ToFco2(xco2Ssts[j], press, pH2O, sstK);
+            fco2s[2][j] = pco2ToFco2(pco2Tequs[j], press, tequK) * tempCorr;
+            fco2s[3][j] = pco2ToFco2(pco2Ssts[j], press, sstK);
+            fco2s[4][j] = fco2Tequs[j] * tempCorr;
+            fco2s[5][j] = fco2Ssts[j];
+            fco2s[6][j] = pco2ToFco2(pco2Tequs[j], ncepPress, tequK) * tempCorr;
+            fco2s[7][j] = pco2ToFco2(pco2Ssts[j], ncepPress, sstK);
+            fco2s[8][j] = xco2ToFco2(xco2Tequs[j], press, pH2OEqWoa, tequK) * tempCorr;
+            fco2s[9][j] = xco2ToFco2(xco2Ssts[j], press, pH2OWoa, sstK);
+            fco2s[10][j] = xco2ToFco2(xco2Tequs[j], ncepPress, pH2OEq, tequK) * tempCorr;
+            fco2s[11][j] = xco2ToFco2(xco2Ssts[j], ncepPress, pH2O, sstK);
+            fco2s[12][j] = xco2ToFco2(xco2Tequs[j], ncepPress, pH2OEqWoa, tequK) * tempCorr;
+            fco2s[13][j] = xco2ToFco2(xco2Ssts[j], ncepPress, pH2OWoa, sstK);
+        }
+        return fco2s;
+    }
+
+    /**
+     * @param tempK
+     *         temperature, in Kelvin
+     * @param sal
+     *         salinity
+     *
+     * @return the water vapor pressure, in hPa
+     */
+    static double calcPH2O(double tempK, double sal) {
+        return 1013.25 * Math.exp(24.4543 - 67.4509 * (100.0 / tempK) - 4.8489 * Math.log(tempK / 100.0) -
+                0.000544 * sal);
+    }
+
+    /**
+     * @param press
+     *         pressure, in hPa
+     * @param tempK
+     *         temperature, in Kelvin
+     * @param co2
+     *         CO2 value (xCO2 or pCO2) used for the mole fraction in the virial term
+     *
+     * @return the factor converting pCO2 to fCO2 (DOE handbook)
+     */
+    static double calcFugacityFactor(double press, double tempK, double co2) {
+        double frac = 1.0 - co2 / 1.0E6;
+        double virial = -1636.75 + 12.0408 * tempK - 0.0327957 * tempK * tempK +
+                0.0000316528 * tempK * tempK * tempK + 2.0 * frac * frac * (57.7 - 0.118 * tempK);
+        return Math.exp((press / 1013.25) * virial / (82.057 * tempK));
+    }
+
+    /**
+     * @return the fCO2 from a dry xCO2 value with the given pressure, water vapor pressure, and temperature (Kelvin)
+     */
+    static double xco2ToFco2(double xco2, double press, double pH2O, double tempK) {
+        double pco2 = xco2 * ((press - pH2O) / 1013.25);
+        return pco2 * calcFugacityFactor(press, tempK, xco2);
+    }
+
+    /**
+     * @return the fCO2 from a wet pCO2 value with the given pressure and temperature (Kelvin)
+     */
+    static double pco2ToFco2(double pco2, double press, double tempK) {
+        return pco2 * calcFugacityFactor(press, tempK, pco2);
+    }
+
+    /**
+     * Computes the ship speeds, in knots, to the next sample as done by the Ferret scripts calcSOCAT.jnl
+     * and sw_dist.jnl.  The speed for the last sample is that for the previous sample.  Note that, as in
+     * sw_dist.jnl, the cosine of half the change in latitude is computed treating degrees as radians.
+     *
+     * @param lons
+     *         longitudes of the samples, in degrees east
+     * @param lats
+     *         latitudes of the samples, in degrees north
+     * @param datenums
+     *         times of the samples, in days, to the minute
+     *
+     * @return ship speeds, NaN where the speed cannot be computed
+     */
+    static double[] calcSpeeds(double[] lons, double[] lats, double[] datenums) {
+        int numSamples = lons.length;
+        double[] speeds = new double[numSamples];
+        if ( numSamples < 2 ) {
+            for (int j = 0; j < numSamples; j++) {
+                speeds[j] = Double.NaN;
+            }
+            return speeds;
+        }
+        for (int j = 0; j < numSamples - 1; j++) {
+            double dlon = lons[j + 1] - lons[j];
+            if ( Math.abs(dlon) > 180.0 )
+                dlon = Math.signum(dlon) * (360.0 - Math.abs(dlon));
+            double dlat = lats[j + 1] - lats[j];
+            double dep = Math.cos(dlat / 2.0) * dlon;
+            // distance in nautical miles
+            double dist = 60.0 * Math.sqrt(dlat * dlat + dep * dep);
+            double hours = 24.0 * (datenums[j + 1] - datenums[j]);
+            speeds[j] = (hours != 0.0) ? dist / hours : Double.NaN;
+        }
+        speeds[numSamples - 1] = speeds[numSamples - 2];
+        return speeds;
+    }
+
+    /**
+     * @return the number of days from 1970-01-01 to the given date in the proleptic Gregorian calendar
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        long yr = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(yr, 400L);
+        long yoe = yr - era * 400L;
+        long doy = (153L * ((month > 2) ? month - 3 : month + 9) + 2L) / 5L + day - 1L;
+        long doe = yoe * 365L + yoe / 4L - yoe / 100L + doy;
+        return era * 146097L + doe - 719468L;
+    }
+
+    /**
+     * @return if the value is not missing (NaN), not infinite, and not zero
+     */
+    private static boolean isUsable(double value) {
+        return isFinite(value) && (value != 0.0);
+    }
+
+    private static boolean isFinite(double value) {
+        return !(Double.isNaN(value) || Double.isInfinite(value));
+    }
+
+    /**
+     * @return the values of the data column with the given type, with missing values as NaN;
+     *         all NaN if there is no data column with this type
+     */
+    private static double[] getDoubles(StdDataArray data, DoubleDashDataType dtype) {
+        int numSamples = data.getNumSamples();
+        Integer colIdx = data.getIndexOfType(dtype);
+        double[] values;
+        if ( colIdx == null ) {
+            values = new double[numSamples];
+            for (int j = 0; j < numSamples; j++) {
+                values[j] = Double.NaN;
+            }
+            return values;
+        }
+        values = data.getDoubleColumn(colIdx);
+        BitSet missing = data.getMissingBitmap(colIdx);
+        for (int j = missing.nextSetBit(0); j >= 0; j = missing.nextSetBit(j + 1)) {
+            values[j] = Double.NaN;
+        }
+        return values;
+    }
+
+    /**
+     * @return the values of the data column with the given type, with missing values as
+     *         {@link DashboardUtils#INT_MISSING_VALUE};
+     *         all missing if there is no data column with this type
+     */
+    private static int[] getInts(StdDataArray data, IntDashDataType dtype) {
+        int numSamples = data.getNumSamples();
+        Integer colIdx = data.getIndexOfType(dtype);
+        if ( colIdx == null ) {
+            int[] values = new int[numSamples];
+            for (int j = 0; j < numSamples; j++) {
+                values[j] = DashboardUtils.INT_MISSING_VALUE;
+            }
+            return values;
+        }
+        return data.getIntColumn(colIdx);
+    }
+
+    private static DoubleStdDataColumn doubleColumn(double[] values) {
+        DoubleStdDataColumn column = new DoubleStdDataColumn(values.length);
+        for (int j = 0; j < values.length; j++) {
+            if ( isFinite(values[j]) )
+                column.setDouble(j, values[j]);
+        }
+        return column;
+    }
+
+    private static StringStdDataColumn stringColumn(String[] values) {
+        StringStdDataColumn column = new StringStdDataColumn(values.length);
+        for (int j = 0; j < values.length; j++) {
+            if ( values[j] != null )
+                column.setString(j, values[j]);
+        }
+        return column;
+    }
+
+    /**
+     * Replaces the data column with the same type variable name as the given type, or adds the data column
+     * if there is no data column of this type.
+     */
+    private static void putColumn(ArrayList<DashDataType<?>> types, ArrayList<StdDataColumn> columns,
+            DashDataType<?> dtype, StdDataColumn column) {
+        for (int k = 0; k < types.size(); k++) {
+            if ( types.get(k).getVarName().equals(dtype.getVarName()) ) {
+                types.set(k, dtype);
+                columns.set(k, column);
+                return;
+            }
+        }
+        types.add(dtype);
+        columns.add(column);
+    }
+
+}
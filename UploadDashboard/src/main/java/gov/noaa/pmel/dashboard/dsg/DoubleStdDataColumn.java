@@ -0,0 +1,146 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A data column of standardized Double values kept as primitive doubles.
+ *
+ * @author Karl Smith
+ */
+public class DoubleStdDataColumn extends StdDataColumn {
+
+    private final double[] values;
+
+    /**
+     * Create a data column of Double values for the given number of samples with all values missing.
+     *
+     * @param numSamples
+     *         number of samples (rows) in this data column
+     *
+     * @throws IllegalArgumentException
+     *         if the number of samples is negative
+     */
+    public DoubleStdDataColumn(int numSamples) throws IllegalArgumentException {
+        super(numSamples);
+        values = new double[numSamples];
+        Arrays.fill(values, DashboardUtils.FP_MISSING_VALUE);
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value for this sample; {@link DashboardUtils#FP_MISSING_VALUE} if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public double getDouble(int sampleIdx) throws IndexOutOfBoundsException {
+        return values[sampleIdx];
+    }
+
+    /**
+     * Assign a (non-missing) value for a sample.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param value
+     *         value to assign
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public void setDouble(int sampleIdx, double value) throws IndexOutOfBoundsException {
+        values[sampleIdx] = value;
+        missing.clear(sampleIdx);
+    }
+
+    /**
+     * Assign the values for a range of samples.
+     *
+     * @param firstIdx
+     *         index of the first sample (row) to assign
+     * @param vals
+     *         values to assign to the samples starting at firstIdx
+     * @param valsMissing
+     *         bit j is set if vals[j] is missing; the value of the sample is then marked as missing
+     * @param numVals
+     *         number of values to assign
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the range of samples is invalid
+     */
+    public void setDoubles(int firstIdx, double[] vals, BitSet valsMissing, int numVals)
+            throws IndexOutOfBoundsException {
+        if ( (firstIdx < 0) || (numVals < 0) || (firstIdx + numVals > numSamples) )
+            throw new IndexOutOfBoundsException("invalid range of samples: " + firstIdx + " to " +
+                    (firstIdx + numVals - 1));
+        System.arraycopy(vals, 0, values, firstIdx, numVals);
+        missing.clear(firstIdx, firstIdx + numVals);
+        for (int j = valsMissing.nextSetBit(0); (j >= 0) && (j < numVals); j = valsMissing.nextSetBit(j + 1)) {
+            values[firstIdx + j] = DashboardUtils.FP_MISSING_VALUE;
+            missing.set(firstIdx + j);
+        }
+    }
+
+    /**
+     * @return a copy of the values in this data column; missing values are {@link DashboardUtils#FP_MISSING_VALUE}
+     */
+    public double[] getDoubles() {
+        return values.clone();
+    }
+
+    @Override
+    public Double getValue(int sampleIdx) throws IndexOutOfBoundsException {
+        if ( isMissing(sampleIdx) )
+            return null;
+        return values[sampleIdx];
+    }
+
+    @Override
+    public void setValue(int sampleIdx, Object value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        if ( value == null ) {
+            values[sampleIdx] = DashboardUtils.FP_MISSING_VALUE;
+            missing.set(sampleIdx);
+        }
+        else if ( value instanceof Double ) {
+            setDouble(sampleIdx, (Double) value);
+        }
+        else {
+            throw new IllegalArgumentException("value is not a Double: " + value.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public boolean holdsValuesOf(DashDataType<?> dtype) {
+        return dtype instanceof DoubleDashDataType;
+    }
+
+    @Override
+    public DoubleStdDataColumn copy() {
+        DoubleStdDataColumn dup = new DoubleStdDataColumn(numSamples);
+        System.arraycopy(values, 0, dup.values, 0, numSamples);
+        dup.missing.clear();
+        dup.missing.or(missing);
+        return dup;
+    }
+
+    @Override
+    protected boolean valueEquals(int sampleIdx, StdDataColumn other, int otherIdx) {
+        // Same comparison as Double.equals
+        return Double.doubleToLongBits(values[sampleIdx]) ==
+                Double.doubleToLongBits(((DoubleStdDataColumn) other).values[otherIdx]);
+    }
+
+    @Override
+    protected int valueHashCode(int sampleIdx) {
+        long bits = Double.doubleToLongBits(values[sampleIdx]);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+}
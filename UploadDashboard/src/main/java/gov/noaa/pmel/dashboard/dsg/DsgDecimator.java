@@ -0,0 +1,425 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import ucar.ma2.Array;
+import ucar.ma2.ArrayInt;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.NetcdfFileWriter.Version;
+import ucar.nc2.Variable;
+import ucar.nc2.write.Nc4Chunking;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Creates decimated-data DSG files from full-data DSG files in the same manner as the Ferret decimateSOCAT script:
+ * a piecewise-linear approximation of the longitude, latitude, and recommended fCO2 along the trajectory, keeping
+ * the samples where any of these three deviates from the approximation by more than its tolerance.  Trajectory
+ * variables are copied as-is; observation variables are written for only the selected samples.  The full-data DSG
+ * file is read one variable, and one block of samples, at a time so memory use is bounded by the number of samples
+ * times the three sampling variables.
+ *
+ * @author Karl Smith
+ */
+public class DsgDecimator {
+
+    /**
+     * Default longitude tolerance, in degrees
+     */
+    public static final double DEFAULT_LON_TOLERANCE = 1.0;
+    /**
+     * Default latitude tolerance, in degrees
+     */
+    public static final double DEFAULT_LAT_TOLERANCE = 1.0;
+    /**
+     * Default recommended fCO2 tolerance, in microatmospheres
+     */
+    public static final double DEFAULT_FCO2_TOLERANCE = 4.0;
+
+    private static final String NUM_OBS_VARNAME = "num_obs";
+    private static final int SAMPLES_PER_BLOCK = 100000;
+
+    private final double lonTolerance;
+    private final double latTolerance;
+    private final double fco2Tolerance;
+
+    /**
+     * Decimator using the default tolerances of the Ferret decimateSOCAT script.
+     */
+    public DsgDecimator() {
+        this(DEFAULT_LON_TOLERANCE, DEFAULT_LAT_TOLERANCE, DEFAULT_FCO2_TOLERANCE);
+    }
+
+    /**
+     * @param lonTolerance
+     *         longitude tolerance, in degrees
+     * @param latTolerance
+     *         latitude tolerance, in degrees
+     * @param fco2Tolerance
+     *         recommended fCO2 tolerance, in microatmospheres
+     *
+     * @throws IllegalArgumentException
+     *         if any tolerance is not positive
+     */
+    public DsgDecimator(double lonTolerance, double latTolerance, double fco2Tolerance)
+            throws IllegalArgumentException {
+        if ( !((lonTolerance > 0.0) && (latTolerance > 0.0) && (fco2Tolerance > 0.0)) )
+            throw new IllegalArgumentException("tolerances must be positive");
+        this.lonTolerance = lonTolerance;
+        this.latTolerance = latTolerance;
+        this.fco2Tolerance = fco2Tolerance;
+    }
+
+    /**
+     * Creates the decimated-data DSG file from the full-data DSG file.
+     *
+     * @param fullDsgFile
+     *         full-data DSG file to read
+     * @param decDsgFile
+     *         decimated-data DSG file to create; if it exists it is overwritten.  If this is a {@link DsgNcFile}
+     *         with NetCDF-4 chunking set, it is created as a NetCDF-4 file using that chunking.
+     *
+     * @return number of samples in the decimated-data DSG file
+     *
+     * @throws IllegalArgumentException
+     *         if the full-data DSG file is missing the required longitude, latitude, or recommended fCO2 variables
+     * @throws IOException
+     *         if reading the full-data DSG file or writing the decimated-data DSG file throws one
+     */
+    public int decimate(File fullDsgFile, File decDsgFile) throws IllegalArgumentException, IOException {
+        NetcdfFile fullNc = NetcdfFile.open(fullDsgFile.getPath());
+        try {
+            Variable lonVar = fullNc.findVariable(DashboardServerUtils.LONGITUDE.getVarName());
+            if ( lonVar == null )
+                throw new IllegalArgumentException("Unable to find variable " +
+                        DashboardServerUtils.LONGITUDE.getVarName() + " in " + fullDsgFile.getName());
+            Dimension obsDim = lonVar.getDimension(0);
+            int numObs = obsDim.getLength();
+
+            // Use whichever of longitude and lon360 that does not have the largest jump (crossing the dateline)
+            double[] lons = readDoubles(lonVar);
+            double[] lon360s;
+            Variable lon360Var = fullNc.findVariable(SocatTypes.LON360.getVarName());
+            if ( lon360Var != null ) {
+                lon360s = readDoubles(lon360Var);
+            }
+            else {
+                lon360s = new double[numObs];
+                for (int j = 0; j < numObs; j++) {
+                    lon360s[j] = lons[j] - 360.0 * Math.floor(lons[j] / 360.0);
+                }
+            }
+            if ( Math.abs(maxDifference(lons)) >= Math.abs(maxDifference(lon360s)) )
+                lons = lon360s;
+            lon360s = null;
+            double[] lats = readDoubles(findVariable(fullNc, DashboardServerUtils.LATITUDE.getVarName()));
+            double[] fco2s = readDoubles(findVariable(fullNc, SocatTypes.FCO2_REC.getVarName()));
+
+            int[] selected = selectSamples(lons, lats, fco2s, lonTolerance, latTolerance, fco2Tolerance);
+            lons = null;
+            lats = null;
+            fco2s = null;
+
+            String decimation = Integer.toString(numObs) + " original number of obs. Piecewise decimated to " +
+                    Integer.toString(selected.length) + " obs using tolerances: lon " + Double.toString(lonTolerance) +
+                    ", lat " + Double.toString(latTolerance) + ", fco2_rec " + Double.toString(fco2Tolerance);
+            writeDecimated(fullNc, obsDim, selected, decimation, decDsgFile);
+            return selected.length;
+        } finally {
+            fullNc.close();
+        }
+    }
+
+    /**
+     * Selects the samples to keep in a piecewise-linear approximation of three variables along a trajectory.  The
+     * approximation starts with a single segment between the first and last valid samples.  Any segment containing a
+     * sample where any variable differs from the linear interpolation (in sample index) by more than the tolerance for
+     * that variable is split at the sample with the largest deviation (relative to the tolerance).  Samples where any
+     * of the three values is not finite are never selected, except that the first sample is selected if there are no
+     * valid samples.
+     *
+     * @param xs
+     *         first variable values
+     * @param ys
+     *         second variable values
+     * @param zs
+     *         third variable values
+     * @param xTol
+     *         tolerance for the first variable
+     * @param yTol
+     *         tolerance for the second variable
+     * @param zTol
+     *         tolerance for the third variable
+     *
+     * @return the indices, in increasing order, of the samples selected
+     *
+     * @throws IllegalArgumentException
+     *         if the arrays are not all the same length
+     */
+    public static int[] selectSamples(double[] xs, double[] ys, double[] zs, double xTol, double yTol, double zTol)
+            throws IllegalArgumentException {
+        int numObs = xs.length;
+        if ( (ys.length != numObs) || (zs.length != numObs) )
+            throw new IllegalArgumentException("different number of values given");
+
+        // Work only with the valid samples
+        int[] valid = new int[numObs];
+        int numValid = 0;
+        for (int j = 0; j < numObs; j++) {
+            if ( isFinite(xs[j]) && isFinite(ys[j]) && isFinite(zs[j]) ) {
+                valid[numValid] = j;
+                numValid++;
+            }
+        }
+        if ( numValid == 0 )
+            return (numObs > 0) ? new int[] {0} : new int[0];
+        if ( numValid <= 2 )
+            return Arrays.copyOf(valid, numValid);
+
+        boolean[] keep = new boolean[numValid];
+        keep[0] = true;
+        keep[numValid - 1] = true;
+        // Segments still to check as pairs of indices into valid
+        int[] stack = new int[2 * numValid];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = numValid - 1;
+        while ( top > 0 ) {
+            int end = stack[--top];
+            int start = stack[--top];
+            if ( end - start < 2 )
+                continue;
+            int first = valid[start];
+            int last = valid[end];
+            double span = last - first;
+            double dx = xs[last] - xs[first];
+            double dy = ys[last] - ys[first];
+            double dz = zs[last] - zs[first];
+            int splitAt = -1;
+            double maxDev = 1.0;
+            for (int k = start + 1; k < end; k++) {
+                int j = valid[k];
+                double frac = (j - first) / span;
+                double dev = Math.max(Math.abs(xs[j] - (xs[first] + frac * dx)) / xTol,
+                        Math.max(Math.abs(ys[j] - (ys[first] + frac * dy)) / yTol,
+                                Math.abs(zs[j] - (zs[first] + frac * dz)) / zTol));
+                if ( dev > maxDev ) {
+                    maxDev = dev;
+                    splitAt = k;
+                }
+            }
+            if ( splitAt >= 0 ) {
+                keep[splitAt] = true;
+                stack[top++] = start;
+                stack[top++] = splitAt;
+                stack[top++] = splitAt;
+                stack[top++] = end;
+            }
+        }
+
+        int numKept = 0;
+        for (int k = 0; k < numValid; k++) {
+            if ( keep[k] )
+                numKept++;
+        }
+        int[] selected = new int[numKept];
+        numKept = 0;
+        for (int k = 0; k < numValid; k++) {
+            if ( keep[k] ) {
+                selected[numKept] = valid[k];
+                numKept++;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Writes the decimated-data DSG file.
+     */
+    private void writeDecimated(NetcdfFile fullNc, Dimension obsDim, int[] selected, String decimation,
+            File decDsgFile) throws IOException {
+        String obsDimName = obsDim.getShortName();
+        // Use the same file format as requested for the decimated-data DSG file
+        Nc4Chunking chunking = null;
+        if ( decDsgFile instanceof DsgNcFile )
+            chunking = ((DsgNcFile) decDsgFile).getNetcdf4Chunking();
+        NetcdfFileWriter decNc;
+        if ( chunking != null )
+            decNc = NetcdfFileWriter.createNew(Version.netcdf4, decDsgFile.getPath(), chunking);
+        else
+            decNc = NetcdfFileWriter.createNew(Version.netcdf3, decDsgFile.getPath());
+        try {
+            HashMap<String,Dimension> decDims = new HashMap<String,Dimension>();
+            for (Dimension dim : fullNc.getDimensions()) {
+                String name = dim.getShortName();
+                int length = obsDimName.equals(name) ? selected.length : dim.getLength();
+                decDims.put(name, decNc.addDimension(null, name, length));
+            }
+            for (Attribute attr : fullNc.getGlobalAttributes()) {
+                if ( !"decimation".equals(attr.getShortName()) )
+                    decNc.addGroupAttribute(null, attr);
+            }
+            decNc.addGroupAttribute(null, new Attribute("decimation", decimation));
+
+            ArrayList<Variable> fullVars = new ArrayList<Variable>(fullNc.getVariables());
+            for (Variable fullVar : fullVars) {
+                List<Dimension> dims = new ArrayList<Dimension>(fullVar.getRank());
+                for (Dimension dim : fullVar.getDimensions()) {
+                    dims.add(decDims.get(dim.getShortName()));
+                }
+                Variable decVar = decNc.addVariable(null, fullVar.getShortName(), fullVar.getDataType(), dims);
+                for (Attribute attr : fullVar.getAttributes()) {
+                    if ( !"note".equals(attr.getShortName()) )
+                        decNc.addVariableAttribute(decVar, attr);
+                }
+                if ( SocatTypes.NOBS_DECI.getVarName().equals(fullVar.getShortName()) )
+                    decNc.addVariableAttribute(decVar, new Attribute("note", "Piecewise decimated"));
+            }
+            // The sequence number within the decimated data, replacing any existing value
+            String sampleNumName = DashboardServerUtils.SAMPLE_NUMBER.getVarName();
+            Variable sampleNumVar = decNc.findVariable(sampleNumName);
+            if ( sampleNumVar == null ) {
+                List<Dimension> dims = new ArrayList<Dimension>(1);
+                dims.add(decDims.get(obsDimName));
+                sampleNumVar = decNc.addVariable(null, sampleNumName, DataType.INT, dims);
+                decNc.addVariableAttribute(sampleNumVar,
+                        new Attribute("long_name", "sequence number for decimated dataset"));
+                decNc.addVariableAttribute(sampleNumVar, new Attribute("missing_value", Integer.valueOf(-1)));
+                decNc.addVariableAttribute(sampleNumVar, new Attribute("_FillValue", Integer.valueOf(-1)));
+            }
+
+            decNc.create();
+
+            for (Variable fullVar : fullVars) {
+                String varName = fullVar.getShortName();
+                Variable decVar = decNc.findVariable(varName);
+                if ( sampleNumName.equals(varName) ) {
+                    // written below
+                    continue;
+                }
+                if ( (fullVar.getRank() > 0) && obsDimName.equals(fullVar.getDimension(0).getShortName()) ) {
+                    decNc.write(decVar, readSelected(fullVar, selected));
+                }
+                else if ( NUM_OBS_VARNAME.equals(varName) || SocatTypes.NOBS_DECI.getVarName().equals(varName) ) {
+                    Array counts = fullVar.read();
+                    for (int k = 0; k < counts.getSize(); k++) {
+                        counts.setInt(k, selected.length);
+                    }
+                    decNc.write(decVar, counts);
+                }
+                else {
+                    decNc.write(decVar, fullVar.read());
+                }
+            }
+            ArrayInt.D1 sampleNums = new ArrayInt.D1(selected.length);
+            for (int k = 0; k < selected.length; k++) {
+                sampleNums.set(k, k + 1);
+            }
+            decNc.write(sampleNumVar, sampleNums);
+        } catch ( InvalidRangeException ex ) {
+            throw new IOException("Unexpected invalid range writing " + decDsgFile.getName() + ": " +
+                    ex.getMessage(), ex);
+        } finally {
+            decNc.close();
+        }
+    }
+
+    /**
+     * Reads the selected samples of a variable whose first dimension is the observation dimension,
+     * one block of samples at a time.
+     */
+    private static Array readSelected(Variable fullVar, int[] selected) throws IOException, InvalidRangeException {
+        int[] shape = fullVar.getShape();
+        int rowSize = 1;
+        for (int d = 1; d < shape.length; d++) {
+            rowSize *= shape[d];
+        }
+        int[] decShape = shape.clone();
+        decShape[0] = selected.length;
+        Array decData = Array.factory(fullVar.getDataType(), decShape);
+        int[] origin = new int[shape.length];
+        int[] blockShape = shape.clone();
+        int k = 0;
+        for (int blockStart = 0; (blockStart < shape[0]) && (k < selected.length); blockStart += SAMPLES_PER_BLOCK) {
+            int blockEnd = Math.min(blockStart + SAMPLES_PER_BLOCK, shape[0]);
+            if ( selected[k] >= blockEnd )
+                continue;
+            origin[0] = blockStart;
+            blockShape[0] = blockEnd - blockStart;
+            Array block = fullVar.read(origin, blockShape);
+            while ( (k < selected.length) && (selected[k] < blockEnd) ) {
+                int fullOffset = (selected[k] - blockStart) * rowSize;
+                int decOffset = k * rowSize;
+                for (int m = 0; m < rowSize; m++) {
+                    decData.setObject(decOffset + m, block.getObject(fullOffset + m));
+                }
+                k++;
+            }
+        }
+        return decData;
+    }
+
+    /**
+     * @return the values of the variable with missing values as NaN
+     */
+    private static double[] readDoubles(Variable var) throws IOException {
+        Array data = var.read();
+        int num = (int) data.getSize();
+        double[] values = new double[num];
+        Double missVal = getMissingValue(var, "missing_value");
+        Double fillVal = getMissingValue(var, "_FillValue");
+        for (int j = 0; j < num; j++) {
+            double val = data.getDouble(j);
+            if ( ((missVal != null) && (val == missVal.doubleValue())) ||
+                    ((fillVal != null) && (val == fillVal.doubleValue())) )
+                val = Double.NaN;
+            values[j] = val;
+        }
+        return values;
+    }
+
+    private static Double getMissingValue(Variable var, String attrName) {
+        Attribute attr = var.findAttribute(attrName);
+        if ( (attr == null) || (attr.getNumericValue() == null) )
+            return null;
+        return Double.valueOf(attr.getNumericValue().doubleValue());
+    }
+
+    private static Variable findVariable(NetcdfFile ncfile, String varName) throws IllegalArgumentException {
+        Variable var = ncfile.findVariable(varName);
+        if ( var == null )
+            throw new IllegalArgumentException("Unable to find variable " + varName + " in " + ncfile.getLocation());
+        return var;
+    }
+
+    /**
+     * @return the largest forward difference of the values, ignoring NaNs; zero if there are not two valid values
+     */
+    private static double maxDifference(double[] values) {
+        double maxDiff = 0.0;
+        boolean found = false;
+        for (int j = 1; j < values.length; j++) {
+            double diff = values[j] - values[j - 1];
+            if ( isFinite(diff) && (!found || (diff > maxDiff)) ) {
+                maxDiff = diff;
+                found = true;
+            }
+        }
+        return maxDiff;
+    }
+
+    private static boolean isFinite(double value) {
+        return !(Double.isNaN(value) || Double.isInfinite(value));
+    }
+
+}
@@ -0,0 +1,324 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+/**
+ * Summary of the extents of the data in a full-data DSG file: the number of rows, the limits of the valid
+ * longitudes, latitudes, and times, and the longitude, latitude, and time limits of the good (WOCE flag
+ * blank, 2, or 3) data.  Instances are immutable.
+ *
+ * @author Karl Smith
+ */
+public class DsgExtent {
+
+    private String datasetId;
+    private long lastModified;
+    private int numRows;
+    private int numValidRows;
+    private int numGoodRows;
+    private double[] timeMinMax;
+    private double[] latMinMax;
+    private double[] lonMinMax;
+    private Double[] goodLimits;
+
+    /**
+     * Creates a DSG extent with the given values.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param lastModified
+     *         last-modified time of the full-data DSG file from which these extents were obtained
+     * @param numRows
+     *         total number of data rows
+     * @param numValidRows
+     *         number of rows with a valid longitude, latitude, and time
+     * @param numGoodRows
+     *         number of valid rows that are not WOCE-flagged as bad
+     * @param timeMinMax
+     *         the minimum and maximum of the valid times; {@link DashboardUtils#FP_MISSING_VALUE} if none
+     * @param latMinMax
+     *         the minimum and maximum of the valid latitudes; {@link DashboardUtils#FP_MISSING_VALUE} if none
+     * @param lonMinMax
+     *         the minimum and maximum of the valid longitudes; {@link DashboardUtils#FP_MISSING_VALUE} if none
+     * @param goodLimits
+     *         the limits { westLon, eastLon, southLat, northLat, beginTime, endTime } of the good data
+     *         as given by {@link DsgMetadata#computeLonLatTimeLimits(Double[], Double[], Double[], java.util.Set)};
+     *         values are null if there are no good data
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, or if any array given does not have the expected length
+     */
+    public DsgExtent(String datasetId, long lastModified, int numRows, int numValidRows, int numGoodRows,
+            double[] timeMinMax, double[] latMinMax, double[] lonMinMax, Double[] goodLimits)
+            throws IllegalArgumentException {
+        this.datasetId = DashboardServerUtils.checkDatasetID(datasetId);
+        if ( (timeMinMax.length != 2) || (latMinMax.length != 2) || (lonMinMax.length != 2) )
+            throw new IllegalArgumentException("minimum-maximum arrays must have two elements");
+        if ( goodLimits.length != 6 )
+            throw new IllegalArgumentException("good-data limits array must have six elements");
+        this.lastModified = lastModified;
+        this.numRows = numRows;
+        this.numValidRows = numValidRows;
+        this.numGoodRows = numGoodRows;
+        this.timeMinMax = timeMinMax.clone();
+        this.latMinMax = latMinMax.clone();
+        this.lonMinMax = lonMinMax.clone();
+        this.goodLimits = goodLimits.clone();
+    }
+
+    /**
+     * Reads the longitudes, latitudes, times, and WOCE_CO2_water flags from a full-data DSG file
+     * and computes the extents of the data.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param dsgFile
+     *         full-data DSG file for this dataset
+     *
+     * @return the extents of the data in the DSG file
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, or if the data in the DSG file are inconsistent
+     * @throws IOException
+     *         if problems reading from the DSG file
+     */
+    public static DsgExtent fromDsgFile(String datasetId, DsgNcFile dsgFile)
+            throws IllegalArgumentException, IOException {
+        // Get the last-modified time before reading so any later change makes this extent stale
+        long lastModified = dsgFile.lastModified();
+        double[][] lonlattimes = dsgFile.readLonLatTimeDataValues();
+        String[] woceFlags = dsgFile.readStringVarDataValues(SocatTypes.WOCE_CO2_WATER.getVarName());
+        int numRows = woceFlags.length;
+        if ( (lonlattimes[0].length != numRows) || (lonlattimes[1].length != numRows) ||
+                (lonlattimes[2].length != numRows) )
+            throw new IllegalArgumentException("Unexpected different number of data values " +
+                    "for WOCE flags, longitudes, latitudes, and times");
+        Double[] longitudes = new Double[numRows];
+        Double[] latitudes = new Double[numRows];
+        Double[] times = new Double[numRows];
+        HashSet<Integer> errRows = new HashSet<Integer>();
+        int numValidRows = 0;
+        for (int k = 0; k < numRows; k++) {
+            longitudes[k] = lonlattimes[0][k];
+            latitudes[k] = lonlattimes[1][k];
+            times[k] = lonlattimes[2][k];
+            boolean valid = !(isMissing(lonlattimes[0][k]) || isMissing(lonlattimes[1][k]) ||
+                    isMissing(lonlattimes[2][k]));
+            if ( valid )
+                numValidRows++;
+            // If not WOCE-2 or WOCE-3, or if lon/lat/time missing, mark this as a row to ignore
+            if ( !(valid && (" ".equals(woceFlags[k]) || "2".equals(woceFlags[k]) || "3".equals(woceFlags[k]))) )
+                errRows.add(k);
+        }
+        Double[] goodLimits = DsgMetadata.computeLonLatTimeLimits(longitudes, latitudes, times, errRows);
+        return new DsgExtent(datasetId, lastModified, numRows, numValidRows, numRows - errRows.size(),
+                DashboardServerUtils.getMinMaxValidData(lonlattimes[2]),
+                DashboardServerUtils.getMinMaxValidData(lonlattimes[1]),
+                DashboardServerUtils.getMinMaxValidData(lonlattimes[0]), goodLimits);
+    }
+
+    private static boolean isMissing(double value) {
+        return DashboardUtils.closeTo(value, DashboardUtils.FP_MISSING_VALUE,
+                DashboardUtils.MAX_RELATIVE_ERROR, DashboardUtils.MAX_ABSOLUTE_ERROR);
+    }
+
+    /**
+     * @return the standardized ID of the dataset
+     */
+    public String getDatasetId() {
+        return datasetId;
+    }
+
+    /**
+     * @return the NODC code (ship code) of the dataset obtained from the dataset ID
+     */
+    public String getNodcCode() {
+        return DashboardServerUtils.getShipCodeFromDatasetID(datasetId);
+    }
+
+    /**
+     * @return the last-modified time of the full-data DSG file from which these extents were obtained
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the total number of data rows
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return the number of rows with a valid longitude, latitude, and time
+     */
+    public int getNumValidRows() {
+        return numValidRows;
+    }
+
+    /**
+     * @return the number of rows with a valid longitude, latitude, and time that are not WOCE-flagged as bad
+     */
+    public int getNumGoodRows() {
+        return numGoodRows;
+    }
+
+    /**
+     * @return the array { min, max } of the valid times (seconds since 1970-01-01T00:00:00Z) in the data;
+     *         values are {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid times.
+     */
+    public double[] getTimeMinMax() {
+        return timeMinMax.clone();
+    }
+
+    /**
+     * @return the array { min, max } of the valid latitudes in the data;
+     *         values are {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid latitudes.
+     */
+    public double[] getLatMinMax() {
+        return latMinMax.clone();
+    }
+
+    /**
+     * @return the array { min, max } of the valid longitudes, as given, in the data;
+     *         values are {@link DashboardUtils#FP_MISSING_VALUE} if there are no valid longitudes.
+     */
+    public double[] getLonMinMax() {
+        return lonMinMax.clone();
+    }
+
+    /**
+     * @return if there are valid times and latitudes in the data
+     */
+    public boolean hasValidTimesAndLats() {
+        return !((timeMinMax[0] == DashboardUtils.FP_MISSING_VALUE) ||
+                (timeMinMax[1] == DashboardUtils.FP_MISSING_VALUE) ||
+                (latMinMax[0] == DashboardUtils.FP_MISSING_VALUE) ||
+                (latMinMax[1] == DashboardUtils.FP_MISSING_VALUE));
+    }
+
+    /**
+     * @return the westmost longitude, in [-180,180], of the good data; null if there are no good data
+     */
+    public Double getWestmostLongitude() {
+        return goodLimits[0];
+    }
+
+    /**
+     * @return the eastmost longitude, in [-180,180], of the good data; null if there are no good data
+     */
+    public Double getEastmostLongitude() {
+        return goodLimits[1];
+    }
+
+    /**
+     * @return the southmost latitude of the good data; null if there are no good data
+     */
+    public Double getSouthmostLatitude() {
+        return goodLimits[2];
+    }
+
+    /**
+     * @return the northmost latitude of the good data; null if there are no good data
+     */
+    public Double getNorthmostLatitude() {
+        return goodLimits[3];
+    }
+
+    /**
+     * @return the earliest time of the good data; null if there are no good data
+     */
+    public Double getBeginTime() {
+        return goodLimits[4];
+    }
+
+    /**
+     * @return the latest time of the good data; null if there are no good data
+     */
+    public Double getEndTime() {
+        return goodLimits[5];
+    }
+
+    /**
+     * @return a copy of these extents with the given last-modified time
+     */
+    public DsgExtent withLastModified(long lastModified) {
+        return new DsgExtent(datasetId, lastModified, numRows, numValidRows, numGoodRows,
+                timeMinMax, latMinMax, lonMinMax, goodLimits);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = datasetId.hashCode();
+        result = result * prime + (int) (lastModified ^ (lastModified >>> 32));
+        result = result * prime + numRows;
+        result = result * prime + numValidRows;
+        result = result * prime + numGoodRows;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+        if ( !(obj instanceof DsgExtent) )
+            return false;
+        DsgExtent other = (DsgExtent) obj;
+        if ( !datasetId.equals(other.datasetId) )
+            return false;
+        if ( lastModified != other.lastModified )
+            return false;
+        if ( numRows != other.numRows )
+            return false;
+        if ( numValidRows != other.numValidRows )
+            return false;
+        if ( numGoodRows != other.numGoodRows )
+            return false;
+        for (int k = 0; k < 2; k++) {
+            if ( Double.compare(timeMinMax[k], other.timeMinMax[k]) != 0 )
+                return false;
+            if ( Double.compare(latMinMax[k], other.latMinMax[k]) != 0 )
+                return false;
+            if ( Double.compare(lonMinMax[k], other.lonMinMax[k]) != 0 )
+                return false;
+        }
+        for (int k = 0; k < 6; k++) {
+            if ( goodLimits[k] == null ) {
+                if ( other.goodLimits[k] != null )
+                    return false;
+            }
+            else if ( !goodLimits[k].equals(other.goodLimits[k]) )
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DsgExtent[ datasetId=" + datasetId +
+                ", lastModified=" + lastModified +
+                ", numRows=" + numRows +
+                ", numValidRows=" + numValidRows +
+                ", numGoodRows=" + numGoodRows +
+                ", timeMinMax=[" + timeMinMax[0] + ", " + timeMinMax[1] + "]" +
+                ", latMinMax=[" + latMinMax[0] + ", " + latMinMax[1] + "]" +
+                ", lonMinMax=[" + lonMinMax[0] + ", " + lonMinMax[1] + "]" +
+                ", westmostLongitude=" + goodLimits[0] +
+                ", eastmostLongitude=" + goodLimits[1] +
+                ", southmostLatitude=" + goodLimits[2] +
+                ", northmostLatitude=" + goodLimits[3] +
+                ", beginTime=" + goodLimits[4] +
+                ", endTime=" + goodLimits[5] +
+                " ]";
+    }
+
+}
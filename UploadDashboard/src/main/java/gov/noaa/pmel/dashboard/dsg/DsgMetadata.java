@@ -511,6 +511,37 @@ public class DsgMetadata {
 
     public void assignLonLatTimeLimits(Double[] sampleLongitudes, Double[] sampleLatitudes,
             Double[] sampleTimes, Set<Integer> errRows) throws IllegalArgumentException {
+        Double[] limits = computeLonLatTimeLimits(sampleLongitudes, sampleLatitudes, sampleTimes, errRows);
+        setWestmostLongitude(limits[0]);
+        setEastmostLongitude(limits[1]);
+        setSouthmostLatitude(limits[2]);
+        setNorthmostLatitude(limits[3]);
+        setBeginTime(limits[4]);
+        setEndTime(limits[5]);
+    }
+
+    /**
+     * Computes the longitude, latitude, and time limits of the given data, ignoring the given error rows.
+     * The longitude limits account for crossing the modulo meridian and are returned in [-180,180].
+     *
+     * @param sampleLongitudes
+     *         longitudes of the data
+     * @param sampleLatitudes
+     *         latitudes of the data
+     * @param sampleTimes
+     *         times of the data
+     * @param errRows
+     *         indices of the rows to ignore
+     *
+     * @return the array { westLon, eastLon, southLat, northLat, beginTime, endTime };
+     *         values are null if there is no row that is not ignored
+     *
+     * @throws IllegalArgumentException
+     *         if the number of longitudes, latitudes, and times do not match, or
+     *         if a longitude, latitude, or time of a row not ignored is invalid
+     */
+    public static Double[] computeLonLatTimeLimits(Double[] sampleLongitudes, Double[] sampleLatitudes,
+            Double[] sampleTimes, Set<Integer> errRows) throws IllegalArgumentException {
         int numRows = sampleTimes.length;
         if ( (sampleLongitudes.length != numRows) || (sampleLatitudes.length != numRows) )
             throw new IllegalArgumentException("Number of longitudes, latitudes, and times do not match");
@@ -604,12 +635,7 @@ public class DsgMetadata {
                 }
             }
         }
-        setBeginTime(beginTime);
-        setEndTime(endTime);
-        setSouthmostLatitude(southLat);
-        setNorthmostLatitude(northLat);
-        setWestmostLongitude(westLon);
-        setEastmostLongitude(eastLon);
+        return new Double[] { westLon, eastLon, southLat, northLat, beginTime, endTime };
     }
 
     @Override
@@ -0,0 +1,121 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import ucar.ma2.DataType;
+import ucar.nc2.Dimension;
+import ucar.nc2.Variable;
+import ucar.nc2.write.Nc4Chunking;
+
+import java.util.List;
+
+/**
+ * Chunking and compression of the variables in NetCDF-4 DSG files.  Variables along the obs dimension are chunked
+ * along that dimension, with any string length dimension kept whole in each chunk, and compressed using deflate and
+ * (for multi-byte data types) shuffle.  The trajectory variables are small and are stored contiguously and
+ * uncompressed.
+ *
+ * @author Karl Smith
+ */
+public class DsgNcChunking implements Nc4Chunking {
+
+    /**
+     * Name of the dimension of data samples in DSG files
+     */
+    public static final String OBS_DIMENSION_NAME = "obs";
+    /**
+     * Default number of samples in each chunk
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+    /**
+     * Default deflate compression level
+     */
+    public static final int DEFAULT_DEFLATE_LEVEL = 5;
+
+    private final int chunkSize;
+    private final int deflateLevel;
+    private final boolean shuffle;
+
+    /**
+     * Chunking with {@link #DEFAULT_CHUNK_SIZE} samples per chunk,
+     * {@link #DEFAULT_DEFLATE_LEVEL} deflate compression, and shuffle.
+     */
+    public DsgNcChunking() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_DEFLATE_LEVEL, true);
+    }
+
+    /**
+     * @param chunkSize
+     *         maximum number of samples in each chunk
+     * @param deflateLevel
+     *         deflate compression level, from 0 (no compression) to 9 (maximum compression)
+     * @param shuffle
+     *         shuffle the bytes of multi-byte values before compression?
+     *
+     * @throws IllegalArgumentException
+     *         if the chunk size is not positive or the deflate level is not valid
+     */
+    public DsgNcChunking(int chunkSize, int deflateLevel, boolean shuffle) throws IllegalArgumentException {
+        if ( chunkSize < 1 )
+            throw new IllegalArgumentException("invalid chunk size: " + chunkSize);
+        if ( (deflateLevel < 0) || (deflateLevel > 9) )
+            throw new IllegalArgumentException("invalid deflate level: " + deflateLevel);
+        this.chunkSize = chunkSize;
+        this.deflateLevel = deflateLevel;
+        this.shuffle = shuffle;
+    }
+
+    /**
+     * @return the maximum number of samples in each chunk
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return true if the variable is along the obs dimension
+     */
+    @Override
+    public boolean isChunked(Variable var) {
+        List<Dimension> dims = var.getDimensions();
+        if ( dims.isEmpty() )
+            return false;
+        return OBS_DIMENSION_NAME.equals(dims.get(0).getShortName());
+    }
+
+    /**
+     * @return the chunk shape for the variable: up to the chunk size along the obs dimension,
+     *         and the full length of any other dimension
+     */
+    @Override
+    public long[] computeChunking(Variable var) {
+        int[] shape = var.getShape();
+        long[] chunks = new long[shape.length];
+        for (int k = 0; k < shape.length; k++) {
+            chunks[k] = Math.max(shape[k], 1);
+        }
+        if ( isChunked(var) )
+            chunks[0] = Math.min(chunks[0], chunkSize);
+        return chunks;
+    }
+
+    /**
+     * @return the deflate level for chunked variables; zero for other variables
+     */
+    @Override
+    public int getDeflateLevel(Variable var) {
+        if ( !isChunked(var) )
+            return 0;
+        return deflateLevel;
+    }
+
+    /**
+     * @return whether to shuffle chunked variables with multi-byte values
+     */
+    @Override
+    public boolean isShuffle(Variable var) {
+        if ( !shuffle || !isChunked(var) )
+            return false;
+        DataType dtype = var.getDataType();
+        return (dtype != DataType.CHAR) && (dtype != DataType.BYTE);
+    }
+
+}
@@ -22,11 +22,16 @@ import ucar.nc2.NetcdfFile;
 import ucar.nc2.NetcdfFileWriter;
 import ucar.nc2.NetcdfFileWriter.Version;
 import ucar.nc2.Variable;
+import ucar.nc2.write.Nc4Chunking;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.TreeSet;
@@ -55,6 +60,7 @@ public class DsgNcFile extends File {
 
     private DsgMetadata metadata;
     private StdDataArray stddata;
+    private Nc4Chunking nc4Chunking;
 
     /**
      * See {@link java.io.File#File(java.lang.String)} The internal metadata and data array references are set null.
@@ -63,6 +69,7 @@ public class DsgNcFile extends File {
         super(filename);
         metadata = null;
         stddata = null;
+        nc4Chunking = null;
     }
 
     /**
@@ -73,6 +80,25 @@ public class DsgNcFile extends File {
         super(parent, child);
         metadata = null;
         stddata = null;
+        nc4Chunking = null;
+    }
+
+    /**
+     * @param chunking
+     *         if not null, this DSG file is created as a NetCDF-4 file using this chunking and compression of the
+     *         variables; if null, this DSG file is created as a NetCDF-3 file.  Writing NetCDF-4 files requires
+     *         the NetCDF C library.
+     */
+    public void setNetcdf4Chunking(Nc4Chunking chunking) {
+        nc4Chunking = chunking;
+    }
+
+    /**
+     * @return the chunking and compression used to create this DSG file as a NetCDF-4 file;
+     *         null if this DSG file is created as a NetCDF-3 file
+     */
+    public Nc4Chunking getNetcdf4Chunking() {
+        return nc4Chunking;
     }
 
     /**
@@ -187,7 +213,11 @@ public class DsgNcFile extends File {
         if ( knownDataTypes.isEmpty() )
             throw new IllegalArgumentException("no data file types given");
 
-        NetcdfFileWriter ncfile = NetcdfFileWriter.createNew(Version.netcdf3, getPath());
+        NetcdfFileWriter ncfile;
+        if ( nc4Chunking != null )
+            ncfile = NetcdfFileWriter.createNew(Version.netcdf4, getPath(), nc4Chunking);
+        else
+            ncfile = NetcdfFileWriter.createNew(Version.netcdf3, getPath());
         try {
             // According to the CF standard if a file only has one trajectory,
             // then the trajectory dimension is not necessary.
@@ -366,8 +396,9 @@ public class DsgNcFile extends File {
                     // Data Stings
                     ArrayChar.D2 dvar = new ArrayChar.D2(numSamples, maxDataChar);
                     if ( k >= 0 ) {
+                        String[] dvalues = stddata.getStringColumn(k);
                         for (int j = 0; j < numSamples; j++) {
-                            String dvalue = (String) stddata.getStdVal(j, k);
+                            String dvalue = dvalues[j];
                             if ( dvalue == null )
                                 dvalue = missVal;
                             dvar.setString(j, dvalue.trim());
@@ -384,11 +415,10 @@ public class DsgNcFile extends File {
                     // Data Integers
                     ArrayInt.D1 dvar = new ArrayInt.D1(numSamples);
                     if ( k >= 0 ) {
+                        // Missing values are already INT_MISSING_VALUE
+                        int[] dvalues = stddata.getIntColumn(k);
                         for (int j = 0; j < numSamples; j++) {
-                            Integer dvalue = (Integer) stddata.getStdVal(j, k);
-                            if ( dvalue == null )
-                                dvalue = DashboardUtils.INT_MISSING_VALUE;
-                            dvar.set(j, dvalue);
+                            dvar.set(j, dvalues[j]);
                         }
                     }
                     else {
@@ -402,9 +432,11 @@ public class DsgNcFile extends File {
                     // Data Doubles
                     ArrayDouble.D1 dvar = new ArrayDouble.D1(numSamples);
                     if ( k >= 0 ) {
+                        // Missing values are already FP_MISSING_VALUE
+                        double[] dvalues = stddata.getDoubleColumn(k);
                         for (int j = 0; j < numSamples; j++) {
-                            Double dvalue = (Double) stddata.getStdVal(j, k);
-                            if ( (dvalue == null) || dvalue.isNaN() || dvalue.isInfinite() )
+                            double dvalue = dvalues[j];
+                            if ( Double.isNaN(dvalue) || Double.isInfinite(dvalue) )
                                 dvalue = DashboardUtils.FP_MISSING_VALUE;
                             dvar.set(j, dvalue);
                         }
@@ -506,18 +538,39 @@ public class DsgNcFile extends File {
     public ArrayList<String> readData(KnownDataTypes dataTypes) throws IllegalArgumentException, IOException {
         if ( (dataTypes == null) || dataTypes.isEmpty() )
             throw new IllegalArgumentException("no data file types given");
-        int numColumns;
-        DashDataType<?>[] dataTypesArray;
-        {
-            TreeSet<DashDataType<?>> dataTypesSet = dataTypes.getKnownTypesSet();
-            numColumns = dataTypesSet.size();
-            dataTypesArray = new DashDataType<?>[numColumns];
-            int idx = -1;
-            for (DashDataType<?> dtype : dataTypesSet) {
-                idx++;
-                dataTypesArray[idx] = dtype;
-            }
-        }
+        return readDataColumns(new ArrayList<DashDataType<?>>(dataTypes.getKnownTypesSet()), 0, -1);
+    }
+
+    /**
+     * Creates and assigns the internal standard data array reference from a range of samples of selected data
+     * variables in this netCDF DSG file.  Only the values of the selected variables for the selected samples are
+     * read from the file, so this is much faster than {@link #readData(KnownDataTypes)} when only a few variables
+     * or samples are needed.
+     *
+     * @param dataTypes
+     *         data files types to read; the columns of the standard data array are in this order
+     * @param firstSample
+     *         index of the first sample to read
+     * @param numSamples
+     *         number of samples to read, which must be at least one;
+     *         if negative, all samples from firstSample to the end are read
+     *
+     * @return variable names of the data types not assigned from this netCDF file (will have its default/missing value)
+     *
+     * @throws IllegalArgumentException
+     *         if no data types are given, if an invalid type for data files is encountered,
+     *         or if the range of samples is not valid for this netCDF file
+     * @throws IOException
+     *         if the netCDF file is invalid: it must have a 'time' variable and all data variables must have the same
+     *         number of values as the 'time' variable, or if there are problems opening or reading from the netCDF
+     *         file
+     */
+    public ArrayList<String> readDataColumns(List<DashDataType<?>> dataTypes, int firstSample, int numSamples)
+            throws IllegalArgumentException, IOException {
+        if ( (dataTypes == null) || dataTypes.isEmpty() )
+            throw new IllegalArgumentException("no data file types given");
+        int numColumns = dataTypes.size();
+        DashDataType<?>[] dataTypesArray = dataTypes.toArray(new DashDataType<?>[numColumns]);
 
         ArrayList<String> namesNotFound = new ArrayList<String>();
         NetcdfFile ncfile = NetcdfFile.open(getPath());
@@ -527,64 +580,82 @@ public class DsgNcFile extends File {
             Variable var = ncfile.findVariable(varName);
             if ( var == null )
                 throw new IOException("unable to find variable 'time' in " + getName());
-            int numSamples = var.getShape(0);
+            int numFileSamples = var.getShape(0);
+            if ( numSamples < 0 )
+                numSamples = numFileSamples - firstSample;
+            if ( (firstSample < 0) || (numSamples < 1) || (firstSample + numSamples > numFileSamples) )
+                throw new IllegalArgumentException("invalid range of samples: " + Integer.toString(firstSample) +
+                        " to " + Integer.toString(firstSample + numSamples - 1) + " of " +
+                        Integer.toString(numFileSamples) + " samples");
 
-            // Create the array of data values
-            Object[][] dataArray = new Object[numSamples][numColumns];
+            // Create the data columns of values
+            StdDataColumn[] dataColumns = new StdDataColumn[numColumns];
 
             for (int k = 0; k < numColumns; k++) {
                 DashDataType<?> dtype = dataTypesArray[k];
                 varName = dtype.getVarName();
                 var = ncfile.findVariable(varName);
                 if ( var == null ) {
+                    // Data column of all missing values
                     namesNotFound.add(varName);
-                    for (int j = 0; j < numSamples; j++) {
-                        dataArray[j][k] = null;
-                    }
+                    dataColumns[k] = StdDataColumn.create(dtype, numSamples);
                     continue;
                 }
 
-                if ( var.getShape(0) != numSamples )
+                if ( var.getShape(0) != numFileSamples )
                     throw new IOException("number of values for '" + varName +
                             "' (" + Integer.toString(var.getShape(0)) + ") does not match " +
-                            "the number of values for 'time' (" + Integer.toString(numSamples) + ")");
-
-                if ( dtype instanceof StringDashDataType ) {
-                    ArrayChar.D2 dvar = (ArrayChar.D2) var.read();
-                    for (int j = 0; j < numSamples; j++) {
-                        String strval = dvar.getString(j).trim();
-                        if ( DashboardUtils.STRING_MISSING_VALUE.equals(strval) )
-                            dataArray[j][k] = null;
-                        else
-                            dataArray[j][k] = strval;
+                            "the number of values for 'time' (" + Integer.toString(numFileSamples) + ")");
+
+                // Read only the requested samples of this variable
+                int[] origin = new int[var.getRank()];
+                int[] shape = var.getShape();
+                origin[0] = firstSample;
+                shape[0] = numSamples;
+
+                try {
+                    if ( dtype instanceof StringDashDataType ) {
+                        ArrayChar.D2 dvar = (ArrayChar.D2) var.read(origin, shape);
+                        StringStdDataColumn column = new StringStdDataColumn(numSamples);
+                        for (int j = 0; j < numSamples; j++) {
+                            String strval = dvar.getString(j).trim();
+                            if ( !DashboardUtils.STRING_MISSING_VALUE.equals(strval) )
+                                column.setString(j, strval);
+                        }
+                        dataColumns[k] = column;
                     }
-                }
-                else if ( dtype instanceof IntDashDataType ) {
-                    ArrayInt.D1 dvar = (ArrayInt.D1) var.read();
-                    for (int j = 0; j < numSamples; j++) {
-                        Integer intval = dvar.get(j);
-                        if ( DashboardUtils.INT_MISSING_VALUE.equals(intval) )
-                            dataArray[j][k] = null;
-                        else
-                            dataArray[j][k] = intval;
+                    else if ( dtype instanceof IntDashDataType ) {
+                        ArrayInt.D1 dvar = (ArrayInt.D1) var.read(origin, shape);
+                        IntStdDataColumn column = new IntStdDataColumn(numSamples);
+                        int intMissVal = DashboardUtils.INT_MISSING_VALUE;
+                        for (int j = 0; j < numSamples; j++) {
+                            int intval = dvar.get(j);
+                            if ( intval != intMissVal )
+                                column.setInt(j, intval);
+                        }
+                        dataColumns[k] = column;
                     }
-                }
-                else if ( dtype instanceof DoubleDashDataType ) {
-                    ArrayDouble.D1 dvar = (ArrayDouble.D1) var.read();
-                    for (int j = 0; j < numSamples; j++) {
-                        Double dblval = dvar.get(j);
-                        if ( DashboardUtils.closeTo(DashboardUtils.FP_MISSING_VALUE, dblval,
-                                0.0, DashboardUtils.MAX_ABSOLUTE_ERROR) )
-                            dataArray[j][k] = null;
-                        else
-                            dataArray[j][k] = dblval;
+                    else if ( dtype instanceof DoubleDashDataType ) {
+                        ArrayDouble.D1 dvar = (ArrayDouble.D1) var.read(origin, shape);
+                        DoubleStdDataColumn column = new DoubleStdDataColumn(numSamples);
+                        double fpMissVal = DashboardUtils.FP_MISSING_VALUE;
+                        for (int j = 0; j < numSamples; j++) {
+                            double dblval = dvar.get(j);
+                            // Same as DashboardUtils.closeTo(fpMissVal, dblval, 0.0, MAX_ABSOLUTE_ERROR) without boxing
+                            if ( !(Math.abs(dblval - fpMissVal) < DashboardUtils.MAX_ABSOLUTE_ERROR) )
+                                column.setDouble(j, dblval);
+                        }
+                        dataColumns[k] = column;
                     }
-                }
-                else {
-                    throw new IllegalArgumentException("invalid data file type " + dtype.toString());
+                    else {
+                        throw new IllegalArgumentException("invalid data file type " + dtype.toString());
+                    }
+                } catch ( InvalidRangeException ex ) {
+                    throw new IOException("unexpected invalid range reading '" + varName + "': " +
+                            ex.getMessage(), ex);
                 }
             }
-            stddata = new StdDataArray(dataTypesArray, dataArray);
+            stddata = new StdDataArray(dataTypesArray, dataColumns);
         } finally {
             ncfile.close();
         }
@@ -1082,7 +1153,35 @@ public class DsgNcFile extends File {
      */
     public ArrayList<DataLocation> updateDataQCFlags(DataQCEvent woceEvent, boolean updateWoceEvent)
             throws IllegalArgumentException, IOException {
-        ArrayList<DataLocation> unidentified = new ArrayList<DataLocation>();
+        ArrayList<DataQCEvent> woceEvents = new ArrayList<DataQCEvent>(1);
+        woceEvents.add(woceEvent);
+        return updateDataQCFlags(woceEvents, updateWoceEvent).get(0);
+    }
+
+    /**
+     * Updates this DSG file with the given data QC flags, applied in the order given.  The result is the same as
+     * calling {@link #updateDataQCFlags(DataQCEvent, boolean)} with each data QC event in turn, but this DSG file
+     * is only opened once, the sample locations are only read and indexed once, and each WOCE flag variable is only
+     * read and written once.  Optionally, will also update the row number in the data QC flags from the data in this
+     * DSG file.
+     *
+     * @param woceEvents
+     *         data QC flags to set
+     * @param updateWoceEvent
+     *         if true, update the row numbers in the data QC flags from this DSG file
+     *
+     * @return for each data QC event, in the order given, the list of the data locations of that event not found in
+     *         this DSG file; never null, and none of the lists are null but may be empty
+     *
+     * @throws IllegalArgumentException
+     *         if the DSG file or the data QC flags are not valid
+     * @throws IOException
+     *         if opening, reading from, or writing to the DSG file throws one
+     */
+    public ArrayList<ArrayList<DataLocation>> updateDataQCFlags(List<DataQCEvent> woceEvents,
+            boolean updateWoceEvent) throws IllegalArgumentException, IOException {
+        ArrayList<ArrayList<DataLocation>> unidentifiedList =
+                new ArrayList<ArrayList<DataLocation>>(woceEvents.size());
         NetcdfFileWriter ncfile = NetcdfFileWriter.openExisting(getPath());
         try {
 
@@ -1104,76 +1203,172 @@ public class DsgNcFile extends File {
                 throw new IllegalArgumentException("Unable to find variable '" + varName + "' in " + getName());
             ArrayDouble.D1 times = (ArrayDouble.D1) var.read();
 
-            String dataname = woceEvent.getVarName();
-            ArrayDouble.D1 datavalues;
-            if ( DashboardUtils.STRING_MISSING_VALUE.equals(dataname) ) {
-                // WOCE based on longitude/latitude/time
-                datavalues = null;
-            }
-            else {
-                var = ncfile.findVariable(dataname);
-                if ( var == null )
-                    throw new IllegalArgumentException("Unable to find variable '" + dataname + "' in " + getName());
-                datavalues = (ArrayDouble.D1) var.read();
-            }
+            int arraySize = (int) times.getSize();
+            SampleTimeIndex timeIndex = new SampleTimeIndex(times);
 
-            varName = woceEvent.getFlagName();
-            Variable wocevar = ncfile.findVariable(varName);
-            if ( wocevar == null )
-                throw new IllegalArgumentException("Unable to find variable '" + varName + "' in " + getName());
-            ArrayChar.D2 wocevalues = (ArrayChar.D2) wocevar.read();
+            // Data values and WOCE flags read as needed by the events
+            HashMap<String,ArrayDouble.D1> dataValuesMap = new HashMap<String,ArrayDouble.D1>();
+            LinkedHashMap<Variable,ArrayChar.D2> woceValuesMap = new LinkedHashMap<Variable,ArrayChar.D2>();
 
-            String newFlag = woceEvent.getFlagValue();
+            for (DataQCEvent woceEvent : woceEvents) {
+                ArrayList<DataLocation> unidentified = new ArrayList<DataLocation>();
+                unidentifiedList.add(unidentified);
 
-            // Identify the data points using a round-robin search
-            // just in case there is more than one matching point
-            int startIdx = 0;
-            int arraySize = (int) times.getSize();
-            HashSet<Integer> assignedRowIndices = new HashSet<Integer>();
-            for (DataLocation dataloc : woceEvent.getLocations()) {
-                boolean valueFound = false;
-                int idx;
-                for (idx = startIdx; idx < arraySize; idx++) {
-                    if ( dataMatches(dataloc, longitudes, latitudes, times, datavalues, idx) ) {
-                        if ( assignedRowIndices.add(idx) ) {
-                            valueFound = true;
-                            break;
-                        }
+                String dataname = woceEvent.getVarName();
+                ArrayDouble.D1 datavalues;
+                if ( DashboardUtils.STRING_MISSING_VALUE.equals(dataname) ) {
+                    // WOCE based on longitude/latitude/time
+                    datavalues = null;
+                }
+                else {
+                    datavalues = dataValuesMap.get(dataname);
+                    if ( datavalues == null ) {
+                        var = ncfile.findVariable(dataname);
+                        if ( var == null )
+                            throw new IllegalArgumentException("Unable to find variable '" + dataname +
+                                    "' in " + getName());
+                        datavalues = (ArrayDouble.D1) var.read();
+                        dataValuesMap.put(dataname, datavalues);
                     }
                 }
-                if ( idx >= arraySize ) {
-                    for (idx = 0; idx < startIdx; idx++) {
-                        if ( dataMatches(dataloc, longitudes, latitudes, times, datavalues, idx) ) {
-                            if ( assignedRowIndices.add(idx) ) {
-                                valueFound = true;
-                                break;
-                            }
+
+                varName = woceEvent.getFlagName();
+                Variable wocevar = ncfile.findVariable(varName);
+                if ( wocevar == null )
+                    throw new IllegalArgumentException("Unable to find variable '" + varName + "' in " + getName());
+                ArrayChar.D2 wocevalues = woceValuesMap.get(wocevar);
+                if ( wocevalues == null ) {
+                    wocevalues = (ArrayChar.D2) wocevar.read();
+                    woceValuesMap.put(wocevar, wocevalues);
+                }
+
+                String newFlag = woceEvent.getFlagValue();
+
+                // Identify the data points as a round-robin search would, just in case there is more than one
+                // matching point: the first unassigned match at or after the index following the last match found
+                int startIdx = 0;
+                HashSet<Integer> assignedRowIndices = new HashSet<Integer>();
+                for (DataLocation dataloc : woceEvent.getLocations()) {
+                    int idx = -1;
+                    int idxDist = arraySize;
+                    double dataTime = dataloc.getDataDate().getTime() / 1000.0;
+                    int last = timeIndex.lastPosition(dataTime);
+                    for (int pos = timeIndex.firstPosition(dataTime); pos <= last; pos++) {
+                        int row = timeIndex.getRow(pos);
+                        int dist = (row >= startIdx) ? row - startIdx : row - startIdx + arraySize;
+                        if ( (dist < idxDist) && !assignedRowIndices.contains(row) &&
+                                dataMatches(dataloc, longitudes, latitudes, times, datavalues, row) ) {
+                            idx = row;
+                            idxDist = dist;
                         }
                     }
-                }
-                if ( valueFound ) {
-                    wocevalues.setString(idx, newFlag.trim());
-                    if ( updateWoceEvent ) {
-                        dataloc.setRowNumber(idx + 1);
+                    if ( idx >= 0 ) {
+                        assignedRowIndices.add(idx);
+                        wocevalues.setString(idx, newFlag.trim());
+                        if ( updateWoceEvent ) {
+                            dataloc.setRowNumber(idx + 1);
+                        }
+                        // Start the next search from the next data point
+                        startIdx = idx + 1;
+                    }
+                    else {
+                        unidentified.add(dataloc);
                     }
-                    // Start the next search from the next data point
-                    startIdx = idx + 1;
-                }
-                else {
-                    unidentified.add(dataloc);
                 }
             }
 
             // Save the updated WOCE flags to the DSG file
             try {
-                ncfile.write(wocevar, wocevalues);
+                for (Entry<Variable,ArrayChar.D2> entry : woceValuesMap.entrySet()) {
+                    ncfile.write(entry.getKey(), entry.getValue());
+                }
             } catch ( InvalidRangeException ex ) {
                 throw new IOException(ex);
             }
         } finally {
             ncfile.close();
         }
-        return unidentified;
+        return unidentifiedList;
+    }
+
+    /**
+     * Index of the samples of a DSG file ordered by time, for finding the samples with times that could be
+     * considered the same as a given time (within {@link #MIN_TIME_DIFF}) without examining every sample.
+     */
+    private static class SampleTimeIndex {
+        private final double[] sortedTimes;
+        private final int[] sortedRows;
+
+        /**
+         * @param times
+         *         times of the samples; samples with NaN or infinite times are not indexed
+         */
+        SampleTimeIndex(final ArrayDouble.D1 times) {
+            int numSamples = (int) times.getSize();
+            ArrayList<Integer> rows = new ArrayList<Integer>(numSamples);
+            for (int j = 0; j < numSamples; j++) {
+                double value = times.get(j);
+                if ( !(Double.isNaN(value) || Double.isInfinite(value)) )
+                    rows.add(j);
+            }
+            Collections.sort(rows, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer first, Integer second) {
+                    return Double.compare(times.get(first), times.get(second));
+                }
+            });
+            sortedTimes = new double[rows.size()];
+            sortedRows = new int[rows.size()];
+            for (int k = 0; k < sortedRows.length; k++) {
+                int row = rows.get(k);
+                sortedRows[k] = row;
+                sortedTimes[k] = times.get(row);
+            }
+        }
+
+        /**
+         * @return the first position in this index of samples whose times could match the given time;
+         *         larger than {@link #lastPosition(double)} if there are no such samples
+         */
+        int firstPosition(double time) {
+            // Generous bounds; the samples found are compared with the actual tolerance
+            double minTime = time - 2.0 * MIN_TIME_DIFF;
+            int low = 0;
+            int high = sortedTimes.length;
+            while ( low < high ) {
+                int mid = (low + high) >>> 1;
+                if ( sortedTimes[mid] < minTime )
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+        /**
+         * @return the last position in this index of samples whose times could match the given time;
+         *         smaller than {@link #firstPosition(double)} if there are no such samples
+         */
+        int lastPosition(double time) {
+            double maxTime = time + 2.0 * MIN_TIME_DIFF;
+            int low = 0;
+            int high = sortedTimes.length;
+            while ( low < high ) {
+                int mid = (low + high) >>> 1;
+                if ( sortedTimes[mid] <= maxTime )
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low - 1;
+        }
+
+        /**
+         * @return the row index of the sample at the given position in this index
+         */
+        int getRow(int pos) {
+            return sortedRows[pos];
+        }
     }
 
     /**
@@ -0,0 +1,114 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.Arrays;
+
+/**
+ * A data column of standardized Integer values kept as primitive ints.
+ *
+ * @author Karl Smith
+ */
+public class IntStdDataColumn extends StdDataColumn {
+
+    private final int[] values;
+
+    /**
+     * Create a data column of Integer values for the given number of samples with all values missing.
+     *
+     * @param numSamples
+     *         number of samples (rows) in this data column
+     *
+     * @throws IllegalArgumentException
+     *         if the number of samples is negative
+     */
+    public IntStdDataColumn(int numSamples) throws IllegalArgumentException {
+        super(numSamples);
+        values = new int[numSamples];
+        Arrays.fill(values, DashboardUtils.INT_MISSING_VALUE);
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value for this sample; {@link DashboardUtils#INT_MISSING_VALUE} if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public int getInt(int sampleIdx) throws IndexOutOfBoundsException {
+        return values[sampleIdx];
+    }
+
+    /**
+     * Assign a (non-missing) value for a sample.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param value
+     *         value to assign
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public void setInt(int sampleIdx, int value) throws IndexOutOfBoundsException {
+        values[sampleIdx] = value;
+        missing.clear(sampleIdx);
+    }
+
+    /**
+     * @return a copy of the values in this data column; missing values are {@link DashboardUtils#INT_MISSING_VALUE}
+     */
+    public int[] getInts() {
+        return values.clone();
+    }
+
+    @Override
+    public Integer getValue(int sampleIdx) throws IndexOutOfBoundsException {
+        if ( isMissing(sampleIdx) )
+            return null;
+        return values[sampleIdx];
+    }
+
+    @Override
+    public void setValue(int sampleIdx, Object value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        if ( value == null ) {
+            values[sampleIdx] = DashboardUtils.INT_MISSING_VALUE;
+            missing.set(sampleIdx);
+        }
+        else if ( value instanceof Integer ) {
+            setInt(sampleIdx, (Integer) value);
+        }
+        else {
+            throw new IllegalArgumentException("value is not an Integer: " + value.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public boolean holdsValuesOf(DashDataType<?> dtype) {
+        return dtype instanceof IntDashDataType;
+    }
+
+    @Override
+    public IntStdDataColumn copy() {
+        IntStdDataColumn dup = new IntStdDataColumn(numSamples);
+        System.arraycopy(values, 0, dup.values, 0, numSamples);
+        dup.missing.clear();
+        dup.missing.or(missing);
+        return dup;
+    }
+
+    @Override
+    protected boolean valueEquals(int sampleIdx, StdDataColumn other, int otherIdx) {
+        return values[sampleIdx] == ((IntStdDataColumn) other).values[otherIdx];
+    }
+
+    @Override
+    protected int valueHashCode(int sampleIdx) {
+        return values[sampleIdx];
+    }
+
+}
@@ -15,6 +15,7 @@ import gov.noaa.pmel.dashboard.shared.DataColumnType;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
@@ -22,8 +23,12 @@ import java.util.List;
 import java.util.TimeZone;
 
 /**
- * A 2-D array of objects corresponding to the standardized values in a dataset,
- * as well as 1-D arrays of information describing each data column.
+ * The standardized values in a dataset, as well as 1-D arrays of information describing each data column.
+ * The standardized values of each data column are kept in a {@link StdDataColumn}, which holds primitive
+ * values (or dictionary-encoded strings) with a bitmap of the missing values, rather than an object for
+ * every data value.  The method {@link #getStdVal(int, int)} provides the values as objects; the typed
+ * accessors, such as {@link #getDoubleVal(int, int)} and {@link #getDoubleColumn(int)}, avoid creating
+ * an object for each value.
  *
  * @author Karl Smith
  */
@@ -32,7 +37,7 @@ public class StdDataArray {
     protected int numSamples;
     protected int numDataCols;
     protected DashDataType<?>[] dataTypes;
-    protected Object[][] stdObjects;
+    protected StdDataColumn[] stdColumns;
     // Often-used indices
     protected int longitudeIndex;
     protected int latitudeIndex;
@@ -57,7 +62,7 @@ public class StdDataArray {
      * Create and assign the 1-D arrays of data column types from the given user's descriptions
      * of the data column.  Appends any required WOCE column types not already present, as well
      * as the non-user type {@link DashboardServerUtils#SAMPLE_NUMBER}.
-     * The 2-D array of standard data objects is not created.
+     * The array of standard data columns is not created.
      *
      * @param dataColumnTypes
      *         user's description of the data columns in each sample
@@ -89,7 +94,7 @@ public class StdDataArray {
             dataTypes = new DashDataType<?>[numDataCols + 2];
         else
             dataTypes = new DashDataType<?>[numDataCols + 1];
-        stdObjects = null;
+        stdColumns = null;
 
         for (int k = 0; k < numDataCols; k++) {
             DataColumnType dataColType = dataColumnTypes.get(k);
@@ -140,7 +145,7 @@ public class StdDataArray {
                     stdDataValues[0].length + ") and types (" + numDataCols + ")");
 
         dataTypes = new DashDataType<?>[numDataCols];
-        stdObjects = new Object[numSamples][numDataCols];
+        stdColumns = new StdDataColumn[numDataCols];
 
         for (int k = 0; k < numDataCols; k++) {
             DashDataType<?> dtype = dataColumnTypes[k];
@@ -151,43 +156,78 @@ public class StdDataArray {
 
             // Catch invalid data column types and invalid data objects
             // while assigning the standard data values
-            if ( dtype instanceof StringDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    try {
-                        stdObjects[j][k] = (String) stdDataValues[j][k];
-                    } catch ( Exception ex ) {
-                        throw new IllegalArgumentException("standard data object for sample number " +
-                                Integer.toString(j + 1) + ", column number " + Integer.toString(j + 1) +
-                                " is invalid: " + ex.getMessage());
-                    }
-                }
-            }
-            else if ( dtype instanceof IntDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    try {
-                        stdObjects[j][k] = (Integer) stdDataValues[j][k];
-                    } catch ( Exception ex ) {
-                        throw new IllegalArgumentException("standard data object for sample number " +
-                                Integer.toString(j + 1) + ", column number " + Integer.toString(j + 1) +
-                                " is invalid: " + ex.getMessage());
-                    }
-                }
-            }
-            else if ( dtype instanceof DoubleDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    try {
-                        stdObjects[j][k] = (Double) stdDataValues[j][k];
-                    } catch ( Exception ex ) {
-                        throw new IllegalArgumentException("standard data object for sample number " +
-                                Integer.toString(j + 1) + ", column number " + Integer.toString(j + 1) +
-                                " is invalid: " + ex.getMessage());
-                    }
+            StdDataColumn column = StdDataColumn.create(dtype, numSamples);
+            for (int j = 0; j < numSamples; j++) {
+                try {
+                    column.setValue(j, stdDataValues[j][k]);
+                } catch ( Exception ex ) {
+                    throw new IllegalArgumentException("standard data object for sample number " +
+                            Integer.toString(j + 1) + ", column number " + Integer.toString(k + 1) +
+                            " is invalid: " + ex.getMessage());
                 }
             }
-            else {
-                throw new IllegalArgumentException("unknown data class type for " +
-                        dtype.getDisplayName() + " (" + dtype.getDataClassName() + ")");
-            }
+            stdColumns[k] = column;
+        }
+
+        // Get column indices and check for UNKNOWN (return null) and duplicates (return true)
+        if ( !Boolean.FALSE.equals(assignColumnIndicesOfInterest()) )
+            throw new IllegalArgumentException("unknown or duplicated data column type");
+    }
+
+    /**
+     * Create with the given data file data types and standardized data columns.  The data columns given are used
+     * directly (not copied).  The data types given must be known subclasses of DashDataType valid for data files:
+     * {@link StringDashDataType}, {@link IntDashDataType}, or {@link DoubleDashDataType}, and each data column
+     * must be the appropriate {@link StdDataColumn} subclass for its data type.
+     *
+     * @param dataColumnTypes
+     *         types for the data columns
+     * @param stdDataColumns
+     *         standardized values for the data columns; all data columns must have the same number of samples
+     *
+     * @throws IllegalArgumentException
+     *         if not data column types are given, if no data columns are given, if the number of data columns
+     *         does not match the number of data column types, if a data column is not appropriate for its
+     *         data column type, if the data columns have differing or no samples, if a data column type is the
+     *         "UNKNOWN" type or occurs more that one.
+     */
+    public StdDataArray(DashDataType<?>[] dataColumnTypes, StdDataColumn[] stdDataColumns)
+            throws IllegalArgumentException {
+        if ( (dataColumnTypes == null) || (dataColumnTypes.length == 0) )
+            throw new IllegalArgumentException("no data column types given");
+        numDataCols = dataColumnTypes.length;
+        if ( (stdDataColumns == null) || (stdDataColumns.length == 0) )
+            throw new IllegalArgumentException("no standardized data columns given");
+        if ( stdDataColumns.length != numDataCols )
+            throw new IllegalArgumentException("Different number of data columns (" +
+                    stdDataColumns.length + ") and types (" + numDataCols + ")");
+        if ( stdDataColumns[0] == null )
+            throw new IllegalArgumentException("no data column for column number 1");
+        numSamples = stdDataColumns[0].getNumSamples();
+        if ( numSamples == 0 )
+            throw new IllegalArgumentException("no standardized data values given");
+
+        dataTypes = new DashDataType<?>[numDataCols];
+        stdColumns = new StdDataColumn[numDataCols];
+        for (int k = 0; k < numDataCols; k++) {
+            DashDataType<?> dtype = dataColumnTypes[k];
+            if ( dtype == null )
+                throw new IllegalArgumentException(
+                        "no data type for column number" + Integer.toString(k + 1));
+            StdDataColumn column = stdDataColumns[k];
+            if ( column == null )
+                throw new IllegalArgumentException(
+                        "no data column for column number " + Integer.toString(k + 1));
+            if ( !column.holdsValuesOf(dtype) )
+                throw new IllegalArgumentException("data column number " + Integer.toString(k + 1) +
+                        " is not appropriate for " + dtype.getDisplayName() +
+                        " (" + dtype.getDataClassName() + ")");
+            if ( column.getNumSamples() != numSamples )
+                throw new IllegalArgumentException("number of samples in data column number " +
+                        Integer.toString(k + 1) + " (" + column.getNumSamples() + ") does not match " +
+                        "the number of samples in the first data column (" + numSamples + ")");
+            dataTypes[k] = dtype;
+            stdColumns[k] = column;
         }
 
         // Get column indices and check for UNKNOWN (return null) and duplicates (return true)
@@ -302,7 +342,7 @@ public class StdDataArray {
 
         numDataCols = userDataTypes.size();
         dataTypes = new DashDataType<?>[numDataCols];
-        stdObjects = new Object[numSamples][numDataCols];
+        stdColumns = new StdDataColumn[numDataCols];
         GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
         cal.setLenient(false);
         for (int k = 0; k < numDataCols; k++) {
@@ -310,58 +350,69 @@ public class StdDataArray {
             int userIdx = userColIndices.get(k);
             if ( DashboardUtils.INT_MISSING_VALUE.equals(userIdx) ) {
                 if ( DashboardServerUtils.YEAR.typeNameEquals(dataTypes[k]) ) {
+                    IntStdDataColumn column = new IntStdDataColumn(numSamples);
                     for (int j = 0; j < numSamples; j++) {
                         cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.YEAR));
+                        column.setInt(j, cal.get(GregorianCalendar.YEAR));
                     }
+                    stdColumns[k] = column;
                 }
                 else if ( DashboardServerUtils.MONTH_OF_YEAR.typeNameEquals(dataTypes[k]) ) {
+                    IntStdDataColumn column = new IntStdDataColumn(numSamples);
                     for (int j = 0; j < numSamples; j++) {
                         cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.MONTH) -
-                                GregorianCalendar.JANUARY + 1);
+                        column.setInt(j, cal.get(GregorianCalendar.MONTH) - GregorianCalendar.JANUARY + 1);
                     }
+                    stdColumns[k] = column;
                 }
                 else if ( DashboardServerUtils.DAY_OF_MONTH.typeNameEquals(dataTypes[k]) ) {
+                    IntStdDataColumn column = new IntStdDataColumn(numSamples);
                     for (int j = 0; j < numSamples; j++) {
                         cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.DAY_OF_MONTH));
+                        column.setInt(j, cal.get(GregorianCalendar.DAY_OF_MONTH));
                     }
+                    stdColumns[k] = column;
                 }
                 else if ( DashboardServerUtils.HOUR_OF_DAY.typeNameEquals(dataTypes[k]) ) {
+                    IntStdDataColumn column = new IntStdDataColumn(numSamples);
                     for (int j = 0; j < numSamples; j++) {
                         cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.HOUR_OF_DAY));
+                        column.setInt(j, cal.get(GregorianCalendar.HOUR_OF_DAY));
                     }
+                    stdColumns[k] = column;
                 }
                 else if ( DashboardServerUtils.MINUTE_OF_HOUR.typeNameEquals(dataTypes[k]) ) {
+                    IntStdDataColumn column = new IntStdDataColumn(numSamples);
                     for (int j = 0; j < numSamples; j++) {
                         cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        stdObjects[j][k] = Integer.valueOf(cal.get(GregorianCalendar.MINUTE));
+                        column.setInt(j, cal.get(GregorianCalendar.MINUTE));
                     }
+                    stdColumns[k] = column;
                 }
                 else if ( DashboardServerUtils.SECOND_OF_MINUTE.typeNameEquals(dataTypes[k]) ) {
+                    DoubleStdDataColumn column = new DoubleStdDataColumn(numSamples);
                     for (int j = 0; j < numSamples; j++) {
                         cal.setTimeInMillis(Double.valueOf(timeVals[j] * 1000.0).longValue());
-                        Double second = (1000.0 * cal.get(GregorianCalendar.SECOND) +
+                        double second = (1000.0 * cal.get(GregorianCalendar.SECOND) +
                                 cal.get(GregorianCalendar.MILLISECOND)) / 1000.0;
-                        stdObjects[j][k] = second;
+                        column.setDouble(j, second);
                     }
+                    stdColumns[k] = column;
                 }
                 else if ( DashboardServerUtils.TIME.typeNameEquals(dataTypes[k]) ) {
+                    DoubleStdDataColumn column = new DoubleStdDataColumn(numSamples);
                     for (int j = 0; j < numSamples; j++) {
-                        stdObjects[j][k] = timeVals[j];
+                        column.setDouble(j, timeVals[j]);
                     }
+                    stdColumns[k] = column;
                 }
                 else {
                     throw new IllegalArgumentException("Unexpected error: unknown data column type with missing index");
                 }
             }
             else {
-                for (int j = 0; j < numSamples; j++) {
-                    // Because isValidIndex was true, this should not throw any exceptions
-                    stdObjects[j][k] = userStdData.getStdVal(j, userIdx);
-                }
+                // Because isValidIndex was true, the standardized user data column is valid
+                stdColumns[k] = userStdData.stdColumns[userIdx].copy();
             }
         }
 
@@ -520,14 +571,10 @@ public class StdDataArray {
     public int getMaxStringLength() {
         int maxStrLen = 1;
         for (int k = 0; k < numDataCols; k++) {
-            if ( dataTypes[k] instanceof StringDashDataType ) {
-                for (int j = 0; j < numSamples; j++) {
-                    String strval = (String) stdObjects[j][k];
-                    if ( strval != null ) {
-                        if ( maxStrLen < strval.length() )
-                            maxStrLen = strval.length();
-                    }
-                }
+            if ( stdColumns[k] instanceof StringStdDataColumn ) {
+                int strLen = ((StringStdDataColumn) stdColumns[k]).getMaxStringLength();
+                if ( maxStrLen < strLen )
+                    maxStrLen = strLen;
             }
         }
         return maxStrLen;
@@ -544,7 +591,7 @@ public class StdDataArray {
             throw new IllegalStateException("no valid longitude data column");
         Double[] sampleLongitudes = new Double[numSamples];
         for (int j = 0; j < numSamples; j++) {
-            sampleLongitudes[j] = (Double) stdObjects[j][longitudeIndex];
+            sampleLongitudes[j] = (Double) stdColumns[longitudeIndex].getValue(j);
         }
         return sampleLongitudes;
     }
@@ -560,7 +607,7 @@ public class StdDataArray {
             throw new IllegalStateException("no valid latitude data column");
         Double[] sampleLatitudes = new Double[numSamples];
         for (int j = 0; j < numSamples; j++) {
-            sampleLatitudes[j] = (Double) stdObjects[j][latitudeIndex];
+            sampleLatitudes[j] = (Double) stdColumns[latitudeIndex].getValue(j);
         }
         return sampleLatitudes;
     }
@@ -576,7 +623,7 @@ public class StdDataArray {
             throw new IllegalStateException("no valid sample depth data column");
         Double[] sampleDepths = new Double[numSamples];
         for (int j = 0; j < numSamples; j++) {
-            sampleDepths[j] = (Double) stdObjects[j][sampleDepthIndex];
+            sampleDepths[j] = (Double) stdColumns[sampleDepthIndex].getValue(j);
         }
         return sampleDepths;
     }
@@ -624,26 +671,30 @@ public class StdDataArray {
             else
                 indicesForTime = new int[] { yearIndex, monthOfYearIndex, dayOfMonthIndex,
                         hourOfDayIndex, minuteOfHourIndex };
+            IntStdDataColumn years = (IntStdDataColumn) stdColumns[yearIndex];
+            IntStdDataColumn months = (IntStdDataColumn) stdColumns[monthOfYearIndex];
+            IntStdDataColumn days = (IntStdDataColumn) stdColumns[dayOfMonthIndex];
+            IntStdDataColumn hours = (IntStdDataColumn) stdColumns[hourOfDayIndex];
+            IntStdDataColumn minutes = (IntStdDataColumn) stdColumns[minuteOfHourIndex];
+            DoubleStdDataColumn seconds = hasSec ? (DoubleStdDataColumn) stdColumns[secondOfMinuteIndex] : null;
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    int month = ((Integer) stdObjects[j][monthOfYearIndex]).intValue();
-                    int day = ((Integer) stdObjects[j][dayOfMonthIndex]).intValue();
-                    int hour = ((Integer) stdObjects[j][hourOfDayIndex]).intValue();
-                    int min = ((Integer) stdObjects[j][minuteOfHourIndex]).intValue();
+                    if ( years.isMissing(j) || months.isMissing(j) || days.isMissing(j) ||
+                            hours.isMissing(j) || minutes.isMissing(j) )
+                        throw new Exception();
+                    int year = years.getInt(j);
+                    int month = months.getInt(j);
+                    int day = days.getInt(j);
+                    int hour = hours.getInt(j);
+                    int min = minutes.getInt(j);
                     int sec = 0;
                     int millisec = 0;
-                    if ( hasSec ) {
-                        try {
-                            Double value = (Double) stdObjects[j][secondOfMinuteIndex];
-                            sec = value.intValue();
-                            value -= sec;
-                            value *= 1000.0;
-                            millisec = value.intValue();
-                        } catch ( Exception ex ) {
-                            sec = 0;
-                            millisec = 0;
-                        }
+                    if ( hasSec && !seconds.isMissing(j) ) {
+                        double value = seconds.getDouble(j);
+                        sec = (int) value;
+                        value -= sec;
+                        value *= 1000.0;
+                        millisec = (int) value;
                     }
                     cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
                     cal.set(GregorianCalendar.MILLISECOND, millisec);
@@ -658,22 +709,27 @@ public class StdDataArray {
             // Use year, month, day, and time string
             // Standard format of time string is HH:mm:ss.SSS
             indicesForTime = new int[] { yearIndex, monthOfYearIndex, dayOfMonthIndex, timeOfDayIndex };
-
+            IntStdDataColumn years = (IntStdDataColumn) stdColumns[yearIndex];
+            IntStdDataColumn months = (IntStdDataColumn) stdColumns[monthOfYearIndex];
+            IntStdDataColumn days = (IntStdDataColumn) stdColumns[dayOfMonthIndex];
+            StringStdDataColumn timesOfDay = (StringStdDataColumn) stdColumns[timeOfDayIndex];
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    int month = ((Integer) stdObjects[j][monthOfYearIndex]).intValue();
-                    int day = ((Integer) stdObjects[j][dayOfMonthIndex]).intValue();
-                    String[] hms = ((String) stdObjects[j][timeOfDayIndex]).split(":");
+                    if ( years.isMissing(j) || months.isMissing(j) || days.isMissing(j) )
+                        throw new Exception();
+                    int year = years.getInt(j);
+                    int month = months.getInt(j);
+                    int day = days.getInt(j);
+                    String[] hms = timesOfDay.getString(j).split(":");
                     if ( hms.length != 3 )
                         throw new Exception();
                     int hour = Integer.parseInt(hms[0]);
                     int min = Integer.parseInt(hms[1]);
-                    Double value = Double.parseDouble(hms[2]);
-                    int sec = value.intValue();
+                    double value = Double.parseDouble(hms[2]);
+                    int sec = (int) value;
                     value -= sec;
                     value *= 1000.0;
-                    int millisec = value.intValue();
+                    int millisec = (int) value;
                     cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
                     cal.set(GregorianCalendar.MILLISECOND, millisec);
                     sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
@@ -685,25 +741,30 @@ public class StdDataArray {
         else if ( isUsableIndex(yearIndex) && isUsableIndex(dayOfYearIndex) && isUsableIndex(secondOfDayIndex) ) {
             // Use year, day of year (an integer), and second of day
             indicesForTime = new int[] { yearIndex, dayOfYearIndex, secondOfDayIndex };
+            IntStdDataColumn years = (IntStdDataColumn) stdColumns[yearIndex];
+            DoubleStdDataColumn daysOfYear = (DoubleStdDataColumn) stdColumns[dayOfYearIndex];
+            DoubleStdDataColumn secondsOfDay = (DoubleStdDataColumn) stdColumns[secondOfDayIndex];
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    Double value = (Double) stdObjects[j][dayOfYearIndex];
-                    int dayOfYear = value.intValue();
+                    if ( years.isMissing(j) || daysOfYear.isMissing(j) || secondsOfDay.isMissing(j) )
+                        throw new Exception();
+                    int year = years.getInt(j);
+                    double value = daysOfYear.getDouble(j);
+                    int dayOfYear = (int) value;
                     if ( Math.abs(value - dayOfYear) > DashboardUtils.MAX_ABSOLUTE_ERROR )
                         throw new Exception();
-                    value = ((Double) stdObjects[j][secondOfDayIndex]).doubleValue();
+                    value = secondsOfDay.getDouble(j);
                     value /= 3600.0;
-                    int hour = value.intValue();
+                    int hour = (int) value;
                     value -= hour;
                     value *= 60.0;
-                    int minute = value.intValue();
+                    int minute = (int) value;
                     value -= minute;
                     value *= 60.0;
-                    int sec = value.intValue();
+                    int sec = (int) value;
                     value -= sec;
                     value *= 1000.0;
-                    int millisec = value.intValue();
+                    int millisec = (int) value;
                     cal.clear(GregorianCalendar.MONTH);
                     cal.clear(GregorianCalendar.DAY_OF_MONTH);
                     cal.set(GregorianCalendar.YEAR, year);
@@ -722,9 +783,10 @@ public class StdDataArray {
             // Use full timestamp
             // Standard format of the timestamp is yyyy-MM-dd HH:mm:sss.SSS
             indicesForTime = new int[] { timestampIndex };
+            StringStdDataColumn timestamps = (StringStdDataColumn) stdColumns[timestampIndex];
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    String[] dateTime = ((String) stdObjects[j][timestampIndex]).split(" ");
+                    String[] dateTime = timestamps.getString(j).split(" ");
                     if ( dateTime.length != 2 )
                         throw new Exception();
                     String[] ymd = dateTime[0].split("-");
@@ -738,11 +800,11 @@ public class StdDataArray {
                         throw new Exception();
                     int hour = Integer.parseInt(hms[0]);
                     int min = Integer.parseInt(hms[1]);
-                    Double value = Double.parseDouble(hms[2]);
-                    int sec = value.intValue();
+                    double value = Double.parseDouble(hms[2]);
+                    int sec = (int) value;
                     value -= sec;
                     value *= 1000.0;
-                    int millisec = value.intValue();
+                    int millisec = (int) value;
                     cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
                     cal.set(GregorianCalendar.MILLISECOND, millisec);
                     sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
@@ -756,24 +818,26 @@ public class StdDataArray {
             // Standard format of the date is yyyy-MM-dd
             // Standard format of time string is HH:mm:ss.SSS
             indicesForTime = new int[] { dateIndex, timeOfDayIndex };
+            StringStdDataColumn dates = (StringStdDataColumn) stdColumns[dateIndex];
+            StringStdDataColumn timesOfDay = (StringStdDataColumn) stdColumns[timeOfDayIndex];
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    String[] ymd = ((String) stdObjects[j][dateIndex]).split("-");
+                    String[] ymd = dates.getString(j).split("-");
                     if ( ymd.length != 3 )
                         throw new Exception();
                     int year = Integer.parseInt(ymd[0]);
                     int month = Integer.parseInt(ymd[1]);
                     int day = Integer.parseInt(ymd[2]);
-                    String[] hms = ((String) stdObjects[j][timeOfDayIndex]).split(":");
+                    String[] hms = timesOfDay.getString(j).split(":");
                     if ( hms.length != 3 )
                         throw new Exception();
                     int hour = Integer.parseInt(hms[0]);
                     int min = Integer.parseInt(hms[1]);
-                    Double value = Double.parseDouble(hms[2]);
-                    int sec = value.intValue();
+                    double value = Double.parseDouble(hms[2]);
+                    int sec = (int) value;
                     value -= sec;
                     value *= 1000.0;
-                    int millisec = value.intValue();
+                    int millisec = (int) value;
                     cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
                     cal.set(GregorianCalendar.MILLISECOND, millisec);
                     sampleTimes[j] = Double.valueOf(cal.getTimeInMillis() / 1000.0);
@@ -790,29 +854,30 @@ public class StdDataArray {
                 indicesForTime = new int[] { dateIndex, hourOfDayIndex, minuteOfHourIndex, secondOfMinuteIndex };
             else
                 indicesForTime = new int[] { dateIndex, hourOfDayIndex, minuteOfHourIndex };
+            StringStdDataColumn dates = (StringStdDataColumn) stdColumns[dateIndex];
+            IntStdDataColumn hours = (IntStdDataColumn) stdColumns[hourOfDayIndex];
+            IntStdDataColumn minutes = (IntStdDataColumn) stdColumns[minuteOfHourIndex];
+            DoubleStdDataColumn seconds = hasSec ? (DoubleStdDataColumn) stdColumns[secondOfMinuteIndex] : null;
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    String[] ymd = ((String) stdObjects[j][dateIndex]).split("-");
+                    String[] ymd = dates.getString(j).split("-");
                     if ( ymd.length != 3 )
                         throw new Exception();
                     int year = Integer.parseInt(ymd[0]);
                     int month = Integer.parseInt(ymd[1]);
                     int day = Integer.parseInt(ymd[2]);
-                    int hour = ((Integer) stdObjects[j][hourOfDayIndex]).intValue();
-                    int min = ((Integer) stdObjects[j][minuteOfHourIndex]).intValue();
+                    if ( hours.isMissing(j) || minutes.isMissing(j) )
+                        throw new Exception();
+                    int hour = hours.getInt(j);
+                    int min = minutes.getInt(j);
                     int sec = 0;
                     int millisec = 0;
-                    if ( hasSec ) {
-                        try {
-                            Double value = (Double) stdObjects[j][secondOfMinuteIndex];
-                            sec = value.intValue();
-                            value -= sec;
-                            value *= 1000.0;
-                            millisec = value.intValue();
-                        } catch ( Exception ex ) {
-                            sec = 0;
-                            millisec = 0;
-                        }
+                    if ( hasSec && !seconds.isMissing(j) ) {
+                        double value = seconds.getDouble(j);
+                        sec = (int) value;
+                        value -= sec;
+                        value *= 1000.0;
+                        millisec = (int) value;
                     }
                     cal.set(year, GregorianCalendar.JANUARY + month - 1, day, hour, min, sec);
                     cal.set(GregorianCalendar.MILLISECOND, millisec);
@@ -825,23 +890,27 @@ public class StdDataArray {
         else if ( isUsableIndex(yearIndex) && isUsableIndex(dayOfYearIndex) ) {
             // Use year and day of year (floating-point)
             indicesForTime = new int[] { yearIndex, dayOfYearIndex };
+            IntStdDataColumn years = (IntStdDataColumn) stdColumns[yearIndex];
+            DoubleStdDataColumn daysOfYear = (DoubleStdDataColumn) stdColumns[dayOfYearIndex];
             for (int j = 0; j < numSamples; j++) {
                 try {
-                    int year = ((Integer) stdObjects[j][yearIndex]).intValue();
-                    Double value = (Double) stdObjects[j][dayOfYearIndex];
-                    int dayOfYear = value.intValue();
+                    if ( years.isMissing(j) || daysOfYear.isMissing(j) )
+                        throw new Exception();
+                    int year = years.getInt(j);
+                    double value = daysOfYear.getDouble(j);
+                    int dayOfYear = (int) value;
                     value -= dayOfYear;
                     value *= 24.0;
-                    int hour = value.intValue();
+                    int hour = (int) value;
                     value -= hour;
                     value *= 60.0;
-                    int minute = value.intValue();
+                    int minute = (int) value;
                     value -= minute;
                     value *= 60.0;
-                    int sec = value.intValue();
+                    int sec = (int) value;
                     value -= sec;
                     value *= 1000.0;
-                    int millisec = value.intValue();
+                    int millisec = (int) value;
                     cal.clear(GregorianCalendar.MONTH);
                     cal.clear(GregorianCalendar.DAY_OF_MONTH);
                     cal.set(GregorianCalendar.YEAR, year);
@@ -951,8 +1020,37 @@ public class StdDataArray {
         return colidx;
     }
 
+    /**
+     * Checks that the given data column index is valid for obtaining standardized values.  This version of the
+     * method just checks that the value is in the appropriate range.  Subclasses should override this method
+     * if further validation is required.
+     *
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the data column index is invalid
+     */
+    protected void checkColumnIndex(int columnIdx) throws IndexOutOfBoundsException {
+        if ( (columnIdx < 0) || (columnIdx >= numDataCols) )
+            throw new IndexOutOfBoundsException("data column index is invalid: " + columnIdx);
+    }
+
+    /**
+     * Checks that the given sample and data column indices are valid for obtaining a standardized value.
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index or the data column index is invalid
+     */
+    private void checkIndices(int sampleIdx, int columnIdx) throws IndexOutOfBoundsException {
+        if ( (sampleIdx < 0) || (sampleIdx >= numSamples) )
+            throw new IndexOutOfBoundsException("sample index is invalid: " + sampleIdx);
+        checkColumnIndex(columnIdx);
+    }
+
     /**
      * Get the standard value object for the specified value (column index) of the specified sample (row index).
+     * This creates an object for numeric values; use the typed accessors to avoid this when examining many values.
      *
      * @param sampleIdx
      *         index of the sample (row)
@@ -965,17 +1063,180 @@ public class StdDataArray {
      *         if the sample index or the data column index is invalid
      */
     public Object getStdVal(int sampleIdx, int columnIdx) throws IndexOutOfBoundsException {
-        if ( (sampleIdx < 0) || (sampleIdx >= numSamples) )
-            throw new IndexOutOfBoundsException("sample index is invalid: " + sampleIdx);
-        if ( (columnIdx < 0) || (columnIdx >= numDataCols) )
-            throw new IndexOutOfBoundsException("data column index is invalid: " + columnIdx);
-        return stdObjects[sampleIdx][columnIdx];
+        checkIndices(sampleIdx, columnIdx);
+        return stdColumns[columnIdx].getValue(sampleIdx);
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return if the standard value for the specified value (column index) of the specified sample (row index)
+     *         is missing; this is the case exactly when {@link #getStdVal(int, int)} returns null
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index or the data column index is invalid
+     */
+    public boolean isMissing(int sampleIdx, int columnIdx) throws IndexOutOfBoundsException {
+        checkIndices(sampleIdx, columnIdx);
+        return stdColumns[columnIdx].isMissing(sampleIdx);
+    }
+
+    /**
+     * Get the standard value of a data column of Double values without creating an object.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return standard value; {@link DashboardUtils#FP_MISSING_VALUE} if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index or the data column index is invalid
+     * @throws IllegalArgumentException
+     *         if the data column does not contain Double values
+     */
+    public double getDoubleVal(int sampleIdx, int columnIdx) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkIndices(sampleIdx, columnIdx);
+        return getDoubleStdColumn(columnIdx).getDouble(sampleIdx);
+    }
+
+    /**
+     * Get the standard value of a data column of Integer values without creating an object.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return standard value; {@link DashboardUtils#INT_MISSING_VALUE} if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index or the data column index is invalid
+     * @throws IllegalArgumentException
+     *         if the data column does not contain Integer values
+     */
+    public int getIntVal(int sampleIdx, int columnIdx) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkIndices(sampleIdx, columnIdx);
+        return getIntStdColumn(columnIdx).getInt(sampleIdx);
+    }
+
+    /**
+     * Get the standard value of a data column of String values.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return standard value; null if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index or the data column index is invalid
+     * @throws IllegalArgumentException
+     *         if the data column does not contain String values
+     */
+    public String getStringVal(int sampleIdx, int columnIdx) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkIndices(sampleIdx, columnIdx);
+        return getStringStdColumn(columnIdx).getString(sampleIdx);
+    }
+
+    /**
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return a copy of the standard values of a data column of Double values;
+     *         missing values are {@link DashboardUtils#FP_MISSING_VALUE}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the data column index is invalid
+     * @throws IllegalArgumentException
+     *         if the data column does not contain Double values
+     */
+    public double[] getDoubleColumn(int columnIdx) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkColumnIndex(columnIdx);
+        return getDoubleStdColumn(columnIdx).getDoubles();
+    }
+
+    /**
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return a copy of the standard values of a data column of Integer values;
+     *         missing values are {@link DashboardUtils#INT_MISSING_VALUE}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the data column index is invalid
+     * @throws IllegalArgumentException
+     *         if the data column does not contain Integer values
+     */
+    public int[] getIntColumn(int columnIdx) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkColumnIndex(columnIdx);
+        return getIntStdColumn(columnIdx).getInts();
+    }
+
+    /**
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return a copy of the standard values of a data column of String values; missing values are null
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the data column index is invalid
+     * @throws IllegalArgumentException
+     *         if the data column does not contain String values
+     */
+    public String[] getStringColumn(int columnIdx) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkColumnIndex(columnIdx);
+        return getStringStdColumn(columnIdx).getStrings();
+    }
+
+    /**
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @return a copy of the bitmap of missing values of a data column; bit j is set if the value for the j-th
+     *         sample is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the data column index is invalid
+     */
+    public BitSet getMissingBitmap(int columnIdx) throws IndexOutOfBoundsException {
+        checkColumnIndex(columnIdx);
+        return (BitSet) stdColumns[columnIdx].missing.clone();
+    }
+
+    private DoubleStdDataColumn getDoubleStdColumn(int columnIdx) throws IllegalArgumentException {
+        StdDataColumn column = stdColumns[columnIdx];
+        if ( !(column instanceof DoubleStdDataColumn) )
+            throw new IllegalArgumentException("data column " + dataTypes[columnIdx].getDisplayName() +
+                    " does not contain Double values");
+        return (DoubleStdDataColumn) column;
+    }
+
+    private IntStdDataColumn getIntStdColumn(int columnIdx) throws IllegalArgumentException {
+        StdDataColumn column = stdColumns[columnIdx];
+        if ( !(column instanceof IntStdDataColumn) )
+            throw new IllegalArgumentException("data column " + dataTypes[columnIdx].getDisplayName() +
+                    " does not contain Integer values");
+        return (IntStdDataColumn) column;
+    }
+
+    private StringStdDataColumn getStringStdColumn(int columnIdx) throws IllegalArgumentException {
+        StdDataColumn column = stdColumns[columnIdx];
+        if ( !(column instanceof StringStdDataColumn) )
+            throw new IllegalArgumentException("data column " + dataTypes[columnIdx].getDisplayName() +
+                    " does not contain String values");
+        return (StringStdDataColumn) column;
     }
 
     @Override
     public int hashCode() {
         final int prime = 37;
-        int result = Arrays.deepHashCode(stdObjects);
+        int result = Arrays.hashCode(stdColumns);
         result = prime * result + Arrays.hashCode(dataTypes);
         result = prime * result + numDataCols;
         result = prime * result + numSamples;
@@ -1001,7 +1262,7 @@ public class StdDataArray {
         if ( !Arrays.equals(dataTypes, other.dataTypes) )
             return false;
 
-        if ( !Arrays.deepEquals(stdObjects, other.stdObjects) )
+        if ( !Arrays.equals(stdColumns, other.stdColumns) )
             return false;
 
         return true;
@@ -1016,11 +1277,15 @@ public class StdDataArray {
                 repr += ",";
             repr += "\n    " + dataTypes[k].toString();
         }
-        repr += "\n  ],\n  stdObjects=[";
+        repr += "\n  ],\n  stdValues=[";
+        Object[] rowObjects = new Object[numDataCols];
         for (int j = 0; j < numSamples; j++) {
             if ( j > 0 )
                 repr += ",";
-            repr += "\n    " + Arrays.toString(stdObjects[j]);
+            for (int k = 0; k < numDataCols; k++) {
+                rowObjects[k] = stdColumns[k].getValue(j);
+            }
+            repr += "\n    " + Arrays.toString(rowObjects);
         }
         repr += "\n  ]\n]";
         return repr;
@@ -0,0 +1,180 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
+import gov.noaa.pmel.dashboard.datatype.StringDashDataType;
+
+import java.util.BitSet;
+
+/**
+ * The standardized values of one data column of a {@link StdDataArray}.  Values are kept in a primitive array
+ * (or, for strings, as codes into a dictionary of the distinct strings) with a bitmap marking the missing values,
+ * so the data of large datasets does not require an object for every data value.
+ *
+ * @author Karl Smith
+ */
+public abstract class StdDataColumn {
+
+    protected final int numSamples;
+    // Bit j is set if the value of the j-th sample is missing
+    protected final BitSet missing;
+
+    /**
+     * Create a data column for the given number of samples with all values missing.
+     *
+     * @param numSamples
+     *         number of samples (rows) in this data column
+     *
+     * @throws IllegalArgumentException
+     *         if the number of samples is negative
+     */
+    protected StdDataColumn(int numSamples) throws IllegalArgumentException {
+        if ( numSamples < 0 )
+            throw new IllegalArgumentException("invalid number of samples: " + numSamples);
+        this.numSamples = numSamples;
+        this.missing = new BitSet(numSamples);
+        this.missing.set(0, numSamples);
+    }
+
+    /**
+     * Create a data column, with all values missing, appropriate for the given data type.
+     *
+     * @param dtype
+     *         data type of the column; must be a {@link StringDashDataType}, {@link IntDashDataType},
+     *         or {@link DoubleDashDataType}
+     * @param numSamples
+     *         number of samples (rows) in the data column
+     *
+     * @return the data column
+     *
+     * @throws IllegalArgumentException
+     *         if the data type is not one of the known subclasses, or if the number of samples is negative
+     */
+    public static StdDataColumn create(DashDataType<?> dtype, int numSamples) throws IllegalArgumentException {
+        if ( dtype instanceof StringDashDataType )
+            return new StringStdDataColumn(numSamples);
+        if ( dtype instanceof IntDashDataType )
+            return new IntStdDataColumn(numSamples);
+        if ( dtype instanceof DoubleDashDataType )
+            return new DoubleStdDataColumn(numSamples);
+        throw new IllegalArgumentException("unknown data class type for " +
+                dtype.getDisplayName() + " (" + dtype.getDataClassName() + ")");
+    }
+
+    /**
+     * @return the number of samples (rows) in this data column
+     */
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return if the value for this sample is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public boolean isMissing(int sampleIdx) throws IndexOutOfBoundsException {
+        if ( (sampleIdx < 0) || (sampleIdx >= numSamples) )
+            throw new IndexOutOfBoundsException("sample index is invalid: " + sampleIdx);
+        return missing.get(sampleIdx);
+    }
+
+    /**
+     * @return the number of missing values in this data column
+     */
+    public int getNumMissing() {
+        return missing.cardinality();
+    }
+
+    /**
+     * Get the value for a sample as an object; this creates an object for numeric values.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value for this sample; null if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public abstract Object getValue(int sampleIdx) throws IndexOutOfBoundsException;
+
+    /**
+     * Assign the value for a sample from an object.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param value
+     *         value to assign; if null, the value is marked as missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     * @throws IllegalArgumentException
+     *         if the value is not an object of the appropriate class for this data column
+     */
+    public abstract void setValue(int sampleIdx, Object value)
+            throws IndexOutOfBoundsException, IllegalArgumentException;
+
+    /**
+     * @param dtype
+     *         data type to check
+     *
+     * @return if this data column holds values of the class provided by the given data type
+     */
+    public abstract boolean holdsValuesOf(DashDataType<?> dtype);
+
+    /**
+     * @return a deep copy of this data column
+     */
+    public abstract StdDataColumn copy();
+
+    /**
+     * Compares the value of a sample in this data column to the value of a sample in another data column
+     * of the same class.  Only used for samples whose values are not missing.
+     */
+    protected abstract boolean valueEquals(int sampleIdx, StdDataColumn other, int otherIdx);
+
+    /**
+     * @return the hash code of the (non-missing) value of the given sample
+     */
+    protected abstract int valueHashCode(int sampleIdx);
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = numSamples;
+        result = prime * result + missing.hashCode();
+        for (int j = missing.nextClearBit(0); j < numSamples; j = missing.nextClearBit(j + 1)) {
+            result = prime * result + valueHashCode(j);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( getClass() != obj.getClass() )
+            return false;
+        StdDataColumn other = (StdDataColumn) obj;
+
+        if ( numSamples != other.numSamples )
+            return false;
+        if ( !missing.equals(other.missing) )
+            return false;
+        for (int j = missing.nextClearBit(0); j < numSamples; j = missing.nextClearBit(j + 1)) {
+            if ( !valueEquals(j, other, j) )
+                return false;
+        }
+        return true;
+    }
+
+}
@@ -2,6 +2,7 @@ package gov.noaa.pmel.dashboard.dsg;
 
 import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleValueConverter;
 import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
@@ -11,19 +12,27 @@ import gov.noaa.pmel.dashboard.qc.DataLocation;
 import gov.noaa.pmel.dashboard.server.DashboardConfigStore;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
- * A 2-D array of objects corresponding to the standardized values of string values provided by the user.
+ * The standardized values of string values provided by the user.
  * Also contains 1-D arrays of information describing each data column.
  *
  * @author Karl Smith
@@ -38,6 +47,13 @@ public class StdUserDataArray extends StdDataArray {
     private String[] userMissVals;
     private Boolean[] standardized;
     private ArrayList<ADCMessage> stdMsgList;
+    // Pool for standardizing and checking data columns in parallel; if null, done in the calling thread
+    private ForkJoinPool workerPool;
+
+    /**
+     * Maximum number of data rows read and standardized at one time
+     */
+    public static final int STANDARDIZE_CHUNK_NUM_ROWS = 8192;
 
     /**
      * Create from the user's data column descriptions, data strings, data row numbers, and data check flags
@@ -64,7 +80,74 @@ public class StdUserDataArray extends StdDataArray {
      *         if a standardizer for a given data type is not known
      */
     public StdUserDataArray(DashboardDatasetData dataset, KnownDataTypes knownTypes) throws IllegalArgumentException {
+        this(dataset, new DatasetDataRows(dataset), dataset.getDataValues().size(), knownTypes, null);
+    }
+
+    /**
+     * Same as {@link #StdUserDataArray(DashboardDatasetData, KnownDataTypes)} except the data columns are
+     * standardized, and later checked, in parallel using the given pool.  See {@link #StdUserDataArray(
+     * DashboardDataset, UserDataRowSource, KnownDataTypes, ForkJoinPool)}.
+     *
+     * @param workerPool
+     *         pool for standardizing and checking the data columns in parallel;
+     *         if null, this is done in the calling thread
+     */
+    public StdUserDataArray(DashboardDatasetData dataset, KnownDataTypes knownTypes, ForkJoinPool workerPool)
+            throws IllegalArgumentException {
+        this(dataset, new DatasetDataRows(dataset), dataset.getDataValues().size(), knownTypes, workerPool);
+    }
+
+    /**
+     * Create from the user's data column descriptions given for this dataset, reading the user's data strings
+     * and data row numbers from the given source.  The data rows are read and standardized in chunks of at most
+     * {@link #STANDARDIZE_CHUNK_NUM_ROWS} rows, so the strings of all the data never need to be held in memory.
+     * Otherwise this is the same as {@link #StdUserDataArray(DashboardDatasetData, KnownDataTypes)}.
+     * <p>
+     * The standardizers for the data columns are obtained when the first chunk of data rows is standardized
+     * and then used for all remaining chunks.  Thus a standardizer may depend on which other data columns have
+     * been standardized, but should not depend on the standardized values in those data columns.
+     *
+     * @param dataset
+     *         dataset to use; the number of data rows of the dataset must be assigned
+     * @param dataRows
+     *         source of the user's data strings and data row numbers for this dataset
+     * @param knownTypes
+     *         all known user data types
+     *
+     * @throws IllegalArgumentException
+     *         if there are no data values,
+     *         if the number of data rows read does not match the number of data rows of the dataset,
+     *         if there are problems reading the data rows,
+     *         if a data column description is not a known user data type,
+     *         if a required unit conversion is not supported, or
+     *         if a standardizer for a given data type is not known
+     */
+    public StdUserDataArray(DashboardDataset dataset, UserDataRowSource dataRows, KnownDataTypes knownTypes)
+            throws IllegalArgumentException {
+        this(dataset, dataRows, dataset.getNumDataRows(), knownTypes, null);
+    }
+
+    /**
+     * Same as {@link #StdUserDataArray(DashboardDataset, UserDataRowSource, KnownDataTypes)} except, once the
+     * first chunk of data rows has determined the standardizers, the data columns of each chunk are standardized
+     * in parallel using the given pool.  The given pool is also used to perform the per-column data checks of
+     * {@link #checkMissingLonLatTime()}, {@link #checkBounds()}, and {@link #checkMetadataTypeValues()} in parallel.
+     * The messages generated are collected for each data column and combined in the same order as when done in
+     * the calling thread, so the results do not depend on the pool used.
+     *
+     * @param workerPool
+     *         pool for standardizing and checking the data columns in parallel;
+     *         if null, this is done in the calling thread
+     */
+    public StdUserDataArray(DashboardDataset dataset, UserDataRowSource dataRows, KnownDataTypes knownTypes,
+            ForkJoinPool workerPool) throws IllegalArgumentException {
+        this(dataset, dataRows, dataset.getNumDataRows(), knownTypes, workerPool);
+    }
+
+    private StdUserDataArray(DashboardDataset dataset, UserDataRowSource dataRows, int numRows,
+            KnownDataTypes knownTypes, ForkJoinPool workerPool) throws IllegalArgumentException {
         super(dataset.getDataColTypes(), knownTypes);
+        this.workerPool = workerPool;
 
         // Add the user's units, missing values, and user column names
         userUnits = new String[numDataCols];
@@ -89,6 +172,9 @@ public class StdUserDataArray extends StdDataArray {
         // the StdDataArray constructor that was used adds any required WOCE column types that are missing
         // as well as SAMPLE_NUMBER
         for (int k = numUserDataCols; k < numDataCols; k++) {
+            if ( !(DashboardServerUtils.SAMPLE_NUMBER.typeNameEquals(dataTypes[k]) ||
+                    SocatTypes.WOCE_CO2_WATER.typeNameEquals(dataTypes[k])) )
+                throw new IllegalArgumentException("unexpected unknown added data types");
             userUnits[k] = dataTypes[k].getUnits().get(0);
             if ( DashboardUtils.STRING_MISSING_VALUE.equals(userUnits[k]) )
                 userUnits[k] = null;
@@ -101,187 +187,451 @@ public class StdUserDataArray extends StdDataArray {
             standardized[k] = null;
         }
 
-        ArrayList<ArrayList<String>> dataVals = dataset.getDataValues();
-        if ( dataVals.isEmpty() )
+        if ( numRows <= 0 )
             throw new IllegalArgumentException("no data values given");
-        numSamples = dataVals.size();
-
-        ArrayList<Integer> rowNums = dataset.getRowNums();
-        if ( rowNums.size() != numSamples )
-            throw new IllegalArgumentException("number of row numbers (" + rowNums.size() +
-                    ") does not match the number of samples (" + numSamples + ")");
+        numSamples = numRows;
 
-        stdObjects = new Object[numSamples][numDataCols];
+        stdColumns = new StdDataColumn[numDataCols];
+        for (int k = 0; k < numDataCols; k++) {
+            stdColumns[k] = StdDataColumn.create(dataTypes[k], numSamples);
+        }
         stdMsgList = new ArrayList<ADCMessage>();
 
-        // Create a 2-D array of these Strings for efficiency
-        String[][] strDataVals = new String[numSamples][numDataCols];
-        int woceIdx = -1;
-        for (int j = 0; j < numSamples; j++) {
-            ArrayList<String> rowVals = dataVals.get(j);
-            if ( rowVals.size() != numUserDataCols ) {
-                // Generate a general message for this row - in case too long
-                ADCMessage msg = new ADCMessage();
-                msg.setSeverity(Severity.CRITICAL);
-                msg.setRowNumber(j + 1);
-                msg.setGeneralComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG);
-                msg.setDetailedComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG + "; " +
-                        numUserDataCols + " expected but " + rowVals.size() + " found");
-                stdMsgList.add(msg);
-                // Continue on, assuming the missing values are at the end
+        // Messages are collected by row problems and then by data column (in the order the columns are
+        // standardized) so the order of the messages does not depend on the number of rows in a chunk
+        ArrayList<ADCMessage> rowMsgs = new ArrayList<ADCMessage>();
+        ArrayList<ArrayList<ADCMessage>> columnMsgs = new ArrayList<ArrayList<ADCMessage>>(numDataCols);
+        for (int k = 0; k < numDataCols; k++) {
+            columnMsgs.add(new ArrayList<ADCMessage>());
+        }
+        // Standardizers for the data columns, and the order in which they are to be applied,
+        // assigned when standardizing the first chunk of data rows
+        ValueConverter<?>[] stdizers = new ValueConverter<?>[numDataCols];
+        ArrayList<Integer> stdOrder = null;
+
+        final ArrayList<ArrayList<String>> chunkVals =
+                new ArrayList<ArrayList<String>>(STANDARDIZE_CHUNK_NUM_ROWS);
+        final ArrayList<Integer> chunkRowNums = new ArrayList<Integer>(STANDARDIZE_CHUNK_NUM_ROWS);
+        // Strings of one data column of the chunk of data rows being standardized
+        String[] chunkStrVals = new String[STANDARDIZE_CHUNK_NUM_ROWS];
+        // Strings of each data column of the chunk of data rows when standardizing the data columns in parallel
+        final String[][] columnStrVals = new String[numDataCols][];
+        int firstIdx = 0;
+        while ( true ) {
+            chunkVals.clear();
+            chunkRowNums.clear();
+            int numRead;
+            try {
+                numRead = dataRows.readRows(chunkVals, chunkRowNums, STANDARDIZE_CHUNK_NUM_ROWS);
+            } catch ( IOException ex ) {
+                throw new IllegalArgumentException("problems reading the data values: " + ex.getMessage(), ex);
             }
-            for (int k = 0; k < numUserDataCols; k++) {
-                try {
-                    strDataVals[j][k] = rowVals.get(k);
-                } catch ( IndexOutOfBoundsException ex ) {
-                    // Setting it to null will generate a "no value given" message
-                    strDataVals[j][k] = null;
+            if ( numRead <= 0 )
+                break;
+            if ( (chunkVals.size() != numRead) || (chunkRowNums.size() != numRead) )
+                throw new IllegalArgumentException("number of data rows read (" + chunkVals.size() +
+                        ") or number of row numbers read (" + chunkRowNums.size() +
+                        ") does not match the number reported (" + numRead + ")");
+            if ( firstIdx + numRead > numSamples )
+                throw new IllegalArgumentException("more data rows read than the number of data rows (" +
+                        numSamples + ") expected");
+
+            for (int j = 0; j < numRead; j++) {
+                int rowSize = chunkVals.get(j).size();
+                if ( rowSize != numUserDataCols ) {
+                    // Generate a general message for this row - in case too long
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(Severity.CRITICAL);
+                    msg.setRowNumber(firstIdx + j + 1);
+                    msg.setGeneralComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG);
+                    msg.setDetailedComment(INCONSISTENT_NUMBER_OF_DATA_VALUES_MSG + "; " +
+                            numUserDataCols + " expected but " + rowSize + " found");
+                    rowMsgs.add(msg);
+                    // Continue on, assuming the missing values are at the end
                 }
             }
-            for (int k = numUserDataCols; k < numDataCols; k++) {
-                if ( DashboardServerUtils.SAMPLE_NUMBER.typeNameEquals(dataTypes[k]) ) {
-                    strDataVals[j][k] = rowNums.get(j).toString();
+
+            if ( stdOrder == null ) {
+                // Standardize data columns in as many passes as required
+                // for data columns depending on other standardized data columns
+                stdOrder = new ArrayList<Integer>(numDataCols);
+                boolean needsAnotherPass;
+                do {
+                    needsAnotherPass = false;
+                    boolean progressed = false;
+                    for (int k = 0; k < numDataCols; k++) {
+                        if ( Boolean.TRUE.equals(standardized[k]) )
+                            continue;
+                        DashDataType<?> colType = dataTypes[k];
+                        if ( DashboardServerUtils.UNKNOWN.typeNameEquals(colType) ||
+                                DashboardServerUtils.OTHER.typeNameEquals(colType) ) {
+                            standardized[k] = null;
+                            continue;
+                        }
+                        try {
+                            stdizers[k] = colType.getStandardizer(userUnits[k], userMissVals[k], this);
+                            columnMsgs.get(k).clear();
+                            getChunkStrings(chunkVals, chunkRowNums, k, numUserDataCols, chunkStrVals);
+                            standardizeChunk(k, stdizers[k], chunkStrVals, numRead, firstIdx, columnMsgs.get(k));
+                            standardized[k] = true;
+                            stdOrder.add(k);
+                            progressed = true;
+                        } catch ( IllegalStateException ex ) {
+                            standardized[k] = false;
+                            needsAnotherPass = true;
+                        }
+                    }
+                    if ( needsAnotherPass && !progressed )
+                        throw new IllegalArgumentException("unable to standardize data columns " +
+                                "depending on other data columns that cannot be standardized");
+                } while ( needsAnotherPass );
+            }
+            else if ( workerPool == null ) {
+                for (int k : stdOrder) {
+                    getChunkStrings(chunkVals, chunkRowNums, k, numUserDataCols, chunkStrVals);
+                    standardizeChunk(k, stdizers[k], chunkStrVals, numRead, firstIdx, columnMsgs.get(k));
                 }
-                else if ( SocatTypes.WOCE_CO2_WATER.typeNameEquals(dataTypes[k]) ) {
-                    strDataVals[j][k] = DashboardUtils.STRING_MISSING_VALUE;
+            }
+            else {
+                // The standardizers are known, and do not use values in other data columns,
+                // so the data columns of this chunk can be standardized independently
+                ArrayList<Callable<ArrayList<ADCMessage>>> tasks =
+                        new ArrayList<Callable<ArrayList<ADCMessage>>>(stdOrder.size());
+                for (final int k : stdOrder) {
+                    final ValueConverter<?> stdizer = stdizers[k];
+                    final int chunkNumRows = numRead;
+                    final int chunkFirstIdx = firstIdx;
+                    final int numUserCols = numUserDataCols;
+                    tasks.add(new Callable<ArrayList<ADCMessage>>() {
+                        @Override
+                        public ArrayList<ADCMessage> call() {
+                            if ( columnStrVals[k] == null )
+                                columnStrVals[k] = new String[STANDARDIZE_CHUNK_NUM_ROWS];
+                            ArrayList<ADCMessage> msgs = new ArrayList<ADCMessage>();
+                            getChunkStrings(chunkVals, chunkRowNums, k, numUserCols, columnStrVals[k]);
+                            standardizeChunk(k, stdizer, columnStrVals[k], chunkNumRows, chunkFirstIdx, msgs);
+                            return msgs;
+                        }
+                    });
                 }
-                else {
-                    throw new IllegalArgumentException("unexpected unknown added data types");
+                ArrayList<ArrayList<ADCMessage>> results = runColumnTasks(tasks);
+                for (int q = 0; q < stdOrder.size(); q++) {
+                    columnMsgs.get(stdOrder.get(q)).addAll(results.get(q));
                 }
             }
+
+            firstIdx += numRead;
         }
+        if ( firstIdx != numSamples )
+            throw new IllegalArgumentException("number of data rows read (" + firstIdx +
+                    ") does not match the number of data rows (" + numSamples + ") expected");
 
-        // Standardize data columns
-        boolean needsAnotherPass;
-        do {
-            needsAnotherPass = false;
-            for (int k = 0; k < numDataCols; k++) {
-                DashDataType<?> colType = dataTypes[k];
-                if ( DashboardServerUtils.UNKNOWN.typeNameEquals(colType) ||
-                        DashboardServerUtils.OTHER.typeNameEquals(colType) ) {
-                    for (int j = 0; j < numSamples; j++) {
-                        stdObjects[j][k] = null;
-                    }
-                    standardized[k] = null;
+        stdMsgList.addAll(rowMsgs);
+        for (int k : stdOrder) {
+            stdMsgList.addAll(columnMsgs.get(k));
+        }
+    }
+
+    /**
+     * Assigns the user's strings for a data column of a chunk of data rows.
+     *
+     * @param chunkVals
+     *         user's strings of the chunk of data rows
+     * @param chunkRowNums
+     *         row numbers of the chunk of data rows
+     * @param columnIdx
+     *         index of the data column
+     * @param numUserDataCols
+     *         number of data columns given by the user; any other data columns are those added
+     * @param strVals
+     *         assigned with the strings for the data column; null if not given in a data row
+     */
+    private void getChunkStrings(ArrayList<ArrayList<String>> chunkVals, ArrayList<Integer> chunkRowNums,
+            int columnIdx, int numUserDataCols, String[] strVals) {
+        int numRows = chunkVals.size();
+        if ( columnIdx < numUserDataCols ) {
+            for (int j = 0; j < numRows; j++) {
+                ArrayList<String> rowVals = chunkVals.get(j);
+                // Setting it to null will generate a "no value given" message
+                strVals[j] = (columnIdx < rowVals.size()) ? rowVals.get(columnIdx) : null;
+            }
+        }
+        else if ( DashboardServerUtils.SAMPLE_NUMBER.typeNameEquals(dataTypes[columnIdx]) ) {
+            for (int j = 0; j < numRows; j++) {
+                strVals[j] = chunkRowNums.get(j).toString();
+            }
+        }
+        else {
+            // WOCE_CO2_WATER
+            Arrays.fill(strVals, 0, numRows, DashboardUtils.STRING_MISSING_VALUE);
+        }
+    }
+
+    /**
+     * Standardizes the user's strings for a data column of a chunk of data rows.  Floating-point data columns
+     * with a {@link DoubleValueConverter} standardizer are converted all at once to primitive values.
+     *
+     * @param columnIdx
+     *         index of the data column
+     * @param stdizer
+     *         standardizer for the data column
+     * @param strVals
+     *         user's strings for the data column of the chunk of data rows
+     * @param numRows
+     *         number of data rows in the chunk
+     * @param firstIdx
+     *         index of the first data row of the chunk
+     * @param msgList
+     *         messages about strings that cannot be standardized are added to this list
+     *
+     * @throws IllegalStateException
+     *         if the standardizer requires a data column that has not yet been standardized
+     */
+    private void standardizeChunk(int columnIdx, ValueConverter<?> stdizer, String[] strVals, int numRows,
+            int firstIdx, ArrayList<ADCMessage> msgList) throws IllegalStateException {
+        StdDataColumn column = stdColumns[columnIdx];
+        if ( (stdizer instanceof DoubleValueConverter) && (column instanceof DoubleStdDataColumn) ) {
+            // Convert the whole column of the chunk to primitive doubles
+            double[] values = new double[numRows];
+            BitSet missing = new BitSet(numRows);
+            String[] errors = new String[numRows];
+            int numErrors = ((DoubleValueConverter) stdizer).convertValues(strVals, numRows, values, missing, errors);
+            ((DoubleStdDataColumn) column).setDoubles(firstIdx, values, missing, numRows);
+            for (int j = 0; (numErrors > 0) && (j < numRows); j++) {
+                if ( errors[j] != null ) {
+                    msgList.add(createConversionMessage(columnIdx, firstIdx + j, strVals[j], errors[j]));
+                    numErrors--;
                 }
-                else {
-                    try {
-                        ValueConverter<?> stdizer = colType.getStandardizer(userUnits[k], userMissVals[k], this);
-                        for (int j = 0; j < numSamples; j++) {
-                            try {
-                                stdObjects[j][k] = stdizer.convertValueOf(strDataVals[j][k]);
-                            } catch ( IllegalArgumentException ex ) {
-                                stdObjects[j][k] = null;
-                                ADCMessage msg = new ADCMessage();
-                                if ( colType.isCritical() )
-                                    msg.setSeverity(Severity.CRITICAL);
-                                else
-                                    msg.setSeverity(Severity.ERROR);
-                                msg.setRowNumber(j + 1);
-                                msg.setColNumber(k + 1);
-                                msg.setColName(userColNames[k]);
-                                msg.setGeneralComment(ex.getMessage());
-                                if ( strDataVals[j][k] == null )
-                                    msg.setDetailedComment(ex.getMessage());
-                                else
-                                    msg.setDetailedComment(ex.getMessage() + ": \"" + strDataVals[j][k] + "\"");
-                                stdMsgList.add(msg);
-                            }
-                        }
-                        standardized[k] = true;
-                    } catch ( IllegalStateException ex ) {
-                        standardized[k] = false;
-                        needsAnotherPass = true;
-                    }
+            }
+            return;
+        }
+        for (int j = 0; j < numRows; j++) {
+            int sampleIdx = firstIdx + j;
+            try {
+                column.setValue(sampleIdx, stdizer.convertValueOf(strVals[j]));
+            } catch ( IllegalArgumentException ex ) {
+                column.setValue(sampleIdx, null);
+                msgList.add(createConversionMessage(columnIdx, sampleIdx, strVals[j], ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * @param columnIdx
+     *         index of the data column
+     * @param sampleIdx
+     *         index of the data row
+     * @param strVal
+     *         user's string that could not be standardized; may be null
+     * @param comment
+     *         reason the string could not be standardized
+     *
+     * @return the message about the string that could not be standardized
+     */
+    private ADCMessage createConversionMessage(int columnIdx, int sampleIdx, String strVal, String comment) {
+        ADCMessage msg = new ADCMessage();
+        if ( dataTypes[columnIdx].isCritical() )
+            msg.setSeverity(Severity.CRITICAL);
+        else
+            msg.setSeverity(Severity.ERROR);
+        msg.setRowNumber(sampleIdx + 1);
+        msg.setColNumber(columnIdx + 1);
+        msg.setColName(userColNames[columnIdx]);
+        msg.setGeneralComment(comment);
+        if ( strVal == null )
+            msg.setDetailedComment(comment);
+        else
+            msg.setDetailedComment(comment + ": \"" + strVal + "\"");
+        return msg;
+    }
+
+    /**
+     * Runs tasks that each examine data columns independent of those examined by the other tasks.  The tasks
+     * are run in parallel in the worker pool, if one was given; otherwise they are run one after another in the
+     * calling thread.
+     *
+     * @param tasks
+     *         tasks to run
+     *
+     * @return the messages generated by each task, in the order of the tasks
+     *
+     * @throws IllegalArgumentException
+     *         if a task throws an IllegalArgumentException
+     * @throws IllegalStateException
+     *         if a task throws an IllegalStateException or a checked exception, or if interrupted
+     *         while waiting for the tasks to complete
+     */
+    private ArrayList<ArrayList<ADCMessage>> runColumnTasks(List<Callable<ArrayList<ADCMessage>>> tasks)
+            throws IllegalArgumentException, IllegalStateException {
+        ArrayList<ArrayList<ADCMessage>> results = new ArrayList<ArrayList<ADCMessage>>(tasks.size());
+        try {
+            if ( (workerPool == null) || (tasks.size() < 2) ) {
+                for (Callable<ArrayList<ADCMessage>> task : tasks) {
+                    results.add(task.call());
+                }
+            }
+            else {
+                // invokeAll waits for all the tasks to complete; the first task that
+                // failed (in the order of the tasks) determines the exception thrown
+                for (Future<ArrayList<ADCMessage>> future : workerPool.invokeAll(tasks)) {
+                    results.add(future.get());
                 }
             }
-        } while ( needsAnotherPass );
+        } catch ( ExecutionException ex ) {
+            Throwable cause = ex.getCause();
+            if ( cause instanceof RuntimeException )
+                throw (RuntimeException) cause;
+            if ( cause instanceof Error )
+                throw (Error) cause;
+            throw new IllegalStateException(cause.getMessage(), cause);
+        } catch ( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while examining the data columns", ex);
+        } catch ( RuntimeException ex ) {
+            throw ex;
+        } catch ( Exception ex ) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+        return results;
+    }
+
+    /**
+     * Provides the data rows of a DashboardDatasetData as a source of data rows.
+     */
+    private static class DatasetDataRows implements UserDataRowSource {
+        private ArrayList<ArrayList<String>> dataVals;
+        private ArrayList<Integer> rowNums;
+        private int nextIdx;
+
+        DatasetDataRows(DashboardDatasetData dataset) throws IllegalArgumentException {
+            dataVals = dataset.getDataValues();
+            rowNums = dataset.getRowNums();
+            if ( rowNums.size() != dataVals.size() )
+                throw new IllegalArgumentException("number of row numbers (" + rowNums.size() +
+                        ") does not match the number of samples (" + dataVals.size() + ")");
+            nextIdx = 0;
+        }
+
+        @Override
+        public int readRows(ArrayList<ArrayList<String>> chunkVals, ArrayList<Integer> chunkRowNums,
+                int maxNumRows) {
+            int endIdx = Math.min(dataVals.size(), nextIdx + maxNumRows);
+            chunkVals.addAll(dataVals.subList(nextIdx, endIdx));
+            chunkRowNums.addAll(rowNums.subList(nextIdx, endIdx));
+            int numRead = endIdx - nextIdx;
+            nextIdx = endIdx;
+            return numRead;
+        }
     }
 
     /**
      * Check for missing longitude, latitude, and time columns or data values.
      * Any problems found generate messages that are added to the internal list of messages.
+     * The longitudes, latitudes, and times are checked in parallel if a worker pool was given.
      *
      * @return the sample times for the data;  may be null if there was incomplete specification of
      *         sample time, or may contain null values if there were problems computing the sample time
      */
     public Double[] checkMissingLonLatTime() {
-        try {
-            Double[] longitudes = getSampleLongitudes();
-            for (int j = 0; j < numSamples; j++) {
-                if ( longitudes[j] == null ) {
+        final Double[][] sampleTimes = new Double[1][];
+        ArrayList<Callable<ArrayList<ADCMessage>>> tasks = new ArrayList<Callable<ArrayList<ADCMessage>>>(3);
+        tasks.add(new Callable<ArrayList<ADCMessage>>() {
+            @Override
+            public ArrayList<ADCMessage> call() {
+                ArrayList<ADCMessage> msgs = new ArrayList<ADCMessage>();
+                try {
+                    Double[] longitudes = getSampleLongitudes();
+                    for (int j = 0; j < numSamples; j++) {
+                        if ( longitudes[j] == null ) {
+                            ADCMessage msg = new ADCMessage();
+                            msg.setSeverity(Severity.CRITICAL);
+                            msg.setRowNumber(j + 1);
+                            msg.setColNumber(longitudeIndex + 1);
+                            msg.setColName(userColNames[longitudeIndex]);
+                            String comment = "missing longitude";
+                            msg.setGeneralComment(comment);
+                            msg.setDetailedComment(comment);
+                            msgs.add(msg);
+                        }
+                    }
+                } catch ( Exception ex ) {
                     ADCMessage msg = new ADCMessage();
                     msg.setSeverity(Severity.CRITICAL);
-                    msg.setRowNumber(j + 1);
-                    msg.setColNumber(longitudeIndex + 1);
-                    msg.setColName(userColNames[longitudeIndex]);
-                    String comment = "missing longitude";
+                    String comment = "no longitude column";
                     msg.setGeneralComment(comment);
                     msg.setDetailedComment(comment);
-                    stdMsgList.add(msg);
+                    msgs.add(msg);
                 }
+                return msgs;
             }
-        } catch ( Exception ex ) {
-            ADCMessage msg = new ADCMessage();
-            msg.setSeverity(Severity.CRITICAL);
-            String comment = "no longitude column";
-            msg.setGeneralComment(comment);
-            msg.setDetailedComment(comment);
-            stdMsgList.add(msg);
-        }
-
-        try {
-            Double[] latitudes = getSampleLatitudes();
-            for (int j = 0; j < numSamples; j++) {
-                if ( latitudes[j] == null ) {
+        });
+        tasks.add(new Callable<ArrayList<ADCMessage>>() {
+            @Override
+            public ArrayList<ADCMessage> call() {
+                ArrayList<ADCMessage> msgs = new ArrayList<ADCMessage>();
+                try {
+                    Double[] latitudes = getSampleLatitudes();
+                    for (int j = 0; j < numSamples; j++) {
+                        if ( latitudes[j] == null ) {
+                            ADCMessage msg = new ADCMessage();
+                            msg.setSeverity(Severity.CRITICAL);
+                            msg.setRowNumber(j + 1);
+                            msg.setColNumber(latitudeIndex + 1);
+                            msg.setColName(userColNames[latitudeIndex]);
+                            String comment = "missing latitude";
+                            msg.setGeneralComment(comment);
+                            msg.setDetailedComment(comment);
+                            msgs.add(msg);
+                        }
+                    }
+                } catch ( Exception ex ) {
                     ADCMessage msg = new ADCMessage();
                     msg.setSeverity(Severity.CRITICAL);
-                    msg.setRowNumber(j + 1);
-                    msg.setColNumber(latitudeIndex + 1);
-                    msg.setColName(userColNames[latitudeIndex]);
-                    String comment = "missing latitude";
+                    String comment = "no latitude column";
                     msg.setGeneralComment(comment);
                     msg.setDetailedComment(comment);
-                    stdMsgList.add(msg);
+                    msgs.add(msg);
                 }
+                return msgs;
             }
-        } catch ( Exception ex ) {
-            ADCMessage msg = new ADCMessage();
-            msg.setSeverity(Severity.CRITICAL);
-            String comment = "no latitude column";
-            msg.setGeneralComment(comment);
-            msg.setDetailedComment(comment);
-            stdMsgList.add(msg);
-        }
-
-        Double[] times = null;
-        try {
-            times = calcSampleTimes();
-            for (int j = 0; j < numSamples; j++) {
-                if ( times[j] == null ) {
-                    for (int k = 0; k < indicesForTime.length; k++) {
-                        ADCMessage msg = new ADCMessage();
-                        msg.setSeverity(Severity.CRITICAL);
-                        msg.setRowNumber(j + 1);
-                        msg.setColNumber(indicesForTime[k] + 1);
-                        msg.setColName(userColNames[indicesForTime[k]]);
-                        String comment = "invalid sample date/time specification";
-                        msg.setGeneralComment(comment);
-                        msg.setDetailedComment(comment);
-                        stdMsgList.add(msg);
+        });
+        tasks.add(new Callable<ArrayList<ADCMessage>>() {
+            @Override
+            public ArrayList<ADCMessage> call() {
+                ArrayList<ADCMessage> msgs = new ArrayList<ADCMessage>();
+                try {
+                    Double[] times = calcSampleTimes();
+                    sampleTimes[0] = times;
+                    for (int j = 0; j < numSamples; j++) {
+                        if ( times[j] == null ) {
+                            for (int k = 0; k < indicesForTime.length; k++) {
+                                ADCMessage msg = new ADCMessage();
+                                msg.setSeverity(Severity.CRITICAL);
+                                msg.setRowNumber(j + 1);
+                                msg.setColNumber(indicesForTime[k] + 1);
+                                msg.setColName(userColNames[indicesForTime[k]]);
+                                String comment = "invalid sample date/time specification";
+                                msg.setGeneralComment(comment);
+                                msg.setDetailedComment(comment);
+                                msgs.add(msg);
+                            }
+                        }
                     }
+                } catch ( Exception ex ) {
+                    ADCMessage msg = new ADCMessage();
+                    msg.setSeverity(Severity.CRITICAL);
+                    String comment = "missing columns for sample date/time specification";
+                    msg.setGeneralComment(comment);
+                    msg.setDetailedComment(comment);
+                    msgs.add(msg);
                 }
+                return msgs;
             }
-        } catch ( Exception ex ) {
-            ADCMessage msg = new ADCMessage();
-            msg.setSeverity(Severity.CRITICAL);
-            String comment = "missing columns for sample date/time specification";
-            msg.setGeneralComment(comment);
-            msg.setDetailedComment(comment);
-            stdMsgList.add(msg);
+        });
+        for (ArrayList<ADCMessage> msgs : runColumnTasks(tasks)) {
+            stdMsgList.addAll(msgs);
         }
-
-        return times;
+        return sampleTimes[0];
     }
 
     /**
@@ -554,145 +904,207 @@ public class StdUserDataArray extends StdDataArray {
     /**
      * Checks that all values given (not missing values) are within the acceptable range for that data type.
      * Any problems found generate (error or warning) messages that are added to the internal list of messages.
+     * The data columns are checked in parallel if a worker pool was given.
      */
     public void checkBounds() {
+        ArrayList<Callable<ArrayList<ADCMessage>>> tasks = new ArrayList<Callable<ArrayList<ADCMessage>>>();
         for (int k = 0; k < numDataCols; k++) {
-            DashDataType<?> dtype = dataTypes[k];
-
-            if ( dtype instanceof StringDashDataType ) {
-                StringDashDataType strtype = (StringDashDataType) dtype;
-                for (int j = 0; j < numSamples; j++) {
-                    ADCMessage msg = strtype.boundsCheckStandardValue((String) stdObjects[j][k]);
-                    if ( msg != null ) {
-                        msg.setRowNumber(j + 1);
-                        msg.setColNumber(k + 1);
-                        msg.setColName(userColNames[k]);
-                        stdMsgList.add(msg);
-                    }
-                }
-            }
-            else if ( dtype instanceof IntDashDataType ) {
-                IntDashDataType inttype = (IntDashDataType) dtype;
-                for (int j = 0; j < numSamples; j++) {
-                    ADCMessage msg = inttype.boundsCheckStandardValue((Integer) stdObjects[j][k]);
-                    if ( msg != null ) {
-                        msg.setRowNumber(j + 1);
-                        msg.setColNumber(k + 1);
-                        msg.setColName(userColNames[k]);
-                        stdMsgList.add(msg);
-                    }
-                }
-            }
-            else if ( dtype instanceof DoubleDashDataType ) {
-                DoubleDashDataType dbltype = (DoubleDashDataType) dtype;
-                for (int j = 0; j < numSamples; j++) {
-                    ADCMessage msg = dbltype.boundsCheckStandardValue((Double) stdObjects[j][k]);
-                    if ( msg != null ) {
-                        msg.setRowNumber(j + 1);
-                        msg.setColNumber(k + 1);
-                        msg.setColName(userColNames[k]);
-                        stdMsgList.add(msg);
-                    }
+            // Skip data columns without any bounds as well as missing values
+            // so the values only need to be examined and boxed when they could generate a message
+            if ( !dataTypes[k].hasBounds() )
+                continue;
+            final int columnIdx = k;
+            tasks.add(new Callable<ArrayList<ADCMessage>>() {
+                @Override
+                public ArrayList<ADCMessage> call() {
+                    return checkColumnBounds(columnIdx);
                 }
-            }
-            else {
-                throw new IllegalArgumentException(
-                        "unexpected data type encountered in bounds checking: " + dtype);
-            }
+            });
+        }
+        for (ArrayList<ADCMessage> msgs : runColumnTasks(tasks)) {
+            stdMsgList.addAll(msgs);
         }
     }
 
     /**
-     * Checks that data column values for any metadata items are either all the same value or are missing
+     * Checks that all values given (not missing values) in a data column are within the acceptable range
+     * for the data type of the column.
+     *
+     * @param k
+     *         index of the data column to check; the data type of this column must have bounds
+     *
+     * @return messages for the values outside the acceptable range
      */
-    public void checkMetadataTypeValues() {
-        for (int k = 0; k < numDataCols; k++) {
-            DashDataType<?> dtype = dataTypes[k];
-            if ( !dtype.hasRole(DashDataType.Role.FILE_METADATA) )
-                continue;
-
-            if ( dtype instanceof StringDashDataType ) {
-                String singleVal = null;
-                for (int j = 0; j < numSamples; j++) {
-                    String thisVal = (String) stdObjects[j][k];
-                    if ( thisVal == null )
-                        continue;
-                    if ( singleVal == null ) {
-                        singleVal = thisVal;
-                        continue;
-                    }
-                    if ( singleVal.equals(thisVal) )
-                        continue;
+    private ArrayList<ADCMessage> checkColumnBounds(int k) {
+        ArrayList<ADCMessage> msgs = new ArrayList<ADCMessage>();
+        DashDataType<?> dtype = dataTypes[k];
+        StdDataColumn column = stdColumns[k];
 
-                    ADCMessage msg = new ADCMessage();
-                    // Metadata in data columns is never required
-                    msg.setSeverity(Severity.ERROR);
-                    msg.setGeneralComment(dtype.getDisplayName() + " has differing given values");
-                    msg.setDetailedComment(dtype.getDisplayName() + " has differeing given values '" +
-                            singleVal + "' and " + thisVal + "'");
+        if ( dtype instanceof StringDashDataType ) {
+            StringDashDataType strtype = (StringDashDataType) dtype;
+            StringStdDataColumn strcol = (StringStdDataColumn) column;
+            for (int j = 0; j < numSamples; j++) {
+                ADCMessage msg = strtype.boundsCheckStandardValue(strcol.getString(j));
+                if ( msg != null ) {
                     msg.setRowNumber(j + 1);
                     msg.setColNumber(k + 1);
                     msg.setColName(userColNames[k]);
-                    stdMsgList.add(msg);
+                    msgs.add(msg);
                 }
             }
-            else if ( dtype instanceof IntDashDataType ) {
-                Integer singleVal = null;
-                for (int j = 0; j < numSamples; j++) {
-                    Integer thisVal = (Integer) stdObjects[j][k];
-                    if ( thisVal == null )
-                        continue;
-                    if ( singleVal == null ) {
-                        singleVal = thisVal;
-                        continue;
-                    }
-                    if ( singleVal.equals(thisVal) )
-                        continue;
-
-                    ADCMessage msg = new ADCMessage();
-                    // Metadata in data columns is never required
-                    msg.setSeverity(Severity.ERROR);
-                    msg.setGeneralComment(dtype.getDisplayName() + " has differing given values");
-                    msg.setDetailedComment(dtype.getDisplayName() + " has differing given values '" +
-                            singleVal.toString() + "' and '" + thisVal.toString() + "'");
+        }
+        else if ( dtype instanceof IntDashDataType ) {
+            IntDashDataType inttype = (IntDashDataType) dtype;
+            IntStdDataColumn intcol = (IntStdDataColumn) column;
+            for (int j = 0; j < numSamples; j++) {
+                if ( intcol.isMissing(j) )
+                    continue;
+                ADCMessage msg = inttype.boundsCheckStandardValue(intcol.getInt(j));
+                if ( msg != null ) {
                     msg.setRowNumber(j + 1);
                     msg.setColNumber(k + 1);
                     msg.setColName(userColNames[k]);
-                    stdMsgList.add(msg);
+                    msgs.add(msg);
                 }
             }
-            else if ( dtype instanceof DoubleDashDataType ) {
-                Double singleVal = null;
-                for (int j = 0; j < numSamples; j++) {
-                    Double thisVal = (Double) stdObjects[j][k];
-                    if ( thisVal == null )
-                        continue;
-                    if ( singleVal == null ) {
-                        singleVal = thisVal;
-                        continue;
-                    }
-                    if ( singleVal.equals(thisVal) )
-                        continue;
-                    if ( Math.abs(singleVal - thisVal) < 1.0E-6 )
-                        continue;
-
-                    ADCMessage msg = new ADCMessage();
-                    // Metadata in data columns is never required
-                    msg.setSeverity(Severity.ERROR);
-                    msg.setGeneralComment(dtype.getDisplayName() + " has differing given values");
-                    msg.setDetailedComment(String.format("%s has differing given values '%g' and '%g'",
-                            dtype.getDisplayName(), singleVal, thisVal));
+        }
+        else if ( dtype instanceof DoubleDashDataType ) {
+            DoubleDashDataType dbltype = (DoubleDashDataType) dtype;
+            DoubleStdDataColumn dblcol = (DoubleStdDataColumn) column;
+            for (int j = 0; j < numSamples; j++) {
+                if ( dblcol.isMissing(j) )
+                    continue;
+                ADCMessage msg = dbltype.boundsCheckStandardValue(dblcol.getDouble(j));
+                if ( msg != null ) {
                     msg.setRowNumber(j + 1);
                     msg.setColNumber(k + 1);
                     msg.setColName(userColNames[k]);
-                    stdMsgList.add(msg);
+                    msgs.add(msg);
                 }
             }
-            else {
-                throw new IllegalArgumentException(
-                        "unexpected data type encountered in metadata column checking: " + dtype);
+        }
+        else {
+            throw new IllegalArgumentException(
+                    "unexpected data type encountered in bounds checking: " + dtype);
+        }
+        return msgs;
+    }
+
+    /**
+     * Checks that data column values for any metadata items are either all the same value or are missing.
+     * The data columns are checked in parallel if a worker pool was given.
+     */
+    public void checkMetadataTypeValues() {
+        ArrayList<Callable<ArrayList<ADCMessage>>> tasks = new ArrayList<Callable<ArrayList<ADCMessage>>>();
+        for (int k = 0; k < numDataCols; k++) {
+            if ( !dataTypes[k].hasRole(DashDataType.Role.FILE_METADATA) )
+                continue;
+            final int columnIdx = k;
+            tasks.add(new Callable<ArrayList<ADCMessage>>() {
+                @Override
+                public ArrayList<ADCMessage> call() {
+                    return checkColumnMetadataValues(columnIdx);
+                }
+            });
+        }
+        for (ArrayList<ADCMessage> msgs : runColumnTasks(tasks)) {
+            stdMsgList.addAll(msgs);
+        }
+    }
+
+    /**
+     * Checks that the values in a data column for a metadata item are either all the same value or are missing.
+     *
+     * @param k
+     *         index of the data column to check; the data type of this column must be a metadata type
+     *
+     * @return messages for the values differing from the first value given
+     */
+    private ArrayList<ADCMessage> checkColumnMetadataValues(int k) {
+        ArrayList<ADCMessage> msgs = new ArrayList<ADCMessage>();
+        DashDataType<?> dtype = dataTypes[k];
+        if ( dtype instanceof StringDashDataType ) {
+            String singleVal = null;
+            for (int j = 0; j < numSamples; j++) {
+                String thisVal = (String) stdColumns[k].getValue(j);
+                if ( thisVal == null )
+                    continue;
+                if ( singleVal == null ) {
+                    singleVal = thisVal;
+                    continue;
+                }
+                if ( singleVal.equals(thisVal) )
+                    continue;
+
+                ADCMessage msg = new ADCMessage();
+                // Metadata in data columns is never required
+                msg.setSeverity(Severity.ERROR);
+                msg.setGeneralComment(dtype.getDisplayName() + " has differing given values");
+                msg.setDetailedComment(dtype.getDisplayName() + " has differeing given values '" +
+                        singleVal + "' and " + thisVal + "'");
+                msg.setRowNumber(j + 1);
+                msg.setColNumber(k + 1);
+                msg.setColName(userColNames[k]);
+                msgs.add(msg);
+            }
+        }
+        else if ( dtype instanceof IntDashDataType ) {
+            Integer singleVal = null;
+            for (int j = 0; j < numSamples; j++) {
+                Integer thisVal = (Integer) stdColumns[k].getValue(j);
+                if ( thisVal == null )
+                    continue;
+                if ( singleVal == null ) {
+                    singleVal = thisVal;
+                    continue;
+                }
+                if ( singleVal.equals(thisVal) )
+                    continue;
+
+                ADCMessage msg = new ADCMessage();
+                // Metadata in data columns is never required
+                msg.setSeverity(Severity.ERROR);
+                msg.setGeneralComment(dtype.getDisplayName() + " has differing given values");
+                msg.setDetailedComment(dtype.getDisplayName() + " has differing given values '" +
+                        singleVal.toString() + "' and '" + thisVal.toString() + "'");
+                msg.setRowNumber(j + 1);
+                msg.setColNumber(k + 1);
+                msg.setColName(userColNames[k]);
+                msgs.add(msg);
             }
         }
+        else if ( dtype instanceof DoubleDashDataType ) {
+            Double singleVal = null;
+            for (int j = 0; j < numSamples; j++) {
+                Double thisVal = (Double) stdColumns[k].getValue(j);
+                if ( thisVal == null )
+                    continue;
+                if ( singleVal == null ) {
+                    singleVal = thisVal;
+                    continue;
+                }
+                if ( singleVal.equals(thisVal) )
+                    continue;
+                if ( Math.abs(singleVal - thisVal) < 1.0E-6 )
+                    continue;
+
+                ADCMessage msg = new ADCMessage();
+                // Metadata in data columns is never required
+                msg.setSeverity(Severity.ERROR);
+                msg.setGeneralComment(dtype.getDisplayName() + " has differing given values");
+                msg.setDetailedComment(String.format("%s has differing given values '%g' and '%g'",
+                        dtype.getDisplayName(), singleVal, thisVal));
+                msg.setRowNumber(j + 1);
+                msg.setColNumber(k + 1);
+                msg.setColName(userColNames[k]);
+                msgs.add(msg);
+            }
+        }
+        else {
+            throw new IllegalArgumentException(
+                    "unexpected data type encountered in metadata column checking: " + dtype);
+        }
+        return msgs;
     }
 
     /**
@@ -753,7 +1165,7 @@ public class StdUserDataArray extends StdDataArray {
                 continue;
 
             // Do not worry about any existing flags as this is always a WOCE-4, and thus, more severe
-            stdObjects[rowNum - 1][qcColIdx] = flagValue;
+            stdColumns[qcColIdx].setValue(rowNum - 1, flagValue);
         }
     }
 
@@ -775,6 +1187,31 @@ public class StdUserDataArray extends StdDataArray {
         return Boolean.TRUE.equals(standardized[idx]);
     }
 
+    /**
+     * Checks that the given data column index is valid for obtaining standardized values.
+     * Checks that the value is in the appropriate range and that the column with this index
+     * has been standardized.
+     *
+     * @param columnIdx
+     *         index of the data column
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the data column index is invalid
+     * @throws IllegalArgumentException
+     *         if the values in the data column cannot be standardized
+     * @throws IllegalStateException
+     *         if the values in the data column have not been standardized
+     */
+    @Override
+    protected void checkColumnIndex(int columnIdx)
+            throws IndexOutOfBoundsException, IllegalArgumentException, IllegalStateException {
+        super.checkColumnIndex(columnIdx);
+        if ( standardized[columnIdx] == null )
+            throw new IllegalArgumentException("value cannot be standardized");
+        if ( !standardized[columnIdx] )
+            throw new IllegalStateException("value has not been standardized");
+    }
+
     /**
      * Get the standard value object for the specified value (column index) of the specified sample (row index).
      *
@@ -795,15 +1232,7 @@ public class StdUserDataArray extends StdDataArray {
     @Override
     public Object getStdVal(int sampleIdx, int columnIdx)
             throws IndexOutOfBoundsException, IllegalArgumentException, IllegalStateException {
-        if ( (sampleIdx < 0) || (sampleIdx >= numSamples) )
-            throw new IndexOutOfBoundsException("sample index is invalid: " + sampleIdx);
-        if ( (columnIdx < 0) || (columnIdx >= numDataCols) )
-            throw new IndexOutOfBoundsException("data column index is invalid: " + columnIdx);
-        if ( standardized[columnIdx] == null )
-            throw new IllegalArgumentException("value cannot be standardized");
-        if ( !standardized[columnIdx] )
-            throw new IllegalStateException("value has not been standardized");
-        return stdObjects[sampleIdx][columnIdx];
+        return super.getStdVal(sampleIdx, columnIdx);
     }
 
     @Override
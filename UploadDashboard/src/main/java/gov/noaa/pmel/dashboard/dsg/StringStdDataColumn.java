@@ -0,0 +1,162 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.StringDashDataType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A data column of standardized String values.  Each distinct string is kept once in a dictionary and the
+ * samples only record the index of their string in this dictionary.  Most string data columns (QC flags,
+ * region IDs, dates) have only a few distinct values, so this saves a large amount of memory.
+ *
+ * @author Karl Smith
+ */
+public class StringStdDataColumn extends StdDataColumn {
+
+    // Index of the string in the dictionary for each sample; -1 if missing
+    private final int[] codes;
+    private final ArrayList<String> dictionary;
+    private final HashMap<String,Integer> codeMap;
+
+    /**
+     * Create a data column of String values for the given number of samples with all values missing.
+     *
+     * @param numSamples
+     *         number of samples (rows) in this data column
+     *
+     * @throws IllegalArgumentException
+     *         if the number of samples is negative
+     */
+    public StringStdDataColumn(int numSamples) throws IllegalArgumentException {
+        super(numSamples);
+        codes = new int[numSamples];
+        Arrays.fill(codes, -1);
+        dictionary = new ArrayList<String>();
+        codeMap = new HashMap<String,Integer>();
+    }
+
+    /**
+     * @param sampleIdx
+     *         index of the sample (row)
+     *
+     * @return the value for this sample; null if the value is missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public String getString(int sampleIdx) throws IndexOutOfBoundsException {
+        int code = codes[sampleIdx];
+        if ( code < 0 )
+            return null;
+        return dictionary.get(code);
+    }
+
+    /**
+     * Assign the value for a sample.
+     *
+     * @param sampleIdx
+     *         index of the sample (row)
+     * @param value
+     *         value to assign; if null, the value is marked as missing
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the sample index is invalid
+     */
+    public void setString(int sampleIdx, String value) throws IndexOutOfBoundsException {
+        if ( value == null ) {
+            codes[sampleIdx] = -1;
+            missing.set(sampleIdx);
+            return;
+        }
+        Integer code = codeMap.get(value);
+        if ( code == null ) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codeMap.put(value, code);
+        }
+        codes[sampleIdx] = code;
+        missing.clear(sampleIdx);
+    }
+
+    /**
+     * @return a copy of the values in this data column; missing values are null
+     */
+    public String[] getStrings() {
+        String[] strings = new String[numSamples];
+        for (int j = 0; j < numSamples; j++) {
+            int code = codes[j];
+            if ( code >= 0 )
+                strings[j] = dictionary.get(code);
+        }
+        return strings;
+    }
+
+    /**
+     * @return the number of distinct strings that have been assigned to this data column
+     */
+    public int getNumDistinctValues() {
+        return dictionary.size();
+    }
+
+    /**
+     * @return the maximum length of the (non-missing) strings in this data column; zero if all are missing
+     */
+    public int getMaxStringLength() {
+        int[] lengths = new int[dictionary.size()];
+        for (int q = 0; q < lengths.length; q++) {
+            lengths[q] = dictionary.get(q).length();
+        }
+        int maxLen = 0;
+        for (int j = 0; j < numSamples; j++) {
+            int code = codes[j];
+            if ( (code >= 0) && (maxLen < lengths[code]) )
+                maxLen = lengths[code];
+        }
+        return maxLen;
+    }
+
+    @Override
+    public String getValue(int sampleIdx) throws IndexOutOfBoundsException {
+        if ( (sampleIdx < 0) || (sampleIdx >= numSamples) )
+            throw new IndexOutOfBoundsException("sample index is invalid: " + sampleIdx);
+        return getString(sampleIdx);
+    }
+
+    @Override
+    public void setValue(int sampleIdx, Object value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        if ( (value != null) && !(value instanceof String) )
+            throw new IllegalArgumentException("value is not a String: " + value.getClass().getSimpleName());
+        setString(sampleIdx, (String) value);
+    }
+
+    @Override
+    public boolean holdsValuesOf(DashDataType<?> dtype) {
+        return dtype instanceof StringDashDataType;
+    }
+
+    @Override
+    public StringStdDataColumn copy() {
+        StringStdDataColumn dup = new StringStdDataColumn(numSamples);
+        System.arraycopy(codes, 0, dup.codes, 0, numSamples);
+        dup.dictionary.addAll(dictionary);
+        dup.codeMap.putAll(codeMap);
+        dup.missing.clear();
+        dup.missing.or(missing);
+        return dup;
+    }
+
+    @Override
+    protected boolean valueEquals(int sampleIdx, StdDataColumn other, int otherIdx) {
+        StringStdDataColumn otherStr = (StringStdDataColumn) other;
+        return dictionary.get(codes[sampleIdx]).equals(otherStr.dictionary.get(otherStr.codes[otherIdx]));
+    }
+
+    @Override
+    protected int valueHashCode(int sampleIdx) {
+        return dictionary.get(codes[sampleIdx]).hashCode();
+    }
+
+}
@@ -0,0 +1,31 @@
+package gov.noaa.pmel.dashboard.dsg;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * A source of the user's data rows, as strings, that can be read in chunks of rows.
+ *
+ * @author Karl Smith
+ */
+public interface UserDataRowSource {
+
+    /**
+     * Reads the next data rows.  Fewer than the maximum number of rows may be returned even if more rows remain.
+     *
+     * @param dataVals
+     *         the data values of the rows read are appended to this list
+     * @param rowNums
+     *         the (one-based) data row numbers of the rows read are appended to this list
+     * @param maxNumRows
+     *         maximum number of rows to read
+     *
+     * @return the number of rows read; zero if there are no more data rows
+     *
+     * @throws IOException
+     *         if there are problems reading the data rows
+     */
+    int readRows(ArrayList<ArrayList<String>> dataVals, ArrayList<Integer> rowNums, int maxNumRows)
+            throws IOException;
+
+}
@@ -19,6 +19,8 @@ public class FerretConfig extends Document {
 
     private static final long serialVersionUID = -9187555458046328313L;
 
+    private transient FerretWorkerPool workerPool;
+
     public enum Action {
         /**
          * Complete a DSG file by adding data computed from user-provided data.
@@ -233,6 +235,142 @@ public class FerretConfig extends Document {
         return "";
     }
 
+    /**
+     * Whether the variables added to DSG files for {@link Action#COMPUTE} are computed in Java rather than by
+     * running Ferret; given by the compute_engine attribute of the &lt;invoker&gt; element ("java" or "ferret").
+     *
+     * @return true if the compute_engine attribute is "java"; false if it is not given or is anything else
+     */
+    public boolean computeWithJava() {
+        Element invoker = this.getRootElement().getChild("invoker");
+        if ( invoker != null ) {
+            String engine = invoker.getAttributeValue("compute_engine");
+            if ( engine != null )
+                return "java".equalsIgnoreCase(engine.trim());
+        }
+        return false;
+    }
+
+    /**
+     * Whether the decimated-data DSG files for {@link Action#DECIMATE} are created in Java rather than by running
+     * Ferret; given by the decimate_engine attribute of the &lt;invoker&gt; element ("java" or "ferret").
+     *
+     * @return true if the decimate_engine attribute is "java"; false if it is not given or is anything else
+     */
+    public boolean decimateWithJava() {
+        Element invoker = this.getRootElement().getChild("invoker");
+        if ( invoker != null ) {
+            String engine = invoker.getAttributeValue("decimate_engine");
+            if ( engine != null )
+                return "java".equalsIgnoreCase(engine.trim());
+        }
+        return false;
+    }
+
+    /**
+     * The maximum number of long-lived Ferret sessions used to run Ferret scripts; given by the pool_size attribute
+     * of the &lt;invoker&gt; element.  If not given or not positive, a new Ferret process is started for each
+     * script.
+     *
+     * @return the maximum number of Ferret sessions, or zero if Ferret sessions are not to be used
+     */
+    public int getWorkerPoolSize() {
+        Element invoker = this.getRootElement().getChild("invoker");
+        if ( invoker != null ) {
+            String poolSize = invoker.getAttributeValue("pool_size");
+            if ( poolSize != null ) {
+                try {
+                    int size = Integer.parseInt(poolSize.trim());
+                    if ( size > 0 )
+                        return size;
+                } catch ( NumberFormatException ex ) {
+                    throw new IllegalArgumentException("Invalid pool_size value: " + poolSize);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the pool of Ferret sessions for this configuration, creating it on the first call.
+     * Copies of this configuration do not share this pool.
+     *
+     * @return the pool of Ferret sessions, or null if {@link #getWorkerPoolSize()} is zero
+     */
+    public synchronized FerretWorkerPool getWorkerPool() {
+        if ( workerPool == null ) {
+            int poolSize = getWorkerPoolSize();
+            if ( poolSize > 0 )
+                workerPool = new FerretWorkerPool(this, poolSize);
+        }
+        return workerPool;
+    }
+
+    /**
+     * Stops any Ferret sessions started by the pool returned by {@link #getWorkerPool()}.
+     */
+    public synchronized void shutdownWorkerPool() {
+        if ( workerPool != null ) {
+            workerPool.shutdown();
+            workerPool = null;
+        }
+    }
+
+    /**
+     * Returns the gridded data file with the given name.  The grids section of the config file looks like this,
+     * where a relative path name gets resolved by pre-pending the "base_dir" attribute of the &lt;invoker&gt;
+     * element, and the optional variable attribute gives the name of the gridded variable in the file.
+     * <pre>
+     *  &lt;grids&gt;
+     *      &lt;grid name="dist2land" variable="dist2land"&gt;Datasets/data/dist2land20_burke.nc&lt;/grid&gt;
+     *  &lt;/grids&gt;
+     * </pre>
+     *
+     * @param name
+     *         name of the grid
+     *
+     * @return the gridded data file, or null if there is no grid with this name
+     */
+    public File getGridFile(String name) {
+        Element grid = getGridElement(name);
+        if ( grid == null )
+            return null;
+        String path = grid.getTextTrim();
+        if ( path.isEmpty() )
+            return null;
+        if ( !path.startsWith("/") )
+            path = getBaseDir() + path;
+        return new File(path);
+    }
+
+    /**
+     * @param name
+     *         name of the grid
+     *
+     * @return the name of the gridded variable given for the grid with this name,
+     *         or null if there is no grid with this name or if the variable is not given
+     */
+    public String getGridVariable(String name) {
+        Element grid = getGridElement(name);
+        if ( grid == null )
+            return null;
+        String varName = grid.getAttributeValue("variable");
+        if ( (varName == null) || varName.trim().isEmpty() )
+            return null;
+        return varName.trim();
+    }
+
+    private Element getGridElement(String name) {
+        Element grids = this.getRootElement().getChild("grids");
+        if ( grids == null )
+            return null;
+        for (Element grid : grids.getChildren("grid")) {
+            if ( name.equals(grid.getAttributeValue("name")) )
+                return grid;
+        }
+        return null;
+    }
+
     /**
      * @return the filename extension (including the initial '.') for images created by the version
      *         of Ferret/PyFerret in this configuration.  If no executable, an empty string is returned.
@@ -0,0 +1,635 @@
+package gov.noaa.pmel.dashboard.ferret;
+
+import gov.noaa.pmel.dashboard.dsg.AncillaryDataSampler;
+import ucar.ma2.Array;
+import ucar.ma2.Index;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+import ucar.nc2.time.CalendarDateUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Samples the gridded data files used by the Ferret script calcSOCAT.jnl at the locations and times of data samples,
+ * in the same manner as the Ferret functions used in that script: nearest grid point for the NCEP sea level pressures
+ * (SAMPLEXYT_NRST), WOA salinities (SAMPLEXYT_NRST with the month as the time index), and region IDs
+ * (SAMPLEXY_CLOSEST); bilinear interpolation for the ETOPO2 depths and distances to land (SAMPLEXY); and linear
+ * interpolation in latitude and time for the GlobalView CO2 values (SAMPLEXYT).  The gridded data files are given
+ * in the grids section of the Ferret configuration (see {@link FerretConfig#getGridFile(String)}).
+ * <p>
+ * Only the part of a grid covering the samples is read from the gridded data file; if that part is still too large,
+ * the grid values needed are read individually.
+ *
+ * @author Karl Smith
+ */
+public class FerretGridSampler implements AncillaryDataSampler {
+
+    public static final String NCEP_SLP_GRID_NAME = "ncep_slp";
+    public static final String WOA_SALINITY_GRID_NAME = "woa_salinity";
+    public static final String ETOPO2_GRID_NAME = "etopo2";
+    public static final String DIST_TO_LAND_GRID_NAME = "dist2land";
+    public static final String REGION_IDS_GRID_NAME = "region_ids";
+    public static final String GVCO2_GRID_NAME = "gvco2";
+
+    /**
+     * Region codes for the region numbers (starting at one) in the region IDs grid
+     */
+    private static final String[] REGION_CODES = { "N", "T", "-", "O", "I", "A", "C", "Z", "-", "R" };
+
+    /**
+     * Name of the variable in the region IDs gridded data file used where the region ID is missing or zero
+     */
+    private static final String COASTAL_REGION_IDS_VARNAME = "southern_coast_arctic";
+
+    /**
+     * Salinity used where the WOA salinity is missing or zero (land)
+     */
+    private static final double WOA_LAND_SALINITY = 35.0;
+
+    /**
+     * Maximum number of grid values to read at one time
+     */
+    private static final int MAX_SLAB_SIZE = 4 * 1024 * 1024;
+
+    private final FerretConfig ferretConfig;
+
+    /**
+     * @param ferretConf
+     *         Ferret configuration giving the gridded data files
+     */
+    public FerretGridSampler(FerretConfig ferretConf) {
+        ferretConfig = ferretConf;
+    }
+
+    @Override
+    public double[] sampleSeaLevelPressures(double[] longitudes, double[] latitudes, double[] times)
+            throws IOException {
+        NetcdfFile ncfile = openGridFile(NCEP_SLP_GRID_NAME);
+        if ( ncfile == null )
+            return null;
+        try {
+            Grid grid = new Grid(ncfile, getGridVariable(ncfile, NCEP_SLP_GRID_NAME, "slp"));
+            double[] values = grid.sample(longitudes, latitudes, times, false, false);
+            // Pa to hPa
+            for (int j = 0; j < values.length; j++) {
+                values[j] *= 0.01;
+            }
+            return values;
+        } finally {
+            ncfile.close();
+        }
+    }
+
+    @Override
+    public double[] sampleWoaSalinities(double[] longitudes, double[] latitudes, int[] months) throws IOException {
+        NetcdfFile ncfile = openGridFile(WOA_SALINITY_GRID_NAME);
+        if ( ncfile == null )
+            return null;
+        try {
+            Grid grid = new Grid(ncfile, getGridVariable(ncfile, WOA_SALINITY_GRID_NAME, "s0112an1"));
+            grid.useTimeIndices();
+            grid.setMissingOrZeroValue(WOA_LAND_SALINITY);
+            double[] monthVals = new double[months.length];
+            for (int j = 0; j < months.length; j++) {
+                monthVals[j] = ((months[j] >= 1) && (months[j] <= 12)) ? months[j] : Double.NaN;
+            }
+            return grid.sample(longitudes, latitudes, monthVals, false, false);
+        } finally {
+            ncfile.close();
+        }
+    }
+
+    @Override
+    public double[] sampleSeaFloorDepths(double[] longitudes, double[] latitudes) throws IOException {
+        NetcdfFile ncfile = openGridFile(ETOPO2_GRID_NAME);
+        if ( ncfile == null )
+            return null;
+        try {
+            Grid grid = new Grid(ncfile, getGridVariable(ncfile, ETOPO2_GRID_NAME, "rose"));
+            double[] values = grid.sample(longitudes, latitudes, null, true, false);
+            // Elevations to depths
+            for (int j = 0; j < values.length; j++) {
+                values[j] = -values[j];
+            }
+            return values;
+        } finally {
+            ncfile.close();
+        }
+    }
+
+    @Override
+    public double[] sampleDistancesToLand(double[] longitudes, double[] latitudes) throws IOException {
+        NetcdfFile ncfile = openGridFile(DIST_TO_LAND_GRID_NAME);
+        if ( ncfile == null )
+            return null;
+        try {
+            Grid grid = new Grid(ncfile, getGridVariable(ncfile, DIST_TO_LAND_GRID_NAME, "dist2land"));
+            return grid.sample(longitudes, latitudes, null, true, false);
+        } finally {
+            ncfile.close();
+        }
+    }
+
+    @Override
+    public double[] sampleGlobalViewCO2s(double[] latitudes, double[] times) throws IOException {
+        NetcdfFile ncfile = openGridFile(GVCO2_GRID_NAME);
+        if ( ncfile == null )
+            return null;
+        try {
+            Grid grid = new Grid(ncfile, getGridVariable(ncfile, GVCO2_GRID_NAME, "co2"));
+            return grid.sample(null, latitudes, times, true, true);
+        } finally {
+            ncfile.close();
+        }
+    }
+
+    @Override
+    public String[] sampleRegionIds(double[] longitudes, double[] latitudes) throws IOException {
+        NetcdfFile ncfile = openGridFile(REGION_IDS_GRID_NAME);
+        if ( ncfile == null )
+            return null;
+        try {
+            Grid grid = new Grid(ncfile, getGridVariable(ncfile, REGION_IDS_GRID_NAME, "region_id"));
+            double[] regionNums = grid.sample(longitudes, latitudes, null, false, false);
+            Grid coastGrid = null;
+            Variable coastVar = findVariable(ncfile, COASTAL_REGION_IDS_VARNAME);
+            if ( coastVar != null )
+                coastGrid = new Grid(ncfile, coastVar);
+            double[] coastNums = null;
+            String[] regionIds = new String[regionNums.length];
+            for (int j = 0; j < regionNums.length; j++) {
+                double num = regionNums[j];
+                if ( (Double.isNaN(num) || (num == 0.0)) && (coastGrid != null) ) {
+                    if ( coastNums == null )
+                        coastNums = coastGrid.sample(longitudes, latitudes, null, false, false);
+                    num = coastNums[j];
+                }
+                if ( Double.isNaN(num) )
+                    continue;
+                int idx = (int) Math.round(num);
+                if ( (idx >= 1) && (idx <= REGION_CODES.length) )
+                    regionIds[j] = REGION_CODES[idx - 1];
+            }
+            return regionIds;
+        } finally {
+            ncfile.close();
+        }
+    }
+
+    /**
+     * @return the opened gridded data file with the given name,
+     *         or null if the grid is not given in the configuration or if the file does not exist
+     */
+    private NetcdfFile openGridFile(String gridName) throws IOException {
+        if ( ferretConfig == null )
+            return null;
+        File gridFile = ferretConfig.getGridFile(gridName);
+        if ( (gridFile == null) || !gridFile.isFile() )
+            return null;
+        return NetcdfFile.open(gridFile.getPath());
+    }
+
+    private Variable getGridVariable(NetcdfFile ncfile, String gridName, String defaultVarName) throws IOException {
+        String varName = ferretConfig.getGridVariable(gridName);
+        if ( varName == null )
+            varName = defaultVarName;
+        Variable var = findVariable(ncfile, varName);
+        if ( var == null )
+            throw new IOException("Unable to find variable " + varName + " in " + ncfile.getLocation());
+        return var;
+    }
+
+    /**
+     * Finds a variable in the root group of a NetCDF file; as with Ferret, variable names are case-insensitive.
+     */
+    private static Variable findVariable(NetcdfFile ncfile, String varName) {
+        Variable var = ncfile.findVariable(varName);
+        if ( var != null )
+            return var;
+        for (Variable other : ncfile.getVariables()) {
+            if ( varName.equalsIgnoreCase(other.getShortName()) )
+                return other;
+        }
+        return null;
+    }
+
+    /**
+     * A coordinate axis of a grid
+     */
+    private static class Axis {
+        // index of the dimension in the gridded variable
+        final int dimIdx;
+        // ascending coordinates; negated if the coordinates in the file are descending
+        double[] coords;
+        boolean negated;
+        final boolean modulo;
+        // allow nearest-point locations up to half a grid cell beyond the ends of the axis?
+        final boolean edgeTolerance;
+
+        Axis(int dimIdx, double[] values, boolean modulo, boolean edgeTolerance) {
+            this.dimIdx = dimIdx;
+            this.modulo = modulo;
+            this.edgeTolerance = edgeTolerance;
+            setCoordinates(values);
+        }
+
+        void setCoordinates(double[] values) {
+            negated = (values.length > 1) && (values[0] > values[values.length - 1]);
+            coords = new double[values.length];
+            for (int k = 0; k < values.length; k++) {
+                coords[k] = negated ? -values[k] : values[k];
+            }
+        }
+
+        /**
+         * Assigns the indices and weight of the grid points on either side of a coordinate.  For the
+         * nearest grid point, both indices are that of the nearest grid point and the weight is zero.
+         *
+         * @return false if the coordinate is not within this axis
+         */
+        boolean locate(double value, boolean interpolate, int[] lo, int[] hi, double[] wt, int j) {
+            if ( Double.isNaN(value) || Double.isInfinite(value) )
+                return false;
+            int num = coords.length;
+            double c = negated ? -value : value;
+            if ( num == 1 ) {
+                lo[j] = 0;
+                hi[j] = 0;
+                wt[j] = 0.0;
+                return true;
+            }
+            if ( modulo ) {
+                c = coords[0] + ((((c - coords[0]) % 360.0) + 360.0) % 360.0);
+            }
+            int k0;
+            int k1;
+            double w;
+            if ( c < coords[0] ) {
+                if ( interpolate || !edgeTolerance || (c < coords[0] - 0.5 * (coords[1] - coords[0])) )
+                    return false;
+                k0 = 0;
+                k1 = 0;
+                w = 0.0;
+            }
+            else if ( c > coords[num - 1] ) {
+                if ( modulo ) {
+                    k0 = num - 1;
+                    k1 = 0;
+                    w = (c - coords[num - 1]) / (coords[0] + 360.0 - coords[num - 1]);
+                }
+                else {
+                    if ( interpolate || !edgeTolerance ||
+                            (c > coords[num - 1] + 0.5 * (coords[num - 1] - coords[num - 2])) )
+                        return false;
+                    k0 = num - 1;
+                    k1 = num - 1;
+                    w = 0.0;
+                }
+            }
+            else {
+                // Binary search for the last coordinate not larger than c
+                int low = 0;
+                int high = num - 1;
+                while ( high - low > 1 ) {
+                    int mid = (low + high) >>> 1;
+                    if ( coords[mid] <= c )
+                        low = mid;
+                    else
+                        high = mid;
+                }
+                k0 = low;
+                k1 = high;
+                w = (c - coords[k0]) / (coords[k1] - coords[k0]);
+            }
+            if ( !interpolate ) {
+                if ( w > 0.5 )
+                    k0 = k1;
+                else
+                    k1 = k0;
+                w = 0.0;
+            }
+            lo[j] = k0;
+            hi[j] = k1;
+            wt[j] = w;
+            return true;
+        }
+    }
+
+    /**
+     * A gridded variable, with its X (longitude), Y (latitude), and T (time) axes.  Any other dimensions of the
+     * gridded variable (such as depth) use the first index.
+     */
+    private static class Grid {
+        final Variable var;
+        final int rank;
+        final Axis xAxis;
+        final Axis yAxis;
+        final Axis tAxis;
+        final double missingValue;
+        final double fillValue;
+        final double scale;
+        final double offset;
+        Double missingOrZeroValue;
+
+        Grid(NetcdfFile ncfile, Variable var) throws IOException {
+            this.var = var;
+            rank = var.getRank();
+            Axis x = null;
+            Axis y = null;
+            Axis t = null;
+            List<Dimension> dims = var.getDimensions();
+            for (int d = 0; d < rank; d++) {
+                Dimension dim = dims.get(d);
+                Variable coordVar = findVariable(ncfile, dim.getShortName());
+                if ( (coordVar == null) || (coordVar.getRank() != 1) ) {
+                    if ( dim.getLength() == 1 )
+                        continue;
+                    throw new IOException("No coordinate variable for dimension " + dim.getShortName() +
+                            " of " + var.getShortName());
+                }
+                char axisType = getAxisType(coordVar);
+                double[] values = (double[]) coordVar.read().get1DJavaArray(double.class);
+                if ( axisType == 'X' ) {
+                    x = new Axis(d, values, isModulo(coordVar, values), true);
+                }
+                else if ( axisType == 'Y' ) {
+                    y = new Axis(d, values, false, true);
+                }
+                else if ( axisType == 'T' ) {
+                    t = new Axis(d, toUnixSeconds(coordVar, values), false, false);
+                }
+            }
+            xAxis = x;
+            yAxis = y;
+            tAxis = t;
+            missingValue = getNumericAttribute(var, "missing_value", Double.NaN);
+            fillValue = getNumericAttribute(var, "_FillValue", Double.NaN);
+            scale = getNumericAttribute(var, "scale_factor", 1.0);
+            offset = getNumericAttribute(var, "add_offset", 0.0);
+            missingOrZeroValue = null;
+        }
+
+        /**
+         * Use the (one-based) index of the time coordinate instead of the time coordinate.
+         */
+        void useTimeIndices() {
+            if ( tAxis == null )
+                return;
+            double[] indices = new double[tAxis.coords.length];
+            for (int k = 0; k < indices.length; k++) {
+                indices[k] = k + 1.0;
+            }
+            tAxis.setCoordinates(indices);
+        }
+
+        /**
+         * Use the given value wherever a grid value is missing or zero.
+         */
+        void setMissingOrZeroValue(double value) {
+            missingOrZeroValue = value;
+        }
+
+        /**
+         * Samples this grid at the given points.
+         *
+         * @param xs
+         *         longitudes of the points; if null, the first X index is used
+         * @param ys
+         *         latitudes of the points; if null, the first Y index is used
+         * @param ts
+         *         times of the points; if null, the first T index is used
+         * @param interpXY
+         *         interpolate in X and Y?  If false, the nearest grid point is used.
+         * @param interpT
+         *         interpolate in T?  If false, the nearest grid point is used.
+         *
+         * @return the sampled values; NaN where not available
+         */
+        double[] sample(double[] xs, double[] ys, double[] ts, boolean interpXY, boolean interpT)
+                throws IOException {
+            int numPts = (xs != null) ? xs.length : ys.length;
+            Axis[] axes = { xAxis, yAxis, tAxis };
+            double[][] pts = { xs, ys, ts };
+            boolean[] interps = { interpXY, interpXY, interpT };
+            int[][] lo = new int[3][numPts];
+            int[][] hi = new int[3][numPts];
+            double[][] wt = new double[3][numPts];
+            boolean[] valid = new boolean[numPts];
+            int[] minIdx = new int[rank];
+            int[] maxIdx = new int[rank];
+            for (int j = 0; j < numPts; j++) {
+                valid[j] = true;
+                for (int a = 0; (a < 3) && valid[j]; a++) {
+                    if ( axes[a] == null )
+                        continue;
+                    if ( pts[a] == null ) {
+                        lo[a][j] = 0;
+                        hi[a][j] = 0;
+                        wt[a][j] = 0.0;
+                    }
+                    else {
+                        valid[j] = axes[a].locate(pts[a][j], interps[a], lo[a], hi[a], wt[a], j);
+                    }
+                }
+            }
+
+            // Determine the part of the grid to read
+            boolean first = true;
+            for (int j = 0; j < numPts; j++) {
+                if ( !valid[j] )
+                    continue;
+                for (int a = 0; a < 3; a++) {
+                    if ( axes[a] == null )
+                        continue;
+                    int d = axes[a].dimIdx;
+                    int kmin = Math.min(lo[a][j], hi[a][j]);
+                    int kmax = Math.max(lo[a][j], hi[a][j]);
+                    if ( first || (kmin < minIdx[d]) )
+                        minIdx[d] = kmin;
+                    if ( first || (kmax > maxIdx[d]) )
+                        maxIdx[d] = kmax;
+                }
+                first = false;
+            }
+            double[] values = new double[numPts];
+            if ( first ) {
+                // No valid points
+                for (int j = 0; j < numPts; j++) {
+                    values[j] = Double.NaN;
+                }
+                return values;
+            }
+            int[] origin = new int[rank];
+            int[] shape = new int[rank];
+            long slabSize = 1L;
+            for (int d = 0; d < rank; d++) {
+                origin[d] = minIdx[d];
+                shape[d] = maxIdx[d] - minIdx[d] + 1;
+                slabSize *= shape[d];
+            }
+            Array slab = null;
+            if ( slabSize <= MAX_SLAB_SIZE )
+                slab = read(origin, shape);
+
+            int[] pos = new int[rank];
+            int[] single = new int[rank];
+            for (int d = 0; d < rank; d++) {
+                single[d] = 1;
+            }
+            for (int j = 0; j < numPts; j++) {
+                if ( !valid[j] ) {
+                    values[j] = Double.NaN;
+                    continue;
+                }
+                double sum = 0.0;
+                // Go through the (up to eight) surrounding grid points
+                for (int corner = 0; corner < 8; corner++) {
+                    double weight = 1.0;
+                    for (int a = 0; a < 3; a++) {
+                        boolean upper = ((corner >> a) & 1) != 0;
+                        if ( axes[a] == null ) {
+                            if ( upper )
+                                weight = 0.0;
+                            continue;
+                        }
+                        double w = wt[a][j];
+                        weight *= upper ? w : (1.0 - w);
+                        pos[axes[a].dimIdx] = upper ? hi[a][j] : lo[a][j];
+                    }
+                    if ( weight == 0.0 )
+                        continue;
+                    double value;
+                    if ( slab != null ) {
+                        Index index = slab.getIndex();
+                        for (int d = 0; d < rank; d++) {
+                            index.setDim(d, pos[d] - origin[d]);
+                        }
+                        value = slab.getDouble(index);
+                    }
+                    else {
+                        value = read(pos, single).getDouble(0);
+                    }
+                    value = toGridValue(value);
+                    if ( Double.isNaN(value) ) {
+                        sum = Double.NaN;
+                        break;
+                    }
+                    sum += weight * value;
+                }
+                values[j] = sum;
+            }
+            return values;
+        }
+
+        private Array read(int[] origin, int[] shape) throws IOException {
+            try {
+                return var.read(origin, shape);
+            } catch ( InvalidRangeException ex ) {
+                throw new IOException("Unexpected invalid range reading " + var.getShortName() + ": " +
+                        ex.getMessage(), ex);
+            }
+        }
+
+        /**
+         * @return the scaled grid value for a value as stored in the gridded data file; NaN if missing
+         */
+        private double toGridValue(double stored) {
+            double value;
+            // Compare as floats in case the stored values and the attribute values differ in precision
+            if ( Double.isNaN(stored) || ((float) stored == (float) missingValue) ||
+                    ((float) stored == (float) fillValue) )
+                value = Double.NaN;
+            else
+                value = stored * scale + offset;
+            if ( (missingOrZeroValue != null) && (Double.isNaN(value) || (value == 0.0)) )
+                value = missingOrZeroValue;
+            return value;
+        }
+    }
+
+    /**
+     * @return the type of axis ('X', 'Y', 'Z', or 'T') of a coordinate variable
+     */
+    private static char getAxisType(Variable coordVar) {
+        Attribute attr = coordVar.findAttributeIgnoreCase("axis");
+        if ( (attr != null) && attr.isString() ) {
+            String axis = attr.getStringValue().trim().toUpperCase();
+            if ( axis.length() == 1 )
+                return axis.charAt(0);
+        }
+        attr = coordVar.findAttributeIgnoreCase("units");
+        if ( (attr != null) && attr.isString() ) {
+            String units = attr.getStringValue().trim().toLowerCase();
+            if ( units.startsWith("degree") && (units.endsWith("e") || units.endsWith("east")) )
+                return 'X';
+            if ( units.startsWith("degree") && (units.endsWith("n") || units.endsWith("north")) )
+                return 'Y';
+            if ( units.contains(" since ") )
+                return 'T';
+        }
+        String name = coordVar.getShortName().toLowerCase();
+        if ( name.startsWith("lon") || name.startsWith("x") )
+            return 'X';
+        if ( name.startsWith("lat") || name.startsWith("y") )
+            return 'Y';
+        if ( name.startsWith("time") || name.startsWith("t") )
+            return 'T';
+        return 'Z';
+    }
+
+    /**
+     * @return if the longitude coordinate variable is modulo 360; that is, if it has a modulo attribute,
+     *         or if its coordinates span the globe
+     */
+    private static boolean isModulo(Variable coordVar, double[] values) {
+        if ( coordVar.findAttributeIgnoreCase("modulo") != null )
+            return true;
+        int num = values.length;
+        if ( num < 2 )
+            return false;
+        double step = Math.abs(values[1] - values[0]);
+        double span = Math.abs(values[num - 1] - values[0]) + step;
+        return Math.abs(span - 360.0) < 0.5 * step;
+    }
+
+    /**
+     * @return the time coordinates converted to seconds since 1970-01-01 00:00:00 UTC
+     */
+    private static double[] toUnixSeconds(Variable coordVar, double[] values) throws IOException {
+        Attribute attr = coordVar.findAttributeIgnoreCase("units");
+        if ( (attr == null) || !attr.isString() )
+            throw new IOException("No units for the time coordinate " + coordVar.getShortName());
+        String calendar = null;
+        Attribute calAttr = coordVar.findAttributeIgnoreCase("calendar");
+        if ( (calAttr != null) && calAttr.isString() )
+            calendar = calAttr.getStringValue().trim();
+        CalendarDateUnit dateUnit;
+        try {
+            dateUnit = CalendarDateUnit.of(calendar, attr.getStringValue().trim());
+        } catch ( Exception ex ) {
+            throw new IOException("Unable to interpret the units of the time coordinate " +
+                    coordVar.getShortName() + ": " + ex.getMessage(), ex);
+        }
+        double[] secs = new double[values.length];
+        for (int k = 0; k < values.length; k++) {
+            secs[k] = dateUnit.makeCalendarDate(values[k]).getMillis() / 1000.0;
+        }
+        return secs;
+    }
+
+    private static double getNumericAttribute(Variable var, String name, double defaultValue) {
+        Attribute attr = var.findAttribute(name);
+        if ( (attr == null) || attr.isString() )
+            return defaultValue;
+        Number value = attr.getNumericValue();
+        if ( value == null )
+            return defaultValue;
+        return value.doubleValue();
+    }
+
+}
@@ -0,0 +1,393 @@
+package gov.noaa.pmel.dashboard.ferret;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of long-lived Ferret sessions.  Each session is a Ferret process, started with the executable and
+ * arguments given in the Ferret configuration (without a final "-script" argument), that reads commands from its
+ * standard input.  A script is run in a session by writing the "go" command for the script followed by commands
+ * to reset the Ferret state and to print a marker line; the script is finished when the marker line is output.
+ * The output of the script is checked for the error keys given in the Ferret configuration.  A session that exits,
+ * does not finish a script within the time limit, or has a script cancelled is stopped and replaced by a new
+ * session when next needed.
+ *
+ * @author Karl Smith
+ */
+public class FerretWorkerPool {
+
+    /**
+     * Commands run after each script to return the session to a clean state.  Scripts may exit (for example, using
+     * exit/script) without undoing the modes or PLOT+ settings they changed, so these are returned to the Ferret
+     * defaults before cancelling the data, variables, symbols, axes, and regions defined by the script.
+     */
+    private static final String[] SESSION_RESET_COMMANDS = {
+            "CANCEL MODE ignore",
+            "SET MODE verify",
+            "SET MODE nodata_lab",
+            "PPL/RESET",
+            "CANCEL REGION/ALL",
+            "CANCEL DATA/ALL",
+            "CANCEL VARIABLE/ALL",
+            "CANCEL SYMBOL/ALL",
+            "CANCEL AXIS/ALL",
+    };
+    private static final String DONE_MARKER_PREFIX = "FERRET_WORKER_DONE_";
+    private static final long POLL_MILLIS = 100L;
+    private static final long STDERR_SETTLE_MILLIS = 50L;
+
+    private final String[] sessionCmd;
+    private final String[] sessionEnv;
+    private final File workDir;
+    private final long timeLimit;
+    private final String[] errorKeys;
+    private final int poolSize;
+    private final LinkedBlockingQueue<FerretWorker> idleWorkers;
+    private final AtomicLong markerCount;
+    private int numWorkers;
+    private boolean isShutdown;
+
+    /**
+     * Creates a pool of Ferret sessions using the given Ferret configuration.
+     * The Ferret sessions are not started until needed.
+     *
+     * @param ferretConf
+     *         the Ferret configuration to use
+     * @param poolSize
+     *         maximum number of Ferret sessions
+     *
+     * @throws IllegalArgumentException
+     *         if the pool size is not positive, or if the Ferret configuration is invalid
+     */
+    public FerretWorkerPool(FerretConfig ferretConf, int poolSize) throws IllegalArgumentException {
+        if ( poolSize < 1 )
+            throw new IllegalArgumentException("invalid Ferret worker pool size: " + poolSize);
+        this.poolSize = poolSize;
+
+        List<String> cmd = new ArrayList<String>();
+        String interpreter = ferretConf.getInterpreter();
+        if ( (interpreter != null) && !interpreter.isEmpty() )
+            cmd.add(interpreter);
+        cmd.add(ferretConf.getExecutable());
+        cmd.addAll(ferretConf.getArgs());
+        // The last argument for running a single script is not used by a session reading from standard input
+        if ( "-script".equals(cmd.get(cmd.size() - 1)) )
+            cmd.remove(cmd.size() - 1);
+        sessionCmd = cmd.toArray(new String[cmd.size()]);
+        try {
+            RuntimeEnvironment runEnv = ferretConf.getRuntimeEnvironment();
+            sessionEnv = (runEnv != null) ? runEnv.getEnv() : null;
+        } catch ( Exception ex ) {
+            throw new IllegalArgumentException("Invalid Ferret environment: " + ex.getMessage(), ex);
+        }
+        String tempDir = ferretConf.getTempDir();
+        workDir = tempDir.isEmpty() ? null : new File(tempDir);
+        timeLimit = ferretConf.getTimeLimit();
+        errorKeys = ferretConf.getErrorKeys();
+
+        idleWorkers = new LinkedBlockingQueue<FerretWorker>();
+        markerCount = new AtomicLong(0L);
+        numWorkers = 0;
+        isShutdown = false;
+    }
+
+    /**
+     * Runs a Ferret script in one of the Ferret sessions of this pool, waiting for a session to become available if
+     * all sessions are in use.
+     *
+     * @param driver
+     *         name of the Ferret script to run
+     * @param scriptArgs
+     *         arguments to the Ferret script
+     * @param cancelFile
+     *         if not null, the script is cancelled when this file exists (the file is then deleted)
+     *
+     * @return the standard output of the script
+     *
+     * @throws IllegalArgumentException
+     *         if the output of the script contains an error key, if the Ferret session exits or does not finish the
+     *         script within the time limit, if the script is cancelled, or if this pool has been shut down
+     */
+    public String runScript(String driver, List<String> scriptArgs, File cancelFile)
+            throws IllegalArgumentException {
+        StringBuilder goCmd = new StringBuilder();
+        goCmd.append("go ");
+        goCmd.append(driver);
+        for (String scarg : scriptArgs) {
+            goCmd.append(" \"");
+            goCmd.append(scarg);
+            goCmd.append("\"");
+        }
+
+        FerretWorker worker = acquireWorker();
+        boolean healthy = false;
+        try {
+            String output = worker.execute(goCmd.toString(), cancelFile);
+            healthy = true;
+            return output;
+        } catch ( IOException ex ) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        } finally {
+            releaseWorker(worker, healthy || worker.isUsable());
+        }
+    }
+
+    /**
+     * Stops all the Ferret sessions of this pool.  Scripts currently running are allowed to complete but their
+     * Ferret sessions are then stopped.  Any further requests to run scripts will fail.
+     */
+    public void shutdown() {
+        synchronized(idleWorkers) {
+            isShutdown = true;
+            ArrayList<FerretWorker> workers = new ArrayList<FerretWorker>(idleWorkers.size());
+            idleWorkers.drainTo(workers);
+            for (FerretWorker worker : workers) {
+                worker.stop();
+                numWorkers--;
+            }
+            idleWorkers.notifyAll();
+        }
+    }
+
+    /**
+     * @return the number of Ferret sessions currently started
+     */
+    public int getNumWorkers() {
+        synchronized(idleWorkers) {
+            return numWorkers;
+        }
+    }
+
+    /**
+     * @return an idle Ferret session, starting a new session if there are none idle and the pool is not full
+     *
+     * @throws IllegalArgumentException
+     *         if this pool has been shut down, if interrupted while waiting for a session,
+     *         or if unable to start a new Ferret session
+     */
+    private FerretWorker acquireWorker() throws IllegalArgumentException {
+        synchronized(idleWorkers) {
+            while ( true ) {
+                if ( isShutdown )
+                    throw new IllegalArgumentException("Ferret worker pool has been shut down");
+                FerretWorker worker = idleWorkers.poll();
+                if ( worker != null )
+                    return worker;
+                if ( numWorkers < poolSize ) {
+                    numWorkers++;
+                    break;
+                }
+                try {
+                    idleWorkers.wait();
+                } catch ( InterruptedException ex ) {
+                    throw new IllegalArgumentException("Interrupted while waiting for a Ferret session");
+                }
+            }
+        }
+        // Start the new worker outside the lock
+        try {
+            return new FerretWorker();
+        } catch ( IOException ex ) {
+            synchronized(idleWorkers) {
+                numWorkers--;
+                idleWorkers.notifyAll();
+            }
+            throw new IllegalArgumentException("Unable to start a Ferret session: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Returns a Ferret session to the pool, or stops it if it is no longer usable.
+     */
+    private void releaseWorker(FerretWorker worker, boolean reusable) {
+        synchronized(idleWorkers) {
+            if ( reusable && !isShutdown ) {
+                idleWorkers.add(worker);
+            }
+            else {
+                worker.stop();
+                numWorkers--;
+            }
+            idleWorkers.notifyAll();
+        }
+    }
+
+    /**
+     * A single Ferret session
+     */
+    private class FerretWorker {
+        private final Process process;
+        private final BufferedWriter commandWriter;
+        private final LinkedBlockingQueue<String> outputLines;
+        private final StringBuffer errorOutput;
+        private volatile long lastErrorMillis;
+        private volatile boolean stopped;
+
+        FerretWorker() throws IOException {
+            if ( (workDir != null) && !workDir.exists() )
+                workDir.mkdirs();
+            process = Runtime.getRuntime().exec(sessionCmd, sessionEnv, workDir);
+            commandWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+            outputLines = new LinkedBlockingQueue<String>();
+            errorOutput = new StringBuffer();
+            lastErrorMillis = 0L;
+            stopped = false;
+            final BufferedReader outReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            Thread outThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        String line = outReader.readLine();
+                        while ( line != null ) {
+                            outputLines.add(line);
+                            line = outReader.readLine();
+                        }
+                    } catch ( IOException ex ) {
+                        // Process stopped
+                        ;
+                    }
+                }
+            }, "FerretWorker-stdout");
+            outThread.setDaemon(true);
+            outThread.start();
+            final BufferedReader errReader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
+            Thread errThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        String line = errReader.readLine();
+                        while ( line != null ) {
+                            errorOutput.append(line);
+                            errorOutput.append('\n');
+                            lastErrorMillis = System.currentTimeMillis();
+                            line = errReader.readLine();
+                        }
+                    } catch ( IOException ex ) {
+                        // Process stopped
+                        ;
+                    }
+                }
+            }, "FerretWorker-stderr");
+            errThread.setDaemon(true);
+            errThread.start();
+        }
+
+        /**
+         * Runs the given command in this Ferret session.
+         *
+         * @return the standard output of the command
+         *
+         * @throws IllegalArgumentException
+         *         if the output contains an error key
+         * @throws IOException
+         *         if the session exits, does not finish within the time limit, or is cancelled;
+         *         this session is then no longer usable
+         */
+        String execute(String command, File cancelFile) throws IllegalArgumentException, IOException {
+            outputLines.clear();
+            errorOutput.setLength(0);
+            String marker = DONE_MARKER_PREFIX + markerCount.incrementAndGet();
+            long startMillis = System.currentTimeMillis();
+            commandWriter.write(command);
+            commandWriter.newLine();
+            for (String resetCmd : SESSION_RESET_COMMANDS) {
+                commandWriter.write(resetCmd);
+                commandWriter.newLine();
+            }
+            commandWriter.write("SAY " + marker);
+            commandWriter.newLine();
+            commandWriter.flush();
+
+            StringBuilder output = new StringBuilder();
+            String failure = null;
+            while ( failure == null ) {
+                String line;
+                try {
+                    line = outputLines.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch ( InterruptedException ex ) {
+                    failure = "Interrupted while waiting for Ferret";
+                    break;
+                }
+                if ( line != null ) {
+                    if ( line.trim().equals(marker) )
+                        break;
+                    output.append(line);
+                    output.append('\n');
+                    continue;
+                }
+                if ( !isAlive() && outputLines.isEmpty() )
+                    failure = "Ferret session exited unexpectedly";
+                else if ( (timeLimit > 0) && (System.currentTimeMillis() - startMillis > timeLimit) )
+                    failure = "Ferret exceeded time limit of " + timeLimit + " ms";
+                else if ( (cancelFile != null) && cancelFile.exists() ) {
+                    cancelFile.delete();
+                    failure = "Process canceled.";
+                }
+            }
+            if ( failure != null )
+                stop();
+
+            // Let any error output for this command arrive
+            while ( System.currentTimeMillis() - lastErrorMillis < STDERR_SETTLE_MILLIS ) {
+                try {
+                    Thread.sleep(STDERR_SETTLE_MILLIS);
+                } catch ( InterruptedException ex ) {
+                    break;
+                }
+            }
+
+            // Check the output for errors the same way as for a Ferret process per script
+            Task checker = new Task(new String[0], null, null, null, 0L, errorKeys);
+            try {
+                checker.checkOutput(output.toString(), errorOutput.toString());
+            } catch ( Exception ex ) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+            if ( checker.getHasError() )
+                throw new IllegalArgumentException(checker.getErrorMessage());
+            if ( failure != null )
+                throw new IOException(failure);
+            return output.toString();
+        }
+
+        /**
+         * @return if this Ferret session has not been stopped and is still running
+         */
+        boolean isUsable() {
+            return !stopped && isAlive();
+        }
+
+        boolean isAlive() {
+            try {
+                process.exitValue();
+                return false;
+            } catch ( IllegalThreadStateException ex ) {
+                return true;
+            }
+        }
+
+        /**
+         * Stops this Ferret session.
+         */
+        void stop() {
+            stopped = true;
+            try {
+                commandWriter.close();
+            } catch ( IOException ex ) {
+                // Ignore
+                ;
+            }
+            process.destroy();
+        }
+    }
+
+}
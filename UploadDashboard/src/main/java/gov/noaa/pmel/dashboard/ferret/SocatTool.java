@@ -1,6 +1,7 @@
 package gov.noaa.pmel.dashboard.ferret;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,17 +10,20 @@ import java.util.List;
 public class SocatTool extends Thread {
 
     private FerretConfig ferret;
+    private FerretWorkerPool workerPool;
     private ArrayList<String> scriptArgs;
     private String expocode;
     private FerretConfig.Action action;
     private String message;
     private boolean error;
-    private boolean done;
+    private volatile boolean done;
 
 
     public SocatTool(FerretConfig ferretConf) {
         ferret = new FerretConfig();
         ferret.setRootElement(ferretConf.getRootElement().clone());
+        // Share any pool of Ferret sessions of the given configuration
+        workerPool = ferretConf.getWorkerPool();
         scriptArgs = new ArrayList<String>(3);
         expocode = null;
         message = null;
@@ -65,6 +69,23 @@ public class SocatTool extends Thread {
             else
                 throw new RuntimeException("Unknown action " + action.toString());
 
+            // Remove any cancel request left over from an earlier run
+            File cancelFile = getCancelFile();
+            cancelFile.delete();
+
+            if ( workerPool != null ) {
+                // Run the driver script in one of the long-lived Ferret sessions
+                try {
+                    workerPool.runScript(driver, scriptArgs, cancelFile);
+                    message = null;
+                } catch ( IllegalArgumentException ex ) {
+                    error = true;
+                    message = ex.getMessage();
+                }
+                done = true;
+                return;
+            }
+
             script_writer = new PrintStream(script);
             script_writer.print("go " + driver);
             for (String scarg : scriptArgs) {
@@ -98,7 +119,7 @@ public class SocatTool extends Thread {
             long timelimit = ferret.getTimeLimit();
 
             Task task = new Task(fullCmd, ferret.getRuntimeEnvironment().getEnv(),
-                    new File(temp_dir), new File("cancel"), timelimit, ferret.getErrorKeys());
+                    new File(temp_dir), cancelFile, timelimit, ferret.getErrorKeys());
             task.run();
             error = task.getHasError();
             message = task.getErrorMessage();
@@ -114,6 +135,29 @@ public class SocatTool extends Thread {
 
     }
 
+    /**
+     * Requests that the Ferret process started by {@link #run()} be stopped.  The process is stopped, and this tool
+     * reports an error, shortly after this request.  Has no effect if the Ferret process is not running.
+     */
+    public void cancel() {
+        if ( done || (action == null) )
+            return;
+        try {
+            getCancelFile().createNewFile();
+        } catch ( IOException ex ) {
+            // Ignore - the process will run to completion
+            ;
+        }
+    }
+
+    /**
+     * @return the file whose existence cancels the Ferret process for the current action and dataset
+     */
+    private File getCancelFile() {
+        String temp_dir = ferret.getTempDir();
+        return new File(temp_dir, "ferret_" + action.toString().toLowerCase() + "_" + expocode + ".cancel");
+    }
+
     public boolean hasError() {
         return error;
     }
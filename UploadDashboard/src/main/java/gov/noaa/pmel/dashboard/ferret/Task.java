@@ -282,6 +282,25 @@ public class Task {
 
     }
 
+    /**
+     * Checks the given output of a process that was not run by this task for errors.
+     * Use {@link #getHasError()} and {@link #getErrorMessage()} for the results.
+     *
+     * @param stdout
+     *         standard output of the process
+     * @param errout
+     *         error output of the process
+     *
+     * @throws Exception
+     *         if the output cannot be scanned
+     */
+    public void checkOutput(String stdout, String errout) throws Exception {
+        output = new StringBuffer(stdout);
+        stderr = new StringBuffer(errout);
+        errorMessage = null;
+        checkErrors();
+    }
+
     /**
      * Look for error information in an input stream. If there is an indication of error, an Exception will be thrown.
      */
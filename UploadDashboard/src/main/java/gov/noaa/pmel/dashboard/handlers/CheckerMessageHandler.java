@@ -5,6 +5,7 @@ import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
 import gov.noaa.pmel.dashboard.shared.ADCMessageList;
+import gov.noaa.pmel.dashboard.shared.ADCMessageListRange;
 import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
@@ -15,8 +16,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Properties;
@@ -31,6 +32,7 @@ import java.util.TreeSet;
 public class CheckerMessageHandler extends VersionedFileHandler {
 
     private static final String MSGS_FILENAME_EXTENSION = ".messages";
+    private static final String MSGS_STORE_FILENAME_EXTENSION = ".msgstore";
     private static final String MSG_KEY_VALUE_SEP = ":";
     private static final String MSG_SEVERITY_KEY = "MsgSeverity";
     private static final String MSG_ROW_NUMBER_KEY = "MsgRowNumber";
@@ -62,7 +64,7 @@ public class CheckerMessageHandler extends VersionedFileHandler {
      * @param datasetId
      *         ID of the dataset
      *
-     * @return the messages file associated with the dataset
+     * @return the (older) text messages file associated with the dataset
      *
      * @throws IllegalArgumentException
      *         if the dataset ID is invalid
@@ -77,6 +79,25 @@ public class CheckerMessageHandler extends VersionedFileHandler {
         return msgsFile;
     }
 
+    /**
+     * @param datasetId
+     *         ID of the dataset
+     *
+     * @return the messages store, as written by {@link CheckerMessageStore}, associated with the dataset
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid
+     */
+    private File messagesStoreFile(String datasetId) throws IllegalArgumentException {
+        // standardize the dataset ID
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        // Get the parent directory
+        File parentDir = new File(filesDir, stdId.substring(0, 4));
+        // Get the dataset messages store
+        File storeFile = new File(parentDir, stdId + MSGS_STORE_FILENAME_EXTENSION);
+        return storeFile;
+    }
+
     /**
      * Appropriately renames a messages file, if one exists, for a change in dataset ID.
      *
@@ -89,11 +110,18 @@ public class CheckerMessageHandler extends VersionedFileHandler {
      *         if a messages file for the new ID already exists, or if unable to rename the messages file
      */
     public void renameMsgsFile(String oldId, String newId) throws IllegalArgumentException {
-        File oldMsgsFile = messagesFile(oldId);
+        renameMsgsFile(messagesStoreFile(oldId), messagesStoreFile(newId), oldId, newId);
+        renameMsgsFile(messagesFile(oldId), messagesFile(newId), oldId, newId);
+    }
+
+    /**
+     * Renames a messages file, if it exists, for a change in dataset ID.
+     */
+    private void renameMsgsFile(File oldMsgsFile, File newMsgsFile, String oldId, String newId)
+            throws IllegalArgumentException {
         if ( !oldMsgsFile.exists() )
             return;
 
-        File newMsgsFile = messagesFile(newId);
         if ( newMsgsFile.exists() )
             throw new IllegalArgumentException("Messages file already exists for " + newId);
 
@@ -123,7 +151,14 @@ public class CheckerMessageHandler extends VersionedFileHandler {
      *         if the dataset ID is invalid, or if the messages file exists but could not be deleted
      */
     public void deleteMsgsFile(String datasetId) throws IllegalArgumentException {
-        File msgsFile = messagesFile(datasetId);
+        deleteMsgsFile(messagesStoreFile(datasetId), datasetId);
+        deleteMsgsFile(messagesFile(datasetId), datasetId);
+    }
+
+    /**
+     * Deletes a messages file, if it exists.
+     */
+    private void deleteMsgsFile(File msgsFile, String datasetId) throws IllegalArgumentException {
         if ( msgsFile.exists() ) {
             String commitMsg = "Deleted messages file for " + datasetId;
             try {
@@ -180,131 +215,119 @@ public class CheckerMessageHandler extends VersionedFileHandler {
 
         ArrayList<ADCMessage> msgList = stdUserData.getStandardizationMessages();
 
-        // Get the dataset messages file to be written
-        File msgsFile = messagesFile(dataset.getDatasetId());
-        File parentFile = msgsFile.getParentFile();
-        if ( !parentFile.exists() )
-            parentFile.mkdirs();
-        PrintWriter msgsWriter;
-        try {
-            msgsWriter = new PrintWriter(msgsFile);
-        } catch ( FileNotFoundException ex ) {
-            throw new RuntimeException("Unexpected error opening messages file " +
-                    msgsFile.getPath() + "\n    " + ex.getMessage(), ex);
+        TreeMap<String,Integer> errorCnt = new TreeMap<String,Integer>();
+        TreeMap<String,Integer> warnCnt = new TreeMap<String,Integer>();
+        for (ADCMessage msg : msgList) {
+            // Start with a summary giving the counts of each general message/severity
+            DataQCFlag.Severity severity = msg.getSeverity();
+            String summary = msg.getGeneralComment();
+            if ( DataQCFlag.Severity.CRITICAL.equals(severity) || DataQCFlag.Severity.ERROR.equals(severity) ) {
+                Integer cnt = errorCnt.get(summary);
+                if ( cnt == null )
+                    cnt = 1;
+                else
+                    cnt += 1;
+                errorCnt.put(summary, cnt);
+            }
+            else if ( DataQCFlag.Severity.WARNING.equals(severity) ) {
+                Integer cnt = warnCnt.get(summary);
+                if ( cnt == null )
+                    cnt = 1;
+                else
+                    cnt += 1;
+                warnCnt.put(summary, cnt);
+            }
+        }
+        ArrayList<String> summaries = new ArrayList<String>(warnCnt.size() + errorCnt.size());
+        for (Entry<String,Integer> sumCnt : warnCnt.entrySet()) {
+            summaries.add(sumCnt.getValue() + " warnings of type: " + sumCnt.getKey());
+        }
+        for (Entry<String,Integer> sumCnt : errorCnt.entrySet()) {
+            summaries.add(sumCnt.getValue() + " errors of type: " + sumCnt.getKey());
         }
-        try {
 
-            TreeMap<String,Integer> errorCnt = new TreeMap<String,Integer>();
-            TreeMap<String,Integer> warnCnt = new TreeMap<String,Integer>();
-            for (ADCMessage msg : msgList) {
-                // Start with a summary giving the counts of each general message/severity
-                DataQCFlag.Severity severity = msg.getSeverity();
-                String summary = msg.getGeneralComment();
+        // WOCE-type QC flags to assign from the automated data check
+        TreeSet<DataQCFlag> woceFlags = new TreeSet<DataQCFlag>();
+        // Messages to save, with invalid row and column numbers removed
+        ArrayList<ADCMessage> savedMsgs = new ArrayList<ADCMessage>(msgList.size());
+
+        for (ADCMessage msg : msgList) {
+            ADCMessage savedMsg = new ADCMessage();
+
+            DataQCFlag.Severity severity = msg.getSeverity();
+            savedMsg.setSeverity(severity);
+
+            Integer rowNum = msg.getRowNumber();
+            if ( (rowNum > 0) && (rowNum <= numSamples) &&
+                    !DashboardUtils.INT_MISSING_VALUE.equals(rowNum) )
+                savedMsg.setRowNumber(rowNum);
+            else
+                rowNum = null;
+
+            Integer colNumber = msg.getColNumber();
+            if ( (colNumber > 0) && (colNumber <= numUserCols) &&
+                    !DashboardUtils.INT_MISSING_VALUE.equals(colNumber) )
+                savedMsg.setColNumber(colNumber);
+            else
+                colNumber = null;
+
+            savedMsg.setColName(msg.getColName());
+            savedMsg.setGeneralComment(msg.getGeneralComment());
+            savedMsg.setDetailedComment(msg.getDetailedComment());
+            savedMsgs.add(savedMsg);
+
+            // Create the QC flag for this message.
+            if ( rowNum != null ) {
                 if ( DataQCFlag.Severity.CRITICAL.equals(severity) || DataQCFlag.Severity.ERROR.equals(severity) ) {
-                    Integer cnt = errorCnt.get(summary);
-                    if ( cnt == null )
-                        cnt = 1;
+                    DataQCFlag flag;
+                    if ( colNumber != null )
+                        flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
+                                DataQCFlag.Severity.ERROR, colNumber - 1, rowNum - 1);
                     else
-                        cnt += 1;
-                    errorCnt.put(summary, cnt);
+                        flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
+                                DataQCFlag.Severity.ERROR, null, rowNum - 1);
+                    woceFlags.add(flag);
                 }
                 else if ( DataQCFlag.Severity.WARNING.equals(severity) ) {
-                    Integer cnt = warnCnt.get(summary);
-                    if ( cnt == null )
-                        cnt = 1;
+                    DataQCFlag flag;
+                    if ( colNumber != null )
+                        flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
+                                DataQCFlag.Severity.WARNING, colNumber - 1, rowNum - 1);
                     else
-                        cnt += 1;
-                    warnCnt.put(summary, cnt);
-                }
-            }
-            for (Entry<String,Integer> sumCnt : warnCnt.entrySet()) {
-                msgsWriter.println(MSG_SUMMARY_MSG_KEY + MSG_KEY_VALUE_SEP +
-                        sumCnt.getValue() + " errors of type: " + sumCnt.getKey());
-            }
-            for (Entry<String,Integer> sumCnt : errorCnt.entrySet()) {
-                msgsWriter.println(MSG_SUMMARY_MSG_KEY + MSG_KEY_VALUE_SEP +
-                        sumCnt.getValue() + " warnings of type: " + sumCnt.getKey());
-            }
-
-            // WOCE-type QC flags to assign from the automated data check
-            TreeSet<DataQCFlag> woceFlags = new TreeSet<DataQCFlag>();
-
-            for (ADCMessage msg : msgList) {
-                // Generate a list of key-value strings describing this message
-                ArrayList<String> mappings = new ArrayList<String>();
-
-                DataQCFlag.Severity severity = msg.getSeverity();
-                mappings.add(MSG_SEVERITY_KEY + MSG_KEY_VALUE_SEP + severity.name());
-
-                Integer rowNum = msg.getRowNumber();
-                if ( (rowNum > 0) && (rowNum <= numSamples) &&
-                        !DashboardUtils.INT_MISSING_VALUE.equals(rowNum) )
-                    mappings.add(MSG_ROW_NUMBER_KEY + MSG_KEY_VALUE_SEP + rowNum);
-                else
-                    rowNum = null;
-
-                Integer colNumber = msg.getColNumber();
-                if ( (colNumber > 0) && (colNumber <= numUserCols) &&
-                        !DashboardUtils.INT_MISSING_VALUE.equals(colNumber) )
-                    mappings.add(MSG_COLUMN_NUMBER_KEY + MSG_KEY_VALUE_SEP + colNumber);
-                else
-                    colNumber = null;
-
-                String colName = msg.getColName();
-                if ( !DashboardUtils.STRING_MISSING_VALUE.equals(colName) )
-                    mappings.add(MSG_COLUMN_NAME_KEY + MSG_KEY_VALUE_SEP + colName);
-
-                // Assign the general message - escape newlines
-                String summary = msg.getGeneralComment().replace("\n", "\\n");
-                if ( !DashboardUtils.STRING_MISSING_VALUE.equals(summary) )
-                    mappings.add(MSG_GENERAL_MSG_KEY + MSG_KEY_VALUE_SEP + summary);
-
-                // Assign the detailed message - escape newlines
-                String details = msg.getDetailedComment().replace("\n", "\\n");
-                if ( !DashboardUtils.STRING_MISSING_VALUE.equals(details) )
-                    mappings.add(MSG_DETAILED_MSG_KEY + MSG_KEY_VALUE_SEP + details);
-
-                // Write this array list of key-value strings to file
-                msgsWriter.println(DashboardUtils.encodeStringArrayList(mappings));
-
-                // Create the QC flag for this message.
-                if ( rowNum != null ) {
-                    if ( DataQCFlag.Severity.CRITICAL.equals(severity) || DataQCFlag.Severity.ERROR.equals(severity) ) {
-                        DataQCFlag flag;
-                        if ( colNumber != null )
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
-                                    DataQCFlag.Severity.ERROR, colNumber - 1, rowNum - 1);
-                        else
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_BAD,
-                                    DataQCFlag.Severity.ERROR, null, rowNum - 1);
-                        woceFlags.add(flag);
-                    }
-                    else if ( DataQCFlag.Severity.WARNING.equals(severity) ) {
-                        DataQCFlag flag;
-                        if ( colNumber > 0 )
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
-                                    DataQCFlag.Severity.WARNING, colNumber - 1, rowNum - 1);
-                        else
-                            flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
-                                    DataQCFlag.Severity.WARNING, null, rowNum - 1);
-                        woceFlags.add(flag);
-                    }
+                        flag = new DataQCFlag(null, DashboardServerUtils.WOCE_QUESTIONABLE,
+                                DataQCFlag.Severity.WARNING, null, rowNum - 1);
+                    woceFlags.add(flag);
                 }
             }
+        }
 
-            dataset.setCheckerFlags(woceFlags);
+        dataset.setCheckerFlags(woceFlags);
 
-        } finally {
-            msgsWriter.close();
+        // Write the dataset messages store
+        File storeFile = messagesStoreFile(dataset.getDatasetId());
+        File parentFile = storeFile.getParentFile();
+        if ( !parentFile.exists() )
+            parentFile.mkdirs();
+        try {
+            CheckerMessageStore.writeStore(storeFile, summaries, savedMsgs);
+        } catch ( IOException ex ) {
+            throw new RuntimeException("Unexpected error writing messages file " +
+                    storeFile.getPath() + "\n    " + ex.getMessage(), ex);
         }
 
         // Commit the updated messages file, if possible
         try {
-            commitVersion(msgsFile, "Updated checker messages for " + dataset.getDatasetId());
+            commitVersion(storeFile, "Updated checker messages for " + dataset.getDatasetId());
         } catch ( Exception ex ) {
             // ignore any errors at this time, as the file can be reproduced if needed
             // or may be configured without version control
         }
+        // Remove any older text messages file as it is now out of date
+        try {
+            deleteMsgsFile(messagesFile(dataset.getDatasetId()), dataset.getDatasetId());
+        } catch ( Exception ex ) {
+            // ignore any errors at this time, as the messages store is used in preference
+        }
 
         // Assign any user-provided QC flags.
         // TODO: get severity from user-provided specification of the type
@@ -353,8 +376,80 @@ public class CheckerMessageHandler extends VersionedFileHandler {
     }
 
     /**
-     * Reads the list of messages from the messages file written by
-     * {@link #processCheckerMessages(DashboardDataset, StdUserDataArray)}.
+     * Reads a range of the messages saved by {@link #processCheckerMessages(DashboardDataset, StdUserDataArray)}.
+     * Only the messages in the range are read from the messages store; older text messages files are fully read.
+     *
+     * @param datasetId
+     *         get messages for the dataset with this ID
+     * @param offset
+     *         index, in the filtered list of messages, of the first message to return
+     * @param limit
+     *         maximum number of messages to return
+     * @param filterText
+     *         only include messages matching this text, as given by
+     *         {@link ADCMessageListRange#matchesFilter(ADCMessage, String)}
+     *
+     * @return the range of automated data checker messages for the dataset, in
+     *         {@link CheckerMessageStore#MESSAGE_ORDER} order; never null, but may be empty.
+     *         The datasetId, but not the username, will be assigned in the returned ADCMessageListRange
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID, offset, or limit is invalid, or if the messages file is invalid
+     * @throws FileNotFoundException
+     *         if there is no messages file for the dateset
+     */
+    public ADCMessageListRange getCheckerMessageRange(String datasetId, int offset, int limit, String filterText)
+            throws IllegalArgumentException, FileNotFoundException {
+        ADCMessageListRange range;
+        File storeFile = messagesStoreFile(datasetId);
+        if ( storeFile.exists() ) {
+            try {
+                range = new CheckerMessageStore(storeFile).getRange(offset, limit, filterText);
+            } catch ( FileNotFoundException ex ) {
+                throw ex;
+            } catch ( IOException ex ) {
+                throw new IllegalArgumentException("Unexpected problem reading messages from " +
+                        storeFile.getPath() + "\n    " + ex.getMessage(), ex);
+            }
+        }
+        else {
+            if ( offset < 0 )
+                throw new IllegalArgumentException("invalid offset: " + offset);
+            if ( limit < 0 )
+                throw new IllegalArgumentException("invalid limit: " + limit);
+            ADCMessageList msgList = getCheckerMessages(datasetId);
+            ArrayList<ADCMessage> sorted = new ArrayList<ADCMessage>(msgList);
+            Collections.sort(sorted, CheckerMessageStore.MESSAGE_ORDER);
+            ArrayList<ADCMessage> rangeMsgs = new ArrayList<ADCMessage>(Math.min(limit, sorted.size()));
+            int numWarnings = 0;
+            int numErrors = 0;
+            int count = 0;
+            for (ADCMessage msg : sorted) {
+                DataQCFlag.Severity severity = msg.getSeverity();
+                if ( DataQCFlag.Severity.CRITICAL.equals(severity) || DataQCFlag.Severity.ERROR.equals(severity) )
+                    numErrors++;
+                else if ( DataQCFlag.Severity.WARNING.equals(severity) )
+                    numWarnings++;
+                if ( !ADCMessageListRange.matchesFilter(msg, filterText) )
+                    continue;
+                if ( (count >= offset) && (count - offset < limit) )
+                    rangeMsgs.add(msg);
+                count++;
+            }
+            range = new ADCMessageListRange();
+            range.setSummaries(msgList.getSummaries());
+            range.setNumWarnings(numWarnings);
+            range.setNumErrors(numErrors);
+            range.setOffset(offset);
+            range.setTotalCount(count);
+            range.setMessages(rangeMsgs);
+        }
+        range.setDatasetId(datasetId);
+        return range;
+    }
+
+    /**
+     * Reads the list of messages saved by {@link #processCheckerMessages(DashboardDataset, StdUserDataArray)}.
      *
      * @param datasetId
      *         get messages for the dataset with this ID
@@ -372,9 +467,25 @@ public class CheckerMessageHandler extends VersionedFileHandler {
         // Create the list of messages to be returned
         ADCMessageList msgList = new ADCMessageList();
         msgList.setDatasetId(datasetId);
+        // Read all the messages in the messages store, if it exists
+        File storeFile = messagesStoreFile(datasetId);
+        if ( storeFile.exists() ) {
+            try {
+                CheckerMessageStore store = new CheckerMessageStore(storeFile);
+                ADCMessageListRange range = store.getRange(0, store.getNumMessages(), null);
+                msgList.setSummaries(range.getSummaries());
+                msgList.addAll(range.getMessages());
+            } catch ( FileNotFoundException ex ) {
+                throw ex;
+            } catch ( IOException ex ) {
+                throw new IllegalArgumentException("Unexpected problem reading messages from " +
+                        storeFile.getPath() + "\n    " + ex.getMessage(), ex);
+            }
+            return msgList;
+        }
         // Directly modify the summary messages in the ADCMessageList
         ArrayList<String> summaryMsgs = msgList.getSummaries();
-        // Read the cruise messages file
+        // Read the older text messages file
         File msgsFile = messagesFile(datasetId);
         BufferedReader msgReader;
         msgReader = new BufferedReader(new FileReader(msgsFile));
@@ -0,0 +1,510 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import gov.noaa.pmel.dashboard.shared.ADCMessage;
+import gov.noaa.pmel.dashboard.shared.ADCMessageListRange;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact binary store of the automated data checker messages for a dataset.  The store starts with a header giving
+ * the summary messages, the number of messages of each severity, a table of the (few) distinct column names and
+ * general messages, and the sections of messages with the same severity, column number, and column name.  The header
+ * is followed by a fixed-length record for each message, in {@link #MESSAGE_ORDER} order, and then by the distinct
+ * detailed messages.  A range of messages is read by reading the header and only the records in that range.
+ *
+ * @author Karl Smith
+ */
+public class CheckerMessageStore {
+
+    /**
+     * Order of the messages in the store: by severity, column number, column name, and then row number
+     */
+    public static final Comparator<ADCMessage> MESSAGE_ORDER = new Comparator<ADCMessage>() {
+        @Override
+        public int compare(ADCMessage msg1, ADCMessage msg2) {
+            int result = DashboardUtils.severityComparator.compare(msg1, msg2);
+            if ( result != 0 )
+                return result;
+            result = DashboardUtils.colNumComparator.compare(msg1, msg2);
+            if ( result != 0 )
+                return result;
+            result = DashboardUtils.colNameComparator.compare(msg1, msg2);
+            if ( result != 0 )
+                return result;
+            return DashboardUtils.rowNumComparator.compare(msg1, msg2);
+        }
+    };
+
+    private static final int STORE_MAGIC = 0x4144434d;
+    private static final int STORE_VERSION = 1;
+    // magic, version, and header length
+    private static final int PREAMBLE_SIZE = 3 * 4;
+    // severity, row number, column number, column name index, general message index, detailed message offset
+    private static final int RECORD_SIZE = 1 + 5 * 4;
+    private static final int NO_STRING = -1;
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    /**
+     * Messages in the store with the same severity, column number, and column name
+     */
+    private static class Section {
+        Severity severity;
+        int colNumber;
+        int colNameIdx;
+        int start;
+        int count;
+    }
+
+    private final File storeFile;
+    private final int numMessages;
+    private final int[] severityCounts;
+    private final ArrayList<String> summaries;
+    private final String[] strings;
+    private final Section[] sections;
+    private final long recordsStart;
+    private final long detailsStart;
+
+    /**
+     * Reads the header of a messages store written by {@link #writeStore(File, List, List)}.
+     *
+     * @param storeFile
+     *         messages store to read
+     *
+     * @throws FileNotFoundException
+     *         if the messages store does not exist
+     * @throws IOException
+     *         if the messages store is not valid or cannot be read
+     */
+    public CheckerMessageStore(File storeFile) throws FileNotFoundException, IOException {
+        this.storeFile = storeFile;
+        RandomAccessFile storeReader = new RandomAccessFile(storeFile, "r");
+        try {
+            if ( storeReader.readInt() != STORE_MAGIC )
+                throw new IOException("Not a checker messages store: " + storeFile.getPath());
+            int version = storeReader.readInt();
+            if ( version != STORE_VERSION )
+                throw new IOException("Unsupported checker messages store version " + version +
+                        ": " + storeFile.getPath());
+            byte[] header = new byte[storeReader.readInt()];
+            storeReader.readFully(header);
+            DataInputStream headerIn = new DataInputStream(new ByteArrayInputStream(header));
+
+            numMessages = headerIn.readInt();
+            severityCounts = new int[SEVERITIES.length];
+            int numSeverities = headerIn.readInt();
+            if ( numSeverities != SEVERITIES.length )
+                throw new IOException("Unexpected number of severities in " + storeFile.getPath());
+            for (int k = 0; k < numSeverities; k++) {
+                severityCounts[k] = headerIn.readInt();
+            }
+
+            int numSummaries = headerIn.readInt();
+            summaries = new ArrayList<String>(numSummaries);
+            for (int k = 0; k < numSummaries; k++) {
+                summaries.add(readString(headerIn));
+            }
+
+            strings = new String[headerIn.readInt()];
+            for (int k = 0; k < strings.length; k++) {
+                strings[k] = readString(headerIn);
+            }
+
+            sections = new Section[headerIn.readInt()];
+            for (int k = 0; k < sections.length; k++) {
+                Section section = new Section();
+                section.severity = getSeverity(headerIn.readByte());
+                section.colNumber = headerIn.readInt();
+                section.colNameIdx = headerIn.readInt();
+                section.start = headerIn.readInt();
+                section.count = headerIn.readInt();
+                sections[k] = section;
+            }
+
+            recordsStart = PREAMBLE_SIZE + header.length;
+            detailsStart = recordsStart + (long) numMessages * RECORD_SIZE;
+            if ( storeReader.length() < detailsStart )
+                throw new IOException("Truncated checker messages store: " + storeFile.getPath());
+        } finally {
+            storeReader.close();
+        }
+    }
+
+    /**
+     * Writes a messages store.
+     *
+     * @param storeFile
+     *         messages store to write
+     * @param summaries
+     *         summary messages for the messages
+     * @param messages
+     *         messages to save; not modified
+     *
+     * @throws IOException
+     *         if writing to the messages store fails
+     */
+    public static void writeStore(File storeFile, List<String> summaries, List<ADCMessage> messages)
+            throws IOException {
+        ArrayList<ADCMessage> sorted = new ArrayList<ADCMessage>(messages);
+        Collections.sort(sorted, MESSAGE_ORDER);
+
+        // Column names and general messages are few and repeated, so are kept in a table in the header;
+        // detailed messages follow the records, with repeated detailed messages only saved once
+        HashMap<String,Integer> stringIndices = new HashMap<String,Integer>();
+        ArrayList<String> stringList = new ArrayList<String>();
+        HashMap<String,Integer> detailOffsets = new HashMap<String,Integer>();
+        ByteArrayOutputStream detailBytes = new ByteArrayOutputStream();
+        DataOutputStream detailOut = new DataOutputStream(detailBytes);
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(sorted.size() * RECORD_SIZE);
+        DataOutputStream recordOut = new DataOutputStream(recordBytes);
+        int[] counts = new int[SEVERITIES.length];
+        ArrayList<Section> sectionList = new ArrayList<Section>();
+        Section section = null;
+
+        for (int k = 0; k < sorted.size(); k++) {
+            ADCMessage msg = sorted.get(k);
+            Severity severity = msg.getSeverity();
+            int rowNum = msg.getRowNumber();
+            int colNum = msg.getColNumber();
+            int colNameIdx = getStringIndex(msg.getColName(), stringIndices, stringList);
+            int generalIdx = getStringIndex(msg.getGeneralComment(), stringIndices, stringList);
+            int detailOffset = NO_STRING;
+            String details = msg.getDetailedComment();
+            if ( !DashboardUtils.STRING_MISSING_VALUE.equals(details) ) {
+                Integer offset = detailOffsets.get(details);
+                if ( offset == null ) {
+                    offset = detailOut.size();
+                    detailOffsets.put(details, offset);
+                    writeString(detailOut, details);
+                }
+                detailOffset = offset;
+            }
+
+            if ( (section == null) || (section.severity != severity) ||
+                    (section.colNumber != colNum) || (section.colNameIdx != colNameIdx) ) {
+                section = new Section();
+                section.severity = severity;
+                section.colNumber = colNum;
+                section.colNameIdx = colNameIdx;
+                section.start = k;
+                section.count = 0;
+                sectionList.add(section);
+            }
+            section.count++;
+            counts[severity.ordinal()]++;
+
+            recordOut.writeByte(severity.ordinal());
+            recordOut.writeInt(rowNum);
+            recordOut.writeInt(colNum);
+            recordOut.writeInt(colNameIdx);
+            recordOut.writeInt(generalIdx);
+            recordOut.writeInt(detailOffset);
+        }
+        recordOut.flush();
+        detailOut.flush();
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(headerBytes);
+        headerOut.writeInt(sorted.size());
+        headerOut.writeInt(counts.length);
+        for (int cnt : counts) {
+            headerOut.writeInt(cnt);
+        }
+        headerOut.writeInt(summaries.size());
+        for (String summary : summaries) {
+            writeString(headerOut, summary);
+        }
+        headerOut.writeInt(stringList.size());
+        for (String str : stringList) {
+            writeString(headerOut, str);
+        }
+        headerOut.writeInt(sectionList.size());
+        for (Section sect : sectionList) {
+            headerOut.writeByte(sect.severity.ordinal());
+            headerOut.writeInt(sect.colNumber);
+            headerOut.writeInt(sect.colNameIdx);
+            headerOut.writeInt(sect.start);
+            headerOut.writeInt(sect.count);
+        }
+        headerOut.flush();
+
+        DataOutputStream storeOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(storeFile)));
+        try {
+            storeOut.writeInt(STORE_MAGIC);
+            storeOut.writeInt(STORE_VERSION);
+            storeOut.writeInt(headerBytes.size());
+            headerBytes.writeTo(storeOut);
+            recordBytes.writeTo(storeOut);
+            detailBytes.writeTo(storeOut);
+        } finally {
+            storeOut.close();
+        }
+    }
+
+    /**
+     * @return the total number of messages in this store
+     */
+    public int getNumMessages() {
+        return numMessages;
+    }
+
+    /**
+     * @param severity
+     *         severity of the messages to count
+     *
+     * @return the number of messages in this store with the given severity
+     */
+    public int getNumMessages(Severity severity) {
+        return severityCounts[severity.ordinal()];
+    }
+
+    /**
+     * @return the summary messages in this store; never null but may be empty.
+     *         The actual list in this object is returned.
+     */
+    public ArrayList<String> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * Returns a range of the messages in this store matching the given filter text.  Without filter text, only the
+     * records in the range are read; with filter text, sections whose severity or column name match are counted
+     * without reading their records.
+     *
+     * @param offset
+     *         index, in the filtered list of messages, of the first message to return
+     * @param limit
+     *         maximum number of messages to return
+     * @param filterText
+     *         only include messages matching this text, as given by
+     *         {@link ADCMessageListRange#matchesFilter(ADCMessage, String)}
+     *
+     * @return the range of messages, with the summary messages and the number of warnings and errors in this store;
+     *         the username and dataset ID are not assigned
+     *
+     * @throws IllegalArgumentException
+     *         if the offset or limit is negative
+     * @throws IOException
+     *         if reading the messages store fails
+     */
+    public ADCMessageListRange getRange(int offset, int limit, String filterText)
+            throws IllegalArgumentException, IOException {
+        if ( offset < 0 )
+            throw new IllegalArgumentException("invalid offset: " + offset);
+        if ( limit < 0 )
+            throw new IllegalArgumentException("invalid limit: " + limit);
+        String filter = (filterText != null) ? filterText.trim().toLowerCase() : "";
+
+        ArrayList<ADCMessage> rangeMsgs = new ArrayList<ADCMessage>(Math.min(limit, numMessages));
+        int count;
+        RandomAccessFile storeReader = new RandomAccessFile(storeFile, "r");
+        try {
+            HashMap<Integer,String> details = new HashMap<Integer,String>();
+            if ( filter.isEmpty() ) {
+                count = numMessages;
+                int start = Math.min(offset, numMessages);
+                int num = Math.min(limit, numMessages - start);
+                int[][] records = readRecords(storeReader, start, num);
+                for (int k = 0; k < num; k++) {
+                    rangeMsgs.add(createMessage(records[k], storeReader, null, details));
+                }
+            }
+            else {
+                boolean[] stringMatches = new boolean[strings.length];
+                for (int k = 0; k < strings.length; k++) {
+                    stringMatches[k] = strings[k].toLowerCase().contains(filter);
+                }
+                // Detailed messages are examined for sections that do not match as a whole, so read all of them
+                byte[] detailBlock = null;
+                HashMap<Integer,Boolean> detailMatches = new HashMap<Integer,Boolean>();
+                count = 0;
+                for (Section section : sections) {
+                    if ( section.severity.name().toLowerCase().contains(filter) ||
+                            ((section.colNameIdx != NO_STRING) && stringMatches[section.colNameIdx]) ) {
+                        // All messages in this section match; only read those in the range
+                        int first = Math.max(offset - count, 0);
+                        int num = Math.min(section.count - first, offset + limit - count - first);
+                        if ( num > 0 ) {
+                            int[][] records = readRecords(storeReader, section.start + first, num);
+                            for (int k = 0; k < num; k++) {
+                                rangeMsgs.add(createMessage(records[k], storeReader, detailBlock, details));
+                            }
+                        }
+                        count += section.count;
+                        continue;
+                    }
+                    if ( detailBlock == null ) {
+                        detailBlock = new byte[(int) (storeReader.length() - detailsStart)];
+                        storeReader.seek(detailsStart);
+                        storeReader.readFully(detailBlock);
+                    }
+                    int[][] records = readRecords(storeReader, section.start, section.count);
+                    for (int[] record : records) {
+                        boolean matches = (record[4] != NO_STRING) && stringMatches[getStringIdx(record[4])];
+                        if ( !matches && (record[5] != NO_STRING) ) {
+                            Boolean detailMatch = detailMatches.get(record[5]);
+                            if ( detailMatch == null ) {
+                                String detail = getDetail(record[5], storeReader, detailBlock, details);
+                                detailMatch = detail.toLowerCase().contains(filter);
+                                detailMatches.put(record[5], detailMatch);
+                            }
+                            matches = detailMatch;
+                        }
+                        if ( !matches )
+                            continue;
+                        if ( (count >= offset) && (count - offset < limit) )
+                            rangeMsgs.add(createMessage(record, storeReader, detailBlock, details));
+                        count++;
+                    }
+                }
+            }
+        } finally {
+            storeReader.close();
+        }
+
+        ADCMessageListRange range = new ADCMessageListRange();
+        range.setSummaries(summaries);
+        range.setNumWarnings(getNumMessages(Severity.WARNING));
+        range.setNumErrors(getNumMessages(Severity.ERROR) + getNumMessages(Severity.CRITICAL));
+        range.setOffset(offset);
+        range.setTotalCount(count);
+        range.setMessages(rangeMsgs);
+        return range;
+    }
+
+    /**
+     * Reads consecutive records from the store.
+     *
+     * @return for each record, the severity ordinal, row number, column number, column name index,
+     *         general message index, and detailed message offset
+     */
+    private int[][] readRecords(RandomAccessFile storeReader, int start, int num) throws IOException {
+        int[][] records = new int[Math.max(num, 0)][];
+        if ( num <= 0 )
+            return records;
+        byte[] bytes = new byte[num * RECORD_SIZE];
+        storeReader.seek(recordsStart + (long) start * RECORD_SIZE);
+        storeReader.readFully(bytes);
+        DataInputStream recordsIn = new DataInputStream(new ByteArrayInputStream(bytes));
+        for (int k = 0; k < num; k++) {
+            int[] record = new int[6];
+            record[0] = recordsIn.readByte();
+            for (int j = 1; j < 6; j++) {
+                record[j] = recordsIn.readInt();
+            }
+            records[k] = record;
+        }
+        return records;
+    }
+
+    /**
+     * Creates the message described by a record returned from {@link #readRecords(RandomAccessFile, int, int)}.
+     */
+    private ADCMessage createMessage(int[] record, RandomAccessFile storeReader, byte[] detailBlock,
+            HashMap<Integer,String> details) throws IOException {
+        ADCMessage msg = new ADCMessage();
+        msg.setSeverity(getSeverity((byte) record[0]));
+        msg.setRowNumber(record[1]);
+        msg.setColNumber(record[2]);
+        if ( record[3] != NO_STRING )
+            msg.setColName(strings[getStringIdx(record[3])]);
+        if ( record[4] != NO_STRING )
+            msg.setGeneralComment(strings[getStringIdx(record[4])]);
+        if ( record[5] != NO_STRING )
+            msg.setDetailedComment(getDetail(record[5], storeReader, detailBlock, details));
+        return msg;
+    }
+
+    /**
+     * @return the detailed message at the given offset, using details as a cache and, if not null, detailBlock
+     *         as the contents of the detailed messages section of the store
+     */
+    private String getDetail(int detailOffset, RandomAccessFile storeReader, byte[] detailBlock,
+            HashMap<Integer,String> details) throws IOException {
+        String detail = details.get(detailOffset);
+        if ( detail != null )
+            return detail;
+        if ( detailBlock != null ) {
+            if ( (detailOffset < 0) || (detailOffset >= detailBlock.length) )
+                throw new IOException("Invalid detailed message offset " + detailOffset +
+                        " in " + storeFile.getPath());
+            detail = readString(new DataInputStream(new ByteArrayInputStream(detailBlock,
+                    detailOffset, detailBlock.length - detailOffset)));
+        }
+        else {
+            storeReader.seek(detailsStart + detailOffset);
+            detail = readString(storeReader);
+        }
+        details.put(detailOffset, detail);
+        return detail;
+    }
+
+    private int getStringIdx(int idx) throws IOException {
+        if ( (idx < 0) || (idx >= strings.length) )
+            throw new IOException("Invalid string index " + idx + " in " + storeFile.getPath());
+        return idx;
+    }
+
+    private Severity getSeverity(byte ordinal) throws IOException {
+        if ( (ordinal < 0) || (ordinal >= SEVERITIES.length) )
+            throw new IOException("Invalid severity " + ordinal + " in " + storeFile.getPath());
+        return SEVERITIES[ordinal];
+    }
+
+    /**
+     * @return the index of the string in the string table, adding the string to the table if needed;
+     *         NO_STRING if the string is {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    private static int getStringIndex(String str, HashMap<String,Integer> stringIndices, ArrayList<String> stringList) {
+        if ( DashboardUtils.STRING_MISSING_VALUE.equals(str) )
+            return NO_STRING;
+        Integer idx = stringIndices.get(str);
+        if ( idx == null ) {
+            idx = stringList.size();
+            stringList.add(str);
+            stringIndices.put(str, idx);
+        }
+        return idx;
+    }
+
+    /**
+     * Writes the length of the UTF-8 encoding of the string followed by that encoding.
+     * Unlike {@link DataOutput#writeUTF(String)}, there is no limit on the length of the string.
+     */
+    private static void writeString(DataOutput out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}
+     */
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if ( length < 0 )
+            throw new IOException("Invalid string length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -18,19 +18,24 @@ import gov.noaa.pmel.dashboard.shared.DataColumnType;
 import gov.noaa.pmel.dashboard.shared.DataQCFlag;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
 import gov.noaa.pmel.socatmetadata.shared.core.SocatMetadata;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.tmatesoft.svn.core.SVNException;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -49,6 +54,7 @@ public class DataFileHandler extends VersionedFileHandler {
 
     private static final String INFO_FILENAME_EXTENSION = ".properties";
     private static final String DATA_FILENAME_EXTENSION = ".tsv";
+    private static final String ROW_INDEX_FILENAME_EXTENSION = ".rowidx";
     private static final String DATA_OWNER_ID = "dataowner";
     private static final String VERSION_ID = "version";
     private static final String UPLOAD_FILENAME_ID = "uploadfilename";
@@ -74,12 +80,12 @@ public class DataFileHandler extends VersionedFileHandler {
     private static final String CHECKER_FLAGS = "checkerflags";
     private static final String USER_FLAGS = "userflags";
 
-    private static final int MIN_NUM_DATA_COLUMNS = 6;
+    static final int MIN_NUM_DATA_COLUMNS = 6;
 
     /**
      * Patterns for getting the expocode from the metadata preamble
      */
-    private static final Pattern[] EXPOCODE_PATTERNS = new Pattern[] {
+    static final Pattern[] EXPOCODE_PATTERNS = new Pattern[] {
             Pattern.compile("#*Dataset\\s*Expocode\\s*[=:]\\s*([\\p{javaUpperCase}\\p{Digit}-]+)",
                     Pattern.CASE_INSENSITIVE),
             Pattern.compile("#*Cruise\\s*Expocode\\s*[=:]\\s*([\\p{javaUpperCase}\\p{Digit}-]+)",
@@ -88,9 +94,24 @@ public class DataFileHandler extends VersionedFileHandler {
                     Pattern.CASE_INSENSITIVE)
     };
 
+    /**
+     * Maximum number of datasets, and pages of data rows, in the cache of recently viewed data
+     */
+    private static final int MAX_NUM_CACHED_DATASETS = 32;
+    private static final int MAX_NUM_CACHED_PAGES = 256;
+
+    /**
+     * Maximum number of datasets whose data QC flags are kept in the registry of dataset information
+     */
+    private static final int MAX_NUM_CACHED_FLAG_SETS = 256;
+
     private KnownDataTypes userTypes;
     private UserFileHandler userFileHandler;
     private String uploadVersion;
+    private DatasetPageCache pageCache;
+    private DatasetInfoRegistry infoRegistry;
+    private WatchService watcher;
+    private Thread watcherThread;
 
 
     /**
@@ -118,6 +139,18 @@ public class DataFileHandler extends VersionedFileHandler {
         this.userTypes = userTypes;
         this.userFileHandler = userFileHandler;
         this.uploadVersion = uploadVersion;
+        pageCache = new DatasetPageCache(MAX_NUM_CACHED_DATASETS, MAX_NUM_CACHED_PAGES);
+        infoRegistry = new DatasetInfoRegistry(MAX_NUM_CACHED_FLAG_SETS);
+        watcher = null;
+        watcherThread = null;
+    }
+
+    /**
+     * @return the registry of dataset information read from, or written to, the dataset information files;
+     *         for examining the use of this registry
+     */
+    public DatasetInfoRegistry getDatasetInfoRegistry() {
+        return infoRegistry;
     }
 
     /**
@@ -156,6 +189,20 @@ public class DataFileHandler extends VersionedFileHandler {
         return dataFile;
     }
 
+    /**
+     * @param datasetId
+     *         the ID of the dataset
+     *
+     * @return the row index file associated with the data file of the dataset; this file is not version controlled
+     *
+     * @throws IllegalArgumentException
+     *         if datasetId is not a valid dataset ID
+     */
+    File datasetRowIndexFile(String datasetId) throws IllegalArgumentException {
+        File dataFile = datasetDataFile(datasetId);
+        return new File(dataFile.getParentFile(), dataFile.getName() + ROW_INDEX_FILENAME_EXTENSION);
+    }
+
     /**
      * Searches all existing datasets and returns the dataset IDs of those that match
      * the given dataset ID containing wildcards and/or regular expressions.
@@ -282,155 +329,35 @@ public class DataFileHandler extends VersionedFileHandler {
      */
     public DashboardDatasetData assignDatasetDataFromInput(DashboardDatasetData datasetData, Reader dataReader,
             String dataFormat, String owner, int firstRowIdx, int numDataRows) throws IOException {
-        char spacer;
-        if ( DashboardUtils.TAB_FORMAT_TAG.equals(dataFormat) ) {
-            spacer = '\t';
-        }
-        else if ( DashboardUtils.COMMA_FORMAT_TAG.equals(dataFormat) ) {
-            spacer = ',';
-        }
-        else if ( DashboardUtils.SEMICOLON_FORMAT_TAG.equals(dataFormat) ) {
-            spacer = ';';
-        }
-        else
-            throw new IOException("Unexpected invalid data format '" + dataFormat + "'");
-
-        CSVFormat format = CSVFormat.EXCEL.withIgnoreSurroundingSpaces()
-                                          .withDelimiter(spacer);
-        CSVParser dataParser = new CSVParser(dataReader, format);
-
-        String expocode = null;
-        ArrayList<String> preamble = new ArrayList<String>();
-        ArrayList<String> columnNames = null;
-        int numDataColumns = 0;
         ArrayList<ArrayList<String>> dataVals = new ArrayList<ArrayList<String>>();
         ArrayList<Integer> rowNums = new ArrayList<Integer>();
-        int dataRowNum = 0;
+        DatasetDataReader rowReader = new DatasetDataReader(dataReader, dataFormat);
         try {
-            boolean checkForUnits = false;
-
-            for (CSVRecord record : dataParser) {
-
-                // Still looking for headers?
-                if ( columnNames == null ) {
-                    if ( record.size() >= MIN_NUM_DATA_COLUMNS ) {
-                        // Check if these are the column names headers; column names must not be blank or pure numeric
-                        boolean isHeader = true;
-                        for (String val : record) {
-                            if ( val.isEmpty() ) {
-                                isHeader = false;
-                                break;
-                            }
-                            try {
-                                Double.parseDouble(val);
-                                isHeader = false;
-                                break;
-                            } catch ( Exception ex ) {
-                                // Expected result for a name
-                            }
-                        }
-                        if ( isHeader ) {
-                            // These indeed are the column headers
-                            numDataColumns = record.size();
-                            columnNames = new ArrayList<String>(numDataColumns);
-                            for (String val : record) {
-                                columnNames.add(val);
-                            }
-                            // Check for units in the next record
-                            checkForUnits = true;
-                            continue;
-                        }
-                    }
-                }
-
-                // Still reading metadata?
-                if ( columnNames == null ) {
-                    // Put this line of metadata back together with space-characters as spacers,
-                    // without double-quotes, and without blank columns
-                    String metaline = rebuildDataline(record, ' ', true);
-
-                    // Examine this metadata line for the expocode
-                    if ( (expocode == null) && !metaline.isEmpty() ) {
-                        for (Pattern pat : EXPOCODE_PATTERNS) {
-                            Matcher mat = pat.matcher(metaline);
-                            if ( !mat.matches() )
-                                continue;
-                            expocode = mat.group(1).toUpperCase();
-                            break;
-                        }
-                    }
-
-                    // Save this metadata line in the preamble for the cruise
-                    preamble.add(metaline);
-                    continue;
-                }
-
-                // Check that the number of columns is consistent
-                if ( record.size() != numDataColumns )
-                    throw new IOException("Inconsistent number of data columns (" + record.size() +
-                            " instead of " + numDataColumns + ") for measurement " + dataParser.getRecordNumber() +
-                            ":\n    " + rebuildDataline(record, spacer, false));
-
-                if ( checkForUnits ) {
-                    // Check if the line immediately following the data column names are units
-                    checkForUnits = false;
-
-                    boolean isUnits = true;
-                    // A unit specification cannot be pure numeric
-                    for (String val : record) {
-                        try {
-                            Double.valueOf(val);
-                            isUnits = false;
-                            break;
-                        } catch ( NumberFormatException ex ) {
-                            // Expected result for a units specification
-                        }
-                    }
-                    if ( isUnits ) {
-                        // Add the units to the column header names
-                        int k = 0;
-                        for (String units : record) {
-                            if ( !units.isEmpty() ) {
-                                String name = columnNames.get(k);
-                                name += " [" + units + "]";
-                                columnNames.set(k, name);
-                            }
-                            k++;
-                        }
-                        // the next line is the first line of data values to parse
-                        continue;
-                    }
-                    // not units; this is the first line of data value to parse
-                }
-
-                // check if need to add more rows of data
-                if ( (numDataRows >= 0) && (dataVals.size() >= numDataRows) )
-                    break;
-
-                // read the data in this line
-                ArrayList<String> datavals = new ArrayList<String>(numDataColumns);
-                boolean allBlank = true;
-                for (String val : record) {
-                    datavals.add(val);
-                    if ( allBlank && !val.isEmpty() )
-                        allBlank = false;
-                }
-                if ( !allBlank ) {
-                    // actual data found - add to the list, if appropriate
-                    dataRowNum++;
-                    if ( dataRowNum > firstRowIdx ) {
-                        rowNums.add(dataRowNum);
-                        dataVals.add(datavals);
-                    }
-                }
-            }
+            if ( firstRowIdx > 0 )
+                rowReader.skipRows(firstRowIdx);
+            int maxNumRows = (numDataRows >= 0) ? numDataRows : Integer.MAX_VALUE;
+            rowReader.readRows(dataVals, rowNums, maxNumRows);
         } finally {
-            dataParser.close();
+            rowReader.close();
         }
+        return assignDatasetData(datasetData, owner, firstRowIdx, numDataRows, rowReader.getExpocode(),
+                rowReader.getPreamble(), rowReader.getColumnNames(), dataVals, rowNums);
+    }
 
-        if ( numDataColumns < MIN_NUM_DATA_COLUMNS )
-            throw new IOException("No data columns found, possibly due to incorrect format");
-
+    /**
+     * Assigns or creates a DashboardDatasetData object with data read from a data file.
+     * See {@link #assignDatasetDataFromInput(DashboardDatasetData, Reader, String, String, int, int)}
+     * for a description of the arguments datasetData, owner, firstRowIdx, and numDataRows.
+     *
+     * @return the DashboardDatasetData assigned the data (which will be datasetData if it is not null)
+     *
+     * @throws IOException
+     *         if datasetData is not null and the dataset ID found in the data does not match its ID
+     */
+    private DashboardDatasetData assignDatasetData(DashboardDatasetData datasetData, String owner,
+            int firstRowIdx, int numDataRows, String expocode, ArrayList<String> preamble,
+            ArrayList<String> columnNames, ArrayList<ArrayList<String>> dataVals, ArrayList<Integer> rowNums)
+            throws IOException {
         DashboardDatasetData datasetToUpdate;
         if ( datasetData == null ) {
             // Create the dataset to assign
@@ -495,11 +422,34 @@ public class DataFileHandler extends VersionedFileHandler {
      *         if the dataset ID is not valid or if there are problems accessing the information file
      */
     public DashboardDataset getDatasetFromInfoFile(String datasetId) throws IllegalArgumentException {
+        return getDatasetFromInfoFile(datasetId, true);
+    }
+
+    /**
+     * Returns a new DashboardDataset assigned from the dataset information file
+     * without reading any of the data in dataset data file.  The data QC flags, which are usually
+     * only needed when working with the data, can be omitted when listing datasets.
+     * A dataset returned without data QC flags must not be saved using
+     * {@link #saveDatasetInfoToFile(DashboardDataset, String)}.
+     *
+     * @param datasetId
+     *         ID of the dataset to read
+     * @param withFlags
+     *         assign the data QC flags of the dataset?  If false, the data QC flag sets will be empty.
+     *
+     * @return new DashboardDataset assigned from the information file, or
+     *         null if the dataset information file does not exist
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is not valid or if there are problems accessing the information file
+     */
+    public DashboardDataset getDatasetFromInfoFile(String datasetId, boolean withFlags)
+            throws IllegalArgumentException {
         DashboardDataset dataset = new DashboardDataset();
         dataset.setDatasetId(datasetId);
         // Read the information saved in the properties file
         try {
-            assignDatasetFromInfoFile(dataset);
+            assignDatasetFromInfoFile(dataset, withFlags);
         } catch ( FileNotFoundException ex ) {
             return null;
         } catch ( IOException ex ) {
@@ -531,7 +481,7 @@ public class DataFileHandler extends VersionedFileHandler {
         cruiseData.setDatasetId(datasetId);
         try {
             // Assign values from the cruise information file
-            assignDatasetFromInfoFile(cruiseData);
+            assignDatasetFromInfoFile(cruiseData, true);
         } catch ( FileNotFoundException ex ) {
             return null;
         } catch ( IOException ex ) {
@@ -540,6 +490,16 @@ public class DataFileHandler extends VersionedFileHandler {
         }
         // Read the cruise data file
         File dataFile = datasetDataFile(datasetId);
+        if ( (firstDataRow > 0) || (numDataRows >= 0) ) {
+            // Only some of the data rows; try reading only the pages with these rows
+            try {
+                if ( assignDatasetDataFromPages(cruiseData, dataFile, firstDataRow, numDataRows) )
+                    return cruiseData;
+            } catch ( IOException ex ) {
+                // Fall back to reading the data file from the beginning
+                pageCache.invalidate(cruiseData.getDatasetId());
+            }
+        }
         try {
             FileReader cruiseReader = new FileReader(dataFile);
             try {
@@ -558,6 +518,170 @@ public class DataFileHandler extends VersionedFileHandler {
         return cruiseData;
     }
 
+    /**
+     * Assigns the given dataset with the data rows in the given range using the row index of the data file.
+     * Pages of data rows are read by seeking to their start in the data file, and are cached so the pages of
+     * recently viewed datasets do not need to be read again.  If the row index file for the data file does
+     * not exist, or does not match the current data file, it is (re)created.
+     *
+     * @param cruiseData
+     *         dataset to assign; the information from the dataset information file must already be assigned
+     * @param dataFile
+     *         data file for this dataset
+     * @param firstDataRow
+     *         index of the first data row to return
+     * @param numDataRows
+     *         maximum number of data rows to return; if negative, all remaining data rows are returned
+     *
+     * @return true if the data was assigned; false if the row index does not agree with the number of data rows
+     *         recorded for this dataset, in which case the data file should be read from the beginning
+     *
+     * @throws FileNotFoundException
+     *         if the data file does not exist
+     * @throws IOException
+     *         if reading the data file or the row index throws one
+     */
+    private boolean assignDatasetDataFromPages(DashboardDatasetData cruiseData, File dataFile,
+            int firstDataRow, int numDataRows) throws FileNotFoundException, IOException {
+        String datasetId = cruiseData.getDatasetId();
+        DatasetPageCache.FileHeader header = pageCache.getHeader(datasetId);
+        if ( (header == null) || !header.rowIndex.matches(dataFile) ) {
+            header = readFileHeader(datasetId, dataFile);
+            pageCache.putHeader(datasetId, header);
+        }
+        DatasetRowIndex rowIndex = header.rowIndex;
+        if ( rowIndex.getNumDataRows() != cruiseData.getNumDataRows() )
+            return false;
+
+        int firstIdx = Math.max(firstDataRow, 0);
+        int endIdx = rowIndex.getNumDataRows();
+        if ( (numDataRows >= 0) && (numDataRows < endIdx - firstIdx) )
+            endIdx = firstIdx + numDataRows;
+        ArrayList<ArrayList<String>> dataVals = new ArrayList<ArrayList<String>>(Math.max(endIdx - firstIdx, 0));
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(Math.max(endIdx - firstIdx, 0));
+        int numDataColumns = header.columnNames.size();
+        for (int pageIdx = firstIdx / DatasetRowIndex.ROW_STRIDE; pageIdx * DatasetRowIndex.ROW_STRIDE < endIdx;
+             pageIdx++) {
+            ArrayList<ArrayList<String>> page = pageCache.getPage(datasetId, pageIdx);
+            if ( page == null ) {
+                page = readDataPage(dataFile, rowIndex, pageIdx, numDataColumns);
+                pageCache.putPage(datasetId, pageIdx, page);
+            }
+            int pageStart = pageIdx * DatasetRowIndex.ROW_STRIDE;
+            int start = Math.max(firstIdx - pageStart, 0);
+            int end = Math.min(endIdx - pageStart, page.size());
+            for (int k = start; k < end; k++) {
+                // Copy the row since callers may modify the data rows
+                dataVals.add(new ArrayList<String>(page.get(k)));
+                rowNums.add(pageStart + k + 1);
+            }
+        }
+
+        assignDatasetData(cruiseData, null, firstDataRow, numDataRows, header.expocode,
+                new ArrayList<String>(header.preamble), new ArrayList<String>(header.columnNames),
+                dataVals, rowNums);
+        return true;
+    }
+
+    /**
+     * Reads the metadata preamble and data column headers of a data file, and gets the row index
+     * for the data file, creating and saving the row index if required.
+     */
+    private DatasetPageCache.FileHeader readFileHeader(String datasetId, File dataFile)
+            throws FileNotFoundException, IOException {
+        DatasetDataReader headerReader = new DatasetDataReader(new FileReader(dataFile),
+                DashboardUtils.TAB_FORMAT_TAG);
+        headerReader.close();
+        File indexFile = datasetRowIndexFile(datasetId);
+        DatasetRowIndex rowIndex = null;
+        if ( indexFile.exists() ) {
+            try {
+                rowIndex = DatasetRowIndex.read(indexFile);
+                if ( !rowIndex.matches(dataFile) )
+                    rowIndex = null;
+            } catch ( IOException ex ) {
+                rowIndex = null;
+            }
+        }
+        if ( rowIndex == null )
+            rowIndex = saveRowIndex(dataFile, headerReader.getNumHeaderLines(), indexFile);
+        return new DatasetPageCache.FileHeader(rowIndex, headerReader.getExpocode(),
+                headerReader.getPreamble(), headerReader.getColumnNames());
+    }
+
+    /**
+     * Reads the data rows of a page of a data file by seeking to the start of the page.
+     */
+    private ArrayList<ArrayList<String>> readDataPage(File dataFile, DatasetRowIndex rowIndex, int pageIdx,
+            int numDataColumns) throws IOException {
+        ArrayList<ArrayList<String>> page = new ArrayList<ArrayList<String>>(DatasetRowIndex.ROW_STRIDE);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(DatasetRowIndex.ROW_STRIDE);
+        FileInputStream dataStream = new FileInputStream(dataFile);
+        try {
+            dataStream.getChannel().position(rowIndex.getPageOffset(pageIdx));
+            DatasetDataReader pageReader = new DatasetDataReader(new InputStreamReader(dataStream),
+                    DashboardUtils.TAB_FORMAT_TAG, numDataColumns, pageIdx * DatasetRowIndex.ROW_STRIDE);
+            try {
+                pageReader.readRows(page, rowNums, DatasetRowIndex.ROW_STRIDE);
+            } finally {
+                pageReader.close();
+            }
+        } finally {
+            dataStream.close();
+        }
+        return page;
+    }
+
+    /**
+     * Creates the row index of a data file and saves it to the given index file.  Problems saving the index file
+     * are not errors; the index file is just deleted so it is not used.
+     *
+     * @return the row index of the data file
+     *
+     * @throws IOException
+     *         if reading the data file throws one
+     */
+    private DatasetRowIndex saveRowIndex(File dataFile, int numHeaderLines, File indexFile) throws IOException {
+        DatasetRowIndex rowIndex = DatasetRowIndex.build(dataFile, numHeaderLines);
+        try {
+            rowIndex.write(indexFile);
+        } catch ( IOException ex ) {
+            indexFile.delete();
+        }
+        return rowIndex;
+    }
+
+    /**
+     * Opens the saved data file of a dataset for reading the data rows incrementally, so all the data
+     * does not need to be held in memory at one time.  The metadata preamble and data column headers
+     * have been read from the returned reader.  The caller is responsible for closing the reader.
+     *
+     * @param datasetId
+     *         ID of the dataset to read
+     *
+     * @return reader of the data rows of the dataset, or null if there is no data saved for this dataset
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid or if there was a error reading the headers of the data file
+     */
+    public DatasetDataReader openDatasetDataReader(String datasetId) throws IllegalArgumentException {
+        File dataFile = datasetDataFile(datasetId);
+        try {
+            FileReader cruiseReader = new FileReader(dataFile);
+            try {
+                return new DatasetDataReader(cruiseReader, DashboardUtils.TAB_FORMAT_TAG);
+            } catch ( IOException ex ) {
+                cruiseReader.close();
+                throw ex;
+            }
+        } catch ( FileNotFoundException ex ) {
+            return null;
+        } catch ( IOException ex ) {
+            throw new IllegalArgumentException("Problems reading data for " +
+                    datasetId + ": " + ex.getMessage());
+        }
+    }
+
     /**
      * Saves and commits only the dataset properties to the information file.  This does not save the dataset data
      * of a DashboardDatasetData.  This first checks the currently saved properties for the cruise, then writes and
@@ -654,6 +778,7 @@ public class DataFileHandler extends VersionedFileHandler {
         datasetProps.setProperty(USER_FLAGS, DashboardServerUtils.encodeDataQCFlagSet(dataset.getUserFlags()));
 
         // Save the properties to the cruise information file
+        String upperId = DashboardServerUtils.checkDatasetID(datasetId);
         try {
             PrintWriter propsWriter = new PrintWriter(infoFile);
             try {
@@ -661,7 +786,10 @@ public class DataFileHandler extends VersionedFileHandler {
             } finally {
                 propsWriter.close();
             }
+            // Write-through to the registry of dataset information
+            infoRegistry.register(upperId, infoFile.length(), infoFile.lastModified(), dataset);
         } catch ( IOException ex ) {
+            infoRegistry.invalidate(upperId);
             throw new IllegalArgumentException("Problems writing dataset information for " +
                     datasetId + " to " + infoFile.getPath() + ": " + ex.getMessage());
         }
@@ -752,6 +880,15 @@ public class DataFileHandler extends VersionedFileHandler {
                     datasetId + " to " + dataFile.getPath() + ": " + ex.getMessage());
         }
 
+        // Create the row index for paging through the data; a missing index is simply recreated when needed
+        pageCache.invalidate(datasetId);
+        File indexFile = datasetRowIndexFile(datasetId);
+        try {
+            saveRowIndex(dataFile, dataset.getPreamble().size() + 1, indexFile);
+        } catch ( IOException ex ) {
+            indexFile.delete();
+        }
+
         if ( (message == null) || message.trim().isEmpty() )
             return;
 
@@ -900,6 +1037,11 @@ public class DataFileHandler extends VersionedFileHandler {
             }
         }
 
+        // The row index of the old data file is no longer needed
+        datasetRowIndexFile(oldId).delete();
+        pageCache.invalidate(oldId);
+        infoRegistry.invalidate(DashboardServerUtils.checkDatasetID(oldId));
+
         // Move the old dataset files to the new location and name
         String commitMsg = "Rename from " + oldName + " to " + newName;
         try {
@@ -995,6 +1137,8 @@ public class DataFileHandler extends VersionedFileHandler {
         // Delete the cruise data file
         String commitMsg = "Cruise file for " + datasetId + " owned by " +
                 dataset.getOwner() + " deleted by " + username;
+        datasetRowIndexFile(datasetId).delete();
+        pageCache.invalidate(datasetId);
         try {
             deleteVersionedFile(datasetDataFile(datasetId), commitMsg);
         } catch ( Exception ex ) {
@@ -1002,6 +1146,7 @@ public class DataFileHandler extends VersionedFileHandler {
                     datasetId + ": " + ex.getMessage());
         }
         // Delete the cruise information file
+        infoRegistry.invalidate(DashboardServerUtils.checkDatasetID(datasetId));
         try {
             deleteVersionedFile(datasetInfoFile(datasetId), commitMsg);
         } catch ( Exception ex ) {
@@ -1041,10 +1186,14 @@ public class DataFileHandler extends VersionedFileHandler {
 
     /**
      * Assigns a DashboardDataset (or DashboardDatasetData) from the dataset properties file.
-     * The ID of the dataset is obtained from the DashboardDataset.
+     * The ID of the dataset is obtained from the DashboardDataset.  The information registered
+     * for the dataset is used if it describes the current properties file; otherwise the properties file
+     * is read and the information registered.
      *
      * @param dataset
      *         assign dataset information here
+     * @param withFlags
+     *         assign the data QC flags?  If false, the data QC flags of dataset are cleared.
      *
      * @throws IllegalArgumentException
      *         if the dataset ID is invalid, or if the dataset properties file is invalid
@@ -1053,10 +1202,42 @@ public class DataFileHandler extends VersionedFileHandler {
      * @throws IOException
      *         if there are problems reading the dataset properties file
      */
-    private void assignDatasetFromInfoFile(DashboardDataset dataset)
+    private void assignDatasetFromInfoFile(DashboardDataset dataset, boolean withFlags)
             throws IllegalArgumentException, FileNotFoundException, IOException {
         // Get the dataset properties file
-        File infoFile = datasetInfoFile(dataset.getDatasetId());
+        String upperId = DashboardServerUtils.checkDatasetID(dataset.getDatasetId());
+        File infoFile = datasetInfoFile(upperId);
+        // Use the registered information if it is still current
+        if ( infoRegistry.assignDataset(upperId, infoFile, dataset, withFlags) )
+            return;
+        // Record the file properties before reading, so any change while reading makes the registered values obsolete
+        long fileLength = infoFile.length();
+        long fileModified = infoFile.lastModified();
+        readDatasetFromInfoFile(dataset, infoFile);
+        infoRegistry.register(upperId, fileLength, fileModified, dataset);
+        if ( !withFlags ) {
+            dataset.setCheckerFlags(null);
+            dataset.setUserFlags(null);
+        }
+    }
+
+    /**
+     * Assigns a DashboardDataset from the given dataset properties file.
+     *
+     * @param dataset
+     *         assign dataset information here
+     * @param infoFile
+     *         dataset properties file to read
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset properties file is invalid
+     * @throws FileNotFoundException
+     *         if the dataset properties file does not exist
+     * @throws IOException
+     *         if there are problems reading the dataset properties file
+     */
+    private void readDatasetFromInfoFile(DashboardDataset dataset, File infoFile)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
         // Get the properties given in this file
         Properties cruiseProps = new Properties();
         FileReader infoReader = new FileReader(infoFile);
@@ -1403,6 +1584,133 @@ public class DataFileHandler extends VersionedFileHandler {
         // TODO: implement
     }
 
+    /**
+     * Starts a new thread monitoring the dataset information files for changes made outside this handler
+     * (for example, by the command-line programs), removing the registered information for datasets whose
+     * information files have changed.  If a monitoring thread is already running, this does nothing.
+     */
+    public void watchForInfoFileUpdates() {
+        // Make sure the watcher is not already running
+        if ( watcherThread != null )
+            return;
+        final File infoFilesDir = filesDir;
+        watcherThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // Create a new watch service for the dataset information file directories
+                try {
+                    watcher = FileSystems.getDefault().newWatchService();
+                } catch ( Exception ex ) {
+                    return;
+                }
+                // Watch for directory creation in the root data files directory
+                ArrayList<WatchKey> registrations = new ArrayList<WatchKey>();
+                try {
+                    registrations.add(infoFilesDir.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE));
+                    // Watch for changes to files in each of the subdirectories
+                    File[] subdirs = infoFilesDir.listFiles(new FileFilter() {
+                        @Override
+                        public boolean accept(File subfile) {
+                            return subfile.isDirectory() && !subfile.getName().startsWith(".");
+                        }
+                    });
+                    for (File subdir : subdirs) {
+                        registrations.add(registerInfoFileDir(subdir));
+                    }
+                } catch ( Exception ex ) {
+                    for (WatchKey reg : registrations) {
+                        reg.cancel();
+                        reg.pollEvents();
+                    }
+                    try {
+                        watcher.close();
+                    } catch ( Exception e ) {
+                        ;
+                    }
+                    watcher = null;
+                    return;
+                }
+                // Start watching and handle changes
+                for (; ; ) {
+                    try {
+                        WatchKey key = watcher.take();
+                        Path parentPath = (Path) key.watchable();
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            WatchEvent.Kind<?> thisKind = event.kind();
+                            if ( StandardWatchEventKinds.OVERFLOW.equals(thisKind) ) {
+                                // Events were lost; the registry can no longer be trusted
+                                infoRegistry.clear();
+                                continue;
+                            }
+                            File thisFile = parentPath.resolve((Path) event.context()).toFile();
+                            if ( thisFile.isDirectory() ) {
+                                if ( StandardWatchEventKinds.ENTRY_CREATE.equals(thisKind) &&
+                                        !thisFile.getName().startsWith(".") )
+                                    registrations.add(registerInfoFileDir(thisFile));
+                                continue;
+                            }
+                            String name = thisFile.getName();
+                            if ( !name.endsWith(INFO_FILENAME_EXTENSION) )
+                                continue;
+                            // Values written by this handler remain valid; only changes by others are removed
+                            infoRegistry.invalidateIfChanged(
+                                    name.substring(0, name.length() - INFO_FILENAME_EXTENSION.length()), thisFile);
+                        }
+                        if ( !key.reset() && parentPath.equals(infoFilesDir.toPath()) )
+                            break;
+                        // Sleep a moment to allow multiple updates to coalesce
+                        Thread.sleep(100);
+                    } catch ( Exception ex ) {
+                        // Probably the watcher was closed
+                        break;
+                    }
+                }
+                for (WatchKey reg : registrations) {
+                    reg.cancel();
+                    reg.pollEvents();
+                }
+                try {
+                    watcher.close();
+                } catch ( Exception ex ) {
+                    ;
+                }
+                watcher = null;
+                return;
+            }
+        });
+        watcherThread.start();
+    }
+
+    /**
+     * Registers a subdirectory of dataset files with the watch service for changes to the files in that directory.
+     */
+    private WatchKey registerInfoFileDir(File subdir) throws IOException {
+        return subdir.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Stops the thread monitoring the dataset information files, if it is running,
+     * and clears the registry of dataset information.
+     */
+    public void cancelWatch() {
+        try {
+            watcher.close();
+            // Only the thread modifies the value of watcher
+        } catch ( Exception ex ) {
+            // Might be NullPointerException
+        }
+        if ( watcherThread != null ) {
+            try {
+                watcherThread.join();
+            } catch ( Exception ex ) {
+                ;
+            }
+            watcherThread = null;
+        }
+        infoRegistry.clear();
+    }
+
     /**
      * Decodes the WOCE-type property value string from previous versions of the dashboard
      * to generate QC flags with the given flag value and severity.
@@ -1459,43 +1767,4 @@ public class DataFileHandler extends VersionedFileHandler {
         return woceSet;
     }
 
-    /**
-     * Returns a version of the string that was parsed to create the given record
-     * but using the given spacer between the entries in the record.
-     *
-     * @param record
-     *         record to use
-     * @param spacer
-     *         spacer to use.  If a singe-space character, the columns are not double-quoted;
-     *         otherwise column entries are double-quoted if they contain this character
-     * @param trimEmpty
-     *         remove empty entries (and spacers for those entries)
-     *
-     * @return recreated string for this record
-     */
-    private String rebuildDataline(CSVRecord record, char spacer, boolean trimEmpty) {
-        StringBuilder builder = new StringBuilder();
-        boolean first = true;
-        for (String val : record) {
-            if ( trimEmpty && val.isEmpty() )
-                continue;
-            if ( first ) {
-                first = false;
-            }
-            else {
-                builder.append(spacer);
-            }
-            if ( !val.isEmpty() ) {
-                if ( (spacer != ' ') && val.contains(Character.toString(spacer)) ) {
-                    builder.append('"');
-                    builder.append(val);
-                    builder.append('"');
-                }
-                else
-                    builder.append(val);
-            }
-        }
-        return builder.toString();
-    }
-
 }
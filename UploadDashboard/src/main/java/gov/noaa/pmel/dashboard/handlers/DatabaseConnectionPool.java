@@ -0,0 +1,434 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pool of connections to a database for one database user.  Each connection keeps a cache of the statements
+ * prepared on it, so repeated requests do not need to prepare the same statements again.  If the maximum
+ * pool size is zero, connections are not pooled: a new connection is made for each request and closed
+ * when the request is done (the statement cache then only applies within a request).
+ *
+ * @author Karl Smith
+ */
+public class DatabaseConnectionPool {
+
+    /**
+     * A connection from the pool, with its cache of prepared statements.
+     * Call {@link #close()} when done to return the connection to the pool.
+     */
+    public class CachedConnection {
+        private final Connection conn;
+        private final LinkedHashMap<String,PreparedStatement> statements;
+        private long lastUsed;
+        // guarded by the pool
+        private boolean inUse;
+
+        private CachedConnection(Connection conn) {
+            this.conn = conn;
+            statements = new LinkedHashMap<String,PreparedStatement>(2 * MAX_NUM_CACHED_STATEMENTS, 0.75F, true) {
+                private static final long serialVersionUID = -1748256392615408423L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String,PreparedStatement> eldest) {
+                    if ( size() <= MAX_NUM_CACHED_STATEMENTS )
+                        return false;
+                    try {
+                        eldest.getValue().close();
+                    } catch ( SQLException ex ) {
+                        // Ignore
+                    }
+                    return true;
+                }
+            };
+            lastUsed = System.currentTimeMillis();
+            inUse = true;
+        }
+
+        /**
+         * @return the actual database connection
+         */
+        public Connection getConnection() {
+            return conn;
+        }
+
+        /**
+         * Returns the prepared statement for the given SQL, preparing and caching it if not already cached.
+         * The statement returned should not be closed, and any result sets from it should be closed before
+         * this connection is returned to the pool.
+         *
+         * @param sql
+         *         SQL of the statement
+         *
+         * @return the prepared statement
+         *
+         * @throws SQLException
+         *         if preparing the statement throws one
+         */
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return prepareStatement(sql, Statement.NO_GENERATED_KEYS);
+        }
+
+        /**
+         * Returns the prepared statement for the given SQL, preparing and caching it if not already cached.
+         * The statement returned should not be closed, and any result sets from it should be closed before
+         * this connection is returned to the pool.  Any batch added to the statement should be executed or
+         * cleared before this connection is returned to the pool.
+         *
+         * @param sql
+         *         SQL of the statement
+         * @param autoGeneratedKeys
+         *         either {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+         *
+         * @return the prepared statement
+         *
+         * @throws SQLException
+         *         if preparing the statement throws one
+         */
+        public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = sql;
+            if ( autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS )
+                key = GENERATED_KEYS_PREFIX + sql;
+            PreparedStatement prepStmt = statements.get(key);
+            if ( prepStmt != null ) {
+                synchronized(DatabaseConnectionPool.this) {
+                    numStatementCacheHits++;
+                }
+                return prepStmt;
+            }
+            prepStmt = conn.prepareStatement(sql, autoGeneratedKeys);
+            statements.put(key, prepStmt);
+            synchronized(DatabaseConnectionPool.this) {
+                numStatementsPrepared++;
+            }
+            return prepStmt;
+        }
+
+        /**
+         * Returns this connection to the pool, or closes it if connections are not pooled.
+         * Does nothing if this connection has already been returned.
+         */
+        public void close() {
+            synchronized(DatabaseConnectionPool.this) {
+                if ( !inUse )
+                    return;
+                inUse = false;
+            }
+            checkin(this);
+        }
+    }
+
+    /**
+     * Maximum number of prepared statements cached for each connection
+     */
+    static final int MAX_NUM_CACHED_STATEMENTS = 32;
+
+    /**
+     * Prefix for the cache key of statements returning generated keys
+     */
+    private static final String GENERATED_KEYS_PREFIX = "(generated keys) ";
+
+    /**
+     * Pooled connections idle longer than this (in milliseconds) are validated before use
+     */
+    private static final long VALIDATE_IDLE_MILLIS = 30000L;
+
+    /**
+     * Maximum time (in milliseconds) to wait for a connection when all connections are in use
+     */
+    private static final long MAX_WAIT_MILLIS = 60000L;
+
+    private final String databaseUrl;
+    private final String username;
+    private final String password;
+    private final int maxPoolSize;
+    // idle connections; most recently used last
+    private final ArrayDeque<CachedConnection> idle;
+    private boolean closed;
+    private int numOpen;
+    private int numInUse;
+    private int peakNumInUse;
+    private long numCheckouts;
+    private long numWaits;
+    private long numConnectionsOpened;
+    private long numStatementsPrepared;
+    private long numStatementCacheHits;
+
+    /**
+     * @param databaseUrl
+     *         URL of the database
+     * @param username
+     *         database user for the connections
+     * @param password
+     *         password for the database user
+     * @param maxPoolSize
+     *         maximum number of connections in this pool; if zero, connections are not pooled
+     *
+     * @throws IllegalArgumentException
+     *         if maxPoolSize is negative
+     */
+    public DatabaseConnectionPool(String databaseUrl, String username, String password, int maxPoolSize)
+            throws IllegalArgumentException {
+        if ( maxPoolSize < 0 )
+            throw new IllegalArgumentException("invalid maximum pool size: " + maxPoolSize);
+        this.databaseUrl = databaseUrl;
+        this.username = username;
+        this.password = password;
+        this.maxPoolSize = maxPoolSize;
+        idle = new ArrayDeque<CachedConnection>();
+        closed = false;
+        numOpen = 0;
+        numInUse = 0;
+        peakNumInUse = 0;
+        numCheckouts = 0L;
+        numWaits = 0L;
+        numConnectionsOpened = 0L;
+        numStatementsPrepared = 0L;
+        numStatementCacheHits = 0L;
+    }
+
+    /**
+     * Gets a connection from this pool, opening a new connection if there are no idle connections and the pool
+     * is not full.  If the pool is full, waits for a connection to be returned to the pool.
+     *
+     * @return connection from this pool
+     *
+     * @throws SQLException
+     *         if this pool has been closed, if opening a connection throws one or returns null, or
+     *         if no connection became available in a reasonable amount of time
+     */
+    public CachedConnection checkout() throws SQLException {
+        for (; ; ) {
+            CachedConnection cached = null;
+            synchronized(this) {
+                if ( closed )
+                    throw new SQLException("database connection pool has been closed");
+                if ( maxPoolSize > 0 ) {
+                    long waitEnd = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+                    boolean waited = false;
+                    while ( idle.isEmpty() && (numOpen >= maxPoolSize) ) {
+                        long waitTime = waitEnd - System.currentTimeMillis();
+                        if ( waitTime <= 0L )
+                            throw new SQLException("timed out waiting for a database connection");
+                        if ( !waited ) {
+                            numWaits++;
+                            waited = true;
+                        }
+                        try {
+                            wait(waitTime);
+                        } catch ( InterruptedException ex ) {
+                            throw new SQLException("interrupted while waiting for a database connection");
+                        }
+                        if ( closed )
+                            throw new SQLException("database connection pool has been closed");
+                    }
+                    cached = idle.pollLast();
+                    if ( cached != null )
+                        cached.inUse = true;
+                }
+                if ( cached == null )
+                    numOpen++;
+                numInUse++;
+                if ( peakNumInUse < numInUse )
+                    peakNumInUse = numInUse;
+                numCheckouts++;
+            }
+            if ( cached == null ) {
+                // Open a new connection outside the lock
+                Connection conn = null;
+                try {
+                    conn = DriverManager.getConnection(databaseUrl, username, password);
+                } finally {
+                    if ( conn == null )
+                        release(null);
+                }
+                if ( conn == null )
+                    throw new SQLException("null SQL connection returned");
+                synchronized(this) {
+                    numConnectionsOpened++;
+                }
+                return new CachedConnection(conn);
+            }
+            // Connections idle for a while may have been closed by the database server
+            if ( (System.currentTimeMillis() - cached.lastUsed) < VALIDATE_IDLE_MILLIS )
+                return cached;
+            boolean valid;
+            try {
+                valid = cached.conn.isValid(5);
+            } catch ( SQLException ex ) {
+                valid = false;
+            }
+            if ( valid )
+                return cached;
+            release(cached);
+        }
+    }
+
+    /**
+     * Returns a connection to this pool.  The connection is closed if connections are not pooled,
+     * if this pool has been closed, or if the connection is no longer usable.
+     */
+    private void checkin(CachedConnection cached) {
+        boolean keep;
+        synchronized(this) {
+            keep = (maxPoolSize > 0) && !closed;
+        }
+        if ( keep ) {
+            try {
+                if ( cached.conn.isClosed() ) {
+                    keep = false;
+                }
+                else if ( !cached.conn.getAutoCommit() ) {
+                    // Discard any uncommitted changes
+                    cached.conn.rollback();
+                    cached.conn.setAutoCommit(true);
+                }
+            } catch ( SQLException ex ) {
+                keep = false;
+            }
+        }
+        if ( !keep ) {
+            release(cached);
+            return;
+        }
+        cached.lastUsed = System.currentTimeMillis();
+        synchronized(this) {
+            numInUse--;
+            if ( closed ) {
+                // closed while checking the connection
+                numOpen--;
+            }
+            else {
+                idle.addLast(cached);
+                cached = null;
+            }
+            notifyAll();
+        }
+        if ( cached != null )
+            closeConnection(cached);
+    }
+
+    /**
+     * Removes a connection, in use or not yet opened (if null), from this pool and closes it.
+     */
+    private void release(CachedConnection cached) {
+        synchronized(this) {
+            numOpen--;
+            numInUse--;
+            notifyAll();
+        }
+        if ( cached != null )
+            closeConnection(cached);
+    }
+
+    private static void closeConnection(CachedConnection cached) {
+        try {
+            cached.conn.close();
+        } catch ( SQLException ex ) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Closes the idle connections of this pool.  Connections in use are closed when returned.
+     * No further connections can be obtained from this pool.
+     */
+    public void close() {
+        ArrayDeque<CachedConnection> toClose;
+        synchronized(this) {
+            closed = true;
+            toClose = new ArrayDeque<CachedConnection>(idle);
+            numOpen -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        for (CachedConnection cached : toClose) {
+            closeConnection(cached);
+        }
+    }
+
+    /**
+     * @return the maximum number of connections in this pool; zero if connections are not pooled
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * @return the number of connections currently open, in use or idle
+     */
+    public synchronized int getNumOpen() {
+        return numOpen;
+    }
+
+    /**
+     * @return the number of connections currently in use
+     */
+    public synchronized int getNumInUse() {
+        return numInUse;
+    }
+
+    /**
+     * @return the largest number of connections in use at the same time
+     */
+    public synchronized int getPeakNumInUse() {
+        return peakNumInUse;
+    }
+
+    /**
+     * @return the number of times a connection was obtained from this pool
+     */
+    public synchronized long getNumCheckouts() {
+        return numCheckouts;
+    }
+
+    /**
+     * @return the number of times a connection was not immediately available because all connections were in use
+     */
+    public synchronized long getNumWaits() {
+        return numWaits;
+    }
+
+    /**
+     * @return the number of database connections opened by this pool
+     */
+    public synchronized long getNumConnectionsOpened() {
+        return numConnectionsOpened;
+    }
+
+    /**
+     * @return the number of statements prepared on the connections of this pool
+     */
+    public synchronized long getNumStatementsPrepared() {
+        return numStatementsPrepared;
+    }
+
+    /**
+     * @return the number of times a cached prepared statement was reused
+     */
+    public synchronized long getNumStatementCacheHits() {
+        return numStatementCacheHits;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DatabaseConnectionPool[user=" + username +
+                ", maxPoolSize=" + maxPoolSize +
+                ", numOpen=" + numOpen +
+                ", numInUse=" + numInUse +
+                ", peakNumInUse=" + peakNumInUse +
+                ", numCheckouts=" + numCheckouts +
+                ", numWaits=" + numWaits +
+                ", numConnectionsOpened=" + numConnectionsOpened +
+                ", numStatementsPrepared=" + numStatementsPrepared +
+                ", numStatementCacheHits=" + numStatementCacheHits +
+                "]";
+    }
+
+}
@@ -1,6 +1,7 @@
 package gov.noaa.pmel.dashboard.handlers;
 
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.handlers.DatabaseConnectionPool.CachedConnection;
 import gov.noaa.pmel.dashboard.qc.DataLocation;
 import gov.noaa.pmel.dashboard.qc.DataQCEvent;
 import gov.noaa.pmel.dashboard.qc.QCEvent;
@@ -12,16 +13,18 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Handles database requests for dealing with flag events
@@ -41,15 +44,33 @@ public class DatabaseRequestHandler {
     private static final String SELECT_PASS_TAG = "selectpass";
     private static final String UPDATE_USER_TAG = "updateuser";
     private static final String UPDATE_PASS_TAG = "updatepass";
+    private static final String MAX_POOL_SIZE_TAG = "maxpoolsize";
+    private static final String LOCATION_BATCH_SIZE_TAG = "locationbatchsize";
+
+    /**
+     * Default number of WOCE locations inserted in a batch
+     */
+    public static final int DEFAULT_LOCATION_BATCH_SIZE = 1000;
 
     String databaseUrl;
     String selectUser;
     String selectPass;
     String updateUser;
     String updatePass;
+    // connections for selectUser and for updateUser
+    private DatabaseConnectionPool selectPool;
+    private DatabaseConnectionPool updatePool;
+    // reviewer IDs for "u:" + username or "r:" + realname
+    private ConcurrentHashMap<String,Integer> reviewerIds;
+    private AtomicLong numReviewerIdCacheHits;
+    private AtomicLong numReviewerIdCacheMisses;
+    private int locationBatchSize;
 
     /**
-     * Create using the given configuration properties file.
+     * Create using the given configuration properties file.  If a value for maxpoolsize is given in the
+     * configuration file, database connections are pooled with at most this many connections for each of
+     * the select user and the update user.  If a value for locationbatchsize is given in the configuration
+     * file, this is the number of WOCE locations inserted in a batch.
      *
      * @param configFilename
      *         name of the configuration properties file
@@ -105,11 +126,33 @@ public class DatabaseRequestHandler {
             throw new IllegalArgumentException("Value for " + UPDATE_PASS_TAG +
                     " must be given in " + configFilename);
         updatePass = updatePass.trim();
+        int maxPoolSize = 0;
+        String value = configProps.getProperty(MAX_POOL_SIZE_TAG);
+        if ( (value != null) && !value.trim().isEmpty() ) {
+            try {
+                maxPoolSize = Integer.parseInt(value.trim());
+            } catch ( NumberFormatException ex ) {
+                maxPoolSize = -1;
+            }
+            if ( maxPoolSize < 0 )
+                throw new IllegalArgumentException("Invalid value for " + MAX_POOL_SIZE_TAG +
+                        " given in " + configFilename);
+        }
+        createPools(maxPoolSize);
+        value = configProps.getProperty(LOCATION_BATCH_SIZE_TAG);
+        if ( (value != null) && !value.trim().isEmpty() ) {
+            try {
+                setLocationBatchSize(Integer.parseInt(value.trim()));
+            } catch ( IllegalArgumentException ex ) {
+                throw new IllegalArgumentException("Invalid value for " + LOCATION_BATCH_SIZE_TAG +
+                        " given in " + configFilename);
+            }
+        }
         testConnections(sqlDriverName);
     }
 
     /**
-     * Create using the given parameters
+     * Create using the given parameters, without pooling database connections
      *
      * @param sqlDriverName
      *         SQL driver class name, such as "com.mysql.jdbc.Driver"
@@ -132,6 +175,36 @@ public class DatabaseRequestHandler {
     public DatabaseRequestHandler(String sqlDriverName, String databaseUrl,
             String selectUser, String selectPass, String updateUser, String updatePass)
             throws IllegalArgumentException, SQLException {
+        this(sqlDriverName, databaseUrl, selectUser, selectPass, updateUser, updatePass, 0);
+    }
+
+    /**
+     * Create using the given parameters
+     *
+     * @param sqlDriverName
+     *         SQL driver class name, such as "com.mysql.jdbc.Driver"
+     * @param databaseUrl
+     *         database URL, such as "jdbc:mysql://localhost:3306/SOCATFlags"
+     * @param selectUser
+     *         name of database user with SELECT privileges (read-only user)
+     * @param selectPass
+     *         password of database user with SELECT privileges (read-only user)
+     * @param updateUser
+     *         name of database user with SELECT, UPDATE, INSERT, DELETE privileges (read-write user)
+     * @param updatePass
+     *         password of database user with SELECT, UPDATE, INSERT, DELETE privileges (read-write user)
+     * @param maxPoolSize
+     *         maximum number of pooled database connections for each of the select user and the update user;
+     *         if zero, database connections are not pooled
+     *
+     * @throws IllegalArgumentException
+     *         if a given value is invalid (null or empty, or a negative pool size)
+     * @throws SQLException
+     *         if there are problems connecting to or executing a query on the database
+     */
+    public DatabaseRequestHandler(String sqlDriverName, String databaseUrl,
+            String selectUser, String selectPass, String updateUser, String updatePass, int maxPoolSize)
+            throws IllegalArgumentException, SQLException {
         if ( (sqlDriverName == null) || sqlDriverName.trim().isEmpty() )
             throw new IllegalArgumentException("an SQL driver class name, " +
                     "such as com.mysql.jdbc.Driver, must be given");
@@ -151,9 +224,47 @@ public class DatabaseRequestHandler {
         if ( (updatePass == null) || updatePass.trim().isEmpty() )
             throw new IllegalArgumentException("password for update user must be given");
         this.updatePass = updatePass.trim();
+        if ( maxPoolSize < 0 )
+            throw new IllegalArgumentException("maximum connection pool size cannot be negative");
+        createPools(maxPoolSize);
         testConnections(sqlDriverName.trim());
     }
 
+    /**
+     * Creates the connection pools, and the cache of reviewer IDs, for this handler.
+     *
+     * @param maxPoolSize
+     *         maximum number of connections in each pool; if zero, connections are not pooled
+     */
+    private void createPools(int maxPoolSize) {
+        selectPool = new DatabaseConnectionPool(databaseUrl, selectUser, selectPass, maxPoolSize);
+        updatePool = new DatabaseConnectionPool(databaseUrl, updateUser, updatePass, maxPoolSize);
+        reviewerIds = new ConcurrentHashMap<String,Integer>();
+        numReviewerIdCacheHits = new AtomicLong(0L);
+        numReviewerIdCacheMisses = new AtomicLong(0L);
+        locationBatchSize = DEFAULT_LOCATION_BATCH_SIZE;
+    }
+
+    /**
+     * @return the number of WOCE locations inserted in a batch when adding data QC events
+     */
+    public int getLocationBatchSize() {
+        return locationBatchSize;
+    }
+
+    /**
+     * @param locationBatchSize
+     *         the number of WOCE locations to insert in a batch when adding data QC events
+     *
+     * @throws IllegalArgumentException
+     *         if locationBatchSize is not positive
+     */
+    public void setLocationBatchSize(int locationBatchSize) throws IllegalArgumentException {
+        if ( locationBatchSize < 1 )
+            throw new IllegalArgumentException("location batch size must be positive");
+        this.locationBatchSize = locationBatchSize;
+    }
+
     /**
      * Validates the parameters in this handler.
      *
@@ -175,14 +286,15 @@ public class DatabaseRequestHandler {
         }
 
         // Verify the values by making the database connections
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         catConn.close();
         catConn = makeConnection(true);
         catConn.close();
     }
 
     /**
-     * Creates a connection to the associated database catalog.
+     * Gets a connection to the associated database catalog.  The connection must be closed when done
+     * to return it to its pool.
      *
      * @param canUpdate
      *         if true, the connection will be made using updateUser; otherwise, the connection will be made using
@@ -193,23 +305,51 @@ public class DatabaseRequestHandler {
      * @throws SQLException
      *         if connecting to the database catalog throws one or if a null connection is returned
      */
-    private Connection makeConnection(boolean canUpdate) throws SQLException {
-        // Open a connection to the database
-        Connection catConn;
-        if ( canUpdate ) {
-            catConn = DriverManager.getConnection(databaseUrl, updateUser, updatePass);
-        }
-        else {
-            catConn = DriverManager.getConnection(databaseUrl, selectUser, selectPass);
-        }
-        if ( catConn == null )
-            throw new SQLException("null SQL connection returned");
-        return catConn;
+    private CachedConnection makeConnection(boolean canUpdate) throws SQLException {
+        if ( canUpdate )
+            return updatePool.checkout();
+        return selectPool.checkout();
+    }
+
+    /**
+     * Closes the pooled database connections.  No further requests can be made using this handler.
+     */
+    public void close() {
+        selectPool.close();
+        updatePool.close();
+    }
+
+    /**
+     * @return the pool of connections for the database user with SELECT privileges; for examining pool use
+     */
+    public DatabaseConnectionPool getSelectPool() {
+        return selectPool;
+    }
+
+    /**
+     * @return the pool of connections for the database user with update privileges; for examining pool use
+     */
+    public DatabaseConnectionPool getUpdatePool() {
+        return updatePool;
+    }
+
+    /**
+     * @return the number of reviewer IDs found in the cache of reviewer IDs
+     */
+    public long getNumReviewerIdCacheHits() {
+        return numReviewerIdCacheHits.get();
+    }
+
+    /**
+     * @return the number of reviewer IDs that had to be read from the database
+     */
+    public long getNumReviewerIdCacheMisses() {
+        return numReviewerIdCacheMisses.get();
     }
 
     /**
      * Get the ID for a reviewer from the reviewers database table. Uses the username for the reviewer unless it is
-     * empty, in which case it uses the realname of the reviewer.
+     * empty, in which case it uses the realname of the reviewer.  Reviewer IDs never change, so IDs found are cached.
      *
      * @param catConn
      *         connection to the database
@@ -223,7 +363,18 @@ public class DatabaseRequestHandler {
      * @throws SQLException
      *         if accessing the database throws one, or if the reviewer name cannot be found
      */
-    private int getReviewerId(Connection catConn, String username, String realname) throws SQLException {
+    private int getReviewerId(CachedConnection catConn, String username, String realname) throws SQLException {
+        String cacheKey;
+        if ( !username.isEmpty() )
+            cacheKey = "u:" + username;
+        else
+            cacheKey = "r:" + realname;
+        Integer cachedId = reviewerIds.get(cacheKey);
+        if ( cachedId != null ) {
+            numReviewerIdCacheHits.incrementAndGet();
+            return cachedId;
+        }
+        numReviewerIdCacheMisses.incrementAndGet();
         int reviewerId;
         PreparedStatement prepStmt;
         if ( !username.isEmpty() ) {
@@ -238,7 +389,7 @@ public class DatabaseRequestHandler {
         }
         ResultSet results = prepStmt.executeQuery();
         try {
-            if ( !results.first() ) {
+            if ( !results.next() ) {
                 if ( !username.isEmpty() )
                     throw new SQLException("Reviewer username '" + username + "' not found");
                 else
@@ -254,6 +405,7 @@ public class DatabaseRequestHandler {
         } finally {
             results.close();
         }
+        reviewerIds.put(cacheKey, reviewerId);
         return reviewerId;
     }
 
@@ -270,7 +422,7 @@ public class DatabaseRequestHandler {
      */
     public String getReviewerRealname(String username) throws SQLException {
         String realname = null;
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         try {
             PreparedStatement prepStmt = catConn.prepareStatement("SELECT `realname` FROM `" +
                     REVIEWERS_TABLE_NAME + "` WHERE `username` = ?;");
@@ -304,7 +456,7 @@ public class DatabaseRequestHandler {
      */
     public String getReviewerUsername(String realname) throws SQLException {
         String username = null;
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         try {
             PreparedStatement prepStmt = catConn.prepareStatement("SELECT `username` FROM `" +
                     REVIEWERS_TABLE_NAME + "` WHERE `realname` = ?;");
@@ -338,7 +490,7 @@ public class DatabaseRequestHandler {
      */
     public String getReviewerEmail(String username) throws SQLException {
         String userEmail = null;
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         try {
             PreparedStatement prepStmt = catConn.prepareStatement("SELECT `email` FROM `" +
                     REVIEWERS_TABLE_NAME + "` WHERE `username` = ?;");
@@ -370,7 +522,7 @@ public class DatabaseRequestHandler {
      *         if the reviewer cannot be found in the reviewers table.
      */
     public void addDatasetQCEvents(Collection<QCEvent> qcEvents) throws SQLException {
-        Connection catConn = makeConnection(true);
+        CachedConnection catConn = makeConnection(true);
         try {
             PreparedStatement addPrepStmt = catConn.prepareStatement("INSERT INTO `" +
                     QCEVENTS_TABLE_NAME + "` (`qc_flag`, `qc_time`, `expocode`, " +
@@ -414,7 +566,7 @@ public class DatabaseRequestHandler {
     public DatasetQCStatus getDatasetQCFlag(String expocode) throws SQLException {
         HashMap<String,QCEvent> regionFlags = new HashMap<String,QCEvent>();
         long lastUpdateTime = MIN_FLAG_SEC_TIME * 1000L;
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         try {
             // Get all the QC events for this data set, ordered so the latest are last
             PreparedStatement getPrepStmt = catConn.prepareStatement(
@@ -533,7 +685,7 @@ public class DatabaseRequestHandler {
     public String getVersionStatus(String expocode) throws SQLException {
         Double versionNum = null;
         Character status = null;
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         try {
             // Get all the QC events for this data set, ordered so the latest are last
             PreparedStatement getPrepStmt = catConn.prepareStatement(
@@ -621,7 +773,7 @@ public class DatabaseRequestHandler {
      */
     public ArrayList<QCEvent> getDatasetQCEvents(String expocode) throws SQLException {
         ArrayList<QCEvent> eventsList = new ArrayList<QCEvent>();
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         try {
             PreparedStatement prepStmt = catConn.prepareStatement(
                     "SELECT * FROM `" + QCEVENTS_TABLE_NAME + "` JOIN `" +
@@ -645,10 +797,12 @@ public class DatabaseRequestHandler {
     }
 
     /**
-     * Adds a new data QC event for a dataset.  This includes assigning the DataLocations to the WOCELocations table.
+     * Adds new data QC events for a dataset.  This includes assigning the DataLocations to the WOCELocations table.
+     * The DataLocations are added in batches of {@link #getLocationBatchSize()} locations.  All the data QC events
+     * are added in a single transaction; if adding any of them fails, none of them are added.
      *
      * @param woceEvents
-     *         the data QC events to add; the ID in each data QC event will be assigned for those successfully added
+     *         the data QC events to add; the ID in each data QC event will be assigned if all are successfully added
      *
      * @throws SQLException
      *         if accessing or updating the database throws one,
@@ -656,85 +810,148 @@ public class DatabaseRequestHandler {
      *         if a problem occurs adding the data QC event
      */
     public void addDataQCEvent(Collection<DataQCEvent> woceEvents) throws SQLException {
-        Connection catConn = makeConnection(true);
+        long[] woceIds = new long[woceEvents.size()];
+        CachedConnection catConn = makeConnection(true);
         try {
             PreparedStatement eventPrepStmt = catConn.prepareStatement("INSERT INTO `" +
                     WOCEEVENTS_TABLE_NAME + "` (`woce_name`, `woce_flag`, `woce_time`, " +
                     "`expocode`, `socat_version`, `data_name`, `reviewer_id`, " +
-                    "`woce_comment`) VALUES(?, ?, ?, ?, ?, ?, ?, ?);");
+                    "`woce_comment`) VALUES(?, ?, ?, ?, ?, ?, ?, ?);", Statement.RETURN_GENERATED_KEYS);
             PreparedStatement locPrepStmt = catConn.prepareStatement("INSERT INTO `" + WOCELOCATIONS_TABLE_NAME +
                     "` (`woce_id`, `row_num`, `longitude`, `latitude`, `data_time`, `data_value`) " +
                     "VALUES (?, ?, ?, ?, ?, ?);");
-            for (DataQCEvent event : woceEvents) {
-                int reviewerId = getReviewerId(catConn, event.getUsername(), event.getRealname());
-                // Add the WOCE event
-                eventPrepStmt.setString(1, event.getFlagName());
-                eventPrepStmt.setString(2, event.getFlagValue());
-                Date flagDate = event.getFlagDate();
-                if ( flagDate.equals(DashboardUtils.DATE_MISSING_VALUE) )
-                    eventPrepStmt.setLong(3, Math.round(System.currentTimeMillis() / 1000.0));
-                else
-                    eventPrepStmt.setLong(3, Math.round(flagDate.getTime() / 1000.0));
-                eventPrepStmt.setString(4, event.getDatasetId());
-                eventPrepStmt.setString(5, event.getVersion());
-                eventPrepStmt.setString(6, event.getVarName());
-                eventPrepStmt.setInt(7, reviewerId);
-                eventPrepStmt.setString(8, event.getComment());
-                if ( eventPrepStmt.executeUpdate() != 1 )
-                    throw new SQLException("Adding the data QC event was unsuccessful");
-
-                // Get the woce_id for the added WOCE event
-                long woceId;
-                ResultSet results = catConn.createStatement().executeQuery("SELECT LAST_INSERT_ID();");
-                try {
-                    if ( !results.first() )
-                        throw new SQLException("Unexpected failure to get the woce_id for an added data QC event");
-                    woceId = results.getLong(1);
-                    if ( woceId <= 0 )
-                        throw new SQLException("Unexpected invalid woce_id for an added data QC event");
-                } finally {
-                    results.close();
-                }
-
-                // Add the DataLocations to the WOCELocations table
-                for (DataLocation location : event.getLocations()) {
-                    locPrepStmt.setLong(1, woceId);
-                    Integer intVal = location.getRowNumber();
-                    if ( intVal.equals(DashboardUtils.INT_MISSING_VALUE) )
-                        locPrepStmt.setNull(2, java.sql.Types.INTEGER);
-                    else
-                        locPrepStmt.setInt(2, intVal);
-                    Double dblVal = location.getLongitude();
-                    if ( dblVal.equals(DashboardUtils.FP_MISSING_VALUE) )
-                        locPrepStmt.setNull(3, java.sql.Types.DOUBLE);
-                    else
-                        locPrepStmt.setDouble(3, dblVal);
-                    dblVal = location.getLatitude();
-                    if ( dblVal.equals(DashboardUtils.FP_MISSING_VALUE) )
-                        locPrepStmt.setNull(4, java.sql.Types.DOUBLE);
-                    else
-                        locPrepStmt.setDouble(4, dblVal);
-                    Date dateVal = location.getDataDate();
-                    if ( dateVal.equals(DashboardUtils.DATE_MISSING_VALUE) )
-                        locPrepStmt.setNull(5, java.sql.Types.BIGINT);
-                    else
-                        locPrepStmt.setLong(5, Math.round(dateVal.getTime() / 1000.0));
-                    dblVal = location.getDataValue();
-                    if ( dblVal.equals(DashboardUtils.FP_MISSING_VALUE) )
-                        locPrepStmt.setNull(6, java.sql.Types.DOUBLE);
+            catConn.getConnection().setAutoCommit(false);
+            boolean committed = false;
+            try {
+                int k = 0;
+                for (DataQCEvent event : woceEvents) {
+                    int reviewerId = getReviewerId(catConn, event.getUsername(), event.getRealname());
+                    // Add the WOCE event
+                    eventPrepStmt.setString(1, event.getFlagName());
+                    eventPrepStmt.setString(2, event.getFlagValue());
+                    Date flagDate = event.getFlagDate();
+                    if ( flagDate.equals(DashboardUtils.DATE_MISSING_VALUE) )
+                        eventPrepStmt.setLong(3, Math.round(System.currentTimeMillis() / 1000.0));
                     else
-                        locPrepStmt.setDouble(6, dblVal);
-                    locPrepStmt.executeUpdate();
-                    if ( locPrepStmt.getUpdateCount() != 1 )
-                        throw new SQLException("Adding a data QC location was unsuccessful");
-                }
+                        eventPrepStmt.setLong(3, Math.round(flagDate.getTime() / 1000.0));
+                    eventPrepStmt.setString(4, event.getDatasetId());
+                    eventPrepStmt.setString(5, event.getVersion());
+                    eventPrepStmt.setString(6, event.getVarName());
+                    eventPrepStmt.setInt(7, reviewerId);
+                    eventPrepStmt.setString(8, event.getComment());
+                    if ( eventPrepStmt.executeUpdate() != 1 )
+                        throw new SQLException("Adding the data QC event was unsuccessful");
+
+                    // Get the woce_id for the added WOCE event
+                    long woceId;
+                    ResultSet results = eventPrepStmt.getGeneratedKeys();
+                    try {
+                        if ( !results.next() )
+                            throw new SQLException("Unexpected failure to get the woce_id for an added data QC event");
+                        woceId = results.getLong(1);
+                        if ( woceId <= 0 )
+                            throw new SQLException("Unexpected invalid woce_id for an added data QC event");
+                    } finally {
+                        results.close();
+                    }
+
+                    // Add the DataLocations to the WOCELocations table in batches
+                    int numBatched = 0;
+                    for (DataLocation location : event.getLocations()) {
+                        locPrepStmt.setLong(1, woceId);
+                        Integer intVal = location.getRowNumber();
+                        if ( intVal.equals(DashboardUtils.INT_MISSING_VALUE) )
+                            locPrepStmt.setNull(2, java.sql.Types.INTEGER);
+                        else
+                            locPrepStmt.setInt(2, intVal);
+                        Double dblVal = location.getLongitude();
+                        if ( dblVal.equals(DashboardUtils.FP_MISSING_VALUE) )
+                            locPrepStmt.setNull(3, java.sql.Types.DOUBLE);
+                        else
+                            locPrepStmt.setDouble(3, dblVal);
+                        dblVal = location.getLatitude();
+                        if ( dblVal.equals(DashboardUtils.FP_MISSING_VALUE) )
+                            locPrepStmt.setNull(4, java.sql.Types.DOUBLE);
+                        else
+                            locPrepStmt.setDouble(4, dblVal);
+                        Date dateVal = location.getDataDate();
+                        if ( dateVal.equals(DashboardUtils.DATE_MISSING_VALUE) )
+                            locPrepStmt.setNull(5, java.sql.Types.BIGINT);
+                        else
+                            locPrepStmt.setLong(5, Math.round(dateVal.getTime() / 1000.0));
+                        dblVal = location.getDataValue();
+                        if ( dblVal.equals(DashboardUtils.FP_MISSING_VALUE) )
+                            locPrepStmt.setNull(6, java.sql.Types.DOUBLE);
+                        else
+                            locPrepStmt.setDouble(6, dblVal);
+                        locPrepStmt.addBatch();
+                        numBatched++;
+                        if ( numBatched >= locationBatchSize ) {
+                            executeLocationBatch(locPrepStmt);
+                            numBatched = 0;
+                        }
+                    }
+                    if ( numBatched > 0 )
+                        executeLocationBatch(locPrepStmt);
 
-                // Success - assign the ID
-                event.setId(woceId);
+                    woceIds[k] = woceId;
+                    k++;
+                }
+                catConn.getConnection().commit();
+                committed = true;
+            } catch ( Throwable ex ) {
+                // Do not leave a partial batch in the cached statement, and discard all the changes
+                // before auto-commit is restored (which would otherwise commit them)
+                if ( !committed )
+                    discardChanges(locPrepStmt, catConn.getConnection(), ex);
+                throw ex;
+            } finally {
+                catConn.getConnection().setAutoCommit(true);
             }
         } finally {
             catConn.close();
         }
+
+        // Success - assign the IDs
+        int k = 0;
+        for (DataQCEvent event : woceEvents) {
+            event.setId(woceIds[k]);
+            k++;
+        }
+    }
+
+    /**
+     * Clears any batched WOCE location insertions and rolls back the changes made in the current transaction.
+     * Any exception thrown while doing this is added to the given failure as a suppressed exception.
+     *
+     * @param failure
+     *         the exception causing the changes to be discarded
+     */
+    private static void discardChanges(PreparedStatement locPrepStmt, Connection conn, Throwable failure) {
+        try {
+            locPrepStmt.clearBatch();
+        } catch ( SQLException ex ) {
+            failure.addSuppressed(ex);
+        }
+        try {
+            conn.rollback();
+        } catch ( SQLException ex ) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    /**
+     * Executes the batch of WOCE location insertions in the given statement.
+     *
+     * @throws SQLException
+     *         if executing the batch throws one, or if any of the insertions failed
+     */
+    private static void executeLocationBatch(PreparedStatement locPrepStmt) throws SQLException {
+        for (int count : locPrepStmt.executeBatch()) {
+            // Drivers rewriting batches (such as MySQL with rewriteBatchedStatements) may not give counts
+            if ( (count != 1) && (count != Statement.SUCCESS_NO_INFO) )
+                throw new SQLException("Adding a data QC location was unsuccessful");
+        }
     }
 
     /**
@@ -812,7 +1029,7 @@ public class DatabaseRequestHandler {
      */
     public ArrayList<DataQCEvent> getDataQCEvents(String expocode, boolean latestFirst) throws SQLException {
         ArrayList<DataQCEvent> eventsList = new ArrayList<DataQCEvent>();
-        Connection catConn = makeConnection(false);
+        CachedConnection catConn = makeConnection(false);
         try {
             String order;
             if ( latestFirst )
@@ -866,7 +1083,7 @@ public class DatabaseRequestHandler {
      *         if modifying the data QC events in the database throws one
      */
     public void resetDataQCEvents(String expocode) throws SQLException {
-        Connection catConn = makeConnection(true);
+        CachedConnection catConn = makeConnection(true);
         try {
             PreparedStatement modifyWocePrepStmt = catConn.prepareStatement(
                     "UPDATE `" + WOCEEVENTS_TABLE_NAME + "` SET `woce_flag` = ? " +
@@ -908,7 +1125,7 @@ public class DatabaseRequestHandler {
      */
     public void renameQCFlags(String oldExpocode, String newExpocode, String version, String username)
             throws SQLException {
-        Connection catConn = makeConnection(true);
+        CachedConnection catConn = makeConnection(true);
         try {
             long nowSec = Math.round(System.currentTimeMillis() / 1000.0);
             int reviewerId = getReviewerId(catConn, username, "");
@@ -0,0 +1,396 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import gov.noaa.pmel.dashboard.dsg.UserDataRowSource;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental reader of the metadata preamble, data column headers, and data lines of a dataset data file.
+ * Creating the reader reads the preamble and the data column headers; the data rows are then read, as needed,
+ * using {@link #readRows(ArrayList, ArrayList, int)} so the data of large datasets does not need to be held
+ * in memory all at once.  See {@link DataFileHandler#assignDatasetDataFromInput} for a description of the
+ * format of the data file.
+ *
+ * @author Karl Smith
+ */
+public class DatasetDataReader implements UserDataRowSource, Closeable {
+
+    private char spacer;
+    private CSVParser dataParser;
+    private Iterator<CSVRecord> recordIter;
+    private String expocode;
+    private ArrayList<String> preamble;
+    private ArrayList<String> columnNames;
+    private int numDataColumns;
+    private int numHeaderLines;
+    private int dataRowNum;
+    // first record of data read while checking for units, but not yet returned
+    private CSVRecord pendingRecord;
+
+    /**
+     * Reads the metadata preamble and the data column headers (with possible units line) from the given reader.
+     * The data rows can then be read using {@link #readRows(ArrayList, ArrayList, int)}.
+     *
+     * @param dataReader
+     *         read the metadata preamble and data lines from here; closed by {@link #close()}
+     * @param dataFormat
+     *         format of the data lines read; one of {@link DashboardUtils#COMMA_FORMAT_TAG},
+     *         {@link DashboardUtils#SEMICOLON_FORMAT_TAG}, or {@link DashboardUtils#TAB_FORMAT_TAG}.
+     *
+     * @throws IOException
+     *         if reading from dataReader throws one,
+     *         if the dataFormat string is not recognized,
+     *         if there is an inconsistent number of data values (columns) in a data sample (row), or
+     *         if no (or too few) data columns were found
+     */
+    public DatasetDataReader(Reader dataReader, String dataFormat) throws IOException {
+        openParser(dataReader, dataFormat);
+        expocode = null;
+        preamble = new ArrayList<String>();
+        columnNames = null;
+        numDataColumns = 0;
+        numHeaderLines = 0;
+        dataRowNum = 0;
+        pendingRecord = null;
+        try {
+            readHeaders();
+        } catch ( IOException ex ) {
+            dataParser.close();
+            throw ex;
+        }
+        if ( numDataColumns < DataFileHandler.MIN_NUM_DATA_COLUMNS ) {
+            dataParser.close();
+            throw new IOException("No data columns found, possibly due to incorrect format");
+        }
+    }
+
+    /**
+     * Reads only data rows, starting at the current position of the given reader, which must be at the
+     * start of a data line.  Used to read data rows after seeking past the start of a data file;
+     * {@link #getExpocode()}, {@link #getPreamble()}, and {@link #getColumnNames()} will return null.
+     *
+     * @param dataReader
+     *         read the data lines from here; closed by {@link #close()}
+     * @param dataFormat
+     *         format of the data lines read; one of {@link DashboardUtils#COMMA_FORMAT_TAG},
+     *         {@link DashboardUtils#SEMICOLON_FORMAT_TAG}, or {@link DashboardUtils#TAB_FORMAT_TAG}.
+     * @param numDataColumns
+     *         number of data values (columns) in each data row
+     * @param numPrecedingRows
+     *         number of data rows before the current position of the reader;
+     *         used to assign the row numbers of the data rows read
+     *
+     * @throws IOException
+     *         if the dataFormat string is not recognized
+     */
+    public DatasetDataReader(Reader dataReader, String dataFormat, int numDataColumns, int numPrecedingRows)
+            throws IOException {
+        openParser(dataReader, dataFormat);
+        expocode = null;
+        preamble = null;
+        columnNames = null;
+        this.numDataColumns = numDataColumns;
+        numHeaderLines = 0;
+        dataRowNum = numPrecedingRows;
+        pendingRecord = null;
+    }
+
+    /**
+     * Creates the CSV parser for the given reader and data format.
+     */
+    private void openParser(Reader dataReader, String dataFormat) throws IOException {
+        if ( DashboardUtils.TAB_FORMAT_TAG.equals(dataFormat) ) {
+            spacer = '\t';
+        }
+        else if ( DashboardUtils.COMMA_FORMAT_TAG.equals(dataFormat) ) {
+            spacer = ',';
+        }
+        else if ( DashboardUtils.SEMICOLON_FORMAT_TAG.equals(dataFormat) ) {
+            spacer = ';';
+        }
+        else
+            throw new IOException("Unexpected invalid data format '" + dataFormat + "'");
+
+        CSVFormat format = CSVFormat.EXCEL.withIgnoreSurroundingSpaces()
+                                          .withDelimiter(spacer);
+        dataParser = new CSVParser(dataReader, format);
+        recordIter = dataParser.iterator();
+    }
+
+    /**
+     * Reads the metadata preamble, the data column headers, and the optional line of units.
+     * Stops after the data column headers line, or the units line, if one is given.
+     */
+    private void readHeaders() throws IOException {
+        while ( recordIter.hasNext() ) {
+            CSVRecord record = recordIter.next();
+            numHeaderLines++;
+
+            // Still looking for headers?
+            if ( record.size() >= DataFileHandler.MIN_NUM_DATA_COLUMNS ) {
+                // Check if these are the column names headers; column names must not be blank or pure numeric
+                boolean isHeader = true;
+                for (String val : record) {
+                    if ( val.isEmpty() ) {
+                        isHeader = false;
+                        break;
+                    }
+                    try {
+                        Double.parseDouble(val);
+                        isHeader = false;
+                        break;
+                    } catch ( Exception ex ) {
+                        // Expected result for a name
+                    }
+                }
+                if ( isHeader ) {
+                    // These indeed are the column headers
+                    numDataColumns = record.size();
+                    columnNames = new ArrayList<String>(numDataColumns);
+                    for (String val : record) {
+                        columnNames.add(val);
+                    }
+                    readUnits();
+                    return;
+                }
+            }
+
+            // Put this line of metadata back together with space-characters as spacers,
+            // without double-quotes, and without blank columns
+            String metaline = rebuildDataline(record, ' ', true);
+
+            // Examine this metadata line for the expocode
+            if ( (expocode == null) && !metaline.isEmpty() ) {
+                for (Pattern pat : DataFileHandler.EXPOCODE_PATTERNS) {
+                    Matcher mat = pat.matcher(metaline);
+                    if ( !mat.matches() )
+                        continue;
+                    expocode = mat.group(1).toUpperCase();
+                    break;
+                }
+            }
+
+            // Save this metadata line in the preamble for the cruise
+            preamble.add(metaline);
+        }
+    }
+
+    /**
+     * Checks if the line immediately following the data column names are units.  If they are, the units are
+     * added to the column header names; otherwise the line is saved as the first line of data to return.
+     */
+    private void readUnits() throws IOException {
+        if ( !recordIter.hasNext() )
+            return;
+        CSVRecord record = recordIter.next();
+        checkNumColumns(record);
+
+        boolean isUnits = true;
+        // A unit specification cannot be pure numeric
+        for (String val : record) {
+            try {
+                Double.valueOf(val);
+                isUnits = false;
+                break;
+            } catch ( NumberFormatException ex ) {
+                // Expected result for a units specification
+            }
+        }
+        if ( !isUnits ) {
+            // not units; this is the first line of data value to parse
+            pendingRecord = record;
+            return;
+        }
+
+        numHeaderLines++;
+        // Add the units to the column header names
+        int k = 0;
+        for (String units : record) {
+            if ( !units.isEmpty() ) {
+                String name = columnNames.get(k);
+                name += " [" + units + "]";
+                columnNames.set(k, name);
+            }
+            k++;
+        }
+    }
+
+    /**
+     * @throws IOException
+     *         if the number of values in the record does not match the number of data column headers
+     */
+    private void checkNumColumns(CSVRecord record) throws IOException {
+        if ( record.size() != numDataColumns )
+            throw new IOException("Inconsistent number of data columns (" + record.size() +
+                    " instead of " + numDataColumns + ") for measurement " + dataParser.getRecordNumber() +
+                    ":\n    " + rebuildDataline(record, spacer, false));
+    }
+
+    /**
+     * @return the dataset ID (expocode) found in the metadata preamble; null if not found
+     */
+    public String getExpocode() {
+        return expocode;
+    }
+
+    /**
+     * @return the lines of the metadata preamble; never null but may be empty
+     */
+    public ArrayList<String> getPreamble() {
+        return preamble;
+    }
+
+    /**
+     * @return the data column names, with units appended if given in a separate line; never null
+     */
+    public ArrayList<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * @return the number of records (lines) of metadata preamble, data column headers, and units before the
+     *         first data row
+     */
+    public int getNumHeaderLines() {
+        return numHeaderLines;
+    }
+
+    /**
+     * Skips over (non-blank) data rows.
+     *
+     * @param numRows
+     *         number of data rows to skip
+     *
+     * @return the number of data rows skipped; less than numRows if the end of the data was reached
+     *
+     * @throws IOException
+     *         if reading the data throws one, or if there is an inconsistent number of data values in a data row
+     */
+    public int skipRows(int numRows) throws IOException {
+        int numSkipped = 0;
+        while ( numSkipped < numRows ) {
+            if ( nextDataValues() == null )
+                break;
+            numSkipped++;
+        }
+        return numSkipped;
+    }
+
+    /**
+     * Reads data rows, ignoring blank rows.  The data values are all strings.
+     *
+     * @param dataVals
+     *         the data values of the rows read are appended to this list
+     * @param rowNums
+     *         the (one-based) data row numbers of the rows read are appended to this list
+     * @param maxNumRows
+     *         maximum number of rows to read
+     *
+     * @return the number of rows read; zero if there are no more data rows
+     *
+     * @throws IOException
+     *         if reading the data throws one, or if there is an inconsistent number of data values in a data row
+     */
+    @Override
+    public int readRows(ArrayList<ArrayList<String>> dataVals, ArrayList<Integer> rowNums, int maxNumRows)
+            throws IOException {
+        int numRead = 0;
+        while ( numRead < maxNumRows ) {
+            ArrayList<String> datavals = nextDataValues();
+            if ( datavals == null )
+                break;
+            dataVals.add(datavals);
+            rowNums.add(dataRowNum);
+            numRead++;
+        }
+        return numRead;
+    }
+
+    /**
+     * @return the data values of the next non-blank data row; null if there are no more data rows
+     */
+    private ArrayList<String> nextDataValues() throws IOException {
+        while ( true ) {
+            CSVRecord record;
+            if ( pendingRecord != null ) {
+                record = pendingRecord;
+                pendingRecord = null;
+            }
+            else if ( recordIter.hasNext() ) {
+                record = recordIter.next();
+                checkNumColumns(record);
+            }
+            else {
+                return null;
+            }
+
+            // read the data in this line
+            ArrayList<String> datavals = new ArrayList<String>(numDataColumns);
+            boolean allBlank = true;
+            for (String val : record) {
+                datavals.add(val);
+                if ( allBlank && !val.isEmpty() )
+                    allBlank = false;
+            }
+            if ( !allBlank ) {
+                dataRowNum++;
+                return datavals;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        dataParser.close();
+    }
+
+    /**
+     * Returns a version of the string that was parsed to create the given record
+     * but using the given spacer between the entries in the record.
+     *
+     * @param record
+     *         record to use
+     * @param spacer
+     *         spacer to use.  If a singe-space character, the columns are not double-quoted;
+     *         otherwise column entries are double-quoted if they contain this character
+     * @param trimEmpty
+     *         remove empty entries (and spacers for those entries)
+     *
+     * @return recreated string for this record
+     */
+    private static String rebuildDataline(CSVRecord record, char spacer, boolean trimEmpty) {
+        StringBuilder builder = new StringBuilder();
+        boolean first = true;
+        for (String val : record) {
+            if ( trimEmpty && val.isEmpty() )
+                continue;
+            if ( first ) {
+                first = false;
+            }
+            else {
+                builder.append(spacer);
+            }
+            if ( !val.isEmpty() ) {
+                if ( (spacer != ' ') && val.contains(Character.toString(spacer)) ) {
+                    builder.append('"');
+                    builder.append(val);
+                    builder.append('"');
+                }
+                else
+                    builder.append(val);
+            }
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,292 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
+import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent in-memory registry of the dataset information read from (or written to) dataset information files,
+ * so listing many datasets does not require parsing the properties file of each dataset.  Each entry records
+ * the length and modification time of the information file it describes, and is only used while these still
+ * match the information file.  The data QC flag sets, which can be large, are only kept for a limited number
+ * of the most-recently-used datasets; the flags of other datasets have to be read again from the information file
+ * when needed.
+ * <p>
+ * Datasets are never shared with callers; copies are made when adding to, and assigning from, this registry.
+ *
+ * @author Karl Smith
+ */
+public class DatasetInfoRegistry {
+
+    /**
+     * Dataset information, without data QC flags, along with the information file properties when read
+     */
+    private static class Entry {
+        final long fileLength;
+        final long fileModified;
+        final DashboardDataset info;
+        // Data QC flags; guarded by flagsOwners, and null if evicted
+        TreeSet<DataQCFlag> checkerFlags;
+        TreeSet<DataQCFlag> userFlags;
+
+        Entry(long fileLength, long fileModified, DashboardDataset info) {
+            this.fileLength = fileLength;
+            this.fileModified = fileModified;
+            this.info = info;
+            checkerFlags = null;
+            userFlags = null;
+        }
+
+        boolean matches(File infoFile) {
+            return (infoFile.length() == fileLength) && (infoFile.lastModified() == fileModified);
+        }
+    }
+
+    private final ConcurrentHashMap<String,Entry> entries;
+    // Entries currently holding data QC flags, in least-recently-used order; also the lock for the flags
+    private final LinkedHashMap<String,Entry> flagsOwners;
+    private final AtomicLong numHits;
+    private final AtomicLong numMisses;
+    private final AtomicLong numFlagEvictions;
+    private final AtomicLong numChanges;
+
+    /**
+     * @param maxNumFlagSets
+     *         maximum number of datasets whose data QC flags are kept in memory
+     */
+    public DatasetInfoRegistry(final int maxNumFlagSets) {
+        entries = new ConcurrentHashMap<String,Entry>();
+        flagsOwners = new LinkedHashMap<String,Entry>(2 * maxNumFlagSets, 0.75F, true) {
+            private static final long serialVersionUID = 2964318726485703921L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Entry> eldest) {
+                if ( size() <= maxNumFlagSets )
+                    return false;
+                Entry entry = eldest.getValue();
+                entry.checkerFlags = null;
+                entry.userFlags = null;
+                numFlagEvictions.incrementAndGet();
+                return true;
+            }
+        };
+        numHits = new AtomicLong(0L);
+        numMisses = new AtomicLong(0L);
+        numFlagEvictions = new AtomicLong(0L);
+        numChanges = new AtomicLong(0L);
+    }
+
+    /**
+     * Assigns the given dataset from the information registered for a dataset.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param infoFile
+     *         the information file of the dataset; the registered information is only used if it was
+     *         read from, or written to, the current version of this file
+     * @param dataset
+     *         dataset to assign
+     * @param withFlags
+     *         also assign the data QC flags?  If false, the data QC flags of dataset are cleared.
+     *
+     * @return true if the dataset was assigned;
+     *         false if the information (or the data QC flags, if requested) is not registered or is obsolete
+     */
+    public boolean assignDataset(String datasetId, File infoFile, DashboardDataset dataset, boolean withFlags) {
+        Entry entry = entries.get(datasetId);
+        if ( (entry == null) || !entry.matches(infoFile) ) {
+            numMisses.incrementAndGet();
+            return false;
+        }
+        TreeSet<DataQCFlag> checkerFlags = null;
+        TreeSet<DataQCFlag> userFlags = null;
+        if ( withFlags ) {
+            synchronized(flagsOwners) {
+                checkerFlags = entry.checkerFlags;
+                userFlags = entry.userFlags;
+                if ( checkerFlags != null ) {
+                    // mark as recently used
+                    flagsOwners.get(datasetId);
+                    // copy while locked as the sets in the entry are not modified after being registered
+                    checkerFlags = new TreeSet<DataQCFlag>(checkerFlags);
+                    userFlags = new TreeSet<DataQCFlag>(userFlags);
+                }
+            }
+            if ( checkerFlags == null ) {
+                numMisses.incrementAndGet();
+                return false;
+            }
+        }
+        copyDataset(entry.info, dataset);
+        dataset.setCheckerFlags(checkerFlags);
+        dataset.setUserFlags(userFlags);
+        numHits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Registers the information of a dataset just read from, or written to, its information file.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param fileLength
+     *         length of the information file when read or written
+     * @param fileModified
+     *         modification time of the information file when read or written
+     * @param dataset
+     *         the dataset information to register; a copy is made
+     */
+    public void register(String datasetId, long fileLength, long fileModified, DashboardDataset dataset) {
+        DashboardDataset info = new DashboardDataset();
+        info.setDatasetId(dataset.getDatasetId());
+        copyDataset(dataset, info);
+        Entry entry = new Entry(fileLength, fileModified, info);
+        entry.checkerFlags = new TreeSet<DataQCFlag>(dataset.getCheckerFlags());
+        entry.userFlags = new TreeSet<DataQCFlag>(dataset.getUserFlags());
+        Entry oldEntry;
+        synchronized(flagsOwners) {
+            oldEntry = entries.put(datasetId, entry);
+            flagsOwners.put(datasetId, entry);
+        }
+        if ( oldEntry != null )
+            numChanges.incrementAndGet();
+    }
+
+    /**
+     * Removes the registered information of a dataset.
+     *
+     * @param datasetId
+     *         ID of the dataset
+     */
+    public void invalidate(String datasetId) {
+        Entry oldEntry;
+        synchronized(flagsOwners) {
+            oldEntry = entries.remove(datasetId);
+            flagsOwners.remove(datasetId);
+        }
+        if ( oldEntry != null )
+            numChanges.incrementAndGet();
+    }
+
+    /**
+     * Removes the registered information of a dataset if that information does not describe the
+     * current version of the given information file (which may no longer exist).
+     *
+     * @param datasetId
+     *         ID of the dataset
+     * @param infoFile
+     *         the information file of the dataset
+     *
+     * @return if the registered information was removed
+     */
+    public boolean invalidateIfChanged(String datasetId, File infoFile) {
+        synchronized(flagsOwners) {
+            Entry entry = entries.get(datasetId);
+            if ( (entry == null) || entry.matches(infoFile) )
+                return false;
+            entries.remove(datasetId);
+            flagsOwners.remove(datasetId);
+        }
+        numChanges.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes all registered information.
+     */
+    public void clear() {
+        synchronized(flagsOwners) {
+            entries.clear();
+            flagsOwners.clear();
+        }
+        numChanges.incrementAndGet();
+    }
+
+    /**
+     * @return the number of datasets with registered information
+     */
+    public int getNumRegistered() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of datasets whose data QC flags are currently registered
+     */
+    public int getNumFlagSets() {
+        synchronized(flagsOwners) {
+            return flagsOwners.size();
+        }
+    }
+
+    /**
+     * @return the number of requests to assign a dataset that were satisfied by this registry
+     */
+    public long getNumHits() {
+        return numHits.get();
+    }
+
+    /**
+     * @return the number of requests to assign a dataset that could not be satisfied by this registry
+     */
+    public long getNumMisses() {
+        return numMisses.get();
+    }
+
+    /**
+     * @return the number of times the data QC flags of a dataset were dropped to limit memory use
+     */
+    public long getNumFlagEvictions() {
+        return numFlagEvictions.get();
+    }
+
+    /**
+     * The number of times registered information was replaced or removed.  Dataset information obtained from the
+     * information files (through this registry) is still current if this number has not changed since before that
+     * information was obtained, provided changes to the information files made outside this server are reported to
+     * this registry using {@link #invalidateIfChanged(String, File)}.
+     *
+     * @return the number of times registered information was replaced or removed
+     */
+    public long getNumChanges() {
+        return numChanges.get();
+    }
+
+    /**
+     * Assigns all the dataset information, except the dataset ID and data QC flags, in dest from src.
+     * Copies are made of mutable objects.
+     */
+    private static void copyDataset(DashboardDataset src, DashboardDataset dest) {
+        dest.setVersion(src.getVersion());
+        dest.setOwner(src.getOwner());
+        dest.setDataCheckStatus(src.getDataCheckStatus());
+        dest.setOmeTimestamp(src.getOmeTimestamp());
+        dest.setAddlDocs(src.getAddlDocs());
+        dest.setSubmitStatus(src.getSubmitStatus());
+        dest.setArchiveStatus(src.getArchiveStatus());
+        dest.setArchiveTimestamps(src.getArchiveTimestamps());
+        dest.setUploadFilename(src.getUploadFilename());
+        dest.setUploadTimestamp(src.getUploadTimestamp());
+        dest.setSourceDOI(src.getSourceDOI());
+        dest.setSourceURL(src.getSourceURL());
+        dest.setEnhancedDOI(src.getEnhancedDOI());
+        dest.setEnhancedURL(src.getEnhancedURL());
+        dest.setNumDataRows(src.getNumDataRows());
+        dest.setNumErrorRows(src.getNumErrorRows());
+        dest.setNumWarnRows(src.getNumWarnRows());
+        dest.setUserColNames(src.getUserColNames());
+        ArrayList<DataColumnType> colTypes = new ArrayList<DataColumnType>(src.getDataColTypes().size());
+        for (DataColumnType dtype : src.getDataColTypes()) {
+            colTypes.add(dtype.duplicate());
+        }
+        dest.setDataColTypes(colTypes);
+    }
+
+}
@@ -0,0 +1,161 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetListRange;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Sorted index over the datasets in a user's list of datasets, used to return ranges of the sorted and filtered list.
+ * The order of the datasets for a sort key and direction is computed the first time they are used, then reused for
+ * later requests until the list of datasets changes, at which point a new index should be created.
+ *
+ * @author Karl Smith
+ */
+public class DatasetListIndex {
+
+    private final DashboardDatasetList datasetList;
+    private final DashboardDataset[] datasets;
+    // Positions in datasets, in sorted order, for each sort key and direction used; synchronized on itself
+    private final HashMap<String,int[]> sortedOrders;
+
+    /**
+     * @param datasetList
+     *         list of datasets to index; this list must not be modified while this index is in use
+     */
+    public DatasetListIndex(DashboardDatasetList datasetList) {
+        this.datasetList = datasetList;
+        datasets = datasetList.values().toArray(new DashboardDataset[datasetList.size()]);
+        sortedOrders = new HashMap<String,int[]>();
+    }
+
+    /**
+     * @return the list of datasets indexed; this list must not be modified
+     */
+    public DashboardDatasetList getDatasetList() {
+        return datasetList;
+    }
+
+    /**
+     * Returns a range of the datasets sorted by the given key and matching the given filter text.
+     *
+     * @param offset
+     *         index, in the sorted and filtered list of datasets, of the first dataset to return
+     * @param limit
+     *         maximum number of datasets to return
+     * @param sortKey
+     *         one of the {@link DashboardDatasetListRange} SORT_BY_* sort keys;
+     *         datasets with the same value for this key are in ascending order of dataset ID
+     * @param ascending
+     *         return the datasets in ascending order?
+     * @param filterText
+     *         only include datasets matching this text, as given by
+     *         {@link DashboardDatasetListRange#matchesFilter(DashboardDataset, String)}
+     *
+     * @return the range of datasets, with the username, manager, and image extension from the indexed list
+     *
+     * @throws IllegalArgumentException
+     *         if the offset or limit is negative, or if the sort key is not recognized
+     */
+    public DashboardDatasetListRange getRange(int offset, int limit, String sortKey, boolean ascending,
+            String filterText) throws IllegalArgumentException {
+        if ( offset < 0 )
+            throw new IllegalArgumentException("invalid offset: " + offset);
+        if ( limit < 0 )
+            throw new IllegalArgumentException("invalid limit: " + limit);
+        int[] order = getSortedOrder(sortKey, ascending);
+
+        ArrayList<DashboardDataset> rangeDatasets = new ArrayList<DashboardDataset>(Math.min(limit, order.length));
+        int count = 0;
+        for (int k = 0; k < order.length; k++) {
+            DashboardDataset dataset = datasets[order[k]];
+            if ( !DashboardDatasetListRange.matchesFilter(dataset, filterText) )
+                continue;
+            if ( (count >= offset) && (count - offset < limit) )
+                rangeDatasets.add(dataset);
+            count++;
+        }
+
+        DashboardDatasetListRange range = new DashboardDatasetListRange();
+        range.setUsername(datasetList.getUsername());
+        range.setManager(datasetList.isManager());
+        range.setImageExtension(datasetList.getImageExtension());
+        range.setOffset(offset);
+        range.setTotalCount(count);
+        range.setDatasets(rangeDatasets);
+        return range;
+    }
+
+    /**
+     * Returns all the datasets matching the given filter text and status.
+     *
+     * @param filterText
+     *         only include datasets matching this text, as given by
+     *         {@link DashboardDatasetListRange#matchesFilter(DashboardDataset, String)}
+     * @param statusOption
+     *         only include datasets with this status, as given by
+     *         {@link DashboardDatasetListRange#hasStatus(DashboardDataset, String)}
+     *
+     * @return the matching datasets, with the username, manager, and image extension from the indexed list
+     *
+     * @throws IllegalArgumentException
+     *         if the status option is not recognized
+     */
+    public DashboardDatasetList getMatching(String filterText, String statusOption) throws IllegalArgumentException {
+        DashboardDatasetList matching = new DashboardDatasetList();
+        matching.setUsername(datasetList.getUsername());
+        matching.setManager(datasetList.isManager());
+        matching.setImageExtension(datasetList.getImageExtension());
+        for (DashboardDataset dataset : datasets) {
+            if ( DashboardDatasetListRange.matchesFilter(dataset, filterText) &&
+                    DashboardDatasetListRange.hasStatus(dataset, statusOption) )
+                matching.put(dataset.getDatasetId(), dataset);
+        }
+        return matching;
+    }
+
+    /**
+     * @return the positions in datasets, sorted by the sort key in the given direction
+     *         then in ascending order of dataset ID
+     */
+    private int[] getSortedOrder(String sortKey, final boolean ascending) throws IllegalArgumentException {
+        final Comparator<DashboardDataset> comparator = DashboardDatasetListRange.getComparator(sortKey);
+        if ( comparator == null )
+            throw new IllegalArgumentException("unknown dataset sort key: " + sortKey);
+        String orderKey = (ascending ? "+" : "-") + sortKey;
+        synchronized(sortedOrders) {
+            int[] order = sortedOrders.get(orderKey);
+            if ( order != null )
+                return order;
+            Integer[] positions = new Integer[datasets.length];
+            for (int k = 0; k < datasets.length; k++) {
+                positions[k] = Integer.valueOf(k);
+            }
+            Arrays.sort(positions, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer p1, Integer p2) {
+                    DashboardDataset d1 = datasets[p1.intValue()];
+                    DashboardDataset d2 = datasets[p2.intValue()];
+                    int result = comparator.compare(d1, d2);
+                    if ( !ascending )
+                        result = -result;
+                    if ( result == 0 )
+                        result = DashboardUtils.dataDatasetIdComparator.compare(d1, d2);
+                    return result;
+                }
+            });
+            order = new int[datasets.length];
+            for (int k = 0; k < datasets.length; k++) {
+                order[k] = positions[k].intValue();
+            }
+            sortedOrders.put(orderKey, order);
+            return order;
+        }
+    }
+
+}
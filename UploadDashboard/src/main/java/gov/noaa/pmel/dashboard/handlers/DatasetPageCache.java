@@ -0,0 +1,116 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of information about the data files of recently viewed datasets: the row index,
+ * the metadata preamble and data column headers, and pages of data rows (as strings).  Pages of data rows are
+ * the {@link DatasetRowIndex#ROW_STRIDE} data rows starting at an offset recorded in the row index.
+ * All methods are synchronized.
+ *
+ * @author Karl Smith
+ */
+class DatasetPageCache {
+
+    /**
+     * Information about the data file of a dataset that is needed to read pages of data rows.
+     */
+    static class FileHeader {
+        final DatasetRowIndex rowIndex;
+        final String expocode;
+        final ArrayList<String> preamble;
+        final ArrayList<String> columnNames;
+
+        FileHeader(DatasetRowIndex rowIndex, String expocode, ArrayList<String> preamble,
+                ArrayList<String> columnNames) {
+            this.rowIndex = rowIndex;
+            this.expocode = expocode;
+            this.preamble = preamble;
+            this.columnNames = columnNames;
+        }
+    }
+
+    private final LinkedHashMap<String,FileHeader> headers;
+    private final LinkedHashMap<String,ArrayList<ArrayList<String>>> pages;
+
+    /**
+     * @param maxNumDatasets
+     *         maximum number of datasets whose file information is kept
+     * @param maxNumPages
+     *         maximum number of pages of data rows, over all datasets, that are kept
+     */
+    DatasetPageCache(final int maxNumDatasets, final int maxNumPages) {
+        headers = new LinkedHashMap<String,FileHeader>(2 * maxNumDatasets, 0.75F, true) {
+            private static final long serialVersionUID = 5140279573842617164L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,FileHeader> eldest) {
+                return size() > maxNumDatasets;
+            }
+        };
+        pages = new LinkedHashMap<String,ArrayList<ArrayList<String>>>(2 * maxNumPages, 0.75F, true) {
+            private static final long serialVersionUID = -2405418935472390371L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,ArrayList<ArrayList<String>>> eldest) {
+                return size() > maxNumPages;
+            }
+        };
+    }
+
+    private static String pageKey(String datasetId, int pageIdx) {
+        return datasetId + "#" + pageIdx;
+    }
+
+    /**
+     * @return the cached file information for the dataset; null if not cached
+     */
+    synchronized FileHeader getHeader(String datasetId) {
+        return headers.get(datasetId);
+    }
+
+    /**
+     * Caches the file information for a dataset, removing any cached pages of data rows for the dataset
+     * (which might not have been read using this file information).
+     */
+    synchronized void putHeader(String datasetId, FileHeader header) {
+        removePages(datasetId);
+        headers.put(datasetId, header);
+    }
+
+    /**
+     * @return the cached data rows of the page of the dataset; null if not cached.
+     *         The rows returned must not be modified.
+     */
+    synchronized ArrayList<ArrayList<String>> getPage(String datasetId, int pageIdx) {
+        return pages.get(pageKey(datasetId, pageIdx));
+    }
+
+    /**
+     * Caches the data rows of a page of the dataset.  The rows given must not be modified after this call.
+     */
+    synchronized void putPage(String datasetId, int pageIdx, ArrayList<ArrayList<String>> rows) {
+        pages.put(pageKey(datasetId, pageIdx), rows);
+    }
+
+    /**
+     * Removes all cached information for a dataset.
+     */
+    synchronized void invalidate(String datasetId) {
+        headers.remove(datasetId);
+        removePages(datasetId);
+    }
+
+    private void removePages(String datasetId) {
+        String prefix = datasetId + "#";
+        Iterator<String> iter = pages.keySet().iterator();
+        while ( iter.hasNext() ) {
+            if ( iter.next().startsWith(prefix) )
+                iter.remove();
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Byte offsets of data rows in a dataset data file, so a range of data rows can be read by seeking to the
+ * start of the rows instead of parsing the data file from the beginning.  Only the offset of every
+ * {@link #ROW_STRIDE}-th data row is recorded, so the rows of a stride form a page of data rows that can
+ * be read (and cached) as a unit.  The length and modification time of the data file are recorded so
+ * an index that does not describe the current contents of the data file can be recognized.
+ * <p>
+ * This assumes each data row of the data file is on its own line with no blank lines between data rows,
+ * as written by {@link DataFileHandler#saveDatasetDataToFile}.
+ *
+ * @author Karl Smith
+ */
+public class DatasetRowIndex {
+
+    /**
+     * Number of data rows between recorded offsets; also the number of data rows in a page
+     */
+    public static final int ROW_STRIDE = 256;
+
+    private static final int INDEX_FILE_MAGIC = 0x44524958;
+    private static final int INDEX_FILE_VERSION = 1;
+
+    private final long dataFileLength;
+    private final long dataFileModified;
+    private final int numHeaderLines;
+    private final int numDataRows;
+    // byte offset in the data file of data row (k * ROW_STRIDE)
+    private final long[] offsets;
+
+    private DatasetRowIndex(long dataFileLength, long dataFileModified, int numHeaderLines,
+            int numDataRows, long[] offsets) {
+        this.dataFileLength = dataFileLength;
+        this.dataFileModified = dataFileModified;
+        this.numHeaderLines = numHeaderLines;
+        this.numDataRows = numDataRows;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Create the index of a data file by scanning the bytes of the data file for line breaks.
+     * This does not parse any of the data values.
+     *
+     * @param dataFile
+     *         data file to index
+     * @param numHeaderLines
+     *         number of lines (metadata preamble and data column headers) before the first data row
+     *
+     * @return the index of the data file
+     *
+     * @throws IOException
+     *         if reading the data file throws one, or if the data file does not have the given number of header lines
+     */
+    public static DatasetRowIndex build(File dataFile, int numHeaderLines) throws IOException {
+        // record the file information before reading, so any change while reading invalidates the index
+        long fileLength = dataFile.length();
+        long fileModified = dataFile.lastModified();
+        long[] offsets = new long[16];
+        int numOffsets = 0;
+        int numLines = 0;
+        int numRows = 0;
+        long position = 0L;
+        boolean atLineStart = true;
+        InputStream in = new BufferedInputStream(new FileInputStream(dataFile));
+        try {
+            byte[] buffer = new byte[65536];
+            int numRead;
+            while ( (numRead = in.read(buffer)) > 0 ) {
+                for (int q = 0; q < numRead; q++) {
+                    if ( atLineStart && (numLines >= numHeaderLines) ) {
+                        // Start of a data row
+                        if ( (numRows % ROW_STRIDE) == 0 ) {
+                            if ( numOffsets == offsets.length )
+                                offsets = Arrays.copyOf(offsets, 2 * numOffsets);
+                            offsets[numOffsets] = position + q;
+                            numOffsets++;
+                        }
+                        numRows++;
+                    }
+                    if ( buffer[q] == '\n' ) {
+                        numLines++;
+                        atLineStart = true;
+                    }
+                    else {
+                        atLineStart = false;
+                    }
+                }
+                position += numRead;
+            }
+        } finally {
+            in.close();
+        }
+        if ( numLines < numHeaderLines )
+            throw new IOException("fewer than " + numHeaderLines + " header lines in " + dataFile.getPath());
+        return new DatasetRowIndex(fileLength, fileModified, numHeaderLines, numRows,
+                Arrays.copyOf(offsets, numOffsets));
+    }
+
+    /**
+     * Read an index from an index file written by {@link #write(File)}.
+     *
+     * @param indexFile
+     *         index file to read
+     *
+     * @return the index read
+     *
+     * @throws IOException
+     *         if the index file does not exist, is not a valid index file, or if reading the index file throws one
+     */
+    public static DatasetRowIndex read(File indexFile) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            if ( in.readInt() != INDEX_FILE_MAGIC )
+                throw new IOException("not a data row index file: " + indexFile.getPath());
+            if ( in.readInt() != INDEX_FILE_VERSION )
+                throw new IOException("unknown version of data row index file: " + indexFile.getPath());
+            long fileLength = in.readLong();
+            long fileModified = in.readLong();
+            int numHeaderLines = in.readInt();
+            int numRows = in.readInt();
+            int numOffsets = in.readInt();
+            if ( (numRows < 0) || (numOffsets != (numRows + ROW_STRIDE - 1) / ROW_STRIDE) )
+                throw new IOException("invalid data row index file: " + indexFile.getPath());
+            long[] offsets = new long[numOffsets];
+            for (int k = 0; k < numOffsets; k++) {
+                offsets[k] = in.readLong();
+            }
+            return new DatasetRowIndex(fileLength, fileModified, numHeaderLines, numRows, offsets);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Write this index to an index file.
+     *
+     * @param indexFile
+     *         index file to write
+     *
+     * @throws IOException
+     *         if writing the index file throws one
+     */
+    public void write(File indexFile) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            out.writeInt(INDEX_FILE_MAGIC);
+            out.writeInt(INDEX_FILE_VERSION);
+            out.writeLong(dataFileLength);
+            out.writeLong(dataFileModified);
+            out.writeInt(numHeaderLines);
+            out.writeInt(numDataRows);
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @param dataFile
+     *         data file to check
+     *
+     * @return if this index was created from the current contents of the given data file,
+     *         as judged by the length and modification time of the data file
+     */
+    public boolean matches(File dataFile) {
+        return (dataFile.length() == dataFileLength) && (dataFile.lastModified() == dataFileModified);
+    }
+
+    /**
+     * @return the number of data rows in the data file
+     */
+    public int getNumDataRows() {
+        return numDataRows;
+    }
+
+    /**
+     * @return the number of pages of data rows in the data file
+     */
+    public int getNumPages() {
+        return offsets.length;
+    }
+
+    /**
+     * @param pageIdx
+     *         index of the page of data rows; the first data row of this page is (pageIdx * {@link #ROW_STRIDE})
+     *
+     * @return the byte offset of the first data row of the page in the data file
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the page index is invalid
+     */
+    public long getPageOffset(int pageIdx) throws IndexOutOfBoundsException {
+        return offsets[pageIdx];
+    }
+
+}
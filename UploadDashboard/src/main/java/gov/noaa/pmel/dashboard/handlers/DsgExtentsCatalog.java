@@ -0,0 +1,483 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import gov.noaa.pmel.dashboard.dsg.DsgExtent;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persistent catalog of the extents of the data in the full-data DSG files.  The catalog is kept in memory
+ * and saved as a tab-separated file so the time and latitude limits of every dataset can be obtained without
+ * reading the data in every DSG file.  Datasets whose time interval intersects a given time interval are
+ * found using an interval tree which is rebuilt as needed after the catalog is modified.
+ * <p>
+ * Changes are saved by appending them to a journal file next to the catalog file, so saving a change does
+ * not rewrite the whole catalog.  The journal is merged into the catalog file (compacted) when the catalog
+ * is read and whenever {@link #saveCatalog()} is called, such as on shutdown.  File writes are made
+ * without holding the lock on the in-memory catalog, so lookups are not blocked by saves.
+ *
+ * @author Karl Smith
+ */
+public class DsgExtentsCatalog {
+
+    private static final String CATALOG_HEADER = "datasetId\tlastModified\tnumRows\tnumValidRows\tnumGoodRows\t" +
+            "timeMin\ttimeMax\tlatMin\tlatMax\tlonMin\tlonMax\t" +
+            "westLon\teastLon\tsouthLat\tnorthLat\tbeginTime\tendTime";
+    private static final int NUM_CATALOG_COLUMNS = 17;
+    public static final String JOURNAL_SUFFIX = ".journal";
+
+    private File catalogFile;
+    private File journalFile;
+    private TreeMap<String,DsgExtent> extentsMap;
+    private IntervalTree timeTree;
+    // Changes not yet saved, in order; a null extent records the removal of the dataset
+    private LinkedHashMap<String,DsgExtent> unsavedChanges;
+    // Lock held while writing the catalog or journal file; acquired before the lock on this catalog
+    private final Object fileLock = new Object();
+
+    /**
+     * Creates a catalog of DSG extents saved to the given file.  If the file exists, the catalog is
+     * initialized from the contents of the file.  If a journal of changes to the catalog exists, the
+     * changes are applied and the catalog file is rewritten to include them.
+     *
+     * @param catalogFile
+     *         file in which the catalog is saved
+     *
+     * @throws IllegalArgumentException
+     *         if the parent directory of the file does not exist, or
+     *         if the file exists but is not a valid catalog file, or
+     *         if the journal exists but is not a valid journal file
+     * @throws IOException
+     *         if the file or journal exists but there are problems reading it, or
+     *         if there are problems rewriting the file with the changes in the journal
+     */
+    public DsgExtentsCatalog(File catalogFile) throws IllegalArgumentException, IOException {
+        File parentDir = catalogFile.getAbsoluteFile().getParentFile();
+        if ( (parentDir == null) || !parentDir.isDirectory() )
+            throw new IllegalArgumentException("parent directory of " + catalogFile.getPath() + " is not valid");
+        this.catalogFile = catalogFile;
+        journalFile = new File(catalogFile.getPath() + JOURNAL_SUFFIX);
+        extentsMap = new TreeMap<String,DsgExtent>();
+        timeTree = null;
+        unsavedChanges = new LinkedHashMap<String,DsgExtent>();
+        if ( catalogFile.exists() )
+            readCatalogFile();
+        if ( journalFile.exists() ) {
+            readJournalFile();
+            saveCatalog();
+        }
+    }
+
+    /**
+     * @return the file in which this catalog is saved
+     */
+    public File getCatalogFile() {
+        return catalogFile;
+    }
+
+    /**
+     * @return the file to which changes to this catalog are appended until the catalog is next saved
+     */
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * @return the number of datasets in this catalog
+     */
+    public synchronized int size() {
+        return extentsMap.size();
+    }
+
+    /**
+     * @param datasetId
+     *         standardized ID of the dataset
+     *
+     * @return the extents in this catalog for the dataset; null if the dataset is not in this catalog
+     */
+    public synchronized DsgExtent getExtent(String datasetId) {
+        return extentsMap.get(datasetId);
+    }
+
+    /**
+     * Adds or replaces the extents of a dataset in this catalog.  The catalog is not saved to file.
+     *
+     * @param extent
+     *         the extents of a dataset
+     */
+    public synchronized void putExtent(DsgExtent extent) {
+        extentsMap.put(extent.getDatasetId(), extent);
+        unsavedChanges.remove(extent.getDatasetId());
+        unsavedChanges.put(extent.getDatasetId(), extent);
+        timeTree = null;
+    }
+
+    /**
+     * Removes the extents of a dataset from this catalog.  The catalog is not saved to file.
+     *
+     * @param datasetId
+     *         standardized ID of the dataset to remove
+     *
+     * @return true if the dataset was in this catalog
+     */
+    public synchronized boolean removeExtent(String datasetId) {
+        if ( extentsMap.remove(datasetId) == null )
+            return false;
+        unsavedChanges.remove(datasetId);
+        unsavedChanges.put(datasetId, null);
+        timeTree = null;
+        return true;
+    }
+
+    /**
+     * Finds the datasets with valid times and latitudes whose time interval intersects the given time interval
+     * and whose latitude interval intersects the given latitude interval.  Intervals are considered closed.
+     *
+     * @param minTime
+     *         start of the time interval
+     * @param maxTime
+     *         end of the time interval
+     * @param minLat
+     *         southern limit of the latitude interval
+     * @param maxLat
+     *         northern limit of the latitude interval
+     *
+     * @return the extents of the matching datasets, ordered by dataset ID; never null but may be empty
+     */
+    public synchronized ArrayList<DsgExtent> findExtents(double minTime, double maxTime, double minLat,
+            double maxLat) {
+        if ( timeTree == null )
+            timeTree = new IntervalTree(extentsMap.values());
+        ArrayList<DsgExtent> found = new ArrayList<DsgExtent>();
+        timeTree.findIntersecting(minTime, maxTime, found);
+        ArrayList<DsgExtent> matching = new ArrayList<DsgExtent>(found.size());
+        for (DsgExtent extent : found) {
+            double[] latMinMax = extent.getLatMinMax();
+            if ( (latMinMax[1] < minLat) || (latMinMax[0] > maxLat) )
+                continue;
+            matching.add(extent);
+        }
+        matching.sort(new Comparator<DsgExtent>() {
+            @Override
+            public int compare(DsgExtent first, DsgExtent second) {
+                return first.getDatasetId().compareTo(second.getDatasetId());
+            }
+        });
+        return matching;
+    }
+
+    /**
+     * Saves the changes made to this catalog since the last save by appending them to the journal file.
+     * The time taken depends only on the number of changes, not on the size of the catalog.
+     *
+     * @throws IOException
+     *         if problems writing to the journal file; the changes are kept for the next save
+     */
+    public void saveChanges() throws IOException {
+        synchronized(fileLock) {
+            LinkedHashMap<String,DsgExtent> changes;
+            synchronized(this) {
+                if ( unsavedChanges.isEmpty() )
+                    return;
+                changes = unsavedChanges;
+                unsavedChanges = new LinkedHashMap<String,DsgExtent>();
+            }
+            PrintWriter writer = null;
+            try {
+                writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), "UTF-8"));
+                for (Map.Entry<String,DsgExtent> entry : changes.entrySet()) {
+                    DsgExtent extent = entry.getValue();
+                    // A removal is recorded as a line with only the dataset ID
+                    writer.println(extent != null ? formatExtent(extent) : entry.getKey());
+                }
+                if ( writer.checkError() )
+                    throw new IOException("Problems writing " + journalFile.getPath());
+            } catch ( IOException ex ) {
+                restoreUnsavedChanges(changes);
+                throw ex;
+            } finally {
+                if ( writer != null )
+                    writer.close();
+            }
+        }
+    }
+
+    /**
+     * Saves this catalog to file and removes the journal of changes.  The catalog is first written to a
+     * temporary file which then replaces the catalog file, so an interrupted save does not corrupt the
+     * existing catalog file.  This rewrites the whole catalog, so it should only be used to compact the
+     * catalog, such as on shutdown; use {@link #saveChanges()} to save individual changes.
+     *
+     * @throws IOException
+     *         if problems writing or renaming the file
+     */
+    public void saveCatalog() throws IOException {
+        synchronized(fileLock) {
+            ArrayList<DsgExtent> extents;
+            LinkedHashMap<String,DsgExtent> changes;
+            synchronized(this) {
+                extents = new ArrayList<DsgExtent>(extentsMap.values());
+                changes = unsavedChanges;
+                unsavedChanges = new LinkedHashMap<String,DsgExtent>();
+            }
+            try {
+                writeCatalogFile(extents);
+            } catch ( IOException ex ) {
+                restoreUnsavedChanges(changes);
+                throw ex;
+            }
+            if ( journalFile.exists() && !journalFile.delete() )
+                throw new IOException("Unable to remove " + journalFile.getPath());
+        }
+    }
+
+    /**
+     * Puts back changes that could not be saved, unless the dataset has been changed again since.
+     */
+    private synchronized void restoreUnsavedChanges(LinkedHashMap<String,DsgExtent> changes) {
+        LinkedHashMap<String,DsgExtent> newer = unsavedChanges;
+        unsavedChanges = changes;
+        for (Map.Entry<String,DsgExtent> entry : newer.entrySet()) {
+            unsavedChanges.remove(entry.getKey());
+            unsavedChanges.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Writes the given extents as the catalog file.  The caller should hold the lock on fileLock.
+     */
+    private void writeCatalogFile(Collection<DsgExtent> extents) throws IOException {
+        File tmpFile = new File(catalogFile.getPath() + ".tmp");
+        PrintWriter writer = new PrintWriter(tmpFile, "UTF-8");
+        try {
+            writer.println(CATALOG_HEADER);
+            for (DsgExtent extent : extents) {
+                writer.println(formatExtent(extent));
+            }
+            if ( writer.checkError() )
+                throw new IOException("Problems writing " + tmpFile.getPath());
+        } finally {
+            writer.close();
+        }
+        if ( !tmpFile.renameTo(catalogFile) ) {
+            // Renaming over an existing file fails on some systems
+            catalogFile.delete();
+            if ( !tmpFile.renameTo(catalogFile) )
+                throw new IOException("Unable to rename " + tmpFile.getPath() + " to " + catalogFile.getPath());
+        }
+    }
+
+    /**
+     * @return the tab-separated catalog line for the given extents
+     */
+    private static String formatExtent(DsgExtent extent) {
+        double[] timeMinMax = extent.getTimeMinMax();
+        double[] latMinMax = extent.getLatMinMax();
+        double[] lonMinMax = extent.getLonMinMax();
+        StringBuilder builder = new StringBuilder();
+        builder.append(extent.getDatasetId());
+        builder.append('\t').append(extent.getLastModified());
+        builder.append('\t').append(extent.getNumRows());
+        builder.append('\t').append(extent.getNumValidRows());
+        builder.append('\t').append(extent.getNumGoodRows());
+        builder.append('\t').append(timeMinMax[0]).append('\t').append(timeMinMax[1]);
+        builder.append('\t').append(latMinMax[0]).append('\t').append(latMinMax[1]);
+        builder.append('\t').append(lonMinMax[0]).append('\t').append(lonMinMax[1]);
+        for (Double val : new Double[] { extent.getWestmostLongitude(), extent.getEastmostLongitude(),
+                extent.getSouthmostLatitude(), extent.getNorthmostLatitude(),
+                extent.getBeginTime(), extent.getEndTime() }) {
+            builder.append('\t');
+            if ( val != null )
+                builder.append(val);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the extents given by the values of a catalog line
+     *
+     * @throws NumberFormatException
+     *         if a value is invalid
+     */
+    private static DsgExtent parseExtent(String[] pieces) throws NumberFormatException {
+        Double[] goodLimits = new Double[6];
+        for (int k = 0; k < 6; k++) {
+            String val = pieces[11 + k];
+            goodLimits[k] = val.isEmpty() ? null : Double.valueOf(val);
+        }
+        return new DsgExtent(pieces[0], Long.parseLong(pieces[1]),
+                Integer.parseInt(pieces[2]), Integer.parseInt(pieces[3]),
+                Integer.parseInt(pieces[4]),
+                new double[] { Double.parseDouble(pieces[5]), Double.parseDouble(pieces[6]) },
+                new double[] { Double.parseDouble(pieces[7]), Double.parseDouble(pieces[8]) },
+                new double[] { Double.parseDouble(pieces[9]), Double.parseDouble(pieces[10]) },
+                goodLimits);
+    }
+
+    /**
+     * Reads the catalog file into this catalog.
+     *
+     * @throws IllegalArgumentException
+     *         if the contents of the file are invalid
+     * @throws IOException
+     *         if problems reading the file
+     */
+    private void readCatalogFile() throws IllegalArgumentException, IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(catalogFile));
+        try {
+            String dataline = reader.readLine();
+            if ( !CATALOG_HEADER.equals(dataline) )
+                throw new IllegalArgumentException("Invalid header line in DSG extents catalog file " +
+                        catalogFile.getPath());
+            int lineNum = 1;
+            dataline = reader.readLine();
+            while ( dataline != null ) {
+                lineNum++;
+                if ( !dataline.isEmpty() ) {
+                    String[] pieces = dataline.split("\t", -1);
+                    if ( pieces.length != NUM_CATALOG_COLUMNS )
+                        throw new IllegalArgumentException("Invalid number of values on line " + lineNum +
+                                " of DSG extents catalog file " + catalogFile.getPath());
+                    try {
+                        DsgExtent extent = parseExtent(pieces);
+                        extentsMap.put(extent.getDatasetId(), extent);
+                    } catch ( NumberFormatException ex ) {
+                        throw new IllegalArgumentException("Invalid value on line " + lineNum +
+                                " of DSG extents catalog file " + catalogFile.getPath() + ": " + ex.getMessage());
+                    }
+                }
+                dataline = reader.readLine();
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Applies the changes recorded in the journal file to this catalog.  An incomplete last line,
+     * as left by an interrupted save, is ignored.
+     *
+     * @throws IllegalArgumentException
+     *         if the contents of the file are invalid
+     * @throws IOException
+     *         if problems reading the file
+     */
+    private void readJournalFile() throws IllegalArgumentException, IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(journalFile));
+        try {
+            int lineNum = 0;
+            String dataline = reader.readLine();
+            while ( dataline != null ) {
+                lineNum++;
+                String nextline = reader.readLine();
+                if ( !dataline.isEmpty() ) {
+                    String[] pieces = dataline.split("\t", -1);
+                    try {
+                        if ( pieces.length == 1 ) {
+                            extentsMap.remove(pieces[0]);
+                        }
+                        else if ( pieces.length == NUM_CATALOG_COLUMNS ) {
+                            DsgExtent extent = parseExtent(pieces);
+                            extentsMap.put(extent.getDatasetId(), extent);
+                        }
+                        else if ( nextline != null ) {
+                            throw new IllegalArgumentException("Invalid number of values on line " + lineNum +
+                                    " of DSG extents journal file " + journalFile.getPath());
+                        }
+                    } catch ( NumberFormatException ex ) {
+                        if ( nextline != null )
+                            throw new IllegalArgumentException("Invalid value on line " + lineNum +
+                                    " of DSG extents journal file " + journalFile.getPath() + ": " + ex.getMessage());
+                    }
+                }
+                dataline = nextline;
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Static augmented interval tree of the time intervals of DSG extents.  The extents are sorted by the
+     * start of their time interval, and the tree is implicit in this sorted array: the root of a subarray is
+     * its middle element and the left and right subtrees are the subarrays before and after this element.
+     * Each node records the maximum end of the time intervals in its subtree.
+     */
+    private static class IntervalTree {
+
+        private DsgExtent[] extents;
+        private double[] starts;
+        private double[] ends;
+        private double[] maxEnds;
+
+        IntervalTree(Collection<DsgExtent> extentsColl) {
+            ArrayList<DsgExtent> validExtents = new ArrayList<DsgExtent>(extentsColl.size());
+            for (DsgExtent extent : extentsColl) {
+                if ( extent.hasValidTimesAndLats() )
+                    validExtents.add(extent);
+            }
+            extents = validExtents.toArray(new DsgExtent[validExtents.size()]);
+            Arrays.sort(extents, new Comparator<DsgExtent>() {
+                @Override
+                public int compare(DsgExtent first, DsgExtent second) {
+                    return Double.compare(first.getTimeMinMax()[0], second.getTimeMinMax()[0]);
+                }
+            });
+            starts = new double[extents.length];
+            ends = new double[extents.length];
+            for (int k = 0; k < extents.length; k++) {
+                double[] timeMinMax = extents[k].getTimeMinMax();
+                starts[k] = timeMinMax[0];
+                ends[k] = timeMinMax[1];
+            }
+            maxEnds = new double[extents.length];
+            assignMaxEnds(0, extents.length);
+        }
+
+        private double assignMaxEnds(int lo, int hi) {
+            if ( lo >= hi )
+                return Double.NEGATIVE_INFINITY;
+            int mid = (lo + hi) >>> 1;
+            double maxEnd = Math.max(ends[mid], Math.max(assignMaxEnds(lo, mid), assignMaxEnds(mid + 1, hi)));
+            maxEnds[mid] = maxEnd;
+            return maxEnd;
+        }
+
+        /**
+         * Adds to found all the extents whose time interval intersects [minTime, maxTime].
+         */
+        void findIntersecting(double minTime, double maxTime, ArrayList<DsgExtent> found) {
+            findIntersecting(0, extents.length, minTime, maxTime, found);
+        }
+
+        private void findIntersecting(int lo, int hi, double minTime, double maxTime, ArrayList<DsgExtent> found) {
+            if ( lo >= hi )
+                return;
+            int mid = (lo + hi) >>> 1;
+            // No interval in this subtree ends at or after minTime
+            if ( maxEnds[mid] < minTime )
+                return;
+            findIntersecting(lo, mid, minTime, maxTime, found);
+            // This interval and all those in the right subtree start after maxTime
+            if ( starts[mid] > maxTime )
+                return;
+            if ( ends[mid] >= minTime )
+                found.add(extents[mid]);
+            findIntersecting(mid + 1, hi, minTime, maxTime, found);
+        }
+
+    }
+
+}
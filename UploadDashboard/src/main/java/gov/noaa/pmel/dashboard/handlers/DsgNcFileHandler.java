@@ -1,11 +1,15 @@
 package gov.noaa.pmel.dashboard.handlers;
 
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.dsg.ComputedDataCalculator;
+import gov.noaa.pmel.dashboard.dsg.DsgDecimator;
+import gov.noaa.pmel.dashboard.dsg.DsgExtent;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
 import gov.noaa.pmel.dashboard.dsg.StdDataArray;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.ferret.FerretConfig;
+import gov.noaa.pmel.dashboard.ferret.FerretGridSampler;
 import gov.noaa.pmel.dashboard.ferret.SocatTool;
 import gov.noaa.pmel.dashboard.qc.DataLocation;
 import gov.noaa.pmel.dashboard.qc.DataQCEvent;
@@ -13,12 +17,13 @@ import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
 import org.apache.logging.log4j.Logger;
+import ucar.nc2.write.Nc4Chunking;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.StandardWatchEventKinds;
@@ -26,6 +31,17 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
@@ -36,23 +52,38 @@ import java.util.regex.Pattern;
 public class DsgNcFileHandler {
 
     private static final String DSG_FILE_SUFFIX = ".nc";
+    private static final String DSG_EXTENTS_CATALOG_FILENAME = "DsgExtents.tsv";
     private static final Object SINGLETON_SYNC_OBJECT = new Object();
+    // Minimum milliseconds the DSG watcher waits for further modifications to a DSG file before checking it
+    private static final long MIN_WATCH_WINDOW_MILLIS = 100L;
 
     private File dsgFilesDir;
     private File decDsgFilesDir;
-    private File erddapDsgFlagFile;
-    private File erddapDecDsgFlagFile;
+    private ErddapNotifier erddapNotifier;
     private FerretConfig ferretConfig;
     private KnownDataTypes knownMetadataTypes;
     private KnownDataTypes knownDataFileTypes;
+    // null if the computed variables are added by Ferret
+    private ComputedDataCalculator dataCalculator;
+    private KnownDataTypes computedDataFileTypes;
+    // null if the decimated DSG files are created by Ferret
+    private DsgDecimator decimator;
+    private Nc4Chunking dsgChunking;
     private DataFileHandler dataFileHandler;
     private Logger itsLogger;
     private WatchService watcher;
     private Thread watcherThread;
+    private volatile long changeWindowMillis;
+    // Modified DSG files, with the time of the latest modification, waiting to be checked by the watcher;
+    // synchronized on itself
+    private final LinkedHashMap<File,Long> pendingDsgFiles;
     private Pattern nodcCodePattern;
+    private DsgExtentsCatalog extentsCatalog;
 
     /**
      * Handles storage and retrieval of full and decimated NetCDF discrete geometry files under the given directories.
+     * The catalog of the extents of the data in the full-data DSG files is maintained in the file
+     * {@value #DSG_EXTENTS_CATALOG_FILENAME} in the full-data DSG directory.
      *
      * @param dsgFilesDirName
      *         name of the directory for the full NetCDF DSG files
@@ -86,19 +117,33 @@ public class DsgNcFileHandler {
         decDsgFilesDir = new File(decDsgFilesDirName);
         if ( !decDsgFilesDir.isDirectory() )
             throw new IllegalArgumentException(decDsgFilesDirName + " is not a directory");
-        erddapDsgFlagFile = new File(erddapDsgFlagFileName);
+        File erddapDsgFlagFile = new File(erddapDsgFlagFileName);
         File parentDir = erddapDsgFlagFile.getParentFile();
         if ( (parentDir == null) || !parentDir.isDirectory() )
             throw new IllegalArgumentException("parent directory of " + erddapDsgFlagFile.getPath() +
                     " is not valid");
-        erddapDecDsgFlagFile = new File(erddapDecDsgFlagFileName);
+        File erddapDecDsgFlagFile = new File(erddapDecDsgFlagFileName);
         parentDir = erddapDecDsgFlagFile.getParentFile();
         if ( (parentDir == null) || !parentDir.isDirectory() )
             throw new IllegalArgumentException("parent directory of " + erddapDecDsgFlagFile.getPath() +
                     " is not valid");
+        erddapNotifier = new ErddapNotifier(erddapDsgFlagFile, erddapDecDsgFlagFile, logger);
         ferretConfig = ferretConf;
         knownMetadataTypes = knownMDataTypes;
         knownDataFileTypes = knownDFileTypes;
+        if ( (ferretConfig != null) && ferretConfig.computeWithJava() ) {
+            dataCalculator = new ComputedDataCalculator(new FerretGridSampler(ferretConfig));
+            computedDataFileTypes = new KnownDataTypes().addTypes(knownDataFileTypes).addComputedTypesForDataFiles();
+        }
+        else {
+            dataCalculator = null;
+            computedDataFileTypes = null;
+        }
+        if ( (ferretConfig != null) && ferretConfig.decimateWithJava() )
+            decimator = new DsgDecimator();
+        else
+            decimator = null;
+        dsgChunking = null;
         dataFileHandler = dataHandler;
         itsLogger = logger;
 
@@ -114,7 +159,75 @@ public class DsgNcFileHandler {
                     ex.getMessage(), ex);
         }
         watcherThread = null;
+        changeWindowMillis = 0L;
+        pendingDsgFiles = new LinkedHashMap<File,Long>();
         nodcCodePattern = Pattern.compile("\\p{Alnum}\\p{Alnum}\\p{Alnum}\\p{Alnum}");
+
+        // Read the catalog of DSG extents; a missing or corrupt catalog is rebuilt as extents are requested
+        File catalogFile = new File(dsgFilesDir, DSG_EXTENTS_CATALOG_FILENAME);
+        try {
+            extentsCatalog = new DsgExtentsCatalog(catalogFile);
+        } catch ( Exception ex ) {
+            if ( itsLogger != null )
+                itsLogger.warn("Ignoring invalid DSG extents catalog " + catalogFile.getPath() + ": " +
+                        ex.getMessage());
+            File journalFile = new File(catalogFile.getPath() + DsgExtentsCatalog.JOURNAL_SUFFIX);
+            if ( (catalogFile.exists() && !catalogFile.delete()) || (journalFile.exists() && !journalFile.delete()) )
+                throw new IllegalArgumentException("Unable to remove the invalid DSG extents catalog " +
+                        catalogFile.getPath());
+            try {
+                extentsCatalog = new DsgExtentsCatalog(catalogFile);
+            } catch ( IOException e ) {
+                throw new IllegalArgumentException("Unexpected error creating the DSG extents catalog: " +
+                        e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Sets the format of the full and decimated NetCDF DSG files created by this handler.
+     * Existing DSG files are not changed.
+     *
+     * @param chunking
+     *         if not null, DSG files are created as NetCDF-4 files using this chunking and compression;
+     *         if null (the default), DSG files are created as NetCDF-3 files
+     */
+    public void setNetcdf4Chunking(Nc4Chunking chunking) {
+        dsgChunking = chunking;
+    }
+
+    /**
+     * Sets the window in which changes to DSG files are combined.  Requests to notify ERDDAP made within this window
+     * of the first pending request result in a single notification at the end of the window.  The watcher of the
+     * full-data DSG directory only checks a modified DSG file once it has not been modified for this window (but
+     * never less than {@value #MIN_WATCH_WINDOW_MILLIS} milliseconds).  The default is zero.
+     *
+     * @param windowMillis
+     *         change window in milliseconds
+     *
+     * @throws IllegalArgumentException
+     *         if the window is negative
+     */
+    public void setChangeWindow(long windowMillis) throws IllegalArgumentException {
+        erddapNotifier.setFlagDelay(windowMillis);
+        changeWindowMillis = windowMillis;
+    }
+
+    /**
+     * @return the notifier used by {@link #flagErddap(boolean, boolean)}; use this to defer notifications
+     *         while making a large number of changes, or to get the number of pending notifications
+     */
+    public ErddapNotifier getErddapNotifier() {
+        return erddapNotifier;
+    }
+
+    /**
+     * @return the number of modified DSG files waiting to be checked by the watcher of the full-data DSG directory
+     */
+    public int getNumPendingDsgFileChecks() {
+        synchronized(pendingDsgFiles) {
+            return pendingDsgFiles.size();
+        }
     }
 
     /**
@@ -143,7 +256,9 @@ public class DsgNcFileHandler {
             throw new IllegalArgumentException("Unable to create the new subdirectory " +
                     parentDir.getPath());
         }
-        return new DsgNcFile(parentDir, stdId + DSG_FILE_SUFFIX);
+        DsgNcFile dsgFile = new DsgNcFile(parentDir, stdId + DSG_FILE_SUFFIX);
+        dsgFile.setNetcdf4Chunking(dsgChunking);
+        return dsgFile;
     }
 
     /**
@@ -173,7 +288,9 @@ public class DsgNcFileHandler {
             throw new IllegalArgumentException("Unable to create the new subdirectory " +
                     parentDir.getPath());
         }
-        return new DsgNcFile(parentDir, stdId + DSG_FILE_SUFFIX);
+        DsgNcFile decDsgFile = new DsgNcFile(parentDir, stdId + DSG_FILE_SUFFIX);
+        decDsgFile.setNetcdf4Chunking(dsgChunking);
+        return decDsgFile;
     }
 
     /**
@@ -194,10 +311,62 @@ public class DsgNcFileHandler {
         // Get the location and name for the NetCDF DSG file
         DsgNcFile dsgFile = getDsgNcFile(metadata.getDatasetId());
 
-        // Create the NetCDF DSG file
+        // Create the NetCDF DSG file with the computed variables
+        StdDataArray filedata;
+        try {
+            // The following verifies lon and lat, computes and adds time, and
+            // if not already present, year, month, day, hour, minute, and second.
+            filedata = new StdDataArray(stdUserData, knownDataFileTypes);
+        } catch ( Exception ex ) {
+            throw new IllegalArgumentException("Problems creating the DSG file " +
+                    dsgFile.getName() + "\n    " + ex.getMessage(), ex);
+        }
+        createDsgWithComputedData(dsgFile, metadata, filedata);
+
+        // Record the extents of the data in this new DSG file
+        synchronized(SINGLETON_SYNC_OBJECT) {
+            updateDsgExtent(dsgFile);
+        }
+    }
+
+    /**
+     * Creates a NetCDF DSG file from the given metadata and standardized data, and adds the computed variables
+     * to it.  If the Ferret configuration specifies computing these variables in Java, the file is created with the
+     * computed variables already added; otherwise, Ferret is run to add the computed variables to the file.
+     * The extents of the data in the DSG file are not recorded by this method.
+     *
+     * @param dsgFile
+     *         the NetCDF DSG file to create
+     * @param metadata
+     *         metadata for the dataset
+     * @param filedata
+     *         standardized data for data files
+     *
+     * @throws IllegalArgumentException
+     *         if there are problems with the metadata or data given, if there are problems creating or writing
+     *         the DSG file, or if there are problems computing and adding the computed variables
+     */
+    public void createDsgWithComputedData(DsgNcFile dsgFile, DsgMetadata metadata, StdDataArray filedata)
+            throws IllegalArgumentException {
+        if ( dataCalculator != null ) {
+            try {
+                StdDataArray computedData = dataCalculator.addComputedData(filedata);
+                DsgMetadata computedMeta = ComputedDataCalculator.addComputedMetadata(metadata,
+                        filedata.getNumSamples());
+                synchronized(SINGLETON_SYNC_OBJECT) {
+                    dsgFile.createFromFileData(computedMeta, computedData, computedDataFileTypes);
+                }
+            } catch ( Exception ex ) {
+                dsgFile.delete();
+                throw new IllegalArgumentException("Problems creating the DSG file " +
+                        dsgFile.getName() + " with computed variables\n    " + ex.getMessage(), ex);
+            }
+            return;
+        }
+
         try {
             synchronized(SINGLETON_SYNC_OBJECT) {
-                dsgFile.createFromUserData(metadata, stdUserData, knownDataFileTypes);
+                dsgFile.createFromFileData(metadata, filedata, knownDataFileTypes);
             }
         } catch ( Exception ex ) {
             dsgFile.delete();
@@ -236,6 +405,17 @@ public class DsgNcFileHandler {
         // Get the location and name for the decimated DSG file
         File decDsgFile = getDecDsgNcFile(datasetId);
 
+        if ( decimator != null ) {
+            try {
+                decimator.decimate(dsgFile, decDsgFile);
+            } catch ( Exception ex ) {
+                decDsgFile.delete();
+                throw new IllegalArgumentException("Failure decimating the full-data DSG file: " +
+                        ex.getMessage(), ex);
+            }
+            return;
+        }
+
         // Call Ferret to create the decimated DSG file from the full DSG file
         SocatTool tool = new SocatTool(ferretConfig);
         ArrayList<String> scriptArgs = new ArrayList<String>(2);
@@ -247,6 +427,64 @@ public class DsgNcFileHandler {
             throw new IllegalArgumentException("Failure decimating the full-data DSG file: " + tool.getErrorMessage());
     }
 
+    /**
+     * Generates the decimated-data NetCDF DSG files for a number of datasets using a pool of threads.  Each dataset
+     * is decimated using {@link #decimateDatasetDsg(String)}.  As with that method, ERDDAP is not notified of the
+     * changes to the decimated DSG files.
+     *
+     * @param datasetIds
+     *         generate the decimated-data DSG files for the datasets with these IDs
+     * @param numThreads
+     *         number of datasets to decimate at the same time
+     * @param progressPrinter
+     *         if not null, the time taken to decimate each dataset is printed here as the datasets complete
+     *
+     * @return map of dataset IDs to error messages for datasets that could not be decimated;
+     *         empty if all datasets were successfully decimated
+     */
+    public TreeMap<String,String> decimateDatasetDsgs(Collection<String> datasetIds, int numThreads,
+            final PrintStream progressPrinter) {
+        if ( numThreads < 1 )
+            numThreads = 1;
+        final long startMillis = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        TreeMap<String,Future<Long>> futures = new TreeMap<String,Future<Long>>();
+        for (final String datasetId : datasetIds) {
+            futures.put(datasetId, executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    long datasetStart = System.currentTimeMillis();
+                    decimateDatasetDsg(datasetId);
+                    long datasetMillis = System.currentTimeMillis() - datasetStart;
+                    if ( progressPrinter != null ) {
+                        synchronized ( progressPrinter ) {
+                            progressPrinter.format("%.2fm - decimated %s in %.3fs\n",
+                                    (System.currentTimeMillis() - startMillis) / (60.0 * 1000.0),
+                                    datasetId, datasetMillis / 1000.0);
+                            progressPrinter.flush();
+                        }
+                    }
+                    return datasetMillis;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        TreeMap<String,String> failures = new TreeMap<String,String>();
+        for (Map.Entry<String,Future<Long>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().get();
+            } catch ( ExecutionException ex ) {
+                failures.put(entry.getKey(), ex.getCause().getMessage());
+            } catch ( InterruptedException ex ) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                failures.put(entry.getKey(), "Interrupted while decimating " + entry.getKey());
+            }
+        }
+        return failures;
+    }
+
     /**
      * Appropriately renames any DSG and decimated DSG files, if they exist, for a change in dataset ID.
      * Changes the dataset ID in the DSG files.
@@ -285,21 +523,18 @@ public class DsgNcFileHandler {
                 StdDataArray dataVals = oldDsgFile.getStdDataArray();
                 DsgMetadata updatedMeta = oldDsgFile.getMetadata();
                 updatedMeta.setDatasetId(newId);
-                newDsgFile.createFromFileData(updatedMeta, dataVals, knownDataFileTypes);
-                // Call Ferret to add lon360 and tmonth (calculated data should be the same)
-                SocatTool tool = new SocatTool(ferretConfig);
-                ArrayList<String> scriptArgs = new ArrayList<String>(1);
-                scriptArgs.add(newDsgFile.getPath());
-                tool.init(scriptArgs, newId, FerretConfig.Action.COMPUTE);
-                tool.run();
-                if ( tool.hasError() )
-                    throw new IllegalArgumentException(newId + ": Failure adding computed variables: " +
-                            tool.getErrorMessage());
+                // Add lon360 and tmonth (calculated data should be the same)
+                createDsgWithComputedData(newDsgFile, updatedMeta, dataVals);
                 // Re-create the decimated-data DSG file
                 decimateDatasetDsg(newId);
                 // Delete the old DSG and decimated-data DSG files
                 oldDsgFile.delete();
                 getDecDsgNcFile(oldId).delete();
+                // Move the extents in the catalog to the new ID
+                synchronized(SINGLETON_SYNC_OBJECT) {
+                    removeDsgExtent(oldId);
+                    updateDsgExtent(newDsgFile);
+                }
             } catch ( Exception ex ) {
                 throw new IOException(ex);
             }
@@ -331,6 +566,9 @@ public class DsgNcFileHandler {
                 throw new IllegalArgumentException("Unable to delete the full-data DSG file for " + datasetId);
             fileDeleted = true;
         }
+        synchronized(SINGLETON_SYNC_OBJECT) {
+            removeDsgExtent(datasetId);
+        }
         File decDsgFile = getDecDsgNcFile(datasetId);
         if ( decDsgFile.exists() ) {
             if ( !decDsgFile.delete() )
@@ -341,7 +579,8 @@ public class DsgNcFileHandler {
     }
 
     /**
-     * Notifies ERDDAP that content has changed in the DSG files.
+     * Notifies ERDDAP that content has changed in the DSG files.  If a change window has been set or notifications
+     * are deferred (see {@link #getErddapNotifier()}), the notification is combined with other requests.
      *
      * @param flagDsg
      *         if true, notify ERDDAP that content has changed in the full DSG files.
@@ -351,19 +590,7 @@ public class DsgNcFileHandler {
      * @return true if successful
      */
     public boolean flagErddap(boolean flagDsg, boolean flagDecDsg) {
-        try {
-            if ( flagDsg ) {
-                FileOutputStream touchFile = new FileOutputStream(erddapDsgFlagFile);
-                touchFile.close();
-            }
-            if ( flagDecDsg ) {
-                FileOutputStream touchFile = new FileOutputStream(erddapDecDsgFlagFile);
-                touchFile.close();
-            }
-        } catch ( IOException ex ) {
-            return false;
-        }
-        return true;
+        return erddapNotifier.requestFlag(flagDsg, flagDecDsg);
     }
 
     /**
@@ -548,7 +775,9 @@ public class DsgNcFileHandler {
         if ( !dsgFile.exists() )
             throw new IllegalArgumentException("Full-data DSG file for " + datasetId + " does not exist");
         synchronized(SINGLETON_SYNC_OBJECT) {
+            long prevModified = dsgFile.lastModified();
             dsgFile.updateDatasetQCFlagAndVersionStatus(qcStatus, versionStatus);
+            touchDsgExtent(dsgFile, prevModified);
         }
         DsgNcFile decDsgFile = getDecDsgNcFile(datasetId);
         if ( !decDsgFile.exists() )
@@ -575,7 +804,9 @@ public class DsgNcFileHandler {
         String allRegionIds;
         try {
             synchronized(SINGLETON_SYNC_OBJECT) {
+                long prevModified = dsgFile.lastModified();
                 allRegionIds = dsgFile.updateAllRegionIDs(null);
+                touchDsgExtent(dsgFile, prevModified);
             }
         } catch ( Exception ex ) {
             throw new IllegalArgumentException(
@@ -622,11 +853,182 @@ public class DsgNcFileHandler {
         ArrayList<DataLocation> unidentified;
         synchronized(SINGLETON_SYNC_OBJECT) {
             unidentified = dsgFile.updateDataQCFlags(woceEvent, updateWoceEvent);
+            updateDsgExtent(dsgFile);
         }
         decimateDatasetDsg(datasetId);
         return unidentified;
     }
 
+    /**
+     * Returns the extents of the data in the full-data DSG file of a dataset from the catalog of DSG extents.
+     * If the catalog does not have current extents for this dataset, the extents are obtained from the
+     * full-data DSG file and the catalog is updated.
+     *
+     * @param datasetId
+     *         get the extents for the dataset with this ID
+     *
+     * @return the extents of the data for the dataset
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, or if the data in the full-data DSG file are inconsistent
+     * @throws FileNotFoundException
+     *         if the full-data DSG file does not exist
+     * @throws IOException
+     *         if problems reading from the full-data DSG file or saving the catalog
+     */
+    public DsgExtent getDsgExtent(String datasetId)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        ArrayList<String> idList = new ArrayList<String>(1);
+        idList.add(datasetId);
+        return getDsgExtents(idList).values().iterator().next();
+    }
+
+    /**
+     * Returns the extents of the data in the full-data DSG files of the given datasets from the catalog of
+     * DSG extents.  Any datasets without current extents in the catalog have their extents obtained from the
+     * full-data DSG files, and the catalog is then saved once for all these updates.
+     *
+     * @param datasetIds
+     *         get the extents for the datasets with these IDs
+     *
+     * @return map of standardized dataset IDs to the extents of the data for the datasets
+     *
+     * @throws IllegalArgumentException
+     *         if a dataset ID is invalid, or if the data in a full-data DSG file are inconsistent
+     * @throws FileNotFoundException
+     *         if a full-data DSG file does not exist
+     * @throws IOException
+     *         if problems reading from a full-data DSG file or saving the catalog
+     */
+    public TreeMap<String,DsgExtent> getDsgExtents(Collection<String> datasetIds)
+            throws IllegalArgumentException, FileNotFoundException, IOException {
+        TreeMap<String,DsgExtent> extentsMap = new TreeMap<String,DsgExtent>();
+        boolean updated = false;
+        try {
+            for (String datasetId : datasetIds) {
+                DsgNcFile dsgFile = getDsgNcFile(datasetId);
+                String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+                DsgExtent extent = extentsCatalog.getExtent(stdId);
+                if ( (extent == null) || (extent.getLastModified() != dsgFile.lastModified()) ) {
+                    synchronized(SINGLETON_SYNC_OBJECT) {
+                        if ( !dsgFile.exists() )
+                            throw new FileNotFoundException("Full-data DSG file for " + datasetId +
+                                    " does not exist");
+                        extent = DsgExtent.fromDsgFile(stdId, dsgFile);
+                    }
+                    extentsCatalog.putExtent(extent);
+                    updated = true;
+                }
+                extentsMap.put(stdId, extent);
+            }
+        } finally {
+            if ( updated )
+                extentsCatalog.saveChanges();
+        }
+        return extentsMap;
+    }
+
+    /**
+     * Rewrites the catalog of DSG extents to include all the changes saved to its journal.  Changes are
+     * appended to the journal as DSG files are written, so this only needs to be called on shutdown.
+     * Problems are logged; the journal is applied when the catalog is next read.
+     */
+    public void compactDsgExtentsCatalog() {
+        try {
+            extentsCatalog.saveCatalog();
+        } catch ( Exception ex ) {
+            if ( itsLogger != null )
+                itsLogger.warn("Unable to save the DSG extents catalog: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Finds the datasets in the catalog of DSG extents whose valid times intersect the given time interval
+     * and whose valid latitudes intersect the given latitude interval.  Only datasets that have been added
+     * to the catalog are examined; use {@link #getDsgExtents(Collection)} to make sure the extents of the
+     * datasets of interest are current.
+     *
+     * @param minTime
+     *         start of the time interval
+     * @param maxTime
+     *         end of the time interval
+     * @param minLat
+     *         southern limit of the latitude interval
+     * @param maxLat
+     *         northern limit of the latitude interval
+     *
+     * @return the extents of the matching datasets, ordered by dataset ID; never null but may be empty
+     */
+    public ArrayList<DsgExtent> findDsgExtents(double minTime, double maxTime, double minLat, double maxLat) {
+        return extentsCatalog.findExtents(minTime, maxTime, minLat, maxLat);
+    }
+
+    /**
+     * Records the extents of the data in the given full-data DSG file in the catalog of DSG extents.
+     * Problems are logged and the dataset is removed from the catalog so the extents will be obtained
+     * again when requested.  The caller should hold the lock on SINGLETON_SYNC_OBJECT.
+     *
+     * @param dsgFile
+     *         full-data DSG file that was written
+     */
+    private void updateDsgExtent(DsgNcFile dsgFile) {
+        String filename = dsgFile.getName();
+        String datasetId = filename.substring(0, filename.length() - DSG_FILE_SUFFIX.length());
+        try {
+            extentsCatalog.putExtent(DsgExtent.fromDsgFile(datasetId, dsgFile));
+            extentsCatalog.saveChanges();
+        } catch ( Exception ex ) {
+            if ( itsLogger != null )
+                itsLogger.warn("Unable to update the DSG extents of " + datasetId + ": " + ex.getMessage());
+            removeDsgExtent(datasetId);
+        }
+    }
+
+    /**
+     * Updates the last-modified time recorded in the catalog of DSG extents for a full-data DSG file
+     * written with changes that do not affect the extents of the data.  The catalog is only changed if the
+     * recorded extents were current before this change.  The caller should hold the lock on
+     * SINGLETON_SYNC_OBJECT.
+     *
+     * @param dsgFile
+     *         full-data DSG file that was written
+     * @param prevModified
+     *         last-modified time of the full-data DSG file before it was written
+     */
+    private void touchDsgExtent(DsgNcFile dsgFile, long prevModified) {
+        String filename = dsgFile.getName();
+        String datasetId = filename.substring(0, filename.length() - DSG_FILE_SUFFIX.length());
+        DsgExtent extent = extentsCatalog.getExtent(datasetId);
+        if ( (extent == null) || (extent.getLastModified() != prevModified) )
+            return;
+        extentsCatalog.putExtent(extent.withLastModified(dsgFile.lastModified()));
+        try {
+            extentsCatalog.saveChanges();
+        } catch ( Exception ex ) {
+            if ( itsLogger != null )
+                itsLogger.warn("Unable to save the DSG extents catalog: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Removes a dataset from the catalog of DSG extents.  Problems saving the catalog are logged.
+     * The caller should hold the lock on SINGLETON_SYNC_OBJECT.
+     *
+     * @param datasetId
+     *         ID of the dataset to remove
+     */
+    private void removeDsgExtent(String datasetId) {
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        if ( !extentsCatalog.removeExtent(stdId) )
+            return;
+        try {
+            extentsCatalog.saveChanges();
+        } catch ( Exception ex ) {
+            if ( itsLogger != null )
+                itsLogger.warn("Unable to save the DSG extents catalog: " + ex.getMessage());
+        }
+    }
+
     /**
      * Starts a new Thread monitoring the full-data DSG directory.
      * If a Thread is currently monitoring the directory, this call does nothing.
@@ -697,36 +1099,48 @@ public class DsgNcFileHandler {
                     }
                 }
                 subdirs = null;
-                // Start watching and handle changes
+                // Start watching and handle changes.  Modified files are only checked once they
+                // have not been modified for the change window, so a burst of modifications of
+                // a DSG file (such as when it is being regenerated) results in a single check.
                 for (; ; ) {
                     try {
-                        WatchKey key = watcher.take();
-                        Path parentPath = (Path) key.watchable();
-                        File lastFile = null;
-                        WatchEvent.Kind<?> lastKind = null;
-                        for (WatchEvent<?> event : key.pollEvents()) {
-                            Path relPath = (Path) event.context();
-                            File thisFile = parentPath.resolve(relPath).toFile();
-                            WatchEvent.Kind<?> thisKind = event.kind();
-                            // Ignore repeated events of what was just handled
-                            if ( thisFile.equals(lastFile) && thisKind.equals(lastKind) )
-                                continue;
-                            // If a DSG file is being saved, block until done saving
-                            synchronized(SINGLETON_SYNC_OBJECT) {
-                                handleDsgDirChange(subRegs, thisKind, thisFile);
+                        long windowMillis = Math.max(changeWindowMillis, MIN_WATCH_WINDOW_MILLIS);
+                        WatchKey key;
+                        if ( getNumPendingDsgFileChecks() > 0 )
+                            key = watcher.poll(windowMillis, TimeUnit.MILLISECONDS);
+                        else
+                            key = watcher.take();
+                        if ( key != null ) {
+                            Path parentPath = (Path) key.watchable();
+                            long eventMillis = System.currentTimeMillis();
+                            for (WatchEvent<?> event : key.pollEvents()) {
+                                Path relPath = (Path) event.context();
+                                File thisFile = parentPath.resolve(relPath).toFile();
+                                WatchEvent.Kind<?> thisKind = event.kind();
+                                if ( StandardWatchEventKinds.ENTRY_MODIFY.equals(thisKind) &&
+                                        !thisFile.isDirectory() ) {
+                                    synchronized(pendingDsgFiles) {
+                                        // Move to the end so the map stays in order of the latest modification
+                                        pendingDsgFiles.remove(thisFile);
+                                        pendingDsgFiles.put(thisFile, eventMillis);
+                                    }
+                                }
+                                else {
+                                    handleDsgDirChange(subRegs, thisKind, thisFile);
+                                }
                             }
-                            lastFile = thisFile;
-                            lastKind = thisKind;
+                            if ( !key.reset() )
+                                break;
                         }
-                        if ( !key.reset() )
-                            break;
-                        // Sleep a moment to allow multiple updates to coalesce
-                        Thread.sleep(100);
+                        checkPendingDsgFiles(subRegs, System.currentTimeMillis() - windowMillis);
                     } catch ( Exception ex ) {
                         // Probably the watcher was closed
                         break;
                     }
                 }
+                synchronized(pendingDsgFiles) {
+                    pendingDsgFiles.clear();
+                }
                 for (WatchKey reg : subRegs) {
                     reg.cancel();
                     reg.pollEvents();
@@ -747,6 +1161,38 @@ public class DsgNcFileHandler {
         watcherThread.start();
     }
 
+    /**
+     * Checks the modified DSG files waiting to be checked whose latest modification was at or before the given time.
+     *
+     * @param subRegs
+     *         list of the WatchKeys of the DSG subdirectories being monitored
+     * @param quietSinceMillis
+     *         check files whose latest modification was at or before this time
+     *
+     * @throws IOException
+     *         if {@link #handleDsgDirChange(ArrayList, WatchEvent.Kind, File)} throws one
+     */
+    private void checkPendingDsgFiles(ArrayList<WatchKey> subRegs, long quietSinceMillis) throws IOException {
+        ArrayList<File> quietFiles = new ArrayList<File>();
+        synchronized(pendingDsgFiles) {
+            Iterator<Map.Entry<File,Long>> iter = pendingDsgFiles.entrySet().iterator();
+            while ( iter.hasNext() ) {
+                Map.Entry<File,Long> entry = iter.next();
+                // In order of the latest modification, so the rest are more recent
+                if ( entry.getValue() > quietSinceMillis )
+                    break;
+                quietFiles.add(entry.getKey());
+                iter.remove();
+            }
+        }
+        for (File dsgFile : quietFiles) {
+            // If a DSG file is being saved, block until done saving
+            synchronized(SINGLETON_SYNC_OBJECT) {
+                handleDsgDirChange(subRegs, StandardWatchEventKinds.ENTRY_MODIFY, dsgFile);
+            }
+        }
+    }
+
     /**
      * Handles changes detected by the monitor of the DSG directory.  If the change is the creation of
      * an appropriately named directory, this will start watching for modifications of files in that
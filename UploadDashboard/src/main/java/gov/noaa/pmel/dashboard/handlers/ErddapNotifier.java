@@ -0,0 +1,218 @@
+package gov.noaa.pmel.dashboard.handlers;
+
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notifies ERDDAP of changes to the full-data and decimated-data DSG files by touching the ERDDAP flag files.
+ * Notification requests made within the flag delay of the first pending request are combined into a single
+ * touch of each flag file at the end of that delay.  Notifications can also be deferred, for example while a
+ * program updates a large number of DSG files, and are then made once when resumed.
+ *
+ * @author Karl Smith
+ */
+public class ErddapNotifier {
+
+    private final File dsgFlagFile;
+    private final File decDsgFlagFile;
+    private final Logger itsLogger;
+    private final ScheduledExecutorService flagScheduler;
+    // The following are all synchronized on this object
+    private long flagDelayMillis;
+    private int deferCount;
+    private int numPendingDsgChanges;
+    private int numPendingDecDsgChanges;
+    private ScheduledFuture<?> scheduledFlag;
+
+    /**
+     * Create a notifier which touches the flag files immediately on request;
+     * use {@link #setFlagDelay(long)} to combine requests.
+     *
+     * @param dsgFlagFile
+     *         flag file to touch to notify ERDDAP of changes to the full-data DSG files
+     * @param decDsgFlagFile
+     *         flag file to touch to notify ERDDAP of changes to the decimated-data DSG files
+     * @param logger
+     *         log problems touching the flag files here; can be null
+     */
+    public ErddapNotifier(File dsgFlagFile, File decDsgFlagFile, Logger logger) {
+        this.dsgFlagFile = dsgFlagFile;
+        this.decDsgFlagFile = decDsgFlagFile;
+        itsLogger = logger;
+        flagScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable job) {
+                Thread thread = new Thread(job, "ErddapNotifier");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        flagDelayMillis = 0L;
+        deferCount = 0;
+        numPendingDsgChanges = 0;
+        numPendingDecDsgChanges = 0;
+        scheduledFlag = null;
+    }
+
+    /**
+     * @return the number of milliseconds after the first pending request that the flag files are touched
+     */
+    public synchronized long getFlagDelay() {
+        return flagDelayMillis;
+    }
+
+    /**
+     * @param delayMillis
+     *         number of milliseconds after the first pending request that the flag files are touched;
+     *         if zero, the flag files are touched immediately on request
+     *
+     * @throws IllegalArgumentException
+     *         if the delay is negative
+     */
+    public synchronized void setFlagDelay(long delayMillis) throws IllegalArgumentException {
+        if ( delayMillis < 0L )
+            throw new IllegalArgumentException("invalid ERDDAP flag delay: " + delayMillis);
+        flagDelayMillis = delayMillis;
+    }
+
+    /**
+     * Requests notifying ERDDAP of changes in DSG files.  The flag files are touched immediately if the flag delay is
+     * zero and notifications are not deferred; otherwise the request is combined with any other pending requests.
+     *
+     * @param flagDsg
+     *         if true, notify ERDDAP that content has changed in the full-data DSG files
+     * @param flagDecDsg
+     *         if true, notify ERDDAP that content has changed in the decimated-data DSG files
+     *
+     * @return false if the flag files were touched immediately and this failed; otherwise true
+     */
+    public boolean requestFlag(boolean flagDsg, boolean flagDecDsg) {
+        synchronized(this) {
+            if ( flagDsg )
+                numPendingDsgChanges++;
+            if ( flagDecDsg )
+                numPendingDecDsgChanges++;
+            if ( deferCount > 0 )
+                return true;
+            if ( flagDelayMillis > 0L ) {
+                if ( scheduledFlag == null ) {
+                    scheduledFlag = flagScheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            flushFlags();
+                        }
+                    }, flagDelayMillis, TimeUnit.MILLISECONDS);
+                }
+                return true;
+            }
+        }
+        return flushFlags();
+    }
+
+    /**
+     * Defers notifying ERDDAP until {@link #resumeFlags()} is called.  Calls may be nested;
+     * notifications resume when each call to this method has been matched by a call to resumeFlags.
+     */
+    public synchronized void deferFlags() {
+        deferCount++;
+        if ( scheduledFlag != null ) {
+            scheduledFlag.cancel(false);
+            scheduledFlag = null;
+        }
+    }
+
+    /**
+     * Ends a deferral of notifications started by {@link #deferFlags()}.  If this ends all deferrals,
+     * ERDDAP is immediately notified of any changes requested while deferred.
+     *
+     * @return false if touching the flag files failed; otherwise true
+     *
+     * @throws IllegalArgumentException
+     *         if notifications are not deferred
+     */
+    public boolean resumeFlags() throws IllegalArgumentException {
+        synchronized(this) {
+            if ( deferCount < 1 )
+                throw new IllegalArgumentException("ERDDAP notifications are not deferred");
+            deferCount--;
+            if ( deferCount > 0 )
+                return true;
+        }
+        return flushFlags();
+    }
+
+    /**
+     * @return the number of requests to notify ERDDAP of changes in the full-data DSG files not yet made
+     */
+    public synchronized int getNumPendingDsgChanges() {
+        return numPendingDsgChanges;
+    }
+
+    /**
+     * @return the number of requests to notify ERDDAP of changes in the decimated-data DSG files not yet made
+     */
+    public synchronized int getNumPendingDecDsgChanges() {
+        return numPendingDecDsgChanges;
+    }
+
+    /**
+     * Immediately touches the flag files for any pending requests, even if notifications are deferred.
+     *
+     * @return false if touching a flag file failed; otherwise true
+     */
+    public boolean flushFlags() {
+        boolean flagDsg;
+        boolean flagDecDsg;
+        synchronized(this) {
+            flagDsg = (numPendingDsgChanges > 0);
+            flagDecDsg = (numPendingDecDsgChanges > 0);
+            numPendingDsgChanges = 0;
+            numPendingDecDsgChanges = 0;
+            if ( scheduledFlag != null ) {
+                scheduledFlag.cancel(false);
+                scheduledFlag = null;
+            }
+        }
+        boolean success = true;
+        if ( flagDsg && !touchFlagFile(dsgFlagFile) )
+            success = false;
+        if ( flagDecDsg && !touchFlagFile(decDsgFlagFile) )
+            success = false;
+        return success;
+    }
+
+    /**
+     * Touches the flag files for any pending requests and stops the thread used for delayed notifications.
+     * Requests made after this call touch the flag files immediately.
+     */
+    public void shutdown() {
+        synchronized(this) {
+            flagDelayMillis = 0L;
+            deferCount = 0;
+        }
+        flushFlags();
+        flagScheduler.shutdownNow();
+    }
+
+    private boolean touchFlagFile(File flagFile) {
+        try {
+            FileOutputStream touchFile = new FileOutputStream(flagFile);
+            touchFile.close();
+        } catch ( IOException ex ) {
+            if ( itsLogger != null )
+                itsLogger.error("Unable to touch the ERDDAP flag file " + flagFile.getPath() + ": " +
+                        ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+}
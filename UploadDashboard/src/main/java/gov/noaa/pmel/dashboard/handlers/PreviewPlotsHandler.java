@@ -4,30 +4,70 @@ import gov.noaa.pmel.dashboard.actions.DatasetChecker;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
 import gov.noaa.pmel.dashboard.ferret.FerretConfig;
 import gov.noaa.pmel.dashboard.ferret.SocatTool;
 import gov.noaa.pmel.dashboard.server.DashboardConfigStore;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
-import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class PreviewPlotsHandler {
 
+    /**
+     * Default number of preview plot jobs run at the same time
+     */
+    public static final int DEFAULT_NUM_PLOTS_THREADS = 2;
+    /**
+     * Default maximum number of preview plot jobs waiting to be run
+     */
+    public static final int DEFAULT_MAX_QUEUED_PLOTS_JOBS = 16;
+
+    /**
+     * Finished jobs whose status has not been requested are forgotten after this many milliseconds
+     */
+    private static final long FINISHED_JOB_RETAIN_MILLIS = 10L * 60L * 1000L;
+
     File dsgFilesDir;
     File plotsFilesDir;
     DataFileHandler dataHandler;
     DatasetChecker dataChecker;
     KnownDataTypes knownMetadataTypes;
     KnownDataTypes knownDataFileTypes;
+    DsgNcFileHandler dsgHandler;
     FerretConfig ferretConfig;
     Logger itsLogger;
 
+    private ThreadPoolExecutor plotsExecutor;
+    // Preview plot jobs submitted and not yet reported, in order of submission; synchronized on itself
+    private final LinkedHashMap<String,PreviewPlotsJob> plotsJobs;
+    // Statistics of the preview plot jobs; synchronized on plotsJobs
+    private long numJobsSubmitted;
+    private long numJobsFinished;
+    private long numJobsFailed;
+    private long numJobsCancelled;
+    private long numJobsRejected;
+    private long totalWaitMillis;
+    private long maxWaitMillis;
+    private long totalRunMillis;
+    private long maxRunMillis;
+
     /**
      * Create with the given directories for the preview DSG files and plots.
      *
@@ -36,10 +76,31 @@ public class PreviewPlotsHandler {
      * @param previewPlotsDirName
      *         directory to contain the preview plots
      * @param configStore
-     *         get the DataFileHandler, DatasetChecker, MetadataFileHandler, and FerretConfig from here
+     *         get the DataFileHandler, DatasetChecker, DsgNcFileHandler, and FerretConfig from here
      */
     public PreviewPlotsHandler(String previewDsgsDirName, String previewPlotsDirName,
             DashboardConfigStore configStore) {
+        this(previewDsgsDirName, previewPlotsDirName, configStore,
+                DEFAULT_NUM_PLOTS_THREADS, DEFAULT_MAX_QUEUED_PLOTS_JOBS);
+    }
+
+    /**
+     * Create with the given directories for the preview DSG files and plots, and the given limits
+     * on the preview plot jobs submitted using {@link #submitPreviewPlots(String, String)}.
+     *
+     * @param previewDsgsDirName
+     *         directory to contain the preview DSG files
+     * @param previewPlotsDirName
+     *         directory to contain the preview plots
+     * @param configStore
+     *         get the DataFileHandler, DatasetChecker, DsgNcFileHandler, and FerretConfig from here
+     * @param numThreads
+     *         number of preview plot jobs run at the same time
+     * @param maxQueued
+     *         maximum number of preview plot jobs waiting to be run
+     */
+    public PreviewPlotsHandler(String previewDsgsDirName, String previewPlotsDirName,
+            DashboardConfigStore configStore, int numThreads, int maxQueued) {
         dsgFilesDir = new File(previewDsgsDirName);
         if ( !dsgFilesDir.isDirectory() )
             throw new IllegalArgumentException(previewDsgsDirName + " is not a directory");
@@ -50,8 +111,21 @@ public class PreviewPlotsHandler {
         dataChecker = configStore.getDashboardDatasetChecker();
         knownMetadataTypes = configStore.getKnownMetadataTypes();
         knownDataFileTypes = configStore.getKnownDataFileTypes();
+        dsgHandler = configStore.getDsgNcFileHandler();
         ferretConfig = configStore.getFerretConfig();
         itsLogger = configStore.getLogger();
+
+        plotsJobs = new LinkedHashMap<String,PreviewPlotsJob>();
+        final AtomicInteger threadCount = new AtomicInteger(0);
+        plotsExecutor = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(maxQueued), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable job) {
+                Thread thread = new Thread(job, "PreviewPlots-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     /**
@@ -130,12 +204,193 @@ public class PreviewPlotsHandler {
      *         an error generating the preview data plots
      */
     public void createPreviewPlots(String datasetId, String timetag) throws IllegalArgumentException {
+        generatePreviewPlots(DashboardServerUtils.checkDatasetID(datasetId), timetag, null);
+    }
+
+    /**
+     * Queues the generation of the data preview plots for the given dataset, as done by
+     * {@link #createPreviewPlots(String, String)}, to be run by a pool of threads.  If a job for this dataset and
+     * time tag has already been submitted and not yet reported by {@link #waitForPreviewPlots(String, String, long)},
+     * another job is not submitted.  Any other job for this dataset still waiting to be run is cancelled.
+     *
+     * @param datasetId
+     *         ID of the dataset to preview
+     * @param timetag
+     *         time tag to add to the end of the names of the plots (before the filename extension)
+     *
+     * @return true if a new job was submitted; false if a job for this dataset and time tag already exists
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, or if too many preview plot jobs are waiting to be run
+     */
+    public boolean submitPreviewPlots(String datasetId, String timetag) throws IllegalArgumentException {
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        String jobKey = stdId + "_" + timetag;
+        PreviewPlotsJob job;
+        synchronized(plotsJobs) {
+            if ( plotsJobs.containsKey(jobKey) )
+                return false;
+            long now = System.currentTimeMillis();
+            Iterator<PreviewPlotsJob> iter = plotsJobs.values().iterator();
+            while ( iter.hasNext() ) {
+                PreviewPlotsJob other = iter.next();
+                if ( other.isFinished() ) {
+                    // Forget finished jobs no longer being watched
+                    if ( now - other.finishMillis > FINISHED_JOB_RETAIN_MILLIS )
+                        iter.remove();
+                }
+                else if ( stdId.equals(other.datasetId) && (other.startMillis == 0L) ) {
+                    // Superseded by this request
+                    other.cancel();
+                    plotsExecutor.remove(other);
+                }
+            }
+            job = new PreviewPlotsJob(stdId, timetag);
+            try {
+                plotsExecutor.execute(job);
+            } catch ( RejectedExecutionException ex ) {
+                numJobsRejected++;
+                throw new IllegalArgumentException("Too many data preview requests are waiting to be processed; " +
+                        "please try again later");
+            }
+            plotsJobs.put(jobKey, job);
+            numJobsSubmitted++;
+        }
+        if ( itsLogger != null )
+            itsLogger.debug("queued preview plots for " + stdId + " with time tag " + timetag + "; " +
+                    getJobStatistics());
+        return true;
+    }
+
+    /**
+     * Waits a limited amount of time for a preview plot job submitted using {@link #submitPreviewPlots(String,
+     * String)} to finish.  Once a finished job has been reported by this method, the job is forgotten.
+     *
+     * @param datasetId
+     *         ID of the dataset being previewed
+     * @param timetag
+     *         time tag of the preview plots
+     * @param maxWaitMillis
+     *         maximum number of milliseconds to wait for the job to finish
+     *
+     * @return true if the job has successfully finished or if there is no such job;
+     *         false if the job is still waiting or running
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid, if the job failed, or if the job was cancelled
+     */
+    public boolean waitForPreviewPlots(String datasetId, String timetag, long maxWaitMillis)
+            throws IllegalArgumentException {
+        String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        String jobKey = stdId + "_" + timetag;
+        PreviewPlotsJob job;
+        synchronized(plotsJobs) {
+            job = plotsJobs.get(jobKey);
+        }
+        if ( job == null )
+            return true;
+        try {
+            if ( !job.finished.await(maxWaitMillis, TimeUnit.MILLISECONDS) )
+                return false;
+        } catch ( InterruptedException ex ) {
+            return false;
+        }
+        synchronized(plotsJobs) {
+            plotsJobs.remove(jobKey);
+        }
+        if ( job.cancelled )
+            throw new IllegalArgumentException("Generation of the data preview plots for " + stdId +
+                    " was cancelled");
+        if ( job.errorMessage != null )
+            throw new IllegalArgumentException(job.errorMessage);
+        return true;
+    }
+
+    /**
+     * Cancels a preview plot job submitted using {@link #submitPreviewPlots(String, String)}.  A job waiting to be run
+     * is removed from the queue; a running job stops at the next step of the generation process (a running Ferret
+     * process is stopped).  The job is forgotten.
+     *
+     * @param datasetId
+     *         ID of the dataset being previewed
+     * @param timetag
+     *         time tag of the preview plots
+     *
+     * @return true if an unfinished job was cancelled
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid
+     */
+    public boolean cancelPreviewPlots(String datasetId, String timetag) throws IllegalArgumentException {
         String stdId = DashboardServerUtils.checkDatasetID(datasetId);
+        PreviewPlotsJob job;
+        synchronized(plotsJobs) {
+            job = plotsJobs.remove(stdId + "_" + timetag);
+            if ( (job == null) || job.isFinished() )
+                return false;
+            job.cancel();
+            plotsExecutor.remove(job);
+        }
+        if ( itsLogger != null )
+            itsLogger.info("cancelled preview plots for " + stdId + " with time tag " + timetag);
+        return true;
+    }
+
+    /**
+     * @return a summary of the number of preview plot jobs waiting, running, and finished, and the times spent
+     *         waiting to run and running
+     */
+    public String getJobStatistics() {
+        synchronized(plotsJobs) {
+            long numStarted = Math.max(numJobsFinished - numJobsCancelled, 1L);
+            return String.format("preview plot jobs: %d waiting, %d running, %d finished (%d failed, %d cancelled), " +
+                            "%d rejected; wait mean %.1fs max %.1fs; run mean %.1fs max %.1fs",
+                    plotsExecutor.getQueue().size(), plotsExecutor.getActiveCount(), numJobsFinished,
+                    numJobsFailed, numJobsCancelled, numJobsRejected,
+                    totalWaitMillis / (1000.0 * numStarted), maxWaitMillis / 1000.0,
+                    totalRunMillis / (1000.0 * numStarted), maxRunMillis / 1000.0);
+        }
+    }
+
+    /**
+     * Cancels all preview plot jobs and stops the threads running these jobs.
+     */
+    public void shutdown() {
+        synchronized(plotsJobs) {
+            for (PreviewPlotsJob job : plotsJobs.values()) {
+                job.cancel();
+            }
+            plotsJobs.clear();
+        }
+        plotsExecutor.shutdownNow();
+    }
+
+    /**
+     * Generates the data preview plots for a dataset.
+     *
+     * @param stdId
+     *         standardized ID of the dataset to preview
+     * @param timetag
+     *         time tag to add to the end of the names of the plots (before the filename extension)
+     * @param job
+     *         if not null, the job running this method; checked for cancellation between the steps of the process
+     *
+     * @throws IllegalArgumentException
+     *         see {@link #createPreviewPlots(String, String)}, or if the job is cancelled
+     */
+    private void generatePreviewPlots(String stdId, String timetag, PreviewPlotsJob job)
+            throws IllegalArgumentException {
+        String datasetId = stdId;
         if ( itsLogger != null )
             itsLogger.debug("reading data for " + stdId);
 
-        // Get the complete original cruise data
-        DashboardDatasetData dataset = dataHandler.getDatasetDataFromFiles(stdId, 0, -1);
+        // Get the dataset information; the original data is read and standardized in chunks
+        DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(stdId);
+        if ( dataset == null )
+            throw new IllegalArgumentException("Unknown dataset " + stdId);
+        DatasetDataReader dataReader = dataHandler.openDatasetDataReader(stdId);
+        if ( dataReader == null )
+            throw new IllegalArgumentException("No data saved for dataset " + stdId);
 
         if ( itsLogger != null )
             itsLogger.debug("standardizing data for " + stdId);
@@ -145,11 +400,23 @@ public class PreviewPlotsHandler {
         dsgMData.setDatasetId(stdId);
         dsgMData.setVersion(dataset.getVersion());
 
-        StdUserDataArray stdUserData = dataChecker.standardizeDataset(dataset, dsgMData);
+        StdUserDataArray stdUserData;
+        try {
+            stdUserData = dataChecker.standardizeDataset(dataset, dataReader, dsgMData);
+        } finally {
+            try {
+                dataReader.close();
+            } catch ( IOException ex ) {
+                // Ignore
+                ;
+            }
+        }
         if ( DashboardUtils.CHECK_STATUS_UNACCEPTABLE.equals(dataset.getDataCheckStatus()) )
             throw new IllegalArgumentException(stdId + ": unacceptable; check data check error messages " +
                     "(missing lon/lat/depth/time or uninterpretable values)");
 
+        checkCancelled(job);
+
         // Get the preview DSG filename, creating the parent directory if it does not exist
         DsgNcFile dsgFile = new DsgNcFile(getDatasetPreviewDsgDir(stdId),
                 stdId + "_" + timetag + ".nc");
@@ -157,27 +424,22 @@ public class PreviewPlotsHandler {
         if ( itsLogger != null )
             itsLogger.debug("generating preview DSG file " + dsgFile.getPath());
 
-        // Create the preview NetCDF DSG file
+        // Create the preview NetCDF DSG file with the computed variables
+        StdDataArray filedata;
         try {
-            dsgFile.createFromUserData(dsgMData, stdUserData, knownDataFileTypes);
+            filedata = new StdDataArray(stdUserData, knownDataFileTypes);
         } catch ( Exception ex ) {
-            dsgFile.delete();
             throw new IllegalArgumentException("Problems creating the preview DSG file for " +
                     datasetId + ": " + ex.getMessage(), ex);
         }
+        try {
+            dsgHandler.createDsgWithComputedData(dsgFile, dsgMData, filedata);
+        } catch ( IllegalArgumentException ex ) {
+            throw new IllegalArgumentException("Failure creating the preview DSG file for " +
+                    datasetId + ": " + ex.getMessage(), ex);
+        }
 
-        if ( itsLogger != null )
-            itsLogger.debug("adding computed variables to preview DSG file " + dsgFile.getPath());
-
-        // Call Ferret to add the computed variables to the preview DSG file
-        SocatTool tool = new SocatTool(ferretConfig);
-        ArrayList<String> scriptArgs = new ArrayList<String>(1);
-        scriptArgs.add(dsgFile.getPath());
-        tool.init(scriptArgs, stdId, FerretConfig.Action.COMPUTE);
-        tool.run();
-        if ( tool.hasError() )
-            throw new IllegalArgumentException("Failure adding computed variables to the preview DSG file for " +
-                    datasetId + ": " + tool.getErrorMessage());
+        checkCancelled(job);
 
         if ( itsLogger != null )
             itsLogger.debug("generating preview plots for " + dsgFile.getPath());
@@ -186,11 +448,18 @@ public class PreviewPlotsHandler {
         String cruisePlotsDirname = getDatasetPreviewPlotsDir(stdId).getPath();
 
         // Call Ferret to generate the plots from the preview DSG file
-        tool = new SocatTool(ferretConfig);
+        SocatTool tool = new SocatTool(ferretConfig);
+        ArrayList<String> scriptArgs = new ArrayList<String>(3);
+        scriptArgs.add(dsgFile.getPath());
         scriptArgs.add(cruisePlotsDirname);
         scriptArgs.add(timetag);
         tool.init(scriptArgs, stdId, FerretConfig.Action.PLOTS);
+        if ( job != null )
+            job.setTool(tool);
         tool.run();
+        if ( job != null )
+            job.setTool(null);
+        checkCancelled(job);
         if ( tool.hasError() )
             throw new IllegalArgumentException("Failure generating data preview plots for " +
                     datasetId + ": " + tool.getErrorMessage());
@@ -201,4 +470,110 @@ public class PreviewPlotsHandler {
         }
     }
 
+    /**
+     * @throws IllegalArgumentException
+     *         if the job is not null and has been cancelled
+     */
+    private static void checkCancelled(PreviewPlotsJob job) throws IllegalArgumentException {
+        if ( (job != null) && job.cancelled )
+            throw new IllegalArgumentException("Generation of the data preview plots for " + job.datasetId +
+                    " was cancelled");
+    }
+
+    /**
+     * A queued request to generate the preview plots for a dataset.
+     */
+    private class PreviewPlotsJob implements Runnable {
+        final String datasetId;
+        final String timetag;
+        final long submitMillis;
+        final CountDownLatch finished;
+        volatile long startMillis;
+        volatile long finishMillis;
+        volatile boolean cancelled;
+        volatile String errorMessage;
+        private SocatTool tool;
+
+        PreviewPlotsJob(String datasetId, String timetag) {
+            this.datasetId = datasetId;
+            this.timetag = timetag;
+            submitMillis = System.currentTimeMillis();
+            finished = new CountDownLatch(1);
+            startMillis = 0L;
+            finishMillis = 0L;
+            cancelled = false;
+            errorMessage = null;
+            tool = null;
+        }
+
+        boolean isFinished() {
+            return finished.getCount() == 0L;
+        }
+
+        synchronized void setTool(SocatTool tool) {
+            this.tool = tool;
+            if ( cancelled && (tool != null) )
+                tool.cancel();
+        }
+
+        /**
+         * Marks this job as cancelled, stopping any running Ferret process.  If this job has not started, it is
+         * marked as finished.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            if ( tool != null )
+                tool.cancel();
+            if ( startMillis == 0L )
+                finish();
+        }
+
+        @Override
+        public void run() {
+            synchronized(this) {
+                if ( cancelled )
+                    return;
+                startMillis = System.currentTimeMillis();
+            }
+            try {
+                generatePreviewPlots(datasetId, timetag, this);
+            } catch ( Exception ex ) {
+                errorMessage = ex.getMessage();
+                if ( (itsLogger != null) && !cancelled )
+                    itsLogger.error("preview plots for " + datasetId + " failed: " + errorMessage);
+            }
+            finish();
+        }
+
+        /**
+         * Records the finish of this job in the job statistics.
+         */
+        private void finish() {
+            if ( isFinished() )
+                return;
+            finishMillis = System.currentTimeMillis();
+            synchronized(plotsJobs) {
+                numJobsFinished++;
+                if ( cancelled ) {
+                    numJobsCancelled++;
+                }
+                else {
+                    if ( errorMessage != null )
+                        numJobsFailed++;
+                    long waitMillis = startMillis - submitMillis;
+                    totalWaitMillis += waitMillis;
+                    maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+                    long runMillis = finishMillis - startMillis;
+                    totalRunMillis += runMillis;
+                    maxRunMillis = Math.max(maxRunMillis, runMillis);
+                }
+            }
+            finished.countDown();
+            if ( (itsLogger != null) && !cancelled )
+                itsLogger.info("preview plots for " + datasetId + " with time tag " + timetag +
+                        " finished in " + (finishMillis - startMillis) + " ms after waiting " +
+                        (startMillis - submitMillis) + " ms; " + getJobStatistics());
+        }
+    }
+
 }
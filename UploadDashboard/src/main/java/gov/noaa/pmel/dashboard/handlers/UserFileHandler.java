@@ -24,6 +24,8 @@ import java.util.HashSet;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Handles storage and retrieval of user data in files.
@@ -39,6 +41,25 @@ public class UserFileHandler extends VersionedFileHandler {
 
     private KnownDataTypes userTypes;
     private HashMap<String,DataColumnType> defaultColNamesToTypes;
+    // Sorted indices of the latest dataset listings, by username
+    private ConcurrentHashMap<String,ListingIndex> datasetListIndices;
+    // Number of times any dataset listing was saved
+    private AtomicLong numListingSaves;
+
+    /**
+     * Sorted index over a dataset listing, with the counts of changes made before the listing was read
+     */
+    private static class ListingIndex {
+        final DatasetListIndex index;
+        final long numListingSaves;
+        final long numInfoChanges;
+
+        ListingIndex(DatasetListIndex index, long numListingSaves, long numInfoChanges) {
+            this.index = index;
+            this.numListingSaves = numListingSaves;
+            this.numInfoChanges = numInfoChanges;
+        }
+    }
 
     /**
      * Handles storage and retrieval of user data in files under the given user files directory.
@@ -65,6 +86,8 @@ public class UserFileHandler extends VersionedFileHandler {
         // Generate the default data column name to type map
         defaultColNamesToTypes = new HashMap<String,DataColumnType>();
         addDataColumnNames(defaultColNamesToTypes, new File(colNamesToTypesFilename));
+        datasetListIndices = new ConcurrentHashMap<String,ListingIndex>();
+        numListingSaves = new AtomicLong(0L);
     }
 
     /**
@@ -124,7 +147,7 @@ public class UserFileHandler extends VersionedFileHandler {
     }
 
     /**
-     * Gets the list of datasets for a user
+     * Gets the list of datasets for a user.  The data QC flags are not assigned in the datasets of this list.
      *
      * @param username
      *         get cruises for this user
@@ -181,7 +204,7 @@ public class UserFileHandler extends VersionedFileHandler {
         datasetList.setImageExtension(configStore.getImageExtension());
         for (String datasetId : dataIdsSet) {
             // Create the DashboardDataset from the info file
-            DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(datasetId);
+            DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(datasetId, false);
             if ( dataset == null ) {
                 // Dataset no longer exists - remove this ID from the saved list
                 needsCommit = true;
@@ -205,6 +228,44 @@ public class UserFileHandler extends VersionedFileHandler {
         return datasetList;
     }
 
+    /**
+     * Gets the sorted index over the list of datasets for a user.  The index of the previous call for this user
+     * is reused, without reading the list of datasets, if no dataset listing has been saved and no dataset
+     * information has changed (as reported by the {@link DatasetInfoRegistry} of the data file handler) since
+     * that index was created.
+     *
+     * @param username
+     *         get the index for this user
+     *
+     * @return the sorted index over the list of datasets for the user
+     *
+     * @throws IllegalArgumentException
+     *         if username is invalid, or if there was a problem reading the dataset listing (see
+     *         {@link #getDatasetListing(String)})
+     */
+    public DatasetListIndex getDatasetListIndex(String username) throws IllegalArgumentException {
+        String cleanUsername = DashboardServerUtils.cleanUsername(username);
+        if ( cleanUsername.isEmpty() )
+            throw new IllegalArgumentException("invalid username");
+        DatasetInfoRegistry infoRegistry;
+        try {
+            infoRegistry = DashboardConfigStore.get(false).getDataFileHandler().getDatasetInfoRegistry();
+        } catch ( Exception ex ) {
+            throw new IllegalArgumentException("Unexpected failure to get dashboard settings");
+        }
+        // Get the counts before reading the listing, so any change made while reading is detected next time
+        long numSaves = numListingSaves.get();
+        long numChanges = infoRegistry.getNumChanges();
+        ListingIndex listingIndex = datasetListIndices.get(cleanUsername);
+        if ( (listingIndex != null) && (listingIndex.numListingSaves == numSaves) &&
+                (listingIndex.numInfoChanges == numChanges) )
+            return listingIndex.index;
+        DashboardDatasetList datasetList = getDatasetListing(cleanUsername);
+        listingIndex = new ListingIndex(new DatasetListIndex(datasetList), numSaves, numChanges);
+        datasetListIndices.put(cleanUsername, listingIndex);
+        return listingIndex.index;
+    }
+
     /**
      * Saves the list of datasets for a user
      *
@@ -236,6 +297,9 @@ public class UserFileHandler extends VersionedFileHandler {
         } catch ( Exception ex ) {
             throw new IllegalArgumentException("Problems saving the dataset listing for " +
                     username + ": " + ex.getMessage());
+        } finally {
+            // Any sorted index of a dataset listing is now obsolete
+            numListingSaves.incrementAndGet();
         }
         if ( (message == null) || message.trim().isEmpty() )
             return;
@@ -321,7 +385,7 @@ public class UserFileHandler extends VersionedFileHandler {
         boolean viewableFound = false;
         for (String datasetId : matchingIds) {
             // Create a dataset entry for this data
-            DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(datasetId);
+            DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(datasetId, false);
             if ( dataset == null )
                 throw new IllegalArgumentException("Unexpected error: dataset " +
                         datasetId + " does not exist");
@@ -372,7 +436,7 @@ public class UserFileHandler extends VersionedFileHandler {
         boolean needsCommit = false;
         for (String datasetId : idsSet) {
             // Create a dataset entry for this data
-            DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(datasetId);
+            DashboardDataset dataset = dataHandler.getDatasetFromInfoFile(datasetId, false);
             if ( dataset == null )
                 throw new IllegalArgumentException("dataset " + datasetId + " does not exist");
             // Add or replace this dataset entry in the dataset list
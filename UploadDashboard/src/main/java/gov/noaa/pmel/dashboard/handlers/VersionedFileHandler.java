@@ -1,8 +1,12 @@
 package gov.noaa.pmel.dashboard.handlers;
 
+import org.apache.logging.log4j.Logger;
 import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.wc.SVNClientManager;
+import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.core.wc.SVNStatus;
 import org.tmatesoft.svn.core.wc.SVNStatusType;
 import org.tmatesoft.svn.core.wc.SVNWCUtil;
@@ -11,27 +15,80 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.util.ArrayDeque;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 /**
  * Abstract file handler for dealing with subversion version control
  * of the files contained within the directory.
+ * <p>
+ * Changes are queued and committed by a separate thread once every commit interval.  All the changes queued under
+ * the same working copy root are committed together in a single commit.  Commits failing because of a locked
+ * working copy or an out-of-date file are retried a few times, waiting longer before each retry.  If a combined
+ * commit still fails, each change is committed on its own.  Changes that still cannot be committed are written as
+ * svn commands to {@value #SVN_COMMIT_COMMANDS_FILENAME} in the working copy directory to be dealt with manually.
  *
  * @author Karl Smith
  */
 public class VersionedFileHandler {
 
-    // Check every 15 seconds
-    private static final long MILLISECONDS_CHECK_INTERVAL = 15 * 1000L;
-    // Keep working while less than 3 seconds have passed
-    private static final long MILLISECONDS_WORK_INTERVAL = 3 * 1000L;
+    // Commit every 15 seconds by default
+    private static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 15 * 1000L;
+    // Maximum number of attempts at a commit
+    private static final int MAX_COMMIT_ATTEMPTS = 5;
+    // Wait half a second before the first retry of a commit; doubled before each further retry
+    private static final long FIRST_RETRY_WAIT_MILLIS = 500L;
+    // Maximum number of change messages listed in the message of a combined commit
+    private static final int MAX_LISTED_COMMIT_MESSAGES = 25;
+    // File to write commit commands to - when the commit cannot be performed
+    private static final String SVN_COMMIT_COMMANDS_FILENAME = "svn_commit_commands.sh";
+    // Maximum time to wait on shutdown for the commit thread to commit the remaining changes
+    private static final long SHUTDOWN_WAIT_MILLIS = 60 * 1000L;
+
+    // Changes to working copies made for requests (adds, moves, deletes), by any handler, are synchronized
+    // on this object.  The commit threads do not hold this lock while committing and updating; a working copy
+    // found locked by a commit thread is retried.
+    private static final Object WORKING_COPY_LOCK = new Object();
+
+    /**
+     * Changes of a working copy to be committed
+     */
+    private static class CommitRequest {
+        final File[] commitFiles;
+        final File parent;
+        final String message;
+        final long queuedMillis;
+
+        CommitRequest(File[] commitFiles, File parent, String message) {
+            this.commitFiles = commitFiles;
+            this.parent = parent;
+            this.message = message;
+            queuedMillis = System.currentTimeMillis();
+        }
+    }
 
     File filesDir;
     private final SVNClientManager svnManager;
-    private final ArrayDeque<File[]> filesToCommit;
-    private final ArrayDeque<File> parentToUpdate;
-    private final ArrayDeque<String> commitMessage;
+    private final File commandsFile;
+    // Changes waiting to be committed; synchronized on itself, which also guards the following fields
+    private final ArrayDeque<CommitRequest> commitQueue;
+    private long commitIntervalMillis;
+    private boolean shuttingDown;
+    private long numCommits;
+    private long numFailedCommits;
+    private long numCommitRetries;
+    private long numCommittedRequests;
+    private long totalLatencyMillis;
+    private long maxLatencyMillis;
+    // Only one thread at a time commits the queued changes
+    private final Object commitSyncObject;
+    private Thread commitThread;
+    private volatile Logger itsLogger;
 
     /**
      * Handles version control for files under the given working copy directory.
@@ -53,12 +110,16 @@ public class VersionedFileHandler {
         // Check that this is a directory under version control
         if ( !filesDir.isDirectory() )
             throw new IllegalArgumentException(filesDirName + " is not a directory");
+        commandsFile = new File(filesDir, SVN_COMMIT_COMMANDS_FILENAME);
+        commitIntervalMillis = DEFAULT_COMMIT_INTERVAL_MILLIS;
+        shuttingDown = false;
+        commitSyncObject = new Object();
+        itsLogger = null;
         if ( svnUsername == null ) {
             // Ordinary directory - not actually version-controlled
             svnManager = null;
-            filesToCommit = null;
-            parentToUpdate = null;
-            commitMessage = null;
+            commitQueue = null;
+            commitThread = null;
         }
         else {
             // Version-controlled directory
@@ -67,13 +128,19 @@ public class VersionedFileHandler {
             // Create the version control manager with the provided credentials
             svnManager = SVNClientManager.newInstance(
                     SVNWCUtil.createDefaultOptions(true), svnUsername, svnPassword);
-            filesToCommit = new ArrayDeque<File[]>();
-            parentToUpdate = new ArrayDeque<File>();
-            commitMessage = new ArrayDeque<String>();
+            commitQueue = new ArrayDeque<CommitRequest>();
             watchCommitQueue();
         }
     }
 
+    /**
+     * @param logger
+     *         log problems committing changes here; can be null
+     */
+    public void setLogger(Logger logger) {
+        itsLogger = logger;
+    }
+
     /**
      * Adds files to queue of files to be committed.
      *
@@ -85,90 +152,431 @@ public class VersionedFileHandler {
      *         message to accompany the commit
      */
     private void addFilesToCommit(File[] commitFiles, File parent, String message) {
-        if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
+        if ( commitQueue == null )
             throw new NullPointerException(
                     "addFilesToCommit called for VersionedFileHandler that is not version controlled");
-        synchronized(filesToCommit) {
-            filesToCommit.addLast(commitFiles);
-            parentToUpdate.addLast(parent);
-            commitMessage.addLast(message);
+        synchronized(commitQueue) {
+            commitQueue.addLast(new CommitRequest(commitFiles, parent, message));
         }
     }
 
-    // File to write commit command to - when not actually performing the commits
-    private static final String SVN_COMMIT_COMMANDS_FILENAME = "svn_commit_commands.sh";
-
     /**
-     * Periodically checks the queue of files to be committed, and commits any files present.  Stops when filesDir is
-     * set to null.
+     * Starts the thread which commits the queued changes once every commit interval.
+     * After {@link #shutdown()} is called, the thread commits any remaining changes and exits.
      */
     private void watchCommitQueue() {
-        if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
+        if ( commitQueue == null )
             throw new NullPointerException(
                     "watchCommitQueue called for VersionedFileHandler that is not version controlled");
-        (new Timer()).schedule(new TimerTask() {
+        commitThread = new Thread(new Runnable() {
             @Override
             public void run() {
-                File[] commitFiles;
-                File parent;
-                String message;
-                long startTime = System.currentTimeMillis();
-                do {
-                    synchronized(filesToCommit) {
-                        commitFiles = filesToCommit.pollFirst();
-                        parent = parentToUpdate.pollFirst();
-                        message = commitMessage.pollFirst();
-                    }
-                    if ( commitFiles != null ) {
-                        if ( (parent != null) && (message != null) ) {
+                for (; ; ) {
+                    synchronized(commitQueue) {
+                        if ( !shuttingDown ) {
                             try {
-                                /*
-                                 * TODO: still having issues with the lock still being present
-                                 * when committing and adding files to be committed
-                                 *
-                                // Use SVNDepth.EMPTY so exactly the files/directory specified are committed
-                                // and not any other updated files under any directories specified
-                                svnManager.getCommitClient().doCommit(commitFiles, false,
-                                        message, null, null, false, false, SVNDepth.EMPTY);
-                                // Update the parent directory
-                                svnManager.getUpdateClient().doUpdate(parent,
-                                        SVNRevision.HEAD, SVNDepth.INFINITY, false, false);
-                                */
-                                // Or just write the svn commands to file to be dealt with manually
-                                PrintWriter cmdsWriter = new PrintWriter(new FileWriter(
-                                        new File(filesDir, SVN_COMMIT_COMMANDS_FILENAME), true));
-                                // Need to fix issues with single quotes in message
-                                cmdsWriter.print("svn commit --depth=empty -m '" + message + "'");
-                                for (File svnfile : commitFiles) {
-                                    cmdsWriter.print(" " + svnfile.getPath());
-                                }
-                                cmdsWriter.println();
-                                cmdsWriter.println("svn update --depth=infinity " + parent.getPath());
-                                cmdsWriter.close();
-                                //
-                            } catch ( Exception ex ) {
-                                // Should not happen, but nothing can be done about it if it does
+                                commitQueue.wait(commitIntervalMillis);
+                            } catch ( InterruptedException ex ) {
+                                shuttingDown = true;
                             }
                         }
-                        if ( (System.currentTimeMillis() - startTime) > MILLISECONDS_WORK_INTERVAL )
-                            break;
                     }
-                } while ( commitFiles != null );
-                // Check if this VersionedFileHander is no longer needed
-                if ( (filesDir == null) && (commitFiles == null) ) {
-                    cancel();
-                    return;
+                    commitQueuedFiles();
+                    synchronized(commitQueue) {
+                        if ( shuttingDown && commitQueue.isEmpty() )
+                            return;
+                    }
+                }
+            }
+        }, "VersionedFileHandler-" + filesDir.getName());
+        commitThread.setDaemon(true);
+        commitThread.start();
+    }
+
+    /**
+     * Commits all the changes currently queued, with one commit for each working copy root.
+     * This is normally called by the commit thread but may be called to commit the changes immediately.
+     */
+    public void commitQueuedFiles() {
+        if ( commitQueue == null )
+            return;
+        synchronized(commitSyncObject) {
+            // Take all the queued requests, grouped by working copy root
+            LinkedHashMap<File,ArrayList<CommitRequest>> rootRequests = new LinkedHashMap<File,ArrayList<CommitRequest>>();
+            for (; ; ) {
+                CommitRequest request;
+                synchronized(commitQueue) {
+                    request = commitQueue.pollFirst();
+                }
+                if ( request == null )
+                    break;
+                File root;
+                try {
+                    root = SVNWCUtil.getWorkingCopyRoot(request.parent, true);
+                } catch ( Exception ex ) {
+                    root = null;
+                }
+                if ( root == null )
+                    root = request.parent;
+                ArrayList<CommitRequest> requests = rootRequests.get(root);
+                if ( requests == null ) {
+                    requests = new ArrayList<CommitRequest>();
+                    rootRequests.put(root, requests);
+                }
+                requests.add(request);
+            }
+            for (ArrayList<CommitRequest> requests : rootRequests.values()) {
+                commitRequests(requests);
+            }
+        }
+    }
+
+    /**
+     * Commits the changes of the given requests, all under the same working copy root, in a single commit.
+     * If this commit fails, each request is committed on its own, and the svn commands for the changes of any
+     * request that still cannot be committed are written to the commands file.
+     */
+    private void commitRequests(ArrayList<CommitRequest> requests) {
+        if ( tryCommitRequests(requests) )
+            return;
+        if ( requests.size() == 1 ) {
+            writeCommitCommands(requests);
+            return;
+        }
+        if ( itsLogger != null )
+            itsLogger.warn("Committing the " + requests.size() + " changes under " + requests.get(0).parent +
+                    " one at a time");
+        for (CommitRequest request : requests) {
+            List<CommitRequest> single = Collections.singletonList(request);
+            if ( !tryCommitRequests(single) )
+                writeCommitCommands(single);
+        }
+    }
+
+    /**
+     * Commits the changes of the given requests, all under the same working copy root, in a single commit,
+     * retrying if the working copy is locked or a file is out of date.
+     *
+     * @return true if the commit was successful
+     */
+    private boolean tryCommitRequests(List<CommitRequest> requests) {
+        // Use a sorted set so each file or directory is only given once, with parents before children
+        TreeSet<File> fileSet = new TreeSet<File>();
+        TreeSet<File> parentSet = new TreeSet<File>();
+        LinkedHashSet<String> messages = new LinkedHashSet<String>();
+        for (CommitRequest request : requests) {
+            for (File commitFile : request.commitFiles) {
+                fileSet.add(commitFile);
+            }
+            parentSet.add(request.parent);
+            messages.add(request.message);
+        }
+        File[] commitFiles = fileSet.toArray(new File[fileSet.size()]);
+        File[] parents = parentSet.toArray(new File[parentSet.size()]);
+        String message = combineMessages(messages);
+
+        long retryWaitMillis = FIRST_RETRY_WAIT_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Use SVNDepth.EMPTY so exactly the files/directory specified are committed
+                // and not any other updated files under any directories specified
+                svnManager.getCommitClient().doCommit(commitFiles, false,
+                        message, null, null, false, false, SVNDepth.EMPTY);
+                // Update the parent directories
+                try {
+                    svnManager.getUpdateClient().doUpdate(parents,
+                            SVNRevision.HEAD, SVNDepth.INFINITY, false, false);
+                } catch ( SVNException ex ) {
+                    // The changes are committed; the next update will bring the working copy up to date
+                    if ( itsLogger != null )
+                        itsLogger.info("Unable to update " + parentSet + " after a commit: " + ex.getMessage());
+                }
+                long now = System.currentTimeMillis();
+                synchronized(commitQueue) {
+                    numCommits++;
+                    for (CommitRequest request : requests) {
+                        long latency = now - request.queuedMillis;
+                        numCommittedRequests++;
+                        totalLatencyMillis += latency;
+                        if ( latency > maxLatencyMillis )
+                            maxLatencyMillis = latency;
+                    }
+                }
+                return true;
+            } catch ( SVNException ex ) {
+                if ( (attempt >= MAX_COMMIT_ATTEMPTS) || !isRetryable(ex) ||
+                        Thread.currentThread().isInterrupted() ) {
+                    if ( itsLogger != null )
+                        itsLogger.warn("Commit of " + fileSet + " failed: " + ex.getMessage());
+                    break;
+                }
+            } catch ( Exception ex ) {
+                // Unexpected problem - do not retry
+                if ( itsLogger != null )
+                    itsLogger.error("Unexpected problem committing " + fileSet, ex);
+                break;
+            }
+            synchronized(commitQueue) {
+                numCommitRetries++;
+            }
+            try {
+                Thread.sleep(retryWaitMillis);
+            } catch ( InterruptedException ex ) {
+                // Shutting down; leave the interrupt set so further commits are not retried
+                Thread.currentThread().interrupt();
+                break;
+            }
+            retryWaitMillis *= 2;
+            // An out-of-date file needs an update before it can be committed
+            try {
+                svnManager.getUpdateClient().doUpdate(parents,
+                        SVNRevision.HEAD, SVNDepth.INFINITY, false, false);
+            } catch ( Exception ex ) {
+                // Probably still locked; try the commit again anyway
+                if ( itsLogger != null )
+                    itsLogger.debug("Unable to update " + parentSet + " before retrying a commit: " +
+                            ex.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the svn commands for the changes of the given requests to the commands file,
+     * to be dealt with manually.
+     */
+    private void writeCommitCommands(List<CommitRequest> requests) {
+        synchronized(commitQueue) {
+            numFailedCommits++;
+        }
+        try {
+            PrintWriter cmdsWriter = new PrintWriter(new FileWriter(commandsFile, true));
+            try {
+                for (CommitRequest request : requests) {
+                    cmdsWriter.print("svn commit --depth=empty -m '" +
+                            request.message.replace("'", "'\\''") + "'");
+                    for (File svnfile : request.commitFiles) {
+                        cmdsWriter.print(" " + svnfile.getPath());
+                    }
+                    cmdsWriter.println();
+                    cmdsWriter.println("svn update --depth=infinity " + request.parent.getPath());
                 }
+            } finally {
+                cmdsWriter.close();
+            }
+        } catch ( Exception ex ) {
+            // Should not happen, but nothing more can be done about it if it does
+            if ( itsLogger != null )
+                itsLogger.error("Unable to write the svn commands for uncommitted changes to " +
+                        commandsFile.getPath(), ex);
+            return;
+        }
+        if ( itsLogger != null )
+            itsLogger.error("Unable to commit " + requests.size() + " change(s); svn commands written to " +
+                    commandsFile.getPath());
+    }
+
+    /**
+     * @return whether the commit failure might succeed if tried again: a locked working copy or repository,
+     *         or an out-of-date file or directory
+     */
+    private static boolean isRetryable(SVNException ex) {
+        for (SVNErrorMessage errMsg = ex.getErrorMessage(); errMsg != null; errMsg = errMsg.getChildErrorMessage()) {
+            SVNErrorCode code = errMsg.getErrorCode();
+            if ( SVNErrorCode.WC_LOCKED.equals(code) ||
+                    SVNErrorCode.SQLITE_BUSY.equals(code) ||
+                    SVNErrorCode.REPOS_LOCKED.equals(code) ||
+                    SVNErrorCode.WC_NOT_UP_TO_DATE.equals(code) ||
+                    SVNErrorCode.FS_TXN_OUT_OF_DATE.equals(code) ||
+                    SVNErrorCode.FS_OUT_OF_DATE.equals(code) ||
+                    SVNErrorCode.RA_OUT_OF_DATE.equals(code) ||
+                    SVNErrorCode.FS_CONFLICT.equals(code) )
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the commit message for a commit of changes with the given messages
+     */
+    private static String combineMessages(LinkedHashSet<String> messages) {
+        if ( messages.size() == 1 )
+            return messages.iterator().next();
+        StringBuilder builder = new StringBuilder();
+        builder.append("Commit of ");
+        builder.append(messages.size());
+        builder.append(" changes:");
+        int count = 0;
+        for (String msg : messages) {
+            if ( count >= MAX_LISTED_COMMIT_MESSAGES ) {
+                builder.append("\n... and ");
+                builder.append(messages.size() - count);
+                builder.append(" more");
+                break;
             }
-        }, MILLISECONDS_CHECK_INTERVAL, MILLISECONDS_CHECK_INTERVAL);
+            builder.append("\n");
+            builder.append(msg);
+            count++;
+        }
+        return builder.toString();
     }
 
     /**
      * Marks that this file handler should perform any outstanding commits and terminate the thread checking for
-     * commits.
+     * commits.  Waits up to a minute for the outstanding commits to finish, then interrupts the commit thread so
+     * any remaining commits are tried once without retries.
      */
     public void shutdown() {
-        filesDir = null;
+        if ( commitQueue == null )
+            return;
+        synchronized(commitQueue) {
+            shuttingDown = true;
+            commitQueue.notifyAll();
+        }
+        try {
+            commitThread.join(SHUTDOWN_WAIT_MILLIS);
+        } catch ( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+        }
+        if ( commitThread.isAlive() ) {
+            if ( itsLogger != null )
+                itsLogger.warn("Interrupting the commits of the remaining changes under " + filesDir.getPath());
+            commitThread.interrupt();
+        }
+    }
+
+    /**
+     * @param intervalMillis
+     *         milliseconds between commits of the queued changes
+     *
+     * @throws IllegalArgumentException
+     *         if the interval is not positive
+     */
+    public void setCommitInterval(long intervalMillis) throws IllegalArgumentException {
+        if ( intervalMillis <= 0L )
+            throw new IllegalArgumentException("invalid commit interval: " + intervalMillis);
+        if ( commitQueue == null )
+            return;
+        synchronized(commitQueue) {
+            commitIntervalMillis = intervalMillis;
+        }
+    }
+
+    /**
+     * @return the number of changes waiting to be committed
+     */
+    public int getNumQueuedCommits() {
+        if ( commitQueue == null )
+            return 0;
+        synchronized(commitQueue) {
+            return commitQueue.size();
+        }
+    }
+
+    /**
+     * @return the number of successful commits; each commit may contain a number of changes
+     */
+    public long getNumCommits() {
+        if ( commitQueue == null )
+            return 0L;
+        synchronized(commitQueue) {
+            return numCommits;
+        }
+    }
+
+    /**
+     * @return the number of commits that failed, whose changes were written to the commands file
+     */
+    public long getNumFailedCommits() {
+        if ( commitQueue == null )
+            return 0L;
+        synchronized(commitQueue) {
+            return numFailedCommits;
+        }
+    }
+
+    /**
+     * @return the number of times a commit was retried
+     */
+    public long getNumCommitRetries() {
+        if ( commitQueue == null )
+            return 0L;
+        synchronized(commitQueue) {
+            return numCommitRetries;
+        }
+    }
+
+    /**
+     * @return the mean number of milliseconds from queueing a change to its successful commit;
+     *         zero if no changes have been committed
+     */
+    public long getMeanCommitLatency() {
+        if ( commitQueue == null )
+            return 0L;
+        synchronized(commitQueue) {
+            if ( numCommittedRequests == 0L )
+                return 0L;
+            return totalLatencyMillis / numCommittedRequests;
+        }
+    }
+
+    /**
+     * @return the maximum number of milliseconds from queueing a change to its successful commit
+     */
+    public long getMaxCommitLatency() {
+        if ( commitQueue == null )
+            return 0L;
+        synchronized(commitQueue) {
+            return maxLatencyMillis;
+        }
+    }
+
+    /**
+     * A change to a working copy made for a request
+     */
+    private interface WorkingCopyChange {
+        void run() throws SVNException;
+    }
+
+    /**
+     * Makes a change to a working copy while holding the working copy lock.  If the working copy is locked by
+     * a commit in progress, the change is retried a few times, waiting longer before each retry.
+     *
+     * @throws SVNException
+     *         if the change throws one
+     */
+    private static void changeWorkingCopy(WorkingCopyChange change) throws SVNException {
+        long retryWaitMillis = FIRST_RETRY_WAIT_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                synchronized(WORKING_COPY_LOCK) {
+                    change.run();
+                }
+                return;
+            } catch ( SVNException ex ) {
+                if ( (attempt >= MAX_COMMIT_ATTEMPTS) || !isWorkingCopyLocked(ex) )
+                    throw ex;
+                try {
+                    Thread.sleep(retryWaitMillis);
+                } catch ( InterruptedException iex ) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+            retryWaitMillis *= 2;
+        }
+    }
+
+    /**
+     * @return whether the failure was because the working copy is locked by another operation
+     */
+    private static boolean isWorkingCopyLocked(SVNException ex) {
+        for (SVNErrorMessage errMsg = ex.getErrorMessage(); errMsg != null; errMsg = errMsg.getChildErrorMessage()) {
+            SVNErrorCode code = errMsg.getErrorCode();
+            if ( SVNErrorCode.WC_LOCKED.equals(code) || SVNErrorCode.SQLITE_BUSY.equals(code) )
+                return true;
+        }
+        return false;
     }
 
     /**
@@ -183,63 +591,69 @@ public class VersionedFileHandler {
      * @throws SVNException
      *         if the version control engine throws one
      */
-    void commitVersion(File wcfile, String message) throws SVNException {
-        if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
+    void commitVersion(final File wcfile, final String message) throws SVNException {
+        if ( commitQueue == null )
             throw new NullPointerException(
                     "commitVersion called for VersionedFileHandler that is not version controlled");
-        boolean needsAdd = false;
-        try {
-            SVNStatus status = svnManager.getStatusClient()
-                                         .doStatus(wcfile, false);
-            SVNStatusType contentsStatus = status.getContentsStatus();
-            if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
-                    (contentsStatus == SVNStatusType.STATUS_DELETED) ||
-                    (contentsStatus == SVNStatusType.STATUS_NONE) )
-                needsAdd = true;
-        } catch ( SVNException ex ) {
-            // At this point, assume the parent directory is not version controlled
-            needsAdd = true;
-        }
+        changeWorkingCopy(new WorkingCopyChange() {
+            @Override
+            public void run() throws SVNException {
+                boolean needsAdd = false;
+                try {
+                    SVNStatus status = svnManager.getStatusClient()
+                                                 .doStatus(wcfile, false);
+                    SVNStatusType contentsStatus = status.getContentsStatus();
+                    if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
+                            (contentsStatus == SVNStatusType.STATUS_DELETED) ||
+                            (contentsStatus == SVNStatusType.STATUS_NONE) )
+                        needsAdd = true;
+                } catch ( SVNException ex ) {
+                    // At this point, assume the parent directory is not version controlled
+                    needsAdd = true;
+                }
 
-        if ( needsAdd ) {
-            // Add the file (force), and any unversioned directories in its path, to version control
-            svnManager.getWCClient()
-                      .doAdd(wcfile, true, false, false, SVNDepth.EMPTY, false, true);
-        }
+                if ( needsAdd ) {
+                    // Add the file (force), and any unversioned directories in its path, to version control
+                    svnManager.getWCClient()
+                              .doAdd(wcfile, true, false, false, SVNDepth.EMPTY, false, true);
+                }
 
-        // Get the list of directories, as well as the file, that need to be committed
-        ArrayDeque<File> commitFiles = new ArrayDeque<File>();
-        commitFiles.push(wcfile);
-        // Work down the directory tree until we fall out
-        // or find an unchanged directory
-        File parent = wcfile;
-        for (File currFile = wcfile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
-            SVNStatus status;
-            try {
-                status = svnManager.getStatusClient().doStatus(currFile, false);
-            } catch ( SVNException ex ) {
-                // Probably outside the working copy
-                break;
-            }
-            SVNStatusType statType = status.getContentsStatus();
-            if ( (statType == SVNStatusType.STATUS_ADDED) ||
-                    (statType == SVNStatusType.STATUS_MODIFIED) ||
-                    (statType == SVNStatusType.STATUS_REPLACED) ) {
-                commitFiles.push(currFile);
-                parent = currFile;
-            }
-            else if ( statType == SVNStatusType.STATUS_NORMAL ) {
-                // An unmodified directory under version control
-                parent = currFile;
-                break;
-            }
-            else {
-                // A directory outside version control
-                break;
+                // Get the list of directories, as well as the file, that need to be committed
+                ArrayDeque<File> commitFiles = new ArrayDeque<File>();
+                commitFiles.push(wcfile);
+                // Work down the directory tree until we fall out
+                // or find an unchanged directory
+                File parent = wcfile;
+                for (File currFile = wcfile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
+                    SVNStatus status;
+                    try {
+                        status = svnManager.getStatusClient().doStatus(currFile, false);
+                    } catch ( SVNException ex ) {
+                        // Probably outside the working copy
+                        break;
+                    }
+                    // The contents status of an added directory is normal, so use the node status
+                    SVNStatusType statType = status.getNodeStatus();
+                    if ( (statType == SVNStatusType.STATUS_ADDED) ||
+                            (statType == SVNStatusType.STATUS_MODIFIED) ||
+                            (statType == SVNStatusType.STATUS_REPLACED) ) {
+                        commitFiles.push(currFile);
+                        parent = currFile;
+                    }
+                    else if ( statType == SVNStatusType.STATUS_NORMAL ) {
+                        // An unmodified directory under version control
+                        parent = currFile;
+                        break;
+                    }
+                    else {
+                        // A directory outside version control
+                        break;
+                    }
+                }
+                // schedule committing the changes
+                addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
             }
-        }
-        // schedule committing the changes
-        addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
+        });
     }
 
     /**
@@ -256,66 +670,72 @@ public class VersionedFileHandler {
      * @throws SVNException
      *         if the version control engine throws one
      */
-    void moveVersionedFile(File oldWcFile, File newWcFile, String message) throws SVNException {
-        if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
+    void moveVersionedFile(final File oldWcFile, final File newWcFile, final String message) throws SVNException {
+        if ( commitQueue == null )
             throw new NullPointerException(
                     "moveVersionedFile called for VersionedFileHandler that is not version controlled");
-        // Make sure the parent directory of the new file is under version control
-        File parent = newWcFile.getParentFile();
-        boolean needsAdd = false;
-        try {
-            SVNStatus status = svnManager.getStatusClient()
-                                         .doStatus(parent, false);
-            SVNStatusType contentsStatus = status.getContentsStatus();
-            if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
-                    (contentsStatus == SVNStatusType.STATUS_DELETED) ||
-                    (contentsStatus == SVNStatusType.STATUS_NONE) )
-                needsAdd = true;
-        } catch ( SVNException ex ) {
-            // At this point, assume the parent directory is not version controlled
-            needsAdd = true;
-        }
-        if ( needsAdd ) {
-            // Add the file (force), and any unversioned directories in its path, to version control
-            svnManager.getWCClient()
-                      .doAdd(parent, true, false, false, SVNDepth.EMPTY, false, true);
-        }
-        // Move the old file to the new location
-        svnManager.getMoveClient().doMove(oldWcFile, newWcFile);
-
-        // Get the list of directories, as well as the file, that need to be committed
-        ArrayDeque<File> commitFiles = new ArrayDeque<File>();
-        commitFiles.push(oldWcFile);
-        commitFiles.push(newWcFile);
-        // Work down the directory tree until we fall out
-        // or find an unchanged directory
-        for (File currFile = newWcFile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
-            SVNStatus status;
-            try {
-                status = svnManager.getStatusClient().doStatus(currFile, false);
-            } catch ( SVNException ex ) {
-                // Probably outside the working copy
-                break;
-            }
-            SVNStatusType statType = status.getContentsStatus();
-            if ( (statType == SVNStatusType.STATUS_ADDED) ||
-                    (statType == SVNStatusType.STATUS_MODIFIED) ||
-                    (statType == SVNStatusType.STATUS_REPLACED) ) {
-                commitFiles.push(currFile);
-                parent = currFile;
-            }
-            else if ( statType == SVNStatusType.STATUS_NORMAL ) {
-                // An unmodified directory under version control
-                parent = currFile;
-                break;
-            }
-            else {
-                // A directory outside version control
-                break;
+        changeWorkingCopy(new WorkingCopyChange() {
+            @Override
+            public void run() throws SVNException {
+                // Make sure the parent directory of the new file is under version control
+                File parent = newWcFile.getParentFile();
+                boolean needsAdd = false;
+                try {
+                    SVNStatus status = svnManager.getStatusClient()
+                                                 .doStatus(parent, false);
+                    SVNStatusType contentsStatus = status.getContentsStatus();
+                    if ( (contentsStatus == SVNStatusType.STATUS_UNVERSIONED) ||
+                            (contentsStatus == SVNStatusType.STATUS_DELETED) ||
+                            (contentsStatus == SVNStatusType.STATUS_NONE) )
+                        needsAdd = true;
+                } catch ( SVNException ex ) {
+                    // At this point, assume the parent directory is not version controlled
+                    needsAdd = true;
+                }
+                if ( needsAdd ) {
+                    // Add the file (force), and any unversioned directories in its path, to version control
+                    svnManager.getWCClient()
+                              .doAdd(parent, true, false, false, SVNDepth.EMPTY, false, true);
+                }
+                // Move the old file to the new location
+                svnManager.getMoveClient().doMove(oldWcFile, newWcFile);
+
+                // Get the list of directories, as well as the file, that need to be committed
+                ArrayDeque<File> commitFiles = new ArrayDeque<File>();
+                commitFiles.push(oldWcFile);
+                commitFiles.push(newWcFile);
+                // Work down the directory tree until we fall out
+                // or find an unchanged directory
+                for (File currFile = newWcFile.getParentFile(); currFile != null; currFile = currFile.getParentFile()) {
+                    SVNStatus status;
+                    try {
+                        status = svnManager.getStatusClient().doStatus(currFile, false);
+                    } catch ( SVNException ex ) {
+                        // Probably outside the working copy
+                        break;
+                    }
+                    // The contents status of an added directory is normal, so use the node status
+                    SVNStatusType statType = status.getNodeStatus();
+                    if ( (statType == SVNStatusType.STATUS_ADDED) ||
+                            (statType == SVNStatusType.STATUS_MODIFIED) ||
+                            (statType == SVNStatusType.STATUS_REPLACED) ) {
+                        commitFiles.push(currFile);
+                        parent = currFile;
+                    }
+                    else if ( statType == SVNStatusType.STATUS_NORMAL ) {
+                        // An unmodified directory under version control
+                        parent = currFile;
+                        break;
+                    }
+                    else {
+                        // A directory outside version control
+                        break;
+                    }
+                }
+                // schedule committing the changes
+                addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
             }
-        }
-        // schedule committing the changes
-        addFilesToCommit(commitFiles.toArray(new File[commitFiles.size()]), parent, message);
+        });
     }
 
     /**
@@ -329,14 +749,19 @@ public class VersionedFileHandler {
      * @throws SVNException
      *         if deleting the file or committing the deletion throws one
      */
-    void deleteVersionedFile(File wcFile, String message) throws SVNException {
-        if ( (filesToCommit == null) || (parentToUpdate == null) || (commitMessage == null) )
+    void deleteVersionedFile(final File wcFile, final String message) throws SVNException {
+        if ( commitQueue == null )
             throw new NullPointerException(
                     "moveVersionedFile called for VersionedFileHandler that is not version controlled");
-        // Delete the file (force) from the working directory and version control
-        svnManager.getWCClient().doDelete(wcFile, true, true, false);
-        // schedule committing the changes
-        addFilesToCommit(new File[] { wcFile }, wcFile.getParentFile(), message);
+        changeWorkingCopy(new WorkingCopyChange() {
+            @Override
+            public void run() throws SVNException {
+                // Delete the file (force) from the working directory and version control
+                svnManager.getWCClient().doDelete(wcFile, true, true, false);
+                // schedule committing the changes
+                addFilesToCommit(new File[] { wcFile }, wcFile.getParentFile(), message);
+            }
+        });
     }
 
 }
@@ -10,6 +10,7 @@ import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.DsgNcChunking;
 import gov.noaa.pmel.dashboard.ferret.FerretConfig;
 import gov.noaa.pmel.dashboard.handlers.ArchiveFilesBundler;
 import gov.noaa.pmel.dashboard.handlers.CheckerMessageHandler;
@@ -58,6 +59,11 @@ public class DashboardConfigStore {
     private static final String METADATA_FILES_DIR_NAME_TAG = "MetadataFilesDir";
     private static final String DSG_NC_FILES_DIR_NAME_TAG = "DsgNcFilesDir";
     private static final String DEC_DSG_NC_FILES_DIR_NAME_TAG = "DecDsgNcFilesDir";
+    private static final String DSG_NC_FILE_FORMAT_TAG = "DsgNcFileFormat";
+    private static final String DSG_NC_CHUNK_SIZE_TAG = "DsgNcChunkSize";
+    private static final String DSG_NC_DEFLATE_LEVEL_TAG = "DsgNcDeflateLevel";
+    private static final String DSG_CHANGE_WINDOW_TAG = "DsgChangeWindow";
+    private static final String STANDARDIZE_THREADS_TAG = "StandardizeThreads";
     private static final String ARCHIVE_BUNDLES_DIR_NAME_TAG = "ArchiveBundlesDir";
     private static final String ARCHIVE_BUNDLES_EMAIL_ADDRESS_TAG = "ArchiveBundlesEmailAddress";
     private static final String CC_BUNDLES_EMAIL_ADDRESS_TAG = "CCBundlesEmailAddress";
@@ -86,6 +92,11 @@ public class DashboardConfigStore {
                     METADATA_FILES_DIR_NAME_TAG + "=/Some/SVN/Work/Dir/For/Metadata/Docs \n" +
                     DSG_NC_FILES_DIR_NAME_TAG + "=/Some/Plain/Dir/For/NetCDF/DSG/Files \n" +
                     DEC_DSG_NC_FILES_DIR_NAME_TAG + "=/Some/Plain/Dir/For/NetCDF/Decimated/DSG/Files \n" +
+                    "# optional: " + DSG_NC_FILE_FORMAT_TAG + "=netcdf4 \n" +
+                    "# optional: " + DSG_NC_CHUNK_SIZE_TAG + "=4096 \n" +
+                    "# optional: " + DSG_NC_DEFLATE_LEVEL_TAG + "=5 \n" +
+                    "# optional: " + DSG_CHANGE_WINDOW_TAG + "=5 \n" +
+                    "# optional: " + STANDARDIZE_THREADS_TAG + "=1 \n" +
                     ARCHIVE_BUNDLES_DIR_NAME_TAG + "=/Some/SVN/Work/Dir/For/Archive/Bundles \n" +
                     ARCHIVE_BUNDLES_EMAIL_ADDRESS_TAG + "=archiver@gdac.org \n" +
                     CC_BUNDLES_EMAIL_ADDRESS_TAG + "=dashboard@my.group.org \n" +
@@ -105,6 +116,9 @@ public class DashboardConfigStore {
                     USER_ROLE_NAME_TAG_PREFIX + "SomeAdminName=Admin \n" +
                     "# ------------------------------ \n";
 
+    // Default number of seconds in which DSG file changes are combined
+    private static final long DEFAULT_DSG_CHANGE_WINDOW_SECONDS = 5L;
+
     private static final double DEFAULT_MAX_GOOD_CALC_SPEED_KNOTS = 80;
     private static final double DEFAULT_MAX_MAYBE_CALC_SPEED_KNOTS = 400;
     private static final double DEFAULT_MAX_GOOD_TIME_GAP_DAYS = 28;
@@ -353,6 +367,7 @@ public class DashboardConfigStore {
             propVal = getFilePathProperty(configProps, USER_FILES_DIR_NAME_TAG, appConfigDir);
             userFileHandler = new UserFileHandler(propVal, svnUsername, svnPassword,
                     nameKeysToColumnTypesFilename, knownUserDataTypes);
+            userFileHandler.setLogger(itsLogger);
         } catch ( Exception ex ) {
             throw new IOException("Invalid " + USER_FILES_DIR_NAME_TAG + " value specified in " +
                     configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
@@ -365,6 +380,8 @@ public class DashboardConfigStore {
                     knownUserDataTypes, userFileHandler, uploadVersion);
             // Put automated data checker message files in the same directory
             checkerMsgHandler = new CheckerMessageHandler(propVal, svnUsername, svnPassword);
+            dataFileHandler.setLogger(itsLogger);
+            checkerMsgHandler.setLogger(itsLogger);
         } catch ( Exception ex ) {
             throw new IOException("Invalid " + DATA_FILES_DIR_NAME_TAG + " value specified in " +
                     configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
@@ -374,6 +391,7 @@ public class DashboardConfigStore {
         try {
             propVal = getFilePathProperty(configProps, METADATA_FILES_DIR_NAME_TAG, appConfigDir);
             metadataFileHandler = new MetadataFileHandler(propVal, svnUsername, svnPassword);
+            metadataFileHandler.setLogger(itsLogger);
         } catch ( Exception ex ) {
             throw new IOException("Invalid " + METADATA_FILES_DIR_NAME_TAG + " value specified in " +
                     configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
@@ -423,6 +441,7 @@ public class DashboardConfigStore {
             propVal = getFilePathProperty(configProps, ARCHIVE_BUNDLES_DIR_NAME_TAG, appConfigDir);
             archiveFilesBundler = new ArchiveFilesBundler(propVal, svnUsername, svnPassword, toEmailAddresses,
                     ccEmailAddresses, smtpHostAddress, smtpHostPort, smtpUsername, smtpPassword, false);
+            archiveFilesBundler.setLogger(itsLogger);
             if ( (itsLogger != null) && itsLogger.isInfoEnabled() ) {
                 itsLogger.info("Archive files bundler and mailer using:");
                 itsLogger.info("    bundles directory: " + propVal);
@@ -520,6 +539,43 @@ public class DashboardConfigStore {
         } catch ( Exception ex ) {
             throw new IOException(ex);
         }
+        propVal = configProps.getProperty(DSG_NC_FILE_FORMAT_TAG);
+        if ( (propVal != null) && "netcdf4".equalsIgnoreCase(propVal.trim()) ) {
+            try {
+                int chunkSize = DsgNcChunking.DEFAULT_CHUNK_SIZE;
+                propVal = configProps.getProperty(DSG_NC_CHUNK_SIZE_TAG);
+                if ( propVal != null )
+                    chunkSize = Integer.parseInt(propVal.trim());
+                int deflateLevel = DsgNcChunking.DEFAULT_DEFLATE_LEVEL;
+                propVal = configProps.getProperty(DSG_NC_DEFLATE_LEVEL_TAG);
+                if ( propVal != null )
+                    deflateLevel = Integer.parseInt(propVal.trim());
+                dsgNcFileHandler.setNetcdf4Chunking(new DsgNcChunking(chunkSize, deflateLevel, true));
+                if ( itsLogger != null )
+                    itsLogger.info("DSG files created as NetCDF-4 with chunk size " + chunkSize +
+                            " and deflate level " + deflateLevel);
+            } catch ( Exception ex ) {
+                throw new IOException("Invalid " + DSG_NC_CHUNK_SIZE_TAG + " or " + DSG_NC_DEFLATE_LEVEL_TAG +
+                        " value specified in " + configFile.getPath() + "\n" + ex.getMessage() + "\n" +
+                        CONFIG_FILE_INFO_MSG);
+            }
+        }
+        else if ( (propVal != null) && !"netcdf3".equalsIgnoreCase(propVal.trim()) ) {
+            throw new IOException("Invalid " + DSG_NC_FILE_FORMAT_TAG + " value specified in " +
+                    configFile.getPath() + "\nvalue must be netcdf3 or netcdf4\n" + CONFIG_FILE_INFO_MSG);
+        }
+        try {
+            long changeWindowSeconds = DEFAULT_DSG_CHANGE_WINDOW_SECONDS;
+            propVal = configProps.getProperty(DSG_CHANGE_WINDOW_TAG);
+            if ( propVal != null )
+                changeWindowSeconds = Long.parseLong(propVal.trim());
+            dsgNcFileHandler.setChangeWindow(changeWindowSeconds * 1000L);
+            if ( itsLogger != null )
+                itsLogger.info("DSG file changes combined within " + changeWindowSeconds + " seconds");
+        } catch ( Exception ex ) {
+            throw new IOException("Invalid " + DSG_CHANGE_WINDOW_TAG + " value specified in " +
+                    configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
+        }
 
         // Handler for database interactions
         try {
@@ -535,6 +591,18 @@ public class DashboardConfigStore {
 
         // Automated data checker
         datasetChecker = new DatasetChecker(knownUserDataTypes, checkerMsgHandler);
+        try {
+            int numThreads = 1;
+            propVal = configProps.getProperty(STANDARDIZE_THREADS_TAG);
+            if ( propVal != null )
+                numThreads = Integer.parseInt(propVal.trim());
+            datasetChecker.setNumThreads(numThreads);
+            if ( itsLogger != null )
+                itsLogger.info("data columns standardized and checked using up to " + numThreads + " threads");
+        } catch ( Exception ex ) {
+            throw new IOException("Invalid " + STANDARDIZE_THREADS_TAG + " value specified in " +
+                    configFile.getPath() + "\n" + ex.getMessage() + "\n" + CONFIG_FILE_INFO_MSG);
+        }
 
         // Handler for preview plots - uses various handlers just created
         plotsHandler = new PreviewPlotsHandler(previewDirname + "dsgfiles",
@@ -585,6 +653,8 @@ public class DashboardConfigStore {
         if ( startMonitors ) {
             // Watch for changes to the DSG files
             dsgNcFileHandler.watchForDsgFileUpdates();
+            // Watch for changes to the dataset information files
+            dataFileHandler.watchForInfoFileUpdates();
             // Watch for changes to the configuration file
             watchConfigFiles();
         }
@@ -665,14 +735,30 @@ public class DashboardConfigStore {
      * Shuts down the handlers and monitors associated with this data store.
      */
     private void stopMonitors() {
+        // Stop monitoring changes in the dataset information files
+        dataFileHandler.cancelWatch();
         // Shutdown all the VersionsedFileHandlers
         userFileHandler.shutdown();
         dataFileHandler.shutdown();
         metadataFileHandler.shutdown();
         checkerMsgHandler.shutdown();
         archiveFilesBundler.shutdown();
+        // Stop any dataset submissions
+        datasetSubmitter.shutdown();
+        // Stop generating preview plots
+        plotsHandler.shutdown();
+        // Stop any long-lived Ferret sessions
+        ferretConf.shutdownWorkerPool();
+        // Close any pooled database connections
+        databaseRequestHandler.close();
+        // Stop the threads standardizing and checking data columns
+        datasetChecker.shutdown();
         // Stop monitoring changes in the DSG files
         dsgNcFileHandler.cancelWatch();
+        // Merge the journal of changes to the DSG extents into the catalog file
+        dsgNcFileHandler.compactDsgExtentsCatalog();
+        // Notify ERDDAP of any pending changes in the DSG files
+        dsgNcFileHandler.getErddapNotifier().shutdown();
         // Stop the configuration watcher
         cancelWatch();
     }
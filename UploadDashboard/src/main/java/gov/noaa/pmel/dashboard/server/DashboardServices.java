@@ -9,12 +9,14 @@ import gov.noaa.pmel.dashboard.handlers.DataFileHandler;
 import gov.noaa.pmel.dashboard.handlers.DatabaseRequestHandler;
 import gov.noaa.pmel.dashboard.handlers.DsgNcFileHandler;
 import gov.noaa.pmel.dashboard.handlers.MetadataFileHandler;
+import gov.noaa.pmel.dashboard.handlers.PreviewPlotsHandler;
 import gov.noaa.pmel.dashboard.handlers.UserFileHandler;
 import gov.noaa.pmel.dashboard.qc.QCEvent;
-import gov.noaa.pmel.dashboard.shared.ADCMessageList;
+import gov.noaa.pmel.dashboard.shared.ADCMessageListRange;
 import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetListRange;
 import gov.noaa.pmel.dashboard.shared.DashboardMetadata;
 import gov.noaa.pmel.dashboard.shared.DashboardServicesInterface;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
@@ -41,6 +43,9 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
 
     private static final long serialVersionUID = -6379445797395821598L;
 
+    // Maximum time to wait for preview images before returning a status update
+    private static final long PREVIEW_STATUS_WAIT_MILLIS = 5000L;
+
     private String username = null;
     private DashboardConfigStore configStore = null;
     private Logger itsLogger = null;
@@ -136,6 +141,31 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
         return datasetList;
     }
 
+    @Override
+    public DashboardDatasetListRange getDatasetListRange(String pageUsername, int offset, int limit, String sortKey,
+            boolean ascending, String filterText) throws IllegalArgumentException {
+        if ( !validateRequest(pageUsername) )
+            throw new IllegalArgumentException("Invalid user request");
+        long startTime = System.currentTimeMillis();
+        DashboardDatasetListRange range = configStore.getUserFileHandler().getDatasetListIndex(username)
+                                                     .getRange(offset, limit, sortKey, ascending, filterText);
+        itsLogger.info("datasets " + offset + " to " + (offset + range.getDatasets().size()) + " of " +
+                range.getTotalCount() + " returned for " + username + " in " +
+                (System.currentTimeMillis() - startTime) + " ms");
+        return range;
+    }
+
+    @Override
+    public DashboardDatasetList getMatchingDatasets(String pageUsername, String filterText, String statusOption)
+            throws IllegalArgumentException {
+        if ( !validateRequest(pageUsername) )
+            throw new IllegalArgumentException("Invalid user request");
+        DashboardDatasetList datasetList = configStore.getUserFileHandler().getDatasetListIndex(username)
+                                                      .getMatching(filterText, statusOption);
+        itsLogger.info(datasetList.size() + " " + statusOption + " datasets returned for " + username);
+        return datasetList;
+    }
+
     @Override
     public DashboardDatasetList deleteDatasets(String pageUsername, TreeSet<String> idsSet, Boolean deleteMetadata)
             throws IllegalArgumentException {
@@ -232,7 +262,7 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
         datasetList.setManager(configStore.isManager(username));
         datasetList.setImageExtension(configStore.getImageExtension());
         for (String datasetId : idsSet) {
-            datasetList.put(datasetId, dataHandler.getDatasetFromInfoFile(datasetId));
+            datasetList.put(datasetId, dataHandler.getDatasetFromInfoFile(datasetId, false));
         }
         itsLogger.info("returned updated dataset information for " + username);
         return datasetList;
@@ -538,21 +568,25 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
     }
 
     @Override
-    public ADCMessageList getDataMessages(String pageUsername, String datasetId) throws IllegalArgumentException {
+    public ADCMessageListRange getDataMessages(String pageUsername, String datasetId, int offset, int limit,
+            String filterText) throws IllegalArgumentException {
         // Get the dashboard data store and current username, and validate that username
         if ( !validateRequest(pageUsername) )
             throw new IllegalArgumentException("Invalid user request");
 
-        // Get the list of saved automated data checker messages for this dataset
-        ADCMessageList scMsgList;
+        // Get the range of saved automated data checker messages for this dataset
+        long startTime = System.currentTimeMillis();
+        ADCMessageListRange msgRange;
         try {
-            scMsgList = configStore.getCheckerMsgHandler().getCheckerMessages(datasetId);
+            msgRange = configStore.getCheckerMsgHandler().getCheckerMessageRange(datasetId, offset, limit, filterText);
         } catch ( FileNotFoundException ex ) {
             throw new IllegalArgumentException("The automated data checker has never been run on dataset " + datasetId);
         }
-        scMsgList.setUsername(username);
-        itsLogger.info("returned automated data checker messages for " + datasetId + " for " + username);
-        return scMsgList;
+        msgRange.setUsername(username);
+        itsLogger.info("automated data checker messages " + offset + " to " +
+                (offset + msgRange.getMessages().size()) + " of " + msgRange.getTotalCount() + " for " +
+                datasetId + " returned for " + username + " in " + (System.currentTimeMillis() - startTime) + " ms");
+        return msgRange;
     }
 
     @Override
@@ -562,13 +596,22 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
         if ( !validateRequest(pageUsername) )
             throw new IllegalArgumentException("Invalid user request");
 
-        // Generate the preview plots for this dataset
-        // TODO: refactor so starts this in a separate thread when firstCall is true and
-        //       returns false, then when gets called again with firstCall is false for
-        //       a status update, returns false if still working and true if all plots are done
+        // Queue the generation of the preview plots for this dataset on the first call,
+        // then report whether the plots are done, waiting a bit for them to finish
+        PreviewPlotsHandler plotsHandler = configStore.getPreviewPlotsHandler();
         if ( firstCall )
-            configStore.getPreviewPlotsHandler().createPreviewPlots(datasetId, timetag);
-        return true;
+            plotsHandler.submitPreviewPlots(datasetId, timetag);
+        return plotsHandler.waitForPreviewPlots(datasetId, timetag, PREVIEW_STATUS_WAIT_MILLIS);
+    }
+
+    @Override
+    public void cancelPreviewImages(String pageUsername, String datasetId, String timetag)
+            throws IllegalArgumentException {
+        // Get the dashboard data store and current username, and validate that username
+        if ( !validateRequest(pageUsername) )
+            throw new IllegalArgumentException("Invalid user request");
+
+        configStore.getPreviewPlotsHandler().cancelPreviewPlots(datasetId, timetag);
     }
 
     @Override
@@ -609,18 +652,36 @@ public class DashboardServices extends RemoteServiceServlet implements Dashboard
     }
 
     @Override
-    public void submitDatasetsForQC(String pageUsername, TreeSet<String> idsSet, String archiveStatus,
-            String timestamp, boolean repeatSend) throws IllegalArgumentException {
+    public String getSubmitId(String pageUsername) throws IllegalArgumentException {
+        // Get the dashboard data store and current username, and validate that username
+        if ( !validateRequest(pageUsername) )
+            throw new IllegalArgumentException("Invalid user request");
+
+        return configStore.getDashboardDatasetSubmitter().createSubmitId();
+    }
+
+    @Override
+    public void submitDatasetsForQC(String pageUsername, String submitId, TreeSet<String> idsSet,
+            String archiveStatus, String timestamp, boolean repeatSend) throws IllegalArgumentException {
         // Get the dashboard data store and current username, and validate that username
         if ( !validateRequest(pageUsername) )
             throw new IllegalArgumentException("Invalid user request");
 
         // Submit the datasets for QC and possibly send to be archived
         configStore.getDashboardDatasetSubmitter().submitDatasets(idsSet,
-                archiveStatus, timestamp, repeatSend, username);
+                archiveStatus, timestamp, repeatSend, username, submitId);
         itsLogger.info("datasets " + idsSet.toString() + " submitted by " + username);
     }
 
+    @Override
+    public String getSubmitProgress(String pageUsername, String submitId) throws IllegalArgumentException {
+        // Get the dashboard data store and current username, and validate that username
+        if ( !validateRequest(pageUsername) )
+            throw new IllegalArgumentException("Invalid user request");
+
+        return configStore.getDashboardDatasetSubmitter().getSubmitProgress(submitId, username);
+    }
+
     @Override
     public void suspendDatasets(String pageUsername, TreeSet<String> idsSet)
             throws IllegalArgumentException {
@@ -0,0 +1,264 @@
+package gov.noaa.pmel.dashboard.shared;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Represents a range of the automated data checker messages for a dataset, as filtered by the server.
+ * The messages are ordered by severity, column number, column name, and row number.
+ * Also provides the summary messages and the number of warnings and errors for the dataset.
+ *
+ * @author Karl Smith
+ */
+public class ADCMessageListRange implements Serializable, IsSerializable {
+
+    private static final long serialVersionUID = 2851606338715902473L;
+
+    protected String username;
+    protected String datasetId;
+    protected ArrayList<String> summaries;
+    protected int numWarnings;
+    protected int numErrors;
+    protected int offset;
+    protected int totalCount;
+    protected ArrayList<ADCMessage> messages;
+
+    /**
+     * Creates without a user, dataset, or any messages
+     */
+    public ADCMessageListRange() {
+        username = DashboardUtils.STRING_MISSING_VALUE;
+        datasetId = DashboardUtils.STRING_MISSING_VALUE;
+        summaries = new ArrayList<String>();
+        numWarnings = 0;
+        numErrors = 0;
+        offset = 0;
+        totalCount = 0;
+        messages = new ArrayList<ADCMessage>();
+    }
+
+    /**
+     * @param msg
+     *         message to examine
+     * @param filterText
+     *         text to find, ignoring case, in the severity name, column name, general message, or detailed message;
+     *         if null or blank, all messages match
+     *
+     * @return whether the message matches the filter text
+     */
+    public static boolean matchesFilter(ADCMessage msg, String filterText) {
+        if ( filterText == null )
+            return true;
+        String filter = filterText.trim().toLowerCase();
+        if ( filter.isEmpty() )
+            return true;
+        if ( msg.getSeverity().name().toLowerCase().contains(filter) )
+            return true;
+        if ( msg.getColName().toLowerCase().contains(filter) )
+            return true;
+        if ( msg.getGeneralComment().toLowerCase().contains(filter) )
+            return true;
+        if ( msg.getDetailedComment().toLowerCase().contains(filter) )
+            return true;
+        return false;
+    }
+
+    /**
+     * @return the username; never null but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @param username
+     *         the username to set; if null, sets to {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public void setUsername(String username) {
+        if ( username == null )
+            this.username = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.username = username;
+    }
+
+    /**
+     * @return the dataset ID; never null but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getDatasetId() {
+        return datasetId;
+    }
+
+    /**
+     * @param datasetId
+     *         the dataset ID to set; if null, sets to {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public void setDatasetId(String datasetId) {
+        if ( datasetId == null )
+            this.datasetId = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.datasetId = datasetId;
+    }
+
+    /**
+     * @return the summary messages for all the messages of the dataset; never null but may be empty.
+     *         The actual list in this object is returned.
+     */
+    public ArrayList<String> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @param summaries
+     *         the summary messages to assign; if null, an empty list is assigned.
+     *         The list in this object is cleared and the summaries given are added to it.
+     */
+    public void setSummaries(ArrayList<String> summaries) {
+        this.summaries.clear();
+        if ( summaries != null )
+            this.summaries.addAll(summaries);
+    }
+
+    /**
+     * @return the number of warning messages for the dataset
+     */
+    public int getNumWarnings() {
+        return numWarnings;
+    }
+
+    /**
+     * @param numWarnings
+     *         the number of warning messages for the dataset
+     */
+    public void setNumWarnings(int numWarnings) {
+        this.numWarnings = numWarnings;
+    }
+
+    /**
+     * @return the number of error (including critical error) messages for the dataset
+     */
+    public int getNumErrors() {
+        return numErrors;
+    }
+
+    /**
+     * @param numErrors
+     *         the number of error (including critical error) messages for the dataset
+     */
+    public void setNumErrors(int numErrors) {
+        this.numErrors = numErrors;
+    }
+
+    /**
+     * @return the index, in the filtered list of messages, of the first message in this range
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param offset
+     *         the index, in the filtered list of messages, of the first message in this range
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * @return the number of messages in the filtered list of messages
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param totalCount
+     *         the number of messages in the filtered list of messages
+     */
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @return the messages in this range, in order; never null but may be empty.
+     *         The actual list in this object is returned.
+     */
+    public ArrayList<ADCMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @param messages
+     *         the messages, in order, to assign to this range; if null, an empty list is assigned.
+     *         The list in this object is cleared and the messages given are added to it.
+     */
+    public void setMessages(ArrayList<ADCMessage> messages) {
+        this.messages.clear();
+        if ( messages != null )
+            this.messages.addAll(messages);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = username.hashCode();
+        result = result * prime + datasetId.hashCode();
+        result = result * prime + summaries.hashCode();
+        result = result * prime + numWarnings;
+        result = result * prime + numErrors;
+        result = result * prime + offset;
+        result = result * prime + totalCount;
+        result = result * prime + messages.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof ADCMessageListRange) )
+            return false;
+        ADCMessageListRange other = (ADCMessageListRange) obj;
+
+        if ( !username.equals(other.username) )
+            return false;
+        if ( !datasetId.equals(other.datasetId) )
+            return false;
+        if ( !summaries.equals(other.summaries) )
+            return false;
+        if ( numWarnings != other.numWarnings )
+            return false;
+        if ( numErrors != other.numErrors )
+            return false;
+        if ( offset != other.offset )
+            return false;
+        if ( totalCount != other.totalCount )
+            return false;
+        if ( !messages.equals(other.messages) )
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        String repr = "ADCMessageListRange" +
+                "[\n    username=" + username +
+                ",\n    datasetId=" + datasetId +
+                ",\n    summaries=" + summaries.toString() +
+                ",\n    numWarnings=" + numWarnings +
+                ",\n    numErrors=" + numErrors +
+                ",\n    offset=" + offset +
+                ",\n    totalCount=" + totalCount;
+        for (ADCMessage msg : messages) {
+            repr += ",\n    " + msg.toString();
+        }
+        repr += "\n]";
+        return repr;
+    }
+
+}
@@ -0,0 +1,294 @@
+package gov.noaa.pmel.dashboard.shared;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Represents a range of rows from a user's list of datasets, as sorted and filtered by the server.
+ * Also provides the other server-side information given in a {@link DashboardDatasetList}.
+ *
+ * @author Karl Smith
+ */
+public class DashboardDatasetListRange implements Serializable, IsSerializable {
+
+    private static final long serialVersionUID = -4195230787715862385L;
+
+    /**
+     * Sort keys for the datasets; each uses the corresponding comparator in {@link DashboardUtils}
+     */
+    public static final String SORT_BY_DATASET_ID = "datasetId";
+    public static final String SORT_BY_TIMESTAMP = "uploadTimestamp";
+    public static final String SORT_BY_DATA_CHECK = "dataCheckStatus";
+    public static final String SORT_BY_OME_TIMESTAMP = "omeTimestamp";
+    public static final String SORT_BY_ADDL_DOCS = "addlDocs";
+    public static final String SORT_BY_VERSION = "version";
+    public static final String SORT_BY_SUBMIT_STATUS = "submitStatus";
+    public static final String SORT_BY_ARCHIVE_STATUS = "archiveStatus";
+    public static final String SORT_BY_FILENAME = "uploadFilename";
+    public static final String SORT_BY_OWNER = "owner";
+
+    /**
+     * Status options for matching datasets: all datasets, editable datasets,
+     * datasets submitted for QC, or datasets published in a previous version
+     */
+    public static final String ALL_STATUS = "all";
+    public static final String EDITABLE_STATUS = "editable";
+    public static final String SUBMITTED_STATUS = "submitted";
+    public static final String PUBLISHED_STATUS = "published";
+
+    protected String username;
+    protected boolean manager;
+    protected String imageExtension;
+    protected int offset;
+    protected int totalCount;
+    protected ArrayList<DashboardDataset> datasets;
+
+    /**
+     * Creates without a user or any datasets
+     */
+    public DashboardDatasetListRange() {
+        username = DashboardUtils.STRING_MISSING_VALUE;
+        manager = false;
+        imageExtension = DashboardUtils.STRING_MISSING_VALUE;
+        offset = 0;
+        totalCount = 0;
+        datasets = new ArrayList<DashboardDataset>();
+    }
+
+    /**
+     * @param sortKey
+     *         one of the SORT_BY_* sort keys
+     *
+     * @return the comparator for the sort key, or null if the sort key is not recognized
+     */
+    public static Comparator<DashboardDataset> getComparator(String sortKey) {
+        if ( SORT_BY_DATASET_ID.equals(sortKey) )
+            return DashboardUtils.dataDatasetIdComparator;
+        if ( SORT_BY_TIMESTAMP.equals(sortKey) )
+            return DashboardUtils.dataTimestampComparator;
+        if ( SORT_BY_DATA_CHECK.equals(sortKey) )
+            return DashboardUtils.dataCheckComparator;
+        if ( SORT_BY_OME_TIMESTAMP.equals(sortKey) )
+            return DashboardUtils.omeTimestampComparator;
+        if ( SORT_BY_ADDL_DOCS.equals(sortKey) )
+            return DashboardUtils.addlDocsComparator;
+        if ( SORT_BY_VERSION.equals(sortKey) )
+            return DashboardUtils.versionComparator;
+        if ( SORT_BY_SUBMIT_STATUS.equals(sortKey) )
+            return DashboardUtils.submitStatusComparator;
+        if ( SORT_BY_ARCHIVE_STATUS.equals(sortKey) )
+            return DashboardUtils.archiveStatusComparator;
+        if ( SORT_BY_FILENAME.equals(sortKey) )
+            return DashboardUtils.dataFilenameComparator;
+        if ( SORT_BY_OWNER.equals(sortKey) )
+            return DashboardUtils.dataOwnerComparator;
+        return null;
+    }
+
+    /**
+     * @param dataset
+     *         dataset to examine
+     * @param statusOption
+     *         one of the *_STATUS status options
+     *
+     * @return whether the dataset has the given status
+     *
+     * @throws IllegalArgumentException
+     *         if the status option is not recognized
+     */
+    public static boolean hasStatus(DashboardDataset dataset, String statusOption) throws IllegalArgumentException {
+        if ( ALL_STATUS.equals(statusOption) )
+            return true;
+        if ( EDITABLE_STATUS.equals(statusOption) )
+            return Boolean.TRUE.equals(dataset.isEditable());
+        if ( SUBMITTED_STATUS.equals(statusOption) )
+            return Boolean.FALSE.equals(dataset.isEditable());
+        if ( PUBLISHED_STATUS.equals(statusOption) )
+            return dataset.isEditable() == null;
+        throw new IllegalArgumentException("unknown dataset status option: " + statusOption);
+    }
+
+    /**
+     * @param dataset
+     *         dataset to examine
+     * @param filterText
+     *         text to find, ignoring case, in the dataset ID, upload filename, or owner of the dataset;
+     *         if null or blank, all datasets match
+     *
+     * @return whether the dataset matches the filter text
+     */
+    public static boolean matchesFilter(DashboardDataset dataset, String filterText) {
+        if ( filterText == null )
+            return true;
+        String filter = filterText.trim().toLowerCase();
+        if ( filter.isEmpty() )
+            return true;
+        if ( dataset.getDatasetId().toLowerCase().contains(filter) )
+            return true;
+        if ( dataset.getUploadFilename().toLowerCase().contains(filter) )
+            return true;
+        if ( dataset.getOwner().toLowerCase().contains(filter) )
+            return true;
+        return false;
+    }
+
+    /**
+     * @return the username; never null but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @param username
+     *         the username to set; if null, sets to {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public void setUsername(String username) {
+        if ( username == null )
+            this.username = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.username = username;
+    }
+
+    /**
+     * @return if this user is a manager/admin
+     */
+    public boolean isManager() {
+        return manager;
+    }
+
+    /**
+     * @param manager
+     *         set if this user is a manager/admin
+     */
+    public void setManager(boolean manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * @return the image filename extension (including the leading '.', if appropriate);
+     *         never null, but may be {@link DashboardUtils#STRING_MISSING_VALUE}
+     */
+    public String getImageExtension() {
+        return imageExtension;
+    }
+
+    /**
+     * @param imageExtension
+     *         the image filename extension (including the leading '.', if appropriate) to assign;
+     *         if null, {@link DashboardUtils#STRING_MISSING_VALUE} is assigned.
+     */
+    public void setImageExtension(String imageExtension) {
+        if ( imageExtension == null )
+            this.imageExtension = DashboardUtils.STRING_MISSING_VALUE;
+        else
+            this.imageExtension = imageExtension;
+    }
+
+    /**
+     * @return the index, in the sorted and filtered list of datasets, of the first dataset in this range
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param offset
+     *         the index, in the sorted and filtered list of datasets, of the first dataset in this range
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * @return the number of datasets in the sorted and filtered list of datasets
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param totalCount
+     *         the number of datasets in the sorted and filtered list of datasets
+     */
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @return the datasets in this range, in sorted order; never null but may be empty.
+     *         The actual list in this object is returned.
+     */
+    public ArrayList<DashboardDataset> getDatasets() {
+        return datasets;
+    }
+
+    /**
+     * @param datasets
+     *         the datasets, in sorted order, to assign to this range; if null, an empty list is assigned.
+     *         The list in this object is cleared and the datasets given are added to it.
+     */
+    public void setDatasets(ArrayList<DashboardDataset> datasets) {
+        this.datasets.clear();
+        if ( datasets != null )
+            this.datasets.addAll(datasets);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 37;
+        int result = username.hashCode();
+        result = result * prime + Boolean.valueOf(manager).hashCode();
+        result = result * prime + imageExtension.hashCode();
+        result = result * prime + offset;
+        result = result * prime + totalCount;
+        result = result * prime + datasets.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+
+        if ( !(obj instanceof DashboardDatasetListRange) )
+            return false;
+        DashboardDatasetListRange other = (DashboardDatasetListRange) obj;
+
+        if ( !username.equals(other.username) )
+            return false;
+        if ( manager != other.manager )
+            return false;
+        if ( !imageExtension.equals(other.imageExtension) )
+            return false;
+        if ( offset != other.offset )
+            return false;
+        if ( totalCount != other.totalCount )
+            return false;
+        if ( !datasets.equals(other.datasets) )
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        String repr = "DashboardDatasetListRange" +
+                "[\n    username=" + username +
+                ",\n    manager=" + Boolean.valueOf(manager).toString() +
+                ",\n    imageExtension=" + imageExtension +
+                ",\n    offset=" + offset +
+                ",\n    totalCount=" + totalCount;
+        for (DashboardDataset dataset : datasets) {
+            repr += ",\n    " + dataset.toString();
+        }
+        repr += "\n]";
+        return repr;
+    }
+
+}
@@ -30,6 +30,51 @@ public interface DashboardServicesInterface extends RemoteService {
      */
     DashboardDatasetList getDatasetList() throws IllegalArgumentException;
 
+    /**
+     * Gets a range of the current user's list of datasets, sorted and filtered on the server.
+     *
+     * @param username
+     *         name of the current user - for validation
+     * @param offset
+     *         index, in the sorted and filtered list of datasets, of the first dataset to return
+     * @param limit
+     *         maximum number of datasets to return
+     * @param sortKey
+     *         sort the datasets using this {@link DashboardDatasetListRange} SORT_BY_* sort key
+     * @param ascending
+     *         sort the datasets in ascending order?
+     * @param filterText
+     *         only include datasets with this text (ignoring case) in the dataset ID, upload filename, or owner;
+     *         if null or blank, all datasets are included
+     *
+     * @return the range of datasets for the current user
+     *
+     * @throws IllegalArgumentException
+     *         if authentication failed, if problems getting the dataset list, or if the offset, limit,
+     *         or sort key is invalid
+     */
+    DashboardDatasetListRange getDatasetListRange(String username, int offset, int limit, String sortKey,
+            boolean ascending, String filterText) throws IllegalArgumentException;
+
+    /**
+     * Gets all the datasets in the current user's list of datasets with the given filter text and status.
+     *
+     * @param username
+     *         name of the current user - for validation
+     * @param filterText
+     *         only include datasets with this text (ignoring case) in the dataset ID, upload filename, or owner;
+     *         if null or blank, all datasets are included
+     * @param statusOption
+     *         only include datasets with this {@link DashboardDatasetListRange} *_STATUS status
+     *
+     * @return the matching datasets for the current user
+     *
+     * @throws IllegalArgumentException
+     *         if authentication failed, if problems getting the dataset list, or if the status option is invalid
+     */
+    DashboardDatasetList getMatchingDatasets(String username, String filterText, String statusOption)
+            throws IllegalArgumentException;
+
     /**
      * Deletes all files for the indicated datasets.
      *
@@ -223,20 +268,29 @@ public interface DashboardServicesInterface extends RemoteService {
     void updateDataColumns(String username, ArrayList<String> datasetIds) throws IllegalArgumentException;
 
     /**
-     * Returns the set of sanity checker data messages for a given dataset.
+     * Returns a range of the automated data checker messages for a given dataset.
      *
      * @param username
      *         name of the current user - for validation
      * @param datasetId
      *         get data messages for this dataset
+     * @param offset
+     *         index, in the filtered list of data messages, of the first message to return
+     * @param limit
+     *         maximum number of data messages to return
+     * @param filterText
+     *         only include messages with this text (ignoring case) in the severity, column name, or explanation;
+     *         if null or blank, all messages are included
      *
-     * @return list of data messages for the dataset; never null, but may be empty if the automated data checker did not
-     *         generate any data messages.
+     * @return range of data messages for the dataset; never null, but may be empty if the automated data checker
+     *         did not generate any data messages.
      *
      * @throws IllegalArgumentException
-     *         if the dataset ID is invalid, or if the automated data checker has never been run on this cruise.
+     *         if the dataset ID, offset, or limit is invalid, or if the automated data checker
+     *         has never been run on this cruise.
      */
-    ADCMessageList getDataMessages(String username, String datasetId) throws IllegalArgumentException;
+    ADCMessageListRange getDataMessages(String username, String datasetId, int offset, int limit,
+            String filterText) throws IllegalArgumentException;
 
     /**
      * Requests that the preview images for a dataset be generated.
@@ -261,6 +315,21 @@ public interface DashboardServicesInterface extends RemoteService {
     boolean buildPreviewImages(String username, String datasetId, String timetag, boolean firstCall)
             throws IllegalArgumentException;
 
+    /**
+     * Cancels the generation of the preview images for a dataset if still in progress.
+     *
+     * @param username
+     *         name of the current user - for validation
+     * @param datasetId
+     *         cancel the generation of preview images for this dataset
+     * @param timetag
+     *         tag given to {@link #buildPreviewImages(String, String, String, boolean)}
+     *
+     * @throws IllegalArgumentException
+     *         if the dataset ID is invalid
+     */
+    void cancelPreviewImages(String username, String datasetId, String timetag) throws IllegalArgumentException;
+
     /**
      * Requests the IDs of datasets which have associated SocatMetadata objects accessible by the current user
      *
@@ -323,11 +392,26 @@ public interface DashboardServicesInterface extends RemoteService {
      */
     void saveSocatMetadata(String username, String datasetId, SocatMetadata metadata) throws IllegalArgumentException;
 
+    /**
+     * Creates a new ID for a submission of datasets for QC.
+     *
+     * @param username
+     *         name of user making this request - for validation
+     *
+     * @return ID to use for a submission of datasets for QC and to report the progress of that submission
+     *
+     * @throws IllegalArgumentException
+     *         if authentication failed
+     */
+    String getSubmitId(String username) throws IllegalArgumentException;
+
     /**
      * Submits datasets named in the given listing for QC.
      *
      * @param username
      *         name of user making this request - for validation
+     * @param submitId
+     *         ID for this submission, from {@link #getSubmitId(String)}
      * @param datasetIds
      *         IDs of the datasets to submit
      * @param archiveStatus
@@ -339,12 +423,30 @@ public interface DashboardServicesInterface extends RemoteService {
      *
      * @throws IllegalArgumentException
      *         if authentication failed,
-     *         if the dataset does not exist for any of the given IDs, or
+     *         if the dataset does not exist for any of the given IDs,
+     *         if the submission ID is already in use, or
      *         if submitting a dataset fails
      */
-    void submitDatasetsForQC(String username, TreeSet<String> datasetIds, String archiveStatus,
+    void submitDatasetsForQC(String username, String submitId, TreeSet<String> datasetIds, String archiveStatus,
             String localTimestamp, boolean repeatSend) throws IllegalArgumentException;
 
+    /**
+     * Reports the progress of the submission of datasets for QC started by
+     * {@link #submitDatasetsForQC(String, String, TreeSet, String, String, boolean)}.
+     *
+     * @param username
+     *         name of user making this request - for validation
+     * @param submitId
+     *         ID of the submission
+     *
+     * @return description of the progress of the submission;
+     *         empty if the user does not have a submission with this ID in progress
+     *
+     * @throws IllegalArgumentException
+     *         if authentication failed
+     */
+    String getSubmitProgress(String username, String submitId) throws IllegalArgumentException;
+
     /**
      * Suspends datasets from QC.
      *
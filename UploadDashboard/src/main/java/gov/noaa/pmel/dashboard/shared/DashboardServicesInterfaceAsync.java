@@ -29,6 +29,45 @@ public interface DashboardServicesInterfaceAsync {
      */
     void getDatasetList(AsyncCallback<DashboardDatasetList> callback);
 
+    /**
+     * Client side request to get a range of the current user's list of datasets, sorted and filtered on the server.
+     *
+     * @param username
+     *         name of the current user - for validation
+     * @param offset
+     *         index, in the sorted and filtered list of datasets, of the first dataset to return
+     * @param limit
+     *         maximum number of datasets to return
+     * @param sortKey
+     *         sort the datasets using this {@link DashboardDatasetListRange} SORT_BY_* sort key
+     * @param ascending
+     *         sort the datasets in ascending order?
+     * @param filterText
+     *         only include datasets with this text (ignoring case) in the dataset ID, upload filename, or owner;
+     *         if null or blank, all datasets are included
+     * @param callback
+     *         the callback to make with the range of datasets.
+     */
+    void getDatasetListRange(String username, int offset, int limit, String sortKey, boolean ascending,
+            String filterText, AsyncCallback<DashboardDatasetListRange> callback);
+
+    /**
+     * Client side request to get all the datasets in the current user's list of datasets
+     * with the given filter text and status.
+     *
+     * @param username
+     *         name of the current user - for validation
+     * @param filterText
+     *         only include datasets with this text (ignoring case) in the dataset ID, upload filename, or owner;
+     *         if null or blank, all datasets are included
+     * @param statusOption
+     *         only include datasets with this {@link DashboardDatasetListRange} *_STATUS status
+     * @param callback
+     *         the callback to make with the matching datasets.
+     */
+    void getMatchingDatasets(String username, String filterText, String statusOption,
+            AsyncCallback<DashboardDatasetList> callback);
+
     /**
      * Client side request to deletes all files for the indicated cruises.
      *
@@ -202,16 +241,24 @@ public interface DashboardServicesInterfaceAsync {
     void updateDataColumns(String username, ArrayList<String> datasetIds, AsyncCallback<Void> callback);
 
     /**
-     * Client side request to send the set of sanity checker data messages for a given dataset.
+     * Client side request to send a range of the automated data checker messages for a given dataset.
      *
      * @param username
      *         name of the current user - for validation
      * @param datasetId
      *         get data messages for this dataset
+     * @param offset
+     *         index, in the filtered list of data messages, of the first message to return
+     * @param limit
+     *         maximum number of data messages to return
+     * @param filterText
+     *         only include messages with this text (ignoring case) in the severity, column name, or explanation;
+     *         if null or blank, all messages are included
      * @param callback
-     *         the callback to make with list of sanity checker data messages
+     *         the callback to make with range of automated data checker messages
      */
-    void getDataMessages(String username, String datasetId, AsyncCallback<ADCMessageList> callback);
+    void getDataMessages(String username, String datasetId, int offset, int limit, String filterText,
+            AsyncCallback<ADCMessageListRange> callback);
 
     /**
      * Client side request to generate the preview images for a dataset.
@@ -232,6 +279,20 @@ public interface DashboardServicesInterfaceAsync {
     void buildPreviewImages(String username, String datasetId, String timetag, boolean firstCall,
             AsyncCallback<Boolean> callback);
 
+    /**
+     * Client side request to cancel the generation of the preview images for a dataset if still in progress.
+     *
+     * @param username
+     *         name of the current user - for validation
+     * @param datasetId
+     *         cancel the generation of preview images for this dataset
+     * @param timetag
+     *         tag given to the request to generate the preview images
+     * @param callback
+     *         callback to make after cancelling
+     */
+    void cancelPreviewImages(String username, String datasetId, String timetag, AsyncCallback<Void> callback);
+
     /**
      * Client side request for the IDs of datasets which have associated SocatMetadata objects
      *
@@ -287,11 +348,24 @@ public interface DashboardServicesInterfaceAsync {
      */
     void saveSocatMetadata(String username, String datasetId, SocatMetadata metadata, AsyncCallback<Void> callback);
 
+    /**
+     * Client-side interface for creating a new ID for a submission of datasets for QC.
+     *
+     * @param username
+     *         name of user making this request - for validation
+     * @param callback
+     *         the callback to make with the ID for the submission; the onFailure method of the callback will be called
+     *         if authentication failed
+     */
+    void getSubmitId(String username, AsyncCallback<String> callback);
+
     /**
      * Client-side interface for submitting datasets for QC.
      *
      * @param username
      *         name of user making this request - for validation
+     * @param submitId
+     *         ID for this submission, from {@link #getSubmitId(String, AsyncCallback)}
      * @param datasetIds
      *         IDs of datasets to submit
      * @param archiveStatus
@@ -305,9 +379,23 @@ public interface DashboardServicesInterfaceAsync {
      *         failed, if a dataset does not exist for any of the IDs, or if the submitting of a dataset or change in
      *         archive status failed.
      */
-    void submitDatasetsForQC(String username, TreeSet<String> datasetIds, String archiveStatus,
+    void submitDatasetsForQC(String username, String submitId, TreeSet<String> datasetIds, String archiveStatus,
             String localTimestamp, boolean repeatSend, AsyncCallback<Void> callback);
 
+    /**
+     * Client-side interface for reporting the progress of the submission of datasets for QC.
+     *
+     * @param username
+     *         name of user making this request - for validation
+     * @param submitId
+     *         ID of the submission
+     * @param callback
+     *         the callback to make with the description of the progress of the submission (empty if the user does not
+     *         have a submission with this ID in progress); the onFailure method of the callback will be called if
+     *         authentication failed
+     */
+    void getSubmitProgress(String username, String submitId, AsyncCallback<String> callback);
+
     /**
      * Client-side interface for suspending datasets from QC.
      *
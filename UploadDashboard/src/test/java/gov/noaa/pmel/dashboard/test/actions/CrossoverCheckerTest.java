@@ -8,9 +8,12 @@ import gov.noaa.pmel.dashboard.shared.Crossover;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Karl Smith
@@ -62,6 +65,77 @@ public class CrossoverCheckerTest {
         assertNull(cruiseMaxTimes[1]);
     }
 
+    /**
+     * Test method for
+     * {@link CrossoverChecker#checkForCrossoverPairwise(double[][], double[][], double[][], double[][], double[][])}.
+     */
+    @Test
+    public void testCheckForCrossoverPairwise() {
+        double[][] lons = new double[][] { lons_09AR20120105, lons_353L20120107 };
+        double[][] lats = new double[][] { lats_09AR20120105, lats_353L20120107 };
+        double[][] times = new double[][] { times_09AR20120105, times_353L20120107 };
+        double[][] ssts = new double[][] { ssts_09AR20120105, ssts_353L20120107 };
+        double[][] fco2s = new double[][] { fco2s_09AR20120105, fco2s_353L20120107 };
+
+        Crossover cross = CrossoverChecker.checkForCrossoverPairwise(lons, lats, times, ssts, fco2s);
+        assertEquals(CrossoverChecker.checkForCrossover(lons, lats, times, ssts, fco2s), cross);
+    }
+
+    /**
+     * Test that {@link CrossoverChecker#checkForCrossover(double[][], double[][], double[][], double[][], double[][])}
+     * gives the same results as
+     * {@link CrossoverChecker#checkForCrossoverPairwise(double[][], double[][], double[][], double[][], double[][])}
+     * for randomly generated crossing cruises.
+     */
+    @Test
+    public void testIndexedCrossoverMatchesPairwise() {
+        Random rand = new Random(20120105L);
+        int numFound = 0;
+        for (int trial = 0; trial < 8; trial++) {
+            double[][][] data = makeCrossingCruises(rand, 600);
+            Crossover indexed = CrossoverChecker.checkForCrossover(data[0], data[1], data[2], data[3], data[4]);
+            Crossover pairwise = CrossoverChecker.checkForCrossoverPairwise(data[0], data[1], data[2], data[3], data[4]);
+            assertEquals(pairwise, indexed);
+            if ( indexed != null )
+                numFound++;
+        }
+        assertTrue(numFound > 0);
+    }
+
+    /**
+     * Generates two cruises in different directions passing near a common point at about the same time,
+     * with SST and fCO2 values from a smooth field with some noise.
+     *
+     * @return the arrays of longitudes, latitudes, times, SSTs, and fCO2s, in that order
+     */
+    static double[][][] makeCrossingCruises(Random rand, int numRows) {
+        double[][] lons = new double[2][numRows];
+        double[][] lats = new double[2][numRows];
+        double[][] times = new double[2][numRows];
+        double[][] ssts = new double[2][numRows];
+        double[][] fco2s = new double[2][numRows];
+        // Keep the distance covered the same regardless of the number of rows
+        double stepDeg = 12.0 / numRows;
+        double stepSecs = 1.8E6 / numRows;
+        for (int q = 0; q < 2; q++) {
+            double heading = rand.nextDouble() * 2.0 * Math.PI;
+            double timeOffset = (rand.nextDouble() - 0.5) * 4.0 * 24.0 * 60.0 * 60.0;
+            for (int k = 0; k < numRows; k++) {
+                double steps = k - 0.5 * numRows;
+                double lon = 150.0 + stepDeg * steps * Math.cos(heading) + 0.0005 * rand.nextGaussian();
+                double lat = -45.0 + stepDeg * steps * Math.sin(heading) + 0.0005 * rand.nextGaussian();
+                lons[q][k] = lon;
+                lats[q][k] = lat;
+                times[q][k] = 1325807704.0 + timeOffset + stepSecs * steps;
+                ssts[q][k] = 12.0 + 0.2 * (lat + 45.0) + 0.05 * rand.nextGaussian();
+                fco2s[q][k] = 360.0 + 2.0 * (lon - 150.0) + 1.0 * rand.nextGaussian();
+                if ( rand.nextInt(50) == 0 )
+                    fco2s[q][k] = DashboardUtils.FP_MISSING_VALUE;
+            }
+        }
+        return new double[][][] { lons, lats, times, ssts, fco2s };
+    }
+
     // All the data is below
     private static final double[] lons_09AR20120105 = {
             147.3715, 147.382333, 147.3765, 147.3835, 147.442, 147.402833,
@@ -186,6 +186,50 @@ public class DatasetCheckerTest {
         assertEquals(expectedErrors, errors);
     }
 
+    /**
+     * Test of {@link DatasetChecker#setNumThreads(int)}
+     * and {@link DatasetChecker#standardizeDataset(DashboardDatasetData, DsgMetadata)
+     */
+    @Test
+    public void testParallelDatasetCheck() {
+        CheckerMessageHandler msgHandler = new CheckerMessageHandler("/var/tmp/junit", null, null);
+        DatasetChecker dataChecker = new DatasetChecker(KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES, msgHandler);
+
+        DashboardDatasetData badDataset = new DashboardDatasetData();
+        badDataset.setDatasetId("33RO20030715");
+        badDataset.setDataColTypes(gqbDataColTypes);
+        badDataset.setUserColNames(gqbUserColumnNames);
+        ArrayList<ArrayList<String>> badCruiseData = new ArrayList<ArrayList<String>>(badDataTSVStrings.length);
+        for (String dataString : badDataTSVStrings) {
+            badCruiseData.add(new ArrayList<String>(Arrays.asList(dataString.split("\t", -1))));
+        }
+        badDataset.setDataValues(badCruiseData);
+        ArrayList<Integer> badRowNums = new ArrayList<Integer>(badCruiseData.size());
+        for (int k = 1; k <= badCruiseData.size(); k++) {
+            badRowNums.add(k);
+        }
+        badDataset.setRowNums(badRowNums);
+        badDataset.setNumDataRows(badRowNums.size());
+
+        StdUserDataArray expected = dataChecker.standardizeDataset(badDataset, null);
+        dataChecker.setNumThreads(4);
+        try {
+            StdUserDataArray stdUserData = dataChecker.standardizeDataset(badDataset, null);
+            assertEquals(expected.getStandardizationMessages(), stdUserData.getStandardizationMessages());
+            assertEquals(expected, stdUserData);
+        } finally {
+            dataChecker.shutdown();
+        }
+
+        try {
+            dataChecker.setNumThreads(0);
+            fail("setNumThreads with zero threads succeeded");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
     /**
      * Test of {@link DatasetChecker#DatasetChecker(KnownDataTypes, CheckerMessageHandler)
      * and {@link DatasetChecker#standardizeDataset(DashboardDatasetData, DsgMetadata)
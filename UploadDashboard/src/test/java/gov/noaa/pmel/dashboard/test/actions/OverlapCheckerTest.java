@@ -0,0 +1,193 @@
+package gov.noaa.pmel.dashboard.test.actions;
+
+import gov.noaa.pmel.dashboard.actions.OverlapChecker;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.Overlap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link OverlapChecker}
+ *
+ * @author Karl Smith
+ */
+public class OverlapCheckerTest {
+
+    static final String FIRST_EXPO = "33AT20120101";
+    private static final String SECOND_EXPO = "49P120120103";
+
+    /**
+     * Creates synthetic time-ordered data, sampled every given number of seconds, for a dataset.
+     * The data includes some missing values and some data points to ignore.
+     *
+     * @return the array { lons, lats, times } for the dataset; the ignore flags are assigned in the given array
+     */
+    static double[][] createData(Random rand, int numRows, double startTime, double interval,
+            boolean[] ignore) {
+        double[] lons = new double[numRows];
+        double[] lats = new double[numRows];
+        double[] times = new double[numRows];
+        double lon = 179.0;
+        double lat = -20.0;
+        for (int k = 0; k < numRows; k++) {
+            lon += 0.01 * rand.nextGaussian();
+            if ( lon >= 360.0 )
+                lon -= 360.0;
+            lat += 0.01 * rand.nextGaussian();
+            lons[k] = lon;
+            lats[k] = lat;
+            times[k] = startTime + interval * k;
+            if ( rand.nextInt(200) == 0 )
+                lats[k] = DashboardUtils.FP_MISSING_VALUE;
+            ignore[k] = (rand.nextInt(100) == 0);
+        }
+        return new double[][] { lons, lats, times };
+    }
+
+    /**
+     * Copies the location and time of randomly selected data points onto other data points, within the given range
+     * of rows of the destination, with differences smaller than the resolution used for overlaps.  Longitudes are
+     * sometimes shifted by 360 degrees.
+     */
+    static void addDuplicates(Random rand, double[][] srcData, double[][] destData, int numDups,
+            int destRowRange) {
+        int numSrc = srcData[0].length;
+        for (int q = 0; q < numDups; q++) {
+            int j = rand.nextInt(numSrc);
+            int k = Math.min(j + rand.nextInt(2 * destRowRange + 1) - destRowRange, destData[0].length - 1);
+            if ( k < 0 )
+                k = 0;
+            double lon = srcData[0][j] + 0.00002 * rand.nextGaussian();
+            if ( rand.nextInt(4) == 0 )
+                lon = (lon < 180.0) ? lon + 360.0 : lon - 360.0;
+            destData[0][k] = lon;
+            destData[1][k] = srcData[1][j] + 0.00002 * rand.nextGaussian();
+            destData[2][k] = srcData[2][j] + 0.0002 * rand.nextGaussian();
+        }
+    }
+
+    /**
+     * Test method for {@link OverlapChecker#checkForOverlaps(String[], double[][], double[][], double[][],
+     * boolean[][])} gives the same results as {@link OverlapChecker#checkForOverlapsWindowed(String[], double[][],
+     * double[][], double[][], boolean[][])} for time-ordered data, both within and between datasets.
+     */
+    @Test
+    public void testCheckForOverlaps() {
+        Random rand = new Random(20120101L);
+        int numRows = 6000;
+        boolean[][] ignore = new boolean[2][numRows];
+        double[][] firstData = createData(rand, numRows, 1325376000.0, 60.0, ignore[0]);
+        double[][] secondData = createData(rand, numRows, 1325376000.0 + 30.0 * numRows, 60.0, ignore[1]);
+        // Duplicates within each dataset (close in time so still time-ordered) and between datasets
+        addDuplicates(rand, firstData, firstData, 50, 100);
+        addDuplicates(rand, secondData, secondData, 50, 100);
+        addDuplicates(rand, firstData, secondData, 200, 0);
+
+        // Internal overlaps
+        String[] expos = new String[] { FIRST_EXPO, FIRST_EXPO };
+        double[][] lons = new double[][] { firstData[0], firstData[0] };
+        double[][] lats = new double[][] { firstData[1], firstData[1] };
+        double[][] times = new double[][] { firstData[2], firstData[2] };
+        boolean[][] ignores = new boolean[][] { ignore[0], ignore[0] };
+        Overlap expected = OverlapChecker.checkForOverlapsWindowed(expos, lons, lats, times, ignores);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, OverlapChecker.checkForOverlaps(expos, lons, lats, times, ignores));
+
+        // External overlaps, with the datasets in both orders
+        expos = new String[] { SECOND_EXPO, FIRST_EXPO };
+        lons = new double[][] { secondData[0], firstData[0] };
+        lats = new double[][] { secondData[1], firstData[1] };
+        times = new double[][] { secondData[2], firstData[2] };
+        ignores = new boolean[][] { ignore[1], ignore[0] };
+        expected = OverlapChecker.checkForOverlapsWindowed(expos, lons, lats, times, ignores);
+        assertFalse(expected.isEmpty());
+        assertEquals(FIRST_EXPO, expected.getDatasetIds()[0]);
+        assertEquals(expected, OverlapChecker.checkForOverlaps(expos, lons, lats, times, ignores));
+
+        expos = new String[] { FIRST_EXPO, SECOND_EXPO };
+        lons = new double[][] { firstData[0], secondData[0] };
+        lats = new double[][] { firstData[1], secondData[1] };
+        times = new double[][] { firstData[2], secondData[2] };
+        ignores = new boolean[][] { ignore[0], ignore[1] };
+        expected = OverlapChecker.checkForOverlapsWindowed(expos, lons, lats, times, ignores);
+        assertEquals(expected, OverlapChecker.checkForOverlaps(expos, lons, lats, times, ignores));
+    }
+
+    /**
+     * Test method for {@link OverlapChecker#checkForOverlaps(String[], double[][], double[][], double[][],
+     * boolean[][])} finds the same overlapping data points regardless of the order of the data.
+     */
+    @Test
+    public void testCheckForOverlapsDataOrder() {
+        Random rand = new Random(20120103L);
+        int numRows = 5000;
+        boolean[] ignore = new boolean[numRows];
+        double[][] data = createData(rand, numRows, 1325548800.0, 10.0, ignore);
+        addDuplicates(rand, data, data, 100, numRows);
+        String[] expos = new String[] { SECOND_EXPO, SECOND_EXPO };
+
+        Overlap ordered = OverlapChecker.checkForOverlaps(expos, new double[][] { data[0], data[0] },
+                new double[][] { data[1], data[1] }, new double[][] { data[2], data[2] },
+                new boolean[][] { ignore, ignore });
+        assertFalse(ordered.isEmpty());
+
+        // Randomly permute the data; perm[k] is the original row index of the new row index k
+        int[] perm = new int[numRows];
+        for (int k = 0; k < numRows; k++) {
+            perm[k] = k;
+        }
+        for (int k = numRows - 1; k > 0; k--) {
+            int j = rand.nextInt(k + 1);
+            int tmp = perm[k];
+            perm[k] = perm[j];
+            perm[j] = tmp;
+        }
+        double[] lons = new double[numRows];
+        double[] lats = new double[numRows];
+        double[] times = new double[numRows];
+        boolean[] ignores = new boolean[numRows];
+        for (int k = 0; k < numRows; k++) {
+            lons[k] = data[0][perm[k]];
+            lats[k] = data[1][perm[k]];
+            times[k] = data[2][perm[k]];
+            ignores[k] = ignore[perm[k]];
+        }
+        Overlap shuffled = OverlapChecker.checkForOverlaps(expos, new double[][] { lons, lons },
+                new double[][] { lats, lats }, new double[][] { times, times }, new boolean[][] { ignores, ignores });
+
+        // Results must be in row-number order
+        ArrayList<Integer>[] rowNums = shuffled.getRowNums();
+        for (int q = 1; q < rowNums[0].size(); q++) {
+            int cmp = rowNums[0].get(q - 1).compareTo(rowNums[0].get(q));
+            assertTrue((cmp < 0) || ((cmp == 0) && (rowNums[1].get(q - 1) < rowNums[1].get(q))));
+        }
+        // Same pairs of data points as in the original order
+        assertEquals(pairSet(ordered.getRowNums(), null), pairSet(rowNums, perm));
+    }
+
+    /**
+     * @return the set of pairs of (one-based) row numbers, each pair as "smaller,larger", with row numbers
+     *         mapped to the original row numbers using perm if perm is not null
+     */
+    private static TreeSet<String> pairSet(ArrayList<Integer>[] rowNums, int[] perm) {
+        TreeSet<String> pairs = new TreeSet<String>();
+        for (int q = 0; q < rowNums[0].size(); q++) {
+            int first = rowNums[0].get(q);
+            int second = rowNums[1].get(q);
+            if ( perm != null ) {
+                first = perm[first - 1] + 1;
+                second = perm[second - 1] + 1;
+            }
+            pairs.add(Math.min(first, second) + "," + Math.max(first, second));
+        }
+        return pairs;
+    }
+
+}
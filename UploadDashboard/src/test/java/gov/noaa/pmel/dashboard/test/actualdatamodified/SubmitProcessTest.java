@@ -165,7 +165,7 @@ public class SubmitProcessTest {
         // Ideally this should detect that it completely overlaps with 33GG20181110
         try {
             datasetSubmitter.submitDatasets(Collections.singleton(EXPOCODE),
-                    DashboardUtils.ARCHIVE_STATUS_WITH_NEXT_RELEASE, TIMESTAMP, false, USERNAME);
+                    DashboardUtils.ARCHIVE_STATUS_WITH_NEXT_RELEASE, TIMESTAMP, false, USERNAME, null);
         } catch ( Exception ex ) {
             System.err.println("Problems submitting " + EXPOCODE + " for QC: " + ex.getMessage());
             ex.printStackTrace();
@@ -0,0 +1,119 @@
+package gov.noaa.pmel.dashboard.test.actualdatapreserved;
+
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.ComputedDataCalculator;
+import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
+import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.ferret.FerretConfig;
+import gov.noaa.pmel.dashboard.ferret.FerretGridSampler;
+import gov.noaa.pmel.dashboard.ferret.SocatTool;
+import gov.noaa.pmel.dashboard.server.DashboardConfigStore;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.test.datatype.KnownDataTypesTest;
+import gov.noaa.pmel.dashboard.test.dsg.DsgNcFileTest;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Compares the data computed by {@link ComputedDataCalculator} to that computed by Ferret
+ * for the same data.  Requires Ferret and the gridded data given in the Ferret configuration.
+ *
+ * @author Karl Smith
+ */
+public class ComputedVariablesRegressionTest {
+
+    private static final double TOLERANCE = 1.0E-4;
+
+    @Test
+    public void computedVariablesRegressionTest() throws Exception {
+        System.setProperty("CATALINA_BASE", System.getenv("HOME") + "/Tomcat");
+        System.setProperty("UPLOAD_DASHBOARD_SERVER_NAME", "SocatUploadDashboard");
+        DashboardConfigStore confStore = DashboardConfigStore.get(false);
+        FerretConfig ferret = confStore.getFerretConfig();
+        DsgNcFileTest fileTest = new DsgNcFileTest();
+        fileTest.testCreate();
+        DsgMetadata metadata = fileTest.dsgNcFile.getMetadata();
+        String expocode = metadata.getDatasetId();
+
+        // Work on a copy of the DSG file so the file created by DsgNcFileTest is not modified
+        File tmpDir = Files.createTempDirectory("ComputedVariables").toFile();
+        DsgNcFile dsgFile = new DsgNcFile(tmpDir, expocode + ".nc");
+        try {
+            dsgFile.createFromFileData(metadata, fileTest.dsgNcFile.getStdDataArray(),
+                    KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+
+            ComputedDataCalculator calculator = new ComputedDataCalculator(new FerretGridSampler(ferret));
+            StdDataArray javaData = calculator.addComputedData(dsgFile.getStdDataArray());
+
+            SocatTool tool = new SocatTool(ferret);
+            ArrayList<String> scriptArgs = new ArrayList<String>(1);
+            scriptArgs.add(dsgFile.getPath());
+            tool.init(scriptArgs, expocode, FerretConfig.Action.COMPUTE);
+            tool.run();
+            assertFalse(tool.hasError());
+            // Read the variables added by Ferret as well as the standard variables
+            KnownDataTypes computedTypes = new KnownDataTypes()
+                    .addTypes(KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES)
+                    .addComputedTypesForDataFiles();
+            dsgFile.readData(computedTypes);
+            StdDataArray ferretData = dsgFile.getStdDataArray();
+            assertEquals(ferretData.getNumSamples(), javaData.getNumSamples());
+
+            ArrayList<DashDataType<?>> compareTypes = new ArrayList<DashDataType<?>>(Arrays.asList(
+                    SocatTypes.FCO2_REC,
+                    SocatTypes.FCO2_SOURCE,
+                    SocatTypes.DELTA_TEMP,
+                    SocatTypes.CALC_SPEED,
+                    SocatTypes.NCEP_SLP,
+                    SocatTypes.WOA_SALINITY,
+                    SocatTypes.ETOPO2_DEPTH,
+                    SocatTypes.DIST_TO_LAND,
+                    SocatTypes.GVCO2,
+                    DashboardServerUtils.REGION_ID,
+                    DashboardServerUtils.DAY_OF_YEAR,
+                    SocatTypes.LON360,
+                    SocatTypes.TMONTH));
+            compareTypes.addAll(SocatTypes.FCO2_REC_CANDIDATES);
+            for (DashDataType<?> dtype : compareTypes) {
+                Integer ferretIdx = ferretData.getIndexOfType(dtype);
+                Integer javaIdx = javaData.getIndexOfType(dtype);
+                assertNotNull(dtype.getVarName() + " not computed by Ferret", ferretIdx);
+                assertNotNull(dtype.getVarName() + " not computed in Java", javaIdx);
+                for (int j = 0; j < ferretData.getNumSamples(); j++) {
+                    String msg = dtype.getVarName() + " differs at sample " + (j + 1);
+                    assertEquals(msg, ferretData.isMissing(j, ferretIdx), javaData.isMissing(j, javaIdx));
+                    if ( ferretData.isMissing(j, ferretIdx) )
+                        continue;
+                    if ( dtype instanceof DoubleDashDataType ) {
+                        double expected = ferretData.getDoubleVal(j, ferretIdx);
+                        assertEquals(msg, expected, javaData.getDoubleVal(j, javaIdx),
+                                TOLERANCE * Math.max(1.0, Math.abs(expected)));
+                    }
+                    else if ( dtype instanceof IntDashDataType ) {
+                        assertEquals(msg, ferretData.getIntVal(j, ferretIdx), javaData.getIntVal(j, javaIdx));
+                    }
+                    else {
+                        assertEquals(msg, ferretData.getStringVal(j, ferretIdx), javaData.getStringVal(j, javaIdx));
+                    }
+                }
+            }
+        } finally {
+            dsgFile.delete();
+            tmpDir.delete();
+        }
+    }
+
+}
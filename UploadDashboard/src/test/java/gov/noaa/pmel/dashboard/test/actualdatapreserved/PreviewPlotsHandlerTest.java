@@ -8,7 +8,9 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test of generating the preview plots, which also tests the
@@ -63,4 +65,33 @@ public class PreviewPlotsHandlerTest {
         }
     }
 
+    @Test
+    public void testSubmitPreviewPlots() throws IOException {
+        System.setProperty("CATALINA_BASE", System.getenv("HOME") + "/Tomcat");
+        System.setProperty("UPLOAD_DASHBOARD_SERVER_NAME", "SocatUploadDashboard");
+        final String timetag = "queued";
+        DashboardConfigStore configStore = DashboardConfigStore.get(false);
+        PreviewPlotsHandler plotsHandler = configStore.getPreviewPlotsHandler();
+        File dsgFilesDir = plotsHandler.getDatasetPreviewDsgDir(EXPOCODE);
+
+        assertTrue(plotsHandler.submitPreviewPlots(EXPOCODE, timetag));
+        // identical requests are not queued again
+        assertFalse(plotsHandler.submitPreviewPlots(EXPOCODE, timetag));
+        long startMillis = System.currentTimeMillis();
+        while ( !plotsHandler.waitForPreviewPlots(EXPOCODE, timetag, 1000L) ) {
+            if ( System.currentTimeMillis() - startMillis > 300000L )
+                fail("preview plots not generated in five minutes; " + plotsHandler.getJobStatistics());
+        }
+        File dsgFile = new File(dsgFilesDir, EXPOCODE + "_" + timetag + ".nc");
+        assertTrue(dsgFile.exists());
+        dsgFile.delete();
+
+        // a cancelled request reports the cancellation
+        assertTrue(plotsHandler.submitPreviewPlots(EXPOCODE, timetag + "2"));
+        assertTrue(plotsHandler.cancelPreviewPlots(EXPOCODE, timetag + "2"));
+        assertFalse(plotsHandler.cancelPreviewPlots(EXPOCODE, timetag + "2"));
+        // forgotten once cancelled
+        assertTrue(plotsHandler.waitForPreviewPlots(EXPOCODE, timetag + "2", 1000L));
+    }
+
 }
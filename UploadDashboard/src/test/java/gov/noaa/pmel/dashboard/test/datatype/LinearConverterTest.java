@@ -4,8 +4,12 @@
 package gov.noaa.pmel.dashboard.test.datatype;
 
 import gov.noaa.pmel.dashboard.datatype.LinearConverter;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import org.junit.Test;
 
+import java.util.BitSet;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -101,4 +105,76 @@ public class LinearConverterTest {
         assertEquals(10.0, converter.convertValueOf("5.14444444"), 1.0E-6);
     }
 
+    /**
+     * Test method for {@link LinearConverter#convertValues(String[], int, double[], BitSet, String[])}.
+     */
+    @Test
+    public void testConvertValues() {
+        String[] strVals = new String[] { "273.15", " --- ", "373.15", "1012.0 hPa", "-9999", null, "Infinity" };
+        LinearConverter converter = new LinearConverter("K", "degC", null);
+        double[] values = new double[strVals.length];
+        BitSet missing = new BitSet();
+        String[] errors = new String[strVals.length];
+        assertEquals(3, converter.convertValues(strVals, strVals.length, values, missing, errors));
+        for (int j = 0; j < strVals.length; j++) {
+            Double expected;
+            String expectedError;
+            try {
+                expected = converter.convertValueOf(strVals[j]);
+                expectedError = null;
+            } catch ( IllegalArgumentException ex ) {
+                expected = null;
+                expectedError = ex.getMessage();
+            }
+            assertEquals(expectedError, errors[j]);
+            assertEquals(expected == null, missing.get(j));
+            if ( expected == null )
+                assertEquals(DashboardUtils.FP_MISSING_VALUE, values[j], 1.0E-6);
+            else
+                assertEquals(expected, values[j], 1.0E-6);
+        }
+        assertEquals(0.0, values[0], 1.0E-6);
+        assertEquals(100.0, values[2], 1.0E-6);
+
+        // only the number of values given are converted
+        assertEquals(0, converter.convertValues(strVals, 3, values, missing, errors));
+    }
+
+    /**
+     * Test that {@link LinearConverter#convertValues(String[], int, double[], BitSet, String[])} gives the same
+     * values as {@link LinearConverter#convertValueOf(String)} for a column of random values.
+     */
+    @Test
+    public void testConvertValuesMatchesConvertValueOf() {
+        final int numValues = 2000;
+        String[] strVals = createValues(numValues, new Random(20170415L));
+        LinearConverter converter = new LinearConverter("K", "degC", null);
+        double[] values = new double[numValues];
+        BitSet missing = new BitSet(numValues);
+        String[] errors = new String[numValues];
+        assertEquals(0, converter.convertValues(strVals, numValues, values, missing, errors));
+        assertEquals(numValues / 50, missing.cardinality());
+        for (int j = 0; j < numValues; j++) {
+            Double expected = converter.convertValueOf(strVals[j]);
+            if ( expected == null )
+                assertTrue(missing.get(j));
+            else
+                assertEquals(expected, values[j], 0.0);
+        }
+    }
+
+    /**
+     * @return temperatures in Kelvin as strings, with every fiftieth value "NaN"
+     */
+    static String[] createValues(int numValues, Random random) {
+        String[] strVals = new String[numValues];
+        for (int j = 0; j < numValues; j++) {
+            if ( (j % 50) == 0 )
+                strVals[j] = "NaN";
+            else
+                strVals[j] = String.format("%.3f", 260.0 + 40.0 * random.nextDouble());
+        }
+        return strVals;
+    }
+
 }
@@ -6,6 +6,9 @@ package gov.noaa.pmel.dashboard.test.datatype;
 import gov.noaa.pmel.dashboard.datatype.LonLatConverter;
 import org.junit.Test;
 
+import java.util.BitSet;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -151,4 +154,90 @@ public class LonLatConverterTest {
         assertEquals(45.7675, converter.convertValueOf("314.135700"), 1.0E-6);
     }
 
+    /**
+     * Test method for {@link LonLatConverter#convertValues(String[], int, double[], BitSet, String[])}
+     * for each of the supported input units.
+     */
+    @Test
+    public void testConvertValues() {
+        String deg = LonLatConverter.DEGREE_SYMBOL;
+        String[] strVals = new String[] { "123.45", "-315", "9999", "-9999", " --- ", "45 51.3", "314" + deg + " 45.0'",
+                "45" + deg + " 50' 11.4\"", "314.135700", "45.5118", ".5", "11.4'", "abc", null, "NaN" };
+        String[][] unitPairs = new String[][] {
+                { "deg E", "deg E" }, { "deg min E", "deg E" }, { "deg min sec E", "deg E" },
+                { "DDD.MMSSss E", "deg E" }, { "deg W", "deg E" }, { "deg min W", "deg E" },
+                { "deg min sec W", "deg E" }, { "DDD.MMSSss W", "deg E" },
+                { "deg N", "deg N" }, { "deg min S", "deg N" }, { "deg min sec N", "deg N" },
+                { "DD.MMSSss S", "deg N" }
+        };
+        double[] values = new double[strVals.length];
+        BitSet missing = new BitSet();
+        String[] errors = new String[strVals.length];
+        for (String[] units : unitPairs) {
+            // missing value given so "NaN" is interpreted as a value
+            for (String missVal : new String[] { null, "-9999" }) {
+                LonLatConverter converter = new LonLatConverter(units[0], units[1], missVal);
+                int numErrors = converter.convertValues(strVals, strVals.length, values, missing, errors);
+                int expectedNumErrors = 0;
+                for (int j = 0; j < strVals.length; j++) {
+                    String msg = units[0] + " \"" + strVals[j] + "\"";
+                    Double expected;
+                    String expectedError;
+                    try {
+                        expected = converter.convertValueOf(strVals[j]);
+                        expectedError = null;
+                    } catch ( IllegalArgumentException ex ) {
+                        expected = null;
+                        expectedError = ex.getMessage();
+                        expectedNumErrors++;
+                    }
+                    assertEquals(msg, expectedError, errors[j]);
+                    assertEquals(msg, expected == null, missing.get(j));
+                    if ( expected != null )
+                        assertEquals(msg, expected, values[j], 0.0);
+                }
+                assertEquals(units[0], expectedNumErrors, numErrors);
+            }
+        }
+    }
+
+    /**
+     * Test that {@link LonLatConverter#convertValues(String[], int, double[], BitSet, String[])} gives the same
+     * values as {@link LonLatConverter#convertValueOf(String)} for columns of random decimal degree and degree minute
+     * longitudes.
+     */
+    @Test
+    public void testConvertValuesMatchesConvertValueOf() {
+        final int numValues = 2000;
+        Random random = new Random(20170415L);
+        for (String fromUnit : new String[] { "deg E", "deg min W" }) {
+            String[] strVals = createLongitudes(fromUnit, numValues, random);
+            LonLatConverter converter = new LonLatConverter(fromUnit, "deg E", null);
+            double[] values = new double[numValues];
+            BitSet missing = new BitSet(numValues);
+            String[] errors = new String[numValues];
+            assertEquals(fromUnit, 0, converter.convertValues(strVals, numValues, values, missing, errors));
+            assertEquals(fromUnit, 0, missing.cardinality());
+            for (int j = 0; j < numValues; j++) {
+                assertEquals(fromUnit + " \"" + strVals[j] + "\"", converter.convertValueOf(strVals[j]),
+                        values[j], 0.0);
+            }
+        }
+    }
+
+    /**
+     * @return random longitudes as strings in the given units, either "deg E" or "deg min W"
+     */
+    static String[] createLongitudes(String fromUnit, int numValues, Random random) {
+        String[] strVals = new String[numValues];
+        for (int j = 0; j < numValues; j++) {
+            double lon = 360.0 * random.nextDouble();
+            if ( "deg E".equals(fromUnit) )
+                strVals[j] = String.format("%.5f", lon);
+            else
+                strVals[j] = String.format("%d %.3f", (int) lon, 60.0 * (lon - (int) lon));
+        }
+        return strVals;
+    }
+
 }
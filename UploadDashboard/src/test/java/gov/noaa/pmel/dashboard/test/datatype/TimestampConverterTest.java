@@ -3,14 +3,206 @@ package gov.noaa.pmel.dashboard.test.datatype;
 import gov.noaa.pmel.dashboard.datatype.TimestampConverter;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Unit tests for method of {@link TimestampConverter}
  */
 public class TimestampConverterTest {
 
+    private static final String[][] SUPPORTED_CONVERSIONS = new String[][] {
+            { "yyyy-mm-dd hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "mm-dd-yyyy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "dd-mm-yyyy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "mon-dd-yyyy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "dd-mon-yyyy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "mm-dd-yy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "dd-mm-yy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "mon-dd-yy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "dd-mon-yy hh:mm:ss", "yyyy-mm-dd hh:mm:ss" },
+            { "yyyy-mm-dd", "yyyy-mm-dd" },
+            { "mm-dd-yyyy", "yyyy-mm-dd" },
+            { "dd-mm-yyyy", "yyyy-mm-dd" },
+            { "mm-dd-yy", "yyyy-mm-dd" },
+            { "dd-mm-yy", "yyyy-mm-dd" },
+            { "dd-mon-yyyy", "yyyy-mm-dd" },
+            { "mon-dd-yyyy", "yyyy-mm-dd" },
+            { "dd-mon-yy", "yyyy-mm-dd" },
+            { "mon-dd-yy", "yyyy-mm-dd" },
+            { "hh:mm:ss", "hh:mm:ss" }
+    };
+
+    static final String[][] MONTH_NAMES = new String[][] {
+            { "Jan", "January" }, { "Feb", "February" }, { "Mar", "March" }, { "Apr", "April" },
+            { "May", "May" }, { "Jun", "June" }, { "Jul", "July" }, { "Aug", "August" },
+            { "Sep", "Sept", "September" }, { "Oct", "October" }, { "Nov", "November" }, { "Dec", "December" }
+    };
+    private static final String[] DATE_SEPARATORS = new String[] { "-", "-", "/", " ", ", ", "--", "- ", "." };
+    private static final String[] ODD_VALUES = new String[] {
+            "", " ", "abc", "NaN", "-999", "-", "+5:3:2", "5:32:", ":32:45", "5::45", "1:2:3:4", "05.245",
+            "053245.5", "0532.5", "12345678", "2015-03-15,", " 2015-03-15", "2015-03-15 ", "2015-03-15  05:32:45",
+            "2015-03-15T05:32:45", "2015-03-15t05:32:45", "15-OCT-2015 05:32:45", "15-SEPT-2015 05:32:45",
+            "15-AUGUST-2015 05:32:45", "15 May, 2015 05:32:45.1235", "June 25, 1999 5:32:45", "25-Jun-99 5:32",
+            "20150315 053245", "150315 0532", "Oct-25-1999 5:32:45.", "29-02-2016", "29-02-2015", "2015-2-29",
+            "1899-12-31", "12-31-99", "31-12-99 23:59:59.999", "31-12-99 23:59:59.9999", "31-12-99 24:00:00"
+    };
+
+    /**
+     * Test of {@link TimestampConverter#convertValueOf(String)} giving the same results as
+     * {@link TimestampConverter#convertValueWithPatterns(String)} for all supported conversions
+     */
+    @Test
+    public void testConvertValueOfDifferential() {
+        Random random = new Random(20170415L);
+        for (String[] conversion : SUPPORTED_CONVERSIONS) {
+            TimestampConverter converter = new TimestampConverter(conversion[0], conversion[1], null);
+            ArrayList<String> values = new ArrayList<String>();
+            for (String value : ODD_VALUES) {
+                values.add(value);
+            }
+            for (int k = 0; k < 20000; k++) {
+                values.add(randomValue(random, conversion[0]));
+            }
+            int numValid = 0;
+            for (String value : values) {
+                String expected = convertOrMessage(converter, value, true);
+                assertEquals(conversion[0] + ": '" + value + "'", expected,
+                        convertOrMessage(converter, value, false));
+                if ( (expected != null) && !expected.startsWith("IllegalArgumentException") )
+                    numValid++;
+            }
+            // make sure a good portion of the values are valid
+            assertTrue(conversion[0] + ": only " + numValid + " valid values", numValid > 5000);
+        }
+    }
+
+    private static String convertOrMessage(TimestampConverter converter, String value, boolean usePatterns) {
+        try {
+            if ( usePatterns )
+                return converter.convertValueWithPatterns(value);
+            return converter.convertValueOf(value);
+        } catch ( IllegalArgumentException ex ) {
+            return "IllegalArgumentException: " + ex.getMessage();
+        }
+    }
+
+    /**
+     * @return a random value, mostly valid, in the given format
+     */
+    private static String randomValue(Random random, String fromUnit) {
+        Calendar now = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        int currYear = now.get(Calendar.YEAR);
+        // mostly valid dates, including a few in the future
+        int year = 1895 + random.nextInt(currYear - 1893);
+        int month = random.nextInt(20) == 0 ? random.nextInt(14) : 1 + random.nextInt(12);
+        int day = random.nextInt(20) == 0 ? random.nextInt(33) : 1 + random.nextInt(28 + random.nextInt(4));
+        if ( random.nextInt(50) == 0 ) {
+            year = currYear;
+            month = now.get(Calendar.MONTH) + 1;
+            day = now.get(Calendar.DAY_OF_MONTH) + random.nextInt(3) - 1;
+        }
+        int hour = random.nextInt(20) == 0 ? 24 : random.nextInt(24);
+        int minute = random.nextInt(20) == 0 ? 60 : random.nextInt(60);
+        int second = random.nextInt(20) == 0 ? 60 : random.nextInt(60);
+        if ( "hh:mm:ss".equals(fromUnit) )
+            return formatTime(random, hour, minute, second);
+        if ( !fromUnit.endsWith("hh:mm:ss") )
+            return formatDate(random, fromUnit, year, month, day);
+        return formatTimestamp(random, fromUnit, year, month, day, hour, minute, second);
+    }
+
+    private static String formatTimestamp(Random random, String fromUnit, int year, int month, int day,
+            int hour, int minute, int second) {
+        String sep;
+        switch ( random.nextInt(10) ) {
+            case 0:
+                sep = "T";
+                break;
+            case 1:
+                sep = "  ";
+                break;
+            default:
+                sep = " ";
+        }
+        return formatDate(random, fromUnit, year, month, day) + sep + formatTime(random, hour, minute, second);
+    }
+
+    private static String formatDate(Random random, String fromUnit, int year, int month, int day) {
+        String dateUnit = fromUnit.replace(" hh:mm:ss", "");
+        boolean pad = random.nextBoolean();
+        String yearStr;
+        if ( dateUnit.endsWith("-yy") && (random.nextInt(20) != 0) )
+            yearStr = String.format("%02d", year % 100);
+        else
+            yearStr = Integer.toString(year);
+        String monthStr;
+        if ( dateUnit.contains("mon") ) {
+            if ( (month >= 1) && (month <= 12) ) {
+                String[] names = MONTH_NAMES[month - 1];
+                monthStr = names[random.nextInt(names.length)];
+                switch ( random.nextInt(4) ) {
+                    case 0:
+                        monthStr = monthStr.toUpperCase();
+                        break;
+                    case 1:
+                        monthStr = monthStr.toLowerCase();
+                        break;
+                    default:
+                }
+            }
+            else
+                monthStr = "Xyz";
+        }
+        else
+            monthStr = pad ? String.format("%02d", month) : Integer.toString(month);
+        String dayStr = pad ? String.format("%02d", day) : Integer.toString(day);
+        String sep = DATE_SEPARATORS[random.nextInt(DATE_SEPARATORS.length)];
+        if ( pad && !dateUnit.contains("mon") && (random.nextInt(4) == 0) )
+            sep = "";
+        String sep2 = (random.nextInt(10) == 0) ? DATE_SEPARATORS[random.nextInt(DATE_SEPARATORS.length)] : sep;
+        if ( dateUnit.startsWith("yyyy") )
+            return yearStr + sep + monthStr + sep2 + dayStr;
+        if ( dateUnit.startsWith("dd") )
+            return dayStr + sep + monthStr + sep2 + yearStr;
+        return monthStr + sep + dayStr + sep2 + yearStr;
+    }
+
+    private static String formatTime(Random random, int hour, int minute, int second) {
+        String fraction;
+        switch ( random.nextInt(6) ) {
+            case 0:
+                fraction = "." + random.nextInt(10);
+                break;
+            case 1:
+                fraction = String.format(".%03d", random.nextInt(1000));
+                break;
+            case 2:
+                fraction = String.format(".%04d", random.nextInt(10000));
+                break;
+            default:
+                fraction = "";
+        }
+        switch ( random.nextInt(8) ) {
+            case 0:
+                return String.format("%02d%02d%02d", hour, minute, second) + fraction;
+            case 1:
+                return String.format("%02d%02d", hour, minute);
+            case 2:
+                return hour + ":" + minute;
+            case 3:
+                return hour + ":" + minute + ":" + second + fraction;
+            default:
+                return String.format("%02d:%02d:%02d", hour, minute, second) + fraction;
+        }
+    }
+
     /**
      * Test of {@link TimestampConverter#TimestampConverter(String, String, String)}
      */
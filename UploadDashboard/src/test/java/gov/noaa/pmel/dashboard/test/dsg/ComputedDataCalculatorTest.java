@@ -0,0 +1,197 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.AncillaryDataSampler;
+import gov.noaa.pmel.dashboard.dsg.ComputedDataCalculator;
+import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
+import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import gov.noaa.pmel.dashboard.test.datatype.KnownDataTypesTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link ComputedDataCalculator}
+ *
+ * @author Karl Smith
+ */
+public class ComputedDataCalculatorTest {
+
+    private static final String EXPOCODE = "31B520060606";
+
+    private static final String[] DATA_VALUE_STRINGS = {
+            "5,6,10,2006,23,48,29.0514,-92.759,28.78,33.68,409.7,1009.281",
+            "5,6,10,2006,23,49,29.0513,-92.759,28.9,33.56,405.5,1009.298",
+            "5,6,10,2006,23,50,29.0518,-92.7591,28.94,33.48,402.1,1009.314",
+            "5,6,10,2006,23,51,29.0517,-92.7592,28.99,33.44,0.0,1009.302",
+    };
+
+    /**
+     * Sampler returning the same values at every location
+     */
+    private static final AncillaryDataSampler CONSTANT_SAMPLER = new AncillaryDataSampler() {
+        @Override
+        public double[] sampleSeaLevelPressures(double[] longitudes, double[] latitudes, double[] times) {
+            return constants(longitudes.length, 1010.0);
+        }
+
+        @Override
+        public double[] sampleWoaSalinities(double[] longitudes, double[] latitudes, int[] months) {
+            return constants(longitudes.length, 35.0);
+        }
+
+        @Override
+        public double[] sampleSeaFloorDepths(double[] longitudes, double[] latitudes) {
+            return constants(longitudes.length, 120.0);
+        }
+
+        @Override
+        public double[] sampleDistancesToLand(double[] longitudes, double[] latitudes) {
+            return constants(longitudes.length, 45.0);
+        }
+
+        @Override
+        public double[] sampleGlobalViewCO2s(double[] latitudes, double[] times) {
+            // no GlobalView data for these times
+            return constants(latitudes.length, Double.NaN);
+        }
+
+        @Override
+        public String[] sampleRegionIds(double[] longitudes, double[] latitudes) {
+            String[] regionIds = new String[longitudes.length];
+            Arrays.fill(regionIds, "C");
+            return regionIds;
+        }
+    };
+
+    /**
+     * Test method for {@link ComputedDataCalculator#addComputedData(StdDataArray)}
+     */
+    @Test
+    public void testAddComputedData() throws Exception {
+        StdDataArray filedata = createFileData();
+        StdDataArray computed = new ComputedDataCalculator(CONSTANT_SAMPLER).addComputedData(filedata);
+        assertEquals(filedata.getNumSamples(), computed.getNumSamples());
+        // Original data columns are still present
+        assertEquals(409.7, computed.getDoubleVal(0, computed.getIndexOfType(SocatTypes.XCO2_WATER_SST_DRY)), 1.0E-10);
+
+        // fCO2 from xCO2 SST using Patm + 3 and the reported salinity
+        int fco2Idx = computed.getIndexOfType(SocatTypes.FCO2_REC);
+        int srcIdx = computed.getIndexOfType(SocatTypes.FCO2_SOURCE);
+        assertEquals(392.4144393745639, computed.getDoubleVal(0, fco2Idx), 1.0E-8);
+        assertEquals(388.29111133773296, computed.getDoubleVal(1, fco2Idx), 1.0E-8);
+        assertEquals(2, computed.getIntVal(0, srcIdx));
+        assertEquals(392.4144393745639,
+                computed.getDoubleVal(0, computed.getIndexOfType(SocatTypes.FCO2_FROM_XCO2_SST)), 1.0E-8);
+        // the NCEP and WOA variant uses the sampled values
+        assertEquals(392.7146570430065,
+                computed.getDoubleVal(0, computed.getIndexOfType(SocatTypes.FCO2_FROM_XCO2_SST_NCEP_WOA)), 1.0E-8);
+        // no equilibrator temperature, so no Tequ variants
+        assertTrue(computed.isMissing(0, computed.getIndexOfType(SocatTypes.FCO2_FROM_XCO2_TEQU)));
+
+        // As with Ferret, a zero xCO2 gives the (zero) last fCO2 with no source
+        assertEquals(0.0, computed.getDoubleVal(3, fco2Idx), 1.0E-10);
+        assertTrue(computed.isMissing(3, srcIdx));
+
+        // Sampled values
+        assertEquals(1010.0, computed.getDoubleVal(0, computed.getIndexOfType(SocatTypes.NCEP_SLP)), 1.0E-10);
+        assertEquals(35.0, computed.getDoubleVal(2, computed.getIndexOfType(SocatTypes.WOA_SALINITY)), 1.0E-10);
+        assertEquals(120.0, computed.getDoubleVal(1, computed.getIndexOfType(SocatTypes.ETOPO2_DEPTH)), 1.0E-10);
+        assertEquals(45.0, computed.getDoubleVal(3, computed.getIndexOfType(SocatTypes.DIST_TO_LAND)), 1.0E-10);
+        assertTrue(computed.isMissing(0, computed.getIndexOfType(SocatTypes.GVCO2)));
+        assertEquals("C", computed.getStringVal(0, computed.getIndexOfType(DashboardServerUtils.REGION_ID)));
+
+        // Other computed values
+        assertEquals(267.241, computed.getDoubleVal(0, computed.getIndexOfType(SocatTypes.LON360)), 1.0E-10);
+        assertEquals("Jun", computed.getStringVal(0, computed.getIndexOfType(SocatTypes.TMONTH)));
+        assertEquals(161.99166666666667,
+                computed.getDoubleVal(0, computed.getIndexOfType(DashboardServerUtils.DAY_OF_YEAR)), 1.0E-8);
+        assertTrue(computed.isMissing(0, computed.getIndexOfType(SocatTypes.DELTA_TEMP)));
+        int speedIdx = computed.getIndexOfType(SocatTypes.CALC_SPEED);
+        assertEquals(0.36, computed.getDoubleVal(0, speedIdx), 1.0E-6);
+        assertEquals(1.835647022685326, computed.getDoubleVal(1, speedIdx), 1.0E-6);
+        // last speed is that of the previous sample
+        assertEquals(computed.getDoubleVal(2, speedIdx), computed.getDoubleVal(3, speedIdx), 1.0E-10);
+    }
+
+    /**
+     * Test of {@link ComputedDataCalculator#addComputedData(StdDataArray)} without gridded data
+     */
+    @Test
+    public void testWithoutSampler() throws Exception {
+        StdDataArray filedata = createFileData();
+        StdDataArray computed = new ComputedDataCalculator(null).addComputedData(filedata);
+        int fco2Idx = computed.getIndexOfType(SocatTypes.FCO2_REC);
+        assertEquals(392.4144393745639, computed.getDoubleVal(0, fco2Idx), 1.0E-8);
+        assertTrue(computed.isMissing(0, computed.getIndexOfType(SocatTypes.FCO2_FROM_XCO2_SST_NCEP_WOA)));
+        // Gridded variables are left as they were (not present)
+        assertNull(computed.getIndexOfType(SocatTypes.ETOPO2_DEPTH));
+        assertNull(computed.getIndexOfType(DashboardServerUtils.REGION_ID));
+        assertNotNull(computed.getIndexOfType(SocatTypes.LON360));
+    }
+
+    /**
+     * Test method for {@link ComputedDataCalculator#addComputedMetadata(DsgMetadata, int)}
+     */
+    @Test
+    public void testAddComputedMetadata() {
+        DsgMetadata metadata = new DsgMetadata(KnownDataTypesTest.TEST_KNOWN_METADATA_FILE_TYPES);
+        metadata.setDatasetId(EXPOCODE);
+        DsgMetadata computed = ComputedDataCalculator.addComputedMetadata(metadata, 25);
+        assertEquals(EXPOCODE, computed.getDatasetId());
+        assertEquals(Integer.valueOf(25), computed.getValuesMap().get(SocatTypes.NOBS_FULL));
+        assertEquals(Integer.valueOf(25), computed.getValuesMap().get(SocatTypes.NOBS_DECI));
+        // the original metadata is unchanged
+        assertFalse(metadata.getValuesMap().containsKey(SocatTypes.NOBS_FULL));
+    }
+
+    private static StdDataArray createFileData() {
+        ArrayList<String> userColumnNames = new ArrayList<String>(Arrays.asList(
+                "depth,month,day,year,hour,minute,lat,lon,SST,sal,xCO2_SST,P_atm".split(",")));
+        ArrayList<DataColumnType> testTypes = new ArrayList<DataColumnType>(Arrays.asList(
+                DashboardServerUtils.SAMPLE_DEPTH.duplicate(),
+                DashboardServerUtils.MONTH_OF_YEAR.duplicate(),
+                DashboardServerUtils.DAY_OF_MONTH.duplicate(),
+                DashboardServerUtils.YEAR.duplicate(),
+                DashboardServerUtils.HOUR_OF_DAY.duplicate(),
+                DashboardServerUtils.MINUTE_OF_HOUR.duplicate(),
+                DashboardServerUtils.LATITUDE.duplicate(),
+                DashboardServerUtils.LONGITUDE.duplicate(),
+                SocatTypes.SST.duplicate(),
+                SocatTypes.SALINITY.duplicate(),
+                SocatTypes.XCO2_WATER_SST_DRY.duplicate(),
+                SocatTypes.PATM.duplicate()));
+        ArrayList<ArrayList<String>> testValues = new ArrayList<ArrayList<String>>();
+        ArrayList<Integer> rowNums = new ArrayList<Integer>();
+        for (String valsString : DATA_VALUE_STRINGS) {
+            testValues.add(new ArrayList<String>(Arrays.asList(valsString.split(",", -1))));
+            rowNums.add(rowNums.size() + 1);
+        }
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(userColumnNames);
+        dataset.setDataColTypes(testTypes);
+        dataset.setDataValues(testValues);
+        dataset.setRowNums(rowNums);
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        return new StdDataArray(stdUserData, KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+    }
+
+    private static double[] constants(int num, double value) {
+        double[] values = new double[num];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+}
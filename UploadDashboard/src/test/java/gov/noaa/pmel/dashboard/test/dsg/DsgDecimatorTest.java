@@ -0,0 +1,166 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.ComputedDataCalculator;
+import gov.noaa.pmel.dashboard.dsg.DsgDecimator;
+import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
+import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
+import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import gov.noaa.pmel.dashboard.test.datatype.KnownDataTypesTest;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link DsgDecimator}
+ *
+ * @author Karl Smith
+ */
+public class DsgDecimatorTest {
+
+    private static final String EXPOCODE = "31B520060611";
+    private static final int NUM_SAMPLES = 50;
+    private static final int SPIKE_INDEX = 25;
+
+    /**
+     * Test method for {@link DsgDecimator#selectSamples(double[], double[], double[], double, double, double)}
+     */
+    @Test
+    public void testSelectSamples() {
+        double[] lons = new double[NUM_SAMPLES];
+        double[] lats = new double[NUM_SAMPLES];
+        double[] fco2s = new double[NUM_SAMPLES];
+        for (int j = 0; j < NUM_SAMPLES; j++) {
+            lons[j] = 200.0 + 0.1 * j;
+            lats[j] = 20.0 - 0.05 * j;
+            fco2s[j] = 380.0 + 0.01 * j;
+        }
+        // a straight line only needs the end points
+        assertArrayEquals(new int[] {0, NUM_SAMPLES - 1},
+                DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 4.0));
+
+        // a spike in one variable needs the spike and its neighbors
+        fco2s[SPIKE_INDEX] += 50.0;
+        assertArrayEquals(new int[] {0, SPIKE_INDEX - 1, SPIKE_INDEX, SPIKE_INDEX + 1, NUM_SAMPLES - 1},
+                DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 4.0));
+        // but not if within tolerance
+        assertArrayEquals(new int[] {0, NUM_SAMPLES - 1},
+                DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 60.0));
+
+        // invalid samples are never selected
+        fco2s[0] = Double.NaN;
+        lats[NUM_SAMPLES - 1] = Double.NaN;
+        assertArrayEquals(new int[] {1, SPIKE_INDEX - 1, SPIKE_INDEX, SPIKE_INDEX + 1, NUM_SAMPLES - 2},
+                DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 4.0));
+
+        // but something is always selected
+        Arrays.fill(fco2s, Double.NaN);
+        assertArrayEquals(new int[] {0}, DsgDecimator.selectSamples(lons, lats, fco2s, 1.0, 1.0, 4.0));
+    }
+
+    /**
+     * Test method for {@link DsgDecimator#decimate(File, File)}
+     */
+    @Test
+    public void testDecimate() throws Exception {
+        KnownDataTypes dataFileTypes = new KnownDataTypes()
+                .addTypes(KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES)
+                .addComputedTypesForDataFiles();
+        KnownDataTypes metadataFileTypes = new KnownDataTypes()
+                .addTypes(KnownDataTypesTest.TEST_KNOWN_METADATA_FILE_TYPES)
+                .addComputedTypesForMetadataFiles();
+
+        StdDataArray filedata = new ComputedDataCalculator(null).addComputedData(createFileData());
+        DsgMetadata metadata = new DsgMetadata(KnownDataTypesTest.TEST_KNOWN_METADATA_FILE_TYPES);
+        metadata.setDatasetId(EXPOCODE);
+        metadata.setDatasetName(EXPOCODE);
+        metadata = ComputedDataCalculator.addComputedMetadata(metadata, NUM_SAMPLES);
+
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        DsgNcFile fullDsgFile = new DsgNcFile(parentDir, EXPOCODE + ".nc");
+        fullDsgFile.createFromFileData(metadata, filedata, dataFileTypes);
+        DsgNcFile decDsgFile = new DsgNcFile(parentDir, EXPOCODE + "_decimated.nc");
+        try {
+            int numDeci = new DsgDecimator().decimate(fullDsgFile, decDsgFile);
+            int[] expected = new int[] {0, SPIKE_INDEX - 1, SPIKE_INDEX, SPIKE_INDEX + 1, NUM_SAMPLES - 1};
+            assertEquals(expected.length, numDeci);
+
+            assertTrue(decDsgFile.readMetadata(metadataFileTypes).isEmpty());
+            assertTrue(decDsgFile.readData(dataFileTypes).isEmpty());
+            assertEquals(EXPOCODE, decDsgFile.getMetadata().getDatasetId());
+            assertEquals(Integer.valueOf(NUM_SAMPLES),
+                    decDsgFile.getMetadata().getValuesMap().get(SocatTypes.NOBS_FULL));
+            assertEquals(Integer.valueOf(numDeci),
+                    decDsgFile.getMetadata().getValuesMap().get(SocatTypes.NOBS_DECI));
+
+            // the decimated data are the selected samples of the full data
+            assertTrue(fullDsgFile.readData(dataFileTypes).isEmpty());
+            StdDataArray fulldata = fullDsgFile.getStdDataArray();
+            StdDataArray decdata = decDsgFile.getStdDataArray();
+            assertEquals(numDeci, decdata.getNumSamples());
+            assertEquals(fulldata.getNumDataCols(), decdata.getNumDataCols());
+            for (int k = 0; k < numDeci; k++) {
+                for (int c = 0; c < fulldata.getNumDataCols(); c++) {
+                    if ( DashboardServerUtils.SAMPLE_NUMBER.typeNameEquals(fulldata.getDataTypes().get(c)) )
+                        continue;
+                    assertEquals(fulldata.getDataTypes().get(c).getVarName() + " of sample " + k,
+                            fulldata.getStdVal(expected[k], c), decdata.getStdVal(k, c));
+                }
+            }
+            // sample numbers are renumbered within the decimated data
+            assertArrayEquals(new int[] {1, 2, 3, 4, 5},
+                    decDsgFile.readIntVarDataValues(DashboardServerUtils.SAMPLE_NUMBER.getVarName()));
+        } finally {
+            decDsgFile.delete();
+            fullDsgFile.delete();
+        }
+    }
+
+    private static StdDataArray createFileData() {
+        ArrayList<String> userColumnNames = new ArrayList<String>(Arrays.asList(
+                "depth,month,day,year,hour,minute,lat,lon,SST,sal,xCO2_SST,P_atm".split(",")));
+        ArrayList<DataColumnType> testTypes = new ArrayList<DataColumnType>(Arrays.asList(
+                DashboardServerUtils.SAMPLE_DEPTH.duplicate(),
+                DashboardServerUtils.MONTH_OF_YEAR.duplicate(),
+                DashboardServerUtils.DAY_OF_MONTH.duplicate(),
+                DashboardServerUtils.YEAR.duplicate(),
+                DashboardServerUtils.HOUR_OF_DAY.duplicate(),
+                DashboardServerUtils.MINUTE_OF_HOUR.duplicate(),
+                DashboardServerUtils.LATITUDE.duplicate(),
+                DashboardServerUtils.LONGITUDE.duplicate(),
+                SocatTypes.SST.duplicate(),
+                SocatTypes.SALINITY.duplicate(),
+                SocatTypes.XCO2_WATER_SST_DRY.duplicate(),
+                SocatTypes.PATM.duplicate()));
+        ArrayList<ArrayList<String>> testValues = new ArrayList<ArrayList<String>>(NUM_SAMPLES);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(NUM_SAMPLES);
+        for (int j = 0; j < NUM_SAMPLES; j++) {
+            String xco2 = (j == SPIKE_INDEX) ? "460.0" : "410.0";
+            testValues.add(new ArrayList<String>(Arrays.asList("5", "6", "11", "2006", "10", Integer.toString(j),
+                    String.format("%.4f", 29.0 + 0.001 * j), "-92.759", "28.5", "33.5", xco2, "1010.0")));
+            rowNums.add(j + 1);
+        }
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(userColumnNames);
+        dataset.setDataColTypes(testTypes);
+        dataset.setDataValues(testValues);
+        dataset.setRowNums(rowNums);
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        return new StdDataArray(stdUserData, KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+    }
+
+}
@@ -0,0 +1,204 @@
+package gov.noaa.pmel.dashboard.test.dsg;
+
+import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
+import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
+import gov.noaa.pmel.dashboard.dsg.DsgNcChunking;
+import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
+import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import gov.noaa.pmel.dashboard.test.datatype.KnownDataTypesTest;
+import org.junit.Assume;
+import org.junit.Test;
+import ucar.ma2.DataType;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.NetcdfFileWriter.Version;
+import ucar.nc2.Variable;
+import ucar.nc2.jni.netcdf.Nc4Iosp;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link DsgNcChunking}
+ *
+ * @author Karl Smith
+ */
+public class DsgNcChunkingTest {
+
+    static final String EXPOCODE = "31B520060612";
+    private static final int NUM_TEST_SAMPLES = 5000;
+
+    /**
+     * Test of the chunking and compression given by {@link DsgNcChunking} for DSG variables
+     */
+    @Test
+    public void testChunking() throws Exception {
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        File ncFile = new File(parentDir, "chunking_test.nc");
+        NetcdfFileWriter ncfile = NetcdfFileWriter.createNew(Version.netcdf3, ncFile.getPath());
+        try {
+            Dimension traj = ncfile.addDimension(null, "trajectory", 1);
+            Dimension obs = ncfile.addDimension(null, "obs", 10000);
+            Dimension strlen = ncfile.addDimension(null, "data_string_length", 3);
+            Variable numObs = ncfile.addVariable(null, "num_obs", DataType.INT, Arrays.asList(traj));
+            Variable lat = ncfile.addVariable(null, "latitude", DataType.DOUBLE, Arrays.asList(obs));
+            Variable flag = ncfile.addVariable(null, "WOCE_CO2_water", DataType.CHAR, Arrays.asList(obs, strlen));
+
+            DsgNcChunking chunking = new DsgNcChunking(4096, 5, true);
+            assertFalse(chunking.isChunked(numObs));
+            assertEquals(0, chunking.getDeflateLevel(numObs));
+            assertFalse(chunking.isShuffle(numObs));
+
+            assertTrue(chunking.isChunked(lat));
+            assertArrayEquals(new long[] {4096}, chunking.computeChunking(lat));
+            assertEquals(5, chunking.getDeflateLevel(lat));
+            assertTrue(chunking.isShuffle(lat));
+
+            assertTrue(chunking.isChunked(flag));
+            assertArrayEquals(new long[] {4096, 3}, chunking.computeChunking(flag));
+            assertFalse(chunking.isShuffle(flag));
+
+            // chunks are never larger than the variable
+            assertArrayEquals(new long[] {10000}, new DsgNcChunking(20000, 1, false).computeChunking(lat));
+            assertFalse(new DsgNcChunking(20000, 1, false).isShuffle(lat));
+        } finally {
+            ncfile.abort();
+            ncFile.delete();
+        }
+
+        try {
+            new DsgNcChunking(0, 5, true);
+            assertTrue("zero chunk size accepted", false);
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+        try {
+            new DsgNcChunking(4096, 10, true);
+            assertTrue("deflate level 10 accepted", false);
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
+    /**
+     * Test that a DSG file written using {@link DsgNcChunking} is a NetCDF-4 file with the same data as
+     * the NetCDF-3 DSG file.  Skipped if the NetCDF C library, required for writing NetCDF-4 files, is not
+     * available.
+     */
+    @Test
+    public void testNetcdf4File() throws Exception {
+        Assume.assumeTrue(haveNetcdfClibrary());
+        compareNetcdf4File(NUM_TEST_SAMPLES);
+    }
+
+    static boolean haveNetcdfClibrary() {
+        try {
+            return Nc4Iosp.isClibraryPresent();
+        } catch ( Throwable ex ) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes NetCDF-3 and NetCDF-4 DSG files with the given number of samples and checks the NetCDF-4 file
+     * is smaller and gives the same data values.
+     */
+    private static void compareNetcdf4File(int numSamples) throws Exception {
+        KnownDataTypes dataFileTypes = new KnownDataTypes().addTypes(KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+        StdDataArray filedata = createFileData(numSamples);
+        DsgMetadata metadata = new DsgMetadata(KnownDataTypesTest.TEST_KNOWN_METADATA_FILE_TYPES);
+        metadata.setDatasetId(EXPOCODE);
+        metadata.setDatasetName(EXPOCODE);
+
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        DsgNcFile nc3File = new DsgNcFile(parentDir, EXPOCODE + "_nc3.nc");
+        DsgNcFile nc4File = new DsgNcFile(parentDir, EXPOCODE + "_nc4.nc");
+        nc4File.setNetcdf4Chunking(new DsgNcChunking());
+        try {
+            nc3File.createFromFileData(metadata, filedata, dataFileTypes);
+            nc4File.createFromFileData(metadata, filedata, dataFileTypes);
+
+            NetcdfFile ncfile = NetcdfFile.open(nc4File.getPath());
+            try {
+                assertTrue(ncfile.getFileTypeId().toLowerCase().contains("netcdf4") ||
+                        ncfile.getFileTypeId().toLowerCase().contains("hdf5"));
+            } finally {
+                ncfile.close();
+            }
+
+            String varName = SocatTypes.XCO2_WATER_SST_DRY.getVarName();
+            double[] nc3Values = nc3File.readDoubleVarDataValues(varName);
+            double[] nc4Values = nc4File.readDoubleVarDataValues(varName);
+            assertArrayEquals(nc3Values, nc4Values, 0.0);
+            assertArrayEquals(nc3File.readDoubleVarDataValues(SocatTypes.SST.getVarName()),
+                    nc4File.readDoubleVarDataValues(SocatTypes.SST.getVarName()), 0.0);
+
+            assertTrue(nc4File.length() < nc3File.length());
+        } finally {
+            nc3File.delete();
+            nc4File.delete();
+        }
+    }
+
+    static StdDataArray createFileData(int numSamples) {
+        ArrayList<String> userColumnNames = new ArrayList<String>(Arrays.asList(
+                "depth,month,day,year,hour,minute,second,lat,lon,SST,sal,xCO2_SST,P_atm".split(",")));
+        ArrayList<DataColumnType> testTypes = new ArrayList<DataColumnType>(Arrays.asList(
+                DashboardServerUtils.SAMPLE_DEPTH.duplicate(),
+                DashboardServerUtils.MONTH_OF_YEAR.duplicate(),
+                DashboardServerUtils.DAY_OF_MONTH.duplicate(),
+                DashboardServerUtils.YEAR.duplicate(),
+                DashboardServerUtils.HOUR_OF_DAY.duplicate(),
+                DashboardServerUtils.MINUTE_OF_HOUR.duplicate(),
+                DashboardServerUtils.SECOND_OF_MINUTE.duplicate(),
+                DashboardServerUtils.LATITUDE.duplicate(),
+                DashboardServerUtils.LONGITUDE.duplicate(),
+                SocatTypes.SST.duplicate(),
+                SocatTypes.SALINITY.duplicate(),
+                SocatTypes.XCO2_WATER_SST_DRY.duplicate(),
+                SocatTypes.PATM.duplicate()));
+        ArrayList<ArrayList<String>> testValues = new ArrayList<ArrayList<String>>(numSamples);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(numSamples);
+        for (int j = 0; j < numSamples; j++) {
+            // one sample every ten seconds
+            int secs = 10 * j;
+            int day = 1 + secs / 86400;
+            int hour = (secs / 3600) % 24;
+            int minute = (secs / 60) % 60;
+            int second = secs % 60;
+            testValues.add(new ArrayList<String>(Arrays.asList("5", "1", Integer.toString(day), "2006",
+                    Integer.toString(hour), Integer.toString(minute), Integer.toString(second),
+                    String.format("%.4f", 20.0 + 0.0001 * j), String.format("%.4f", -150.0 + 0.0002 * j),
+                    String.format("%.2f", 25.0 + (j % 100) * 0.01), "34.5",
+                    String.format("%.1f", 380.0 + (j % 50) * 0.1), "1010.0")));
+            rowNums.add(j + 1);
+        }
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(userColumnNames);
+        dataset.setDataColTypes(testTypes);
+        dataset.setDataValues(testValues);
+        dataset.setRowNums(rowNums);
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        return new StdDataArray(stdUserData, KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+    }
+
+}
@@ -3,10 +3,14 @@
  */
 package gov.noaa.pmel.dashboard.test.dsg;
 
+import gov.noaa.pmel.dashboard.datatype.DashDataType;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
 import gov.noaa.pmel.dashboard.dsg.DsgMetadata;
 import gov.noaa.pmel.dashboard.dsg.DsgNcFile;
+import gov.noaa.pmel.dashboard.dsg.StdDataArray;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.qc.DataLocation;
+import gov.noaa.pmel.dashboard.qc.DataQCEvent;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
@@ -17,10 +21,14 @@ import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests of methods of {@link DsgNcFile}
@@ -216,4 +224,123 @@ public class DsgNcFileTest {
         }
     }
 
+    /**
+     * Test method for reading selected columns and samples using {@link DsgNcFile#readDataColumns}.
+     */
+    @Test
+    public void testReadDataColumns() throws Exception {
+        testCreate();
+        try {
+            assertTrue(dsgNcFile.readData(KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES).isEmpty());
+            StdDataArray fullData = dsgNcFile.getStdDataArray();
+            int sstIdx = fullData.getIndexOfType(SocatTypes.SST);
+            int latIdx = fullData.getIndexOfType(DashboardServerUtils.LATITUDE);
+
+            List<DashDataType<?>> columnTypes = Arrays.<DashDataType<?>>asList(
+                    SocatTypes.SST, DashboardServerUtils.LATITUDE, SocatTypes.FCO2_REC);
+            ArrayList<String> missing = dsgNcFile.readDataColumns(columnTypes, 5, 10);
+            assertTrue(missing.isEmpty());
+            StdDataArray partData = dsgNcFile.getStdDataArray();
+            assertEquals(3, partData.getNumDataCols());
+            assertEquals(10, partData.getNumSamples());
+            assertEquals(Integer.valueOf(0), partData.getIndexOfType(SocatTypes.SST));
+            for (int j = 0; j < 10; j++) {
+                assertEquals(fullData.getStdVal(j + 5, sstIdx), partData.getStdVal(j, 0));
+                assertEquals(fullData.getStdVal(j + 5, latIdx), partData.getStdVal(j, 1));
+                assertTrue(partData.isMissing(j, 2));
+            }
+
+            // to the end of the data
+            dsgNcFile.readDataColumns(columnTypes, 20, -1);
+            assertEquals(fullData.getNumSamples() - 20, dsgNcFile.getStdDataArray().getNumSamples());
+            assertEquals(fullData.getStdVal(fullData.getNumSamples() - 1, sstIdx),
+                    dsgNcFile.getStdDataArray().getStdVal(fullData.getNumSamples() - 21, 0));
+
+            try {
+                dsgNcFile.readDataColumns(columnTypes, 20, 10);
+                fail("reading past the end of the data did not throw an exception");
+            } catch ( IllegalArgumentException ex ) {
+                // Expected result
+                ;
+            }
+        } finally {
+            dsgNcFile.delete();
+        }
+    }
+
+    /**
+     * Test method for applying several data QC events using {@link DsgNcFile#updateDataQCFlags(List, boolean)}.
+     */
+    @Test
+    public void testUpdateDataQCFlags() throws Exception {
+        testCreate();
+        try {
+            double[] lons = dsgNcFile.readDoubleVarDataValues(DashboardServerUtils.LONGITUDE.getVarName());
+            double[] lats = dsgNcFile.readDoubleVarDataValues(DashboardServerUtils.LATITUDE.getVarName());
+            double[] times = dsgNcFile.readDoubleVarDataValues(DashboardServerUtils.TIME.getVarName());
+            double[] ssts = dsgNcFile.readDoubleVarDataValues(SocatTypes.SST.getVarName());
+            String woceName = SocatTypes.WOCE_CO2_WATER.getVarName();
+            String[] origFlags = dsgNcFile.readStringVarDataValues(woceName);
+
+            // Locations given out of file order, plus one not in the file
+            DataQCEvent woceBad = new DataQCEvent();
+            woceBad.setFlagName(woceName);
+            woceBad.setFlagValue(DashboardServerUtils.WOCE_BAD);
+            int[] badRows = {10, 3, 20};
+            for (int row : badRows) {
+                woceBad.getLocations().add(createLocation(lons[row], lats[row], times[row], null));
+            }
+            DataLocation badLoc = createLocation(lons[0], lats[0], times[0] + 3600.0, null);
+            woceBad.getLocations().add(badLoc);
+
+            // Locations also matching the SST value; the second does not match
+            DataQCEvent woceQuest = new DataQCEvent();
+            woceQuest.setFlagName(woceName);
+            woceQuest.setFlagValue(DashboardServerUtils.WOCE_QUESTIONABLE);
+            woceQuest.setVarName(SocatTypes.SST.getVarName());
+            woceQuest.getLocations().add(createLocation(lons[3], lats[3], times[3], ssts[3]));
+            DataLocation questLoc = createLocation(lons[5], lats[5], times[5], ssts[5] + 1.0);
+            woceQuest.getLocations().add(questLoc);
+
+            ArrayList<ArrayList<DataLocation>> unidentified =
+                    dsgNcFile.updateDataQCFlags(Arrays.asList(woceBad, woceQuest), true);
+            assertEquals(2, unidentified.size());
+            assertEquals(Arrays.asList(badLoc), unidentified.get(0));
+            assertEquals(Arrays.asList(questLoc), unidentified.get(1));
+            for (int k = 0; k < badRows.length; k++) {
+                assertEquals(Integer.valueOf(badRows[k] + 1), woceBad.getLocations().get(k).getRowNumber());
+            }
+            assertEquals(Integer.valueOf(4), woceQuest.getLocations().get(0).getRowNumber());
+
+            // Events applied in order, so the later event's flag is the one kept
+            String[] flags = dsgNcFile.readStringVarDataValues(woceName);
+            for (int j = 0; j < flags.length; j++) {
+                if ( j == 3 )
+                    assertEquals(DashboardServerUtils.WOCE_QUESTIONABLE, flags[j]);
+                else if ( (j == 10) || (j == 20) )
+                    assertEquals(DashboardServerUtils.WOCE_BAD, flags[j]);
+                else
+                    assertEquals(origFlags[j], flags[j]);
+            }
+
+            // Same result applying the events one at a time
+            dsgNcFile.writeStringVarDataValues(woceName, origFlags);
+            assertEquals(Arrays.asList(badLoc), dsgNcFile.updateDataQCFlags(woceBad, false));
+            assertEquals(Arrays.asList(questLoc), dsgNcFile.updateDataQCFlags(woceQuest, false));
+            assertArrayEquals(flags, dsgNcFile.readStringVarDataValues(woceName));
+        } finally {
+            dsgNcFile.delete();
+        }
+    }
+
+    private static DataLocation createLocation(double lon, double lat, double time, Double value) {
+        DataLocation loc = new DataLocation();
+        loc.setLongitude(lon);
+        loc.setLatitude(lat);
+        loc.setDataDate(new Date(Math.round(time * 1000.0)));
+        if ( value != null )
+            loc.setDataValue(value);
+        return loc;
+    }
+
 }
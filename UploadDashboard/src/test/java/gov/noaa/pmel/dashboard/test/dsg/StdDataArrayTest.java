@@ -1,12 +1,20 @@
 package gov.noaa.pmel.dashboard.test.dsg;
 
 import gov.noaa.pmel.dashboard.datatype.DashDataType;
+import gov.noaa.pmel.dashboard.datatype.DoubleDashDataType;
+import gov.noaa.pmel.dashboard.datatype.IntDashDataType;
 import gov.noaa.pmel.dashboard.datatype.KnownDataTypes;
 import gov.noaa.pmel.dashboard.datatype.SocatTypes;
+import gov.noaa.pmel.dashboard.dsg.DoubleStdDataColumn;
+import gov.noaa.pmel.dashboard.dsg.IntStdDataColumn;
 import gov.noaa.pmel.dashboard.dsg.StdDataArray;
+import gov.noaa.pmel.dashboard.dsg.StdDataColumn;
 import gov.noaa.pmel.dashboard.dsg.StdUserDataArray;
+import gov.noaa.pmel.dashboard.dsg.StringStdDataColumn;
+import gov.noaa.pmel.dashboard.dsg.UserDataRowSource;
 import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
 import gov.noaa.pmel.dashboard.shared.ADCMessage;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
 import gov.noaa.pmel.dashboard.shared.DashboardDatasetData;
 import gov.noaa.pmel.dashboard.shared.DashboardUtils;
 import gov.noaa.pmel.dashboard.shared.DataColumnType;
@@ -16,9 +24,12 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.Random;
 import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -26,6 +37,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests for methods in {@link StdUserDataArray} and {@link StdDataArray}
@@ -166,6 +178,74 @@ public class StdDataArrayTest {
         }
     }
 
+    /**
+     * Test method for {@link StdUserDataArray#StdUserDataArray(DashboardDataset, UserDataRowSource, KnownDataTypes)}
+     * reading the data rows in small chunks.
+     */
+    @Test
+    public void testStdUserDataArrayFromRowSource() {
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(USER_COLUMN_NAMES);
+        dataset.setDataColTypes(DATA_COLUMN_TYPES);
+        dataset.setDataValues(DATA_VALUE_STRINGS);
+        final ArrayList<Integer> rowNums = new ArrayList<Integer>(DATA_VALUE_STRINGS.size());
+        for (int k = 1; k <= DATA_VALUE_STRINGS.size(); k++) {
+            rowNums.add(k);
+        }
+        dataset.setRowNums(rowNums);
+        dataset.setNumDataRows(DATA_VALUE_STRINGS.size());
+        StdUserDataArray expected = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+
+        // Return at most two rows at a time so standardization is spread over many chunks
+        UserDataRowSource dataRows = new UserDataRowSource() {
+            private int nextIdx = 0;
+
+            @Override
+            public int readRows(ArrayList<ArrayList<String>> dataVals, ArrayList<Integer> rowNumbers,
+                    int maxNumRows) {
+                int endIdx = Math.min(DATA_VALUE_STRINGS.size(), nextIdx + Math.min(2, maxNumRows));
+                dataVals.addAll(DATA_VALUE_STRINGS.subList(nextIdx, endIdx));
+                rowNumbers.addAll(rowNums.subList(nextIdx, endIdx));
+                int numRead = endIdx - nextIdx;
+                nextIdx = endIdx;
+                return numRead;
+            }
+        };
+        DashboardDataset info = new DashboardDataset();
+        info.setDatasetId(EXPOCODE);
+        info.setUserColNames(USER_COLUMN_NAMES);
+        info.setDataColTypes(DATA_COLUMN_TYPES);
+        info.setNumDataRows(DATA_VALUE_STRINGS.size());
+        StdUserDataArray stdData = new StdUserDataArray(info, dataRows,
+                KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        assertEquals(expected, stdData);
+        assertEquals(expected.getStandardizationMessages(), stdData.getStandardizationMessages());
+
+        // Fewer data rows than expected is an error
+        info.setNumDataRows(DATA_VALUE_STRINGS.size() + 1);
+        dataRows = new UserDataRowSource() {
+            private boolean done = false;
+
+            @Override
+            public int readRows(ArrayList<ArrayList<String>> dataVals, ArrayList<Integer> rowNumbers,
+                    int maxNumRows) {
+                if ( done )
+                    return 0;
+                done = true;
+                dataVals.addAll(DATA_VALUE_STRINGS);
+                rowNumbers.addAll(rowNums);
+                return DATA_VALUE_STRINGS.size();
+            }
+        };
+        try {
+            new StdUserDataArray(info, dataRows, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+            fail("standardizing fewer data rows than expected succeeded");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected
+        }
+    }
+
     /**
      * Test method for {@link StdDataArray#getSampleLongitudes()},
      * {@link StdDataArray#getSampleLatitudes()},
@@ -480,6 +560,313 @@ public class StdDataArrayTest {
     }
 
     // StdUserDataArray constructor adds SAMPLE_NUMBER
+    /**
+     * Test method for {@link StdDataArray#StdDataArray(DashDataType[], StdDataColumn[])},
+     * {@link StdDataArray#isMissing(int, int)}, {@link StdDataArray#getDoubleVal(int, int)},
+     * {@link StdDataArray#getIntVal(int, int)}, {@link StdDataArray#getStringVal(int, int)},
+     * {@link StdDataArray#getDoubleColumn(int)}, {@link StdDataArray#getIntColumn(int)},
+     * and {@link StdDataArray#getStringColumn(int)}.
+     */
+    @Test
+    public void testTypedAccessors() {
+        DashboardDatasetData dataset = new DashboardDatasetData();
+        dataset.setDatasetId(EXPOCODE);
+        dataset.setUserColNames(USER_COLUMN_NAMES);
+        dataset.setDataColTypes(DATA_COLUMN_TYPES);
+        dataset.setDataValues(DATA_VALUE_STRINGS);
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(DATA_VALUE_STRINGS.size());
+        for (int k = 1; k <= DATA_VALUE_STRINGS.size(); k++) {
+            rowNums.add(k);
+        }
+        dataset.setRowNums(rowNums);
+        StdUserDataArray stdUserData = new StdUserDataArray(dataset, KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+        StdDataArray stdFileData = new StdDataArray(stdUserData, KnownDataTypesTest.TEST_KNOWN_DATA_FILE_TYPES);
+
+        int numColumns = stdFileData.getNumDataCols();
+        int numRows = stdFileData.getNumSamples();
+        List<DashDataType<?>> fileDataTypes = stdFileData.getDataTypes();
+        DashDataType<?>[] dataTypes = new DashDataType<?>[numColumns];
+        StdDataColumn[] dataColumns = new StdDataColumn[numColumns];
+        boolean foundMissing = false;
+        for (int k = 0; k < numColumns; k++) {
+            DashDataType<?> dtype = fileDataTypes.get(k);
+            dataTypes[k] = dtype;
+            dataColumns[k] = StdDataColumn.create(dtype, numRows);
+            for (int j = 0; j < numRows; j++) {
+                Object value = stdFileData.getStdVal(j, k);
+                dataColumns[k].setValue(j, value);
+                assertEquals(value == null, stdFileData.isMissing(j, k));
+                if ( value == null )
+                    foundMissing = true;
+            }
+            if ( dtype instanceof DoubleDashDataType ) {
+                double[] values = stdFileData.getDoubleColumn(k);
+                for (int j = 0; j < numRows; j++) {
+                    Double value = (Double) stdFileData.getStdVal(j, k);
+                    double expected = (value != null) ? value : DashboardUtils.FP_MISSING_VALUE;
+                    assertEquals(expected, values[j], 0.0);
+                    assertEquals(expected, stdFileData.getDoubleVal(j, k), 0.0);
+                }
+                try {
+                    stdFileData.getIntVal(0, k);
+                    fail("getIntVal of a Double column succeeded");
+                } catch ( IllegalArgumentException ex ) {
+                    // Expected result
+                }
+            }
+            else if ( dtype instanceof IntDashDataType ) {
+                int[] values = stdFileData.getIntColumn(k);
+                for (int j = 0; j < numRows; j++) {
+                    Integer value = (Integer) stdFileData.getStdVal(j, k);
+                    int expected = (value != null) ? value : DashboardUtils.INT_MISSING_VALUE;
+                    assertEquals(expected, values[j]);
+                    assertEquals(expected, stdFileData.getIntVal(j, k));
+                }
+                try {
+                    stdFileData.getStringVal(0, k);
+                    fail("getStringVal of an Integer column succeeded");
+                } catch ( IllegalArgumentException ex ) {
+                    // Expected result
+                }
+            }
+            else {
+                String[] values = stdFileData.getStringColumn(k);
+                for (int j = 0; j < numRows; j++) {
+                    assertEquals(stdFileData.getStdVal(j, k), values[j]);
+                    assertEquals(stdFileData.getStdVal(j, k), stdFileData.getStringVal(j, k));
+                }
+                try {
+                    stdFileData.getDoubleColumn(k);
+                    fail("getDoubleColumn of a String column succeeded");
+                } catch ( IllegalArgumentException ex ) {
+                    // Expected result
+                }
+            }
+        }
+        assertTrue(foundMissing);
+
+        StdDataArray stdData = new StdDataArray(dataTypes, dataColumns);
+        assertEquals(stdFileData, stdData);
+        assertEquals(stdFileData.hashCode(), stdData.hashCode());
+
+        // Modifying a value makes them differ
+        dataColumns[0].setValue(0, null);
+        assertFalse(stdFileData.equals(stdData));
+
+        // Data columns must be appropriate for the data type
+        StdDataColumn[] badColumns = dataColumns.clone();
+        for (int k = 0; k < numColumns; k++) {
+            if ( dataTypes[k] instanceof DoubleDashDataType ) {
+                badColumns[k] = new StringStdDataColumn(numRows);
+                break;
+            }
+        }
+        try {
+            new StdDataArray(dataTypes, badColumns);
+            fail("StdDataArray created with an inappropriate data column");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+        }
+    }
+
+    /**
+     * Test that the values of {@link StdDataArray} given by {@link StdDataArray#getStdVal(int, int)} are those
+     * given by {@link StdDataArray#getDoubleColumn(int)} and {@link StdDataArray#getMissingBitmap(int)}, and that
+     * copies created using the typed accessors are equal.
+     */
+    @Test
+    public void testColumnarValues() {
+        final int numRows = 2000;
+        StdDataArray stdData = new StdDataArray(COLUMNAR_TEST_TYPES,
+                createObjects(COLUMNAR_TEST_TYPES, numRows, new Random(numRows)));
+        StdDataArray copyData = new StdDataArray(COLUMNAR_TEST_TYPES, createColumns(stdData));
+        assertEquals(stdData, copyData);
+        assertEquals(stdData.hashCode(), copyData.hashCode());
+
+        int fco2RecIdx = COLUMNAR_TEST_TYPES.length - 2;
+        double[] values = stdData.getDoubleColumn(fco2RecIdx);
+        BitSet missing = stdData.getMissingBitmap(fco2RecIdx);
+        assertTrue(missing.cardinality() > 0);
+        for (int j = 0; j < numRows; j++) {
+            Double value = (Double) stdData.getStdVal(j, fco2RecIdx);
+            if ( missing.get(j) )
+                assertNull(value);
+            else
+                assertEquals(value, values[j], 0.0);
+        }
+    }
+
+    /**
+     * Data types of the standardized values created by {@link #createObjects(DashDataType[], int, Random)};
+     * the second-to-last type is fCO2_rec
+     */
+    static final DashDataType<?>[] COLUMNAR_TEST_TYPES = new DashDataType<?>[] {
+            DashboardServerUtils.SAMPLE_NUMBER,
+            DashboardServerUtils.YEAR,
+            DashboardServerUtils.MONTH_OF_YEAR,
+            DashboardServerUtils.DAY_OF_MONTH,
+            DashboardServerUtils.HOUR_OF_DAY,
+            DashboardServerUtils.MINUTE_OF_HOUR,
+            DashboardServerUtils.SECOND_OF_MINUTE,
+            DashboardServerUtils.TIME,
+            DashboardServerUtils.LONGITUDE,
+            DashboardServerUtils.LATITUDE,
+            DashboardServerUtils.SAMPLE_DEPTH,
+            DashboardServerUtils.REGION_ID,
+            SocatTypes.SALINITY,
+            SocatTypes.TEQU,
+            SocatTypes.SST,
+            SocatTypes.PEQU,
+            SocatTypes.PATM,
+            SocatTypes.XCO2_WATER_TEQU_DRY,
+            SocatTypes.FCO2_WATER_SST_WET,
+            SocatTypes.WOA_SALINITY,
+            SocatTypes.NCEP_SLP,
+            SocatTypes.ETOPO2_DEPTH,
+            SocatTypes.GVCO2,
+            SocatTypes.DIST_TO_LAND,
+            SocatTypes.FCO2_REC,
+            SocatTypes.WOCE_CO2_WATER,
+    };
+
+    /**
+     * @return random standardized values for the given data types, with about one in ten fCO2_rec values
+     *         (the second-to-last data type) missing
+     */
+    static Object[][] createObjects(DashDataType<?>[] dataTypes, int numRows, Random rand) {
+        int numColumns = dataTypes.length;
+        int fco2RecIdx = numColumns - 2;
+        String[] regions = new String[] { "A", "C", "I", "N", "T" };
+        Object[][] objects = new Object[numRows][numColumns];
+        for (int j = 0; j < numRows; j++) {
+            for (int k = 0; k < numColumns; k++) {
+                DashDataType<?> dtype = dataTypes[k];
+                if ( (k == fco2RecIdx) && (rand.nextInt(10) == 0) )
+                    objects[j][k] = null;
+                else if ( dtype instanceof DoubleDashDataType )
+                    objects[j][k] = Double.valueOf(1000.0 * rand.nextDouble());
+                else if ( dtype instanceof IntDashDataType )
+                    objects[j][k] = Integer.valueOf(j + 1000 * k);
+                else if ( SocatTypes.WOCE_CO2_WATER.typeNameEquals(dtype) )
+                    objects[j][k] = (rand.nextInt(20) == 0) ? "4" : "2";
+                else
+                    // New String instances, as when read from a file
+                    objects[j][k] = new String(regions[rand.nextInt(regions.length)]);
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * Test method for {@link StdUserDataArray#StdUserDataArray(DashboardDataset, UserDataRowSource, KnownDataTypes,
+     * ForkJoinPool)} and the data checks using the worker pool, comparing the results to those without a worker pool.
+     */
+    @Test
+    public void testStdUserDataArrayInParallel() {
+        DashboardDataset info = new DashboardDataset();
+        info.setDatasetId(EXPOCODE);
+        info.setUserColNames(USER_COLUMN_NAMES);
+        info.setDataColTypes(DATA_COLUMN_TYPES);
+        info.setNumDataRows(DATA_VALUE_STRINGS.size());
+        ArrayList<Integer> rowNums = new ArrayList<Integer>(DATA_VALUE_STRINGS.size());
+        for (int k = 1; k <= DATA_VALUE_STRINGS.size(); k++) {
+            rowNums.add(k);
+        }
+
+        // Return at most two rows at a time so most chunks are standardized in parallel
+        StdUserDataArray expected = new StdUserDataArray(info,
+                new CyclicDataRows(DATA_VALUE_STRINGS, 2), KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES);
+
+        ForkJoinPool workerPool = new ForkJoinPool(4);
+        try {
+            StdUserDataArray stdData = new StdUserDataArray(info, new CyclicDataRows(DATA_VALUE_STRINGS, 2),
+                    KnownDataTypesTest.TEST_KNOWN_USER_DATA_TYPES, workerPool);
+            assertEquals(expected, stdData);
+            assertEquals(expected.getStandardizationMessages(), stdData.getStandardizationMessages());
+
+            Double[] expectedTimes = expected.checkMissingLonLatTime();
+            expected.checkBounds();
+            expected.checkMetadataTypeValues();
+            assertTrue(Arrays.equals(expectedTimes, stdData.checkMissingLonLatTime()));
+            stdData.checkBounds();
+            stdData.checkMetadataTypeValues();
+            assertEquals(expected.getStandardizationMessages(), stdData.getStandardizationMessages());
+        } finally {
+            workerPool.shutdown();
+        }
+    }
+
+    /**
+     * Source of data rows repeating the given data rows, in order, as many times as needed.
+     */
+    static class CyclicDataRows implements UserDataRowSource {
+        private final List<ArrayList<String>> rows;
+        private final int numRows;
+        private int nextIdx;
+
+        /**
+         * @param rows
+         *         data rows to repeat
+         * @param numRows
+         *         total number of data rows to provide; if no more than the number of data rows given,
+         *         each call to {@link #readRows(ArrayList, ArrayList, int)} provides at most this many rows
+         */
+        CyclicDataRows(List<ArrayList<String>> rows, int numRows) {
+            this.rows = rows;
+            this.numRows = Math.max(numRows, rows.size());
+            this.nextIdx = 0;
+        }
+
+        @Override
+        public int readRows(ArrayList<ArrayList<String>> dataVals, ArrayList<Integer> rowNumbers, int maxNumRows) {
+            int chunkSize = (numRows > rows.size()) ? maxNumRows : Math.min(maxNumRows, numRows);
+            int endIdx = Math.min(numRows, nextIdx + chunkSize);
+            for (int j = nextIdx; j < endIdx; j++) {
+                dataVals.add(rows.get(j % rows.size()));
+                rowNumbers.add(j + 1);
+            }
+            int numRead = endIdx - nextIdx;
+            nextIdx = endIdx;
+            return numRead;
+        }
+    }
+
+    /**
+     * @return copies of the data columns of the given standard data, created using the typed accessors
+     */
+    static StdDataColumn[] createColumns(StdDataArray stdData) {
+        int numRows = stdData.getNumSamples();
+        List<DashDataType<?>> dataTypes = stdData.getDataTypes();
+        StdDataColumn[] dataColumns = new StdDataColumn[dataTypes.size()];
+        for (int k = 0; k < dataColumns.length; k++) {
+            DashDataType<?> dtype = dataTypes.get(k);
+            if ( dtype instanceof DoubleDashDataType ) {
+                DoubleStdDataColumn column = new DoubleStdDataColumn(numRows);
+                for (int j = 0; j < numRows; j++) {
+                    if ( !stdData.isMissing(j, k) )
+                        column.setDouble(j, stdData.getDoubleVal(j, k));
+                }
+                dataColumns[k] = column;
+            }
+            else if ( dtype instanceof IntDashDataType ) {
+                IntStdDataColumn column = new IntStdDataColumn(numRows);
+                for (int j = 0; j < numRows; j++) {
+                    if ( !stdData.isMissing(j, k) )
+                        column.setInt(j, stdData.getIntVal(j, k));
+                }
+                dataColumns[k] = column;
+            }
+            else {
+                StringStdDataColumn column = new StringStdDataColumn(numRows);
+                for (int j = 0; j < numRows; j++) {
+                    column.setString(j, stdData.getStringVal(j, k));
+                }
+                dataColumns[k] = column;
+            }
+        }
+        return dataColumns;
+    }
+
     private static final ArrayList<DashDataType<?>> DATA_COLUMN_DASH_TYPES = new ArrayList<DashDataType<?>>(
             Arrays.asList(
                     DashboardServerUtils.SAMPLE_DEPTH,
@@ -522,7 +909,7 @@ public class StdDataArrayTest {
                     KnownDataTypesTest.SHIP_SPEED.duplicate()
             ));
 
-    private static final String EXPOCODE = "31B520060606";
+    static final String EXPOCODE = "31B520060606";
 
     private static final ArrayList<String> USER_COLUMN_NAMES = new ArrayList<String>(Arrays.asList(
             "Depth,Expocode,Cruise,Month,Day,Year,Hour,Minute,Latitude,Longitude,SST,Salinity,xCO2_water_SST,pCO2_water_Teq,P_atm,Speed"
@@ -0,0 +1,192 @@
+package gov.noaa.pmel.dashboard.test.ferret;
+
+import gov.noaa.pmel.dashboard.ferret.FerretConfig;
+import gov.noaa.pmel.dashboard.ferret.FerretWorkerPool;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link FerretWorkerPool} using a bash script in place of Ferret.
+ * The script echoes the script name of each "go" command, reports an error for the script "fail",
+ * never finishes the script "hang", and exits for the script "crash".  The script "setmodes" changes the values of
+ * the Ferret modes ignore, verify, and nodata_lab tracked by the bash script, and the script "modes" reports them.
+ *
+ * @author Karl Smith
+ */
+public class FerretWorkerPoolTest {
+
+    private static final String STUB_SCRIPT = "" +
+            "ignore=0; verify=1; nodata_lab=1\n" +
+            "while read -r cmd rest; do\n" +
+            "    case \"$cmd\" in\n" +
+            "        go)\n" +
+            "            set -- $rest\n" +
+            "            case \"$1\" in\n" +
+            "                fail) echo \" **ERROR: script failed\" ;;\n" +
+            "                hang) sleep 30 ;;\n" +
+            "                crash) exit 1 ;;\n" +
+            "                setmodes) ignore=1; verify=0; nodata_lab=0 ;;\n" +
+            "                modes) echo \"ignore=$ignore verify=$verify nodata_lab=$nodata_lab\" ;;\n" +
+            "                *) echo \"ran $1 in session $$\" ;;\n" +
+            "            esac\n" +
+            "            ;;\n" +
+            "        SET|CANCEL)\n" +
+            "            set -- $rest\n" +
+            "            if [ \"$1\" = MODE ]; then\n" +
+            "                if [ \"$cmd\" = SET ]; then val=1; else val=0; fi\n" +
+            "                case \"$2\" in\n" +
+            "                    ignore) ignore=$val ;;\n" +
+            "                    verify) verify=$val ;;\n" +
+            "                    nodata_lab) nodata_lab=$val ;;\n" +
+            "                esac\n" +
+            "            fi\n" +
+            "            ;;\n" +
+            "        SAY) echo \"$rest\" ;;\n" +
+            "    esac\n" +
+            "done\n";
+
+    private static final long TIME_LIMIT = 2000L;
+
+    private File tempDir;
+    private FerretWorkerPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = new File("/var/tmp/junit/ferretpool");
+        if ( !tempDir.exists() )
+            tempDir.mkdirs();
+        File stub = new File(tempDir, "stubferret.sh");
+        PrintStream writer = new PrintStream(stub);
+        try {
+            writer.print(STUB_SCRIPT);
+        } finally {
+            writer.close();
+        }
+
+        Element invoker = new Element("invoker");
+        invoker.setAttribute("base_dir", tempDir.getPath());
+        invoker.setAttribute("temp_dir", tempDir.getPath());
+        invoker.setAttribute("time_limit", Long.toString(TIME_LIMIT));
+        invoker.setAttribute("interpreter", "/bin/bash");
+        invoker.setAttribute("executable", stub.getPath());
+        invoker.setAttribute("pool_size", "2");
+        invoker.addContent(new Element("arg").setText("-script"));
+        Element message = new Element("message").addContent(new Element("key").setText("**ERROR"));
+        Element root = new Element("application");
+        root.addContent(invoker);
+        root.addContent(new Element("environment"));
+        root.addContent(new Element("messages").addContent(message));
+        FerretConfig ferretConf = new FerretConfig();
+        ferretConf.setRootElement(root);
+
+        assertEquals(2, ferretConf.getWorkerPoolSize());
+        pool = ferretConf.getWorkerPool();
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+        new File(tempDir, "stubferret.sh").delete();
+    }
+
+    /**
+     * Test method for {@link FerretWorkerPool#runScript(String, java.util.List, File)} reusing a session
+     */
+    @Test
+    public void testRunScript() {
+        String output = pool.runScript("plots", Arrays.asList("a.nc", "b"), null);
+        assertTrue(output, output.startsWith("ran plots in session "));
+        assertEquals(output, pool.runScript("plots", Collections.<String>emptyList(), null));
+        assertEquals(1, pool.getNumWorkers());
+    }
+
+    /**
+     * Test of {@link FerretWorkerPool#runScript(String, java.util.List, File)} not keeping the modes set by a
+     * script for the next script run in the session
+     */
+    @Test
+    public void testModesReset() {
+        String defaults = pool.runScript("modes", new ArrayList<String>(), null);
+        assertEquals("ignore=0 verify=1 nodata_lab=1\n", defaults);
+        pool.runScript("setmodes", new ArrayList<String>(), null);
+        assertEquals(1, pool.getNumWorkers());
+        assertEquals(defaults, pool.runScript("modes", new ArrayList<String>(), null));
+    }
+
+    /**
+     * Test of {@link FerretWorkerPool#runScript(String, java.util.List, File)} reporting an error key
+     */
+    @Test
+    public void testScriptError() {
+        String session = pool.runScript("plots", new ArrayList<String>(), null);
+        try {
+            pool.runScript("fail", new ArrayList<String>(), null);
+            fail("error key in the output did not throw an exception");
+        } catch ( IllegalArgumentException ex ) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("script failed"));
+        }
+        // the session is still usable
+        assertEquals(session, pool.runScript("plots", new ArrayList<String>(), null));
+    }
+
+    /**
+     * Test of {@link FerretWorkerPool#runScript(String, java.util.List, File)} recycling hung and crashed sessions
+     */
+    @Test
+    public void testRecycleSessions() {
+        String session = pool.runScript("plots", new ArrayList<String>(), null);
+        long start = System.currentTimeMillis();
+        try {
+            pool.runScript("hang", new ArrayList<String>(), null);
+            fail("hung session did not throw an exception");
+        } catch ( IllegalArgumentException ex ) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("time limit"));
+        }
+        assertTrue(System.currentTimeMillis() - start < 3 * TIME_LIMIT);
+        assertEquals(0, pool.getNumWorkers());
+
+        String newSession = pool.runScript("plots", new ArrayList<String>(), null);
+        assertNotEquals(session, newSession);
+
+        try {
+            pool.runScript("crash", new ArrayList<String>(), null);
+            fail("crashed session did not throw an exception");
+        } catch ( IllegalArgumentException ex ) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("exited"));
+        }
+        assertEquals(0, pool.getNumWorkers());
+        assertNotEquals(newSession, pool.runScript("plots", new ArrayList<String>(), null));
+    }
+
+    /**
+     * Test of {@link FerretWorkerPool#runScript(String, java.util.List, File)} with a cancel request
+     */
+    @Test
+    public void testCancel() throws Exception {
+        File cancelFile = new File(tempDir, "ferret_plots_test.cancel");
+        cancelFile.createNewFile();
+        try {
+            pool.runScript("hang", new ArrayList<String>(), cancelFile);
+            fail("cancelled script did not throw an exception");
+        } catch ( IllegalArgumentException ex ) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("canceled"));
+        }
+        assertFalse(cancelFile.exists());
+        assertEquals(0, pool.getNumWorkers());
+    }
+
+}
@@ -0,0 +1,187 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.CheckerMessageStore;
+import gov.noaa.pmel.dashboard.shared.ADCMessage;
+import gov.noaa.pmel.dashboard.shared.ADCMessageListRange;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag.Severity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link CheckerMessageStore}
+ *
+ * @author Karl Smith
+ */
+public class CheckerMessageStoreTest {
+
+    private static final String[] COLUMN_NAMES = { "latitude", "longitude", "SST", "salinity", "xCO2_water" };
+
+    private File storeFile;
+    private File textFile;
+
+    @Before
+    public void setUp() {
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        storeFile = new File(parentDir, "TEST20160101.msgstore");
+        textFile = new File(parentDir, "TEST20160101.messages");
+    }
+
+    @After
+    public void tearDown() {
+        storeFile.delete();
+        textFile.delete();
+    }
+
+    /**
+     * Test of {@link CheckerMessageStore#writeStore(File, java.util.List, java.util.List)} and
+     * {@link CheckerMessageStore#getRange(int, int, String)} without filter text
+     */
+    @Test
+    public void testGetRange() throws IOException {
+        ArrayList<ADCMessage> msgs = createMessages(1000);
+        ArrayList<String> summaries = new ArrayList<String>(Arrays.asList("600 warnings of type: out of range",
+                "400 errors of type: missing value"));
+        CheckerMessageStore.writeStore(storeFile, summaries, msgs);
+
+        CheckerMessageStore store = new CheckerMessageStore(storeFile);
+        assertEquals(1000, store.getNumMessages());
+        assertEquals(600, store.getNumMessages(Severity.WARNING));
+        assertEquals(400, store.getNumMessages(Severity.ERROR));
+        assertEquals(summaries, store.getSummaries());
+
+        ArrayList<ADCMessage> sorted = new ArrayList<ADCMessage>(msgs);
+        Collections.sort(sorted, CheckerMessageStore.MESSAGE_ORDER);
+        ADCMessageListRange range = store.getRange(0, 1000, null);
+        assertEquals(1000, range.getTotalCount());
+        assertEquals(600, range.getNumWarnings());
+        assertEquals(400, range.getNumErrors());
+        assertEquals(summaries, range.getSummaries());
+        assertEquals(sorted, range.getMessages());
+
+        range = store.getRange(990, 50, "");
+        assertEquals(990, range.getOffset());
+        assertEquals(1000, range.getTotalCount());
+        assertEquals(sorted.subList(990, 1000), range.getMessages());
+        range = store.getRange(2000, 50, null);
+        assertEquals(0, range.getMessages().size());
+
+        try {
+            store.getRange(-1, 50, null);
+            fail("negative offset accepted");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
+    /**
+     * Test of {@link CheckerMessageStore#getRange(int, int, String)} with filter text
+     */
+    @Test
+    public void testGetFilteredRange() throws IOException {
+        ArrayList<ADCMessage> msgs = createMessages(1000);
+        CheckerMessageStore.writeStore(storeFile, new ArrayList<String>(), msgs);
+        CheckerMessageStore store = new CheckerMessageStore(storeFile);
+
+        ArrayList<ADCMessage> sorted = new ArrayList<ADCMessage>(msgs);
+        Collections.sort(sorted, CheckerMessageStore.MESSAGE_ORDER);
+        // severity and column name filters match whole sections of the store;
+        // general and detailed message filters match individual messages
+        for (String filter : new String[] { "error", " SALINITY ", "missing value", "row 17:", "xco2", "nothing" }) {
+            ArrayList<ADCMessage> expected = new ArrayList<ADCMessage>();
+            for (ADCMessage msg : sorted) {
+                if ( ADCMessageListRange.matchesFilter(msg, filter) )
+                    expected.add(msg);
+            }
+            ADCMessageListRange range = store.getRange(0, 1000, filter);
+            assertEquals(filter, expected.size(), range.getTotalCount());
+            assertEquals(filter, expected, range.getMessages());
+            if ( expected.size() > 10 ) {
+                range = store.getRange(5, 7, filter);
+                assertEquals(filter, expected.size(), range.getTotalCount());
+                assertEquals(filter, expected.subList(5, 12), range.getMessages());
+            }
+        }
+        assertEquals(0, store.getRange(0, 50, "nothing").getTotalCount());
+    }
+
+    /**
+     * Test that the messages store is smaller than the text messages file formerly written,
+     * and that all the messages are read back from the store
+     */
+    @Test
+    public void testStoreSize() throws IOException {
+        ArrayList<ADCMessage> msgs = createMessages(2000);
+        writeTextMessages(msgs);
+        CheckerMessageStore.writeStore(storeFile, new ArrayList<String>(), msgs);
+        assertTrue(storeFile.length() < textFile.length());
+
+        ArrayList<ADCMessage> sorted = new ArrayList<ADCMessage>(msgs);
+        Collections.sort(sorted, CheckerMessageStore.MESSAGE_ORDER);
+        CheckerMessageStore store = new CheckerMessageStore(storeFile);
+        assertEquals(sorted, store.getRange(0, msgs.size(), null).getMessages());
+    }
+
+    /**
+     * Writes the messages to the text messages file in the format formerly used
+     */
+    private void writeTextMessages(ArrayList<ADCMessage> msgs) throws IOException {
+        PrintWriter textWriter = new PrintWriter(textFile);
+        try {
+            for (ADCMessage msg : msgs) {
+                ArrayList<String> mappings = new ArrayList<String>();
+                mappings.add("MsgSeverity:" + msg.getSeverity().name());
+                mappings.add("MsgRowNumber:" + msg.getRowNumber());
+                mappings.add("MsgColumnNumber:" + msg.getColNumber());
+                mappings.add("MsgColumnName:" + msg.getColName());
+                mappings.add("MsgGeneralMessage:" + msg.getGeneralComment());
+                mappings.add("MsgDetailedMessage:" + msg.getDetailedComment());
+                textWriter.println(DashboardUtils.encodeStringArrayList(mappings));
+            }
+        } finally {
+            textWriter.close();
+        }
+    }
+
+    static ArrayList<ADCMessage> createMessages(int numMsgs) {
+        ArrayList<ADCMessage> msgs = new ArrayList<ADCMessage>(numMsgs);
+        for (int k = 0; k < numMsgs; k++) {
+            ADCMessage msg = new ADCMessage();
+            int colIdx = k % COLUMN_NAMES.length;
+            msg.setColNumber(colIdx + 1);
+            msg.setColName(COLUMN_NAMES[colIdx]);
+            msg.setRowNumber(1 + (k % 99999));
+            if ( (k % 5) < 3 ) {
+                msg.setSeverity(Severity.WARNING);
+                msg.setGeneralComment("out of range");
+                msg.setDetailedComment("row " + msg.getRowNumber() + ": value of " + COLUMN_NAMES[colIdx] +
+                        " outside the expected range");
+            }
+            else {
+                msg.setSeverity(Severity.ERROR);
+                msg.setGeneralComment("missing value");
+                // no detailed message for some messages
+                if ( (k % 2) == 0 )
+                    msg.setDetailedComment("missing value for " + COLUMN_NAMES[colIdx]);
+            }
+            msgs.add(msg);
+        }
+        return msgs;
+    }
+
+}
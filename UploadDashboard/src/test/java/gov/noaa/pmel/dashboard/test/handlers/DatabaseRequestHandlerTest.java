@@ -0,0 +1,326 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatabaseConnectionPool;
+import gov.noaa.pmel.dashboard.handlers.DatabaseRequestHandler;
+import gov.noaa.pmel.dashboard.qc.DataLocation;
+import gov.noaa.pmel.dashboard.qc.DataQCEvent;
+import gov.noaa.pmel.dashboard.qc.QCEvent;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link DatabaseRequestHandler}, and its {@link DatabaseConnectionPool}s,
+ * using an embedded in-memory (H2) database in MySQL compatibility mode.
+ *
+ * @author Karl Smith
+ */
+public class DatabaseRequestHandlerTest {
+
+    static final String SQL_DRIVER = "org.h2.Driver";
+    static final String DATABASE_URL = "jdbc:h2:mem:SOCATFlags;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String DATABASE_USER = "scientist";
+    static final String DATABASE_PASS = "scientistpassword";
+
+    static final String[] CREATE_TABLES_SQL = new String[] {
+            "CREATE TABLE `Reviewers` (`reviewer_id` INT NOT NULL AUTO_INCREMENT, " +
+                    "`username` VARCHAR(64) NOT NULL DEFAULT '', `realname` VARCHAR(64) NOT NULL DEFAULT '', " +
+                    "`email` VARCHAR(256) NOT NULL DEFAULT '', PRIMARY KEY (`reviewer_id`));",
+            "CREATE TABLE `QCEvents` (`qc_id` BIGINT NOT NULL AUTO_INCREMENT, " +
+                    "`qc_flag` CHAR(1) NOT NULL DEFAULT ' ', `qc_time` BIGINT DEFAULT NULL, " +
+                    "`expocode` VARCHAR(16) NOT NULL DEFAULT '', `socat_version` CHAR(4) NOT NULL DEFAULT '', " +
+                    "`region_id` CHAR(1) NOT NULL DEFAULT ' ', `reviewer_id` INT NOT NULL DEFAULT 0, " +
+                    "`qc_comment` VARCHAR(1024) NOT NULL DEFAULT '', PRIMARY KEY (`qc_id`));",
+            "CREATE TABLE `WOCEEvents` (`woce_id` BIGINT NOT NULL AUTO_INCREMENT, " +
+                    "`woce_name` VARCHAR(64) NOT NULL DEFAULT 'WOCE_CO2_water', " +
+                    "`woce_flag` CHAR(1) NOT NULL DEFAULT ' ', `woce_time` BIGINT DEFAULT NULL, " +
+                    "`expocode` VARCHAR(16) NOT NULL DEFAULT '', `socat_version` CHAR(4) NOT NULL DEFAULT '', " +
+                    "`data_name` VARCHAR(64) NOT NULL DEFAULT '', `reviewer_id` INT NOT NULL DEFAULT 0, " +
+                    "`woce_comment` VARCHAR(1024) NOT NULL DEFAULT '', PRIMARY KEY (`woce_id`));",
+            "CREATE TABLE `WOCELocations` (`wloc_id` BIGINT NOT NULL AUTO_INCREMENT, " +
+                    "`woce_id` BIGINT NOT NULL DEFAULT 0, `region_id` CHAR(1) NOT NULL DEFAULT ' ', " +
+                    "`row_num` INT DEFAULT NULL, `longitude` DOUBLE DEFAULT NULL, `latitude` DOUBLE DEFAULT NULL, " +
+                    "`data_time` BIGINT DEFAULT NULL, `data_value` DOUBLE DEFAULT NULL, PRIMARY KEY (`wloc_id`), " +
+                    "FOREIGN KEY (`woce_id`) REFERENCES `WOCEEvents` (`woce_id`));",
+            "INSERT INTO `Reviewers` (`realname`, `username`, `email`) VALUES " +
+                    "('automated data checker', 'automated.data.checker', ''), " +
+                    "('Some Reviewer', 'reviewer', 'reviewer@some.where');"
+    };
+
+    private Connection keepAlive;
+
+    /**
+     * Creates the in-memory database with the tables used by {@link DatabaseRequestHandler}
+     */
+    @Before
+    public void createDatabase() throws Exception {
+        Class.forName(SQL_DRIVER);
+        keepAlive = DriverManager.getConnection(DATABASE_URL, DATABASE_USER, DATABASE_PASS);
+        Statement stmt = keepAlive.createStatement();
+        try {
+            for (String sql : CREATE_TABLES_SQL) {
+                stmt.execute(sql);
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+
+    /**
+     * Removes the in-memory database
+     */
+    @After
+    public void dropDatabase() throws Exception {
+        Statement stmt = keepAlive.createStatement();
+        try {
+            stmt.execute("DROP ALL OBJECTS;");
+        } finally {
+            stmt.close();
+        }
+        keepAlive.close();
+    }
+
+    private static ArrayList<QCEvent> createQCEvents(int numEvents) {
+        ArrayList<QCEvent> events = new ArrayList<QCEvent>(numEvents);
+        for (int k = 0; k < numEvents; k++) {
+            QCEvent event = new QCEvent();
+            event.setFlagValue(DatasetQCStatus.FLAG_NEW_AWAITING_QC);
+            event.setFlagDate(new Date(1500000000000L + 1000L * k));
+            event.setDatasetId("33RO2007121" + (k % 4));
+            event.setVersion("2019");
+            event.setRegionId(DashboardServerUtils.REGION_ID_GLOBAL);
+            event.setUsername("reviewer");
+            event.setComment("event " + k);
+            events.add(event);
+        }
+        return events;
+    }
+
+    static ArrayList<DataQCEvent> createDataQCEvents(int numEvents, int numLocations) {
+        ArrayList<DataQCEvent> woceEvents = new ArrayList<DataQCEvent>(numEvents);
+        for (int k = 0; k < numEvents; k++) {
+            DataQCEvent event = new DataQCEvent();
+            event.setFlagName("WOCE_CO2_water");
+            event.setFlagValue(DashboardServerUtils.WOCE_QUESTIONABLE);
+            event.setFlagDate(new Date(1500000000000L + 1000L * k));
+            event.setDatasetId("33RO20071215");
+            event.setVersion("2019");
+            event.setVarName("fCO2_rec");
+            event.setRealname("automated data checker");
+            event.setUsername("");
+            event.setComment("questionable " + k);
+            ArrayList<DataLocation> locations = new ArrayList<DataLocation>(numLocations);
+            for (int j = 0; j < numLocations; j++) {
+                DataLocation loc = new DataLocation();
+                loc.setRowNumber(10 * k + j + 1);
+                loc.setLongitude(200.0 + (j % 100) * 0.01);
+                loc.setLatitude(-30.0 + k);
+                loc.setDataDate(new Date(1500000000000L + 60000L * j));
+                loc.setDataValue(350.0 + j);
+                locations.add(loc);
+            }
+            event.setLocations(locations);
+            woceEvents.add(event);
+        }
+        return woceEvents;
+    }
+
+    /**
+     * Test of {@link DatabaseRequestHandler#addDatasetQCEvents(java.util.Collection)},
+     * {@link DatabaseRequestHandler#getDatasetQCEvents(String)}, and the reviewer methods
+     * with pooled connections
+     */
+    @Test
+    public void testPooledRequests() throws Exception {
+        DatabaseRequestHandler handler = new DatabaseRequestHandler(SQL_DRIVER, DATABASE_URL,
+                DATABASE_USER, DATABASE_PASS, DATABASE_USER, DATABASE_PASS, 2);
+        try {
+            assertEquals("Some Reviewer", handler.getReviewerRealname("reviewer"));
+            assertEquals("reviewer", handler.getReviewerUsername("Some Reviewer"));
+            assertEquals("reviewer@some.where", handler.getReviewerEmail("reviewer"));
+
+            int numRequests = 25;
+            for (int k = 0; k < numRequests; k++) {
+                handler.addDatasetQCEvents(createQCEvents(8));
+            }
+            ArrayList<QCEvent> events = handler.getDatasetQCEvents("33RO20071210");
+            assertEquals(2 * numRequests, events.size());
+            assertEquals("Some Reviewer", events.get(0).getRealname());
+
+            // Only one reviewer ID lookup in the database
+            assertEquals(1L, handler.getNumReviewerIdCacheMisses());
+            assertEquals(8L * numRequests - 1L, handler.getNumReviewerIdCacheHits());
+
+            // Connections and statements are reused
+            DatabaseConnectionPool updatePool = handler.getUpdatePool();
+            assertEquals(1L, updatePool.getNumConnectionsOpened());
+            assertEquals(numRequests + 1L, updatePool.getNumCheckouts());
+            assertEquals(0, updatePool.getNumInUse());
+            assertEquals(1, updatePool.getNumOpen());
+            assertEquals(2L, updatePool.getNumStatementsPrepared());
+            assertEquals(numRequests - 1L, updatePool.getNumStatementCacheHits());
+            DatabaseConnectionPool selectPool = handler.getSelectPool();
+            assertEquals(1L, selectPool.getNumConnectionsOpened());
+            assertEquals(5L, selectPool.getNumCheckouts());
+            assertTrue(selectPool.getPeakNumInUse() <= selectPool.getMaxPoolSize());
+        } finally {
+            handler.close();
+        }
+        assertEquals(0, handler.getUpdatePool().getNumOpen());
+        assertEquals(0, handler.getSelectPool().getNumOpen());
+    }
+
+    /**
+     * Test of {@link DatabaseRequestHandler#addDataQCEvent(java.util.Collection)}
+     * and {@link DatabaseRequestHandler#getDataQCEvents(String, boolean)} without pooled connections
+     */
+    @Test
+    public void testUnpooledDataQCEvents() throws Exception {
+        DatabaseRequestHandler handler = new DatabaseRequestHandler(SQL_DRIVER, DATABASE_URL,
+                DATABASE_USER, DATABASE_PASS, DATABASE_USER, DATABASE_PASS);
+        try {
+            ArrayList<DataQCEvent> woceEvents = createDataQCEvents(3, 5);
+            handler.addDataQCEvent(woceEvents);
+
+            ArrayList<DataQCEvent> retrieved = handler.getDataQCEvents("33RO20071215", false);
+            assertEquals(woceEvents.size(), retrieved.size());
+            for (int k = 0; k < woceEvents.size(); k++) {
+                assertEquals(woceEvents.get(k).getId(), retrieved.get(k).getId());
+                assertEquals(woceEvents.get(k).getLocations(), retrieved.get(k).getLocations());
+            }
+
+            // Every request opens its own connection, but statements are prepared only once within a request
+            DatabaseConnectionPool updatePool = handler.getUpdatePool();
+            assertEquals(0, updatePool.getMaxPoolSize());
+            assertEquals(updatePool.getNumCheckouts(), updatePool.getNumConnectionsOpened());
+            assertEquals(0, updatePool.getNumOpen());
+            assertEquals(3L, updatePool.getNumStatementsPrepared());
+            assertEquals(1L, handler.getNumReviewerIdCacheMisses());
+        } finally {
+            handler.close();
+        }
+    }
+
+    /**
+     * Test that {@link DatabaseRequestHandler#addDataQCEvent(java.util.Collection)} adds none of the
+     * data QC events if adding any of them fails
+     */
+    @Test
+    public void testDataQCEventRollback() throws Exception {
+        DatabaseRequestHandler handler = new DatabaseRequestHandler(SQL_DRIVER, DATABASE_URL,
+                DATABASE_USER, DATABASE_PASS, DATABASE_USER, DATABASE_PASS, 1);
+        try {
+            handler.setLocationBatchSize(4);
+            ArrayList<DataQCEvent> woceEvents = createDataQCEvents(3, 10);
+            // flag name too long for the woce_name column
+            woceEvents.get(2).setFlagName(String.format("WOCE_%080d", 0));
+            boolean caught;
+            try {
+                handler.addDataQCEvent(woceEvents);
+                caught = false;
+            } catch ( SQLException ex ) {
+                caught = true;
+            }
+            assertTrue(caught);
+            assertTrue(handler.getDataQCEvents("33RO20071215", false).isEmpty());
+            for (DataQCEvent event : woceEvents) {
+                assertEquals(Long.valueOf(0L), event.getId());
+            }
+
+            // The pooled connection remains usable
+            woceEvents.get(2).setFlagName("WOCE_CO2_atm");
+            handler.addDataQCEvent(woceEvents);
+            ArrayList<DataQCEvent> retrieved = handler.getDataQCEvents("33RO20071215", false);
+            assertEquals(woceEvents.size(), retrieved.size());
+            for (int k = 0; k < woceEvents.size(); k++) {
+                assertEquals(woceEvents.get(k).getId(), retrieved.get(k).getId());
+                assertEquals(woceEvents.get(k).getLocations(), retrieved.get(k).getLocations());
+            }
+            assertEquals(1L, handler.getUpdatePool().getNumConnectionsOpened());
+        } finally {
+            handler.close();
+        }
+    }
+
+    /**
+     * Test that {@link DatabaseRequestHandler#addDataQCEvent(java.util.Collection)} adds none of the
+     * data QC events, and leaves no partial batch of locations, if a runtime exception is thrown
+     */
+    @Test
+    public void testDataQCEventRuntimeRollback() throws Exception {
+        DatabaseRequestHandler handler = new DatabaseRequestHandler(SQL_DRIVER, DATABASE_URL,
+                DATABASE_USER, DATABASE_PASS, DATABASE_USER, DATABASE_PASS, 1);
+        try {
+            handler.setLocationBatchSize(4);
+            ArrayList<DataQCEvent> woceEvents = createDataQCEvents(3, 10);
+            // a missing location after one full batch and part of another have been added
+            ArrayList<DataLocation> locations = woceEvents.get(1).getLocations();
+            DataLocation replaced = locations.set(6, null);
+            boolean caught;
+            try {
+                handler.addDataQCEvent(woceEvents);
+                caught = false;
+            } catch ( NullPointerException ex ) {
+                caught = true;
+            }
+            assertTrue(caught);
+            assertTrue(handler.getDataQCEvents("33RO20071215", false).isEmpty());
+
+            // The partial batch is not added with the next events
+            locations.set(6, replaced);
+            handler.addDataQCEvent(woceEvents);
+            ArrayList<DataQCEvent> retrieved = handler.getDataQCEvents("33RO20071215", false);
+            assertEquals(woceEvents.size(), retrieved.size());
+            for (int k = 0; k < woceEvents.size(); k++) {
+                assertEquals(woceEvents.get(k).getId(), retrieved.get(k).getId());
+                assertEquals(woceEvents.get(k).getLocations(), retrieved.get(k).getLocations());
+            }
+        } finally {
+            handler.close();
+        }
+    }
+
+    /**
+     * Test that {@link DatabaseRequestHandler#addDataQCEvent(java.util.Collection)} adds the same locations
+     * when inserting the locations one at a time and in batches, including a final partial batch
+     */
+    @Test
+    public void testLocationBatchSizes() throws Exception {
+        DatabaseRequestHandler handler = new DatabaseRequestHandler(SQL_DRIVER, DATABASE_URL,
+                DATABASE_USER, DATABASE_PASS, DATABASE_USER, DATABASE_PASS, 1);
+        try {
+            ArrayList<DataQCEvent> woceEvents = new ArrayList<DataQCEvent>();
+            for (int batchSize : new int[] { 1, 7, DatabaseRequestHandler.DEFAULT_LOCATION_BATCH_SIZE }) {
+                handler.setLocationBatchSize(batchSize);
+                ArrayList<DataQCEvent> batchEvents = createDataQCEvents(3, 40);
+                handler.addDataQCEvent(batchEvents);
+                woceEvents.addAll(batchEvents);
+            }
+            // Events with the same flag date are not retrieved in any particular order
+            HashMap<Long,DataQCEvent> retrieved = new HashMap<Long,DataQCEvent>();
+            for (DataQCEvent event : handler.getDataQCEvents("33RO20071215", false)) {
+                retrieved.put(event.getId(), event);
+            }
+            assertEquals(woceEvents.size(), retrieved.size());
+            for (DataQCEvent event : woceEvents) {
+                assertEquals(event.getLocations(), retrieved.get(event.getId()).getLocations());
+            }
+        } finally {
+            handler.close();
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatasetInfoRegistry;
+import gov.noaa.pmel.dashboard.server.DashboardServerUtils;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
+import gov.noaa.pmel.dashboard.shared.DataColumnType;
+import gov.noaa.pmel.dashboard.shared.DataQCFlag;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link DatasetInfoRegistry}
+ *
+ * @author Karl Smith
+ */
+public class DatasetInfoRegistryTest {
+
+    private static final String DATASET_ID = "33RO20071215";
+
+    /**
+     * Test method for {@link DatasetInfoRegistry#register(String, long, long, DashboardDataset)},
+     * {@link DatasetInfoRegistry#assignDataset(String, File, DashboardDataset, boolean)}, and
+     * {@link DatasetInfoRegistry#invalidateIfChanged(String, File)}
+     */
+    @Test
+    public void testRegisterAssign() throws Exception {
+        File infoFile = File.createTempFile(DATASET_ID, ".properties");
+        try {
+            writeFile(infoFile, "owner=someone");
+            DashboardDataset dataset = createDataset(DATASET_ID, 5);
+
+            DatasetInfoRegistry registry = new DatasetInfoRegistry(4);
+            DashboardDataset other = new DashboardDataset();
+            other.setDatasetId(DATASET_ID);
+            assertFalse(registry.assignDataset(DATASET_ID, infoFile, other, true));
+            assertEquals(1L, registry.getNumMisses());
+
+            registry.register(DATASET_ID, infoFile.length(), infoFile.lastModified(), dataset);
+            assertEquals(1, registry.getNumRegistered());
+            assertTrue(registry.assignDataset(DATASET_ID, infoFile, other, true));
+            assertEquals(dataset, other);
+            assertEquals(1L, registry.getNumHits());
+
+            // Changes to the assigned dataset do not change the registered information
+            other.getAddlDocs().add("extra.doc ; 2019-11-05 10:00");
+            other.getCheckerFlags().clear();
+            DashboardDataset another = new DashboardDataset();
+            another.setDatasetId(DATASET_ID);
+            assertTrue(registry.assignDataset(DATASET_ID, infoFile, another, true));
+            assertEquals(dataset, another);
+
+            // Without flags
+            another = new DashboardDataset();
+            another.setDatasetId(DATASET_ID);
+            assertTrue(registry.assignDataset(DATASET_ID, infoFile, another, false));
+            assertEquals(dataset.getDataColTypes(), another.getDataColTypes());
+            assertEquals(dataset.getSubmitStatus(), another.getSubmitStatus());
+            assertTrue(another.getCheckerFlags().isEmpty());
+            assertTrue(another.getUserFlags().isEmpty());
+
+            // Information not changed, so not removed
+            assertFalse(registry.invalidateIfChanged(DATASET_ID, infoFile));
+            // Change the file contents and size
+            writeFile(infoFile, "owner=someone else entirely");
+            assertFalse(registry.assignDataset(DATASET_ID, infoFile, another, false));
+            assertTrue(registry.invalidateIfChanged(DATASET_ID, infoFile));
+            assertEquals(0, registry.getNumRegistered());
+        } finally {
+            infoFile.delete();
+        }
+    }
+
+    /**
+     * Test of the eviction of data QC flags in {@link DatasetInfoRegistry}
+     */
+    @Test
+    public void testFlagEviction() throws Exception {
+        File infoFile = File.createTempFile(DATASET_ID, ".properties");
+        try {
+            writeFile(infoFile, "owner=someone");
+            DatasetInfoRegistry registry = new DatasetInfoRegistry(2);
+            ArrayList<String> datasetIds = new ArrayList<String>(Arrays.asList(
+                    "33RO20071215", "33RO20080101", "33RO20080202", "33RO20080303"));
+            for (String datasetId : datasetIds) {
+                registry.register(datasetId, infoFile.length(), infoFile.lastModified(), createDataset(datasetId, 3));
+            }
+            assertEquals(4, registry.getNumRegistered());
+            assertEquals(2, registry.getNumFlagSets());
+            assertEquals(2L, registry.getNumFlagEvictions());
+
+            // Evicted flags are a miss only if the flags are wanted
+            DashboardDataset dataset = new DashboardDataset();
+            dataset.setDatasetId(datasetIds.get(0));
+            assertFalse(registry.assignDataset(datasetIds.get(0), infoFile, dataset, true));
+            assertTrue(registry.assignDataset(datasetIds.get(0), infoFile, dataset, false));
+            assertEquals("someone", dataset.getOwner());
+            dataset.setDatasetId(datasetIds.get(3));
+            assertTrue(registry.assignDataset(datasetIds.get(3), infoFile, dataset, true));
+            assertEquals(3, dataset.getCheckerFlags().size());
+
+            registry.clear();
+            assertEquals(0, registry.getNumRegistered());
+            assertEquals(0, registry.getNumFlagSets());
+        } finally {
+            infoFile.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link DatasetInfoRegistry#getNumChanges()}
+     */
+    @Test
+    public void testNumChanges() throws Exception {
+        File infoFile = File.createTempFile(DATASET_ID, ".properties");
+        try {
+            writeFile(infoFile, "owner=someone");
+            DatasetInfoRegistry registry = new DatasetInfoRegistry(2);
+            assertEquals(0L, registry.getNumChanges());
+
+            // Adding information is not a change; replacing or removing information is
+            registry.register(DATASET_ID, infoFile.length(), infoFile.lastModified(), createDataset(DATASET_ID, 1));
+            assertEquals(0L, registry.getNumChanges());
+            registry.register(DATASET_ID, infoFile.length(), infoFile.lastModified(), createDataset(DATASET_ID, 2));
+            assertEquals(1L, registry.getNumChanges());
+            registry.invalidate(DATASET_ID);
+            assertEquals(2L, registry.getNumChanges());
+            registry.invalidate(DATASET_ID);
+            assertEquals(2L, registry.getNumChanges());
+
+            registry.register(DATASET_ID, infoFile.length(), infoFile.lastModified(), createDataset(DATASET_ID, 1));
+            assertFalse(registry.invalidateIfChanged(DATASET_ID, infoFile));
+            assertEquals(2L, registry.getNumChanges());
+            writeFile(infoFile, "owner=someone else entirely");
+            assertTrue(registry.invalidateIfChanged(DATASET_ID, infoFile));
+            assertEquals(3L, registry.getNumChanges());
+
+            registry.clear();
+            assertEquals(4L, registry.getNumChanges());
+        } finally {
+            infoFile.delete();
+        }
+    }
+
+    private static DashboardDataset createDataset(String datasetId, int numFlags) {
+        DashboardDataset dataset = new DashboardDataset();
+        dataset.setDatasetId(datasetId);
+        dataset.setOwner("someone");
+        dataset.setVersion("2019");
+        dataset.setUploadFilename(datasetId + ".tsv");
+        dataset.setNumDataRows(100);
+        dataset.setUserColNames(new ArrayList<String>(Arrays.asList("expocode", "longitude", "latitude")));
+        dataset.setDataColTypes(new ArrayList<DataColumnType>(Arrays.asList(
+                DashboardServerUtils.DATASET_ID.duplicate(),
+                DashboardServerUtils.LONGITUDE.duplicate(),
+                DashboardServerUtils.LATITUDE.duplicate())));
+        TreeSet<DataQCFlag> flags = new TreeSet<DataQCFlag>();
+        for (int k = 0; k < numFlags; k++) {
+            flags.add(new DataQCFlag("lat_range", DashboardServerUtils.WOCE_BAD, DataQCFlag.Severity.ERROR, 2, k));
+        }
+        dataset.setCheckerFlags(flags);
+        dataset.setUserFlags(flags);
+        return dataset;
+    }
+
+    private static void writeFile(File file, String contents) throws Exception {
+        PrintWriter writer = new PrintWriter(file);
+        try {
+            writer.println(contents);
+        } finally {
+            writer.close();
+        }
+    }
+
+}
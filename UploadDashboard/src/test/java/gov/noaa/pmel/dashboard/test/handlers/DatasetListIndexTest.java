@@ -0,0 +1,183 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatasetListIndex;
+import gov.noaa.pmel.dashboard.shared.DashboardDataset;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetList;
+import gov.noaa.pmel.dashboard.shared.DashboardDatasetListRange;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import gov.noaa.pmel.dashboard.shared.DatasetQCStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link DatasetListIndex}
+ *
+ * @author Karl Smith
+ */
+public class DatasetListIndexTest {
+
+    /**
+     * Test of {@link DatasetListIndex#getRange(int, int, String, boolean, String)}
+     */
+    @Test
+    public void testGetRange() {
+        DatasetListIndex index = new DatasetListIndex(createDatasetList(100));
+
+        DashboardDatasetListRange range = index.getRange(0, 10, DashboardDatasetListRange.SORT_BY_DATASET_ID,
+                true, null);
+        assertEquals("junit", range.getUsername());
+        assertEquals(0, range.getOffset());
+        assertEquals(100, range.getTotalCount());
+        assertEquals(10, range.getDatasets().size());
+        assertEquals("TEST00000000", range.getDatasets().get(0).getDatasetId());
+        assertEquals("TEST00000009", range.getDatasets().get(9).getDatasetId());
+
+        range = index.getRange(95, 10, DashboardDatasetListRange.SORT_BY_DATASET_ID, false, "");
+        assertEquals(100, range.getTotalCount());
+        assertEquals(5, range.getDatasets().size());
+        assertEquals("TEST00000004", range.getDatasets().get(0).getDatasetId());
+        assertEquals("TEST00000000", range.getDatasets().get(4).getDatasetId());
+
+        // ten owners, so ten datasets for each owner, which are in ascending order of dataset ID
+        range = index.getRange(0, 20, DashboardDatasetListRange.SORT_BY_OWNER, false, null);
+        assertEquals(20, range.getDatasets().size());
+        for (int k = 0; k < 10; k++) {
+            assertEquals("owner9", range.getDatasets().get(k).getOwner());
+        }
+        assertEquals("owner8", range.getDatasets().get(10).getOwner());
+        assertEquals("TEST00000009", range.getDatasets().get(0).getDatasetId());
+        assertEquals("TEST00000019", range.getDatasets().get(1).getDatasetId());
+
+        // filter text matches the owner, ignoring case
+        range = index.getRange(0, 50, DashboardDatasetListRange.SORT_BY_TIMESTAMP, true, " OWNER3 ");
+        assertEquals(10, range.getTotalCount());
+        assertEquals(10, range.getDatasets().size());
+        for (DashboardDataset dataset : range.getDatasets()) {
+            assertEquals("owner3", dataset.getOwner());
+        }
+        range = index.getRange(2, 50, DashboardDatasetListRange.SORT_BY_TIMESTAMP, true, "data_00000042");
+        assertEquals(1, range.getTotalCount());
+        assertEquals(0, range.getDatasets().size());
+
+        try {
+            index.getRange(0, 10, "unknown", true, null);
+            fail("unknown sort key accepted");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+        try {
+            index.getRange(-1, 10, DashboardDatasetListRange.SORT_BY_OWNER, true, null);
+            fail("negative offset accepted");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
+    /**
+     * Test of {@link DatasetListIndex#getMatching(String, String)}
+     */
+    @Test
+    public void testGetMatching() {
+        DatasetListIndex index = new DatasetListIndex(createDatasetList(100));
+        DashboardDatasetList matching = index.getMatching(null, DashboardDatasetListRange.ALL_STATUS);
+        assertEquals(100, matching.size());
+        assertEquals("junit", matching.getUsername());
+        matching = index.getMatching("owner1", DashboardDatasetListRange.PUBLISHED_STATUS);
+        assertEquals(10, matching.size());
+        for (DashboardDataset dataset : matching.values()) {
+            assertEquals(null, dataset.isEditable());
+        }
+        matching = index.getMatching("owner2", DashboardDatasetListRange.EDITABLE_STATUS);
+        assertEquals(0, matching.size());
+        matching = index.getMatching("owner2", DashboardDatasetListRange.SUBMITTED_STATUS);
+        assertEquals(10, matching.size());
+        matching = index.getMatching(null, DashboardDatasetListRange.EDITABLE_STATUS);
+        assertEquals(80, matching.size());
+        try {
+            index.getMatching(null, "unknown");
+            fail("unknown status option accepted");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
+    /**
+     * Test that the pages of {@link DatasetListIndex#getRange(int, int, String, boolean, String)} together give
+     * the same datasets, in the same order, as filtering and sorting the full list of datasets
+     */
+    @Test
+    public void testRangesMatchSortedList() {
+        DashboardDatasetList datasetList = createDatasetList(500);
+        DatasetListIndex index = new DatasetListIndex(datasetList);
+        String[] sortKeys = { DashboardDatasetListRange.SORT_BY_TIMESTAMP, DashboardDatasetListRange.SORT_BY_OWNER,
+                DashboardDatasetListRange.SORT_BY_SUBMIT_STATUS, DashboardDatasetListRange.SORT_BY_FILENAME };
+        String[] filters = { null, "owner3" };
+        int pageSize = 37;
+        for (String sortKey : sortKeys) {
+            final Comparator<DashboardDataset> comparator = DashboardDatasetListRange.getComparator(sortKey);
+            for (final boolean ascending : new boolean[] { true, false }) {
+                for (String filterText : filters) {
+                    ArrayList<DashboardDataset> expected = new ArrayList<DashboardDataset>();
+                    for (DashboardDataset dataset : datasetList.values()) {
+                        if ( DashboardDatasetListRange.matchesFilter(dataset, filterText) )
+                            expected.add(dataset);
+                    }
+                    Collections.sort(expected, new Comparator<DashboardDataset>() {
+                        @Override
+                        public int compare(DashboardDataset d1, DashboardDataset d2) {
+                            int result = comparator.compare(d1, d2);
+                            if ( !ascending )
+                                result = -result;
+                            if ( result == 0 )
+                                result = DashboardUtils.dataDatasetIdComparator.compare(d1, d2);
+                            return result;
+                        }
+                    });
+
+                    ArrayList<DashboardDataset> paged = new ArrayList<DashboardDataset>();
+                    for (int offset = 0; offset < expected.size(); offset += pageSize) {
+                        DashboardDatasetListRange range = index.getRange(offset, pageSize, sortKey,
+                                ascending, filterText);
+                        assertEquals(expected.size(), range.getTotalCount());
+                        paged.addAll(range.getDatasets());
+                    }
+                    assertEquals(sortKey + (ascending ? " ascending" : " descending"), expected, paged);
+                }
+            }
+        }
+    }
+
+    static DashboardDatasetList createDatasetList(int numDatasets) {
+        DashboardDatasetList datasetList = new DashboardDatasetList();
+        datasetList.setUsername("junit");
+        for (int k = 0; k < numDatasets; k++) {
+            DashboardDataset dataset = new DashboardDataset();
+            dataset.setDatasetId(String.format("TEST%08d", k));
+            dataset.setOwner("owner" + (k % 10));
+            dataset.setUploadFilename(String.format("data_%08d.tsv", k));
+            dataset.setUploadTimestamp(String.format("2016-%02d-%02d %02d:%02d",
+                    1 + (k % 12), 1 + (k % 28), k % 24, (k / 24) % 60));
+            dataset.setVersion("2019");
+            // owner1 datasets are published; owner2 datasets are submitted; others are editable
+            if ( (k % 10) == 1 ) {
+                dataset.setSubmitStatus(new DatasetQCStatus(DatasetQCStatus.Status.ACCEPTED_A, ""));
+                dataset.setArchiveStatus(DashboardUtils.ARCHIVE_STATUS_ARCHIVED);
+            }
+            else if ( (k % 10) == 2 ) {
+                dataset.setSubmitStatus(new DatasetQCStatus(DatasetQCStatus.Status.NEW_AWAITING_QC, ""));
+            }
+            datasetList.put(dataset.getDatasetId(), dataset);
+        }
+        return datasetList;
+    }
+
+}
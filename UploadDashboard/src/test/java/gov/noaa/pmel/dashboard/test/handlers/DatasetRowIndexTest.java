@@ -0,0 +1,148 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.DatasetDataReader;
+import gov.noaa.pmel.dashboard.handlers.DatasetRowIndex;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link DatasetRowIndex} and {@link DatasetDataReader}
+ *
+ * @author Karl Smith
+ */
+public class DatasetRowIndexTest {
+
+    private static final int NUM_ROWS = 3 * DatasetRowIndex.ROW_STRIDE + 17;
+    private static final ArrayList<String> PREAMBLE = new ArrayList<String>(Arrays.asList(
+            "Expocode: 33RO20071215",
+            "Ship: Ronald H. Brown",
+            ""
+    ));
+    private static final ArrayList<String> HEADERS = new ArrayList<String>(Arrays.asList(
+            "Expocode", "Date", "Time", "Longitude [deg E]", "Latitude [deg N]", "SST [deg C]", "Comment"
+    ));
+
+    /**
+     * Test method for {@link DatasetRowIndex#build(File, int)}, {@link DatasetRowIndex#write(File)},
+     * {@link DatasetRowIndex#read(File)}, {@link DatasetRowIndex#matches(File)}, and reading pages of data rows
+     * using {@link DatasetDataReader#DatasetDataReader(java.io.Reader, String, int, int)}
+     */
+    @Test
+    public void testReadPages() throws Exception {
+        File dataFile = File.createTempFile("DatasetRowIndex", ".tsv");
+        File indexFile = new File(dataFile.getPath() + ".rowidx");
+        try {
+            ArrayList<ArrayList<String>> dataRows = createDataRows(new Random(20191104L));
+            PrintWriter writer = new PrintWriter(dataFile);
+            try {
+                for (String metaline : PREAMBLE) {
+                    writer.println(metaline);
+                }
+                writer.println(join(HEADERS));
+                for (ArrayList<String> row : dataRows) {
+                    writer.println(join(row));
+                }
+            } finally {
+                writer.close();
+            }
+
+            // The headers from reading from the beginning
+            DatasetDataReader headerReader = new DatasetDataReader(new FileReader(dataFile),
+                    DashboardUtils.TAB_FORMAT_TAG);
+            ArrayList<ArrayList<String>> allRows = new ArrayList<ArrayList<String>>();
+            ArrayList<Integer> allRowNums = new ArrayList<Integer>();
+            try {
+                assertEquals("33RO20071215", headerReader.getExpocode());
+                assertEquals(PREAMBLE, headerReader.getPreamble());
+                assertEquals(HEADERS, headerReader.getColumnNames());
+                assertEquals(PREAMBLE.size() + 1, headerReader.getNumHeaderLines());
+                assertEquals(NUM_ROWS, headerReader.readRows(allRows, allRowNums, Integer.MAX_VALUE));
+            } finally {
+                headerReader.close();
+            }
+            assertEquals(dataRows, allRows);
+
+            DatasetRowIndex rowIndex = DatasetRowIndex.build(dataFile, headerReader.getNumHeaderLines());
+            assertEquals(NUM_ROWS, rowIndex.getNumDataRows());
+            assertEquals((NUM_ROWS + DatasetRowIndex.ROW_STRIDE - 1) / DatasetRowIndex.ROW_STRIDE,
+                    rowIndex.getNumPages());
+            assertTrue(rowIndex.matches(dataFile));
+            rowIndex.write(indexFile);
+            rowIndex = DatasetRowIndex.read(indexFile);
+            assertEquals(NUM_ROWS, rowIndex.getNumDataRows());
+
+            // Read the pages in reverse order by seeking to the start of each page
+            for (int pageIdx = rowIndex.getNumPages() - 1; pageIdx >= 0; pageIdx--) {
+                int firstIdx = pageIdx * DatasetRowIndex.ROW_STRIDE;
+                int numExpected = Math.min(DatasetRowIndex.ROW_STRIDE, NUM_ROWS - firstIdx);
+                ArrayList<ArrayList<String>> pageRows = new ArrayList<ArrayList<String>>();
+                ArrayList<Integer> pageRowNums = new ArrayList<Integer>();
+                FileInputStream dataStream = new FileInputStream(dataFile);
+                try {
+                    dataStream.getChannel().position(rowIndex.getPageOffset(pageIdx));
+                    DatasetDataReader pageReader = new DatasetDataReader(new InputStreamReader(dataStream),
+                            DashboardUtils.TAB_FORMAT_TAG, HEADERS.size(), firstIdx);
+                    assertEquals(numExpected, pageReader.readRows(pageRows, pageRowNums,
+                            DatasetRowIndex.ROW_STRIDE));
+                    pageReader.close();
+                } finally {
+                    dataStream.close();
+                }
+                assertEquals(dataRows.subList(firstIdx, firstIdx + numExpected), pageRows);
+                assertEquals(allRowNums.subList(firstIdx, firstIdx + numExpected), pageRowNums);
+            }
+
+            // Any change to the data file makes the index obsolete
+            writer = new PrintWriter(dataFile);
+            try {
+                writer.println(join(HEADERS));
+            } finally {
+                writer.close();
+            }
+            assertFalse(rowIndex.matches(dataFile));
+        } finally {
+            dataFile.delete();
+            indexFile.delete();
+        }
+    }
+
+    private static ArrayList<ArrayList<String>> createDataRows(Random rand) {
+        ArrayList<ArrayList<String>> dataRows = new ArrayList<ArrayList<String>>(NUM_ROWS);
+        for (int j = 0; j < NUM_ROWS; j++) {
+            ArrayList<String> row = new ArrayList<String>(HEADERS.size());
+            row.add("33RO20071215");
+            row.add(String.format("2007-12-%02d", 15 + j / 200));
+            row.add(String.format("%02d:%02d:00", (j / 60) % 24, j % 60));
+            row.add(String.format("%.4f", 200.0 + rand.nextDouble()));
+            row.add(String.format("%.4f", -30.0 + rand.nextDouble()));
+            row.add(String.format("%.3f", 15.0 + 5.0 * rand.nextDouble()));
+            row.add(rand.nextBoolean() ? "" : "high temperature, questionable");
+            dataRows.add(row);
+        }
+        return dataRows;
+    }
+
+    private static String join(ArrayList<String> values) {
+        StringBuilder builder = new StringBuilder();
+        for (String val : values) {
+            if ( builder.length() > 0 )
+                builder.append('\t');
+            builder.append(val);
+        }
+        return builder.toString();
+    }
+
+}
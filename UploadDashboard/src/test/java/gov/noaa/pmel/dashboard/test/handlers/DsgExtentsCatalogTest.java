@@ -0,0 +1,189 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.dsg.DsgExtent;
+import gov.noaa.pmel.dashboard.handlers.DsgExtentsCatalog;
+import gov.noaa.pmel.dashboard.shared.DashboardUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for methods in {@link DsgExtentsCatalog}
+ *
+ * @author Karl Smith
+ */
+public class DsgExtentsCatalogTest {
+
+    private static final int NUM_DATASETS = 500;
+
+    /**
+     * Test method for {@link DsgExtentsCatalog#putExtent(DsgExtent)}, {@link DsgExtentsCatalog#getExtent(String)},
+     * {@link DsgExtentsCatalog#removeExtent(String)}, and
+     * {@link DsgExtentsCatalog#findExtents(double, double, double, double)}
+     */
+    @Test
+    public void testFindExtents() throws Exception {
+        File catalogFile = File.createTempFile("DsgExtents", ".tsv");
+        catalogFile.delete();
+        try {
+            DsgExtentsCatalog catalog = new DsgExtentsCatalog(catalogFile);
+            assertEquals(0, catalog.size());
+            ArrayList<DsgExtent> extents = createExtents(new Random(20191023L));
+            for (DsgExtent extent : extents) {
+                catalog.putExtent(extent);
+            }
+            assertEquals(NUM_DATASETS, catalog.size());
+            assertEquals(extents.get(7), catalog.getExtent(extents.get(7).getDatasetId()));
+
+            Random rand = new Random(5L);
+            for (int k = 0; k < 200; k++) {
+                double minTime = 1.0E9 + rand.nextDouble() * 4.0E8;
+                double maxTime = minTime + rand.nextDouble() * 2.0E7;
+                double minLat = -90.0 + rand.nextDouble() * 150.0;
+                double maxLat = minLat + rand.nextDouble() * 30.0;
+                assertEquals(bruteForceFind(catalog, extents, minTime, maxTime, minLat, maxLat),
+                        catalog.findExtents(minTime, maxTime, minLat, maxLat));
+            }
+
+            // Check a removed dataset is no longer found
+            DsgExtent removed = extents.remove(11);
+            assertTrue(catalog.removeExtent(removed.getDatasetId()));
+            assertFalse(catalog.removeExtent(removed.getDatasetId()));
+            assertNull(catalog.getExtent(removed.getDatasetId()));
+            double[] timeMinMax = removed.getTimeMinMax();
+            double[] latMinMax = removed.getLatMinMax();
+            assertFalse(catalog.findExtents(timeMinMax[0], timeMinMax[1], latMinMax[0], latMinMax[1])
+                                   .contains(removed));
+        } finally {
+            catalogFile.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link DsgExtentsCatalog#saveCatalog()} and {@link DsgExtentsCatalog#DsgExtentsCatalog(File)}
+     */
+    @Test
+    public void testSaveCatalog() throws Exception {
+        File catalogFile = File.createTempFile("DsgExtents", ".tsv");
+        catalogFile.delete();
+        try {
+            DsgExtentsCatalog catalog = new DsgExtentsCatalog(catalogFile);
+            ArrayList<DsgExtent> extents = createExtents(new Random(12345L));
+            for (DsgExtent extent : extents) {
+                catalog.putExtent(extent);
+            }
+            catalog.saveCatalog();
+            assertTrue(catalogFile.exists());
+
+            DsgExtentsCatalog readCatalog = new DsgExtentsCatalog(catalogFile);
+            assertEquals(NUM_DATASETS, readCatalog.size());
+            for (DsgExtent extent : extents) {
+                assertEquals(extent, readCatalog.getExtent(extent.getDatasetId()));
+            }
+            assertEquals(catalog.findExtents(1.1E9, 1.2E9, -30.0, 30.0),
+                    readCatalog.findExtents(1.1E9, 1.2E9, -30.0, 30.0));
+        } finally {
+            catalogFile.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link DsgExtentsCatalog#saveChanges()} and {@link DsgExtentsCatalog#DsgExtentsCatalog(File)}
+     */
+    @Test
+    public void testSaveChanges() throws Exception {
+        File catalogFile = File.createTempFile("DsgExtents", ".tsv");
+        catalogFile.delete();
+        DsgExtentsCatalog catalog = new DsgExtentsCatalog(catalogFile);
+        File journalFile = catalog.getJournalFile();
+        try {
+            ArrayList<DsgExtent> extents = createExtents(new Random(67890L));
+            for (DsgExtent extent : extents.subList(0, 400)) {
+                catalog.putExtent(extent);
+            }
+            catalog.saveCatalog();
+            assertTrue(catalogFile.exists());
+            assertFalse(journalFile.exists());
+            long catalogLength = catalogFile.length();
+
+            // Changes are appended to the journal without rewriting the catalog file
+            for (DsgExtent extent : extents.subList(400, NUM_DATASETS)) {
+                catalog.putExtent(extent);
+            }
+            DsgExtent removed = extents.remove(5);
+            assertTrue(catalog.removeExtent(removed.getDatasetId()));
+            DsgExtent modified = extents.get(9).withLastModified(123456789L);
+            extents.set(9, modified);
+            catalog.putExtent(modified);
+            catalog.saveChanges();
+            assertTrue(journalFile.exists());
+            assertEquals(catalogLength, catalogFile.length());
+
+            // Reading the catalog applies the journal and compacts the catalog
+            DsgExtentsCatalog readCatalog = new DsgExtentsCatalog(catalogFile);
+            assertFalse(journalFile.exists());
+            assertEquals(NUM_DATASETS - 1, readCatalog.size());
+            assertNull(readCatalog.getExtent(removed.getDatasetId()));
+            for (DsgExtent extent : extents) {
+                assertEquals(extent, readCatalog.getExtent(extent.getDatasetId()));
+            }
+        } finally {
+            catalogFile.delete();
+            journalFile.delete();
+        }
+    }
+
+    /**
+     * @return extents for {@link #NUM_DATASETS} datasets, a few with no valid data
+     */
+    private static ArrayList<DsgExtent> createExtents(Random rand) {
+        ArrayList<DsgExtent> extents = new ArrayList<DsgExtent>(NUM_DATASETS);
+        for (int k = 0; k < NUM_DATASETS; k++) {
+            String datasetId = String.format("%04d%08d", 1000 + (k % 37), 20000101 + k);
+            if ( (k % 50) == 3 ) {
+                double[] missing = new double[] { DashboardUtils.FP_MISSING_VALUE, DashboardUtils.FP_MISSING_VALUE };
+                extents.add(new DsgExtent(datasetId, 1000L * k, 10, 0, 0, missing, missing, missing,
+                        new Double[6]));
+                continue;
+            }
+            double startTime = 1.0E9 + rand.nextDouble() * 4.0E8;
+            double endTime = startTime + rand.nextDouble() * 5.0E6;
+            double southLat = -80.0 + rand.nextDouble() * 140.0;
+            double northLat = southLat + rand.nextDouble() * 20.0;
+            double westLon = -180.0 + rand.nextDouble() * 300.0;
+            double eastLon = westLon + rand.nextDouble() * 60.0;
+            Double[] goodLimits = (k % 7) == 0 ? new Double[6] :
+                    new Double[] { westLon, eastLon, southLat, northLat, startTime, endTime };
+            extents.add(new DsgExtent(datasetId, 1000L * k, 2000, 1990, 1900,
+                    new double[] { startTime, endTime }, new double[] { southLat, northLat },
+                    new double[] { westLon, eastLon }, goodLimits));
+        }
+        return extents;
+    }
+
+    private static ArrayList<DsgExtent> bruteForceFind(DsgExtentsCatalog catalog, ArrayList<DsgExtent> extents,
+            double minTime, double maxTime, double minLat, double maxLat) {
+        TreeMap<String,DsgExtent> found = new TreeMap<String,DsgExtent>();
+        for (DsgExtent extent : extents) {
+            if ( !extent.hasValidTimesAndLats() )
+                continue;
+            double[] timeMinMax = extent.getTimeMinMax();
+            double[] latMinMax = extent.getLatMinMax();
+            if ( (timeMinMax[1] < minTime) || (timeMinMax[0] > maxTime) )
+                continue;
+            if ( (latMinMax[1] < minLat) || (latMinMax[0] > maxLat) )
+                continue;
+            found.put(extent.getDatasetId(), catalog.getExtent(extent.getDatasetId()));
+        }
+        return new ArrayList<DsgExtent>(found.values());
+    }
+
+}
@@ -0,0 +1,124 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.ErddapNotifier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for methods in {@link ErddapNotifier}
+ *
+ * @author Karl Smith
+ */
+public class ErddapNotifierTest {
+
+    private File dsgFlagFile;
+    private File decDsgFlagFile;
+    private ErddapNotifier notifier;
+
+    @Before
+    public void setUp() {
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        dsgFlagFile = new File(parentDir, "dsgFlag.txt");
+        decDsgFlagFile = new File(parentDir, "decDsgFlag.txt");
+        dsgFlagFile.delete();
+        decDsgFlagFile.delete();
+        notifier = new ErddapNotifier(dsgFlagFile, decDsgFlagFile, null);
+    }
+
+    @After
+    public void tearDown() {
+        notifier.shutdown();
+        dsgFlagFile.delete();
+        decDsgFlagFile.delete();
+    }
+
+    /**
+     * Test of {@link ErddapNotifier#requestFlag(boolean, boolean)} with no flag delay
+     */
+    @Test
+    public void testImmediateFlag() {
+        assertTrue(notifier.requestFlag(false, true));
+        assertFalse(dsgFlagFile.exists());
+        assertTrue(decDsgFlagFile.exists());
+        assertEquals(0, notifier.getNumPendingDecDsgChanges());
+
+        File badFlagFile = new File("/var/tmp/junit/nonexistent/dsgFlag.txt");
+        ErddapNotifier badNotifier = new ErddapNotifier(badFlagFile, decDsgFlagFile, null);
+        try {
+            assertFalse(badNotifier.requestFlag(true, false));
+        } finally {
+            badNotifier.shutdown();
+        }
+    }
+
+    /**
+     * Test of {@link ErddapNotifier#requestFlag(boolean, boolean)} combining requests within the flag delay
+     */
+    @Test
+    public void testDelayedFlag() throws InterruptedException {
+        notifier.setFlagDelay(500L);
+        for (int k = 0; k < 10; k++) {
+            assertTrue(notifier.requestFlag(true, true));
+        }
+        assertTrue(notifier.requestFlag(true, false));
+        assertEquals(11, notifier.getNumPendingDsgChanges());
+        assertEquals(10, notifier.getNumPendingDecDsgChanges());
+        assertFalse(dsgFlagFile.exists());
+        assertFalse(decDsgFlagFile.exists());
+
+        long start = System.currentTimeMillis();
+        while ( (notifier.getNumPendingDsgChanges() > 0) && (System.currentTimeMillis() - start < 5000L) ) {
+            Thread.sleep(50L);
+        }
+        assertEquals(0, notifier.getNumPendingDsgChanges());
+        assertEquals(0, notifier.getNumPendingDecDsgChanges());
+        assertTrue(dsgFlagFile.exists());
+        assertTrue(decDsgFlagFile.exists());
+
+        try {
+            notifier.setFlagDelay(-1L);
+            fail("negative flag delay accepted");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
+    /**
+     * Test of {@link ErddapNotifier#deferFlags()} and {@link ErddapNotifier#resumeFlags()}
+     */
+    @Test
+    public void testDeferFlags() {
+        notifier.deferFlags();
+        notifier.deferFlags();
+        assertTrue(notifier.requestFlag(true, true));
+        assertTrue(notifier.requestFlag(true, true));
+        assertTrue(notifier.resumeFlags());
+        assertEquals(2, notifier.getNumPendingDsgChanges());
+        assertFalse(dsgFlagFile.exists());
+
+        assertTrue(notifier.resumeFlags());
+        assertEquals(0, notifier.getNumPendingDsgChanges());
+        assertTrue(dsgFlagFile.exists());
+        assertTrue(decDsgFlagFile.exists());
+
+        try {
+            notifier.resumeFlags();
+            fail("resume without a deferral accepted");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
+}
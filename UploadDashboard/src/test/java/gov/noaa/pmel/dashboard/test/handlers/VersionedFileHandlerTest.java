@@ -0,0 +1,188 @@
+package gov.noaa.pmel.dashboard.test.handlers;
+
+import gov.noaa.pmel.dashboard.handlers.MetadataFileHandler;
+import gov.noaa.pmel.dashboard.handlers.VersionedFileHandler;
+import gov.noaa.pmel.dashboard.shared.DashboardMetadata;
+import org.junit.Assume;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc.SVNClientManager;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+
+import java.io.File;
+import java.io.FileWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the queued commits of {@link VersionedFileHandler}
+ *
+ * @author Karl Smith
+ */
+public class VersionedFileHandlerTest {
+
+    private static final String[] DATASET_IDS = { "31B520060606", "33RO20071215", "49P120101107" };
+
+    /**
+     * Test of {@link VersionedFileHandler#commitQueuedFiles()} using a local file:// repository.
+     * Skipped if the local repository and working copy cannot be created.
+     */
+    @Test
+    public void testCommitQueuedFiles() throws Exception {
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        File repoDir = new File(parentDir, "svn_repo");
+        File wcDir = new File(parentDir, "svn_wc");
+        SVNURL repoUrl = createWorkingCopy(repoDir, wcDir);
+        Assume.assumeTrue(repoUrl != null);
+
+        try {
+            MetadataFileHandler handler = new MetadataFileHandler(wcDir.getPath(), "junit", "junit");
+            handler.setCommitInterval(60000L);
+            for (String datasetId : DATASET_IDS) {
+                saveNotes(handler, datasetId);
+            }
+            // metadata file and properties file for each dataset
+            assertEquals(2 * DATASET_IDS.length, handler.getNumQueuedCommits());
+
+            handler.commitQueuedFiles();
+            assertEquals(0, handler.getNumQueuedCommits());
+            assertEquals(1L, handler.getNumCommits());
+            assertEquals(0L, handler.getNumFailedCommits());
+            assertTrue(handler.getMaxCommitLatency() >= handler.getMeanCommitLatency());
+
+            // all the changes went into a single commit
+            SVNRepository repository = SVNRepositoryFactory.create(repoUrl);
+            try {
+                assertEquals(1L, repository.getLatestRevision());
+            } finally {
+                repository.closeSession();
+            }
+            handler.shutdown();
+        } finally {
+            deleteTree(repoDir);
+            deleteTree(wcDir);
+        }
+    }
+
+    /**
+     * Test of {@link VersionedFileHandler#commitQueuedFiles()} when one of the queued changes cannot be committed.
+     * The other changes should still be committed, each on its own.  Skipped if the local repository and working
+     * copy cannot be created.
+     */
+    @Test
+    public void testCommitOneAtATime() throws Exception {
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        File repoDir = new File(parentDir, "svn_repo");
+        File wcDir = new File(parentDir, "svn_wc");
+        SVNURL repoUrl = createWorkingCopy(repoDir, wcDir);
+        Assume.assumeTrue(repoUrl != null);
+
+        try {
+            MetadataFileHandler handler = new MetadataFileHandler(wcDir.getPath(), "junit", "junit");
+            handler.setCommitInterval(60000L);
+            for (String datasetId : DATASET_IDS) {
+                saveNotes(handler, datasetId);
+            }
+            // Remove the notes file of the last dataset so its change cannot be committed
+            File missingFile = handler.getMetadataFile(DATASET_IDS[DATASET_IDS.length - 1], "notes.txt");
+            assertTrue(missingFile.delete());
+
+            handler.commitQueuedFiles();
+            assertEquals(0, handler.getNumQueuedCommits());
+            assertEquals(1L, handler.getNumFailedCommits());
+            assertEquals(2L * DATASET_IDS.length - 1L, handler.getNumCommits());
+            assertTrue(new File(wcDir, "svn_commit_commands.sh").exists());
+
+            SVNRepository repository = SVNRepositoryFactory.create(repoUrl);
+            try {
+                assertEquals(2L * DATASET_IDS.length - 1L, repository.getLatestRevision());
+            } finally {
+                repository.closeSession();
+            }
+            handler.shutdown();
+        } finally {
+            deleteTree(repoDir);
+            deleteTree(wcDir);
+        }
+    }
+
+    /**
+     * Test of the commit settings of a {@link VersionedFileHandler} that is not version controlled
+     */
+    @Test
+    public void testUnversionedHandler() {
+        File parentDir = new File("/var/tmp/junit");
+        if ( !parentDir.exists() )
+            parentDir.mkdir();
+        MetadataFileHandler handler = new MetadataFileHandler(parentDir.getPath(), null, null);
+        handler.setCommitInterval(1000L);
+        assertEquals(0, handler.getNumQueuedCommits());
+        assertEquals(0L, handler.getNumCommits());
+        handler.commitQueuedFiles();
+        handler.shutdown();
+        try {
+            handler.setCommitInterval(0L);
+            fail("zero commit interval accepted");
+        } catch ( IllegalArgumentException ex ) {
+            // Expected result
+            ;
+        }
+    }
+
+    /**
+     * @return the URL of a new local repository with a checked-out working copy; null if these cannot be created
+     */
+    private static SVNURL createWorkingCopy(File repoDir, File wcDir) {
+        deleteTree(repoDir);
+        deleteTree(wcDir);
+        SVNURL repoUrl;
+        try {
+            FSRepositoryFactory.setup();
+            repoUrl = SVNRepositoryFactory.createLocalRepository(repoDir, true, false);
+            SVNClientManager.newInstance().getUpdateClient().doCheckout(repoUrl, wcDir,
+                    SVNRevision.HEAD, SVNRevision.HEAD, SVNDepth.INFINITY, false);
+        } catch ( Throwable ex ) {
+            repoUrl = null;
+        }
+        return repoUrl;
+    }
+
+    /**
+     * Writes a notes file for a dataset and saves its metadata information, queueing two changes
+     */
+    private static void saveNotes(MetadataFileHandler handler, String datasetId) throws Exception {
+        DashboardMetadata metadata = new DashboardMetadata();
+        metadata.setDatasetId(datasetId);
+        metadata.setFilename("notes.txt");
+        metadata.setUploadTimestamp("2016-01-01 00:00");
+        metadata.setOwner("junit");
+        metadata.setVersion("1.0");
+        File metadataFile = handler.getMetadataFile(datasetId, "notes.txt");
+        metadataFile.getParentFile().mkdirs();
+        FileWriter writer = new FileWriter(metadataFile);
+        writer.write("notes for " + datasetId + "\n");
+        writer.close();
+        handler.saveMetadataInfo(metadata, "notes for " + datasetId, true);
+    }
+
+    private static void deleteTree(File file) {
+        File[] children = file.listFiles();
+        if ( children != null ) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+
+}